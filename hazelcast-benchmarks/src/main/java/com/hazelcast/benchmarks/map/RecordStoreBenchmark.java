@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.benchmarks.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.instance.Node;
+import com.hazelcast.instance.TestUtil;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RecordStore#put(Data, Object, long)} and {@link RecordStore#get(Data, boolean)} on a single
+ * record store, bypassing the proxy and the operation service.
+ *
+ * The benchmark runs on a single benchmark thread, so it mimics the partition thread that normally owns the
+ * record store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecordStoreBenchmark {
+
+    private static final String MAP_NAME = "benchmark";
+    private static final int PARTITION_ID = 0;
+
+    @Param({"10000"})
+    public int keyCount;
+
+    @Param({"100"})
+    public int valueSize;
+
+    @Param({"BINARY", "OBJECT"})
+    public InMemoryFormat inMemoryFormat;
+
+    private TestHazelcastInstanceFactory factory;
+    private RecordStore recordStore;
+    private Data[] keys;
+    private Data value;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        config.getMapConfig(MAP_NAME).setInMemoryFormat(inMemoryFormat);
+
+        factory = new TestHazelcastInstanceFactory(1);
+        HazelcastInstance hz = factory.newHazelcastInstance(config);
+        Node node = TestUtil.getNode(hz);
+        SerializationService serializationService = node.getSerializationService();
+
+        MapService mapService = node.getNodeEngine().getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        recordStore = mapServiceContext.getRecordStore(PARTITION_ID, MAP_NAME);
+
+        keys = new Data[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            keys[k] = serializationService.toData(k);
+        }
+        value = serializationService.toData(new byte[valueSize]);
+        for (Data key : keys) {
+            recordStore.put(key, value, -1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.shutdownAll();
+    }
+
+    @Benchmark
+    public Object put() {
+        return recordStore.put(nextKey(), value, -1);
+    }
+
+    @Benchmark
+    public Object get() {
+        return recordStore.get(nextKey(), false);
+    }
+
+    private Data nextKey() {
+        index++;
+        if (index == keys.length) {
+            index = 0;
+        }
+        return keys[index];
+    }
+}
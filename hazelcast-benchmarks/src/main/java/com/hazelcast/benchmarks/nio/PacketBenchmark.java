@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.benchmarks.nio;
+
+import com.hazelcast.nio.Packet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding and decoding of a {@link Packet} into/from a socket sized {@link ByteBuffer}.
+ *
+ * A payload that doesn't fit in the buffer is written in multiple passes, just like the NonBlockingSocketWriter
+ * and NonBlockingSocketReader do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PacketBenchmark {
+
+    @Param({"100", "10000", "500000"})
+    public int payloadSize;
+
+    @Param({"32768"})
+    public int bufferSize;
+
+    @Param({"true", "false"})
+    public boolean direct;
+
+    private byte[] payload;
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setup() {
+        payload = new byte[payloadSize];
+        buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+
+        encoded = ByteBuffer.allocate(payloadSize + bufferSize);
+        Packet packet = new Packet(payload, 1);
+        packet.writeTo(encoded);
+        encoded.flip();
+    }
+
+    @Benchmark
+    public int writeTo() {
+        Packet packet = new Packet(payload, 1);
+        packet.setHeader(Packet.HEADER_OP);
+        int passes = 0;
+        for (; ; ) {
+            buffer.clear();
+            passes++;
+            if (packet.writeTo(buffer)) {
+                return passes;
+            }
+        }
+    }
+
+    @Benchmark
+    public Packet readFrom() {
+        ByteBuffer src = encoded.duplicate();
+        Packet packet = new Packet();
+        for (; ; ) {
+            buffer.clear();
+            int length = Math.min(buffer.remaining(), src.remaining());
+            ByteBuffer chunk = src.slice();
+            chunk.limit(length);
+            buffer.put(chunk);
+            src.position(src.position() + length);
+            buffer.flip();
+            if (packet.readFrom(buffer)) {
+                return packet;
+            }
+        }
+    }
+}
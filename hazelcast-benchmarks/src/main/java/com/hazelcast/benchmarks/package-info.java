@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * <p>JMH benchmarks for the hot paths of Hazelcast.</p>
+ *
+ * Build with {@code mvn -Pbenchmarks package} and run {@code java -jar hazelcast-benchmarks/target/benchmarks.jar}.
+ * Use {@code -prof gc} to get the allocation rates next to the throughput and latency numbers.
+ */
+package com.hazelcast.benchmarks;
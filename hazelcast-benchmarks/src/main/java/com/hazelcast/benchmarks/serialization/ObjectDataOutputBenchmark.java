@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.benchmarks.serialization;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link com.hazelcast.internal.serialization.impl.ByteArrayObjectDataOutput} with the
+ * {@link com.hazelcast.internal.serialization.impl.UnsafeObjectDataOutput}.
+ *
+ * Which of the two is created depends on the 'allowUnsafe' and byte order settings of the serialization service; the
+ * output is reused between invocations to measure the write path and not the buffer allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ObjectDataOutputBenchmark {
+
+    private static final int ITEM_COUNT = 128;
+
+    @Param({"true", "false"})
+    public boolean allowUnsafe;
+
+    private SerializationService serializationService;
+    private BufferObjectDataOutput out;
+    private long[] longs;
+    private String utf;
+
+    @Setup
+    public void setup() {
+        serializationService = new DefaultSerializationServiceBuilder()
+                .setAllowUnsafe(allowUnsafe)
+                .setUseNativeByteOrder(allowUnsafe)
+                .build();
+        out = serializationService.createObjectDataOutput(ITEM_COUNT * 64);
+        longs = new long[ITEM_COUNT];
+        for (int k = 0; k < longs.length; k++) {
+            longs[k] = k;
+        }
+        utf = "the quick brown fox jumps over the lazy dog";
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        out.close();
+        serializationService.destroy();
+    }
+
+    @Benchmark
+    public int writeInt() throws IOException {
+        out.clear();
+        for (int k = 0; k < ITEM_COUNT; k++) {
+            out.writeInt(k);
+        }
+        return out.position();
+    }
+
+    @Benchmark
+    public int writeLong() throws IOException {
+        out.clear();
+        for (int k = 0; k < ITEM_COUNT; k++) {
+            out.writeLong(k);
+        }
+        return out.position();
+    }
+
+    @Benchmark
+    public int writeLongArray() throws IOException {
+        out.clear();
+        out.writeLongArray(longs);
+        return out.position();
+    }
+
+    @Benchmark
+    public int writeUTF() throws IOException {
+        out.clear();
+        out.writeUTF(utf);
+        return out.position();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.benchmarks.serialization;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SerializationService#toData(Object)} and {@link SerializationService#toObject(Object)} for
+ * the most common value types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"string", "long", "bytes"})
+    public String type;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean allowUnsafe;
+
+    private SerializationService serializationService;
+    private Object value;
+    private Data data;
+
+    @Setup
+    public void setup() {
+        serializationService = new DefaultSerializationServiceBuilder()
+                .setAllowUnsafe(allowUnsafe)
+                .setUseNativeByteOrder(allowUnsafe)
+                .build();
+        value = createValue();
+        data = serializationService.toData(value);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializationService.destroy();
+    }
+
+    @Benchmark
+    public Data toData() {
+        return serializationService.toData(value);
+    }
+
+    @Benchmark
+    public Object toObject() {
+        return serializationService.toObject(data);
+    }
+
+    private Object createValue() {
+        if ("string".equals(type)) {
+            StringBuilder sb = new StringBuilder(size);
+            for (int k = 0; k < size; k++) {
+                sb.append((char) ('a' + k % 26));
+            }
+            return sb.toString();
+        } else if ("long".equals(type)) {
+            return (long) size;
+        } else if ("bytes".equals(type)) {
+            return new byte[size];
+        }
+        throw new IllegalArgumentException("Unrecognized type: " + type);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.benchmarks.spi;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
+import com.hazelcast.instance.TestUtil;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip of {@link OperationService#invokeOnPartition(String, com.hazelcast.spi.Operation, int)}
+ * with a no-op operation, so only the cost of the operation service itself is measured.
+ *
+ * With 'local' the partition is owned by the calling member. Otherwise a second member is started in the same
+ * JVM and the invocation travels over the mock network; so serialization and packet handling are included, but
+ * real sockets are not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InvokeOnPartitionBenchmark {
+
+    private static final String SERVICE_NAME = "benchmark";
+
+    @Param({"true", "false"})
+    public boolean local;
+
+    private TestHazelcastInstanceFactory factory;
+    private OperationService operationService;
+    private int partitionId;
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        factory = new TestHazelcastInstanceFactory(local ? 1 : 2);
+        HazelcastInstance[] instances = factory.newInstances(config, local ? 1 : 2);
+        try {
+            TestUtil.warmUpPartitions(instances);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+
+        HazelcastInstance hz = instances[0];
+        operationService = TestUtil.getNode(hz).getNodeEngine().getOperationService();
+        partitionId = findPartition(hz);
+    }
+
+    private int findPartition(HazelcastInstance hz) {
+        for (Partition partition : hz.getPartitionService().getPartitions()) {
+            Member owner = partition.getOwner();
+            if (owner != null && owner.localMember() == local) {
+                return partition.getPartitionId();
+            }
+        }
+        throw new IllegalStateException("No partition found with local=" + local);
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.shutdownAll();
+    }
+
+    @Benchmark
+    public Object invokeOnPartition() {
+        return operationService.invokeOnPartition(SERVICE_NAME, new NoOpOperation(), partitionId).getSafely();
+    }
+
+    public static class NoOpOperation extends AbstractOperation implements PartitionAwareOperation {
+
+        @Override
+        public void run() throws Exception {
+        }
+
+        @Override
+        public Object getResponse() {
+            return Boolean.TRUE;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.InvalidConfigurationException;
 import com.hazelcast.config.ListenerConfig;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.config.SSLConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.SocketInterceptorConfig;
@@ -266,11 +267,37 @@ public class XmlClientConfigBuilder extends AbstractConfigBuilder {
                 nearCacheConfig.setLocalUpdatePolicy(policy);
             } else if ("eviction".equals(nodeName)) {
                 nearCacheConfig.setEvictionConfig(getEvictionConfig(child));
+            } else if ("admission-policy".equals(nodeName)) {
+                NearCacheConfig.AdmissionPolicy policy = NearCacheConfig.AdmissionPolicy.valueOf(upperCaseInternal(value));
+                nearCacheConfig.setAdmissionPolicy(policy);
+            } else if ("preloader".equals(nodeName)) {
+                nearCacheConfig.setPreloaderConfig(getPreloaderConfig(child));
             }
         }
         clientConfig.addNearCacheConfig(name, nearCacheConfig);
     }
 
+    private NearCachePreloaderConfig getPreloaderConfig(final Node node) {
+        final NearCachePreloaderConfig preloaderConfig = new NearCachePreloaderConfig();
+        final Node enabled = node.getAttributes().getNamedItem("enabled");
+        final Node directory = node.getAttributes().getNamedItem("directory");
+        final Node storeIntervalSeconds = node.getAttributes().getNamedItem("store-interval-seconds");
+        final Node maxKeyCount = node.getAttributes().getNamedItem("max-key-count");
+        if (enabled != null) {
+            preloaderConfig.setEnabled(Boolean.parseBoolean(getTextContent(enabled).trim()));
+        }
+        if (directory != null) {
+            preloaderConfig.setDirectory(getTextContent(directory).trim());
+        }
+        if (storeIntervalSeconds != null) {
+            preloaderConfig.setStoreIntervalSeconds(Integer.parseInt(getTextContent(storeIntervalSeconds).trim()));
+        }
+        if (maxKeyCount != null) {
+            preloaderConfig.setMaxKeyCount(Integer.parseInt(getTextContent(maxKeyCount).trim()));
+        }
+        return preloaderConfig;
+    }
+
 
     private EvictionConfig getEvictionConfig(final Node node) {
         final EvictionConfig evictionConfig = new EvictionConfig();
@@ -16,72 +16,55 @@
 
 package com.hazelcast.client.nearcache;
 
+import com.hazelcast.cache.impl.nearcache.NearCacheContext;
+import com.hazelcast.cache.impl.nearcache.NearCacheExecutor;
+import com.hazelcast.cache.impl.nearcache.impl.DefaultNearCache;
 import com.hazelcast.client.spi.ClientContext;
-import com.hazelcast.client.spi.impl.ClientExecutionServiceImpl;
-import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.client.spi.ClientExecutionService;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
-import com.hazelcast.map.impl.nearcache.NearCacheRecord;
+import com.hazelcast.map.impl.nearcache.MapNearCacheConfigs;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
-import com.hazelcast.internal.serialization.SerializationService;
-import com.hazelcast.util.Clock;
-import com.hazelcast.util.ExceptionUtil;
-
-import java.util.Comparator;
-import java.util.Map;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.RejectedExecutionException;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Implementation of the {@link com.hazelcast.client.nearcache.ClientNearCache}.
+ * Implementation of the {@link com.hazelcast.client.nearcache.ClientNearCache} for maps and replicated maps.
  * <p/>
- * todo: improve javadoc.
+ * Entries are kept in the same {@link com.hazelcast.cache.impl.nearcache.NearCacheRecordStore}s as the
+ * near caches of JCache, so the configured in-memory format, eviction, expiration and admission policy
+ * are handled there. <code>null</code> values are cached as {@link #NULL_OBJECT} and a full near cache
+ * with eviction policy NONE refuses new entries.
  *
- * @param <K>
+ * @param <K> the type of the key
  */
 public class ClientHeapNearCache<K>
         implements ClientNearCache<K, Object> {
 
     final int maxSize;
-    final long maxIdleMillis;
-    final long timeToLiveMillis;
+    final boolean evictionDisabled;
     final boolean invalidateOnChange;
-    final EvictionPolicy evictionPolicy;
     final InMemoryFormat inMemoryFormat;
     final String mapName;
     final ClientContext context;
-    final AtomicBoolean canCleanUp;
-    final AtomicBoolean canEvict;
-    final ConcurrentMap<K, NearCacheRecord> cache;
-    final NearCacheStatsImpl stats;
-    private final Comparator<NearCacheRecord> selectedComparator;
+    final DefaultNearCache<K, Object> nearCache;
 
-    private volatile long lastCleanup;
     private volatile String id;
 
-
     public ClientHeapNearCache(String mapName, ClientContext context, NearCacheConfig nearCacheConfig) {
         this.mapName = mapName;
         this.context = context;
-        maxSize = nearCacheConfig.getMaxSize();
-        maxIdleMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getMaxIdleSeconds());
+        maxSize = MapNearCacheConfigs.getMaxSize(nearCacheConfig);
+        evictionDisabled = MapNearCacheConfigs.isEvictionDisabled(nearCacheConfig);
         inMemoryFormat = nearCacheConfig.getInMemoryFormat();
-        if (inMemoryFormat != InMemoryFormat.BINARY && inMemoryFormat != InMemoryFormat.OBJECT) {
-            throw new IllegalArgumentException("Illegal in-memory-format: " + inMemoryFormat);
-        }
-        timeToLiveMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getTimeToLiveSeconds());
         invalidateOnChange = nearCacheConfig.isInvalidateOnChange();
-        evictionPolicy = EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
-        selectedComparator = NearCacheRecord.getComparator(evictionPolicy);
-        cache = new ConcurrentHashMap<K, NearCacheRecord>();
-        canCleanUp = new AtomicBoolean(true);
-        canEvict = new AtomicBoolean(true);
-        lastCleanup = Clock.currentTimeMillis();
-        stats = new NearCacheStatsImpl();
+        NearCacheContext nearCacheContext = new NearCacheContext(context.getSerializationService(),
+                new ClientNearCacheExecutor(context.getExecutionService()));
+        nearCache = new DefaultNearCache<K, Object>(mapName,
+                MapNearCacheConfigs.toRecordStoreConfig(mapName, nearCacheConfig), nearCacheContext);
     }
 
     public void setId(String id) {
@@ -93,145 +76,34 @@ public class ClientHeapNearCache<K>
     }
 
     public void put(K key, Object object) {
-        fireTtlCleanup();
-        if (evictionPolicy == EvictionPolicy.NONE && cache.size() >= maxSize) {
+        if (evictionDisabled && nearCache.size() >= maxSize) {
             return;
         }
-        if (evictionPolicy != EvictionPolicy.NONE && cache.size() >= maxSize) {
-            fireEvictCache();
-        }
-        Object value;
-        if (object == null) {
-            value = NULL_OBJECT;
-        } else {
-            SerializationService serializationService = context.getSerializationService();
-            if (inMemoryFormat == InMemoryFormat.BINARY) {
-                value = serializationService.toData(object);
-            } else if (inMemoryFormat == InMemoryFormat.OBJECT) {
-                value = serializationService.toObject(object);
-            } else {
-                throw new IllegalArgumentException();
-            }
-        }
-        cache.put(key, new NearCacheRecord(key, value));
-    }
-
-    private void fireEvictCache() {
-        if (canEvict.compareAndSet(true, false)) {
-            try {
-                final ClientExecutionServiceImpl executionService = (ClientExecutionServiceImpl) context.getExecutionService();
-                executionService.executeInternal(new Runnable() {
-                    public void run() {
-                        try {
-                            TreeSet<NearCacheRecord> records = new TreeSet<NearCacheRecord>(selectedComparator);
-                            records.addAll(cache.values());
-                            int evictSize = (int) (cache.size() * EVICTION_FACTOR);
-                            int i = 0;
-                            for (NearCacheRecord record : records) {
-                                cache.remove(record.getKey());
-                                if (++i > evictSize) {
-                                    break;
-                                }
-                            }
-                        } finally {
-                            canEvict.set(true);
-                        }
-                        if (cache.size() >= maxSize && canEvict.compareAndSet(true, false)) {
-                            try {
-                                executionService.executeInternal(this);
-                            } catch (RejectedExecutionException e) {
-                                canEvict.set(true);
-                            }
-                        }
-                    }
-                });
-            } catch (RejectedExecutionException e) {
-                canEvict.set(true);
-            } catch (Exception e) {
-                throw ExceptionUtil.rethrow(e);
-            }
-        }
-    }
-
-    private void fireTtlCleanup() {
-        if (Clock.currentTimeMillis() < (lastCleanup + TTL_CLEANUP_INTERVAL_MILLS)) {
-            return;
-        }
-
-        if (canCleanUp.compareAndSet(true, false)) {
-            try {
-                ClientExecutionServiceImpl executionService = (ClientExecutionServiceImpl) context.getExecutionService();
-                executionService.executeInternal(new Runnable() {
-                    public void run() {
-                        try {
-                            lastCleanup = Clock.currentTimeMillis();
-                            for (Map.Entry<K, NearCacheRecord> entry : cache.entrySet()) {
-                                if (entry.getValue().isExpired(maxIdleMillis, timeToLiveMillis)) {
-                                    cache.remove(entry.getKey());
-                                }
-                            }
-                        } finally {
-                            canCleanUp.set(true);
-                        }
-                    }
-                });
-            } catch (RejectedExecutionException e) {
-                canCleanUp.set(true);
-            } catch (Exception e) {
-                throw ExceptionUtil.rethrow(e);
-            }
-        }
+        nearCache.put(key, object == null ? NULL_OBJECT : object);
     }
 
     public Object get(K key) {
-        fireTtlCleanup();
-        NearCacheRecord record = cache.get(key);
-        if (record != null) {
-            record.access();
-            if (record.isExpired(maxIdleMillis, timeToLiveMillis)) {
-                cache.remove(key);
-                stats.incrementMisses();
-                return null;
-            }
-            if (record.getValue().equals(NULL_OBJECT)) {
-                stats.incrementMisses();
-                return NULL_OBJECT;
-            }
-            stats.incrementHits();
-            return inMemoryFormat.equals(InMemoryFormat.BINARY)
-                    ? context.getSerializationService().toObject(record.getValue()) : record.getValue();
-        } else {
-            stats.incrementMisses();
-            return null;
-        }
+        return nearCache.get(key);
     }
 
     public void remove(K key) {
-        cache.remove(key);
+        nearCache.remove(key);
     }
 
     public void invalidate(K key) {
-        cache.remove(key);
+        nearCache.invalidate(key);
     }
 
     public NearCacheStatsImpl getNearCacheStats() {
-        long ownedEntryCount = 0;
-        long ownedEntryMemory = 0;
-        for (NearCacheRecord record : cache.values()) {
-            ownedEntryCount++;
-            ownedEntryMemory += record.getCost();
-        }
-        stats.setOwnedEntryCount(ownedEntryCount);
-        stats.setOwnedEntryMemoryCost(ownedEntryMemory);
-        return stats;
+        return (NearCacheStatsImpl) nearCache.getNearCacheStats();
     }
 
     public void clear() {
-        cache.clear();
+        nearCache.clear();
     }
 
     public void destroy() {
-        cache.clear();
+        nearCache.destroy();
     }
 
     @Override
@@ -243,4 +115,30 @@ public class ClientHeapNearCache<K>
         return inMemoryFormat;
     }
 
+    /**
+     * Loads the keys stored by an earlier client with the same near cache, so their values can be preloaded.
+     *
+     * @return the stored keys, the most frequently accessed first, or an empty list if preloading is disabled
+     */
+    public List<Data> loadKeys() {
+        return nearCache.loadKeys();
+    }
+
+    /**
+     * Runs the background tasks of the near cache on the client execution service.
+     */
+    private static final class ClientNearCacheExecutor implements NearCacheExecutor {
+
+        private final ClientExecutionService executionService;
+
+        private ClientNearCacheExecutor(ClientExecutionService executionService) {
+            this.executionService = executionService;
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return executionService.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+        }
+    }
+
 }
@@ -39,7 +39,7 @@ public interface ClientNearCache<K, V> {
     /**
      * NULL Object
      */
-    Object NULL_OBJECT = new Object();
+    Object NULL_OBJECT = com.hazelcast.cache.impl.nearcache.NearCache.NULL_OBJECT;
 
     V get(K key);
 
@@ -16,6 +16,7 @@
 
 package com.hazelcast.client.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.client.impl.ClientMessageDecoder;
 import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.MapAddEntryListenerCodec;
@@ -106,6 +107,7 @@ import com.hazelcast.logging.Logger;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.MapPartitionLostEvent;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.ListenerAdapter;
 import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.listener.MapListener;
@@ -124,8 +126,11 @@ import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.TruePredicate;
+import com.hazelcast.query.impl.QueryEntry;
 import com.hazelcast.util.ExceptionUtil;
 import com.hazelcast.util.IterationType;
 import com.hazelcast.util.Preconditions;
@@ -149,15 +154,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.hazelcast.cluster.memberselector.MemberSelectors.LITE_MEMBER_SELECTOR;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
 import static com.hazelcast.util.SortingUtil.getSortedQueryResultSet;
 
 public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
 
     protected static final String NULL_KEY_IS_NOT_ALLOWED = "Null key is not allowed!";
     protected static final String NULL_VALUE_IS_NOT_ALLOWED = "Null value is not allowed!";
+    protected static final String NULL_PREDICATE_IS_NOT_ALLOWED = "Predicate should not be null!";
+
+    private static final int NEAR_CACHE_PRELOAD_BATCH_SIZE = 100;
 
     private final AtomicBoolean nearCacheInitialized = new AtomicBoolean();
     private volatile ClientHeapNearCache<Data> nearCache;
+    private volatile ClientQueryCacheContext queryCacheContext;
 
     private static final ClientMessageDecoder getAsyncResponseDecoder = new ClientMessageDecoder() {
         @Override
@@ -1194,6 +1204,116 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         }
     }
 
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, TruePredicate.INSTANCE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate) {
+        checkNotNull(aggregator, "Aggregator should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // the client protocol has no aggregation support yet, so the matching entries are accumulated on the client
+        SerializationService serializationService = getContext().getSerializationService();
+        Aggregator<Map.Entry<K, V>, R> copy = serializationService.toObject(serializationService.toData(aggregator));
+        ClientMessage request = MapEntriesWithPredicateCodec.encodeRequest(name, toData(predicate));
+        ClientMessage response = invoke(request);
+        MapEntriesWithPredicateCodec.ResponseParameters resultParameters = MapEntriesWithPredicateCodec.decodeResponse(response);
+        for (Entry<Data, Data> entry : resultParameters.entrySet) {
+            copy.accumulate(new QueryEntry(serializationService, entry.getKey(), entry.getKey(), entry.getValue()));
+        }
+        return copy.aggregate();
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, TruePredicate.INSTANCE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        checkNotNull(projection, "Projection should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // the client protocol has no projection support yet, so the matching entries are projected on the client
+        SerializationService serializationService = getContext().getSerializationService();
+        ClientMessage request = MapEntriesWithPredicateCodec.encodeRequest(name, toData(predicate));
+        ClientMessage response = invoke(request);
+        MapEntriesWithPredicateCodec.ResponseParameters resultParameters = MapEntriesWithPredicateCodec.decodeResponse(response);
+        List<R> projected = new ArrayList<R>(resultParameters.entrySet.size());
+        for (Entry<Data, Data> dataEntry : resultParameters.entrySet) {
+            Map.Entry<K, V> entry = new QueryEntry(serializationService, dataEntry.getKey(), dataEntry.getKey(),
+                    dataEntry.getValue());
+            projected.add(projection.transform(entry));
+        }
+        return projected;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator(int fetchSize, Predicate predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // the client protocol has no chunked query yet, so the result is fetched at once
+        return entrySet(predicate).iterator();
+    }
+
+    @Override
+    public <R> Iterator<R> iterator(int fetchSize, Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive!");
+
+        // the client protocol has no chunked query yet, so the result is fetched at once
+        return project(projection, predicate).iterator();
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name) {
+        checkNotNull(name, "name cannot be null");
+
+        return getQueryCacheContext().getSubscriberRegistry().getOrCreate(this.name, name, null, null, null);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(name, "name cannot be null");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getQueryCacheContext().getSubscriberRegistry().getOrCreate(this.name, name, predicate, includeValue, null);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate,
+                                          boolean includeValue) {
+        checkNotNull(name, "name cannot be null");
+        checkNotNull(listener, "listener cannot be null");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getQueryCacheContext().getSubscriberRegistry().getOrCreate(this.name, name, predicate, includeValue, listener);
+    }
+
+    private ClientQueryCacheContext getQueryCacheContext() {
+        if (queryCacheContext == null) {
+            synchronized (this) {
+                if (queryCacheContext == null) {
+                    queryCacheContext = new ClientQueryCacheContext(getClient(), getContext());
+                }
+            }
+        }
+        return queryCacheContext;
+    }
+
     @Override
     public Map<K, Object> executeOnKeys(Set<K> keys, EntryProcessor entryProcessor) {
         Set<Data> dataKeys = new HashSet<Data>(keys.size());
@@ -1353,6 +1473,39 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             if (nearCache.isInvalidateOnChange()) {
                 addNearCacheInvalidateListener();
             }
+            if (nearCacheConfig.getPreloaderConfig().isEnabled()) {
+                preloadNearCache();
+            }
+        }
+    }
+
+    private void preloadNearCache() {
+        getContext().getExecutionService().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ClientHeapNearCache<Data> cache = nearCache;
+                    if (cache != null) {
+                        preloadNearCache(cache, cache.loadKeys());
+                    }
+                } catch (Exception e) {
+                    Logger.getLogger(ClientHeapNearCache.class).warning("Could not preload near cache of map " + name, e);
+                }
+            }
+        });
+    }
+
+    // fetches the values of the stored keys in batches, so a large key file does not block the members
+    private void preloadNearCache(ClientHeapNearCache<Data> cache, List<Data> keys) {
+        for (int offset = 0; offset < keys.size() && cache == nearCache; offset += NEAR_CACHE_PRELOAD_BATCH_SIZE) {
+            int end = Math.min(keys.size(), offset + NEAR_CACHE_PRELOAD_BATCH_SIZE);
+            Set<Data> batch = new HashSet<Data>(keys.subList(offset, end));
+            ClientMessage request = MapGetAllCodec.encodeRequest(name, batch);
+            ClientMessage response = invoke(request);
+            MapGetAllCodec.ResponseParameters resultParameters = MapGetAllCodec.decodeResponse(response);
+            for (Entry<Data, Data> entry : resultParameters.entrySet) {
+                cache.put(entry.getKey(), toObject(entry.getValue()));
+            }
         }
     }
 
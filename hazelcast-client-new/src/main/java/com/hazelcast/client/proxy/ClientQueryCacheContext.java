@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.proxy;
+
+import com.hazelcast.client.impl.ClientMessageDecoder;
+import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapAddListenerCodec;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapDestroyCacheCodec;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapPublisherCreateCodec;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapPublisherCreateWithValueCodec;
+import com.hazelcast.client.spi.ClientContext;
+import com.hazelcast.client.spi.EventHandler;
+import com.hazelcast.client.spi.impl.ClientInvocation;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.impl.querycache.QueryCacheListenerAdapter;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.subscriber.SubscriberRegistry;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.ExceptionUtil;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link QueryCacheContext} of the query caches created by a client map proxy.
+ */
+final class ClientQueryCacheContext implements QueryCacheContext {
+
+    private final HazelcastClientInstanceImpl client;
+    private final ClientContext clientContext;
+    private final SubscriberRegistry subscriberRegistry;
+
+    ClientQueryCacheContext(HazelcastClientInstanceImpl client, ClientContext clientContext) {
+        this.client = client;
+        this.clientContext = clientContext;
+        this.subscriberRegistry = new SubscriberRegistry(this);
+    }
+
+    @Override
+    public SerializationService getSerializationService() {
+        return clientContext.getSerializationService();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return clientContext.getClientConfig().getClassLoader();
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return clientContext.getPartitionService().getPartitionCount();
+    }
+
+    @Override
+    public int getPartitionId(Data key) {
+        return clientContext.getPartitionService().getPartitionId(key);
+    }
+
+    @Override
+    public QueryCacheConfig getQueryCacheConfig(String mapName, String cacheName) {
+        Map<String, QueryCacheConfig> configs = clientContext.getClientConfig().getQueryCacheConfigs().get(mapName);
+        return configs == null ? null : configs.get(cacheName);
+    }
+
+    @Override
+    public SubscriberRegistry getSubscriberRegistry() {
+        return subscriberRegistry;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String addListener(final String cacheId, QueryCacheListenerAdapter listener) {
+        ClientMessage request = EnterpriseMapAddListenerCodec.encodeRequest(cacheId);
+        EventHandler<ClientMessage> handler = new QueryCacheEventHandler(cacheId, listener);
+        return clientContext.getListenerService().startListening(request, null, handler, new ClientMessageDecoder() {
+            @Override
+            public <T> T decodeClientMessage(ClientMessage clientMessage) {
+                return (T) EnterpriseMapAddListenerCodec.decodeResponse(clientMessage).response;
+            }
+        });
+    }
+
+    @Override
+    public void removeListener(String cacheId, String registrationId) {
+        // the registrations on the members are removed together with the publishers
+        clientContext.getListenerService().deRegisterListener(registrationId);
+    }
+
+    @Override
+    public Collection<Map.Entry<Data, Data>> createPublishers(PublisherInfo info, boolean populate) {
+        Data predicate = getSerializationService().toData(info.getPredicate());
+        if (info.isIncludeValue()) {
+            ClientMessage request = EnterpriseMapPublisherCreateWithValueCodec.encodeRequest(info.getMapName(),
+                    info.getCacheId(), predicate, info.getBatchSize(), info.getBufferSize(), info.getDelaySeconds(),
+                    populate, info.isCoalesce());
+            ClientMessage response = invoke(request);
+            return EnterpriseMapPublisherCreateWithValueCodec.decodeResponse(response).entrySet;
+        }
+
+        ClientMessage request = EnterpriseMapPublisherCreateCodec.encodeRequest(info.getMapName(),
+                info.getCacheId(), predicate, info.getBatchSize(), info.getBufferSize(), info.getDelaySeconds(),
+                populate, info.isCoalesce());
+        ClientMessage response = invoke(request);
+        Collection<Data> keys = EnterpriseMapPublisherCreateCodec.decodeResponse(response).set;
+        List<Map.Entry<Data, Data>> entries = new ArrayList<Map.Entry<Data, Data>>(keys.size());
+        for (Data key : keys) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(key, null));
+        }
+        return entries;
+    }
+
+    @Override
+    public void destroyPublishers(String mapName, String cacheId) {
+        invoke(EnterpriseMapDestroyCacheCodec.encodeRequest(mapName, cacheId));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        clientContext.getExecutionService().execute(task);
+    }
+
+    private ClientMessage invoke(ClientMessage request) {
+        try {
+            return (ClientMessage) new ClientInvocation(client, request).invoke().get();
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    private static final class QueryCacheEventHandler extends EnterpriseMapAddListenerCodec.AbstractEventHandler
+            implements EventHandler<ClientMessage> {
+
+        private final String cacheId;
+        private final QueryCacheListenerAdapter listener;
+
+        private QueryCacheEventHandler(String cacheId, QueryCacheListenerAdapter listener) {
+            this.cacheId = cacheId;
+            this.listener = listener;
+        }
+
+        @Override
+        public void handle(QueryCacheEventData data) {
+            List<QueryCacheEventData> events = Collections.singletonList(data);
+            listener.onBatch(new BatchEventData(null, cacheId, data.getPartitionId(), events));
+        }
+
+        @Override
+        public void handle(List<QueryCacheEventData> events, String source, int partitionId) {
+            listener.onBatch(new BatchEventData(source, cacheId, partitionId, events));
+        }
+
+        @Override
+        public void beforeListenerRegister() {
+        }
+
+        @Override
+        public void onListenerRegister() {
+        }
+    }
+}
@@ -82,6 +82,18 @@ public class ClientProperties {
      */
     public static final String PROP_INVOCATION_TIMEOUT_SECONDS_DEFAULT = "120";
 
+    /**
+     * Time interval between the comparisons of the received near cache invalidations with the invalidation
+     * sequences of the partition owners, to repair the near cache entries of partitions with missed invalidations.
+     */
+    public static final String PROP_NEAR_CACHE_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS
+            = "hazelcast.client.invalidation.reconciliation.interval.seconds";
+
+    /**
+     * Default value of the near cache invalidation reconciliation interval seconds.
+     */
+    public static final String PROP_NEAR_CACHE_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS_DEFAULT = "60";
+
 
     private final ClientProperty heartbeatTimeout;
     private final ClientProperty heartbeatInterval;
@@ -89,6 +101,7 @@ public class ClientProperties {
     private final ClientProperty eventQueueCapacity;
     private final ClientProperty invocationTimeout;
     private final ClientProperty shuffleMemberList;
+    private final ClientProperty nearCacheInvalidationReconciliationInterval;
 
 
     public ClientProperties(ClientConfig clientConfig) {
@@ -100,6 +113,9 @@ public class ClientProperties {
                 PROP_INVOCATION_TIMEOUT_SECONDS_DEFAULT);
         shuffleMemberList = new ClientProperty(clientConfig, PROP_SHUFFLE_MEMBER_LIST,
                 PROP_SHUFFLE_INITIAL_MEMBER_LIST_DEFAULT);
+        nearCacheInvalidationReconciliationInterval = new ClientProperty(clientConfig,
+                PROP_NEAR_CACHE_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS,
+                PROP_NEAR_CACHE_INVALIDATION_RECONCILIATION_INTERVAL_SECONDS_DEFAULT);
     }
 
     public ClientProperty getHeartbeatTimeout() {
@@ -126,6 +142,10 @@ public class ClientProperties {
         return shuffleMemberList;
     }
 
+    public ClientProperty getNearCacheInvalidationReconciliationIntervalSeconds() {
+        return nearCacheInvalidationReconciliationInterval;
+    }
+
     /**
      * A single client property.
      */
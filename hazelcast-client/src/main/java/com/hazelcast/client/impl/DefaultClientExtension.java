@@ -114,7 +114,7 @@ public class DefaultClientExtension implements ClientExtension {
         // If there is a specific behaviour for client,
         // there maybe a custom "NearCacheManager" implementation such as "ClientNearCacheManager".
         // Currently "DefaultNearCacheManager" is enough.
-        return new DefaultNearCacheManager();
+        return new DefaultNearCacheManager(client.getClientConfig().getNativeMemoryConfig());
     }
 
 }
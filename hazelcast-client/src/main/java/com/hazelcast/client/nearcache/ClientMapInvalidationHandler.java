@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.nearcache;
+
+import com.hazelcast.client.spi.ClientPartitionService;
+import com.hazelcast.client.spi.EventHandler;
+import com.hazelcast.map.impl.client.PortableBatchInvalidationEvent;
+import com.hazelcast.map.impl.nearcache.invalidation.Invalidation;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationMetaData;
+import com.hazelcast.map.impl.nearcache.invalidation.RepairingHandler;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Applies the batched near cache invalidations of a map to the near cache of a client.
+ * <p/>
+ * When invalidations of a partition were missed, detected from the sequence numbers of the received
+ * invalidations or while reconciling with the metadata of the partition owners, only the keys of that
+ * partition are invalidated.
+ */
+public class ClientMapInvalidationHandler implements EventHandler<PortableBatchInvalidationEvent> {
+
+    private final ClientHeapNearCache<Data> nearCache;
+    private final ClientPartitionService partitionService;
+    private final RepairingHandler repairingHandler;
+
+    public ClientMapInvalidationHandler(ClientHeapNearCache<Data> nearCache, ClientPartitionService partitionService) {
+        this.nearCache = nearCache;
+        this.partitionService = partitionService;
+        this.repairingHandler = new RepairingHandler(partitionService.getPartitionCount());
+    }
+
+    @Override
+    public void handle(PortableBatchInvalidationEvent event) {
+        Set<Integer> partitionsToRepair = new HashSet<Integer>();
+        for (Invalidation invalidation : event.getInvalidations()) {
+            Data key = invalidation.getKey();
+            if (repairingHandler.checkSequence(invalidation) || key == null) {
+                partitionsToRepair.add(invalidation.getPartitionId());
+            } else {
+                nearCache.remove(key);
+            }
+        }
+        invalidatePartitions(partitionsToRepair);
+    }
+
+    /**
+     * Seeds the sequences with the metadata of a partition owner, when the listener has been registered.
+     */
+    public void initialize(InvalidationMetaData metaData) {
+        Set<Integer> partitionsToRepair = new HashSet<Integer>();
+        for (int i = 0; i < metaData.size(); i++) {
+            int partitionId = metaData.getPartitionId(i);
+            if (repairingHandler.initialize(partitionId, metaData.getPartitionUuid(i), metaData.getSequence(i))) {
+                partitionsToRepair.add(partitionId);
+            }
+        }
+        invalidatePartitions(partitionsToRepair);
+    }
+
+    /**
+     * Compares the received invalidations with the metadata of a partition owner.
+     */
+    public void reconcile(InvalidationMetaData metaData) {
+        Set<Integer> partitionsToRepair = new HashSet<Integer>();
+        for (int i = 0; i < metaData.size(); i++) {
+            int partitionId = metaData.getPartitionId(i);
+            if (repairingHandler.reconcile(partitionId, metaData.getPartitionUuid(i), metaData.getSequence(i))) {
+                partitionsToRepair.add(partitionId);
+            }
+        }
+        invalidatePartitions(partitionsToRepair);
+    }
+
+    @Override
+    public void beforeListenerRegister() {
+        resetNearCache();
+    }
+
+    @Override
+    public void onListenerRegister() {
+        resetNearCache();
+    }
+
+    // invalidations sent while the listener was not registered are lost
+    private void resetNearCache() {
+        repairingHandler.reset();
+        nearCache.clear();
+    }
+
+    private void invalidatePartitions(Set<Integer> partitionIds) {
+        if (partitionIds.isEmpty()) {
+            return;
+        }
+        for (Data key : nearCache.getKeys()) {
+            if (partitionIds.contains(partitionService.getPartitionId(key))) {
+                nearCache.remove(key);
+            }
+        }
+    }
+}
@@ -16,9 +16,12 @@
 
 package com.hazelcast.client.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.client.config.ClientProperties;
 import com.hazelcast.client.impl.client.BaseClientRemoveListenerRequest;
 import com.hazelcast.client.impl.client.ClientRequest;
 import com.hazelcast.client.nearcache.ClientHeapNearCache;
+import com.hazelcast.client.nearcache.ClientMapInvalidationHandler;
 import com.hazelcast.client.nearcache.ClientNearCache;
 import com.hazelcast.client.spi.ClientClusterService;
 import com.hazelcast.client.spi.ClientPartitionService;
@@ -42,6 +45,7 @@ import com.hazelcast.logging.Logger;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.MapPartitionLostEvent;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.LazyMapEntry;
 import com.hazelcast.map.impl.ListenerAdapter;
 import com.hazelcast.map.impl.MapEntries;
@@ -49,7 +53,7 @@ import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.impl.client.MapAddEntryListenerRequest;
 import com.hazelcast.map.impl.client.MapAddIndexRequest;
 import com.hazelcast.map.impl.client.MapAddInterceptorRequest;
-import com.hazelcast.map.impl.client.MapAddNearCacheEntryListenerRequest;
+import com.hazelcast.map.impl.client.MapAddNearCacheInvalidationListenerRequest;
 import com.hazelcast.map.impl.client.MapAddPartitionLostListenerRequest;
 import com.hazelcast.map.impl.client.MapClearNearCacheRequest;
 import com.hazelcast.map.impl.client.MapClearRequest;
@@ -62,6 +66,7 @@ import com.hazelcast.map.impl.client.MapExecuteOnAllKeysRequest;
 import com.hazelcast.map.impl.client.MapExecuteOnKeyRequest;
 import com.hazelcast.map.impl.client.MapExecuteOnKeysRequest;
 import com.hazelcast.map.impl.client.MapExecuteWithPredicateRequest;
+import com.hazelcast.map.impl.client.MapFetchNearCacheInvalidationMetaDataRequest;
 import com.hazelcast.map.impl.client.MapFlushRequest;
 import com.hazelcast.map.impl.client.MapGetAllRequest;
 import com.hazelcast.map.impl.client.MapGetEntryViewRequest;
@@ -88,6 +93,7 @@ import com.hazelcast.map.impl.client.MapSizeRequest;
 import com.hazelcast.map.impl.client.MapTryPutRequest;
 import com.hazelcast.map.impl.client.MapTryRemoveRequest;
 import com.hazelcast.map.impl.client.MapUnlockRequest;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationMetaData;
 import com.hazelcast.map.impl.query.QueryResult;
 import com.hazelcast.map.impl.query.QueryResultRow;
 import com.hazelcast.map.listener.MapListener;
@@ -105,10 +111,13 @@ import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
+import com.hazelcast.query.impl.QueryEntry;
 import com.hazelcast.spi.impl.PortableEntryEvent;
 import com.hazelcast.spi.impl.PortableMapPartitionLostEvent;
 import com.hazelcast.util.ExceptionUtil;
@@ -130,22 +139,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
 import static com.hazelcast.cluster.memberselector.MemberSelectors.LITE_MEMBER_SELECTOR;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
 import static com.hazelcast.util.SortingUtil.getSortedQueryResultSet;
 
 public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
 
     protected static final String NULL_KEY_IS_NOT_ALLOWED = "Null key is not allowed!";
     protected static final String NULL_VALUE_IS_NOT_ALLOWED = "Null value is not allowed!";
+    protected static final String NULL_PREDICATE_IS_NOT_ALLOWED = "Predicate should not be null!";
+
+    private static final int NEAR_CACHE_PRELOAD_BATCH_SIZE = 100;
 
     private final String name;
     private final AtomicBoolean nearCacheInitialized = new AtomicBoolean();
     private volatile ClientHeapNearCache<Data> nearCache;
+    private volatile ScheduledFuture<?> nearCacheReconciliation;
 
     public ClientMapProxy(String serviceName, String name) {
         super(serviceName, name);
@@ -968,6 +984,96 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         }
     }
 
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, TruePredicate.INSTANCE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate) {
+        checkNotNull(aggregator, "Aggregator should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // the client protocol has no aggregation request yet, so the matching entries are accumulated on the client
+        SerializationService serializationService = getContext().getSerializationService();
+        Aggregator<Map.Entry<K, V>, R> copy = serializationService.toObject(serializationService.toData(aggregator));
+        MapQueryRequest request = new MapQueryRequest(name, predicate, IterationType.ENTRY);
+        QueryResult result = invoke(request);
+        for (QueryResultRow row : result) {
+            copy.accumulate(new QueryEntry(serializationService, row.getKey(), row.getKey(), row.getValue()));
+        }
+        return copy.aggregate();
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, TruePredicate.INSTANCE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        checkNotNull(projection, "Projection should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // the client protocol has no projection request yet, so the matching entries are projected on the client
+        SerializationService serializationService = getContext().getSerializationService();
+        MapQueryRequest request = new MapQueryRequest(name, predicate, IterationType.ENTRY);
+        QueryResult result = invoke(request);
+        List<R> projected = new ArrayList<R>(result.size());
+        for (QueryResultRow row : result) {
+            Map.Entry<K, V> entry = new QueryEntry(serializationService, row.getKey(), row.getKey(), row.getValue());
+            projected.add(projection.transform(entry));
+        }
+        return projected;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator(int fetchSize, Predicate predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Predicate should not be a paging predicate");
+        }
+
+        // the client protocol has no chunked query yet, so the result is fetched at once
+        return entrySet(predicate).iterator();
+    }
+
+    @Override
+    public <R> Iterator<R> iterator(int fetchSize, Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive!");
+
+        // the client protocol has no chunked query yet, so the result is fetched at once
+        return project(projection, predicate).iterator();
+    }
+
+    // The old client protocol has no requests to create query cache publishers or to receive their batched events,
+    // so query caches are deliberately left out of this client. The new client supports them.
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name) {
+        throw new UnsupportedOperationException("Query caches are not supported by this client, use the new client");
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue) {
+        throw new UnsupportedOperationException("Query caches are not supported by this client, use the new client");
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate,
+                                          boolean includeValue) {
+        throw new UnsupportedOperationException("Query caches are not supported by this client, use the new client");
+    }
+
     @Override
     public Map<K, Object> executeOnKeys(Set<K> keys, EntryProcessor entryProcessor) {
         Set<Data> dataKeys = new HashSet<Data>(keys.size());
@@ -1073,6 +1179,9 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     }
 
     private void destroyNearCache() {
+        if (nearCacheReconciliation != null) {
+            nearCacheReconciliation.cancel(false);
+        }
         if (nearCache != null) {
             removeNearCacheInvalidationListener();
             nearCache.destroy();
@@ -1127,52 +1236,92 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             if (nearCache.isInvalidateOnChange()) {
                 addNearCacheInvalidateListener();
             }
+            if (nearCacheConfig.getPreloaderConfig().isEnabled()) {
+                preloadNearCache();
+            }
         }
     }
 
-    private void addNearCacheInvalidateListener() {
-        try {
-            ClientRequest request = new MapAddNearCacheEntryListenerRequest(name, false);
-            EventHandler handler = new EventHandler<PortableEntryEvent>() {
-                @Override
-                public void handle(PortableEntryEvent event) {
-                    switch (event.getEventType()) {
-                        case ADDED:
-                        case REMOVED:
-                        case UPDATED:
-                        case MERGED:
-                        case EVICTED:
-                            final Data key = event.getKey();
-                            nearCache.remove(key);
-                            break;
-                        case CLEAR_ALL:
-                        case EVICT_ALL:
-                            nearCache.clear();
-                            break;
-                        default:
-                            throw new IllegalArgumentException("Not a known event type " + event.getEventType());
+    private void preloadNearCache() {
+        getContext().getExecutionService().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ClientHeapNearCache<Data> cache = nearCache;
+                    if (cache != null) {
+                        preloadNearCache(cache, cache.loadKeys());
                     }
+                } catch (Exception e) {
+                    Logger.getLogger(ClientHeapNearCache.class).warning("Could not preload near cache of map " + name, e);
                 }
+            }
+        });
+    }
 
-                @Override
-                public void beforeListenerRegister() {
-                    invalidateNearCache();
-                }
+    // fetches the values of the stored keys in batches, so a large key file does not block the members
+    private void preloadNearCache(ClientHeapNearCache<Data> cache, List<Data> keys) {
+        for (int offset = 0; offset < keys.size() && cache == nearCache; offset += NEAR_CACHE_PRELOAD_BATCH_SIZE) {
+            int end = Math.min(keys.size(), offset + NEAR_CACHE_PRELOAD_BATCH_SIZE);
+            Set<Data> batch = new HashSet<Data>(keys.subList(offset, end));
+            MapEntries mapEntries = invoke(new MapGetAllRequest(name, batch));
+            for (Entry<Data, Data> entry : mapEntries) {
+                cache.put(entry.getKey(), toObject(entry.getValue()));
+            }
+        }
+    }
 
-                @Override
-                public void onListenerRegister() {
-                    invalidateNearCache();
-                }
-            };
+    private void addNearCacheInvalidateListener() {
+        try {
+            ClientRequest request = new MapAddNearCacheInvalidationListenerRequest(name);
+            ClientMapInvalidationHandler handler = new ClientMapInvalidationHandler(nearCache,
+                    getContext().getPartitionService());
 
             String registrationId = getContext().getListenerService().startListening(request, null, handler);
             nearCache.setId(registrationId);
+            for (InvalidationMetaData metaData : fetchNearCacheInvalidationMetaData()) {
+                handler.initialize(metaData);
+            }
+            scheduleNearCacheReconciliation(handler);
         } catch (Exception e) {
             Logger.getLogger(ClientHeapNearCache.class).severe(
                     "-----------------\n Near Cache is not initialized!!! \n-----------------", e);
         }
     }
 
+    // compares the received invalidations with the sequences of the partition owners to find missed invalidations
+    private void scheduleNearCacheReconciliation(final ClientMapInvalidationHandler handler) {
+        ClientProperties clientProperties = new ClientProperties(getContext().getClientConfig());
+        long interval = clientProperties.getNearCacheInvalidationReconciliationIntervalSeconds().getInteger();
+        if (interval <= 0) {
+            return;
+        }
+        nearCacheReconciliation = getContext().getExecutionService().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                for (InvalidationMetaData metaData : fetchNearCacheInvalidationMetaData()) {
+                    handler.reconcile(metaData);
+                }
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    // the partitions of members which cannot be reached are repaired on their first invalidation
+    private List<InvalidationMetaData> fetchNearCacheInvalidationMetaData() {
+        List<InvalidationMetaData> metaDataOfOwners = new ArrayList<InvalidationMetaData>();
+        ClientClusterService clusterService = getContext().getClusterService();
+        for (Member member : clusterService.getMembers(DATA_MEMBER_SELECTOR)) {
+            Address address = member.getAddress();
+            try {
+                metaDataOfOwners.add(this.<InvalidationMetaData>invoke(
+                        new MapFetchNearCacheInvalidationMetaDataRequest(name, address), address));
+            } catch (Exception e) {
+                Logger.getLogger(ClientHeapNearCache.class).finest(
+                        "Could not fetch near cache invalidation metadata of map " + name + " from " + address, e);
+            }
+        }
+        return metaDataOfOwners;
+    }
+
     private void removeNearCacheInvalidationListener() {
         if (nearCache != null && nearCache.getId() != null) {
             String registrationId = nearCache.getId();
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapStoreAdapter;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the near cache of a client drops the entries the members replace without a client mutation,
+ * by loading them from the map store.
+ */
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapNearCacheInvalidationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 100;
+
+    private final TestHazelcastFactory factory = new TestHazelcastFactory();
+    private final InMemoryStore store = new InMemoryStore();
+
+    private HazelcastInstance client;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.getMapConfig("loading*").getMapStoreConfig().setEnabled(true).setImplementation(store);
+        factory.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.addNearCacheConfig(new NearCacheConfig("*").setInvalidateOnChange(true));
+        client = factory.newHazelcastClient(clientConfig);
+    }
+
+    @After
+    public void tearDown() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void testLoadAll_invalidatesClientNearCache() {
+        String mapName = randomMapName("loading");
+        final IMap<Integer, Integer> clientMap = client.getMap(mapName);
+        Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            clientMap.put(i, i);
+            clientMap.get(i);
+            keys.add(i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            store.store(i, -i);
+        }
+
+        clientMap.loadAll(keys, true);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < ENTRY_COUNT; i++) {
+                    assertEquals(-i, (int) clientMap.get(i));
+                }
+            }
+        });
+    }
+
+    private static class InMemoryStore extends MapStoreAdapter<Integer, Integer> {
+
+        private final ConcurrentMap<Integer, Integer> values = new ConcurrentHashMap<Integer, Integer>();
+
+        @Override
+        public void store(Integer key, Integer value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public void delete(Integer key) {
+            values.remove(key);
+        }
+
+        @Override
+        public Integer load(Integer key) {
+            return values.get(key);
+        }
+    }
+}
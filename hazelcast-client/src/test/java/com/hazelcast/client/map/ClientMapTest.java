@@ -38,6 +38,7 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializable;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.TruePredicate;
 import com.hazelcast.security.UsernamePasswordCredentials;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastParallelClassRunner;
@@ -693,6 +694,24 @@ public class ClientMapTest {
         assertEquals(value, map2.get(key));
     }
 
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetQueryCache_isNotSupported() {
+        IMap<Integer, Integer> map = client.getMap(randomString());
+        map.getQueryCache("cache");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetQueryCache_withPredicate_isNotSupported() {
+        IMap<Integer, Integer> map = client.getMap(randomString());
+        map.getQueryCache("cache", TruePredicate.INSTANCE, true);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetQueryCache_withListener_isNotSupported() {
+        IMap<Integer, Integer> map = client.getMap(randomString());
+        map.getQueryCache("cache", new EntryAdapter<Integer, Integer>(), TruePredicate.INSTANCE, true);
+    }
+
     private static class PartitionAwareKey implements PartitionAware, Serializable {
         private final String key;
         private final String pk;
@@ -30,6 +30,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.ListenerConfig;
 import com.hazelcast.config.MapIndexConfig;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.config.PredicateConfig;
 import com.hazelcast.config.QueryCacheConfig;
 import com.hazelcast.config.SSLConfig;
@@ -205,7 +206,18 @@ public class HazelcastClientBeanDefinitionParser extends AbstractHazelcastBeanDe
         }
 
         private void handleNearCache(Node node) {
-            createAndFillListedBean(node, NearCacheConfig.class, "name", nearCacheConfigMap, "name");
+            BeanDefinitionBuilder nearCacheConfigBuilder = createBeanBuilder(NearCacheConfig.class);
+            String name = getTextContent(node.getAttributes().getNamedItem("name"));
+            nearCacheConfigBuilder.addPropertyValue("name", name);
+            fillValues(node, nearCacheConfigBuilder, "name", "preloader");
+            for (Node child : new IterableNodeList(node, Node.ELEMENT_NODE)) {
+                if ("preloader".equals(cleanNodeName(child))) {
+                    BeanDefinitionBuilder preloaderConfigBuilder = createBeanBuilder(NearCachePreloaderConfig.class);
+                    fillAttributeValues(child, preloaderConfigBuilder);
+                    nearCacheConfigBuilder.addPropertyValue("preloaderConfig", preloaderConfigBuilder.getBeanDefinition());
+                }
+            }
+            nearCacheConfigMap.put(name, nearCacheConfigBuilder.getBeanDefinition());
         }
 
 
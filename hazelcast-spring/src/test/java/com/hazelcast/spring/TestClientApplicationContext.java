@@ -29,6 +29,7 @@ import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.config.QueryCacheConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.config.SerializerConfig;
@@ -216,6 +217,13 @@ public class TestClientApplicationContext {
         assertEquals("LRU", nearCacheConfig.getEvictionPolicy());
         assertEquals(4000, nearCacheConfig.getMaxSize());
         assertEquals(true, nearCacheConfig.isInvalidateOnChange());
+        assertEquals(NearCacheConfig.AdmissionPolicy.TINY_LFU, nearCacheConfig.getAdmissionPolicy());
+
+        NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
+        assertTrue(preloaderConfig.isEnabled());
+        assertEquals("/tmp/near-cache", preloaderConfig.getDirectory());
+        assertEquals(30, preloaderConfig.getStoreIntervalSeconds());
+        assertEquals(500, preloaderConfig.getMaxKeyCount());
     }
 
     @Test
@@ -263,6 +263,7 @@ public class TestFullApplicationContext {
         assertEquals("LRU", testNearCacheConfig.getEvictionPolicy());
         assertEquals(5000, testNearCacheConfig.getMaxSize());
         assertTrue(testNearCacheConfig.isInvalidateOnChange());
+        assertEquals(NearCacheConfig.AdmissionPolicy.TINY_LFU, testNearCacheConfig.getAdmissionPolicy());
 
         // Test that the testMapConfig2's mapStoreConfig implementation
         MapConfig testMapConfig2 = config.getMapConfig("testMap2");
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import java.io.Serializable;
+
+/**
+ * Aggregates the entries of an {@link com.hazelcast.core.IMap} without a MapReduce job.
+ * <p/>
+ * An aggregation is executed in three phases:
+ * <ol>
+ * <li>accumulation: a copy of the aggregator is sent to every member, and a copy per partition accumulates the matching
+ * entries of that partition on the partition thread.</li>
+ * <li>combination: the aggregators of the partitions are combined on the member, and the aggregators of the members are
+ * combined on the caller.</li>
+ * <li>aggregation: the result is calculated from the combined aggregator on the caller.</li>
+ * </ol>
+ * Since an aggregator is copied, it should not hold any state besides the state of its accumulation. A predefined set of
+ * aggregators can be found in {@link Aggregators}.
+ *
+ * @param <I> the type of the input, e.g. a {@link java.util.Map.Entry}.
+ * @param <R> the type of the result.
+ */
+public abstract class Aggregator<I, R> implements Serializable {
+
+    /**
+     * Accumulates an input entry.
+     *
+     * @param input the input entry.
+     */
+    public abstract void accumulate(I input);
+
+    /**
+     * Combines the accumulated state of another aggregator of the same type into this aggregator.
+     *
+     * @param aggregator the aggregator to combine.
+     */
+    public abstract void combine(Aggregator aggregator);
+
+    /**
+     * Returns the result of the aggregation.
+     *
+     * @return the result.
+     */
+    public abstract R aggregate();
+}
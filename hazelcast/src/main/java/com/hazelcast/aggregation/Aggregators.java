@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.aggregation.impl.DistinctValuesAggregator;
+import com.hazelcast.aggregation.impl.DoubleSumAggregator;
+import com.hazelcast.aggregation.impl.LongSumAggregator;
+import com.hazelcast.aggregation.impl.MaxAggregator;
+import com.hazelcast.aggregation.impl.MinAggregator;
+import com.hazelcast.aggregation.impl.NumberAverageAggregator;
+
+import java.util.Set;
+
+/**
+ * Provides the predefined {@link Aggregator}s.
+ * <p/>
+ * The attribute path is resolved like the attribute of a {@link com.hazelcast.query.Predicate}, e.g. "age" or
+ * "address.city". If no attribute path is given, the value of the entry is aggregated. Entries for which the
+ * attribute is null are ignored by all aggregators except {@link #count()}.
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+    }
+
+    /**
+     * @return an aggregator counting the entries.
+     */
+    public static <I> Aggregator<I, Long> count() {
+        return new CountAggregator<I>();
+    }
+
+    /**
+     * @return an aggregator summing the attribute as long.
+     */
+    public static <I> Aggregator<I, Long> longSum(String attributePath) {
+        return new LongSumAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator summing the attribute as double.
+     */
+    public static <I> Aggregator<I, Double> doubleSum(String attributePath) {
+        return new DoubleSumAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator calculating the average of the attribute, or null if there are no values.
+     */
+    public static <I> Aggregator<I, Double> numberAvg(String attributePath) {
+        return new NumberAverageAggregator<I>(attributePath);
+    }
+
+    /**
+     * @return an aggregator calculating the maximum of the attribute, or null if there are no values.
+     */
+    public static <I, R extends Comparable> Aggregator<I, R> max(String attributePath) {
+        return new MaxAggregator<I, R>(attributePath);
+    }
+
+    /**
+     * @return an aggregator calculating the minimum of the attribute, or null if there are no values.
+     */
+    public static <I, R extends Comparable> Aggregator<I, R> min(String attributePath) {
+        return new MinAggregator<I, R>(attributePath);
+    }
+
+    /**
+     * @return an aggregator collecting the distinct values of the attribute.
+     */
+    public static <I, R> Aggregator<I, Set<R>> distinct(String attributePath) {
+        return new DistinctValuesAggregator<I, R>(attributePath);
+    }
+}
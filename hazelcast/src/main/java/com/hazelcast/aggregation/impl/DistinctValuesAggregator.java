@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the distinct values of an attribute.
+ *
+ * @param <I> the type of the input.
+ * @param <R> the type of the attribute.
+ */
+public class DistinctValuesAggregator<I, R> extends AbstractAggregator<I, R, Set<R>> {
+
+    private HashSet<R> values = new HashSet<R>();
+
+    public DistinctValuesAggregator() {
+    }
+
+    public DistinctValuesAggregator(String attributePath) {
+        super(attributePath);
+    }
+
+    @Override
+    protected void accumulateExtracted(R value) {
+        values.add(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void combine(Aggregator aggregator) {
+        values.addAll(((DistinctValuesAggregator<I, R>) aggregator).values);
+    }
+
+    @Override
+    public Set<R> aggregate() {
+        return values;
+    }
+}
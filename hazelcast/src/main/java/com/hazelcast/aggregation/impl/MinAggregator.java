@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+
+/**
+ * Calculates the minimum of a comparable attribute.
+ *
+ * @param <I> the type of the input.
+ * @param <R> the type of the attribute.
+ */
+public class MinAggregator<I, R extends Comparable> extends AbstractAggregator<I, R, R> {
+
+    private R min;
+
+    public MinAggregator() {
+    }
+
+    public MinAggregator(String attributePath) {
+        super(attributePath);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void accumulateExtracted(R value) {
+        if (min == null || value.compareTo(min) < 0) {
+            min = value;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void combine(Aggregator aggregator) {
+        R otherMin = ((MinAggregator<I, R>) aggregator).min;
+        if (otherMin != null) {
+            accumulateExtracted(otherMin);
+        }
+    }
+
+    @Override
+    public R aggregate() {
+        return min;
+    }
+}
@@ -18,6 +18,9 @@ package com.hazelcast.cache.impl.nearcache;
 
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.monitor.NearCacheStats;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.List;
 
 /**
  * {@link NearCache} is the contract point to store keys and values in underlying
@@ -125,4 +128,24 @@ public interface NearCache<K, V> {
      */
     int size();
 
+    /**
+     * Stores the keys of the most frequently accessed records to local disk
+     * if preloading is enabled by {@link com.hazelcast.config.NearCachePreloaderConfig}.
+     */
+    void storeKeys();
+
+    /**
+     * Gets the keys of all entries in this near cache.
+     *
+     * @return a snapshot of the keys of all entries
+     */
+    List<K> getKeys();
+
+    /**
+     * Loads the keys stored by {@link #storeKeys()}, so their values can be preloaded.
+     *
+     * @return the stored keys, the most frequently accessed first, or an empty list if preloading is disabled
+     */
+    List<Data> loadKeys();
+
 }
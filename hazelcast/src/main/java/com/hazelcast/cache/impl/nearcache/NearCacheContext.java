@@ -17,6 +17,8 @@
 package com.hazelcast.cache.impl.nearcache;
 
 import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.internal.storage.Storage;
 
 /**
  * Context to hold all required external services and utilities to be used by
@@ -27,6 +29,7 @@ public class NearCacheContext {
     private NearCacheManager nearCacheManager;
     private SerializationService serializationService;
     private NearCacheExecutor nearCacheExecutor;
+    private Storage<DataRef> nativeDataStorage;
 
     public NearCacheContext() {
 
@@ -70,4 +73,16 @@ public class NearCacheContext {
         this.nearCacheExecutor = nearCacheExecutor;
     }
 
+    /**
+     * @return the storage for the values of {@link com.hazelcast.config.InMemoryFormat#NATIVE} near caches,
+     * or <code>null</code> if each near cache should create its own
+     */
+    public Storage<DataRef> getNativeDataStorage() {
+        return nativeDataStorage;
+    }
+
+    public void setNativeDataStorage(Storage<DataRef> nativeDataStorage) {
+        this.nativeDataStorage = nativeDataStorage;
+    }
+
 }
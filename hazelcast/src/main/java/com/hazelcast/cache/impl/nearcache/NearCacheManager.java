@@ -17,6 +17,8 @@
 package com.hazelcast.cache.impl.nearcache;
 
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.internal.storage.Storage;
 
 import java.util.Collection;
 
@@ -93,4 +95,13 @@ public interface NearCacheManager {
      */
     void destroyAllNearCaches();
 
+    /**
+     * Gets the storage shared by all {@link com.hazelcast.config.InMemoryFormat#NATIVE} near caches
+     * of this manager which are created without a storage in their
+     * {@link com.hazelcast.cache.impl.nearcache.NearCacheContext}.
+     *
+     * @return the shared storage for the values of off-heap near caches
+     */
+    Storage<DataRef> getNativeDataStorage();
+
 }
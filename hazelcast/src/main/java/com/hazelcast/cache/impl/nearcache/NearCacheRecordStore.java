@@ -18,6 +18,8 @@ package com.hazelcast.cache.impl.nearcache;
 
 import com.hazelcast.monitor.NearCacheStats;
 
+import java.util.List;
+
 /**
  * {@link NearCacheRecordStore} is the contract point to store keys and values as
  * {@link com.hazelcast.cache.impl.nearcache.NearCacheRecord} internally and to serve them.
@@ -100,4 +102,29 @@ public interface NearCacheRecordStore<K, V> {
      */
     void doEviction();
 
+    /**
+     * Checks whether a new record for the given <code>key</code> is admitted as specified by the
+     * {@link com.hazelcast.config.NearCacheConfig.AdmissionPolicy} in {@link com.hazelcast.config.NearCacheConfig}.
+     * A key which is already stored is always admitted.
+     *
+     * @param key the key of the record to be put.
+     * @return <code>true</code> if the record can be put, otherwise <code>false</code>.
+     */
+    boolean isAdmitted(K key);
+
+    /**
+     * Gets the keys of the most frequently accessed records, the most frequently accessed first.
+     *
+     * @param maxCount the maximum number of keys to return.
+     * @return the keys of the most frequently accessed records.
+     */
+    List<K> getHottestKeys(int maxCount);
+
+    /**
+     * Gets the keys of all records.
+     *
+     * @return a snapshot of the keys of all records.
+     */
+    List<K> getKeys();
+
 }
@@ -20,13 +20,20 @@ import com.hazelcast.cache.impl.nearcache.NearCache;
 import com.hazelcast.cache.impl.nearcache.NearCacheContext;
 import com.hazelcast.cache.impl.nearcache.NearCacheExecutor;
 import com.hazelcast.cache.impl.nearcache.NearCacheRecordStore;
+import com.hazelcast.cache.impl.nearcache.impl.preloader.NearCachePreloader;
 import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheDataRecordStore;
 import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheObjectRecordStore;
+import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheOffHeapRecordStore;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.monitor.NearCacheStats;
 import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.nio.serialization.Data;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -41,6 +48,8 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
     protected final SerializationService serializationService;
     protected NearCacheRecordStore<K, V> nearCacheRecordStore;
     protected ScheduledFuture expirationTaskFuture;
+    protected NearCachePreloader preloader;
+    protected ScheduledFuture storeKeysTaskFuture;
 
     public DefaultNearCache(String name, NearCacheConfig nearCacheConfig,
                             NearCacheContext nearCacheContext) {
@@ -65,6 +74,20 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
 
     protected void init() {
         startExpirationTask();
+        startStoreKeysTask();
+    }
+
+    protected void startStoreKeysTask() {
+        NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
+        if (preloaderConfig == null || !preloaderConfig.isEnabled()) {
+            return;
+        }
+        preloader = new NearCachePreloader(name, preloaderConfig);
+        NearCacheExecutor nearCacheExecutor = nearCacheContext.getNearCacheExecutor();
+        long intervalSeconds = preloaderConfig.getStoreIntervalSeconds();
+        storeKeysTaskFuture = nearCacheExecutor.scheduleWithFixedDelay(new StoreKeysTask(),
+                                                                        intervalSeconds, intervalSeconds,
+                                                                        TimeUnit.SECONDS);
     }
 
     protected void startExpirationTask() {
@@ -104,6 +127,8 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
                 return new NearCacheDataRecordStore<K, V>(nearCacheConfig, nearCacheContext);
             case OBJECT:
                 return new NearCacheObjectRecordStore<K, V>(nearCacheConfig, nearCacheContext);
+            case NATIVE:
+                return new NearCacheOffHeapRecordStore<K, V>(nearCacheConfig, nearCacheContext);
             default:
                 throw new IllegalArgumentException("Invalid in memory format: " + inMemoryFormat);
         }
@@ -126,6 +151,9 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
         checkNotNull(key, "key cannot be null on put!");
         checkNotNull(value, "value cannot be null on put");
 
+        if (!nearCacheRecordStore.isAdmitted(key)) {
+            return;
+        }
         nearCacheRecordStore.doEvictionIfRequired();
 
         nearCacheRecordStore.put(key, value);
@@ -145,6 +173,13 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
         nearCacheRecordStore.remove(key);
     }
 
+    /**
+     * Evicts the records the eviction policy selects from one sample, regardless of the max-size policy.
+     */
+    public void evict() {
+        nearCacheRecordStore.doEviction();
+    }
+
     @Override
     public boolean isInvalidateOnChange() {
         return nearCacheConfig.isInvalidateOnChange();
@@ -160,6 +195,9 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
         if (expirationTaskFuture != null) {
             expirationTaskFuture.cancel(true);
         }
+        if (storeKeysTaskFuture != null) {
+            storeKeysTaskFuture.cancel(false);
+        }
         nearCacheRecordStore.destroy();
     }
 
@@ -183,6 +221,41 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
         return nearCacheRecordStore.size();
     }
 
+    @Override
+    public void storeKeys() {
+        if (preloader == null) {
+            return;
+        }
+        List<K> hottestKeys = nearCacheRecordStore.getHottestKeys(preloader.getMaxKeyCount());
+        List<Data> keys = new ArrayList<Data>(hottestKeys.size());
+        for (K key : hottestKeys) {
+            keys.add(serializationService.toData(key));
+        }
+        preloader.storeKeys(keys);
+    }
+
+    @Override
+    public List<K> getKeys() {
+        return nearCacheRecordStore.getKeys();
+    }
+
+    @Override
+    public List<Data> loadKeys() {
+        if (preloader == null) {
+            return Collections.emptyList();
+        }
+        return preloader.loadKeys();
+    }
+
+    protected class StoreKeysTask implements Runnable {
+
+        @Override
+        public void run() {
+            storeKeys();
+        }
+
+    }
+
     protected class ExpirationTask implements Runnable {
 
         protected AtomicBoolean expirationInProgress = new AtomicBoolean(false);
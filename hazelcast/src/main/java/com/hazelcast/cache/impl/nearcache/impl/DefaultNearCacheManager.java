@@ -19,7 +19,11 @@ package com.hazelcast.cache.impl.nearcache.impl;
 import com.hazelcast.cache.impl.nearcache.NearCache;
 import com.hazelcast.cache.impl.nearcache.NearCacheContext;
 import com.hazelcast.cache.impl.nearcache.NearCacheManager;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.internal.storage.Storage;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -33,6 +37,16 @@ public class DefaultNearCacheManager implements NearCacheManager {
 
     private final Object mutex = new Object();
 
+    private final SharedNativeStorage nativeDataStorage;
+
+    public DefaultNearCacheManager() {
+        this(new NativeMemoryConfig());
+    }
+
+    public DefaultNearCacheManager(NativeMemoryConfig nativeMemoryConfig) {
+        this.nativeDataStorage = new SharedNativeStorage(nativeMemoryConfig);
+    }
+
     @Override
     public <K, V> NearCache<K, V> getNearCache(String name) {
         return nearCacheMap.get(name);
@@ -59,6 +73,10 @@ public class DefaultNearCacheManager implements NearCacheManager {
         if (nearCacheContext.getNearCacheManager() == null) {
             nearCacheContext.setNearCacheManager(this);
         }
+        if (nearCacheConfig.getInMemoryFormat() == InMemoryFormat.NATIVE
+                && nearCacheContext.getNativeDataStorage() == null) {
+            nearCacheContext.setNativeDataStorage(getNativeDataStorage());
+        }
         return new DefaultNearCache<K, V>(name, nearCacheConfig, nearCacheContext);
     }
 
@@ -98,6 +116,12 @@ public class DefaultNearCacheManager implements NearCacheManager {
             nearCacheMap.remove(nearCache.getName());
             nearCache.destroy();
         }
+        nativeDataStorage.destroy();
+    }
+
+    @Override
+    public Storage<DataRef> getNativeDataStorage() {
+        return nativeDataStorage.get();
     }
 
 }
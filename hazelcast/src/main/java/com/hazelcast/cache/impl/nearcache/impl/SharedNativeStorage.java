@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cache.impl.nearcache.impl;
+
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.internal.storage.Storage;
+import com.hazelcast.internal.storage.impl.NativeStorage;
+
+/**
+ * The {@link NativeStorage} shared by all {@link com.hazelcast.config.InMemoryFormat#NATIVE} near caches of
+ * a member or client which has no native storage of its own. The storage is created with the
+ * {@link NativeMemoryConfig} of the instance when the first off-heap near cache needs it.
+ */
+public final class SharedNativeStorage {
+
+    private final NativeMemoryConfig nativeMemoryConfig;
+    private NativeStorage storage;
+
+    public SharedNativeStorage(NativeMemoryConfig nativeMemoryConfig) {
+        this.nativeMemoryConfig = nativeMemoryConfig;
+    }
+
+    /**
+     * @return the shared storage, created on the first call
+     */
+    public synchronized Storage<DataRef> get() {
+        if (storage == null) {
+            storage = new NativeStorage(nativeMemoryConfig);
+        }
+        return storage;
+    }
+
+    /**
+     * Disposes the shared storage. It must only be called once the near caches using it are destroyed;
+     * a later {@link #get()} creates a new storage.
+     */
+    public synchronized void destroy() {
+        if (storage != null) {
+            storage.destroy();
+            storage = null;
+        }
+    }
+}
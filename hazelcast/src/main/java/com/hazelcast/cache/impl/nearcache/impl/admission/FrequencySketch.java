@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cache.impl.nearcache.impl.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * Approximates the access frequencies of keys for the TinyLFU admission policy of near caches.
+ *
+ * The sketch is a count-min sketch of 4-bit counters, packed sixteen to a {@code long}. Every key is
+ * counted in four counters selected by independent hashes and its frequency is the minimum of them,
+ * so collisions can only overestimate a frequency. After ten times as many increments as the sketch
+ * was sized for, all counters are halved, so frequencies age and recently popular keys can replace
+ * formerly popular ones.
+ *
+ * The sketch is thread-safe. Concurrent increments and resets may lose an increment, which only
+ * makes the approximation slightly coarser.
+ */
+public class FrequencySketch {
+
+    /**
+     * Maximum frequency a counter can hold.
+     */
+    public static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int SPREAD_MULTIPLIER = 0x9E3779B9;
+    private static final int COUNTERS_PER_HASH_SHIFT = 2;
+    private static final int COUNTER_BITS_SHIFT = 2;
+    private static final int HASH_COUNT = 4;
+    private static final int HASH_COUNT_MASK = HASH_COUNT - 1;
+    private static final int SPREAD_SHIFT = 16;
+    private static final int HALF_LONG_BITS = 32;
+    private static final int SAMPLE_FACTOR = 10;
+    private static final int MIN_TABLE_LENGTH = 16;
+    private static final int MAX_TABLE_LENGTH = 1 << 16;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param expectedSize the number of entries the near cache is expected to hold at most
+     */
+    public FrequencySketch(int expectedSize) {
+        int tableLength = nextPowerOfTwo(Math.min(MAX_TABLE_LENGTH, Math.max(MIN_TABLE_LENGTH, expectedSize)));
+        this.table = new AtomicLongArray(tableLength);
+        this.tableMask = tableLength - 1;
+        long sample = (long) SAMPLE_FACTOR * Math.max(MIN_TABLE_LENGTH, expectedSize);
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, sample);
+    }
+
+    /**
+     * Increments the frequency of the key with the given hash, halving all frequencies when the sample
+     * size is reached.
+     *
+     * @param hashCode the hash code of the key
+     */
+    public void increment(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & HASH_COUNT_MASK) << COUNTERS_PER_HASH_SHIFT;
+        boolean incremented = false;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            incremented |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (incremented && additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the approximate frequency of the key with the given hash.
+     *
+     * @param hashCode the hash code of the key
+     * @return the approximate frequency, between 0 and {@link #MAX_FREQUENCY}
+     */
+    public int frequency(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & HASH_COUNT_MASK) << COUNTERS_PER_HASH_SHIFT;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int offset = (start + i) << COUNTER_BITS_SHIFT;
+            int count = (int) ((table.get(indexOf(hash, i)) >>> offset) & MAX_FREQUENCY);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << COUNTER_BITS_SHIFT;
+        long mask = ((long) MAX_FREQUENCY) << offset;
+        for (;;) {
+            long current = table.get(index);
+            if ((current & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, current, current + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private void reset() {
+        int current = additions.get();
+        if (current < sampleSize || !additions.compareAndSet(current, current >>> 1)) {
+            return;
+        }
+        for (int i = 0; i < table.length(); i++) {
+            for (;;) {
+                long value = table.get(i);
+                if (table.compareAndSet(i, value, (value >>> 1) & RESET_MASK)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> HALF_LONG_BITS;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int hashCode) {
+        int h = hashCode * SPREAD_MULTIPLIER;
+        return h ^ (h >>> SPREAD_SHIFT);
+    }
+}
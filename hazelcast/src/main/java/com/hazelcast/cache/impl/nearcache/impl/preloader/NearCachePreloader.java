@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cache.impl.nearcache.impl.preloader;
+
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.serialization.Data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.IOUtil.closeResource;
+
+/**
+ * Stores the keys of a near cache in a file and loads them back, so a restarted client can fill its
+ * near cache with the keys that were hot before.
+ *
+ * The file starts with a magic number and the key count, followed by the length prefixed bytes of
+ * every key. Keys are written to a temporary file which then replaces the previous one, so a crash
+ * while storing leaves the last complete key file in place where the file system can replace a file
+ * by renaming.
+ */
+public class NearCachePreloader {
+
+    private static final int MAGIC = 0x4E434B53;
+    private static final String FILE_PREFIX = "nearcache-";
+    private static final String FILE_SUFFIX = ".keys";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final ILogger logger = Logger.getLogger(NearCachePreloader.class);
+    private final File storeFile;
+    private final File tmpFile;
+    private final int maxKeyCount;
+
+    public NearCachePreloader(String nearCacheName, NearCachePreloaderConfig preloaderConfig) {
+        String directory = preloaderConfig.getDirectory();
+        File dir = directory.length() == 0 ? new File(".") : new File(directory);
+        String fileName = FILE_PREFIX + toFileName(nearCacheName) + FILE_SUFFIX;
+        this.storeFile = new File(dir, fileName);
+        this.tmpFile = new File(dir, fileName + TMP_SUFFIX);
+        this.maxKeyCount = preloaderConfig.getMaxKeyCount();
+    }
+
+    /**
+     * @return the maximum number of keys to store and load
+     */
+    public int getMaxKeyCount() {
+        return maxKeyCount;
+    }
+
+    /**
+     * Replaces the stored keys with the given ones. Failures are logged and leave the previous keys in place.
+     *
+     * @param keys the keys to store, the most frequently accessed first
+     */
+    public void storeKeys(List<Data> keys) {
+        File dir = storeFile.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            logger.warning("Could not create directory " + dir + " to store near cache keys");
+            return;
+        }
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            int count = Math.min(keys.size(), maxKeyCount);
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = keys.get(i).toByteArray();
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.close();
+            out = null;
+            if (!replaceStoreFile()) {
+                logger.warning("Could not replace near cache key file " + storeFile);
+            }
+        } catch (IOException e) {
+            logger.warning("Could not store near cache keys to " + tmpFile, e);
+        } finally {
+            closeResource(out);
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                logger.finest("Could not delete " + tmpFile);
+            }
+        }
+    }
+
+    // renaming over an existing file is atomic on POSIX file systems, but fails on others (e.g. Windows);
+    // only then the previous file is deleted first, leaving a short window without a key file
+    private boolean replaceStoreFile() {
+        if (tmpFile.renameTo(storeFile)) {
+            return true;
+        }
+        return (!storeFile.exists() || storeFile.delete()) && tmpFile.renameTo(storeFile);
+    }
+
+    /**
+     * Loads the stored keys. A missing or corrupt file results in no keys.
+     *
+     * @return the stored keys, the most frequently accessed first
+     */
+    public List<Data> loadKeys() {
+        if (!storeFile.isFile()) {
+            return Collections.emptyList();
+        }
+        DataInputStream in = null;
+        try {
+            long remaining = storeFile.length();
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(storeFile)));
+            if (in.readInt() != MAGIC) {
+                logger.warning("Ignoring near cache key file " + storeFile + " with an unknown format");
+                return Collections.emptyList();
+            }
+            int count = Math.min(in.readInt(), maxKeyCount);
+            remaining -= 2 * INT_SIZE_IN_BYTES;
+            List<Data> keys = new ArrayList<Data>(Math.max(count, 0));
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                remaining -= INT_SIZE_IN_BYTES;
+                // a corrupt length must not allocate more than the file can contain
+                if (length < 0 || length > remaining) {
+                    logger.warning("Ignoring corrupt near cache key file " + storeFile);
+                    return Collections.emptyList();
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                remaining -= length;
+                keys.add(new HeapData(bytes));
+            }
+            return keys;
+        } catch (IOException e) {
+            logger.warning("Could not load near cache keys from " + storeFile, e);
+            return Collections.emptyList();
+        } finally {
+            closeResource(in);
+        }
+    }
+
+    private static String toFileName(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return sb.toString();
+    }
+}
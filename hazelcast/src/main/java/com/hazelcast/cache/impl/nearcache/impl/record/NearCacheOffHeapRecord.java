@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cache.impl.nearcache.impl.record;
+
+import com.hazelcast.internal.storage.DataRef;
+
+/**
+ * Implementation of {@link com.hazelcast.cache.impl.nearcache.NearCacheRecord} to store
+ * the serialized form of values in native memory, referenced by a {@link DataRef}.
+ * A <code>null</code> value means a cached <code>null</code>.
+ *
+ * The native block of a record is freed explicitly by its record store once the record is removed,
+ * evicted or cleared. {@link #release()} makes sure this happens only once, even if the record is
+ * removed and evicted concurrently.
+ */
+public class NearCacheOffHeapRecord extends AbstractNearCacheRecord<DataRef> {
+
+    private final int storageHash;
+    // guarded by this
+    private boolean released;
+
+    public NearCacheOffHeapRecord(DataRef value, int storageHash, long creationTime, long expiryTime) {
+        super(value, creationTime, expiryTime);
+        this.storageHash = storageHash;
+    }
+
+    /**
+     * @return the hash the native block of this record has been allocated with
+     */
+    public int getStorageHash() {
+        return storageHash;
+    }
+
+    /**
+     * @return the number of off-heap bytes held by this record
+     */
+    public int getOffHeapSize() {
+        DataRef ref = value;
+        return ref != null ? ref.blockSize() : 0;
+    }
+
+    /**
+     * @return <code>true</code> if the native block of this record has been handed out to be freed
+     */
+    public synchronized boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Replaces the stored value.
+     *
+     * @param newValue the new value
+     * @return the ref the caller has to free: the old value, or the given value if this record has
+     * already been released
+     */
+    public synchronized DataRef replaceValue(DataRef newValue) {
+        if (released) {
+            return newValue;
+        }
+        DataRef oldValue = value;
+        value = newValue;
+        return oldValue;
+    }
+
+    /**
+     * Marks this record as released.
+     *
+     * @return the ref the caller has to free, or <code>null</code> if there is nothing to free
+     * because a <code>null</code> is cached or the record has already been released
+     */
+    public synchronized DataRef release() {
+        if (released) {
+            return null;
+        }
+        released = true;
+        return value;
+    }
+
+}
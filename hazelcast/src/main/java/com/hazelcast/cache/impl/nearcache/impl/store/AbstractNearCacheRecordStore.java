@@ -23,11 +23,15 @@ import com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider;
 import com.hazelcast.internal.eviction.EvictionPolicyType;
 import com.hazelcast.internal.eviction.EvictionStrategy;
 import com.hazelcast.internal.eviction.EvictionStrategyProvider;
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.eviction.impl.strategy.sampling.SampleableEvictableStore;
 import com.hazelcast.cache.impl.maxsize.MaxSizeChecker;
+import com.hazelcast.cache.impl.nearcache.NearCache;
 import com.hazelcast.cache.impl.nearcache.NearCacheContext;
 import com.hazelcast.cache.impl.nearcache.NearCacheRecord;
 import com.hazelcast.cache.impl.nearcache.NearCacheRecordStore;
 import com.hazelcast.cache.impl.nearcache.impl.NearCacheRecordMap;
+import com.hazelcast.cache.impl.nearcache.impl.admission.FrequencySketch;
 import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.monitor.NearCacheStats;
@@ -56,6 +60,7 @@ public abstract class AbstractNearCacheRecordStore<
                     : (Integer.SIZE / Byte.SIZE);
 
     private static final int MILLI_SECONDS_IN_A_SECOND = 1000;
+    private static final int ADMISSION_SAMPLE_COUNT = 15;
 
     protected final long timeToLiveMillis;
     protected final long maxIdleMillis;
@@ -69,6 +74,7 @@ public abstract class AbstractNearCacheRecordStore<
     protected final EvictionPolicyEvaluator<KS, R> evictionPolicyEvaluator;
     protected final EvictionChecker evictionChecker;
     protected final EvictionStrategy<KS, R, NCRM> evictionStrategy;
+    protected final FrequencySketch frequencySketch;
 
     public AbstractNearCacheRecordStore(NearCacheConfig nearCacheConfig, NearCacheContext nearCacheContext) {
         this(nearCacheConfig, nearCacheContext, new NearCacheStatsImpl());
@@ -89,11 +95,13 @@ public abstract class AbstractNearCacheRecordStore<
             this.evictionPolicyEvaluator = createEvictionPolicyEvaluator(evictionConfig);
             this.evictionChecker = createEvictionChecker(nearCacheConfig);
             this.evictionStrategy = createEvictionStrategy(evictionConfig);
+            this.frequencySketch = createFrequencySketch(nearCacheConfig, evictionConfig);
         } else {
             this.maxSizeChecker = null;
             this.evictionPolicyEvaluator = null;
             this.evictionChecker = null;
             this.evictionStrategy = null;
+            this.frequencySketch = null;
         }
     }
 
@@ -138,6 +146,16 @@ public abstract class AbstractNearCacheRecordStore<
         return EvictionStrategyProvider.getEvictionStrategy(evictionConfig);
     }
 
+    protected FrequencySketch createFrequencySketch(NearCacheConfig nearCacheConfig, EvictionConfig evictionConfig) {
+        if (nearCacheConfig.getAdmissionPolicy() != NearCacheConfig.AdmissionPolicy.TINY_LFU) {
+            return null;
+        }
+        if (evictionConfig.getMaximumSizePolicy() == EvictionConfig.MaxSizePolicy.ENTRY_COUNT) {
+            return new FrequencySketch(evictionConfig.getSize());
+        }
+        return new FrequencySketch(EvictionConfig.DEFAULT_MAX_ENTRY_COUNT);
+    }
+
     protected boolean isAvailable() {
         return records != null;
     }
@@ -161,7 +179,7 @@ public abstract class AbstractNearCacheRecordStore<
     }
 
     protected Data toData(Object obj) {
-        if (obj == null) {
+        if (obj == null || obj == NearCache.NULL_OBJECT) {
             return null;
         } else if (obj instanceof Data) {
             return (Data) obj;
@@ -239,6 +257,9 @@ public abstract class AbstractNearCacheRecordStore<
     public V get(K key) {
         checkAvailable();
 
+        if (frequencySketch != null) {
+            frequencySketch.increment(key.hashCode());
+        }
         R record = null;
         V value = null;
         try {
@@ -306,6 +327,37 @@ public abstract class AbstractNearCacheRecordStore<
         }
     }
 
+    /**
+     * Admits every key if no admission policy is configured, the key is already stored or there is room for it.
+     * Otherwise a new key is only admitted if it was accessed more frequently than the key of the record
+     * the eviction policy would evict for it. So a burst of one-off keys cannot flush the frequently accessed
+     * ones out of a full near cache.
+     */
+    @Override
+    public boolean isAdmitted(K key) {
+        checkAvailable();
+
+        if (frequencySketch == null || !evictionChecker.isEvictionRequired() || getRecord(key) != null) {
+            return true;
+        }
+        if (!(records instanceof SampleableEvictableStore)) {
+            return true;
+        }
+        Iterable<EvictionCandidate<KS, R>> samples =
+                ((SampleableEvictableStore<KS, R>) records).sample(ADMISSION_SAMPLE_COUNT);
+        Iterable<EvictionCandidate<KS, R>> victims = evictionPolicyEvaluator.evaluate(samples);
+        if (victims == null) {
+            return true;
+        }
+        int keyFrequency = frequencySketch.frequency(key.hashCode());
+        for (EvictionCandidate<KS, R> victim : victims) {
+            if (keyFrequency <= frequencySketch.frequency(victim.getAccessor().hashCode())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected void clearRecords() {
         records.clear();
     }
@@ -23,6 +23,10 @@ import com.hazelcast.cache.impl.nearcache.impl.maxsize.EntryCountNearCacheMaxSiz
 import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.NearCacheConfig;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
 public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheRecord>
@@ -82,6 +86,34 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
         nearCacheStats.decrementOwnedEntryMemoryCost(getTotalStorageMemoryCost(key, record));
     }
 
+    @Override
+    public List<K> getHottestKeys(int maxCount) {
+        checkAvailable();
+
+        List<Map.Entry<K, R>> entries = new ArrayList<Map.Entry<K, R>>(records.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<K, R>>() {
+            @Override
+            public int compare(Map.Entry<K, R> e1, Map.Entry<K, R> e2) {
+                int hit1 = e1.getValue().getAccessHit();
+                int hit2 = e2.getValue().getAccessHit();
+                return hit1 > hit2 ? -1 : (hit1 == hit2 ? 0 : 1);
+            }
+        });
+        int count = Math.min(maxCount, entries.size());
+        List<K> keys = new ArrayList<K>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(entries.get(i).getKey());
+        }
+        return keys;
+    }
+
+    @Override
+    public List<K> getKeys() {
+        checkAvailable();
+
+        return new ArrayList<K>(records.keySet());
+    }
+
     @Override
     public void doExpiration() {
         for (Map.Entry<K, R> entry : records.entrySet()) {
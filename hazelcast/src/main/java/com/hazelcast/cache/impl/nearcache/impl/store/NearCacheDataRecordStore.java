@@ -16,6 +16,7 @@
 
 package com.hazelcast.cache.impl.nearcache.impl.store;
 
+import com.hazelcast.cache.impl.nearcache.NearCache;
 import com.hazelcast.cache.impl.nearcache.NearCacheContext;
 import com.hazelcast.cache.impl.nearcache.NearCacheRecord;
 import com.hazelcast.cache.impl.nearcache.impl.record.NearCacheDataRecord;
@@ -80,6 +81,9 @@ public class NearCacheDataRecordStore<K, V>
     @Override
     protected V recordToValue(NearCacheDataRecord record) {
         Data data = record.getValue();
+        if (data == null) {
+            return (V) NearCache.NULL_OBJECT;
+        }
         return dataToValue(data);
     }
 
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.cache.impl.nearcache.impl.store;
+
+import com.hazelcast.cache.impl.maxsize.MaxSizeChecker;
+import com.hazelcast.cache.impl.nearcache.NearCache;
+import com.hazelcast.cache.impl.nearcache.NearCacheContext;
+import com.hazelcast.cache.impl.nearcache.NearCacheRecord;
+import com.hazelcast.cache.impl.nearcache.impl.record.NearCacheOffHeapRecord;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.internal.storage.Storage;
+import com.hazelcast.internal.storage.impl.NativeStorage;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link com.hazelcast.cache.impl.nearcache.NearCacheRecordStore} implementation for
+ * {@link com.hazelcast.config.InMemoryFormat#NATIVE} in-memory format.
+ *
+ * Values are kept serialized in native memory, so large near caches do not add to the heap the garbage
+ * collector has to trace. Keys and record metadata stay on the heap. The native memory is taken from the
+ * {@link Storage} of the {@link NearCacheContext}: members and clients pass the native storage of the member
+ * or a {@link com.hazelcast.cache.impl.nearcache.impl.SharedNativeStorage} used by all their off-heap near caches.
+ * If the context doesn't provide one, the store creates its own {@link NativeStorage} and disposes it when
+ * the store is destroyed. The blocks of the values are
+ * freed as soon as their records are replaced, removed, evicted or cleared.
+ *
+ * Besides {@link com.hazelcast.config.EvictionConfig.MaxSizePolicy#ENTRY_COUNT},
+ * {@link com.hazelcast.config.EvictionConfig.MaxSizePolicy#USED_NATIVE_MEMORY_SIZE} is supported
+ * as max-size policy and limits the off-heap bytes used by the values (in megabytes).
+ */
+public class NearCacheOffHeapRecordStore<K, V>
+        extends BaseHeapNearCacheRecordStore<K, V, NearCacheOffHeapRecord> {
+
+    private static final long ONE_MEGABYTE = 1024L * 1024L;
+
+    private final AtomicLong usedOffHeapMemory = new AtomicLong();
+    private final Storage<DataRef> storage;
+    private final boolean ownsStorage;
+
+    public NearCacheOffHeapRecordStore(NearCacheConfig nearCacheConfig, NearCacheContext nearCacheContext) {
+        super(nearCacheConfig, nearCacheContext);
+        Storage<DataRef> contextStorage = nearCacheContext.getNativeDataStorage();
+        this.ownsStorage = contextStorage == null;
+        this.storage = ownsStorage ? createStorage(nearCacheConfig) : contextStorage;
+    }
+
+    // the limit of an own storage is only a safety net, the size of the near cache is limited by eviction
+    private static Storage<DataRef> createStorage(NearCacheConfig nearCacheConfig) {
+        long sizeInMegaBytes = NativeMemoryConfig.INITIAL_MEMORY_SIZE;
+        EvictionConfig evictionConfig = nearCacheConfig.getEvictionConfig();
+        if (evictionConfig != null
+                && evictionConfig.getMaximumSizePolicy() == EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE) {
+            sizeInMegaBytes = Math.max(sizeInMegaBytes, 2L * evictionConfig.getSize());
+        }
+        NativeMemoryConfig config = new NativeMemoryConfig()
+                .setSize(new MemorySize(sizeInMegaBytes, MemoryUnit.MEGABYTES));
+        return new NativeStorage(config);
+    }
+
+    @Override
+    protected MaxSizeChecker createNearCacheMaxSizeChecker(EvictionConfig evictionConfig,
+                                                           NearCacheConfig nearCacheConfig,
+                                                           NearCacheContext nearCacheContext) {
+        EvictionConfig.MaxSizePolicy maxSizePolicy = evictionConfig.getMaximumSizePolicy();
+        if (maxSizePolicy == EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE) {
+            return new UsedOffHeapMemoryMaxSizeChecker(evictionConfig.getSize() * ONE_MEGABYTE);
+        }
+        if (maxSizePolicy == EvictionConfig.MaxSizePolicy.ENTRY_COUNT) {
+            return super.createNearCacheMaxSizeChecker(evictionConfig, nearCacheConfig, nearCacheContext);
+        }
+        throw new IllegalArgumentException("Invalid max-size policy "
+                + "(" + maxSizePolicy + ") for " + getClass().getName() + " ! Only "
+                + EvictionConfig.MaxSizePolicy.ENTRY_COUNT + " and "
+                + EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE + " are supported.");
+    }
+
+    /**
+     * @return the native memory bytes currently allocated for the values of this record store
+     */
+    public long getUsedOffHeapMemory() {
+        return usedOffHeapMemory.get();
+    }
+
+    @Override
+    protected long getKeyStorageMemoryCost(K key) {
+        if (key instanceof Data) {
+            return
+                // Reference to this key data inside map ("store" field)
+                REFERENCE_SIZE
+                // Heap cost of this key data
+                + ((Data) key).getHeapCost();
+        } else {
+            // Memory cost for non-data typed instance is not supported.
+            return 0L;
+        }
+    }
+
+    // Only the heap part of the record is counted, off-heap bytes are reported by getUsedOffHeapMemory()
+    @Override
+    protected long getRecordStorageMemoryCost(NearCacheOffHeapRecord record) {
+        if (record == null) {
+            return 0L;
+        }
+        return
+            // Reference to this record inside map ("store" field)
+            REFERENCE_SIZE
+            // Reference to "value" field
+            + REFERENCE_SIZE
+            // 3 primitive long typed fields: "creationTime", "expirationTime" and "accessTime"
+            + (3 * (Long.SIZE / Byte.SIZE))
+            // Primitive int typed "accessHit" field
+            + (Integer.SIZE / Byte.SIZE);
+    }
+
+    @Override
+    protected NearCacheOffHeapRecord valueToRecord(V value) {
+        int storageHash = storageHash();
+        DataRef ref = allocate(storageHash, toData(value));
+        long creationTime = Clock.currentTimeMillis();
+        if (timeToLiveMillis > 0) {
+            return new NearCacheOffHeapRecord(ref, storageHash, creationTime, creationTime + timeToLiveMillis);
+        } else {
+            return new NearCacheOffHeapRecord(ref, storageHash, creationTime, NearCacheRecord.TIME_NOT_SET);
+        }
+    }
+
+    @Override
+    protected V recordToValue(NearCacheOffHeapRecord record) {
+        DataRef ref = record.getValue();
+        if (ref == null) {
+            return record.isReleased() ? null : (V) NearCache.NULL_OBJECT;
+        }
+        Data data = storage.get(record.getStorageHash(), ref);
+        // the block has been freed concurrently, so the record is gone and this is a miss
+        return data != null ? (V) dataToValue(data) : null;
+    }
+
+    @Override
+    protected void putToRecord(NearCacheOffHeapRecord record, V value) {
+        DataRef newRef = allocate(record.getStorageHash(), toData(value));
+        free(record.getStorageHash(), record.replaceValue(newRef));
+    }
+
+    @Override
+    protected NearCacheOffHeapRecord putRecord(K key, NearCacheOffHeapRecord record) {
+        NearCacheOffHeapRecord oldRecord = super.putRecord(key, record);
+        if (oldRecord != null) {
+            release(oldRecord);
+        }
+        return oldRecord;
+    }
+
+    @Override
+    protected void onPutError(K key, V value, NearCacheOffHeapRecord record,
+                              NearCacheOffHeapRecord oldRecord, Throwable error) {
+        // the record may not have been stored, so nothing else would free its block
+        if (record != null && getRecord(key) != record) {
+            release(record);
+        }
+    }
+
+    @Override
+    protected NearCacheOffHeapRecord removeRecord(K key) {
+        NearCacheOffHeapRecord removedRecord = super.removeRecord(key);
+        if (removedRecord != null) {
+            release(removedRecord);
+        }
+        return removedRecord;
+    }
+
+    @Override
+    public void onEvict(K key, NearCacheOffHeapRecord record) {
+        super.onEvict(key, record);
+        release(record);
+    }
+
+    @Override
+    protected void clearRecords() {
+        for (NearCacheOffHeapRecord record : records.values()) {
+            release(record);
+        }
+        super.clearRecords();
+    }
+
+    @Override
+    protected void destroyStore() {
+        super.destroyStore();
+        if (ownsStorage) {
+            storage.destroy();
+        }
+    }
+
+    @Override
+    public Object selectToSave(Object... candidates) {
+        Object selectedCandidate = null;
+        if (candidates != null && candidates.length > 0) {
+            for (Object candidate : candidates) {
+                // Give priority to Data typed candidate.
+                // So there will be no extra convertion from Object to Data.
+                if (candidate instanceof Data) {
+                    return candidate;
+                }
+                if (selectedCandidate == null) {
+                    selectedCandidate = candidate;
+                }
+            }
+        }
+        return selectedCandidate;
+    }
+
+    // spreads the allocations of different threads over the stripes of the storage
+    private static int storageHash() {
+        return (int) Thread.currentThread().getId();
+    }
+
+    private DataRef allocate(int storageHash, Data data) {
+        if (data == null) {
+            return null;
+        }
+        DataRef ref = storage.put(storageHash, data);
+        usedOffHeapMemory.addAndGet(ref.blockSize());
+        return ref;
+    }
+
+    private void release(NearCacheOffHeapRecord record) {
+        free(record.getStorageHash(), record.release());
+    }
+
+    private void free(int storageHash, DataRef ref) {
+        if (ref == null) {
+            return;
+        }
+        storage.remove(storageHash, ref);
+        usedOffHeapMemory.addAndGet(-ref.blockSize());
+    }
+
+    /**
+     * Max-size checker for {@link com.hazelcast.config.EvictionConfig.MaxSizePolicy#USED_NATIVE_MEMORY_SIZE}.
+     * It reads the used off-heap memory of the enclosing store on each check, since it is created before
+     * the store finished its construction.
+     */
+    private class UsedOffHeapMemoryMaxSizeChecker implements MaxSizeChecker {
+
+        private final long maxBytes;
+
+        UsedOffHeapMemoryMaxSizeChecker(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public boolean isReachedToMaxSize() {
+            return usedOffHeapMemory.get() >= maxBytes;
+        }
+    }
+
+}
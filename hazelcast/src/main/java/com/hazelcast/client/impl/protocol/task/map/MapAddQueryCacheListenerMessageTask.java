@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.impl.protocol.task.map;
+
+import com.hazelcast.client.ClientEndpoint;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapAddListenerCodec;
+import com.hazelcast.client.impl.protocol.task.AbstractCallableMessageTask;
+import com.hazelcast.instance.Node;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.querycache.QueryCacheUtil;
+import com.hazelcast.map.impl.querycache.QueryCacheListenerAdapter;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+
+import java.security.Permission;
+
+/**
+ * Subscribes a client to the events published for one of its query caches.
+ */
+public class MapAddQueryCacheListenerMessageTask
+        extends AbstractCallableMessageTask<EnterpriseMapAddListenerCodec.RequestParameters> {
+
+    public MapAddQueryCacheListenerMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected Object call() {
+        ClientEndpoint endpoint = getEndpoint();
+        String cacheId = parameters.listenerName;
+        String registrationId = nodeEngine.getEventService()
+                .registerListener(MapService.SERVICE_NAME, cacheId, new QueryCacheListener()).getId();
+        endpoint.addListenerDestroyAction(MapService.SERVICE_NAME, cacheId, registrationId);
+        return registrationId;
+    }
+
+    @Override
+    protected EnterpriseMapAddListenerCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return EnterpriseMapAddListenerCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    protected ClientMessage encodeResponse(Object response) {
+        return EnterpriseMapAddListenerCodec.encodeResponse((String) response);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(getDistributedObjectName(), ActionConstants.ACTION_LISTEN);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return QueryCacheUtil.getMapName(parameters.listenerName);
+    }
+
+    @Override
+    public String getMethodName() {
+        return null;
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return null;
+    }
+
+    private class QueryCacheListener extends QueryCacheListenerAdapter {
+
+        @Override
+        public void onBatch(BatchEventData batch) {
+            if (!endpoint.isAlive()) {
+                return;
+            }
+            ClientMessage eventMessage = EnterpriseMapAddListenerCodec.encodeQueryCacheBatchEvent(batch.getEvents(),
+                    batch.getSource(), batch.getPartitionId());
+            // events of a partition are handled in order by the client
+            eventMessage.setPartitionId(batch.getPartitionId());
+            sendClientMessage(eventMessage);
+        }
+    }
+}
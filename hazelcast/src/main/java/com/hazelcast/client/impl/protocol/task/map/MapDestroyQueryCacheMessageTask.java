@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.impl.protocol.task.map;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapDestroyCacheCodec;
+import com.hazelcast.client.impl.protocol.task.AbstractCallableMessageTask;
+import com.hazelcast.instance.Node;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.EventRegistration;
+import com.hazelcast.spi.EventService;
+
+import java.security.Permission;
+
+/**
+ * Destroys the publishers of a client query cache and the subscription of the client to their events.
+ */
+public class MapDestroyQueryCacheMessageTask
+        extends AbstractCallableMessageTask<EnterpriseMapDestroyCacheCodec.RequestParameters> {
+
+    public MapDestroyQueryCacheMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected Object call() {
+        MapService mapService = getService(MapService.SERVICE_NAME);
+        mapService.getMapServiceContext().getQueryCacheContext()
+                .destroyPublishers(parameters.mapName, parameters.cacheName);
+
+        EventService eventService = nodeEngine.getEventService();
+        for (EventRegistration registration : eventService.getRegistrations(MapService.SERVICE_NAME, parameters.cacheName)) {
+            if (nodeEngine.getThisAddress().equals(registration.getSubscriber())) {
+                eventService.deregisterListener(MapService.SERVICE_NAME, parameters.cacheName, registration.getId());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected EnterpriseMapDestroyCacheCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return EnterpriseMapDestroyCacheCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    protected ClientMessage encodeResponse(Object response) {
+        return EnterpriseMapDestroyCacheCodec.encodeResponse((Boolean) response);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(parameters.mapName, ActionConstants.ACTION_LISTEN);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return parameters.mapName;
+    }
+
+    @Override
+    public String getMethodName() {
+        return null;
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.client.impl.protocol.task.map;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.EnterpriseMapPublisherCreateCodec;
+import com.hazelcast.client.impl.protocol.task.AbstractCallableMessageTask;
+import com.hazelcast.instance.Node;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+
+import java.security.Permission;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates the publishers of a client query cache on all members and returns the matching
+ * keys of the map when the query cache is populated.
+ */
+public class MapPublisherCreateMessageTask
+        extends AbstractCallableMessageTask<EnterpriseMapPublisherCreateCodec.RequestParameters> {
+
+    public MapPublisherCreateMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected Object call() throws Exception {
+        MapService mapService = getService(MapService.SERVICE_NAME);
+        QueryCacheContext queryCacheContext = mapService.getMapServiceContext().getQueryCacheContext();
+        Predicate predicate = serializationService.toObject(parameters.predicate);
+        PublisherInfo info = new PublisherInfo(parameters.mapName, parameters.cacheName, predicate, false,
+                parameters.batchSize, parameters.bufferSize, (int) parameters.delaySeconds, parameters.coalesce);
+        Collection<Map.Entry<Data, Data>> entries = queryCacheContext.createPublishers(info, parameters.populate);
+        Set<Data> keys = new LinkedHashSet<Data>(entries.size());
+        for (Map.Entry<Data, Data> entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    @Override
+    protected EnterpriseMapPublisherCreateCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return EnterpriseMapPublisherCreateCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected ClientMessage encodeResponse(Object response) {
+        return EnterpriseMapPublisherCreateCodec.encodeResponse((Set<Data>) response);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(parameters.mapName, ActionConstants.ACTION_LISTEN);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return parameters.mapName;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "getQueryCache";
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return new Object[]{parameters.cacheName, parameters.predicate, false};
+    }
+}
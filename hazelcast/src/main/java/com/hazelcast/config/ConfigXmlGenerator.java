@@ -525,7 +525,8 @@ public class ConfigXmlGenerator {
         if (!m.getMapIndexConfigs().isEmpty()) {
             xml.append("<indexes>");
             for (MapIndexConfig indexCfg : m.getMapIndexConfigs()) {
-                xml.append("<index ordered=\"").append(indexCfg.isOrdered()).append("\">");
+                xml.append("<index ordered=\"").append(indexCfg.isOrdered())
+                        .append("\" bitmap=\"").append(indexCfg.isBitmap()).append("\">");
                 xml.append(indexCfg.getAttribute());
                 xml.append("</index>");
             }
@@ -573,6 +574,7 @@ public class ConfigXmlGenerator {
             xml.append("<invalidate-on-change>").append(n.isInvalidateOnChange()).append("</invalidate-on-change>");
             xml.append("<local-update-policy>").append(n.getLocalUpdatePolicy()).append("</local-update-policy>");
             xml.append("<in-memory-format>").append(n.getInMemoryFormat()).append("</in-memory-format>");
+            xml.append("<admission-policy>").append(n.getAdmissionPolicy()).append("</admission-policy>");
             evictionConfigXmlGenerator(xml, n.getEvictionConfig());
             xml.append("</near-cache>");
         }
@@ -22,11 +22,19 @@ import static com.hazelcast.util.Preconditions.checkHasText;
  * Contains the configuration for an index in a map. This class should be used in combination
  * with the {@link MapConfig}. The reason to create an map index is to speed up searches for
  * particular map entries.
+ * <p/>
+ * The attribute can also be a comma separated list of attributes, e.g. "customerId,status". Then a composite index is
+ * created over these attributes. A query containing an equality condition for every attribute of a composite index,
+ * e.g. "customerId = 5 and status = 'ACTIVE'", is evaluated with a single lookup in the composite index.
+ * <p/>
+ * An index over an attribute with few distinct values, e.g. a status or a country, can be configured as a bitmap index;
+ * see {@link #setBitmap(boolean)}.
  */
 public class MapIndexConfig {
 
     private String attribute;
     private boolean ordered;
+    private boolean bitmap;
     private MapIndexConfigReadOnly readOnly;
 
     /**
@@ -51,6 +59,7 @@ public class MapIndexConfig {
     public MapIndexConfig(MapIndexConfig config) {
         attribute = config.getAttribute();
         ordered = config.isOrdered();
+        bitmap = config.isBitmap();
     }
 
     public MapIndexConfigReadOnly getAsReadOnly() {
@@ -71,7 +80,8 @@ public class MapIndexConfig {
     }
 
     /**
-     * Sets the attribute that is going to be indexed.
+     * Sets the attribute that is going to be indexed. For a composite index, this is a comma separated list of
+     * attributes.
      *
      * @param attribute the attribute that is going to be indexed.
      * @return the updated MapIndexConfig.
@@ -105,11 +115,37 @@ public class MapIndexConfig {
         return this;
     }
 
+    /**
+     * Checks if the index is a bitmap index.
+     *
+     * @return true if the index is a bitmap index, false otherwise.
+     * @see #setBitmap(boolean)
+     */
+    public boolean isBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Configures the index to be a bitmap index or not. A bitmap index stores a compressed bitmap of the indexed
+     * entries per distinct value, instead of a map entry per indexed entry. This uses much less memory for attributes
+     * with few distinct values, e.g. a status or a country, and allows and/or conditions over multiple bitmap indexes
+     * to be evaluated with bitmap operations. A bitmap index is not ordered; the ordered setting is ignored. Composite
+     * indexes can't be bitmap indexes.
+     *
+     * @param bitmap if the index should be a bitmap index.
+     * @return the updated MapIndexConfig.
+     */
+    public MapIndexConfig setBitmap(boolean bitmap) {
+        this.bitmap = bitmap;
+        return this;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("MapIndexConfig{");
         sb.append("attribute='").append(attribute).append('\'');
         sb.append(", ordered=").append(ordered);
+        sb.append(", bitmap=").append(bitmap);
         sb.append('}');
         return sb.toString();
     }
@@ -79,6 +79,10 @@ public class NearCacheConfig
     //      * LRU as eviction policy
     private EvictionConfig evictionConfig = new EvictionConfig();
 
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.ALWAYS;
+
+    private NearCachePreloaderConfig preloaderConfig = new NearCachePreloaderConfig();
+
     /**
      * Local Update Policy enum.
      */
@@ -93,6 +97,22 @@ public class NearCacheConfig
         CACHE
     }
 
+    /**
+     * Decides whether a new entry is admitted into a full near cache.
+     */
+    public enum AdmissionPolicy {
+        /**
+         * Every new entry is admitted, evicting another entry if the near cache is full.
+         */
+        ALWAYS,
+        /**
+         * A new entry is admitted into a full near cache only if its key was accessed more
+         * frequently than the key of the entry it would evict. Access frequencies are
+         * approximated by a TinyLFU frequency sketch.
+         */
+        TINY_LFU
+    }
+
     public NearCacheConfig() {
     }
 
@@ -129,10 +149,14 @@ public class NearCacheConfig
         timeToLiveSeconds = config.getTimeToLiveSeconds();
         cacheLocalEntries = config.isCacheLocalEntries();
         localUpdatePolicy = config.localUpdatePolicy;
+        admissionPolicy = config.admissionPolicy;
         // Eviction config cannot be null
         if (config.evictionConfig != null) {
             this.evictionConfig = config.evictionConfig;
         }
+        if (config.preloaderConfig != null) {
+            this.preloaderConfig = new NearCachePreloaderConfig(config.preloaderConfig);
+        }
     }
 
     public NearCacheConfigReadOnly getAsReadOnly() {
@@ -384,6 +408,56 @@ public class NearCacheConfig
         return this;
     }
 
+    /**
+     * Gets the policy deciding whether a new entry is admitted into a full near cache.
+     *
+     * @return The admission policy of the near cache.
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    /**
+     * Sets the policy deciding whether a new entry is admitted into a full near cache.
+     * ALWAYS (default) admits every entry, TINY_LFU only admits entries whose keys are
+     * accessed more frequently than the key of the entry they would evict.
+     *
+     * @param admissionPolicy The admission policy of the near cache.
+     * @return This near cache config instance.
+     */
+    public NearCacheConfig setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        this.admissionPolicy = checkNotNull(admissionPolicy, "Admission policy cannot be null !");
+        return this;
+    }
+
+    // this setter is for reflection based configuration building
+    public NearCacheConfig setAdmissionPolicy(String admissionPolicy) {
+        checkNotNull(admissionPolicy, "Admission policy cannot be null !");
+
+        this.admissionPolicy = AdmissionPolicy.valueOf(admissionPolicy);
+        return this;
+    }
+
+    /**
+     * Gets the configuration of storing the hottest keys of the near cache and preloading them on start.
+     *
+     * @return The preloader config of the near cache.
+     */
+    public NearCachePreloaderConfig getPreloaderConfig() {
+        return preloaderConfig;
+    }
+
+    /**
+     * Sets the configuration of storing the hottest keys of the near cache and preloading them on start.
+     *
+     * @param preloaderConfig The preloader config of the near cache.
+     * @return This near cache config instance.
+     */
+    public NearCacheConfig setPreloaderConfig(NearCachePreloaderConfig preloaderConfig) {
+        this.preloaderConfig = checkNotNull(preloaderConfig, "Preloader config cannot be null !");
+        return this;
+    }
+
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeUTF(name);
@@ -395,6 +469,8 @@ public class NearCacheConfig
         out.writeInt(inMemoryFormat.ordinal());
         out.writeInt(localUpdatePolicy.ordinal());
         out.writeObject(evictionConfig);
+        out.writeInt(admissionPolicy.ordinal());
+        out.writeObject(preloaderConfig);
     }
 
     @Override
@@ -410,6 +486,8 @@ public class NearCacheConfig
         final int localUpdatePolicyInt = in.readInt();
         localUpdatePolicy = LocalUpdatePolicy.values()[localUpdatePolicyInt];
         evictionConfig = in.readObject();
+        admissionPolicy = AdmissionPolicy.values()[in.readInt()];
+        preloaderConfig = in.readObject();
     }
 
     @Override
@@ -424,6 +502,8 @@ public class NearCacheConfig
         sb.append(", cacheLocalEntries=").append(cacheLocalEntries);
         sb.append(", localUpdatePolicy=").append(localUpdatePolicy);
         sb.append(", evictionConfig=").append(evictionConfig);
+        sb.append(", admissionPolicy=").append(admissionPolicy);
+        sb.append(", preloaderConfig=").append(preloaderConfig);
         sb.append('}');
         return sb.toString();
     }
@@ -59,4 +59,16 @@ public class NearCacheConfigReadOnly extends NearCacheConfig {
     public NearCacheConfig setCacheLocalEntries(boolean cacheLocalEntries) {
         throw new UnsupportedOperationException("This config is read-only");
     }
+
+    public NearCacheConfig setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
+
+    public NearCacheConfig setAdmissionPolicy(String admissionPolicy) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
+
+    public NearCacheConfig setPreloaderConfig(NearCachePreloaderConfig preloaderConfig) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.config;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Configuration for storing the keys of a near cache to local disk and preloading them on start.
+ *
+ * When enabled, the hottest keys of the near cache are periodically written to a file in
+ * {@link #getDirectory()}. A client which starts with the same configuration reads the stored keys
+ * and fills its near cache with their values before the first requests need them.
+ */
+public class NearCachePreloaderConfig implements DataSerializable, Serializable {
+
+    /**
+     * Default interval of storing the keys of the near cache in seconds.
+     */
+    public static final int DEFAULT_STORE_INTERVAL_SECONDS = 600;
+
+    /**
+     * Default maximum number of keys stored for and preloaded into the near cache.
+     */
+    public static final int DEFAULT_MAX_KEY_COUNT = 10000;
+
+    private boolean enabled;
+
+    private String directory = "";
+
+    private int storeIntervalSeconds = DEFAULT_STORE_INTERVAL_SECONDS;
+
+    private int maxKeyCount = DEFAULT_MAX_KEY_COUNT;
+
+    public NearCachePreloaderConfig() {
+    }
+
+    public NearCachePreloaderConfig(NearCachePreloaderConfig config) {
+        this.enabled = config.enabled;
+        this.directory = config.directory;
+        this.storeIntervalSeconds = config.storeIntervalSeconds;
+        this.maxKeyCount = config.maxKeyCount;
+    }
+
+    /**
+     * Checks if storing and preloading the keys of the near cache is enabled.
+     *
+     * @return True if the preloader is enabled, false otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables storing and preloading the keys of the near cache. Default is false.
+     *
+     * @param enabled True to enable the preloader, false to disable it.
+     * @return This preloader config instance.
+     */
+    public NearCachePreloaderConfig setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Gets the directory the key files of the near caches are stored in.
+     *
+     * @return The directory of the key files, an empty string means the working directory.
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory the key files of the near caches are stored in.
+     * An empty string (default) means the working directory.
+     *
+     * @param directory The directory of the key files.
+     * @return This preloader config instance.
+     */
+    public NearCachePreloaderConfig setDirectory(String directory) {
+        this.directory = checkNotNull(directory, "Directory cannot be null !");
+        return this;
+    }
+
+    /**
+     * Gets the interval of storing the keys of the near cache in seconds.
+     *
+     * @return The store interval in seconds.
+     */
+    public int getStoreIntervalSeconds() {
+        return storeIntervalSeconds;
+    }
+
+    /**
+     * Sets the interval of storing the keys of the near cache in seconds. Default is 600.
+     *
+     * @param storeIntervalSeconds The store interval in seconds.
+     * @return This preloader config instance.
+     */
+    public NearCachePreloaderConfig setStoreIntervalSeconds(int storeIntervalSeconds) {
+        this.storeIntervalSeconds = checkPositive(storeIntervalSeconds, "Store interval seconds must be positive !");
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of the hottest keys stored for and preloaded into the near cache.
+     *
+     * @return The maximum number of keys.
+     */
+    public int getMaxKeyCount() {
+        return maxKeyCount;
+    }
+
+    /**
+     * Sets the maximum number of the hottest keys stored for and preloaded into the near cache.
+     * Default is 10000.
+     *
+     * @param maxKeyCount The maximum number of keys.
+     * @return This preloader config instance.
+     */
+    public NearCachePreloaderConfig setMaxKeyCount(int maxKeyCount) {
+        this.maxKeyCount = checkPositive(maxKeyCount, "Max key count must be positive !");
+        return this;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeBoolean(enabled);
+        out.writeUTF(directory);
+        out.writeInt(storeIntervalSeconds);
+        out.writeInt(maxKeyCount);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        enabled = in.readBoolean();
+        directory = in.readUTF();
+        storeIntervalSeconds = in.readInt();
+        maxKeyCount = in.readInt();
+    }
+
+    @Override
+    public String toString() {
+        return "NearCachePreloaderConfig{"
+                + "enabled=" + enabled
+                + ", directory='" + directory + '\''
+                + ", storeIntervalSeconds=" + storeIntervalSeconds
+                + ", maxKeyCount=" + maxKeyCount
+                + '}';
+    }
+}
@@ -375,6 +375,9 @@ public class QueryCacheConfig {
 
     /**
      * Sets the {@link EvictionConfig} instance for this {@code QueryCache}
+     * <p/>
+     * Eviction is not supported by query caches yet; a query cache logs a warning and ignores an eviction config
+     * that differs from the default.
      *
      * @param evictionConfig the {@link EvictionConfig} instance for eviction configuration to set
      * @return this {@code QueryCacheConfig} instance.
@@ -16,8 +16,10 @@
 
 package com.hazelcast.core;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.QueryResultSizeExceededException;
 import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
@@ -25,9 +27,11 @@ import com.hazelcast.mapreduce.JobTracker;
 import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
@@ -1409,4 +1413,125 @@ public interface IMap<K, V>
     <SuppliedValue, Result> Result aggregate(Supplier<K, V, SuppliedValue> supplier,
                                              Aggregation<K, SuppliedValue, Result> aggregation,
                                              JobTracker jobTracker);
+
+    /**
+     * Applies the aggregation logic on all map entries and returns the result.
+     * <p/>
+     * Unlike {@link #aggregate(Supplier, Aggregation)}, no MapReduce job is started: the entries are accumulated on the
+     * partition threads, combined per member and merged on the caller. A predefined set of aggregators can be found in
+     * {@link com.hazelcast.aggregation.Aggregators}.
+     *
+     * @param aggregator the aggregator; it is copied and not modified.
+     * @param <R>        the type of the result.
+     * @return the result of the aggregation.
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator);
+
+    /**
+     * Applies the aggregation logic on the map entries matching the predicate and returns the result. If the predicate
+     * can be evaluated using the indexes, only the indexed entries are accumulated.
+     *
+     * @param aggregator the aggregator; it is copied and not modified.
+     * @param predicate  the predicate to filter the entries; paging predicates are not supported.
+     * @param <R>        the type of the result.
+     * @return the result of the aggregation.
+     * @see #aggregate(Aggregator)
+     */
+    <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate);
+
+    /**
+     * Applies the projection logic on all map entries and returns the result.
+     * <p/>
+     * The projection is applied on the member owning the entry, so only the projected part of a value is sent to the
+     * caller. A predefined set of projections can be found in {@link com.hazelcast.projection.Projections}.
+     *
+     * @param projection the projection.
+     * @param <R>        the type of the projected value.
+     * @return the projected values; duplicates are not removed.
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection);
+
+    /**
+     * Applies the projection logic on the map entries matching the predicate and returns the result.
+     *
+     * @param projection the projection.
+     * @param predicate  the predicate to filter the entries; paging predicates are not supported.
+     * @param <R>        the type of the projected value.
+     * @return the projected values; duplicates are not removed.
+     * @see #project(Projection)
+     */
+    <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate);
+
+    /**
+     * Returns an iterator over the map entries matching the predicate that streams the result in chunks.
+     * <p/>
+     * Unlike {@link #entrySet(Predicate)}, the result is not materialized: the partitions are queried one by one and
+     * the iterator pulls at most <code>fetchSize</code> entries at a time, only when they are consumed. So large results
+     * can be iterated with bounded memory on the members and the caller. The iteration is weakly consistent; entries
+     * that are modified or migrated during the iteration may be missed or returned twice.
+     *
+     * @param fetchSize the number of entries to fetch at once.
+     * @param predicate the predicate to filter the entries; paging predicates are not supported.
+     * @return the iterator; it doesn't support {@link Iterator#remove()}.
+     */
+    Iterator<Map.Entry<K, V>> iterator(int fetchSize, Predicate predicate);
+
+    /**
+     * Returns an iterator over the projections of the map entries matching the predicate that streams the result in
+     * chunks. The projection is applied on the member owning the entry.
+     *
+     * @param fetchSize  the number of entries to fetch at once.
+     * @param projection the projection.
+     * @param predicate  the predicate to filter the entries; paging predicates are not supported.
+     * @param <R>        the type of the projected value.
+     * @return the iterator; it doesn't support {@link Iterator#remove()}.
+     * @see #iterator(int, Predicate)
+     * @see #project(Projection, Predicate)
+     */
+    <R> Iterator<R> iterator(int fetchSize, Projection<Map.Entry<K, V>, R> projection, Predicate predicate);
+
+    /**
+     * Returns the query cache with the given name. If it doesn't exist yet, it is created from the
+     * {@link com.hazelcast.config.QueryCacheConfig} with that name.
+     *
+     * @param name the name of the query cache.
+     * @return the query cache or <code>null</code> if it doesn't exist and no predicate is configured for it.
+     * @throws UnsupportedOperationException if this map is a proxy of the old (non-binary protocol) client; query caches
+     *                                       are only supported by members and the new client.
+     * @see QueryCache
+     */
+    QueryCache<K, V> getQueryCache(String name);
+
+    /**
+     * Returns the query cache with the given name, creating it if it doesn't exist yet.
+     * <p/>
+     * A query cache is a local, continuously updated view of the map entries matching the predicate. The members
+     * send the changes of the matching entries in batches; missed changes are detected and the cache recovers by
+     * repopulating itself. A configured {@link com.hazelcast.config.QueryCacheConfig} with the same name provides the
+     * remaining settings.
+     *
+     * @param name         the name of the query cache.
+     * @param predicate    the predicate the cached entries match.
+     * @param includeValue <code>true</code> to cache values, <code>false</code> to only cache keys.
+     * @return the query cache; an existing query cache is returned as is.
+     * @throws UnsupportedOperationException if this map is a proxy of the old (non-binary protocol) client; query caches
+     *                                       are only supported by members and the new client.
+     * @see QueryCache
+     */
+    QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue);
+
+    /**
+     * Returns the query cache with the given name, creating it if it doesn't exist yet. The listener is registered
+     * before the query cache is populated, so it is notified of every entry added to the cache.
+     *
+     * @param name         the name of the query cache.
+     * @param listener     the listener to register on the query cache.
+     * @param predicate    the predicate the cached entries match.
+     * @param includeValue <code>true</code> to cache values, <code>false</code> to only cache keys.
+     * @return the query cache; an existing query cache is returned as is.
+     * @throws UnsupportedOperationException if this map is a proxy of the old (non-binary protocol) client; query caches
+     *                                       are only supported by members and the new client.
+     * @see #getQueryCache(String, Predicate, boolean)
+     */
+    QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate, boolean includeValue);
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+/**
+ * Provides segmented initial loading for the implementing MapLoader class.
+ * The keys of a MapLoader implementing MapLoaderSegmentSupport are split
+ * into independent segments, for example key ranges or table shards, and
+ * instead of iterating {@link MapLoader#loadAllKeys()} on a single member,
+ * Hazelcast spreads the segments over the cluster members so every member
+ * loads its share of the keys and their values concurrently.
+ * <p/>
+ * The number of segments a member loads at the same time is set by the
+ * <code>hazelcast.map.load.key.segment.parallelism</code> property.
+ *
+ * @param <K> type of the keys
+ */
+public interface MapLoaderSegmentSupport<K> {
+
+    /**
+     * Returns the number of key segments. Hazelcast calls this method once
+     * per initial load on the member coordinating the load. A segment count
+     * of 0 or less disables segmented loading and the keys are loaded with
+     * {@link MapLoader#loadAllKeys()} instead.
+     *
+     * @return the number of key segments
+     */
+    int getKeySegmentCount();
+
+    /**
+     * Loads the keys of the given segment. Every key must belong to exactly
+     * one segment. The returned {@link Iterable} may return the keys lazily
+     * and its {@link java.util.Iterator} may implement {@link java.io.Closeable},
+     * in which case it will be closed once iteration is over.
+     *
+     * @param segment the segment, from 0 (inclusive) to {@link #getKeySegmentCount()} (exclusive)
+     * @return the keys of the segment
+     */
+    Iterable<K> loadAllKeys(int segment);
+}
@@ -22,7 +22,11 @@ import com.hazelcast.nio.NodeIOService;
 import com.hazelcast.nio.tcp.IOThreadingModel;
 import com.hazelcast.nio.tcp.TcpIpConnectionManager;
 import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadingModel;
+import com.hazelcast.nio.tcp.nonblocking.ThreadPerCoreIOThreadingModel;
 import com.hazelcast.nio.tcp.spinning.SpinningIOThreadingModel;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
+import com.hazelcast.spi.impl.operationexecutor.threadpercore.ThreadPerCoreOperationExecutor;
+import com.hazelcast.spi.impl.operationservice.impl.OperationServiceImpl;
 
 import java.nio.channels.ServerSocketChannel;
 
@@ -52,6 +56,16 @@ public class DefaultNodeContext implements NodeContext {
     }
 
     private IOThreadingModel createTcpIpConnectionThreadingModel(Node node, NodeIOService ioService) {
+        OperationServiceImpl operationService = (OperationServiceImpl) node.nodeEngine.getOperationService();
+        OperationExecutor operationExecutor = operationService.getOperationExecutor();
+        if (operationExecutor instanceof ThreadPerCoreOperationExecutor) {
+            // the io threads are provided by the operation executor
+            return new ThreadPerCoreIOThreadingModel(
+                    node.loggingService,
+                    node.nodeEngine.getMetricsRegistry(),
+                    ((ThreadPerCoreOperationExecutor) operationExecutor).getCoreThreads());
+        }
+
         boolean spinning = Boolean.getBoolean("hazelcast.io.spinning");
         if (spinning) {
             return new SpinningIOThreadingModel(
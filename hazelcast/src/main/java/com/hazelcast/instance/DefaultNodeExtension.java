@@ -21,11 +21,13 @@ import com.hazelcast.cache.impl.ICacheService;
 import com.hazelcast.client.impl.protocol.MessageTaskFactory;
 import com.hazelcast.client.impl.protocol.MessageTaskFactoryImpl;
 import com.hazelcast.config.Config;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.internal.storage.DataRef;
 import com.hazelcast.internal.storage.Storage;
+import com.hazelcast.internal.storage.impl.NativeStorage;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.memory.DefaultMemoryStats;
@@ -59,13 +61,21 @@ public class DefaultNodeExtension implements NodeExtension {
     protected volatile ILogger logger;
     protected volatile ILogger systemLogger;
 
-    private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private volatile MemoryStats memoryStats = new DefaultMemoryStats();
+    private volatile NativeStorage nativeStorage;
 
     @Override
     public void beforeStart(Node node) {
         this.node = node;
         logger = node.getLogger(NodeExtension.class);
         systemLogger = node.getLogger("com.hazelcast.system");
+
+        NativeMemoryConfig nativeMemoryConfig = node.getConfig().getNativeMemoryConfig();
+        if (nativeMemoryConfig.isEnabled()) {
+            logger.info("Native memory is enabled: " + nativeMemoryConfig);
+            nativeStorage = new NativeStorage(nativeMemoryConfig);
+            memoryStats = nativeStorage.getMemoryStats();
+        }
     }
 
     @Override
@@ -94,7 +104,12 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public Storage<DataRef> getNativeDataStorage() {
-        throw new UnsupportedOperationException("Native memory feature is only available on Hazelcast Enterprise!");
+        NativeStorage storage = nativeStorage;
+        if (storage == null) {
+            throw new UnsupportedOperationException("Native memory is not enabled! "
+                    + "Please enable it using Config.getNativeMemoryConfig().setEnabled(true)");
+        }
+        return storage;
     }
 
     public SerializationService createSerializationService() {
@@ -192,6 +207,11 @@ public class DefaultNodeExtension implements NodeExtension {
     @Override
     public void destroy() {
         logger.info("Destroying node NodeExtension.");
+        NativeStorage storage = nativeStorage;
+        if (storage != null) {
+            nativeStorage = null;
+            storage.destroy();
+        }
     }
 
     @Override
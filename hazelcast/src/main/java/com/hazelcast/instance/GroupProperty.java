@@ -21,13 +21,16 @@ import com.hazelcast.internal.metrics.ProbeLevel;
 import com.hazelcast.internal.monitors.HealthMonitorLevel;
 import com.hazelcast.map.QueryResultSizeExceededException;
 import com.hazelcast.map.impl.query.QueryResultSizeLimiter;
+import com.hazelcast.map.impl.recordstore.RecordMapFactory;
 import com.hazelcast.query.TruePredicate;
 import com.hazelcast.query.impl.predicates.QueryOptimizerFactory;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutorFactory;
 
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.util.Preconditions.checkHasText;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -76,6 +79,29 @@ public enum GroupProperty implements HazelcastProperty {
      */
     GENERIC_OPERATION_THREAD_COUNT("hazelcast.operation.generic.thread.count", -1),
 
+    /**
+     * The type of OperationExecutor. Possible values are:
+     * <ul>
+     * <li>CLASSIC: io threads hand off the operations to partition operation threads</li>
+     * <li>THREAD_PER_CORE: experimental; every core gets a single thread that does the io for its connections and executes
+     * the operations of its partitions. The number of threads is configured with
+     * {@link #PARTITION_OPERATION_THREAD_COUNT}.</li>
+     * </ul>
+     * The default is CLASSIC.
+     */
+    OPERATION_EXECUTOR_TYPE("hazelcast.operation.executor.type", OperationExecutorFactory.Type.CLASSIC.toString()),
+
+    /**
+     * The maximum number of tasks an operation thread processes every time it is woken up.
+     * <p/>
+     * If larger than 1, the backups and responses send by the operations of a batch are coalesced per target member and
+     * written as a single packet when the batch completes. This reduces the number of packets and system calls under a
+     * high load, at the cost of a slightly higher latency of the individual operations in the batch.
+     * <p/>
+     * The default is 1, which means that batching is disabled.
+     */
+    OPERATION_BATCH_SIZE("hazelcast.operation.batch.size", 1),
+
     /**
      * The number of threads that the client engine has available for processing requests that are not partition specific.
      * Most of the requests, such as map.put and map.get, are partition specific and will use a partition-operation-thread, but
@@ -188,6 +214,13 @@ public enum GroupProperty implements HazelcastProperty {
 
     MAP_LOAD_CHUNK_SIZE("hazelcast.map.load.chunk.size", 1000),
 
+    /**
+     * Maximum number of key segments of a {@link com.hazelcast.core.MapLoaderSegmentSupport} loader that a member loads
+     * concurrently during the initial load of a map. The keys of each segment are sent to their partitions in batches of
+     * {@link #MAP_LOAD_CHUNK_SIZE} keys per partition.
+     */
+    MAP_LOAD_KEY_SEGMENT_PARALLELISM("hazelcast.map.load.key.segment.parallelism", 4),
+
     MERGE_FIRST_RUN_DELAY_SECONDS("hazelcast.merge.first.run.delay.seconds", 300, SECONDS),
     MERGE_NEXT_RUN_DELAY_SECONDS("hazelcast.merge.next.run.delay.seconds", 120, SECONDS),
 
@@ -236,6 +269,33 @@ public enum GroupProperty implements HazelcastProperty {
      */
     SOCKET_CLIENT_SEND_BUFFER_SIZE("hazelcast.socket.client.send.buffer.size", -1),
 
+    /**
+     * The minimum size of a packet payload before it is written using a gathering write, instead of being copied into the
+     * send buffer of the connection first. This prevents copying large payloads.
+     * <p/>
+     * Size is in kilobytes. A value smaller than 1 disables gathering writes.
+     * <p/>
+     * Gathering writes are only done for member to member connections and only if the socket channel supports them;
+     * e.g. an encrypting socket channel doesn't.
+     */
+    SOCKET_GATHERING_WRITE_THRESHOLD("hazelcast.socket.gathering.write.threshold", 16),
+
+    /**
+     * The maximum time a socket writer waits for more frames before it writes a partially filled send buffer to the
+     * socket. Coalescing frames reduces the number of socket writes and selector wakeups when many small frames are
+     * written.
+     * <p/>
+     * A writer only waits if its previous write contained more than a single frame, so under low load there is no
+     * additional latency. The value is in microseconds; 0 disables write coalescing.
+     */
+    SOCKET_WRITE_COALESCE_MICROS("hazelcast.socket.write.coalesce.micros", 0, MICROSECONDS),
+
+    /**
+     * The number of bytes in the send buffer of a socket writer after which it writes to the socket without waiting
+     * for more frames. See {@link #SOCKET_WRITE_COALESCE_MICROS}.
+     */
+    SOCKET_WRITE_COALESCE_BYTES("hazelcast.socket.write.coalesce.bytes", 16384),
+
     SOCKET_LINGER_SECONDS("hazelcast.socket.linger.seconds", 0, SECONDS),
     SOCKET_CONNECT_TIMEOUT_SECONDS("hazelcast.socket.connect.timeout.seconds", 0, SECONDS),
     SOCKET_KEEP_ALIVE("hazelcast.socket.keep.alive", true),
@@ -280,6 +340,59 @@ public enum GroupProperty implements HazelcastProperty {
      */
     MAP_EXPIRY_DELAY_SECONDS("hazelcast.map.expiry.delay.seconds", 10, SECONDS),
 
+    /**
+     * Maximum number of near cache invalidations of a map which are buffered on a member before they are sent
+     * as a single batch to the other members and to the near cache invalidation listeners of clients.
+     * Setting it to 1 sends every invalidation on its own.
+     */
+    MAP_INVALIDATION_MESSAGE_BATCH_SIZE("hazelcast.map.invalidation.batch.size", 100),
+
+    /**
+     * Maximum time near cache invalidations wait in a partially filled batch before they are sent.
+     * <p>
+     * Until its invalidation arrives, the near caches of the other members and of clients keep returning the old
+     * value of an updated entry. With the defaults, a near cache may therefore serve a stale value for up to one
+     * second after an update made under a low load. Set {@link #MAP_INVALIDATION_MESSAGE_BATCH_SIZE} to 1 to send
+     * every invalidation immediately.
+     */
+    MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS("hazelcast.map.invalidation.batchfrequency.seconds", 1, SECONDS),
+
+    /**
+     * Type of the map holding the records of a map partition.
+     * Valid Values:
+     * <ul>
+     *     <li>CONCURRENT_HASH_MAP - a concurrent hash map with concurrency level 1</li>
+     *     <li>OPEN_ADDRESSING - a single-writer open addressing hash map with a lower memory overhead per entry</li>
+     * </ul>
+     *
+     * Values are case sensitive
+     */
+    MAP_RECORD_MAP_TYPE("hazelcast.map.record.map.type", RecordMapFactory.Type.CONCURRENT_HASH_MAP.toString()),
+
+    /**
+     * Enables hot restart persistence of maps: every member keeps an append-only log of the mutations of each map
+     * partition replica it holds on local disk and restores the replicas from it after a restart. Maps with
+     * NATIVE in-memory format are not persisted.
+     */
+    MAP_HOT_RESTART_ENABLED("hazelcast.map.hot.restart.enabled", false),
+
+    /**
+     * Base directory of the hot restart logs. Each member uses a sub directory named after its address, so a member
+     * has to restart with the same address to find its logs again.
+     */
+    MAP_HOT_RESTART_BASE_DIR("hazelcast.map.hot.restart.base.dir", "hot-restart"),
+
+    /**
+     * Interval of forcing the hot restart logs to disk. When 0, every mutation is forced to disk before the
+     * operation completes; otherwise the mutations of the last interval may be lost if the machine crashes.
+     */
+    MAP_HOT_RESTART_FSYNC_INTERVAL_MILLIS("hazelcast.map.hot.restart.fsync.interval.millis", 1000, MILLISECONDS),
+
+    /**
+     * Percentage of superseded entries in a hot restart log above which the log is compacted in the background.
+     */
+    MAP_HOT_RESTART_COMPACTION_GARBAGE_PERCENTAGE("hazelcast.map.hot.restart.compaction.garbage.percentage", 50),
+
     LOGGING_TYPE("hazelcast.logging.type", "jdk"),
 
     ENABLE_JMX("hazelcast.jmx", false),
@@ -296,9 +409,39 @@ public enum GroupProperty implements HazelcastProperty {
     PARTITION_MIGRATION_TIMEOUT("hazelcast.partition.migration.timeout", 300, SECONDS),
     PARTITION_MIGRATION_ZIP_ENABLED("hazelcast.partition.migration.zip.enabled", true),
 
+    /**
+     * The maximum number of records copied per service in a single migration chunk. Partitions are copied chunk by
+     * chunk while they keep serving operations; only the changes made meanwhile are sent when the partition is
+     * finally handed over. When set to 0 (the default), partitions are migrated with a single operation.
+     * <p>
+     * The master waits for a chunked migration with a single {@link #PARTITION_MIGRATION_TIMEOUT}, so the timeout
+     * has to cover copying all chunks of a partition, including the {@link #PARTITION_MIGRATION_CHUNK_INTERVAL_MILLIS}
+     * pauses between them.
+     */
+    PARTITION_MIGRATION_CHUNK_SIZE("hazelcast.partition.migration.chunk.size", 0),
+
+    /**
+     * The pause between two chunks of a migrating partition, used to throttle migrations. Only used when
+     * {@link #PARTITION_MIGRATION_CHUNK_SIZE} is positive.
+     */
+    PARTITION_MIGRATION_CHUNK_INTERVAL_MILLIS("hazelcast.partition.migration.chunk.interval.millis", 0, MILLISECONDS),
+
     PARTITION_TABLE_SEND_INTERVAL("hazelcast.partition.table.send.interval", 15, SECONDS),
     PARTITION_BACKUP_SYNC_INTERVAL("hazelcast.partition.backup.sync.interval", 30, SECONDS),
     PARTITION_MAX_PARALLEL_REPLICATIONS("hazelcast.partition.max.parallel.replications", 5),
+
+    /**
+     * The maximum number of partition migrations the master runs in parallel. When set to 1 (the default),
+     * migrations are executed one at a time by the migration thread.
+     */
+    PARTITION_MAX_PARALLEL_MIGRATIONS("hazelcast.partition.max.parallel.migrations", 1),
+
+    /**
+     * The maximum number of parallel migrations a single member takes part in, either as source or as destination.
+     * Only the number of concurrent migrations is limited, not the bandwidth or CPU time they take. Only used when
+     * {@link #PARTITION_MAX_PARALLEL_MIGRATIONS} is greater than 1.
+     */
+    PARTITION_MAX_PARALLEL_MIGRATIONS_PER_MEMBER("hazelcast.partition.max.parallel.migrations.per.member", 2),
     PARTITIONING_STRATEGY_CLASS("hazelcast.partitioning.strategy.class", ""),
 
     GRACEFUL_SHUTDOWN_MAX_WAIT("hazelcast.graceful.shutdown.max.wait", 600, SECONDS),
@@ -371,6 +514,40 @@ public enum GroupProperty implements HazelcastProperty {
      */
     MAP_WRITE_BEHIND_QUEUE_CAPACITY("hazelcast.map.write.behind.queue.capacity", 50000),
 
+    /**
+     * The per node maximum number of bytes the entries of all write-behind queues, including backups, may occupy on the
+     * heap. Unlike {@link #MAP_WRITE_BEHIND_QUEUE_CAPACITY}, it applies to write-coalescing map stores as well. When it is
+     * exceeded, updates of write-behind maps fail with a {@link com.hazelcast.map.ReachedMaxSizeException}.
+     * <p/>
+     * Only maps with the {@link com.hazelcast.config.InMemoryFormat#BINARY} in-memory format are bounded and counted, since
+     * the heap cost of their queued keys and values is known from their serialized form.
+     * <p/>
+     * The default value 0 means no limit.
+     */
+    MAP_WRITE_BEHIND_QUEUE_MAX_BYTES("hazelcast.map.write.behind.queue.max.bytes", 0),
+
+    /**
+     * Maximum number of threads which store the write-behind entries of a map concurrently. The owned partitions are
+     * split into this many groups and every group is stored by its own thread.
+     */
+    MAP_WRITE_BEHIND_STORE_CONCURRENCY("hazelcast.map.write.behind.store.concurrency", 1),
+
+    /**
+     * Target latency of a {@link com.hazelcast.core.MapStore#storeAll(java.util.Map)} or
+     * {@link com.hazelcast.core.MapStore#deleteAll(java.util.Collection)} call of a write-behind map store. When it is
+     * set, the write batch size is halved when a call takes longer and is grown back towards the configured
+     * {@link com.hazelcast.config.MapStoreConfig#getWriteBatchSize()} while calls take less than half of it.
+     * <p/>
+     * The default value 0 keeps the configured write batch size.
+     */
+    MAP_WRITE_BEHIND_BATCH_TARGET_LATENCY_MILLIS("hazelcast.map.write.behind.batch.target.latency.millis", 0, MILLISECONDS),
+
+    /**
+     * Maximum delay between two attempts to store the write-behind entries of a map after the map store failed.
+     * The delay starts at one second and doubles with every failed attempt until this maximum.
+     */
+    MAP_WRITE_BEHIND_MAX_BACKOFF_MILLIS("hazelcast.map.write.behind.max.backoff.millis", 60000, MILLISECONDS),
+
     /**
      * Defines the event queue capacity for WAN replication.
      * <p/>
@@ -20,5 +20,10 @@ public interface DataRef {
 
     int size();
 
+    /**
+     * @return the number of bytes the storage reserved for the data; can be more than {@link #size()}.
+     */
+    int blockSize();
+
     int heapCost();
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+/**
+ * Allocates and frees blocks of native memory.
+ *
+ * Implementations are not required to be thread-safe; the caller is responsible for the synchronization.
+ */
+interface MemoryAllocator {
+
+    /**
+     * Allocates a block of native memory.
+     *
+     * @param size the requested size in bytes.
+     * @return the address of the block.
+     * @throws com.hazelcast.memory.NativeOutOfMemoryError if the memory limit has been reached.
+     */
+    long allocate(long size);
+
+    /**
+     * Frees a block of native memory.
+     *
+     * @param address the address of the block.
+     * @param size    the size of the block as it was passed to {@link #allocate(long)}.
+     */
+    void free(long address, long size);
+
+    /**
+     * Returns the number of bytes that is actually reserved when a block of the given size is allocated.
+     *
+     * @param size the requested size in bytes.
+     * @return the reserved size in bytes.
+     */
+    long blockSize(long size);
+
+    /**
+     * Releases all the memory this allocator obtained from the OS.
+     */
+    void dispose();
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+import com.hazelcast.internal.storage.DataRef;
+
+/**
+ * {@link DataRef} pointing to the bytes of a {@link com.hazelcast.nio.serialization.Data} in native memory.
+ */
+final class NativeDataRef implements DataRef {
+
+    // object header + address + size + block size + freed
+    private static final int HEAP_COST = 12 + 8 + 4 + 4 + 1;
+
+    final long address;
+    private final int size;
+    private final int blockSize;
+    // guarded by the lock of the stripe the block was allocated from
+    boolean freed;
+
+    NativeDataRef(long address, int size, int blockSize) {
+        this.address = address;
+        this.size = size;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public int heapCost() {
+        return HEAP_COST;
+    }
+
+    @Override
+    public String toString() {
+        return "NativeDataRef{address=" + address + ", size=" + size + '}';
+    }
+}
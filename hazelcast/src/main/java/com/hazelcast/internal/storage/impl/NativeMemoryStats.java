@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+import com.hazelcast.memory.DefaultMemoryStats;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link com.hazelcast.memory.MemoryStats} that, next to the JVM statistics, keeps track of the native memory
+ * that is committed (obtained from the OS) and used (handed out to store data).
+ */
+public class NativeMemoryStats extends DefaultMemoryStats {
+
+    private final long maxNative;
+    private final AtomicLong committedNative = new AtomicLong();
+    private final AtomicLong usedNative = new AtomicLong();
+
+    public NativeMemoryStats(long maxNative) {
+        this.maxNative = maxNative;
+    }
+
+    void checkAndAddCommittedNative(long size) {
+        for (; ; ) {
+            long current = committedNative.get();
+            long update = current + size;
+            if (update > maxNative) {
+                throw new NativeOutOfMemoryError("Not enough native memory to allocate " + size + " bytes! Max: "
+                        + MemorySize.toPrettyString(maxNative) + ", committed: " + MemorySize.toPrettyString(current));
+            }
+            if (committedNative.compareAndSet(current, update)) {
+                return;
+            }
+        }
+    }
+
+    void removeCommittedNative(long size) {
+        committedNative.addAndGet(-size);
+    }
+
+    void addUsedNative(long size) {
+        usedNative.addAndGet(size);
+    }
+
+    void removeUsedNative(long size) {
+        usedNative.addAndGet(-size);
+    }
+
+    @Override
+    public long getMaxNativeMemory() {
+        return maxNative;
+    }
+
+    @Override
+    public long getCommittedNativeMemory() {
+        return committedNative.get();
+    }
+
+    @Override
+    public long getUsedNativeMemory() {
+        return usedNative.get();
+    }
+
+    @Override
+    public long getFreeNativeMemory() {
+        return maxNative - usedNative.get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("MemoryStats {");
+        sb.append("Total Physical: ").append(MemorySize.toPrettyString(getTotalPhysical()));
+        sb.append(", Free Physical: ").append(MemorySize.toPrettyString(getFreePhysical()));
+        sb.append(", Max Heap: ").append(MemorySize.toPrettyString(getMaxHeap()));
+        sb.append(", Committed Heap: ").append(MemorySize.toPrettyString(getCommittedHeap()));
+        sb.append(", Used Heap: ").append(MemorySize.toPrettyString(getUsedHeap()));
+        sb.append(", Free Heap: ").append(MemorySize.toPrettyString(getFreeHeap()));
+        sb.append(", Max Native Memory: ").append(MemorySize.toPrettyString(getMaxNativeMemory()));
+        sb.append(", Committed Native Memory: ").append(MemorySize.toPrettyString(getCommittedNativeMemory()));
+        sb.append(", Used Native Memory: ").append(MemorySize.toPrettyString(getUsedNativeMemory()));
+        sb.append(", Free Native Memory: ").append(MemorySize.toPrettyString(getFreeNativeMemory()));
+        sb.append(", ");
+        sb.append(getGCStats());
+        sb.append('}');
+        return sb.toString();
+    }
+}
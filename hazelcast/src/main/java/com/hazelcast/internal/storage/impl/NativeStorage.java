@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.internal.storage.Storage;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.QuickMath;
+
+import static com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType.POOLED;
+import static com.hazelcast.nio.UnsafeHelper.BYTE_ARRAY_BASE_OFFSET;
+import static com.hazelcast.nio.UnsafeHelper.MEM_COPY_THRESHOLD;
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE_AVAILABLE;
+
+/**
+ * {@link Storage} that stores the bytes of a {@link Data} in native memory obtained through {@link sun.misc.Unsafe},
+ * so the values don't need to be scanned by the garbage collector.
+ *
+ * To reduce contention the storage is split up in stripes; each stripe has its own {@link MemoryAllocator} and the
+ * stripe is selected based on the hash passed to {@link #put(int, Data)}. So the same hash needs to be passed when
+ * the ref is read or removed. The memory limit is shared between all stripes.
+ *
+ * A {@link DataRef} should only be removed by the thread that owns it (normally the partition thread), but it may be
+ * read concurrently, e.g. by query threads. Reads hold the lock of the stripe so that the block can't be freed while
+ * it is copied; reading a ref after it has been removed, or after the storage has been destroyed, returns {@code null}.
+ *
+ * The used native memory is counted by the size of the blocks that are taken, not by the size of the data.
+ */
+public final class NativeStorage implements Storage<DataRef> {
+
+    private final NativeMemoryStats memoryStats;
+    private final MemoryAllocator pageAllocator;
+    private final MemoryAllocator[] stripes;
+    private final int stripeMask;
+    // written before the stripes are disposed; read while holding the lock of a stripe
+    private volatile boolean destroyed;
+
+    public NativeStorage(NativeMemoryConfig config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    public NativeStorage(NativeMemoryConfig config, int concurrencyLevel) {
+        if (!UNSAFE_AVAILABLE) {
+            throw new IllegalStateException("Native memory requires sun.misc.Unsafe, but it isn't available!");
+        }
+
+        this.memoryStats = new NativeMemoryStats(config.getSize().bytes());
+        this.pageAllocator = new StandardMemoryAllocator(memoryStats);
+
+        int stripeCount = QuickMath.nextPowerOfTwo(Math.max(concurrencyLevel, 1));
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new MemoryAllocator[stripeCount];
+        for (int k = 0; k < stripeCount; k++) {
+            stripes[k] = config.getAllocatorType() == POOLED
+                    ? new PooledMemoryAllocator(pageAllocator, config.getMinBlockSize(), config.getPageSize())
+                    : new StandardMemoryAllocator(memoryStats);
+        }
+    }
+
+    public NativeMemoryStats getMemoryStats() {
+        return memoryStats;
+    }
+
+    @Override
+    public DataRef put(int hash, Data data) {
+        byte[] bytes = data.toByteArray();
+        int size = bytes == null ? 0 : bytes.length;
+
+        MemoryAllocator allocator = stripe(hash);
+        int blockSize = (int) allocator.blockSize(size);
+        long address;
+        synchronized (allocator) {
+            if (destroyed) {
+                throw new IllegalStateException("NativeStorage has been destroyed!");
+            }
+            address = allocator.allocate(size);
+            // copied under the lock, so the block can't be disposed by a concurrent destroy
+            copy(bytes, BYTE_ARRAY_BASE_OFFSET, null, address, size);
+        }
+        memoryStats.addUsedNative(blockSize);
+        return new NativeDataRef(address, size, blockSize);
+    }
+
+    @Override
+    public Data get(int hash, DataRef ref) {
+        NativeDataRef nativeRef = (NativeDataRef) ref;
+        byte[] bytes = new byte[nativeRef.size()];
+        synchronized (stripe(hash)) {
+            if (nativeRef.freed || destroyed) {
+                return null;
+            }
+            copy(null, nativeRef.address, bytes, BYTE_ARRAY_BASE_OFFSET, bytes.length);
+        }
+        return new HeapData(bytes);
+    }
+
+    @Override
+    public void remove(int hash, DataRef ref) {
+        NativeDataRef nativeRef = (NativeDataRef) ref;
+        MemoryAllocator allocator = stripe(hash);
+        synchronized (allocator) {
+            if (nativeRef.freed || destroyed) {
+                return;
+            }
+            nativeRef.freed = true;
+            allocator.free(nativeRef.address, nativeRef.size());
+        }
+        memoryStats.removeUsedNative(nativeRef.blockSize());
+    }
+
+    /**
+     * Releases all native memory of this storage. The outstanding refs become invalid: reading them returns
+     * {@code null} and removing them is ignored.
+     */
+    @Override
+    public void destroy() {
+        destroyed = true;
+        for (MemoryAllocator allocator : stripes) {
+            synchronized (allocator) {
+                allocator.dispose();
+            }
+        }
+        // blocks bigger than a page are taken from the page allocator directly
+        pageAllocator.dispose();
+    }
+
+    private MemoryAllocator stripe(int hash) {
+        return stripes[hash & stripeMask];
+    }
+
+    // copies in chunks so that a large copy doesn't delay a safepoint for too long.
+    private static void copy(Object src, long srcOffset, Object dst, long dstOffset, long length) {
+        long remaining = length;
+        while (remaining > 0) {
+            long chunk = remaining > MEM_COPY_THRESHOLD ? MEM_COPY_THRESHOLD : remaining;
+            UNSAFE.copyMemory(src, srcOffset, dst, dstOffset, chunk);
+            remaining -= chunk;
+            srcOffset += chunk;
+            dstOffset += chunk;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+import com.hazelcast.util.QuickMath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+
+/**
+ * Slab based {@link MemoryAllocator}.
+ *
+ * Memory is obtained from the page allocator in pages of a fixed size. Each page is carved into equally sized blocks
+ * of one of the size classes; the size classes are the powers of two between the minimum block size and the page size.
+ * Free blocks are linked together using the first 8 bytes of the block itself, so allocating and freeing a block
+ * doesn't cause any litter and doesn't need any bookkeeping outside of the native memory.
+ *
+ * Requests larger than the page size are passed directly to the page allocator.
+ *
+ * Pages are never returned to the page allocator before {@link #dispose()} is called.
+ *
+ * This allocator is not thread-safe.
+ */
+class PooledMemoryAllocator implements MemoryAllocator {
+
+    private static final long NULL_ADDRESS = 0;
+
+    private final MemoryAllocator pageAllocator;
+    private final int minBlockSizePower;
+    private final int pageSize;
+    private final long[] freeListHeads;
+    private final List<Long> pages = new ArrayList<Long>();
+
+    PooledMemoryAllocator(MemoryAllocator pageAllocator, int minBlockSize, int pageSize) {
+        int normalizedMinBlockSize = QuickMath.nextPowerOfTwo(Math.max(minBlockSize, LONG_SIZE_IN_BYTES));
+        int normalizedPageSize = QuickMath.nextPowerOfTwo(pageSize);
+        if (normalizedPageSize < normalizedMinBlockSize) {
+            throw new IllegalArgumentException("Page size: " + pageSize
+                    + " should not be smaller than min block size: " + minBlockSize);
+        }
+
+        this.pageAllocator = pageAllocator;
+        this.pageSize = normalizedPageSize;
+        this.minBlockSizePower = QuickMath.log2(normalizedMinBlockSize);
+        int sizeClassCount = QuickMath.log2(normalizedPageSize) - minBlockSizePower + 1;
+        this.freeListHeads = new long[sizeClassCount];
+    }
+
+    @Override
+    public long allocate(long size) {
+        if (size > pageSize) {
+            return pageAllocator.allocate(size);
+        }
+
+        int sizeClass = sizeClass(size);
+        long address = freeListHeads[sizeClass];
+        if (address == NULL_ADDRESS) {
+            address = newPage(sizeClass);
+        }
+        freeListHeads[sizeClass] = UNSAFE.getLong(address);
+        return address;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        if (size > pageSize) {
+            pageAllocator.free(address, size);
+            return;
+        }
+
+        int sizeClass = sizeClass(size);
+        UNSAFE.putLong(address, freeListHeads[sizeClass]);
+        freeListHeads[sizeClass] = address;
+    }
+
+    @Override
+    public long blockSize(long size) {
+        if (size > pageSize) {
+            return size;
+        }
+        return 1L << (sizeClass(size) + minBlockSizePower);
+    }
+
+    private int sizeClass(long size) {
+        int power = size <= 1 ? 0 : QuickMath.log2(size - 1) + 1;
+        return Math.max(power - minBlockSizePower, 0);
+    }
+
+    private long newPage(int sizeClass) {
+        long page = pageAllocator.allocate(pageSize);
+        pages.add(page);
+
+        // links all blocks of the page into the free list; the last block points to the current head (which is null).
+        long blockSize = 1L << (sizeClass + minBlockSizePower);
+        long next = freeListHeads[sizeClass];
+        for (long block = page + pageSize - blockSize; block >= page; block -= blockSize) {
+            UNSAFE.putLong(block, next);
+            next = block;
+        }
+        return page;
+    }
+
+    @Override
+    public void dispose() {
+        for (Long page : pages) {
+            pageAllocator.free(page, pageSize);
+        }
+        pages.clear();
+        for (int k = 0; k < freeListHeads.length; k++) {
+            freeListHeads[k] = NULL_ADDRESS;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.nio.UnsafeHelper.UNSAFE;
+
+/**
+ * {@link MemoryAllocator} that directly asks the OS for every block using {@link sun.misc.Unsafe#allocateMemory(long)}.
+ *
+ * The allocated blocks are tracked, so that the blocks that are still in use are released on {@link #dispose()}.
+ *
+ * This allocator is thread-safe.
+ */
+class StandardMemoryAllocator implements MemoryAllocator {
+
+    private final NativeMemoryStats memoryStats;
+    // address -> size of the blocks that have not been freed yet
+    private final ConcurrentMap<Long, Long> blocks = new ConcurrentHashMap<Long, Long>();
+
+    StandardMemoryAllocator(NativeMemoryStats memoryStats) {
+        this.memoryStats = memoryStats;
+    }
+
+    @Override
+    public long allocate(long size) {
+        memoryStats.checkAndAddCommittedNative(size);
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            memoryStats.removeCommittedNative(size);
+            throw e;
+        }
+        blocks.put(address, size);
+        return address;
+    }
+
+    @Override
+    public void free(long address, long size) {
+        if (blocks.remove(address) == null) {
+            // already released by dispose
+            return;
+        }
+        UNSAFE.freeMemory(address);
+        memoryStats.removeCommittedNative(size);
+    }
+
+    @Override
+    public long blockSize(long size) {
+        return size;
+    }
+
+    @Override
+    public void dispose() {
+        for (Map.Entry<Long, Long> block : blocks.entrySet()) {
+            if (blocks.remove(block.getKey()) != null) {
+                UNSAFE.freeMemory(block.getKey());
+                memoryStats.removeCommittedNative(block.getValue());
+            }
+        }
+    }
+}
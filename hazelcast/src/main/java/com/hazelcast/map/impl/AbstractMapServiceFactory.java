@@ -19,7 +19,7 @@ package com.hazelcast.map.impl;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ManagedService;
-import com.hazelcast.spi.MigrationAwareService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.PartitionAwareService;
 import com.hazelcast.spi.PostJoinAwareService;
 import com.hazelcast.spi.QuorumAwareService;
@@ -48,12 +48,12 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
     abstract ManagedService createManagedService();
 
     /**
-     * Creates a new {@link MigrationAwareService} for {@link MapService}.
+     * Creates a new {@link ChunkedMigrationAwareService} for {@link MapService}.
      *
-     * @return Creates a new {@link MigrationAwareService} implementation.
-     * @see com.hazelcast.spi.MigrationAwareService
+     * @return Creates a new {@link ChunkedMigrationAwareService} implementation.
+     * @see com.hazelcast.spi.ChunkedMigrationAwareService
      */
-    abstract MigrationAwareService createMigrationAwareService();
+    abstract ChunkedMigrationAwareService createMigrationAwareService();
 
     /**
      * Creates a new {@link TransactionalService} for {@link MapService}.
@@ -147,7 +147,7 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
     public MapService createMapService() {
         MapServiceContext mapServiceContext = getMapServiceContext();
         ManagedService managedService = createManagedService();
-        MigrationAwareService migrationAwareService = createMigrationAwareService();
+        ChunkedMigrationAwareService migrationAwareService = createMigrationAwareService();
         TransactionalService transactionalService = createTransactionalService();
         RemoteService remoteService = createRemoteService();
         EventPublishingService eventPublishingService = createEventPublishingService();
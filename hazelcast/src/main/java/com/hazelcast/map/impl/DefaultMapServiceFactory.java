@@ -20,7 +20,7 @@ import com.hazelcast.map.impl.event.MapEventPublishingService;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ManagedService;
-import com.hazelcast.spi.MigrationAwareService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.PostJoinAwareService;
 import com.hazelcast.spi.QuorumAwareService;
 import com.hazelcast.spi.RemoteService;
@@ -55,7 +55,7 @@ class DefaultMapServiceFactory extends AbstractMapServiceFactory {
     }
 
     @Override
-    MigrationAwareService createMigrationAwareService() {
+    ChunkedMigrationAwareService createMigrationAwareService() {
         return new MapMigrationAwareService(mapServiceContext);
     }
 
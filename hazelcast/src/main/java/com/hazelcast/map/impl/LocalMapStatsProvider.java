@@ -262,7 +262,7 @@ public class LocalMapStatsProvider {
         }
         final NearCacheProvider nearCacheProvider = mapServiceContext.getNearCacheProvider();
         final NearCacheStatsImpl nearCacheStats = nearCacheProvider.getNearCache(mapContainer.getName()).getNearCacheStats();
-        final long nearCacheHeapCost = mapContainer.getNearCacheSizeEstimator().getSize();
+        final long nearCacheHeapCost = nearCacheStats.getOwnedEntryMemoryCost();
 
         localMapStats.setNearCacheStats(nearCacheStats);
         localMapOnDemandCalculatedStats.incrementHeapCost(nearCacheHeapCost);
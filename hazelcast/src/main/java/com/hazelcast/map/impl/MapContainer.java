@@ -47,7 +47,6 @@ import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateMaxIdleMillis
 import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateTTLMillis;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.pickTTL;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.setExpirationTime;
-import static com.hazelcast.map.impl.SizeEstimators.createNearCacheSizeEstimator;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
 
 /**
@@ -65,8 +64,6 @@ public class MapContainer {
 
     private final Indexes indexes = new Indexes();
 
-    private final SizeEstimator nearCacheSizeEstimator;
-
     private final PartitioningStrategy partitioningStrategy;
 
     private final MapStoreContext mapStoreContext;
@@ -105,7 +102,6 @@ public class MapContainer {
         initWanReplication(nodeEngine);
         interceptors = new CopyOnWriteArrayList<MapInterceptor>();
         interceptorMap = new ConcurrentHashMap<String, MapInterceptor>();
-        nearCacheSizeEstimator = createNearCacheSizeEstimator();
         mapStoreContext = createMapStoreContext(this);
         mapStoreContext.start();
     }
@@ -226,10 +222,6 @@ public class MapContainer {
         return partitioningStrategy;
     }
 
-    public SizeEstimator getNearCacheSizeEstimator() {
-        return nearCacheSizeEstimator;
-    }
-
     public RecordFactory getRecordFactory() {
         return recordFactory;
     }
@@ -21,7 +21,9 @@ import com.hazelcast.map.impl.operation.PutBackupOperation;
 import com.hazelcast.map.impl.operation.PutOperation;
 import com.hazelcast.map.impl.operation.RemoveBackupOperation;
 import com.hazelcast.map.impl.operation.RemoveOperation;
+import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.QueryResult;
+import com.hazelcast.map.impl.query.QueryResultChunk;
 import com.hazelcast.map.impl.query.QueryResultRow;
 import com.hazelcast.nio.serialization.DataSerializableFactory;
 import com.hazelcast.internal.serialization.DataSerializerHook;
@@ -54,8 +56,10 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int QUERY_RESULT_ROW = 13;
     public static final int QUERY_RESULT_SET = 14;
     public static final int QUERY_RESULT = 15;
+    public static final int AGGREGATION_RESULT = 16;
+    public static final int QUERY_RESULT_CHUNK = 17;
 
-    private static final int LEN = QUERY_RESULT + 1;
+    private static final int LEN = QUERY_RESULT_CHUNK + 1;
 
     @Override
     public int getFactoryId() {
@@ -132,6 +136,16 @@ public final class MapDataSerializerHook implements DataSerializerHook {
                 return new QueryResult();
             }
         };
+        constructors[AGGREGATION_RESULT] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new AggregationResult();
+            }
+        };
+        constructors[QUERY_RESULT_CHUNK] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new QueryResultChunk();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
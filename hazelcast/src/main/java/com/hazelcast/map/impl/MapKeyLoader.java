@@ -19,16 +19,18 @@ package com.hazelcast.map.impl;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.IFunction;
 import com.hazelcast.core.MapLoader;
+import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
-import com.hazelcast.map.impl.operation.LoadAllOperation;
+import com.hazelcast.map.impl.operation.LoadKeySegmentOperation;
 import com.hazelcast.map.impl.operation.LoadStatusOperation;
 import com.hazelcast.map.impl.operation.PartitionCheckIfLoadedOperation;
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.ExecutionService;
-import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
+import com.hazelcast.spi.exception.TargetNotMemberException;
 import com.hazelcast.spi.impl.AbstractCompletableFuture;
 import com.hazelcast.util.FutureUtil;
 import com.hazelcast.util.StateMachine;
@@ -36,11 +38,11 @@ import com.hazelcast.util.scheduler.CoalescingDelayedTrigger;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -49,6 +51,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static com.hazelcast.map.impl.MapKeyLoaderUtil.assignRole;
+import static com.hazelcast.map.impl.MapKeyLoaderUtil.sendBatch;
 import static com.hazelcast.map.impl.MapKeyLoaderUtil.toBatches;
 import static com.hazelcast.map.impl.MapKeyLoaderUtil.toPartition;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
@@ -59,12 +62,14 @@ import static com.hazelcast.util.IterableUtil.map;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * Loads keys from a {@link MapLoader} and sends them to all partitions for loading
+ * Loads keys from a {@link MapLoader} and sends them to all partitions for loading.
+ * If the loader implements {@link com.hazelcast.core.MapLoaderSegmentSupport}, the key segments are
+ * loaded by the owners of the partitions they are assigned to instead.
  */
 public class MapKeyLoader {
 
     private static final long LOADING_TRIGGER_DELAY = SECONDS.toMillis(5);
-    private static final long KEY_DISTRIBUTION_TIMEOUT_MINUTES = 15;
+    static final long KEY_DISTRIBUTION_TIMEOUT_MINUTES = 15;
 
     private String mapName;
     private OperationService opService;
@@ -243,10 +248,16 @@ public class MapKeyLoader {
         Throwable loadError = null;
 
         try {
+            int mapMaxSize = clusterSize * maxSizePerNode;
+            int segmentCount = mapStoreContext.getKeySegmentCount();
+            if (segmentCount > 0) {
+                sendKeySegments(segmentCount, mapMaxSize, replaceExistingValues);
+                return;
+            }
+
             Iterable<Object> allKeys = mapStoreContext.loadAllKeys();
             keys = allKeys.iterator();
             Iterator<Data> dataKeys = map(keys, toData);
-            int mapMaxSize = clusterSize * maxSizePerNode;
 
             if (mapMaxSize > 0) {
                 dataKeys = limit(dataKeys, mapMaxSize);
@@ -258,7 +269,7 @@ public class MapKeyLoader {
             List<Future> futures = new ArrayList<Future>();
             while (batches.hasNext()) {
                 Map<Integer, List<Data>> batch = batches.next();
-                futures.addAll(sendBatch(batch, replaceExistingValues));
+                futures.addAll(sendBatch(opService, mapName, batch, replaceExistingValues));
             }
 
             // This acts as a barrier to prevent re-ordering of key distribution operations (LoadAllOperation)
@@ -278,17 +289,53 @@ public class MapKeyLoader {
         }
     }
 
-    private List<Future> sendBatch(Map<Integer, List<Data>> batch, boolean replaceExistingValues) {
-        Set<Entry<Integer, List<Data>>> entries = batch.entrySet();
-        List<Future> futures = new ArrayList<Future>(entries.size());
-        for (Entry<Integer, List<Data>> e : entries) {
-            int partitionId = e.getKey();
-            List<Data> keys = e.getValue();
-            LoadAllOperation op = new LoadAllOperation(mapName, keys, replaceExistingValues);
-            InternalCompletableFuture<Object> future = opService.invokeOnPartition(SERVICE_NAME, op, partitionId);
-            futures.add(future);
+    /**
+     * Sends every key segment to the owner of the partition it is assigned to, so the members load their segments
+     * concurrently, and waits until the keys of all segments were sent to their partitions.
+     * A segment is sent again if its member leaves the cluster before it finished. All segments have to be
+     * distributed within {@link #KEY_DISTRIBUTION_TIMEOUT_MINUTES}, including the ones sent again.
+     */
+    private void sendKeySegments(int segmentCount, int mapMaxSize, boolean replaceExistingValues) throws Exception {
+        int maxKeysPerSegment = mapMaxSize > 0 ? (mapMaxSize + segmentCount - 1) / segmentCount : -1;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(KEY_DISTRIBUTION_TIMEOUT_MINUTES);
+
+        Map<Integer, Future> futures = new HashMap<Integer, Future>(segmentCount);
+        for (int segment = 0; segment < segmentCount; segment++) {
+            futures.put(segment, sendKeySegment(segment, maxKeysPerSegment, replaceExistingValues));
         }
-        return futures;
+
+        while (!futures.isEmpty()) {
+            long remainingNanos = deadline - System.nanoTime();
+            // failures are handled per segment below
+            FutureUtil.waitWithDeadline(futures.values(), remainingNanos, TimeUnit.NANOSECONDS,
+                    FutureUtil.IGNORE_ALL_EXCEPTIONS);
+
+            Map<Integer, Future> resentFutures = new HashMap<Integer, Future>();
+            for (Entry<Integer, Future> entry : futures.entrySet()) {
+                Future future = entry.getValue();
+                if (!future.isDone()) {
+                    throw new TimeoutException("Key segments of map " + mapName + " were not distributed within "
+                            + KEY_DISTRIBUTION_TIMEOUT_MINUTES + " minutes");
+                }
+                int segment = entry.getKey();
+                try {
+                    future.get();
+                } catch (MemberLeftException e) {
+                    resentFutures.put(segment, sendKeySegment(segment, maxKeysPerSegment, replaceExistingValues));
+                } catch (TargetNotMemberException e) {
+                    resentFutures.put(segment, sendKeySegment(segment, maxKeysPerSegment, replaceExistingValues));
+                }
+            }
+            futures = resentFutures;
+        }
+    }
+
+    private Future sendKeySegment(int segment, int maxKeys, boolean replaceExistingValues) {
+        Address target = partitionService.getPartitionOwnerOrWait(segment % partitionService.getPartitionCount());
+        Operation op = new LoadKeySegmentOperation(mapName, segment, maxKeys, replaceExistingValues);
+        // the segment is answered only after all of its keys were sent, which may take longer than a call timeout
+        long callTimeout = TimeUnit.MINUTES.toMillis(KEY_DISTRIBUTION_TIMEOUT_MINUTES);
+        return opService.createInvocationBuilder(SERVICE_NAME, op, target).setCallTimeout(callTimeout).invoke();
     }
 
     private void sendLoadCompleted(int clusterSize, int partitions,
@@ -19,18 +19,24 @@ package com.hazelcast.map.impl;
 import com.hazelcast.config.MaxSizeConfig;
 import com.hazelcast.config.MaxSizeConfig.MaxSizePolicy;
 import com.hazelcast.core.IFunction;
+import com.hazelcast.map.impl.operation.LoadAllOperation;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.spi.OperationService;
 import com.hazelcast.util.CollectionUtil;
 import com.hazelcast.util.UnmodifiableIterator;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Future;
 
+import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.map.impl.eviction.MaxSizeChecker.getApproximateMaxSize;
 
 public final class MapKeyLoaderUtil {
@@ -85,6 +91,22 @@ public final class MapKeyLoaderUtil {
         return batch;
     }
 
+    /**
+     * Sends the keys of a batch to their partitions for loading.
+     */
+    static List<Future> sendBatch(OperationService opService, String mapName, Map<Integer, List<Data>> batch,
+                                  boolean replaceExistingValues) {
+        Set<Entry<Integer, List<Data>>> entries = batch.entrySet();
+        List<Future> futures = new ArrayList<Future>(entries.size());
+        for (Entry<Integer, List<Data>> e : entries) {
+            int partitionId = e.getKey();
+            List<Data> keys = e.getValue();
+            LoadAllOperation op = new LoadAllOperation(mapName, keys, replaceExistingValues);
+            futures.add(opService.invokeOnPartition(SERVICE_NAME, op, partitionId));
+        }
+        return futures;
+    }
+
     public static int getMaxSizePerNode(MaxSizeConfig maxSizeConfig) {
         double maxSizePerNode = getApproximateMaxSize(maxSizeConfig, MaxSizePolicy.PER_NODE);
 
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.util.FutureUtil;
+import com.hazelcast.util.counters.Counter;
+import com.hazelcast.util.executor.ExecutorType;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.map.impl.MapKeyLoader.KEY_DISTRIBUTION_TIMEOUT_MINUTES;
+import static com.hazelcast.map.impl.MapKeyLoaderUtil.sendBatch;
+import static com.hazelcast.map.impl.MapKeyLoaderUtil.toBatches;
+import static com.hazelcast.map.impl.MapKeyLoaderUtil.toPartition;
+import static com.hazelcast.nio.IOUtil.closeResource;
+import static com.hazelcast.spi.ExecutionService.MAP_LOAD_KEY_SEGMENTS_EXECUTOR;
+import static com.hazelcast.util.IterableUtil.limit;
+import static com.hazelcast.util.IterableUtil.map;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Loads the key segments of {@link com.hazelcast.core.MapLoaderSegmentSupport} loaders assigned to this member
+ * and sends their keys to the partitions for loading.
+ * <p/>
+ * At most {@link GroupProperty#MAP_LOAD_KEY_SEGMENT_PARALLELISM} segments are loaded at the same time. The progress
+ * of the loading is published as metrics under the <code>map.load</code> prefix.
+ */
+public class MapKeySegmentLoader {
+
+    private final MapServiceContext mapServiceContext;
+    private final ILogger logger;
+    private final int maxBatch;
+
+    @Probe
+    private final Counter keySegmentsPending = newMwCounter();
+    @Probe
+    private final Counter keySegmentsLoaded = newMwCounter();
+    @Probe
+    private final Counter keySegmentsFailed = newMwCounter();
+    @Probe
+    private final Counter keysLoaded = newMwCounter();
+
+    public MapKeySegmentLoader(MapServiceContext mapServiceContext) {
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        this.mapServiceContext = mapServiceContext;
+        this.logger = nodeEngine.getLogger(getClass());
+        this.maxBatch = nodeEngine.getGroupProperties().getInteger(GroupProperty.MAP_LOAD_CHUNK_SIZE);
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(this, "map.load");
+    }
+
+    public void start() {
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        nodeEngine.getExecutionService().register(MAP_LOAD_KEY_SEGMENTS_EXECUTOR,
+                groupProperties.getInteger(GroupProperty.MAP_LOAD_KEY_SEGMENT_PARALLELISM), Integer.MAX_VALUE,
+                ExecutorType.CACHED);
+    }
+
+    /**
+     * Loads the keys of a segment in the background and sends them to their partitions.
+     *
+     * @param mapName               name of the map
+     * @param segment               the key segment to load
+     * @param maxKeys               maximum number of keys to load from the segment, unlimited if not positive
+     * @param replaceExistingValues if existing values should be replaced by the loaded values
+     * @param callback              notified with the number of keys once all keys were sent to their partitions
+     */
+    public void loadSegment(final String mapName, final int segment, final int maxKeys,
+                            final boolean replaceExistingValues, final ExecutionCallback<Integer> callback) {
+        keySegmentsPending.inc();
+        ExecutionService executionService = mapServiceContext.getNodeEngine().getExecutionService();
+        executionService.execute(MAP_LOAD_KEY_SEGMENTS_EXECUTOR, new Runnable() {
+            @Override
+            public void run() {
+                int keyCount;
+                try {
+                    keyCount = sendSegmentKeys(mapName, segment, maxKeys, replaceExistingValues);
+                } catch (Throwable t) {
+                    keySegmentsPending.inc(-1);
+                    keySegmentsFailed.inc();
+                    logger.warning("Could not load key segment " + segment + " of map " + mapName, t);
+                    callback.onFailure(t);
+                    return;
+                }
+                keySegmentsPending.inc(-1);
+                keySegmentsLoaded.inc();
+                callback.onResponse(keyCount);
+            }
+        });
+    }
+
+    private int sendSegmentKeys(String mapName, int segment, int maxKeys, boolean replaceExistingValues) throws Exception {
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+        Iterator<Object> keys = mapContainer.getMapStoreContext().loadAllKeys(segment).iterator();
+        try {
+            Iterator<Data> dataKeys = map(keys, mapContainer.toData());
+            if (maxKeys > 0) {
+                dataKeys = limit(dataKeys, maxKeys);
+            }
+
+            Iterator<Entry<Integer, Data>> partitionsAndKeys = map(dataKeys, toPartition(nodeEngine.getPartitionService()));
+            Iterator<Map<Integer, List<Data>>> batches = toBatches(partitionsAndKeys, maxBatch);
+
+            int keyCount = 0;
+            List<Future> futures = new ArrayList<Future>();
+            while (batches.hasNext()) {
+                Map<Integer, List<Data>> batch = batches.next();
+                int batchKeyCount = 0;
+                for (List<Data> partitionKeys : batch.values()) {
+                    batchKeyCount += partitionKeys.size();
+                }
+                futures.addAll(sendBatch(nodeEngine.getOperationService(), mapName, batch, replaceExistingValues));
+                keysLoaded.inc(batchKeyCount);
+                keyCount += batchKeyCount;
+            }
+
+            // same barrier as in MapKeyLoader: the segment is reported done only after all keys were ACKed
+            FutureUtil.waitWithDeadline(futures, KEY_DISTRIBUTION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+            return keyCount;
+        } finally {
+            if (keys instanceof Closeable) {
+                closeResource((Closeable) keys);
+            }
+        }
+    }
+}
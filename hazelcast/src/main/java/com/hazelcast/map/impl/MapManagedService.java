@@ -47,6 +47,8 @@ class MapManagedService implements ManagedService {
                     new ObjectNamespaceLockStoreInfoConstructorFunction());
         }
         mapServiceContext.getExpirationManager().start();
+        mapServiceContext.getHotRestartStore().start();
+        mapServiceContext.getMapKeySegmentLoader().start();
     }
 
     @Override
@@ -56,6 +58,8 @@ class MapManagedService implements ManagedService {
 
     @Override
     public void shutdown(boolean terminate) {
+        // the logs are kept to restore the data from when this member restarts
+        mapServiceContext.getHotRestartStore().close();
         if (!terminate) {
             mapServiceContext.flushMaps();
             mapServiceContext.destroyMapStores();
@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.map.impl.operation.MapMigrationChunkOperation;
 import com.hazelcast.map.impl.operation.MapReplicationOperation;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.recordstore.RecordStore;
@@ -23,20 +24,23 @@ import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.partition.MigrationEndpoint;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryEntry;
-import com.hazelcast.spi.MigrationAwareService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.PartitionReplicationEvent;
+import com.hazelcast.spi.ReplicaDigestAwareService;
 import com.hazelcast.util.Clock;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * Defines migration behavior of map service.
  *
  * @see MapService
  */
-class MapMigrationAwareService implements MigrationAwareService {
+class MapMigrationAwareService implements ChunkedMigrationAwareService, ReplicaDigestAwareService {
 
     private final MapServiceContext mapServiceContext;
     private final SerializationService serializationService;
@@ -53,24 +57,76 @@ class MapMigrationAwareService implements MigrationAwareService {
     @Override
     public Operation prepareReplicationOperation(PartitionReplicationEvent event) {
         final PartitionContainer container = mapServiceContext.getPartitionContainer(event.getPartitionId());
-        final MapReplicationOperation operation
-                = new MapReplicationOperation(mapServiceContext.getService(), container,
-                event.getPartitionId(), event.getReplicaIndex());
+        final MapMigrationChunker chunker = event.getReplicaIndex() == 0 ? container.getMigrationChunker() : null;
+        final MapReplicationOperation operation;
+        if (chunker != null) {
+            // the partition has been copied in chunks, only the changes made meanwhile are left to be sent
+            container.setMigrationChunker(null);
+            operation = new MapReplicationOperation(mapServiceContext.getService(), container,
+                    event.getPartitionId(), chunker.stopMutationTracking());
+        } else {
+            operation = new MapReplicationOperation(mapServiceContext.getService(), container,
+                    event.getPartitionId(), event.getReplicaIndex());
+        }
         operation.setService(mapServiceContext.getService());
         return operation.isEmpty() ? null : operation;
     }
 
+    @Override
+    public Object createReplicaDigest(int partitionId) {
+        return MapReplicaDigest.create(mapServiceContext.getPartitionContainer(partitionId), serializationService);
+    }
+
+    @Override
+    public Operation prepareReplicationOperation(PartitionReplicationEvent event, Object digest) {
+        final PartitionContainer container = mapServiceContext.getPartitionContainer(event.getPartitionId());
+        final MapReplicationOperation operation = new MapReplicationOperation(mapServiceContext.getService(), container,
+                event.getPartitionId(), event.getReplicaIndex(), (MapReplicaDigest) digest);
+        operation.setService(mapServiceContext.getService());
+        return operation.isEmpty() ? null : operation;
+    }
+
+    @Override
+    public Operation prepareMigrationChunk(PartitionMigrationEvent event, int maxRecords) {
+        final PartitionContainer container = mapServiceContext.getPartitionContainer(event.getPartitionId());
+        MapMigrationChunker chunker = container.getMigrationChunker();
+        if (chunker == null) {
+            if (container.getMaps().isEmpty()) {
+                return null;
+            }
+            chunker = new MapMigrationChunker(container);
+            container.setMigrationChunker(chunker);
+        }
+        Map<String, Collection<Record>> records = chunker.nextChunk(maxRecords);
+        if (records.isEmpty()) {
+            return null;
+        }
+        MapMigrationChunkOperation operation
+                = new MapMigrationChunkOperation(mapServiceContext.getService(), event.getPartitionId(), records);
+        operation.setService(mapServiceContext.getService());
+        return operation;
+    }
+
+    @Override
+    public void discardMigrationChunks(PartitionMigrationEvent event) {
+        mapServiceContext.getPartitionContainer(event.getPartitionId()).discardMigrationChunks();
+    }
+
     @Override
     public void commitMigration(PartitionMigrationEvent event) {
+        discardMigrationChunks(event);
         migrateIndex(event);
         if (event.getMigrationEndpoint() == MigrationEndpoint.SOURCE) {
             mapServiceContext.clearPartitionData(event.getPartitionId());
         }
+        // the new owner numbers near cache invalidations under a new partition uuid
+        mapServiceContext.getNearCacheProvider().getInvalidator().resetPartition(event.getPartitionId());
         mapServiceContext.reloadOwnedPartitions();
     }
 
     @Override
     public void rollbackMigration(PartitionMigrationEvent event) {
+        discardMigrationChunks(event);
         if (event.getMigrationEndpoint() == MigrationEndpoint.DESTINATION) {
             mapServiceContext.clearPartitionData(event.getPartitionId());
         }
@@ -79,6 +135,7 @@ class MapMigrationAwareService implements MigrationAwareService {
 
     @Override
     public void clearPartitionReplica(int partitionId) {
+        mapServiceContext.getPartitionContainer(partitionId).discardMigrationChunks();
         mapServiceContext.clearPartitionData(partitionId);
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies the record stores of a partition migrating away in chunks, while tracking the mutations made meanwhile.
+ * <p>
+ * The record maps are iterated lazily, chunk by chunk, so no copy of the keys is made. Their iterators are weakly
+ * consistent and survive a resize of the table, so every key present when the migration started and not removed
+ * meanwhile is returned. Keys added or removed after the migration started are tracked as mutations and sent with the
+ * final {@link com.hazelcast.map.impl.operation.MapReplicationOperation}.
+ * <p>
+ * Only accessed by the partition thread.
+ */
+final class MapMigrationChunker {
+
+    private final PartitionContainer container;
+    private final List<String> mapNames = new ArrayList<String>();
+
+    private int mapIndex;
+    // iterates over the keys of the map at mapIndex; null until the map is reached
+    private Iterator<Data> keyIterator;
+
+    MapMigrationChunker(PartitionContainer container) {
+        this.container = container;
+        for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            entry.getValue().startMutationTracking();
+            mapNames.add(entry.getKey());
+        }
+    }
+
+    /**
+     * Returns the records of the next chunk, grouped by map name.
+     *
+     * @param maxRecords the maximum number of records to return
+     * @return the records of the chunk; empty if all records have been returned
+     */
+    Map<String, Collection<Record>> nextChunk(int maxRecords) {
+        Map<String, Collection<Record>> chunk = new HashMap<String, Collection<Record>>();
+        int remaining = maxRecords;
+        while (remaining > 0 && mapIndex < mapNames.size()) {
+            String mapName = mapNames.get(mapIndex);
+            RecordStore recordStore = container.getExistingRecordStore(mapName);
+            if (recordStore == null) {
+                // the map has been destroyed meanwhile
+                nextMap();
+                continue;
+            }
+            if (keyIterator == null) {
+                keyIterator = recordStore.getRecordMap().keySet().iterator();
+            }
+            Collection<Record> records = new ArrayList<Record>();
+            int iterated = 0;
+            while (iterated < remaining && keyIterator.hasNext()) {
+                // removed records are sent as mutations
+                Record record = recordStore.getRecord(keyIterator.next());
+                if (record != null) {
+                    records.add(record);
+                }
+                iterated++;
+            }
+            if (iterated > 0) {
+                // even if all iterated records have been removed, so the chunk isn't taken for the last one
+                chunk.put(mapName, records);
+            }
+            remaining -= iterated;
+            if (!keyIterator.hasNext()) {
+                nextMap();
+            }
+        }
+        return chunk;
+    }
+
+    private void nextMap() {
+        mapIndex++;
+        keyIterator = null;
+    }
+
+    /**
+     * Stops tracking mutations.
+     *
+     * @return the keys mutated since the migration started by map name; maps without tracked mutations, for example
+     * the ones created meanwhile, are missing and need to be copied entirely
+     */
+    Map<String, Set<Data>> stopMutationTracking() {
+        Map<String, Set<Data>> mutatedKeys = new HashMap<String, Set<Data>>();
+        for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            Set<Data> keys = entry.getValue().stopMutationTracking();
+            if (keys != null) {
+                mutatedKeys.put(entry.getKey(), keys);
+            }
+        }
+        return mutatedKeys;
+    }
+}
@@ -21,6 +21,7 @@ import com.hazelcast.map.impl.client.MapAddEntryListenerSqlRequest;
 import com.hazelcast.map.impl.client.MapAddIndexRequest;
 import com.hazelcast.map.impl.client.MapAddInterceptorRequest;
 import com.hazelcast.map.impl.client.MapAddNearCacheEntryListenerRequest;
+import com.hazelcast.map.impl.client.MapAddNearCacheInvalidationListenerRequest;
 import com.hazelcast.map.impl.client.MapAddPartitionLostListenerRequest;
 import com.hazelcast.map.impl.client.MapClearNearCacheRequest;
 import com.hazelcast.map.impl.client.MapClearRequest;
@@ -34,6 +35,7 @@ import com.hazelcast.map.impl.client.MapExecuteOnAllKeysRequest;
 import com.hazelcast.map.impl.client.MapExecuteOnKeyRequest;
 import com.hazelcast.map.impl.client.MapExecuteOnKeysRequest;
 import com.hazelcast.map.impl.client.MapExecuteWithPredicateRequest;
+import com.hazelcast.map.impl.client.MapFetchNearCacheInvalidationMetaDataRequest;
 import com.hazelcast.map.impl.client.MapFlushRequest;
 import com.hazelcast.map.impl.client.MapGetAllRequest;
 import com.hazelcast.map.impl.client.MapGetEntryViewRequest;
@@ -63,6 +65,7 @@ import com.hazelcast.map.impl.client.MapTryPutRequest;
 import com.hazelcast.map.impl.client.MapTryRemoveRequest;
 import com.hazelcast.map.impl.client.MapUnlockRequest;
 import com.hazelcast.map.impl.client.MapValuesRequest;
+import com.hazelcast.map.impl.client.PortableBatchInvalidationEvent;
 import com.hazelcast.map.impl.client.TxnMapRequest;
 import com.hazelcast.map.impl.client.TxnMapRequestWithSQLQuery;
 import com.hazelcast.nio.serialization.ClassDefinition;
@@ -130,6 +133,9 @@ public class MapPortableHook implements PortableHook {
     public static final int ADD_MAP_PARTITION_LOST_LISTENER = 51;
     public static final int REMOVE_MAP_PARTITION_LOST_LISTENER = 52;
     public static final int CLEAR_NEAR_CACHE = 53;
+    public static final int ADD_NEAR_CACHE_INVALIDATION_LISTENER = 54;
+    public static final int BATCH_INVALIDATION_EVENT = 55;
+    public static final int FETCH_NEAR_CACHE_INVALIDATION_META_DATA = 56;
 
     @Override
     public int getFactoryId() {
@@ -140,7 +146,7 @@ public class MapPortableHook implements PortableHook {
     public PortableFactory createFactory() {
         return new PortableFactory() {
             final ConstructorFunction<Integer, Portable>[] constructors
-                    = new ConstructorFunction[CLEAR_NEAR_CACHE + 1];
+                    = new ConstructorFunction[FETCH_NEAR_CACHE_INVALIDATION_META_DATA + 1];
 
             {
                 constructors[GET] = new ConstructorFunction<Integer, Portable>() {
@@ -435,6 +441,24 @@ public class MapPortableHook implements PortableHook {
                         return new MapClearNearCacheRequest();
                     }
                 };
+
+                constructors[ADD_NEAR_CACHE_INVALIDATION_LISTENER] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapAddNearCacheInvalidationListenerRequest();
+                    }
+                };
+
+                constructors[BATCH_INVALIDATION_EVENT] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new PortableBatchInvalidationEvent();
+                    }
+                };
+
+                constructors[FETCH_NEAR_CACHE_INVALIDATION_META_DATA] = new ConstructorFunction<Integer, Portable>() {
+                    public Portable createNew(Integer arg) {
+                        return new MapFetchNearCacheInvalidationMetaDataRequest();
+                    }
+                };
             }
 
             public Portable create(int classId) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.util.QuickMath;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+
+/**
+ * Digest of the record stores of a partition replica, used to synchronize a backup replica by transferring only the
+ * key ranges which differ from the owner replica.
+ * <p>
+ * Keys of a record store are split into a number of ranges by the hash of the key; the hash of a range is the sum of
+ * the hashes of its entries, so it does not depend on the iteration order of the record store and the same entries
+ * give the same hash on every member. The number of ranges is chosen by the backup replica from the size of its
+ * record store, the owner computes its hashes with the same number of ranges.
+ * <p>
+ * Besides key and value, the hash of an entry covers the metadata replicated with a record: its version, its TTL
+ * and, for a record with a TTL, the time it expires at. So a backup holding a stale version or expiration of an
+ * entry is synchronized as well. The hashes of {@link com.hazelcast.config.InMemoryFormat#OBJECT} values are
+ * computed from their serialized form, since their hash codes may differ between members; values stored as
+ * {@link Data} are hashed as they are.
+ */
+public final class MapReplicaDigest implements DataSerializable {
+
+    private static final int RECORDS_PER_RANGE = 32;
+    private static final int MAX_RANGE_COUNT = 4096;
+    // odd multiplier mixing the key hash into the entry hash
+    private static final long KEY_HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private Map<String, long[]> rangeHashes;
+
+    public MapReplicaDigest() {
+    }
+
+    private MapReplicaDigest(Map<String, long[]> rangeHashes) {
+        this.rangeHashes = rangeHashes;
+    }
+
+    /**
+     * Creates the digest of the record stores of a partition.
+     *
+     * @return the digest or {@code null} if the partition has no records
+     */
+    public static MapReplicaDigest create(PartitionContainer container, SerializationService serializationService) {
+        Map<String, long[]> rangeHashes = new HashMap<String, long[]>();
+        for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            RecordStore recordStore = entry.getValue();
+            if (recordStore.size() > 0) {
+                long[] hashes = computeRangeHashes(recordStore, getRangeCount(recordStore.size()), serializationService);
+                rangeHashes.put(entry.getKey(), hashes);
+            }
+        }
+        return rangeHashes.isEmpty() ? null : new MapReplicaDigest(rangeHashes);
+    }
+
+    public Set<String> getMapNames() {
+        return rangeHashes.keySet();
+    }
+
+    /**
+     * @return the range hashes of the map or {@code null} if the replica has no records of the map
+     */
+    public long[] getRangeHashes(String mapName) {
+        return rangeHashes.get(mapName);
+    }
+
+    static int getRangeCount(int size) {
+        return Math.min(QuickMath.nextPowerOfTwo(Math.max(1, size / RECORDS_PER_RANGE)), MAX_RANGE_COUNT);
+    }
+
+    /**
+     * @param rangeCount the number of ranges, a power of two
+     * @return the range of the key
+     */
+    public static int getRange(Data key, int rangeCount) {
+        return (int) key.hash64() & (rangeCount - 1);
+    }
+
+    public static long[] computeRangeHashes(RecordStore recordStore, int rangeCount,
+                                            SerializationService serializationService) {
+        long[] hashes = new long[rangeCount];
+        for (Record record : recordStore.getRecordMap().values()) {
+            Data key = record.getKey();
+            hashes[getRange(key, rangeCount)] += getEntryHash(record, serializationService);
+        }
+        return hashes;
+    }
+
+    private static long getEntryHash(Record record, SerializationService serializationService) {
+        long hash = record.getKey().hash64() * KEY_HASH_MULTIPLIER + getValueHash(record, serializationService);
+        hash = MurmurHash3_fmix(hash + record.getVersion());
+        hash = MurmurHash3_fmix(hash + record.getTtl());
+        return MurmurHash3_fmix(hash + getTtlExpirationTime(record));
+    }
+
+    private static long getValueHash(Record record, SerializationService serializationService) {
+        Object value = record.getValue();
+        Data data = value instanceof Data ? (Data) value : serializationService.toData(value);
+        return data != null ? data.hash64() : 0;
+    }
+
+    private static long getTtlExpirationTime(Record record) {
+        long ttl = record.getTtl();
+        if (ttl <= 0 || ttl == Long.MAX_VALUE) {
+            return 0;
+        }
+        return record.getLastUpdateTime() + ttl;
+    }
+
+    /**
+     * @return the ranges whose hashes differ, indexed by range; {@code null} if all ranges are equal
+     */
+    public static boolean[] getDifferingRanges(long[] hashes, long[] otherHashes) {
+        boolean[] ranges = null;
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != otherHashes[i]) {
+                if (ranges == null) {
+                    ranges = new boolean[hashes.length];
+                }
+                ranges[i] = true;
+            }
+        }
+        return ranges;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(rangeHashes.size());
+        for (Map.Entry<String, long[]> entry : rangeHashes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLongArray(entry.getValue());
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        rangeHashes = new HashMap<String, long[]>(size);
+        for (int i = 0; i < size; i++) {
+            String mapName = in.readUTF();
+            rangeHashes.put(mapName, in.readLongArray());
+        }
+    }
+}
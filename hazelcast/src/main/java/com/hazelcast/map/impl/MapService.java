@@ -24,10 +24,11 @@ import com.hazelcast.partition.InternalPartitionLostEvent;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ManagedService;
-import com.hazelcast.spi.MigrationAwareService;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.PartitionAwareService;
+import com.hazelcast.spi.ReplicaDigestAwareService;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.PartitionReplicationEvent;
 import com.hazelcast.spi.PostJoinAwareService;
@@ -60,7 +61,7 @@ import java.util.Properties;
  * @see MapClientAwareService
  * @see MapServiceContext
  */
-public class MapService implements ManagedService, MigrationAwareService,
+public class MapService implements ManagedService, ChunkedMigrationAwareService, ReplicaDigestAwareService,
         TransactionalService, RemoteService, EventPublishingService<EventData, ListenerAdapter>,
         PostJoinAwareService, SplitBrainHandlerService, ReplicationSupportingService, StatisticsAwareService,
         PartitionAwareService, ClientAwareService, QuorumAwareService {
@@ -72,7 +73,7 @@ public class MapService implements ManagedService, MigrationAwareService,
     public static final String SERVICE_NAME = "hz:impl:mapService";
 
     protected ManagedService managedService;
-    protected MigrationAwareService migrationAwareService;
+    protected ChunkedMigrationAwareService migrationAwareService;
     protected TransactionalService transactionalService;
     protected RemoteService remoteService;
     protected EventPublishingService eventPublishingService;
@@ -113,6 +114,32 @@ public class MapService implements ManagedService, MigrationAwareService,
         return migrationAwareService.prepareReplicationOperation(event);
     }
 
+    @Override
+    public Object createReplicaDigest(int partitionId) {
+        if (migrationAwareService instanceof ReplicaDigestAwareService) {
+            return ((ReplicaDigestAwareService) migrationAwareService).createReplicaDigest(partitionId);
+        }
+        return null;
+    }
+
+    @Override
+    public Operation prepareReplicationOperation(PartitionReplicationEvent event, Object digest) {
+        if (migrationAwareService instanceof ReplicaDigestAwareService) {
+            return ((ReplicaDigestAwareService) migrationAwareService).prepareReplicationOperation(event, digest);
+        }
+        return migrationAwareService.prepareReplicationOperation(event);
+    }
+
+    @Override
+    public Operation prepareMigrationChunk(PartitionMigrationEvent event, int maxRecords) {
+        return migrationAwareService.prepareMigrationChunk(event, maxRecords);
+    }
+
+    @Override
+    public void discardMigrationChunks(PartitionMigrationEvent event) {
+        migrationAwareService.discardMigrationChunks(event);
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
         migrationAwareService.beforeMigration(event);
@@ -20,8 +20,11 @@ import com.hazelcast.core.PartitioningStrategy;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.eviction.EvictionOperator;
 import com.hazelcast.map.impl.eviction.ExpirationManager;
+import com.hazelcast.map.impl.hotrestart.HotRestartStore;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.query.MapQueryEngine;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.impl.querycache.publisher.QueryCachePublisherService;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.merge.MergePolicyProvider;
 import com.hazelcast.nio.serialization.Data;
@@ -30,6 +33,7 @@ import com.hazelcast.spi.NodeEngine;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Context which is needed by a map service.
@@ -90,8 +94,14 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     AtomicInteger getWriteBehindQueueItemCounter();
 
+    AtomicLong getWriteBehindQueueByteCounter();
+
     ExpirationManager getExpirationManager();
 
+    HotRestartStore getHotRestartStore();
+
+    MapKeySegmentLoader getMapKeySegmentLoader();
+
     EvictionOperator getEvictionOperator();
 
     void setService(MapService mapService);
@@ -104,6 +114,10 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     MapQueryEngine getMapQueryEngine();
 
+    QueryCachePublisherService getQueryCachePublisherService();
+
+    QueryCacheContext getQueryCacheContext();
+
     LocalMapStatsProvider getLocalMapStatsProvider();
 
     /**
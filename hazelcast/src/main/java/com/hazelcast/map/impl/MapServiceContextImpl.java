@@ -24,10 +24,14 @@ import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.event.MapEventPublisherImpl;
 import com.hazelcast.map.impl.eviction.EvictionOperator;
 import com.hazelcast.map.impl.eviction.ExpirationManager;
+import com.hazelcast.map.impl.hotrestart.HotRestartStore;
 import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.operation.MapPartitionDestroyOperation;
 import com.hazelcast.map.impl.query.MapQueryEngineImpl;
 import com.hazelcast.map.impl.query.MapQueryEngine;
+import com.hazelcast.map.impl.querycache.NodeQueryCacheContext;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.impl.querycache.publisher.QueryCachePublisherService;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.map.merge.MergePolicyProvider;
@@ -52,6 +56,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -76,6 +81,8 @@ class MapServiceContextImpl implements MapServiceContext {
             final Config config = nodeEngine.getConfig();
             final MapConfig mapConfig = config.findMapConfig(mapName);
             final MapContainer mapContainer = new MapContainer(mapName, mapConfig, mapServiceContext);
+            // restores the partitions persisted on this member once the map container is available
+            hotRestartStore.restoreMap(mapName);
             return mapContainer;
         }
     };
@@ -86,11 +93,16 @@ class MapServiceContextImpl implements MapServiceContext {
      * getting this into account.
      */
     private final AtomicInteger writeBehindQueueItemCounter = new AtomicInteger(0);
+    private final AtomicLong writeBehindQueueByteCounter = new AtomicLong(0);
     private final ExpirationManager expirationManager;
+    private final HotRestartStore hotRestartStore;
+    private final MapKeySegmentLoader mapKeySegmentLoader;
     private final NearCacheProvider nearCacheProvider;
     private final LocalMapStatsProvider localMapStatsProvider;
     private final MergePolicyProvider mergePolicyProvider;
     private final MapQueryEngine mapQueryEngine;
+    private final QueryCachePublisherService queryCachePublisherService;
+    private final QueryCacheContext queryCacheContext;
     private MapEventPublisher mapEventPublisher;
     private EvictionOperator evictionOperator;
     private MapService mapService;
@@ -102,12 +114,16 @@ class MapServiceContextImpl implements MapServiceContext {
         this.mapContainers = new ConcurrentHashMap<String, MapContainer>();
         this.ownedPartitions = new AtomicReference<Collection<Integer>>();
         this.expirationManager = new ExpirationManager(this, nodeEngine);
+        this.hotRestartStore = new HotRestartStore(this);
+        this.mapKeySegmentLoader = new MapKeySegmentLoader(this);
         this.evictionOperator = EvictionOperator.create(this);
         this.nearCacheProvider = new NearCacheProvider(this, nodeEngine);
         this.localMapStatsProvider = new LocalMapStatsProvider(this, nodeEngine);
         this.mergePolicyProvider = new MergePolicyProvider(nodeEngine);
         this.mapEventPublisher = createMapEventPublisherSupport();
         this.mapQueryEngine = new MapQueryEngineImpl(this, newOptimizer(nodeEngine.getGroupProperties()));
+        this.queryCachePublisherService = new QueryCachePublisherService(this);
+        this.queryCacheContext = new NodeQueryCacheContext(this);
     }
 
     MapEventPublisherImpl createMapEventPublisherSupport() {
@@ -186,6 +202,7 @@ class MapServiceContextImpl implements MapServiceContext {
 
     @Override
     public void destroyMap(String mapName) {
+        queryCachePublisherService.removePublishers(mapName);
         final PartitionContainer[] containers = partitionContainers;
         final List<Future> futures = new ArrayList<Future>(containers.length);
         for (PartitionContainer container : containers) {
@@ -259,11 +276,26 @@ class MapServiceContextImpl implements MapServiceContext {
         return writeBehindQueueItemCounter;
     }
 
+    @Override
+    public AtomicLong getWriteBehindQueueByteCounter() {
+        return writeBehindQueueByteCounter;
+    }
+
     @Override
     public ExpirationManager getExpirationManager() {
         return expirationManager;
     }
 
+    @Override
+    public HotRestartStore getHotRestartStore() {
+        return hotRestartStore;
+    }
+
+    @Override
+    public MapKeySegmentLoader getMapKeySegmentLoader() {
+        return mapKeySegmentLoader;
+    }
+
     @Override
     public EvictionOperator getEvictionOperator() {
         return evictionOperator;
@@ -294,6 +326,16 @@ class MapServiceContextImpl implements MapServiceContext {
         return mapQueryEngine;
     }
 
+    @Override
+    public QueryCachePublisherService getQueryCachePublisherService() {
+        return queryCachePublisherService;
+    }
+
+    @Override
+    public QueryCacheContext getQueryCacheContext() {
+        return queryCacheContext;
+    }
+
     @Override
     public LocalMapStatsProvider getLocalMapStatsProvider() {
         return localMapStatsProvider;
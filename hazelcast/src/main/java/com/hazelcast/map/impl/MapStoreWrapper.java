@@ -19,6 +19,7 @@ package com.hazelcast.map.impl;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.MapLoader;
 import com.hazelcast.core.MapLoaderLifecycleSupport;
+import com.hazelcast.core.MapLoaderSegmentSupport;
 import com.hazelcast.core.MapStore;
 import com.hazelcast.core.PostProcessingMapStore;
 import com.hazelcast.query.impl.getters.ReflectionHelper;
@@ -126,6 +127,23 @@ public class MapStoreWrapper implements MapStore, MapLoaderLifecycleSupport {
         return null;
     }
 
+    /**
+     * @return the number of key segments of a {@link MapLoaderSegmentSupport} loader, otherwise 0
+     */
+    public int getKeySegmentCount() {
+        if (isMapLoader() && mapLoader instanceof MapLoaderSegmentSupport) {
+            return ((MapLoaderSegmentSupport) mapLoader).getKeySegmentCount();
+        }
+        return 0;
+    }
+
+    public Iterable<Object> loadAllKeys(int segment) {
+        if (isMapLoader() && mapLoader instanceof MapLoaderSegmentSupport) {
+            return ((MapLoaderSegmentSupport) mapLoader).loadAllKeys(segment);
+        }
+        return null;
+    }
+
     @Override
     public Object load(Object key) {
         if (isMapLoader()) {
@@ -21,6 +21,7 @@ import com.hazelcast.config.MapConfig;
 import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
 import com.hazelcast.map.impl.recordstore.DefaultRecordStore;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.partition.InternalPartitionService;
@@ -31,6 +32,12 @@ import com.hazelcast.spi.OperationService;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -65,6 +72,7 @@ public class PartitionContainer {
 
             ILogger logger = nodeEngine.getLogger(DefaultRecordStore.class);
             DefaultRecordStore recordStore = new DefaultRecordStore(mapContainer, partitionId, keyLoader, logger);
+            recordStore.setHotRestartLog(serviceContext.getHotRestartStore().restore(recordStore));
             recordStore.startLoading();
 
             return recordStore;
@@ -88,6 +96,17 @@ public class PartitionContainer {
      */
     private long lastCleanupTimeCopy;
 
+    /**
+     * Copies the record stores in chunks while this partition migrates away; only accessed by the partition thread.
+     */
+    private MapMigrationChunker migrationChunker;
+
+    /**
+     * Records received in chunks while this partition migrates here, applied by the final
+     * {@link com.hazelcast.map.impl.operation.MapReplicationOperation}; only accessed by the partition thread.
+     */
+    private Map<String, List<RecordReplicationInfo>> migrationChunks;
+
     public PartitionContainer(final MapService mapService, final int partitionId) {
         this.mapService = mapService;
         this.partitionId = partitionId;
@@ -142,6 +161,54 @@ public class PartitionContainer {
         maps.clear();
     }
 
+    MapMigrationChunker getMigrationChunker() {
+        return migrationChunker;
+    }
+
+    void setMigrationChunker(MapMigrationChunker migrationChunker) {
+        this.migrationChunker = migrationChunker;
+    }
+
+    /**
+     * Keeps the records of a migration chunk received for this partition until the migration completes.
+     *
+     * @param mapName the name of the map the records belong to
+     * @param records the records of the chunk
+     */
+    public void addMigrationChunk(String mapName, Collection<RecordReplicationInfo> records) {
+        if (migrationChunks == null) {
+            migrationChunks = new HashMap<String, List<RecordReplicationInfo>>();
+        }
+        List<RecordReplicationInfo> mapRecords = migrationChunks.get(mapName);
+        if (mapRecords == null) {
+            mapRecords = new ArrayList<RecordReplicationInfo>(records.size());
+            migrationChunks.put(mapName, mapRecords);
+        }
+        mapRecords.addAll(records);
+    }
+
+    /**
+     * Removes the records received in migration chunks.
+     *
+     * @return the received records by map name, empty if no chunks have been received
+     */
+    public Map<String, List<RecordReplicationInfo>> removeMigrationChunks() {
+        Map<String, List<RecordReplicationInfo>> chunks = migrationChunks;
+        migrationChunks = null;
+        return chunks != null ? chunks : Collections.<String, List<RecordReplicationInfo>>emptyMap();
+    }
+
+    /**
+     * Discards the state of a chunked migration on both the source and the destination.
+     */
+    void discardMigrationChunks() {
+        if (migrationChunker != null) {
+            migrationChunker.stopMutationTracking();
+            migrationChunker = null;
+        }
+        migrationChunks = null;
+    }
+
     public boolean hasRunningCleanup() {
         return hasRunningCleanup;
     }
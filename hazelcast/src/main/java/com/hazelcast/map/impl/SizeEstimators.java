@@ -16,9 +16,6 @@
 
 package com.hazelcast.map.impl;
 
-
-import com.hazelcast.map.impl.nearcache.NearCacheSizeEstimator;
-
 /**
  * Static factory methods for corresponding size estimators.
  *
@@ -32,9 +29,5 @@ public final class SizeEstimators {
     public static SizeEstimator createMapSizeEstimator() {
         return new MapSizeEstimator();
     }
-
-    public static SizeEstimator createNearCacheSizeEstimator() {
-        return new NearCacheSizeEstimator();
-    }
 }
 
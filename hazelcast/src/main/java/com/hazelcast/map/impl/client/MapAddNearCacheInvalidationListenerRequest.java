@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.client;
+
+import com.hazelcast.client.ClientEndpoint;
+import com.hazelcast.client.impl.client.CallableClientRequest;
+import com.hazelcast.client.impl.client.RetryableRequest;
+import com.hazelcast.map.impl.MapPortableHook;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.nearcache.invalidation.Invalidation;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListenerAdapter;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+
+import java.io.IOException;
+import java.security.Permission;
+import java.util.List;
+
+/**
+ * Request for adding a listener to the batched near cache invalidations of a map.
+ */
+public class MapAddNearCacheInvalidationListenerRequest extends CallableClientRequest
+        implements RetryableRequest {
+
+    private String name;
+
+    public MapAddNearCacheInvalidationListenerRequest() {
+    }
+
+    public MapAddNearCacheInvalidationListenerRequest(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Object call() {
+        final ClientEndpoint endpoint = getEndpoint();
+        final MapService mapService = getService();
+
+        InvalidationListenerAdapter listener = new InvalidationListenerAdapter() {
+            @Override
+            public void onInvalidations(String mapName, List<Invalidation> invalidations) {
+                if (endpoint.isAlive()) {
+                    endpoint.sendEvent(null, new PortableBatchInvalidationEvent(mapName, invalidations), getCallId());
+                }
+            }
+        };
+
+        String registrationId = mapService.getMapServiceContext().getNearCacheProvider().getInvalidator()
+                .addInvalidationListener(name, listener);
+        endpoint.addListenerDestroyAction(MapService.SERVICE_NAME, name, registrationId);
+        return registrationId;
+    }
+
+    @Override
+    public void write(PortableWriter writer) throws IOException {
+        writer.writeUTF("name", name);
+    }
+
+    @Override
+    public void read(PortableReader reader) throws IOException {
+        name = reader.readUTF("name");
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "addNearCacheInvalidationListener";
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapPortableHook.ADD_NEAR_CACHE_INVALIDATION_LISTENER;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(name, ActionConstants.ACTION_LISTEN);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return name;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.client;
+
+import com.hazelcast.map.impl.MapPortableHook;
+import com.hazelcast.map.impl.nearcache.invalidation.Invalidation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of near cache {@link Invalidation}s of a map sent to a client.
+ */
+public class PortableBatchInvalidationEvent implements Portable {
+
+    private String name;
+    private List<Invalidation> invalidations;
+
+    public PortableBatchInvalidationEvent() {
+    }
+
+    public PortableBatchInvalidationEvent(String name, List<Invalidation> invalidations) {
+        this.name = name;
+        this.invalidations = invalidations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Invalidation> getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapPortableHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapPortableHook.BATCH_INVALIDATION_EVENT;
+    }
+
+    @Override
+    public void writePortable(PortableWriter writer) throws IOException {
+        writer.writeUTF("n", name);
+        writer.writeInt("s", invalidations.size());
+        ObjectDataOutput out = writer.getRawDataOutput();
+        for (Invalidation invalidation : invalidations) {
+            invalidation.writeData(out);
+        }
+    }
+
+    @Override
+    public void readPortable(PortableReader reader) throws IOException {
+        name = reader.readUTF("n");
+        int size = reader.readInt("s");
+        ObjectDataInput in = reader.getRawDataInput();
+        invalidations = new ArrayList<Invalidation>(size);
+        for (int i = 0; i < size; i++) {
+            Invalidation invalidation = new Invalidation();
+            invalidation.readData(in);
+            invalidations.add(invalidation);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapPartitionLostEventFilter;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.SyntheticEventFilter;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationEventFilter;
 import com.hazelcast.map.impl.query.QueryEventFilter;
 import com.hazelcast.map.impl.wan.MapReplicationRemove;
 import com.hazelcast.map.impl.wan.MapReplicationUpdate;
@@ -73,7 +74,8 @@ public class MapEventPublisherImpl implements MapEventPublisher {
                                 int numberOfEntriesAffected) {
         final Collection<EventRegistration> registrations = new LinkedList<EventRegistration>();
         for (EventRegistration registration : getRegistrations(mapName)) {
-            if (!(registration.getFilter() instanceof MapPartitionLostEventFilter)) {
+            EventFilter filter = registration.getFilter();
+            if (!(filter instanceof MapPartitionLostEventFilter || filter instanceof InvalidationEventFilter)) {
                 registrations.add(registration);
             }
         }
@@ -104,6 +106,9 @@ public class MapEventPublisherImpl implements MapEventPublisher {
     @Override
     public void publishEvent(Address caller, String mapName, EntryEventType eventType, boolean syntheticEvent,
                              final Data dataKey, Data dataOldValue, Data dataValue, Data dataMergingValue) {
+        mapServiceContext.getQueryCachePublisherService()
+                .onEntryEvent(mapName, eventType, dataKey, dataOldValue, dataValue);
+
         final Collection<EventRegistration> registrations = getRegistrations(mapName);
         if (registrations.isEmpty()) {
             return;
@@ -162,7 +167,7 @@ public class MapEventPublisherImpl implements MapEventPublisher {
     @Override
     public void hintMapEvent(Address caller, String mapName, EntryEventType eventType,
                              int numberOfEntriesAffected, int partitionId) {
-        // NOP
+        mapServiceContext.getQueryCachePublisherService().onPartitionEvent(mapName, eventType, partitionId);
     }
 
     private List<EventRegistration> initRegistrationsWithoutValue(List<EventRegistration> registrationsWithoutValue,
@@ -197,7 +202,7 @@ public class MapEventPublisherImpl implements MapEventPublisher {
     protected Result applyEventFilter(EventFilter filter, boolean syntheticEvent, Data dataKey,
                                       Data dataOldValue, Data dataValue, EntryEventType eventType) {
 
-        if (filter instanceof MapPartitionLostEventFilter) {
+        if (filter instanceof MapPartitionLostEventFilter || filter instanceof InvalidationEventFilter) {
             return Result.NONE;
         }
 
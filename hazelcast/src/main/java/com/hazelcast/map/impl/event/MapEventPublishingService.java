@@ -26,6 +26,10 @@ import com.hazelcast.map.impl.DataAwareEntryEvent;
 import com.hazelcast.map.impl.ListenerAdapter;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.nearcache.invalidation.BatchInvalidationEventData;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListenerAdapter;
+import com.hazelcast.map.impl.querycache.QueryCacheListenerAdapter;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.NodeEngine;
 
@@ -60,6 +64,17 @@ public class MapEventPublishingService implements EventPublishingService<EventDa
             return;
         }
 
+        if (eventData instanceof BatchEventData) {
+            ((QueryCacheListenerAdapter) listener).onBatch((BatchEventData) eventData);
+            return;
+        }
+
+        if (eventData instanceof BatchInvalidationEventData) {
+            BatchInvalidationEventData batch = (BatchInvalidationEventData) eventData;
+            ((InvalidationListenerAdapter) listener).onInvalidations(batch.getMapName(), batch.getInvalidations());
+            return;
+        }
+
         throw new IllegalArgumentException("Unknown map event data");
     }
 
@@ -175,7 +175,7 @@ public final class EvictionOperator {
 
     public void fireEvent(Data key, Object value, String mapName, EntryEventType eventType,
                           MapServiceContext mapServiceContext) {
-        if (!hasListener(mapName)) {
+        if (!hasListener(mapName) && !hasQueryCachePublishers(mapName)) {
             return;
         }
         final MapEventPublisher mapEventPublisher = mapServiceContext.getMapEventPublisher();
@@ -191,6 +191,11 @@ public final class EvictionOperator {
         return eventService.hasEventRegistration(SERVICE_NAME, mapName);
     }
 
+    // query caches are fed by their publishers, not by event registrations of the map
+    private boolean hasQueryCachePublishers(String mapName) {
+        return mapServiceContext.getQueryCachePublisherService().hasPublishers(mapName);
+    }
+
     private boolean evictIfNotLocked(Data key, RecordStore recordStore, boolean backup) {
         if (recordStore.isLocked(key)) {
             return false;
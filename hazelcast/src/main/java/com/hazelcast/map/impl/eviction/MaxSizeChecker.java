@@ -21,6 +21,7 @@ import com.hazelcast.config.MaxSizeConfig.MaxSizePolicy;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.nearcache.NearCache;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nio.Address;
 import com.hazelcast.partition.InternalPartition;
@@ -191,7 +192,10 @@ public class MaxSizeChecker {
             }
             heapCost += getRecordStoreHeapCost(mapName, container);
         }
-        heapCost += mapContainer.getNearCacheSizeEstimator().getSize();
+        if (mapContainer.isNearCacheEnabled()) {
+            NearCache nearCache = mapServiceContext.getNearCacheProvider().getNearCache(mapName);
+            heapCost += nearCache.getNearCacheStats().getOwnedEntryMemoryCost();
+        }
         return heapCost;
     }
 
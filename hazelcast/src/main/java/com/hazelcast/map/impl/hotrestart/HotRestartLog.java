@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.hotrestart;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.map.impl.ExpirationTimeSetter.calculateMaxIdleMillis;
+import static com.hazelcast.map.impl.ExpirationTimeSetter.setExpirationTime;
+import static com.hazelcast.nio.IOUtil.closeResource;
+
+/**
+ * Append-only log of the mutations of a map partition replica, used to restore the replica after a restart.
+ * <p>
+ * The log is a sequence of numbered segment files which are replayed in order. Every entry is written as its length,
+ * the CRC32 of its payload and the payload, so that a torn write at the tail of a segment is detected and skipped on
+ * replay. A member appends to a new segment after each restart, and while a compaction is running. A put entry keeps
+ * the TTL, creation and last update time of the record, so a restored record expires when it would have without the
+ * restart; entries which expired while the member was down are not restored.
+ * <p>
+ * Compaction rotates the log twice: the segment number in between is reserved for a snapshot of the record store,
+ * which starts with a {@link #CLEAR} entry and is written in the background while new mutations go to the last
+ * segment. Once the snapshot is complete the segments before it are deleted. Since every mutation made after the
+ * rotation is also in the last segment, the snapshot does not need to be consistent, and any crash leaves a log
+ * which replays to the latest state.
+ * <p>
+ * Appended by the partition thread; synced and compacted by the background task of the {@link HotRestartStore}.
+ */
+public final class HotRestartLog {
+
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+    static final byte CLEAR = 3;
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int HEADER_LENGTH = 8;
+    private static final int PUT_OVERHEAD = 33;
+    private static final int REMOVE_OVERHEAD = 5;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MIN_COMPACTION_ENTRY_COUNT = 1000;
+    private static final int PERCENT = 100;
+
+    private final File dir;
+    private final String mapName;
+    private final int partitionId;
+    private final boolean syncOnAppend;
+    private final ILogger logger;
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private long activeSegment;
+    // number of entries in all segments, compared with the number of live records to tell the garbage
+    private long entryCount;
+    private boolean dirty;
+    private boolean compacting;
+    private boolean closed;
+
+    HotRestartLog(File dir, String mapName, int partitionId, boolean syncOnAppend, ILogger logger) {
+        this.dir = dir;
+        this.mapName = mapName;
+        this.partitionId = partitionId;
+        this.syncOnAppend = syncOnAppend;
+        this.logger = logger;
+    }
+
+    String getMapName() {
+        return mapName;
+    }
+
+    int getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Replays the existing segments into the record store and opens a new segment for appending.
+     *
+     * @return the number of entries replayed
+     */
+    synchronized long open(RecordStore recordStore) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create hot restart directory " + dir);
+        }
+        deleteSnapshots();
+        List<Long> segments = listSegments();
+        long now = Clock.currentTimeMillis();
+        for (long segment : segments) {
+            entryCount += replay(segmentFile(segment), recordStore, now);
+        }
+        activeSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+        openSegment();
+        return entryCount;
+    }
+
+    public synchronized void put(Data key, Data value, Record record) {
+        append(writePut(payload(PUT_OVERHEAD + key.totalSize() + value.totalSize()), key, value, record));
+    }
+
+    private static ByteBuffer writePut(ByteBuffer payload, Data key, Data value, Record record) {
+        payload.put(PUT).putInt(key.totalSize()).put(key.toByteArray())
+                .putLong(record.getTtl()).putLong(record.getCreationTime()).putLong(record.getLastUpdateTime())
+                .putInt(value.totalSize()).put(value.toByteArray());
+        return payload;
+    }
+
+    public synchronized void remove(Data key) {
+        int keyLength = key.totalSize();
+        ByteBuffer payload = payload(REMOVE_OVERHEAD + keyLength);
+        payload.put(REMOVE).putInt(keyLength).put(key.toByteArray());
+        append(payload);
+    }
+
+    public synchronized void clear() {
+        append(payload(1).put(CLEAR));
+    }
+
+    private ByteBuffer payload(int length) {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private void append(ByteBuffer payload) {
+        if (closed) {
+            return;
+        }
+        int length = payload.position();
+        try {
+            writeEntry(out, payload.array(), length);
+            entryCount++;
+            if (syncOnAppend) {
+                out.flush();
+                fileOut.getFD().sync();
+            } else {
+                dirty = true;
+            }
+        } catch (IOException e) {
+            // the log cannot be trusted anymore, the replica is not persisted from now on
+            logger.severe("Could not append to hot restart log " + dir + ", closing it", e);
+            closeQuietly();
+            deleteDirectory(dir, logger);
+        }
+    }
+
+    private void writeEntry(DataOutputStream out, byte[] payload, int length) throws IOException {
+        crc.reset();
+        crc.update(payload, 0, length);
+        out.writeInt(length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload, 0, length);
+    }
+
+    /**
+     * Forces the appended entries to disk.
+     */
+    synchronized void sync() {
+        if (closed || !dirty) {
+            return;
+        }
+        try {
+            out.flush();
+            fileOut.getFD().sync();
+            dirty = false;
+        } catch (IOException e) {
+            logger.warning("Could not sync hot restart log " + dir, e);
+        }
+    }
+
+    synchronized boolean needsCompaction(int liveCount, int garbagePercentage) {
+        return !closed && !compacting && entryCount >= MIN_COMPACTION_ENTRY_COUNT
+                && (entryCount - liveCount) * PERCENT >= entryCount * garbagePercentage;
+    }
+
+    /**
+     * Rewrites the log as a snapshot of the records of the record store. Called by the background task while the
+     * partition thread keeps appending.
+     */
+    void compact(RecordStore recordStore, SerializationService serializationService) {
+        long snapshotSegment;
+        long entryCountBefore;
+        synchronized (this) {
+            if (closed || compacting) {
+                return;
+            }
+            compacting = true;
+            snapshotSegment = activeSegment + 1;
+            entryCountBefore = entryCount;
+            try {
+                closeSegment();
+                activeSegment += 2;
+                openSegment();
+            } catch (IOException e) {
+                logger.severe("Could not rotate hot restart log " + dir + ", closing it", e);
+                compacting = false;
+                closeQuietly();
+                deleteDirectory(dir, logger);
+                return;
+            }
+        }
+        File snapshot = new File(dir, snapshotSegment + SNAPSHOT_SUFFIX);
+        try {
+            long snapshotCount = writeSnapshot(snapshot, recordStore, serializationService);
+            synchronized (this) {
+                if (closed || !snapshot.renameTo(segmentFile(snapshotSegment))) {
+                    deleteFile(snapshot, logger);
+                    return;
+                }
+                entryCount = entryCount - entryCountBefore + snapshotCount;
+                deleteSegmentsBefore(snapshotSegment);
+            }
+        } catch (IOException e) {
+            logger.warning("Could not compact hot restart log " + dir, e);
+            deleteFile(snapshot, logger);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private long writeSnapshot(File snapshot, RecordStore recordStore, SerializationService serializationService)
+            throws IOException {
+        FileOutputStream snapshotFileOut = new FileOutputStream(snapshot);
+        try {
+            DataOutputStream snapshotOut = new DataOutputStream(new BufferedOutputStream(snapshotFileOut));
+            // the buffer of the snapshot is not shared with the appending partition thread
+            ByteBuffer payload = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+            payload.put(CLEAR);
+            writeEntry(snapshotOut, payload.array(), payload.position());
+            long count = 1;
+            for (Record record : recordStore.getRecordMap().values()) {
+                Data key = record.getKey();
+                Data value = serializationService.toData(record.getValue());
+                if (value == null) {
+                    continue;
+                }
+                int length = PUT_OVERHEAD + key.totalSize() + value.totalSize();
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear();
+                writePut(payload, key, value, record);
+                writeEntry(snapshotOut, payload.array(), payload.position());
+                count++;
+            }
+            snapshotOut.flush();
+            snapshotFileOut.getFD().sync();
+            return count;
+        } finally {
+            closeResource(snapshotFileOut);
+        }
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        sync();
+        closeQuietly();
+    }
+
+    /**
+     * Closes the log and deletes its files, when the replica is removed from this member.
+     */
+    synchronized void destroy() {
+        if (closed) {
+            return;
+        }
+        closeQuietly();
+        deleteDirectory(dir, logger);
+    }
+
+    private void closeQuietly() {
+        closed = true;
+        closeResource(out);
+    }
+
+    private long replay(File segment, RecordStore recordStore, long now) throws IOException {
+        long count = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)));
+        try {
+            long remaining = segment.length();
+            while (remaining >= HEADER_LENGTH) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > remaining - HEADER_LENGTH) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(ByteBuffer.wrap(payload), recordStore, now);
+                remaining -= HEADER_LENGTH + length;
+                count++;
+            }
+            if (remaining > 0) {
+                // a torn write at the tail of the segment which was active when the member stopped
+                logger.warning("Skipped " + remaining + " bytes of corrupt or incomplete entries of " + segment);
+            }
+        } catch (EOFException e) {
+            logger.warning("Unexpected end of hot restart log segment " + segment);
+        } finally {
+            closeResource(in);
+        }
+        return count;
+    }
+
+    private void apply(ByteBuffer payload, RecordStore recordStore, long now) {
+        byte type = payload.get();
+        if (type == CLEAR) {
+            recordStore.reset();
+            return;
+        }
+        Data key = readData(payload);
+        if (type == REMOVE) {
+            recordStore.removeRecord(key);
+            return;
+        }
+        long ttl = payload.getLong();
+        long creationTime = payload.getLong();
+        long lastUpdateTime = payload.getLong();
+        Data value = readData(payload);
+        if (ttl > 0 && now - lastUpdateTime >= ttl) {
+            // expired while the member was down
+            recordStore.removeRecord(key);
+            return;
+        }
+        MapContainer mapContainer = recordStore.getMapContainer();
+        Record record = mapContainer.createRecord(key, value, ttl, now);
+        record.setCreationTime(creationTime);
+        record.setLastUpdateTime(lastUpdateTime);
+        setExpirationTime(record, calculateMaxIdleMillis(mapContainer.getMapConfig()));
+        recordStore.putRecord(key, record);
+    }
+
+    private static Data readData(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getInt()];
+        payload.get(bytes);
+        return new HeapData(bytes);
+    }
+
+    private void openSegment() throws IOException {
+        fileOut = new FileOutputStream(segmentFile(activeSegment), true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut));
+    }
+
+    private void closeSegment() throws IOException {
+        out.flush();
+        fileOut.getFD().sync();
+        dirty = false;
+        out.close();
+    }
+
+    private File segmentFile(long segment) {
+        return new File(dir, segment + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> listSegments() {
+        List<Long> segments = new ArrayList<Long>();
+        String[] names = dir.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                        logger.finest("Ignoring unknown file " + name + " in hot restart directory " + dir);
+                    }
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private void deleteSegmentsBefore(long segment) {
+        for (long existing : listSegments()) {
+            if (existing < segment) {
+                deleteFile(segmentFile(existing), logger);
+            }
+        }
+    }
+
+    private void deleteSnapshots() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(SNAPSHOT_SUFFIX)) {
+                    // an incomplete snapshot of a compaction interrupted by a restart
+                    deleteFile(file, logger);
+                }
+            }
+        }
+    }
+
+    static void deleteDirectory(File dir, ILogger logger) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                deleteFile(file, logger);
+            }
+        }
+        deleteFile(dir, logger);
+    }
+
+    private static void deleteFile(File file, ILogger logger) {
+        if (file.exists() && !file.delete()) {
+            logger.warning("Could not delete " + file);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.hotrestart;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.partition.InternalPartition;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.PartitionAwareOperation;
+
+import java.io.IOException;
+
+/**
+ * Runs locally on the partition thread and restores the record store of a map partition from its hot restart log
+ * by creating it. The log is deleted if this member does not hold a replica of the partition.
+ */
+final class HotRestartRestoreOperation extends AbstractOperation implements PartitionAwareOperation {
+
+    private final String mapName;
+
+    public HotRestartRestoreOperation(String mapName) {
+        this.mapName = mapName;
+    }
+
+    @Override
+    public void run() {
+        NodeEngine nodeEngine = getNodeEngine();
+        MapService mapService = getService();
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        int partitionId = getPartitionId();
+        InternalPartition partition = nodeEngine.getPartitionService().getPartition(partitionId, false);
+        if (partition.getOwnerOrNull() == null || partition.isOwnerOrBackup(nodeEngine.getThisAddress())) {
+            // partitions are not assigned yet or this member holds a replica of it
+            mapServiceContext.getPartitionContainer(partitionId).getRecordStore(mapName);
+        } else {
+            mapServiceContext.getHotRestartStore().deleteLog(mapName, partitionId);
+        }
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.hotrestart;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.OperationService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+
+import static com.hazelcast.instance.GroupProperty.MAP_HOT_RESTART_BASE_DIR;
+import static com.hazelcast.instance.GroupProperty.MAP_HOT_RESTART_COMPACTION_GARBAGE_PERCENTAGE;
+import static com.hazelcast.instance.GroupProperty.MAP_HOT_RESTART_ENABLED;
+import static com.hazelcast.instance.GroupProperty.MAP_HOT_RESTART_FSYNC_INTERVAL_MILLIS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps the {@link HotRestartLog}s of the map partition replicas of this member, so that the member can restore
+ * them from local disk after a restart instead of loading them from the map stores.
+ * <p>
+ * Logs are kept in {@code <base-dir>/<host>-<port>/<map-name>/<partition-id>}. A record store is restored from its
+ * log when it is created; when a map is first used on this member, the record stores of all partitions having a
+ * log are created in parallel on the partition threads. Logs of partitions this member does not hold a replica of
+ * anymore are deleted. With a map store, the initial load only loads the keys which have not been restored.
+ * <p>
+ * A background task forces the logs to disk according to
+ * {@link com.hazelcast.instance.GroupProperty#MAP_HOT_RESTART_FSYNC_INTERVAL_MILLIS} and compacts the logs having
+ * too many superseded entries.
+ */
+public class HotRestartStore {
+
+    private static final String EXECUTOR_NAME = "hz:map-hot-restart";
+    private static final long TASK_PERIOD_MILLIS = 1000;
+
+    private final MapServiceContext mapServiceContext;
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final boolean enabled;
+    private final File dir;
+    private final long fsyncIntervalMillis;
+    private final int garbagePercentage;
+    private final ConcurrentMap<String, HotRestartLog> logs = new ConcurrentHashMap<String, HotRestartLog>();
+
+    private volatile boolean closed;
+    private ScheduledFuture<?> task;
+
+    public HotRestartStore(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.logger = nodeEngine.getLogger(HotRestartStore.class);
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.enabled = groupProperties.getBoolean(MAP_HOT_RESTART_ENABLED);
+        Address address = nodeEngine.getThisAddress();
+        this.dir = new File(groupProperties.getString(MAP_HOT_RESTART_BASE_DIR), address.getHost() + "-" + address.getPort());
+        this.fsyncIntervalMillis = groupProperties.getMillis(MAP_HOT_RESTART_FSYNC_INTERVAL_MILLIS);
+        this.garbagePercentage = groupProperties.getInteger(MAP_HOT_RESTART_COMPACTION_GARBAGE_PERCENTAGE);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        logger.info("Hot restart persistence of maps is enabled, using directory " + dir.getAbsolutePath());
+        long period = fsyncIntervalMillis > 0 ? fsyncIntervalMillis : TASK_PERIOD_MILLIS;
+        task = nodeEngine.getExecutionService()
+                .scheduleWithFixedDelay(EXECUTOR_NAME, new SyncAndCompactTask(), period, period, MILLISECONDS);
+    }
+
+    /**
+     * Restores a newly created record store from its log, if there is one.
+     *
+     * @param recordStore the record store, not yet used by any operation
+     * @return the log the mutations of the record store are to be appended to or {@code null} if the record store
+     * is not persisted
+     */
+    public HotRestartLog restore(RecordStore recordStore) {
+        if (!enabled || closed
+                || recordStore.getMapContainer().getMapConfig().getInMemoryFormat() == InMemoryFormat.NATIVE) {
+            return null;
+        }
+        String mapName = recordStore.getName();
+        int partitionId = recordStore.getPartitionId();
+        HotRestartLog log = new HotRestartLog(getDirectory(mapName, partitionId), mapName, partitionId,
+                fsyncIntervalMillis == 0, logger);
+        try {
+            long entryCount = log.open(recordStore);
+            indexRecords(recordStore);
+            if (entryCount > 0 && logger.isFinestEnabled()) {
+                logger.finest("Restored " + recordStore.size() + " records of map " + mapName + " on partitionId="
+                        + partitionId + " from " + entryCount + " log entries");
+            }
+        } catch (IOException e) {
+            logger.warning("Could not restore map " + mapName + " on partitionId=" + partitionId
+                    + " from its hot restart log, discarding the log", e);
+            recordStore.reset();
+            log.destroy();
+            return null;
+        }
+        HotRestartLog previous = logs.put(getKey(mapName, partitionId), log);
+        if (previous != null) {
+            previous.close();
+        }
+        return log;
+    }
+
+    // the log is replayed without maintaining the indexes, the restored records are indexed once
+    private void indexRecords(RecordStore recordStore) {
+        Indexes indexes = recordStore.getMapContainer().getIndexes();
+        if (!indexes.hasIndex()) {
+            return;
+        }
+        SerializationService serializationService = nodeEngine.getSerializationService();
+        for (Record record : recordStore.getRecordMap().values()) {
+            Data key = record.getKey();
+            indexes.saveEntryIndex(new QueryEntry(serializationService, key, key, record.getValue()));
+        }
+    }
+
+    /**
+     * Restores the record stores of a map having a log in parallel on the partition threads.
+     */
+    public void restoreMap(String mapName) {
+        if (!enabled || closed) {
+            return;
+        }
+        String[] names = getDirectory(mapName).list();
+        if (names == null) {
+            return;
+        }
+        int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        OperationService operationService = nodeEngine.getOperationService();
+        for (String name : names) {
+            int partitionId;
+            try {
+                partitionId = Integer.parseInt(name);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (partitionId < partitionCount) {
+                HotRestartRestoreOperation op = new HotRestartRestoreOperation(mapName);
+                op.setPartitionId(partitionId).setNodeEngine(nodeEngine).setValidateTarget(false)
+                        .setService(mapServiceContext.getService());
+                operationService.executeOperation(op);
+            }
+        }
+    }
+
+    /**
+     * Closes and deletes the log of a record store which is removed from this member.
+     */
+    public void destroyLog(String mapName, int partitionId) {
+        if (!enabled || closed) {
+            return;
+        }
+        HotRestartLog log = logs.remove(getKey(mapName, partitionId));
+        if (log != null) {
+            log.destroy();
+        }
+    }
+
+    /**
+     * Deletes the log of a partition this member does not hold a replica of, unless it is in use.
+     */
+    void deleteLog(String mapName, int partitionId) {
+        if (!closed && !logs.containsKey(getKey(mapName, partitionId))) {
+            HotRestartLog.deleteDirectory(getDirectory(mapName, partitionId), logger);
+        }
+    }
+
+    /**
+     * Forces all logs to disk and closes them, keeping their files. Called when this member shuts down, before
+     * the record stores are cleared.
+     */
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        if (task != null) {
+            task.cancel(false);
+        }
+        for (HotRestartLog log : logs.values()) {
+            log.close();
+        }
+        logs.clear();
+    }
+
+    private File getDirectory(String mapName) {
+        try {
+            return new File(dir, URLEncoder.encode(mapName, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private File getDirectory(String mapName, int partitionId) {
+        return new File(getDirectory(mapName), String.valueOf(partitionId));
+    }
+
+    private static String getKey(String mapName, int partitionId) {
+        return partitionId + ":" + mapName;
+    }
+
+    /**
+     * Forces the logs to disk and compacts the ones having too many superseded entries.
+     */
+    private class SyncAndCompactTask implements Runnable {
+
+        @Override
+        public void run() {
+            for (HotRestartLog log : logs.values()) {
+                if (closed) {
+                    return;
+                }
+                log.sync();
+                RecordStore recordStore = mapServiceContext.getPartitionContainer(log.getPartitionId())
+                        .getExistingRecordStore(log.getMapName());
+                if (recordStore != null && log.needsCompaction(recordStore.size(), garbagePercentage)) {
+                    log.compact(recordStore, nodeEngine.getSerializationService());
+                }
+            }
+        }
+    }
+}
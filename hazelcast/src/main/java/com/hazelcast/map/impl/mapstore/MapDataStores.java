@@ -33,6 +33,7 @@ import com.hazelcast.spi.NodeEngine;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueues.createBoundedWriteBehindQueue;
 import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueues.createDefaultWriteBehindQueue;
@@ -72,7 +73,7 @@ public final class MapDataStores {
         final InMemoryFormat inMemoryFormat = getInMemoryFormat(mapStoreContext);
         final WriteBehindStore mapDataStore
                 = new WriteBehindStore(store, serializationService, writeDelayMillis, partitionId, inMemoryFormat);
-        final WriteBehindQueue writeBehindQueue = newWriteBehindQueue(mapServiceContext, writeCoalescing);
+        final WriteBehindQueue writeBehindQueue = newWriteBehindQueue(mapServiceContext, writeCoalescing, inMemoryFormat);
         mapDataStore.setWriteBehindQueue(writeBehindQueue);
         mapDataStore.setWriteBehindProcessor(writeBehindProcessor);
         return (MapDataStore<K, V>) mapDataStore;
@@ -88,11 +89,17 @@ public final class MapDataStores {
         return mapConfig.getInMemoryFormat();
     }
 
-    private static WriteBehindQueue newWriteBehindQueue(MapServiceContext mapServiceContext, boolean writeCoalescing) {
+    private static WriteBehindQueue newWriteBehindQueue(MapServiceContext mapServiceContext, boolean writeCoalescing,
+                                                        InMemoryFormat inMemoryFormat) {
         GroupProperties groupProperties = mapServiceContext.getNodeEngine().getGroupProperties();
         final int capacity = groupProperties.getInteger(GroupProperty.MAP_WRITE_BEHIND_QUEUE_CAPACITY);
         final AtomicInteger counter = mapServiceContext.getWriteBehindQueueItemCounter();
-        return (writeCoalescing ? createDefaultWriteBehindQueue() : createBoundedWriteBehindQueue(capacity, counter));
+        // only the keys and values of binary maps are always queued as Data, whose heap cost is known
+        final long maxBytes = InMemoryFormat.BINARY.equals(inMemoryFormat)
+                ? groupProperties.getLong(GroupProperty.MAP_WRITE_BEHIND_QUEUE_MAX_BYTES) : 0;
+        final AtomicLong byteCounter = mapServiceContext.getWriteBehindQueueByteCounter();
+        return (writeCoalescing ? createDefaultWriteBehindQueue(maxBytes, byteCounter)
+                : createBoundedWriteBehindQueue(capacity, counter, maxBytes, byteCounter));
     }
 
     /**
@@ -55,6 +55,14 @@ public interface MapStoreContext {
 
     Iterable<Object> loadAllKeys();
 
+    /**
+     * @return the number of key segments if the loader supports segmented loading, otherwise 0
+     * @see com.hazelcast.core.MapLoaderSegmentSupport
+     */
+    int getKeySegmentCount();
+
+    Iterable<Object> loadAllKeys(int segment);
+
     /**
      * @return true if MapLoader or MapStore is defined
      */
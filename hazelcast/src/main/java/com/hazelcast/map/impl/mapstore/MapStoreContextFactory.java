@@ -104,6 +104,16 @@ public final class MapStoreContextFactory {
             return Collections.emptyList();
         }
 
+        @Override
+        public int getKeySegmentCount() {
+            return 0;
+        }
+
+        @Override
+        public Iterable<Object> loadAllKeys(int segment) {
+            return Collections.emptyList();
+        }
+
         @Override
         public boolean isMapLoader() {
             return false;
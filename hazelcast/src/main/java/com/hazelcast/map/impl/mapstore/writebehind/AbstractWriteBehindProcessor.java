@@ -23,7 +23,6 @@ import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.internal.serialization.SerializationService;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -60,27 +59,6 @@ abstract class AbstractWriteBehindProcessor<T> implements WriteBehindProcessor<T
         return serializationService.toData(obj);
     }
 
-    /**
-     * Used to partition the list to chunks.
-     *
-     * @param list        to be paged.
-     * @param batchSize   batch operation size.
-     * @param chunkNumber batch chunk number.
-     * @return sub-list of list if any or null.
-     */
-    protected List<T> getBatchChunk(List<T> list, int batchSize, int chunkNumber) {
-        if (list == null || list.isEmpty()) {
-            return null;
-        }
-
-        final int start = chunkNumber * batchSize;
-        final int end = Math.min(start + batchSize, list.size());
-        if (start >= end) {
-            return null;
-        }
-        return list.subList(start, end);
-    }
-
     /**
      * Used to group store operations.
      */
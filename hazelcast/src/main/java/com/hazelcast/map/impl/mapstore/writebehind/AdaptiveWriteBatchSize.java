@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Adapts the write batch size of a write-behind map store to the latency of its batch store calls.
+ * <p/>
+ * The size is halved when a call takes longer than the target latency or fails, and grows by an eighth, at least by
+ * one, when a full batch is stored in less than half of the target latency. It stays between 1 and the configured
+ * write batch size. A target latency of 0 keeps the configured write batch size.
+ * <p/>
+ * Updates from concurrent store threads may overwrite each other; this only loses single adjustments.
+ */
+final class AdaptiveWriteBatchSize {
+
+    private static final int GROWTH_DIVISOR = 8;
+
+    private final int maxBatchSize;
+
+    private final long targetLatencyMillis;
+
+    private volatile int batchSize;
+
+    AdaptiveWriteBatchSize(int maxBatchSize, long targetLatencyMillis) {
+        this.maxBatchSize = max(maxBatchSize, 1);
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.batchSize = this.maxBatchSize;
+    }
+
+    int get() {
+        return batchSize;
+    }
+
+    /**
+     * @param storedCount   number of entries stored or deleted by the call.
+     * @param latencyMillis duration of the call.
+     */
+    void onBatchStored(int storedCount, long latencyMillis) {
+        if (targetLatencyMillis <= 0) {
+            return;
+        }
+        int size = batchSize;
+        if (latencyMillis > targetLatencyMillis) {
+            batchSize = max(size / 2, 1);
+        } else if (storedCount >= size && latencyMillis < targetLatencyMillis / 2) {
+            batchSize = min(size + max(size / GROWTH_DIVISOR, 1), maxBatchSize);
+        }
+    }
+
+    void onBatchFailed() {
+        if (targetLatencyMillis <= 0) {
+            return;
+        }
+        batchSize = max(batchSize / 2, 1);
+    }
+}
@@ -171,6 +171,11 @@ class BoundedWriteBehindQueue<E> implements WriteBehindQueue<E> {
         queue.getFrontByNumber(numberOfElements, collection);
     }
 
+    @Override
+    public long getHeapCost() {
+        return queue.getHeapCost();
+    }
+
     /**
      * Increments or decrements node-wide {@link WriteBehindQueue} capacity according to the given value.
      * Throws {@link ReachedMaxSizeException} when node-wide maximum capacity which is stated by the variable
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.map.ReachedMaxSizeException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * A queue which throws {@link com.hazelcast.map.ReachedMaxSizeException} on additions once the entries of all
+ * write-behind queues of a node occupy the maximum number of bytes on the heap.
+ * <p/>
+ * Elements re-added to the front of this queue after a failed store operation are always accepted, so no store
+ * operation is lost while the map store is unavailable.
+ * <p/>
+ * Note that this {@link WriteBehindQueue} implementation is not thread-safe. When it is in action, thread-safe access
+ * will be provided by wrapping it in a {@link SynchronizedWriteBehindQueue}
+ *
+ * @see SynchronizedWriteBehindQueue
+ */
+class ByteBoundedWriteBehindQueue<E> implements WriteBehindQueue<E> {
+
+    /**
+     * Per node write behind queue byte counter.
+     */
+    private final AtomicLong writeBehindQueueByteCounter;
+
+    /**
+     * Allowed max number of bytes per node which is used to provide back-pressure.
+     */
+    private final long maxBytes;
+
+    private final WriteBehindQueue<E> queue;
+
+    ByteBoundedWriteBehindQueue(long maxBytes, AtomicLong writeBehindQueueByteCounter, WriteBehindQueue<E> queue) {
+        this.maxBytes = maxBytes;
+        this.writeBehindQueueByteCounter = writeBehindQueueByteCounter;
+        this.queue = queue;
+    }
+
+    @Override
+    public void addFirst(Collection<E> collection) {
+        if (collection == null || collection.isEmpty()) {
+            return;
+        }
+        long heapCost = queue.getHeapCost();
+        queue.addFirst(collection);
+        writeBehindQueueByteCounter.addAndGet(queue.getHeapCost() - heapCost);
+    }
+
+    @Override
+    public void addLast(E e) {
+        long heapCost = queue.getHeapCost();
+        long currentBytes = writeBehindQueueByteCounter.get();
+        if (currentBytes >= maxBytes) {
+            throwException(currentBytes);
+        }
+        queue.addLast(e);
+        writeBehindQueueByteCounter.addAndGet(queue.getHeapCost() - heapCost);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(E e) {
+        long heapCost = queue.getHeapCost();
+        boolean result = queue.removeFirstOccurrence(e);
+        writeBehindQueueByteCounter.addAndGet(queue.getHeapCost() - heapCost);
+        return result;
+    }
+
+    @Override
+    public int drainTo(Collection<E> collection) {
+        long heapCost = queue.getHeapCost();
+        int size = queue.drainTo(collection);
+        writeBehindQueueByteCounter.addAndGet(-heapCost);
+        return size;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return queue.contains(e);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void clear() {
+        long heapCost = queue.getHeapCost();
+        queue.clear();
+        writeBehindQueueByteCounter.addAndGet(-heapCost);
+    }
+
+    @Override
+    public List<E> asList() {
+        return queue.asList();
+    }
+
+    @Override
+    public void getFrontByTime(long time, Collection<E> collection) {
+        queue.getFrontByTime(time, collection);
+    }
+
+    @Override
+    public void getFrontByNumber(int numberOfElements, Collection<E> collection) {
+        queue.getFrontByNumber(numberOfElements, collection);
+    }
+
+    @Override
+    public long getHeapCost() {
+        return queue.getHeapCost();
+    }
+
+    private void throwException(long currentBytes) {
+        final String msg = format("Reached node-wide max bytes for write-behind-stores. Max allowed bytes = [%d],"
+                + " current bytes = [%d]", maxBytes, currentBytes);
+        throw new ReachedMaxSizeException(msg);
+    }
+}
@@ -27,6 +27,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueues.getEntryHeapCost;
 import static com.hazelcast.util.CollectionUtil.isEmpty;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 
@@ -37,6 +38,8 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
 
     protected Map<Data, DelayedEntry> map;
 
+    private long heapCost;
+
     public CoalescedWriteBehindQueue() {
         map = new LinkedHashMap<Data, DelayedEntry>();
     }
@@ -55,6 +58,13 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
         }
         newMap.putAll(map);
         map = newMap;
+
+        // entries which are already in this queue replace the given ones
+        long newHeapCost = 0;
+        for (DelayedEntry delayedEntry : newMap.values()) {
+            newHeapCost += getEntryHeapCost(delayedEntry);
+        }
+        heapCost = newHeapCost;
     }
 
     @Override
@@ -64,7 +74,8 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
         }
         calculateStoreTime(delayedEntry);
         Data key = (Data) delayedEntry.getKey();
-        map.put(key, delayedEntry);
+        DelayedEntry replacedEntry = map.put(key, delayedEntry);
+        heapCost += getEntryHeapCost(delayedEntry) - getEntryHeapCost(replacedEntry);
     }
 
     /**
@@ -85,6 +96,7 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
         Object existingValue = delayedEntry.getValue();
         if (existingValue == value) {
             map.remove(key);
+            heapCost -= getEntryHeapCost(delayedEntry);
             return true;
         }
 
@@ -105,6 +117,7 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
     @Override
     public void clear() {
         map.clear();
+        heapCost = 0;
     }
 
     @Override
@@ -116,6 +129,7 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
             collection.add(delayedEntry);
         }
         map.clear();
+        heapCost = 0;
         return collection.size();
     }
 
@@ -149,6 +163,11 @@ class CoalescedWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
         }
     }
 
+    @Override
+    public long getHeapCost() {
+        return heapCost;
+    }
+
 
     /**
      * If this is an existing key in this queue, use previously set store time;
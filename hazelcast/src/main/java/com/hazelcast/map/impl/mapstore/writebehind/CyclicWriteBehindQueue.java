@@ -30,6 +30,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueues.getEntryHeapCost;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 
 /**
@@ -54,6 +55,8 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
      */
     private final Map<Data, MutableInteger> index;
 
+    private long heapCost;
+
     public CyclicWriteBehindQueue() {
         this.deque = new ArrayDeque<DelayedEntry>();
         this.index = new HashMap<Data, MutableInteger>();
@@ -68,6 +71,7 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
     public void addFirst(Collection<DelayedEntry> collection) {
         for (DelayedEntry entry : collection) {
             deque.addFirst(entry);
+            heapCost += getEntryHeapCost(entry);
         }
         addCountIndex(collection);
     }
@@ -80,6 +84,7 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
     @Override
     public void addLast(DelayedEntry entry) {
         deque.addLast(entry);
+        heapCost += getEntryHeapCost(entry);
         addCountIndex(entry);
     }
 
@@ -96,6 +101,7 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
         if (removedEntry == null) {
             return false;
         }
+        heapCost -= getEntryHeapCost(removedEntry);
         decreaseCountIndex(entry);
         return true;
     }
@@ -120,6 +126,7 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
     @Override
     public void clear() {
         deque.clear();
+        heapCost = 0;
         resetCountIndex();
     }
 
@@ -140,6 +147,7 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
             collection.add(e);
             iterator.remove();
         }
+        heapCost = 0;
         resetCountIndex();
         return collection.size();
     }
@@ -179,6 +187,11 @@ class CyclicWriteBehindQueue implements WriteBehindQueue<DelayedEntry> {
         }
     }
 
+    @Override
+    public long getHeapCost() {
+        return heapCost;
+    }
+
 
     private void addCountIndex(DelayedEntry entry) {
         Data key = (Data) entry.getKey();
@@ -16,9 +16,11 @@
 
 package com.hazelcast.map.impl.mapstore.writebehind;
 
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,11 +29,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import static com.hazelcast.util.CollectionUtil.isNotEmpty;
-
 /**
  * Processes store operations.
  */
@@ -46,36 +45,51 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         }
     };
 
-    private static final int RETRY_TIMES_OF_A_FAILED_STORE_OPERATION = 3;
+    /**
+     * Number of consecutive failed store calls after which the map store is considered unavailable
+     * for the rest of a round.
+     */
+    private static final int STORE_UNAVAILABLE_AFTER_FAILURES = 3;
 
-    private static final int RETRY_STORE_AFTER_WAIT_SECONDS = 1;
+    /**
+     * Number of attempts of a store call while flushing, a failed flush is not retried later.
+     */
+    private static final int FLUSH_ATTEMPTS_OF_A_STORE_OPERATION = 3;
 
+    private static final int RETRY_FLUSH_AFTER_WAIT_SECONDS = 1;
 
     private final List<StoreListener> storeListeners;
 
+    private final AdaptiveWriteBatchSize adaptiveWriteBatchSize;
+
     DefaultWriteBehindProcessor(MapStoreContext mapStoreContext) {
         super(mapStoreContext);
         this.storeListeners = new ArrayList<StoreListener>(2);
+        long targetLatencyMillis = mapStoreContext.getMapServiceContext().getNodeEngine().getGroupProperties()
+                .getMillis(GroupProperty.MAP_WRITE_BEHIND_BATCH_TARGET_LATENCY_MILLIS);
+        this.adaptiveWriteBatchSize = new AdaptiveWriteBatchSize(writeBatchSize, targetLatencyMillis);
     }
 
     @Override
     public Map<Integer, List<DelayedEntry>> process(List<DelayedEntry> delayedEntries) {
-        Map<Integer, List<DelayedEntry>> failMap;
+        return process(delayedEntries, new StoreRound(1, true));
+    }
+
+    private Map<Integer, List<DelayedEntry>> process(List<DelayedEntry> delayedEntries, StoreRound round) {
         sort(delayedEntries);
         if (writeBatchSize > 1) {
-            failMap = doStoreUsingBatchSize(delayedEntries);
+            doStoreUsingBatchSize(delayedEntries, round);
         } else {
-            failMap = processInternal(delayedEntries);
+            processInternal(delayedEntries, round);
         }
-        return failMap;
+        return round.failsPerPartition;
     }
 
 
-    private Map<Integer, List<DelayedEntry>> processInternal(List<DelayedEntry> delayedEntries) {
+    private void processInternal(List<DelayedEntry> delayedEntries, StoreRound round) {
         if (delayedEntries == null || delayedEntries.isEmpty()) {
-            return Collections.emptyMap();
+            return;
         }
-        final Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<Integer, List<DelayedEntry>>();
         final List<DelayedEntry> entriesToProcess = new ArrayList<DelayedEntry>();
         StoreOperationType operationType = null;
         StoreOperationType previousOperationType;
@@ -88,31 +102,13 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
                 operationType = StoreOperationType.WRITE;
             }
             if (previousOperationType != null && !previousOperationType.equals(operationType)) {
-                final List<DelayedEntry> failures = callHandler(entriesToProcess, previousOperationType);
-                addToFails(failures, failsPerPartition);
+                callHandler(entriesToProcess, previousOperationType, round);
                 entriesToProcess.clear();
             }
             entriesToProcess.add(entry);
         }
-        final List<DelayedEntry> failures = callHandler(entriesToProcess, operationType);
-        addToFails(failures, failsPerPartition);
+        callHandler(entriesToProcess, operationType, round);
         entriesToProcess.clear();
-        return failsPerPartition;
-    }
-
-    private void addToFails(List<DelayedEntry> fails, Map<Integer, List<DelayedEntry>> failsPerPartition) {
-        if (fails == null || fails.isEmpty()) {
-            return;
-        }
-        for (DelayedEntry entry : fails) {
-            final int partitionId = entry.getPartitionId();
-            List<DelayedEntry> delayedEntriesPerPartition = failsPerPartition.get(partitionId);
-            if (delayedEntriesPerPartition == null) {
-                delayedEntriesPerPartition = new ArrayList<DelayedEntry>();
-                failsPerPartition.put(partitionId, delayedEntriesPerPartition);
-            }
-            delayedEntriesPerPartition.add(entry);
-        }
     }
 
     /**
@@ -121,12 +117,17 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
      * methods.
      *
      * @param delayedEntries sorted entries to be processed.
-     * @return failed entry list if any.
+     * @param round          collects the failed entries.
      */
-    private List<DelayedEntry> callHandler(Collection<DelayedEntry> delayedEntries, StoreOperationType operationType) {
+    private void callHandler(Collection<DelayedEntry> delayedEntries, StoreOperationType operationType, StoreRound round) {
         final int size = delayedEntries.size();
         if (size == 0) {
-            return Collections.emptyList();
+            return;
+        }
+        // the map store failed repeatedly in this round, do not hammer it, these entries will be retried in a later round.
+        if (round.isStoreUnavailable()) {
+            round.addFailures(delayedEntries);
+            return;
         }
         // if we want to write all store operations on a key into the MapStore, not same as write-coalescing, we don't call
         // batch processing methods e.g., MapStore{#storeAll,#deleteAll}, instead we call methods which process single entries
@@ -137,7 +138,8 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         // entries one by one for no-write-coalescing write-behind map-stores and as a result not doing batching
         // when writeCoalescing is false.
         if (size == 1 || !writeCoalescing) {
-            return processEntriesOneByOne(delayedEntries, operationType);
+            processEntriesOneByOne(delayedEntries, operationType, round);
+            return;
         }
         final DelayedEntry[] delayedEntriesArray = delayedEntries.toArray(new DelayedEntry[delayedEntries.size()]);
         final Map<Object, DelayedEntry> batchMap = prepareBatchMap(delayedEntriesArray);
@@ -145,32 +147,29 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         // if all batch is on same key, call single store.
         if (batchMap.size() == 1) {
             final DelayedEntry delayedEntry = delayedEntriesArray[delayedEntriesArray.length - 1];
-            return callSingleStoreWithListeners(delayedEntry, operationType);
+            round.add(delayedEntry, callSingleStoreWithListeners(delayedEntry, operationType, round));
+            return;
         }
-        final List<DelayedEntry> failedEntryList = callBatchStoreWithListeners(batchMap, operationType);
-        final List<DelayedEntry> failedTries = new ArrayList<DelayedEntry>();
-        for (DelayedEntry entry : failedEntryList) {
-            final Collection<DelayedEntry> tmpFails = callSingleStoreWithListeners(entry, operationType);
-            failedTries.addAll(tmpFails);
+        final List<DelayedEntry> failedEntryList = callBatchStoreWithListeners(batchMap, operationType, round);
+        if (failedEntryList.isEmpty()) {
+            round.add(null, true);
+            return;
         }
-        return failedTries;
+        adaptiveWriteBatchSize.onBatchFailed();
+        round.add(null, false);
+        // find the entries of the failed batch which can not be stored.
+        processEntriesOneByOne(failedEntryList, operationType, round);
     }
 
-    private List<DelayedEntry> processEntriesOneByOne(Collection<DelayedEntry> delayedEntries,
-                                                      StoreOperationType operationType) {
-        List<DelayedEntry> totalFailures = null;
+    private void processEntriesOneByOne(Collection<DelayedEntry> delayedEntries, StoreOperationType operationType,
+                                        StoreRound round) {
         for (DelayedEntry delayedEntry : delayedEntries) {
-            List<DelayedEntry> failures = callSingleStoreWithListeners(delayedEntry, operationType);
-            // this `if` is used to initialize totalFailures list, since we don't want unneeded object creation.
-            if (isNotEmpty(failures)) {
-                if (totalFailures == null) {
-                    totalFailures = failures;
-                } else {
-                    totalFailures.addAll(failures);
-                }
+            if (round.isStoreUnavailable()) {
+                round.add(delayedEntry, false);
+            } else {
+                round.add(delayedEntry, callSingleStoreWithListeners(delayedEntry, operationType, round));
             }
         }
-        return totalFailures == null ? Collections.EMPTY_LIST : totalFailures;
     }
 
     private Map prepareBatchMap(DelayedEntry[] delayedEntries) {
@@ -190,11 +189,11 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
 
     /**
      * @param entry delayed entry to be stored.
-     * @return failed entry list if any.
+     * @return {@code true} if the entry is stored, {@code false} otherwise.
      */
-    private List<DelayedEntry> callSingleStoreWithListeners(final DelayedEntry entry,
-                                                            final StoreOperationType operationType) {
-        return retryCall(new RetryTask<DelayedEntry>() {
+    private boolean callSingleStoreWithListeners(final DelayedEntry entry, final StoreOperationType operationType,
+                                                 StoreRound round) {
+        return callStore(new StoreTask<DelayedEntry>() {
 
             @Override
             public boolean run() throws Exception {
@@ -215,7 +214,7 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
                 failedDelayedEntries.add(entry);
                 return failedDelayedEntries;
             }
-        });
+        }, round).isEmpty();
     }
 
     private Map convertToObject(Map<Object, DelayedEntry> batchMap) {
@@ -234,15 +233,17 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
      * @return failed entry list if any.
      */
     private List<DelayedEntry> callBatchStoreWithListeners(final Map<Object, DelayedEntry> batchMap,
-                                                           final StoreOperationType operationType) {
-        return retryCall(new RetryTask<DelayedEntry>() {
+                                                           final StoreOperationType operationType, StoreRound round) {
+        return callStore(new StoreTask<DelayedEntry>() {
             private List<DelayedEntry> failedDelayedEntries = Collections.emptyList();
 
             @Override
             public boolean run() throws Exception {
                 callBeforeStoreListeners(batchMap.values());
                 final Map map = convertToObject(batchMap);
+                final long startMillis = Clock.currentTimeMillis();
                 final boolean result = operationType.processBatch(map, mapStore);
+                adaptiveWriteBatchSize.onBatchStored(map.size(), Clock.currentTimeMillis() - startMillis);
                 callAfterStoreListeners(batchMap.values());
                 return result;
             }
@@ -256,7 +257,7 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
                 failedDelayedEntries.addAll(batchMap.values());
                 return failedDelayedEntries;
             }
-        });
+        }, round);
     }
 
     private void callBeforeStoreListeners(DelayedEntry entry) {
@@ -300,8 +301,10 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
     }
 
     private Collection<Data> flushInternal(List<DelayedEntry> delayedEntries) {
-        sort(delayedEntries);
-        final Map<Integer, List<DelayedEntry>> failedStoreOpPerPartition = process(delayedEntries);
+        // nothing retries a failed flush later, so each store call is retried a few times and one failing call
+        // doesn't make the rest of the entries fail without calling the map store.
+        final StoreRound round = new StoreRound(FLUSH_ATTEMPTS_OF_A_STORE_OPERATION, false);
+        final Map<Integer, List<DelayedEntry>> failedStoreOpPerPartition = process(delayedEntries, round);
         if (failedStoreOpPerPartition.size() > 0) {
             printErrorLog(failedStoreOpPerPartition);
         }
@@ -338,61 +341,49 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
     }
 
     /**
-     * Store chunk by chunk using write batch size {@link #writeBatchSize}
+     * Store chunk by chunk. The chunk size is the {@link #writeBatchSize} unless
+     * {@link GroupProperty#MAP_WRITE_BEHIND_BATCH_TARGET_LATENCY_MILLIS} is set,
+     * then it is adapted to the observed latency of the batch store calls.
      *
      * @param sortedDelayedEntries entries to be stored.
-     * @return not-stored entries per partition.
+     * @param round                collects the failed entries.
      */
-    private Map<Integer, List<DelayedEntry>> doStoreUsingBatchSize(List<DelayedEntry> sortedDelayedEntries) {
-        final Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<Integer, List<DelayedEntry>>();
-        int page = 0;
-        List<DelayedEntry> delayedEntryList;
-        while ((delayedEntryList = getBatchChunk(sortedDelayedEntries, writeBatchSize, page++)) != null) {
-            final Map<Integer, List<DelayedEntry>> fails = processInternal(delayedEntryList);
-            final Set<Map.Entry<Integer, List<DelayedEntry>>> entries = fails.entrySet();
-            for (Map.Entry<Integer, List<DelayedEntry>> entry : entries) {
-                final Integer partitionId = entry.getKey();
-                final List<DelayedEntry> tmpFailList = entry.getValue();
-                List<DelayedEntry> failList = failsPerPartition.get(partitionId);
-                if (failList == null || failList.isEmpty()) {
-                    failsPerPartition.put(partitionId, tmpFailList);
-                    failList = failsPerPartition.get(partitionId);
-                }
-                failList.addAll(tmpFailList);
-            }
+    private void doStoreUsingBatchSize(List<DelayedEntry> sortedDelayedEntries, StoreRound round) {
+        final int size = sortedDelayedEntries.size();
+        int from = 0;
+        while (from < size) {
+            final int to = Math.min(from + adaptiveWriteBatchSize.get(), size);
+            processInternal(sortedDelayedEntries.subList(from, to), round);
+            from = to;
         }
-        return failsPerPartition;
     }
 
-    private List<DelayedEntry> retryCall(RetryTask task) {
+    /**
+     * Runs the task up to {@link StoreRound#attemptsPerCall} times. The store executor thread doesn't wait to retry
+     * a failed task of the {@link StoreWorker}: the failed entries are re-added to their write-behind queues and the
+     * worker retries them after its backoff delay. A flush waits between its attempts instead.
+     *
+     * @return the entries which could not be stored.
+     */
+    private List<DelayedEntry> callStore(StoreTask<DelayedEntry> task, StoreRound round) {
         boolean result = false;
         Exception exception = null;
-        int k = 0;
-        for (; k < RETRY_TIMES_OF_A_FAILED_STORE_OPERATION; k++) {
+        for (int attempt = 0; attempt < round.attemptsPerCall; attempt++) {
+            if (attempt > 0) {
+                sleepSeconds(RETRY_FLUSH_AFTER_WAIT_SECONDS);
+            }
             try {
                 result = task.run();
             } catch (Exception ex) {
                 exception = ex;
             }
-            if (!result) {
-                sleepSeconds(RETRY_STORE_AFTER_WAIT_SECONDS);
-            } else {
-                break;
-            }
-        }
-        // retry occurred.
-        if (k > 0) {
-            if (!result) {
-                // List of entries which can not be stored for this round. We will readd these entries
-                // in front of the relevant partition-write-behind-queues and will indefinitely retry to
-                // store them.
-                List failureList = task.failureList();
-                logger.severe("Number of entries which could not be stored is = [" + failureList.size() + "]"
-                        + ", Hazelcast will indefinitely retry to store them", exception);
-                return failureList;
+            if (result) {
+                return Collections.emptyList();
             }
         }
-        return Collections.emptyList();
+        List<DelayedEntry> failureList = task.failureList();
+        logger.severe("Number of entries which could not be stored is = [" + failureList.size() + "]", exception);
+        return failureList;
     }
 
     private void sort(List<DelayedEntry> entries) {
@@ -403,12 +394,20 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         Collections.sort(entries, DELAYED_ENTRY_COMPARATOR);
     }
 
+    private void sleepSeconds(long secs) {
+        try {
+            TimeUnit.SECONDS.sleep(secs);
+        } catch (InterruptedException e) {
+            logger.warning(e);
+        }
+    }
+
     /**
-     * Main contract for retry operations.
+     * Main contract for store calls.
      *
      * @param <T> the type of object to be processed in this task.
      */
-    private interface RetryTask<T> {
+    private interface StoreTask<T> {
 
         /**
          * Returns {@code true} if this task has successfully run, {@code false} otherwise.
@@ -426,11 +425,60 @@ class DefaultWriteBehindProcessor extends AbstractWriteBehindProcessor<DelayedEn
         List<T> failureList();
     }
 
-    private void sleepSeconds(long secs) {
-        try {
-            TimeUnit.SECONDS.sleep(secs);
-        } catch (InterruptedException e) {
-            logger.warning(e);
+    /**
+     * Collects the not-stored entries of one {@link #process(List)} or flush call per partition. When the round
+     * fails fast, the map store is considered unavailable after {@link #STORE_UNAVAILABLE_AFTER_FAILURES}
+     * consecutive failed store calls and the remaining entries of the round are failed without calling it,
+     * they are retried by a later round.
+     */
+    private static final class StoreRound {
+
+        private final Map<Integer, List<DelayedEntry>> failsPerPartition = new HashMap<Integer, List<DelayedEntry>>();
+
+        private final int attemptsPerCall;
+
+        private final boolean failFast;
+
+        private int consecutiveFailures;
+
+        StoreRound(int attemptsPerCall, boolean failFast) {
+            this.attemptsPerCall = attemptsPerCall;
+            this.failFast = failFast;
+        }
+
+        boolean isStoreUnavailable() {
+            return failFast && consecutiveFailures >= STORE_UNAVAILABLE_AFTER_FAILURES;
+        }
+
+        /**
+         * @param entry  the entry of the store call or {@code null} for a batch store call.
+         * @param stored result of the store call.
+         */
+        void add(DelayedEntry entry, boolean stored) {
+            if (stored) {
+                consecutiveFailures = 0;
+                return;
+            }
+            consecutiveFailures++;
+            if (entry != null) {
+                addFailure(entry);
+            }
+        }
+
+        void addFailures(Collection<DelayedEntry> entries) {
+            for (DelayedEntry entry : entries) {
+                addFailure(entry);
+            }
+        }
+
+        private void addFailure(DelayedEntry entry) {
+            final int partitionId = entry.getPartitionId();
+            List<DelayedEntry> delayedEntriesPerPartition = failsPerPartition.get(partitionId);
+            if (delayedEntriesPerPartition == null) {
+                delayedEntriesPerPartition = new ArrayList<DelayedEntry>();
+                failsPerPartition.put(partitionId, delayedEntriesPerPartition);
+            }
+            delayedEntriesPerPartition.add(entry);
         }
     }
 
@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.mapstore.writebehind;
 import com.hazelcast.cluster.ClusterService;
 import com.hazelcast.instance.GroupProperties;
 import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
 import com.hazelcast.map.impl.recordstore.RecordStore;
@@ -27,6 +28,7 @@ import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
 import com.hazelcast.nio.Address;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.CollectionUtil;
@@ -35,6 +37,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hazelcast.util.CollectionUtil.isEmpty;
@@ -52,6 +57,20 @@ public class StoreWorker implements Runnable {
 
     private final WriteBehindProcessor writeBehindProcessor;
 
+    /**
+     * Name of the executor which runs the store of the partition groups when {@link #concurrency} is greater than 1.
+     */
+    private final String executorName;
+
+    /**
+     * Number of partition groups which are stored concurrently.
+     */
+    private final int concurrency;
+
+    private final WriteBehindBackoff backoff;
+
+    private final ILogger logger;
+
     /**
      * Run on backup nodes after this interval.
      */
@@ -63,22 +82,36 @@ public class StoreWorker implements Runnable {
     private long lastRunTime;
 
 
-    public StoreWorker(MapStoreContext mapStoreContext, WriteBehindProcessor writeBehindProcessor) {
+    public StoreWorker(MapStoreContext mapStoreContext, WriteBehindProcessor writeBehindProcessor, String executorName) {
         this.mapName = mapStoreContext.getMapName();
         this.mapServiceContext = mapStoreContext.getMapServiceContext();
         this.writeBehindProcessor = writeBehindProcessor;
+        this.executorName = executorName;
+        GroupProperties groupProperties = mapServiceContext.getNodeEngine().getGroupProperties();
+        this.concurrency = getStoreConcurrency(groupProperties);
+        this.backoff = new WriteBehindBackoff(groupProperties.getMillis(GroupProperty.MAP_WRITE_BEHIND_MAX_BACKOFF_MILLIS));
+        this.logger = mapServiceContext.getNodeEngine().getLogger(StoreWorker.class);
         this.backupRunIntervalTime = getReplicaWaitTime();
         this.lastRunTime = Clock.currentTimeMillis();
     }
 
+    static int getStoreConcurrency(GroupProperties groupProperties) {
+        return Math.max(1, groupProperties.getInteger(GroupProperty.MAP_WRITE_BEHIND_STORE_CONCURRENCY));
+    }
 
     @Override
     public void run() {
         long now = Clock.currentTimeMillis();
+        // the backoff only delays storing the owned entries, backups are still processed
+        boolean backingOff = backoff.isBackingOff(now);
         NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
         InternalPartitionService partitionService = nodeEngine.getPartitionService();
         int partitionCount = partitionService.getPartitionCount();
-        List<DelayedEntry> entries = new ArrayList<DelayedEntry>();
+        List<List<DelayedEntry>> groups = new ArrayList<List<DelayedEntry>>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            groups.add(new ArrayList<DelayedEntry>());
+        }
+        boolean empty = true;
 
         for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
             InternalPartition partition = partitionService.getPartition(partitionId, false);
@@ -87,6 +120,10 @@ public class StoreWorker implements Runnable {
                 continue;
             }
 
+            if (partition.isLocal() && backingOff) {
+                continue;
+            }
+
             RecordStore recordStore = getRecordStoreOrNull(mapName, partitionId);
             if (recordStore == null) {
                 continue;
@@ -97,19 +134,81 @@ public class StoreWorker implements Runnable {
                 if (now > lastRunTime + backupRunIntervalTime) {
                     doInBackup(entriesToStore, partitionId);
                 }
-            } else {
-                entries.addAll(entriesToStore);
+            } else if (!entriesToStore.isEmpty()) {
+                groups.get(partitionId % concurrency).addAll(entriesToStore);
+                empty = false;
             }
         }
 
-        if (entries.isEmpty()) {
+        if (empty) {
             return;
         }
 
+        boolean failed = storeGroups(groups);
+        updateBackoff(failed, now);
+        lastRunTime = now;
+    }
+
+    /**
+     * Stores the groups of entries, concurrently if there is more than one group.
+     *
+     * @return {@code true} if any entry could not be stored.
+     */
+    private boolean storeGroups(List<List<DelayedEntry>> groups) {
+        if (groups.size() == 1) {
+            return store(groups.get(0));
+        }
+        ExecutionService executionService = mapServiceContext.getNodeEngine().getExecutionService();
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(groups.size());
+        for (final List<DelayedEntry> group : groups) {
+            if (group.isEmpty()) {
+                continue;
+            }
+            futures.add(executionService.submit(executorName, new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return store(group);
+                }
+            }));
+        }
+        boolean failed = false;
+        for (Future<Boolean> future : futures) {
+            try {
+                failed |= future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            } catch (ExecutionException e) {
+                logger.warning("Could not store write-behind entries of map " + mapName, e.getCause());
+                failed = true;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @return {@code true} if any entry could not be stored.
+     */
+    private boolean store(List<DelayedEntry> entries) {
+        if (entries.isEmpty()) {
+            return false;
+        }
         Map<Integer, List<DelayedEntry>> failuresPerPartition = writeBehindProcessor.process(entries);
         removeFinishedStoreOperationsFromQueues(mapName, entries);
         readdFailedStoreOperationsToQueues(mapName, failuresPerPartition);
-        lastRunTime = now;
+        return !failuresPerPartition.isEmpty();
+    }
+
+    private void updateBackoff(boolean failed, long now) {
+        if (!failed) {
+            backoff.onRoundSucceeded();
+            return;
+        }
+        long backoffMillis = backoff.onRoundFailed(now);
+        if (backoffMillis > 0) {
+            logger.warning("Some write-behind entries of map " + mapName + " could not be stored, next attempt in "
+                    + backoffMillis + " ms");
+        }
     }
 
     private List<DelayedEntry> getEntriesToStore(long now, RecordStore recordStore) {
@@ -119,4 +119,11 @@ class SynchronizedWriteBehindQueue<E> implements WriteBehindQueue<E> {
         }
     }
 
+    @Override
+    public long getHeapCost() {
+        synchronized (mutex) {
+            return queue.getHeapCost();
+        }
+    }
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.instance.GroupProperty;
+
+import static java.lang.Math.min;
+
+/**
+ * Delay between two attempts of a {@link StoreWorker} to store the write-behind entries of a map after the map
+ * store failed.
+ * <p/>
+ * The delay doubles with every failed round, starting from {@link #INITIAL_BACKOFF_MILLIS} up to
+ * {@link GroupProperty#MAP_WRITE_BEHIND_MAX_BACKOFF_MILLIS}. A successful round resets it. A maximum of 0
+ * disables the backoff. Only used by the thread running the store worker.
+ */
+final class WriteBehindBackoff {
+
+    static final long INITIAL_BACKOFF_MILLIS = 1000;
+
+    private final long maxBackoffMillis;
+
+    /**
+     * Current delay, 0 if the last round succeeded.
+     */
+    private long backoffMillis;
+
+    /**
+     * Entries are not stored before this time.
+     */
+    private long nextRunTime;
+
+    WriteBehindBackoff(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * @return {@code true} if the owned entries must not be stored at this time.
+     */
+    boolean isBackingOff(long now) {
+        return now < nextRunTime;
+    }
+
+    /**
+     * @return the delay until the next store attempt.
+     */
+    long onRoundFailed(long now) {
+        if (maxBackoffMillis <= 0) {
+            return 0;
+        }
+        backoffMillis = min(backoffMillis == 0 ? INITIAL_BACKOFF_MILLIS : backoffMillis * 2, maxBackoffMillis);
+        nextRunTime = now + backoffMillis;
+        return backoffMillis;
+    }
+
+    void onRoundSucceeded() {
+        backoffMillis = 0;
+        nextRunTime = 0;
+    }
+
+    long getBackoffMillis() {
+        return backoffMillis;
+    }
+}
@@ -55,8 +55,8 @@ public class WriteBehindManager implements MapStoreManager {
     public WriteBehindManager(MapStoreContext mapStoreContext) {
         this.mapStoreContext = mapStoreContext;
         this.writeBehindProcessor = newWriteBehindProcessor(mapStoreContext);
-        this.storeWorker = new StoreWorker(mapStoreContext, writeBehindProcessor);
         this.executorName = EXECUTOR_NAME_PREFIX + mapStoreContext.getMapName();
+        this.storeWorker = new StoreWorker(mapStoreContext, writeBehindProcessor, executorName);
         final MapServiceContext mapServiceContext = mapStoreContext.getMapServiceContext();
         this.scheduledExecutor = getScheduledExecutorService(mapServiceContext);
     }
@@ -89,7 +89,10 @@ public class WriteBehindManager implements MapStoreManager {
     private ScheduledExecutorService getScheduledExecutorService(MapServiceContext mapServiceContext) {
         final NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
         final ExecutionService executionService = nodeEngine.getExecutionService();
-        executionService.register(executorName, 1, EXECUTOR_DEFAULT_QUEUE_CAPACITY, ExecutorType.CACHED);
+        // one thread runs the store worker, the others store its partition groups.
+        final int concurrency = StoreWorker.getStoreConcurrency(nodeEngine.getGroupProperties());
+        final int poolSize = concurrency == 1 ? 1 : concurrency + 1;
+        executionService.register(executorName, poolSize, EXECUTOR_DEFAULT_QUEUE_CAPACITY, ExecutorType.CACHED);
         return executionService.getScheduledExecutor(executorName);
     }
 
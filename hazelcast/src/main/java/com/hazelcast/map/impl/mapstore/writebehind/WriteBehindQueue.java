@@ -104,5 +104,12 @@ public interface WriteBehindQueue<E> {
      */
     void getFrontByNumber(int numberOfElements, Collection<E> collection);
 
+    /**
+     * Returns the approximate number of bytes the elements of this queue occupy on the heap.
+     *
+     * @return the heap cost of the elements of this queue in bytes.
+     */
+    long getHeapCost();
+
 }
 
@@ -16,25 +16,81 @@
 
 package com.hazelcast.map.impl.mapstore.writebehind;
 
+import com.hazelcast.map.impl.mapstore.writebehind.entry.DelayedEntry;
+import com.hazelcast.nio.serialization.Data;
+
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A class providing static factory methods that create write behind queues.
  */
 public final class WriteBehindQueues {
 
+    /**
+     * Heap cost of a delayed entry without its key and value: object header, key and value references,
+     * store time and partition id.
+     */
+    private static final int DELAYED_ENTRY_COST_IN_BYTES = 32;
+
     private WriteBehindQueues() {
     }
 
     public static WriteBehindQueue createBoundedWriteBehindQueue(int maxCapacity, AtomicInteger counter) {
+        return createBoundedWriteBehindQueue(maxCapacity, counter, 0, null);
+    }
+
+    /**
+     * Creates a non-coalescing write behind queue which is bounded by the node-wide item counter and,
+     * if <code>maxBytes</code> is positive, by the node-wide byte counter.
+     */
+    public static WriteBehindQueue createBoundedWriteBehindQueue(int maxCapacity, AtomicInteger counter,
+                                                                 long maxBytes, AtomicLong byteCounter) {
         final WriteBehindQueue queue = createCyclicWriteBehindQueue();
         final WriteBehindQueue boundedQueue = createBoundedWriteBehindQueue(maxCapacity, counter, queue);
-        return createSynchronizedWriteBehindQueue(boundedQueue);
+        return createSynchronizedWriteBehindQueue(createByteBoundedWriteBehindQueue(maxBytes, byteCounter, boundedQueue));
     }
 
     public static <T> WriteBehindQueue<T> createDefaultWriteBehindQueue() {
+        return createDefaultWriteBehindQueue(0, null);
+    }
+
+    /**
+     * Creates a write coalescing write behind queue which is bounded by the node-wide byte counter if
+     * <code>maxBytes</code> is positive.
+     */
+    public static <T> WriteBehindQueue<T> createDefaultWriteBehindQueue(long maxBytes, AtomicLong byteCounter) {
         final WriteBehindQueue queue = createCoalescedWriteBehindQueue();
-        return createSynchronizedWriteBehindQueue(queue);
+        return createSynchronizedWriteBehindQueue(createByteBoundedWriteBehindQueue(maxBytes, byteCounter, queue));
+    }
+
+    /**
+     * Returns the approximate number of bytes a delayed entry occupies on the heap. Only keys and values stored as
+     * {@link Data} are accounted for, which is why the byte bound is only applied to the write-behind queues of
+     * {@link com.hazelcast.config.InMemoryFormat#BINARY} maps.
+     */
+    static long getEntryHeapCost(DelayedEntry entry) {
+        if (entry == null) {
+            return 0;
+        }
+        long heapCost = DELAYED_ENTRY_COST_IN_BYTES;
+        Object key = entry.getKey();
+        if (key instanceof Data) {
+            heapCost += ((Data) key).getHeapCost();
+        }
+        Object value = entry.getValue();
+        if (value instanceof Data) {
+            heapCost += ((Data) value).getHeapCost();
+        }
+        return heapCost;
+    }
+
+    private static WriteBehindQueue createByteBoundedWriteBehindQueue(long maxBytes, AtomicLong byteCounter,
+                                                                      WriteBehindQueue queue) {
+        if (maxBytes <= 0) {
+            return queue;
+        }
+        return new ByteBoundedWriteBehindQueue(maxBytes, byteCounter, queue);
     }
 
     private static WriteBehindQueue createSynchronizedWriteBehindQueue(WriteBehindQueue queue) {
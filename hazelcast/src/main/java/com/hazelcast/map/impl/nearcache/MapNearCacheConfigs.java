@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.nearcache;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NearCacheConfig;
+
+/**
+ * Translates the map style near cache configuration (max-size and eviction-policy) to the
+ * {@link EvictionConfig} the near cache record stores are configured with. Shared by the member and
+ * the client side near caches of maps.
+ */
+public final class MapNearCacheConfigs {
+
+    private MapNearCacheConfigs() {
+    }
+
+    /**
+     * Creates the configuration of the record store backing a map near cache.
+     *
+     * The record store evicts by entry count with the configured eviction policy. Full map near caches evict
+     * a fifth of their entries at once through a {@link MapNearCacheEvictor}, so the record store only evicts
+     * when concurrent puts overrun the max-size. Record stores don't support {@link EvictionPolicy#RANDOM},
+     * they use the default eviction policy instead and random eviction is done by the {@link MapNearCacheEvictor}.
+     * For {@link EvictionPolicy#NONE}, eviction is never triggered since full near caches refuse new entries
+     * (see {@link #isEvictionDisabled(NearCacheConfig)}). A {@link InMemoryFormat#NATIVE} near cache keeps
+     * an eviction config with {@link EvictionConfig.MaxSizePolicy#USED_NATIVE_MEMORY_SIZE}, so its size can
+     * be limited by off-heap memory instead.
+     *
+     * @param name            the name of the near cache
+     * @param nearCacheConfig the map near cache configuration
+     * @return the configuration of the record store
+     */
+    public static NearCacheConfig toRecordStoreConfig(String name, NearCacheConfig nearCacheConfig) {
+        NearCacheConfig recordStoreConfig = new NearCacheConfig(nearCacheConfig);
+        recordStoreConfig.setName(name);
+        EvictionConfig evictionConfig = nearCacheConfig.getEvictionConfig();
+        if (nearCacheConfig.getInMemoryFormat() == InMemoryFormat.NATIVE && evictionConfig != null
+                && evictionConfig.getMaximumSizePolicy() == EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE) {
+            return recordStoreConfig;
+        }
+        EvictionPolicy evictionPolicy = getEvictionPolicy(nearCacheConfig);
+        if (evictionPolicy == EvictionPolicy.NONE || evictionPolicy == EvictionPolicy.RANDOM) {
+            evictionPolicy = EvictionConfig.DEFAULT_EVICTION_POLICY;
+        }
+        recordStoreConfig.setEvictionConfig(new EvictionConfig(getMaxSize(nearCacheConfig),
+                EvictionConfig.MaxSizePolicy.ENTRY_COUNT, evictionPolicy));
+        return recordStoreConfig;
+    }
+
+    /**
+     * @param nearCacheConfig the map near cache configuration
+     * @return the maximum entry count of the near cache, 0 meaning {@link Integer#MAX_VALUE}
+     */
+    public static int getMaxSize(NearCacheConfig nearCacheConfig) {
+        int maxSize = nearCacheConfig.getMaxSize();
+        return maxSize <= 0 ? Integer.MAX_VALUE : maxSize;
+    }
+
+    /**
+     * @param nearCacheConfig the map near cache configuration
+     * @return <code>true</code> if a full near cache refuses new entries instead of evicting
+     */
+    public static boolean isEvictionDisabled(NearCacheConfig nearCacheConfig) {
+        return getEvictionPolicy(nearCacheConfig) == EvictionPolicy.NONE;
+    }
+
+    /**
+     * @param nearCacheConfig the map near cache configuration
+     * @return the eviction policy of the near cache
+     */
+    public static EvictionPolicy getEvictionPolicy(NearCacheConfig nearCacheConfig) {
+        return EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.nearcache;
+
+import com.hazelcast.cache.impl.nearcache.impl.DefaultNearCache;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.NearCacheConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Evicts entries of a full map near cache. Like the map near caches always did, a fifth of the entries is
+ * evicted at once when the max-size is reached, so the near cache doesn't evict on every put once it is full.
+ *
+ * LRU and LFU entries are evicted by the eviction policy of the record store. The record stores don't support
+ * {@link EvictionPolicy#RANDOM}, so random eviction removes randomly chosen keys here.
+ *
+ * @param <K> the type of the key
+ */
+public final class MapNearCacheEvictor<K> {
+
+    private static final double EVICTION_FACTOR = 0.2;
+
+    private final DefaultNearCache<K, Object> nearCache;
+    private final int maxSize;
+    private final int evictedSize;
+    private final boolean randomEviction;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public MapNearCacheEvictor(DefaultNearCache<K, Object> nearCache, NearCacheConfig nearCacheConfig) {
+        this.nearCache = nearCache;
+        this.maxSize = MapNearCacheConfigs.getMaxSize(nearCacheConfig);
+        this.evictedSize = (int) (maxSize * (1 - EVICTION_FACTOR));
+        this.randomEviction = MapNearCacheConfigs.getEvictionPolicy(nearCacheConfig) == EvictionPolicy.RANDOM;
+    }
+
+    /**
+     * Evicts a fifth of the entries if the near cache is full. Only one caller evicts at a time, the others
+     * put their entries meanwhile and rely on the record store to keep the near cache within its max-size.
+     */
+    public void evictIfFull() {
+        if (nearCache.size() < maxSize || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (randomEviction) {
+                evictRandomKeys();
+            } else {
+                evictByPolicy();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void evictByPolicy() {
+        int size = nearCache.size();
+        while (size > evictedSize) {
+            nearCache.evict();
+            int sizeAfterEviction = nearCache.size();
+            if (sizeAfterEviction >= size) {
+                // nothing was evicted, e.g. all sampled records were removed concurrently
+                return;
+            }
+            size = sizeAfterEviction;
+        }
+    }
+
+    private void evictRandomKeys() {
+        List<K> keys = new ArrayList<K>(nearCache.getKeys());
+        Collections.shuffle(keys);
+        int evictionCount = keys.size() - evictedSize;
+        for (int i = 0; i < evictionCount; i++) {
+            nearCache.invalidate(keys.get(i));
+        }
+    }
+}
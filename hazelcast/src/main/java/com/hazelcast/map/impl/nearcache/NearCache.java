@@ -16,264 +16,199 @@
 
 package com.hazelcast.map.impl.nearcache;
 
-import com.hazelcast.config.Config;
-import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.cache.impl.nearcache.NearCacheContext;
+import com.hazelcast.cache.impl.nearcache.NearCacheExecutor;
+import com.hazelcast.cache.impl.nearcache.impl.DefaultNearCache;
+import com.hazelcast.cache.impl.nearcache.impl.SharedNativeStorage;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
-import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.nearcache.invalidation.Invalidation;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationMetaData;
+import com.hazelcast.map.impl.nearcache.invalidation.RepairingHandler;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
 import com.hazelcast.nio.serialization.Data;
-import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.partition.InternalPartitionService;
 import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.NodeEngine;
-import com.hazelcast.util.Clock;
-import com.hazelcast.util.ExceptionUtil;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Map;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.RejectedExecutionException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * NearCache.
+ * Near cache of a map on a member.
+ *
+ * Entries are kept in the same {@link com.hazelcast.cache.impl.nearcache.NearCacheRecordStore}s as the
+ * near caches of JCache, so maps get their sampling based eviction, expiration, off-heap storage and
+ * admission policy. This class adapts them to the map semantics: <code>null</code> values are cached as
+ * {@link #NULL_OBJECT}, a full near cache evicts a fifth of its entries through a {@link MapNearCacheEvictor}
+ * and a full near cache with eviction policy NONE refuses new entries.
+ *
+ * Invalidations sent by the partition owners are checked by a {@link RepairingHandler}, all keys of a partition
+ * are invalidated when invalidations of that partition were missed.
  */
 public class NearCache {
     /**
      * Used when caching nonexistent values.
      */
-    public static final Object NULL_OBJECT = new Object();
+    public static final Object NULL_OBJECT = com.hazelcast.cache.impl.nearcache.NearCache.NULL_OBJECT;
     public static final String NEAR_CACHE_EXECUTOR_NAME = "hz:near-cache";
-    private static final double EVICTION_FACTOR = 0.2;
-    private static final int CLEANUP_INTERVAL = 5000;
+
     private final int maxSize;
-    private volatile long lastCleanup;
-    private final long maxIdleMillis;
-    private final long timeToLiveMillis;
-    private final EvictionPolicy evictionPolicy;
+    private final boolean evictionDisabled;
     private final InMemoryFormat inMemoryFormat;
-    private final NodeEngine nodeEngine;
-    private final AtomicBoolean canCleanUp;
-    private final AtomicBoolean canEvict;
-    private final ConcurrentMap<Data, NearCacheRecord> cache;
-    private final NearCacheStatsImpl nearCacheStats;
     private final SerializationService serializationService;
-    private final Comparator<NearCacheRecord> selectedComparator;
-
-    private SizeEstimator nearCacheSizeEstimator;
+    private final InternalPartitionService partitionService;
+    private final RepairingHandler repairingHandler;
+    private final DefaultNearCache<Data, Object> nearCache;
+    private final MapNearCacheEvictor<Data> evictor;
 
     /**
-     * @param mapName    name of map which owns near cache.
-     * @param nodeEngine node engine.
+     * @param mapName       name of map which owns near cache.
+     * @param nodeEngine    node engine.
+     * @param sharedStorage the storage of off-heap near caches if native memory is not enabled on the member.
      */
-    public NearCache(String mapName, NodeEngine nodeEngine) {
-        this.nodeEngine = nodeEngine;
-        Config config = nodeEngine.getConfig();
-        NearCacheConfig nearCacheConfig = config.findMapConfig(mapName).getNearCacheConfig();
-        maxSize = nearCacheConfig.getMaxSize() <= 0 ? Integer.MAX_VALUE : nearCacheConfig.getMaxSize();
-        maxIdleMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getMaxIdleSeconds());
-        inMemoryFormat = nearCacheConfig.getInMemoryFormat();
-        timeToLiveMillis = TimeUnit.SECONDS.toMillis(nearCacheConfig.getTimeToLiveSeconds());
-        evictionPolicy = EvictionPolicy.valueOf(nearCacheConfig.getEvictionPolicy());
-        selectedComparator = NearCacheRecord.getComparator(evictionPolicy);
-        cache = new ConcurrentHashMap<Data, NearCacheRecord>();
-        canCleanUp = new AtomicBoolean(true);
-        canEvict = new AtomicBoolean(true);
-        nearCacheStats = new NearCacheStatsImpl();
-        lastCleanup = Clock.currentTimeMillis();
-        serializationService = nodeEngine.getSerializationService();
+    public NearCache(String mapName, NodeEngine nodeEngine, SharedNativeStorage sharedStorage) {
+        NearCacheConfig nearCacheConfig = nodeEngine.getConfig().findMapConfig(mapName).getNearCacheConfig();
+        this.maxSize = MapNearCacheConfigs.getMaxSize(nearCacheConfig);
+        this.evictionDisabled = MapNearCacheConfigs.isEvictionDisabled(nearCacheConfig);
+        this.inMemoryFormat = nearCacheConfig.getInMemoryFormat();
+        this.serializationService = nodeEngine.getSerializationService();
+        this.partitionService = nodeEngine.getPartitionService();
+        this.repairingHandler = new RepairingHandler(partitionService.getPartitionCount());
+        NearCacheContext nearCacheContext = new NearCacheContext(serializationService,
+                new MemberNearCacheExecutor(nodeEngine.getExecutionService()));
+        if (inMemoryFormat == InMemoryFormat.NATIVE) {
+            nearCacheContext.setNativeDataStorage(nodeEngine.getConfig().getNativeMemoryConfig().isEnabled()
+                    ? nodeEngine.getOffHeapStorage() : sharedStorage.get());
+        }
+        this.nearCache = new DefaultNearCache<Data, Object>(mapName,
+                MapNearCacheConfigs.toRecordStoreConfig(mapName, nearCacheConfig), nearCacheContext);
+        this.evictor = new MapNearCacheEvictor<Data>(nearCache, nearCacheConfig);
     }
 
     // this operation returns the given value in near-cache memory format (data or object)
     public Object put(Data key, Data data) {
-        fireTtlCleanup();
-        if (evictionPolicy == EvictionPolicy.NONE && cache.size() >= maxSize) {
+        Object value = toNearCacheFormat(data);
+        if (evictionDisabled && nearCache.size() >= maxSize) {
             // no more space in near-cache -> return given value in near-cache format
-            if (data == null) {
-                return null;
-            } else {
-                return inMemoryFormat.equals(InMemoryFormat.OBJECT) ? serializationService.toObject(data) : data;
-            }
-        }
-        if (evictionPolicy != EvictionPolicy.NONE && cache.size() >= maxSize) {
-            fireEvictCache();
+            return value;
         }
-        final Object value;
+        evictor.evictIfFull();
+        nearCache.put(key, value == null ? NULL_OBJECT : value);
+        return value;
+    }
+
+    private Object toNearCacheFormat(Data data) {
         if (data == null) {
-            value = NULL_OBJECT;
-        } else {
-            value = inMemoryFormat.equals(InMemoryFormat.OBJECT) ? serializationService.toObject(data) : data;
-        }
-        final NearCacheRecord record = new NearCacheRecord(key, value);
-        cache.put(key, record);
-        updateSizeEstimator(calculateCost(record));
-        if (NULL_OBJECT.equals(value)) {
             return null;
-        } else {
-            return value;
         }
+        return inMemoryFormat == InMemoryFormat.OBJECT ? serializationService.toObject(data) : data;
     }
 
     public NearCacheStatsImpl getNearCacheStats() {
-        return createNearCacheStats();
+        return (NearCacheStatsImpl) nearCache.getNearCacheStats();
     }
 
-    private NearCacheStatsImpl createNearCacheStats() {
-        long ownedEntryCount = 0;
-        long ownedEntryMemoryCost = 0;
-        for (NearCacheRecord record : cache.values()) {
-            ownedEntryCount++;
-            ownedEntryMemoryCost += record.getCost();
-        }
-        nearCacheStats.setOwnedEntryCount(ownedEntryCount);
-        nearCacheStats.setOwnedEntryMemoryCost(ownedEntryMemoryCost);
-        return nearCacheStats;
+    public Object get(Data key) {
+        return nearCache.get(key);
     }
 
-    private void fireEvictCache() {
-        if (canEvict.compareAndSet(true, false)) {
-            try {
-                final ExecutionService executionService = nodeEngine.getExecutionService();
-                executionService.execute(NEAR_CACHE_EXECUTOR_NAME, new Runnable() {
-                    public void run() {
-                        try {
-                            TreeSet<NearCacheRecord> records = new TreeSet<NearCacheRecord>(selectedComparator);
-                            records.addAll(cache.values());
-                            int evictSize = (int) (cache.size() * EVICTION_FACTOR);
-                            int i = 0;
-                            for (NearCacheRecord record : records) {
-                                cache.remove(record.getKey());
-                                updateSizeEstimator(-calculateCost(record));
-                                if (++i > evictSize) {
-                                    break;
-                                }
-                            }
-                        } finally {
-                            canEvict.set(true);
-                        }
-
-                        if (cache.size() >= maxSize && canEvict.compareAndSet(true, false)) {
-                            try {
-                                executionService.execute(NEAR_CACHE_EXECUTOR_NAME, this);
-                            } catch (RejectedExecutionException e) {
-                                canEvict.set(true);
-                            }
-                        }
-                    }
-                });
-            } catch (RejectedExecutionException e) {
-                canEvict.set(true);
-            } catch (Exception e) {
-                throw ExceptionUtil.rethrow(e);
-            }
-        }
+    public void invalidate(Data key) {
+        nearCache.invalidate(key);
     }
 
-    private void fireTtlCleanup() {
-        if (Clock.currentTimeMillis() < (lastCleanup + CLEANUP_INTERVAL)) {
+    public void invalidate(Collection<Data> keys) {
+        if (keys == null || keys.isEmpty()) {
             return;
         }
-
-        if (canCleanUp.compareAndSet(true, false)) {
-            try {
-                nodeEngine.getExecutionService().execute(NEAR_CACHE_EXECUTOR_NAME, new Runnable() {
-                    public void run() {
-                        try {
-                            lastCleanup = Clock.currentTimeMillis();
-                            for (Map.Entry<Data, NearCacheRecord> entry : cache.entrySet()) {
-                                if (entry.getValue().isExpired(maxIdleMillis, timeToLiveMillis)) {
-                                    final Data key = entry.getKey();
-                                    final NearCacheRecord record = cache.remove(key);
-                                    //if a mapping exists.
-                                    if (record != null) {
-                                        updateSizeEstimator(-calculateCost(record));
-                                    }
-                                }
-                            }
-                        } finally {
-                            canCleanUp.set(true);
-                        }
-                    }
-                });
-            } catch (RejectedExecutionException e) {
-                canCleanUp.set(true);
-            } catch (Exception e) {
-                throw ExceptionUtil.rethrow(e);
-            }
+        for (Data key : keys) {
+            invalidate(key);
         }
     }
 
-    public Object get(Data key) {
-        fireTtlCleanup();
-        NearCacheRecord record = cache.get(key);
-        if (record != null) {
-            if (record.isExpired(maxIdleMillis, timeToLiveMillis)) {
-                cache.remove(key);
-                updateSizeEstimator(-calculateCost(record));
-                nearCacheStats.incrementMisses();
-                return null;
+    /**
+     * Applies invalidations sent by the owners of the partitions.
+     */
+    public void applyInvalidations(List<Invalidation> invalidations) {
+        Set<Integer> partitionsToRepair = null;
+        for (Invalidation invalidation : invalidations) {
+            Data key = invalidation.getKey();
+            if (repairingHandler.checkSequence(invalidation) || key == null) {
+                if (partitionsToRepair == null) {
+                    partitionsToRepair = new HashSet<Integer>();
+                }
+                partitionsToRepair.add(invalidation.getPartitionId());
+            } else {
+                invalidate(key);
             }
-            nearCacheStats.incrementHits();
-            record.access();
-            return record.getValue();
-        } else {
-            nearCacheStats.incrementMisses();
-            return null;
+        }
+        if (partitionsToRepair != null) {
+            invalidatePartitions(partitionsToRepair);
         }
     }
 
-    public void invalidate(Data key) {
-        final NearCacheRecord record = cache.remove(key);
-        // if a mapping exists for the key.
-        if (record != null) {
-            updateSizeEstimator(-calculateCost(record));
+    /**
+     * Seeds the invalidation sequences with the metadata of a partition owner. The metadata is fetched after the
+     * near cache was created, so the partitions of which invalidations may have been missed in between are repaired.
+     */
+    public void initializeInvalidationMetaData(InvalidationMetaData metaData) {
+        Set<Integer> partitionsToRepair = new HashSet<Integer>();
+        for (int i = 0; i < metaData.size(); i++) {
+            int partitionId = metaData.getPartitionId(i);
+            if (repairingHandler.initialize(partitionId, metaData.getPartitionUuid(i), metaData.getSequence(i))) {
+                partitionsToRepair.add(partitionId);
+            }
+        }
+        if (!partitionsToRepair.isEmpty()) {
+            invalidatePartitions(partitionsToRepair);
         }
     }
 
-    public void invalidate(Collection<Data> keys) {
-        if (keys == null || keys.isEmpty()) {
-            return;
-        }
-        for (Data key : keys) {
-            invalidate(key);
+    /**
+     * Invalidates all keys of the given partitions.
+     */
+    public void invalidatePartitions(Set<Integer> partitionIds) {
+        for (Data key : nearCache.getKeys()) {
+            if (partitionIds.contains(partitionService.getPartitionId(key))) {
+                nearCache.invalidate(key);
+            }
         }
     }
 
     public int size() {
-        return cache.size();
+        return nearCache.size();
     }
 
     public void clear() {
-        cache.clear();
-        resetSizeEstimator();
+        nearCache.clear();
     }
 
-    public Map<Data, NearCacheRecord> getReadonlyMap() {
-        return Collections.unmodifiableMap(cache);
-    }
-
-    private void resetSizeEstimator() {
-        getNearCacheSizeEstimator().reset();
+    /**
+     * Clears the near cache and stops its background tasks.
+     */
+    public void destroy() {
+        nearCache.destroy();
     }
 
-    private void updateSizeEstimator(long size) {
-        getNearCacheSizeEstimator().add(size);
-    }
+    /**
+     * Runs the background tasks of near caches on the near cache executor of the member.
+     */
+    private static final class MemberNearCacheExecutor implements NearCacheExecutor {
 
-    private long calculateCost(NearCacheRecord record) {
-        return getNearCacheSizeEstimator().getCost(record);
-    }
+        private final ExecutionService executionService;
 
-    public SizeEstimator getNearCacheSizeEstimator() {
-        return nearCacheSizeEstimator;
-    }
+        private MemberNearCacheExecutor(ExecutionService executionService) {
+            this.executionService = executionService;
+        }
 
-    public void setNearCacheSizeEstimator(SizeEstimator nearCacheSizeEstimator) {
-        this.nearCacheSizeEstimator = nearCacheSizeEstimator;
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            return executionService.scheduleWithFixedDelay(NEAR_CACHE_EXECUTOR_NAME, command, initialDelay, delay, unit);
+        }
     }
 }
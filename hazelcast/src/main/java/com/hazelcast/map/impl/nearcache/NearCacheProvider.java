@@ -16,24 +16,30 @@
 
 package com.hazelcast.map.impl.nearcache;
 
-import com.hazelcast.core.HazelcastException;
+import com.hazelcast.cache.impl.nearcache.impl.SharedNativeStorage;
 import com.hazelcast.core.Member;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
-import com.hazelcast.map.impl.SizeEstimator;
-import com.hazelcast.map.impl.operation.InvalidateNearCacheOperation;
-import com.hazelcast.map.impl.operation.NearCacheKeySetInvalidationOperation;
+import com.hazelcast.map.impl.nearcache.invalidation.Invalidation;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationMetaData;
+import com.hazelcast.map.impl.nearcache.invalidation.NearCacheInvalidator;
+import com.hazelcast.map.impl.operation.NearCacheInvalidationMetaDataOperation;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationService;
 import com.hazelcast.util.ConcurrencyUtil;
 import com.hazelcast.util.ConstructorFunction;
 
 import java.util.Collection;
-import java.util.Set;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
 
 /**
  * Provides near cache specific functionality.
@@ -45,37 +51,67 @@ public class NearCacheProvider {
     private final ConstructorFunction<String, NearCache> nearCacheConstructor = new ConstructorFunction<String, NearCache>() {
         @Override
         public NearCache createNew(String mapName) {
-            MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
-            SizeEstimator nearCacheSizeEstimator = mapContainer.getNearCacheSizeEstimator();
-            NearCache nearCache = new NearCache(mapName, nodeEngine);
-            nearCache.setNearCacheSizeEstimator(nearCacheSizeEstimator);
+            NearCache nearCache = new NearCache(mapName, nodeEngine, sharedStorage);
+            seedInvalidationMetaData(mapName, nearCache);
             return nearCache;
         }
     };
 
     private final MapServiceContext mapServiceContext;
     private final NodeEngine nodeEngine;
+    private final NearCacheInvalidator invalidator;
+    private final SharedNativeStorage sharedStorage;
 
     public NearCacheProvider(MapServiceContext mapServiceContext, NodeEngine nodeEngine) {
         this.mapServiceContext = mapServiceContext;
         this.nodeEngine = nodeEngine;
+        this.invalidator = new NearCacheInvalidator(mapServiceContext);
+        this.sharedStorage = new SharedNativeStorage(nodeEngine.getConfig().getNativeMemoryConfig());
+    }
+
+    public NearCacheInvalidator getInvalidator() {
+        return invalidator;
     }
 
     public NearCache getNearCache(String mapName) {
         return ConcurrencyUtil.getOrPutIfAbsent(nearCacheMap, mapName, nearCacheConstructor);
     }
 
+    // fetched asynchronously since near caches are also created on partition threads
+    private void seedInvalidationMetaData(final String mapName, final NearCache nearCache) {
+        nodeEngine.getExecutionService().execute(ExecutionService.ASYNC_EXECUTOR, new Runnable() {
+            @Override
+            public void run() {
+                OperationService operationService = nodeEngine.getOperationService();
+                for (Member member : nodeEngine.getClusterService().getMembers(DATA_MEMBER_SELECTOR)) {
+                    Operation operation = new NearCacheInvalidationMetaDataOperation(mapName);
+                    try {
+                        Future<InvalidationMetaData> future = operationService.invokeOnTarget(MapService.SERVICE_NAME,
+                                operation, member.getAddress());
+                        nearCache.initializeInvalidationMetaData(future.get());
+                    } catch (Exception e) {
+                        // the partitions of the member stay unseeded and are repaired on their first invalidation
+                        nodeEngine.getLogger(NearCacheProvider.class).finest("Could not fetch near cache invalidation "
+                                + "metadata of map " + mapName + " from " + member, e);
+                    }
+                }
+            }
+        });
+    }
+
     public void clear() {
         for (NearCache nearCache : nearCacheMap.values()) {
-            nearCache.clear();
+            nearCache.destroy();
         }
         nearCacheMap.clear();
+        sharedStorage.destroy();
     }
 
     public void remove(String mapName) {
+        invalidator.destroy(mapName);
         NearCache nearCache = nearCacheMap.remove(mapName);
         if (nearCache != null) {
-            nearCache.clear();
+            nearCache.destroy();
         }
     }
 
@@ -105,29 +141,41 @@ public class NearCacheProvider {
         }
     }
 
-    public void invalidateAllNearCaches(String mapName, Data key) {
+    /**
+     * Applies the invalidations sent by the owners of the partitions to the near cache of this member.
+     */
+    public void applyInvalidations(String mapName, List<Invalidation> invalidations) {
         if (!isNearCacheEnabled(mapName)) {
             return;
         }
-        Collection<Member> members = nodeEngine.getClusterService().getMembers();
-        for (Member member : members) {
-            try {
-                if (member.localMember()) {
-                    continue;
-                }
-                Operation operation = new InvalidateNearCacheOperation(mapName, key).setServiceName(MapService.SERVICE_NAME);
-                nodeEngine.getOperationService().send(operation, member.getAddress());
-            } catch (Throwable throwable) {
-                throw new HazelcastException(throwable);
-            }
-        }
+        getNearCache(mapName).applyInvalidations(invalidations);
+    }
+
+    /**
+     * Invalidates a key in all near caches. Remote near caches receive the invalidation in a batch.
+     */
+    public void invalidateAllNearCaches(String mapName, Data key) {
+        invalidator.invalidate(mapName, key);
         // below local invalidation is for the case the data is cached before partition is owned/migrated
         invalidateNearCache(mapName, key);
     }
 
+    /**
+     * Invalidates all keys of a partition in all near caches, e.g. after the partition of the map was cleared.
+     */
+    public void invalidateAllNearCaches(String mapName, int partitionId) {
+        invalidator.invalidatePartition(mapName, partitionId);
+    }
+
+    /**
+     * @return {@code true} if the mutations of the map have to invalidate near caches of members or clients
+     */
     public boolean isNearCacheAndInvalidationEnabled(String mapName) {
         MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
-        return mapContainer.isNearCacheEnabled() && mapContainer.getMapConfig().getNearCacheConfig().isInvalidateOnChange();
+        if (mapContainer.isNearCacheEnabled() && mapContainer.getMapConfig().getNearCacheConfig().isInvalidateOnChange()) {
+            return true;
+        }
+        return invalidator.hasInvalidationListeners(mapName);
     }
 
     public boolean isNearCacheEnabled(String mapName) {
@@ -135,30 +183,12 @@ public class NearCacheProvider {
         return mapContainer.isNearCacheEnabled();
     }
 
-    public void invalidateAllNearCaches(String mapName, Set<Data> keys) {
-        if (!isNearCacheEnabled(mapName)) {
-            return;
-        }
+    public void invalidateAllNearCaches(String mapName, Collection<Data> keys) {
         if (keys == null || keys.isEmpty()) {
             return;
         }
-        //send operation.
-        Operation operation = new NearCacheKeySetInvalidationOperation(mapName, keys)
-                .setServiceName(MapService.SERVICE_NAME);
-        Collection<Member> members = nodeEngine.getClusterService().getMembers();
-        for (Member member : members) {
-            try {
-                if (member.localMember()) {
-                    continue;
-                }
-                nodeEngine.getOperationService().send(operation, member.getAddress());
-            } catch (Throwable throwable) {
-                nodeEngine.getLogger(getClass()).warning(throwable);
-            }
-        }
-        // below local invalidation is for the case the data is cached before partition is owned/migrated
-        for (final Data key : keys) {
-            invalidateNearCache(mapName, key);
+        for (Data key : keys) {
+            invalidateAllNearCaches(mapName, key);
         }
     }
 
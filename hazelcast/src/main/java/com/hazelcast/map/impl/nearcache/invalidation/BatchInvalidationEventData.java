@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.map.impl.event.EventData;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of near cache {@link Invalidation}s of a map, published to the near cache invalidation listeners.
+ * Invalidations of the same partition are ordered by their sequence numbers.
+ */
+public class BatchInvalidationEventData implements EventData {
+
+    private String source;
+    private String mapName;
+    private List<Invalidation> invalidations;
+
+    public BatchInvalidationEventData() {
+    }
+
+    public BatchInvalidationEventData(String source, String mapName, List<Invalidation> invalidations) {
+        this.source = source;
+        this.mapName = mapName;
+        this.invalidations = invalidations;
+    }
+
+    public List<Invalidation> getInvalidations() {
+        return invalidations == null ? Collections.<Invalidation>emptyList() : invalidations;
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String getMapName() {
+        return mapName;
+    }
+
+    @Override
+    public Address getCaller() {
+        return null;
+    }
+
+    @Override
+    public int getEventType() {
+        return -1;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(source);
+        out.writeUTF(mapName);
+        writeInvalidations(out, getInvalidations());
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        source = in.readUTF();
+        mapName = in.readUTF();
+        invalidations = readInvalidations(in);
+    }
+
+    static void writeInvalidations(ObjectDataOutput out, List<Invalidation> invalidations) throws IOException {
+        out.writeInt(invalidations.size());
+        for (Invalidation invalidation : invalidations) {
+            invalidation.writeData(out);
+        }
+    }
+
+    static List<Invalidation> readInvalidations(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        List<Invalidation> invalidations = new ArrayList<Invalidation>(size);
+        for (int i = 0; i < size; i++) {
+            Invalidation invalidation = new Invalidation();
+            invalidation.readData(in);
+            invalidations.add(invalidation);
+        }
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchInvalidationEventData{"
+                + "mapName='" + mapName + '\''
+                + ", size=" + getInvalidations().size()
+                + '}';
+    }
+}
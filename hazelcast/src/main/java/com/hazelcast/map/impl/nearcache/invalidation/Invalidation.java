@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+
+/**
+ * A near cache invalidation of a single key, or of all keys of a partition when the key is {@code null}.
+ * <p/>
+ * The owner of the partition numbers the invalidations of every map and partition, so receivers can detect
+ * the invalidations they missed. Sequence numbers are only comparable between invalidations carrying the
+ * same partition UUID; the UUID changes whenever the partition gets a new owner.
+ */
+public class Invalidation implements DataSerializable {
+
+    private Data key;
+    private int partitionId;
+    private String partitionUuid;
+    private long sequence;
+
+    public Invalidation() {
+    }
+
+    public Invalidation(Data key, int partitionId, String partitionUuid, long sequence) {
+        this.key = key;
+        this.partitionId = partitionId;
+        this.partitionUuid = partitionUuid;
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return the invalidated key or {@code null} if all keys of the partition are invalidated
+     */
+    public Data getKey() {
+        return key;
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    public String getPartitionUuid() {
+        return partitionUuid;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeData(key);
+        out.writeInt(partitionId);
+        out.writeUTF(partitionUuid);
+        out.writeLong(sequence);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        key = in.readData();
+        partitionId = in.readInt();
+        partitionUuid = in.readUTF();
+        sequence = in.readLong();
+    }
+
+    @Override
+    public String toString() {
+        return "Invalidation{"
+                + "partitionId=" + partitionId
+                + ", partitionUuid='" + partitionUuid + '\''
+                + ", sequence=" + sequence
+                + ", key=" + key
+                + '}';
+    }
+}
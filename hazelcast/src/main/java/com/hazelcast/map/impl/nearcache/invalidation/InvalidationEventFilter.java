@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.spi.EventRegistration;
+import com.hazelcast.spi.ListenerWrapperEventFilter;
+import com.hazelcast.spi.NotifiableEventListener;
+
+import java.io.IOException;
+
+/**
+ * Marks the registrations of near cache invalidation listeners, they only receive batches of
+ * {@link Invalidation}s and no entry events.
+ * <p/>
+ * The filter is replicated with the registration to every member, so it also keeps the count of invalidation
+ * listeners of the map on each member up to date.
+ */
+public class InvalidationEventFilter
+        implements ListenerWrapperEventFilter, NotifiableEventListener<MapService>, DataSerializable {
+
+    @Override
+    public boolean eval(Object arg) {
+        return false;
+    }
+
+    @Override
+    public Object getListener() {
+        return this;
+    }
+
+    @Override
+    public void onRegister(MapService service, String serviceName, String topic, EventRegistration registration) {
+        service.getMapServiceContext().getNearCacheProvider().getInvalidator().onListenerRegistered(topic);
+    }
+
+    @Override
+    public void onDeregister(MapService service, String serviceName, String topic, EventRegistration registration) {
+        service.getMapServiceContext().getNearCacheProvider().getInvalidator().onListenerDeregistered(topic);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof InvalidationEventFilter;
+    }
+
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.core.IMapEvent;
+import com.hazelcast.map.impl.ListenerAdapter;
+
+import java.util.List;
+
+/**
+ * Listener of the near cache invalidations of a map. Registered with the {@link com.hazelcast.spi.EventService}
+ * on the topic named after the map, with an {@link InvalidationEventFilter}.
+ */
+public abstract class InvalidationListenerAdapter implements ListenerAdapter {
+
+    /**
+     * Handles a batch of invalidations.
+     *
+     * @param mapName       the name of the map
+     * @param invalidations the invalidations, the ones of the same partition in sequence order
+     */
+    public abstract void onInvalidations(String mapName, List<Invalidation> invalidations);
+
+    @Override
+    public final void onEvent(IMapEvent event) {
+        throw new UnsupportedOperationException("Near cache invalidation listeners only receive invalidation batches");
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+
+/**
+ * The partition UUIDs and the sequences of the last generated invalidations of a map, for the partitions
+ * owned by a member. Used by near caches to reconcile the invalidations they received.
+ */
+public class InvalidationMetaData implements DataSerializable {
+
+    private int[] partitionIds;
+    private String[] partitionUuids;
+    private long[] sequences;
+
+    public InvalidationMetaData() {
+    }
+
+    public InvalidationMetaData(int[] partitionIds, String[] partitionUuids, long[] sequences) {
+        this.partitionIds = partitionIds;
+        this.partitionUuids = partitionUuids;
+        this.sequences = sequences;
+    }
+
+    public int size() {
+        return partitionIds.length;
+    }
+
+    public int getPartitionId(int index) {
+        return partitionIds[index];
+    }
+
+    public String getPartitionUuid(int index) {
+        return partitionUuids[index];
+    }
+
+    public long getSequence(int index) {
+        return sequences[index];
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(partitionIds.length);
+        for (int i = 0; i < partitionIds.length; i++) {
+            out.writeInt(partitionIds[i]);
+            out.writeUTF(partitionUuids[i]);
+            out.writeLong(sequences[i]);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        partitionIds = new int[size];
+        partitionUuids = new String[size];
+        sequences = new long[size];
+        for (int i = 0; i < size; i++) {
+            partitionIds[i] = in.readInt();
+            partitionUuids[i] = in.readUTF();
+            sequences[i] = in.readLong();
+        }
+    }
+}
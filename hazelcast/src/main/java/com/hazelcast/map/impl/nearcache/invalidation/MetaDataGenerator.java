@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+import static com.hazelcast.util.UuidUtil.newUnsecureUuidString;
+
+/**
+ * Generates the sequence numbers and partition UUIDs of the near cache invalidations of this member.
+ * <p/>
+ * Sequences are kept per map and partition and start over with a new partition UUID whenever the
+ * partition migrates, so receivers never compare the sequences of different owners.
+ */
+public class MetaDataGenerator {
+
+    private final int partitionCount;
+    private final AtomicReferenceArray<String> uuids;
+    private final ConcurrentMap<String, AtomicLongArray> sequences = new ConcurrentHashMap<String, AtomicLongArray>();
+    private final ConstructorFunction<String, AtomicLongArray> sequencesConstructor
+            = new ConstructorFunction<String, AtomicLongArray>() {
+        @Override
+        public AtomicLongArray createNew(String mapName) {
+            return new AtomicLongArray(partitionCount);
+        }
+    };
+
+    public MetaDataGenerator(int partitionCount) {
+        this.partitionCount = partitionCount;
+        this.uuids = new AtomicReferenceArray<String>(partitionCount);
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public long nextSequence(String mapName, int partitionId) {
+        return getOrPutIfAbsent(sequences, mapName, sequencesConstructor).incrementAndGet(partitionId);
+    }
+
+    public long currentSequence(String mapName, int partitionId) {
+        AtomicLongArray mapSequences = sequences.get(mapName);
+        return mapSequences == null ? 0 : mapSequences.get(partitionId);
+    }
+
+    public String getOrCreateUuid(int partitionId) {
+        String uuid = uuids.get(partitionId);
+        while (uuid == null) {
+            String newUuid = newUnsecureUuidString();
+            if (uuids.compareAndSet(partitionId, null, newUuid)) {
+                return newUuid;
+            }
+            uuid = uuids.get(partitionId);
+        }
+        return uuid;
+    }
+
+    /**
+     * Starts a new sequence for all maps of a partition, called when the partition is migrated to or from
+     * this member.
+     */
+    public void resetPartition(int partitionId) {
+        uuids.set(partitionId, null);
+        for (AtomicLongArray mapSequences : sequences.values()) {
+            mapSequences.set(partitionId, 0);
+        }
+    }
+
+    public void destroyMetaDataFor(String mapName) {
+        sequences.remove(mapName);
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.operation.NearCacheBatchInvalidationOperation;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.spi.EventRegistration;
+import com.hazelcast.spi.EventService;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+
+/**
+ * Sends the near cache invalidations of the partitions owned by this member to the near caches of the other
+ * members and to the near cache invalidation listeners of clients.
+ * <p/>
+ * Invalidations are numbered per map and partition by the {@link MetaDataGenerator} and buffered per map
+ * in a lock-free queue. The mutations of a partition run on its partition thread, so the invalidations
+ * of a partition are queued in sequence order. A full batch is sent by a task on the
+ * {@link ExecutionService#ASYNC_EXECUTOR}, the remaining invalidations are sent by a background task after
+ * at most {@link GroupProperty#MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS}. Hence a remote near cache may
+ * serve the old value of an entry for up to that period after the entry was updated.
+ */
+public class NearCacheInvalidator {
+
+    private final MapServiceContext mapServiceContext;
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final MetaDataGenerator metaDataGenerator;
+    private final int batchSize;
+    private final int batchFrequencySeconds;
+    private final AtomicBoolean flusherScheduled = new AtomicBoolean();
+    private final ConcurrentMap<String, InvalidationQueue> queues = new ConcurrentHashMap<String, InvalidationQueue>();
+    private final ConstructorFunction<String, InvalidationQueue> queueConstructor
+            = new ConstructorFunction<String, InvalidationQueue>() {
+        @Override
+        public InvalidationQueue createNew(String mapName) {
+            return new InvalidationQueue(mapName);
+        }
+    };
+    private final ConcurrentMap<String, AtomicInteger> listenerCounts = new ConcurrentHashMap<String, AtomicInteger>();
+    private final ConstructorFunction<String, AtomicInteger> listenerCountConstructor
+            = new ConstructorFunction<String, AtomicInteger>() {
+        @Override
+        public AtomicInteger createNew(String mapName) {
+            return new AtomicInteger();
+        }
+    };
+
+    public NearCacheInvalidator(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.logger = nodeEngine.getLogger(getClass());
+        this.metaDataGenerator = new MetaDataGenerator(nodeEngine.getPartitionService().getPartitionCount());
+        GroupProperties groupProperties = nodeEngine.getGroupProperties();
+        this.batchSize = Math.max(1, groupProperties.getInteger(GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_SIZE));
+        this.batchFrequencySeconds = Math.max(1,
+                groupProperties.getSeconds(GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS));
+    }
+
+    /**
+     * @return {@code true} if a client listens to the near cache invalidations of the map
+     */
+    public boolean hasInvalidationListeners(String mapName) {
+        AtomicInteger listenerCount = listenerCounts.get(mapName);
+        return listenerCount != null && listenerCount.get() > 0;
+    }
+
+    /**
+     * Called by the {@link InvalidationEventFilter} when an invalidation listener of the map is registered
+     * on this member.
+     */
+    void onListenerRegistered(String mapName) {
+        getOrPutIfAbsent(listenerCounts, mapName, listenerCountConstructor).incrementAndGet();
+    }
+
+    /**
+     * Called by the {@link InvalidationEventFilter} when an invalidation listener of the map is deregistered
+     * from this member.
+     */
+    void onListenerDeregistered(String mapName) {
+        getOrPutIfAbsent(listenerCounts, mapName, listenerCountConstructor).decrementAndGet();
+    }
+
+    /**
+     * Registers a listener for the near cache invalidations of a map.
+     *
+     * @return the id of the registration
+     */
+    public String addInvalidationListener(String mapName, InvalidationListenerAdapter listener) {
+        EventRegistration registration = nodeEngine.getEventService()
+                .registerListener(MapService.SERVICE_NAME, mapName, new InvalidationEventFilter(), listener);
+        return registration.getId();
+    }
+
+    /**
+     * Invalidates a key of a partition owned by this member in all remote near caches.
+     */
+    public void invalidate(String mapName, Data key) {
+        int partitionId = nodeEngine.getPartitionService().getPartitionId(key);
+        add(mapName, key, partitionId);
+    }
+
+    /**
+     * Invalidates all keys of a partition owned by this member in all remote near caches.
+     */
+    public void invalidatePartition(String mapName, int partitionId) {
+        add(mapName, null, partitionId);
+    }
+
+    private void add(String mapName, Data key, int partitionId) {
+        InvalidationQueue queue = getOrPutIfAbsent(queues, mapName, queueConstructor);
+        scheduleFlusher();
+        queue.add(key, partitionId);
+    }
+
+    /**
+     * Sends all buffered invalidations.
+     */
+    public void flush() {
+        for (InvalidationQueue queue : queues.values()) {
+            queue.flush();
+        }
+    }
+
+    /**
+     * Returns the invalidation metadata of a map for the partitions owned by this member.
+     */
+    public InvalidationMetaData getMetaData(String mapName) {
+        InternalPartitionService partitionService = nodeEngine.getPartitionService();
+        List<Integer> ownedPartitions = partitionService.getMemberPartitions(nodeEngine.getThisAddress());
+        int[] partitionIds = new int[ownedPartitions.size()];
+        String[] partitionUuids = new String[partitionIds.length];
+        long[] sequences = new long[partitionIds.length];
+        int index = 0;
+        for (Integer partitionId : ownedPartitions) {
+            partitionIds[index] = partitionId;
+            partitionUuids[index] = metaDataGenerator.getOrCreateUuid(partitionId);
+            sequences[index] = metaDataGenerator.currentSequence(mapName, partitionId);
+            index++;
+        }
+        return new InvalidationMetaData(partitionIds, partitionUuids, sequences);
+    }
+
+    /**
+     * Starts new sequences for a partition which migrated to or from this member.
+     */
+    public void resetPartition(int partitionId) {
+        metaDataGenerator.resetPartition(partitionId);
+    }
+
+    public void destroy(String mapName) {
+        InvalidationQueue queue = queues.remove(mapName);
+        if (queue != null) {
+            queue.flush();
+        }
+        metaDataGenerator.destroyMetaDataFor(mapName);
+    }
+
+    private Collection<EventRegistration> getInvalidationRegistrations(String mapName) {
+        Collection<EventRegistration> registrations = new LinkedList<EventRegistration>();
+        for (EventRegistration registration
+                : nodeEngine.getEventService().getRegistrations(MapService.SERVICE_NAME, mapName)) {
+            if (registration.getFilter() instanceof InvalidationEventFilter) {
+                registrations.add(registration);
+            }
+        }
+        return registrations;
+    }
+
+    private void send(String mapName, List<Invalidation> invalidations) {
+        if (mapServiceContext.getNearCacheProvider().isNearCacheEnabled(mapName)) {
+            Operation operation = new NearCacheBatchInvalidationOperation(mapName, invalidations)
+                    .setServiceName(MapService.SERVICE_NAME);
+            for (Member member : nodeEngine.getClusterService().getMembers()) {
+                if (member.localMember()) {
+                    continue;
+                }
+                try {
+                    nodeEngine.getOperationService().send(operation, member.getAddress());
+                } catch (Throwable throwable) {
+                    logger.warning(throwable);
+                }
+            }
+        }
+
+        if (!hasInvalidationListeners(mapName)) {
+            return;
+        }
+        Collection<EventRegistration> registrations = getInvalidationRegistrations(mapName);
+        if (!registrations.isEmpty()) {
+            EventService eventService = nodeEngine.getEventService();
+            String source = nodeEngine.getThisAddress().toString();
+            BatchInvalidationEventData eventData = new BatchInvalidationEventData(source, mapName, invalidations);
+            eventService.publishEvent(MapService.SERVICE_NAME, registrations, eventData, mapName.hashCode());
+        }
+    }
+
+    private void scheduleFlusher() {
+        if (!flusherScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        nodeEngine.getExecutionService().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Throwable t) {
+                    logger.log(Level.WARNING, "Could not send near cache invalidations", t);
+                }
+            }
+        }, batchFrequencySeconds, batchFrequencySeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The buffered invalidations of a map. Partition threads only assign a sequence and offer the invalidation,
+     * the batches are sent by a single drainer at a time, so invalidations leave in the order they were queued.
+     */
+    private final class InvalidationQueue implements Runnable {
+
+        private final String mapName;
+        private final ConcurrentLinkedQueue<Invalidation> invalidations = new ConcurrentLinkedQueue<Invalidation>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private InvalidationQueue(String mapName) {
+            this.mapName = mapName;
+        }
+
+        void add(Data key, int partitionId) {
+            String partitionUuid = metaDataGenerator.getOrCreateUuid(partitionId);
+            long sequence = metaDataGenerator.nextSequence(mapName, partitionId);
+            invalidations.offer(new Invalidation(key, partitionId, partitionUuid, sequence));
+            if (size.incrementAndGet() >= batchSize) {
+                scheduleDrain();
+            }
+        }
+
+        void flush() {
+            if (!draining.compareAndSet(false, true)) {
+                // the running drainer sends the invalidations
+                return;
+            }
+            try {
+                drain();
+            } finally {
+                draining.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                drain();
+            } finally {
+                draining.set(false);
+            }
+            // a batch may have filled up while the drainer was finishing
+            if (size.get() >= batchSize) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                nodeEngine.getExecutionService().execute(ExecutionService.ASYNC_EXECUTOR, this);
+            } catch (RejectedExecutionException e) {
+                // left to the background flusher
+                draining.set(false);
+                logger.finest("Could not schedule sending the near cache invalidations of map " + mapName, e);
+            }
+        }
+
+        private void drain() {
+            List<Invalidation> batch = new ArrayList<Invalidation>(batchSize);
+            Invalidation invalidation;
+            while ((invalidation = invalidations.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(invalidation);
+                if (batch.size() == batchSize) {
+                    send(mapName, batch);
+                    batch = new ArrayList<Invalidation>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                send(mapName, batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+/**
+ * Keeps track of the invalidations a near cache received per partition and decides which partitions
+ * have to be repaired, by invalidating all their keys, because invalidations were missed.
+ * <p/>
+ * Missed invalidations are detected in two ways:
+ * <ul>
+ * <li>a received invalidation skips sequence numbers or carries a new partition UUID,</li>
+ * <li>the sequence reported by the partition owner during a reconciliation was still not received
+ * at the next reconciliation. This catches the loss of the last invalidations of a partition,
+ * which no later invalidation would reveal.</li>
+ * </ul>
+ * The sequences are seeded from the metadata of the partition owners with {@link #initialize} when the near cache
+ * starts listening. Until a partition is seeded its history is unknown, so the partition is repaired on a first
+ * invalidation which is not the first one of the owner, or on a first seed or reconciliation with an owner which
+ * already sent invalidations.
+ */
+public class RepairingHandler {
+
+    private final String[] uuids;
+    private final long[] sequences;
+    private final long[] reconciledSequences;
+
+    public RepairingHandler(int partitionCount) {
+        this.uuids = new String[partitionCount];
+        this.sequences = new long[partitionCount];
+        this.reconciledSequences = new long[partitionCount];
+    }
+
+    /**
+     * Records a received invalidation.
+     *
+     * @return {@code true} if invalidations of the partition were missed and all its keys must be invalidated
+     */
+    public synchronized boolean checkSequence(Invalidation invalidation) {
+        int partitionId = invalidation.getPartitionId();
+        long sequence = invalidation.getSequence();
+        if (!invalidation.getPartitionUuid().equals(uuids[partitionId])) {
+            return resetPartition(partitionId, invalidation.getPartitionUuid(), sequence, sequence > 1);
+        }
+        long lastSequence = sequences[partitionId];
+        if (sequence > lastSequence) {
+            sequences[partitionId] = sequence;
+        }
+        return sequence > lastSequence + 1;
+    }
+
+    /**
+     * Compares the sequence of a partition with the one reported by its owner.
+     *
+     * @param partitionId   the id of the partition
+     * @param partitionUuid the partition UUID of the owner
+     * @param ownerSequence the sequence of the last invalidation generated by the owner
+     * @return {@code true} if invalidations of the partition were missed and all its keys must be invalidated
+     */
+    public synchronized boolean reconcile(int partitionId, String partitionUuid, long ownerSequence) {
+        if (!partitionUuid.equals(uuids[partitionId])) {
+            return resetPartition(partitionId, partitionUuid, ownerSequence, ownerSequence > 0);
+        }
+        // the sequence reported last time may have been in flight, it must have arrived by now
+        long reconciledSequence = reconciledSequences[partitionId];
+        boolean missed = reconciledSequence > sequences[partitionId];
+        if (missed) {
+            sequences[partitionId] = reconciledSequence;
+        }
+        reconciledSequences[partitionId] = ownerSequence;
+        return missed;
+    }
+
+    /**
+     * Seeds the sequence of a partition with the one reported by its owner. Ignored if invalidations of the
+     * partition were already received.
+     *
+     * @return {@code true} if entries cached before the seed may have missed invalidations and all keys of the
+     * partition must be invalidated
+     */
+    public synchronized boolean initialize(int partitionId, String partitionUuid, long ownerSequence) {
+        if (uuids[partitionId] != null) {
+            return false;
+        }
+        return resetPartition(partitionId, partitionUuid, ownerSequence, ownerSequence > 0);
+    }
+
+    /**
+     * Forgets all sequences, e.g. after the near cache was cleared.
+     */
+    public synchronized void reset() {
+        for (int partitionId = 0; partitionId < uuids.length; partitionId++) {
+            uuids[partitionId] = null;
+            sequences[partitionId] = 0;
+            reconciledSequences[partitionId] = 0;
+        }
+    }
+
+    // a new owner numbers from scratch, what the previous owner sent after the last received sequence is unknown
+    private boolean resetPartition(int partitionId, String partitionUuid, long sequence, boolean missedIfUnseeded) {
+        boolean missed = uuids[partitionId] != null || missedIfUnseeded;
+        uuids[partitionId] = partitionUuid;
+        sequences[partitionId] = sequence;
+        reconciledSequences[partitionId] = 0;
+        return missed;
+    }
+}
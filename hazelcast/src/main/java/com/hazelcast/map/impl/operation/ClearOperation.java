@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.operation;
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.spi.BackupAwareOperation;
 import com.hazelcast.spi.impl.MutatingOperation;
@@ -62,6 +63,16 @@ public class ClearOperation extends AbstractMapOperation implements BackupAwareO
     public void afterRun() throws Exception {
         super.afterRun();
         hintMapEvent();
+        if (numberOfClearedEntries > 0) {
+            invalidateNearCaches();
+        }
+    }
+
+    private void invalidateNearCaches() {
+        NearCacheProvider nearCacheProvider = mapService.getMapServiceContext().getNearCacheProvider();
+        if (nearCacheProvider.isNearCacheAndInvalidationEnabled(name)) {
+            nearCacheProvider.invalidateAllNearCaches(name, getPartitionId());
+        }
     }
 
     private void hintMapEvent() {
@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.operation;
 import com.hazelcast.core.EntryEventType;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.nearcache.NearCacheProvider;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -65,6 +66,16 @@ public class EvictAllOperation extends AbstractMapOperation implements BackupAwa
     public void afterRun() throws Exception {
         super.afterRun();
         hintMapEvent();
+        if (numberOfEvictedEntries > 0) {
+            invalidateNearCaches();
+        }
+    }
+
+    private void invalidateNearCaches() {
+        NearCacheProvider nearCacheProvider = mapService.getMapServiceContext().getNearCacheProvider();
+        if (nearCacheProvider.isNearCacheAndInvalidationEnabled(name)) {
+            nearCacheProvider.invalidateAllNearCaches(name, getPartitionId());
+        }
     }
 
     private void hintMapEvent() {
@@ -119,12 +119,8 @@ public abstract class KeyBasedMapOperation extends Operation implements Partitio
     }
 
     protected final void invalidateNearCaches() {
-        if (!mapContainer.isNearCacheEnabled()) {
-            return;
-        }
-
-        if (mapContainer.getMapConfig().getNearCacheConfig().isInvalidateOnChange()) {
-            NearCacheProvider nearCacheProvider = mapService.getMapServiceContext().getNearCacheProvider();
+        NearCacheProvider nearCacheProvider = mapService.getMapServiceContext().getNearCacheProvider();
+        if (nearCacheProvider.isNearCacheAndInvalidationEnabled(name)) {
             nearCacheProvider.invalidateAllNearCaches(name, dataKey);
         }
     }
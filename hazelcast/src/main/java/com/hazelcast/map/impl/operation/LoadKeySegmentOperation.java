@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+/**
+ * Loads a key segment of a {@link com.hazelcast.core.MapLoaderSegmentSupport} loader on the target member
+ * and sends the keys to their partitions for loading.
+ * <p/>
+ * The segment is loaded in the background; the response, the number of keys of the segment, is sent once all
+ * of its keys were sent to their partitions.
+ */
+public class LoadKeySegmentOperation extends AbstractMapOperation {
+
+    private int segment;
+    private int maxKeys;
+    private boolean replaceExistingValues;
+
+    public LoadKeySegmentOperation() {
+    }
+
+    public LoadKeySegmentOperation(String name, int segment, int maxKeys, boolean replaceExistingValues) {
+        super(name);
+        this.segment = segment;
+        this.maxKeys = maxKeys;
+        this.replaceExistingValues = replaceExistingValues;
+    }
+
+    @Override
+    public void run() throws Exception {
+        mapService.getMapServiceContext().getMapKeySegmentLoader().loadSegment(name, segment, maxKeys,
+                replaceExistingValues, new ExecutionCallback<Integer>() {
+                    @Override
+                    public void onResponse(Integer keyCount) {
+                        sendResponse(keyCount);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        sendResponse(t);
+                    }
+                });
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public Object getResponse() {
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(segment);
+        out.writeInt(maxKeys);
+        out.writeBoolean(replaceExistingValues);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        segment = in.readInt();
+        maxKeys = in.readInt();
+        replaceExistingValues = in.readBoolean();
+    }
+}
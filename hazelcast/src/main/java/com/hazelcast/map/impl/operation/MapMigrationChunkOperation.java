@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.impl.MutatingOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.map.impl.operation.MapReplicationOperation.createRecordReplicationInfo;
+
+/**
+ * Carries a chunk of the records of a migrating partition to the destination, where the records are kept until the
+ * final {@link MapReplicationOperation} applies them together with the changes made while the chunks were in flight.
+ */
+public class MapMigrationChunkOperation extends AbstractOperation implements MutatingOperation {
+
+    private Map<String, Collection<RecordReplicationInfo>> data;
+
+    public MapMigrationChunkOperation() {
+    }
+
+    public MapMigrationChunkOperation(MapService mapService, int partitionId, Map<String, Collection<Record>> records) {
+        setPartitionId(partitionId);
+
+        data = new HashMap<String, Collection<RecordReplicationInfo>>(records.size());
+        for (Map.Entry<String, Collection<Record>> entry : records.entrySet()) {
+            Collection<RecordReplicationInfo> recordReplicationInfos
+                    = new ArrayList<RecordReplicationInfo>(entry.getValue().size());
+            for (Record record : entry.getValue()) {
+                recordReplicationInfos.add(createRecordReplicationInfo(record, mapService));
+            }
+            data.put(entry.getKey(), recordReplicationInfos);
+        }
+    }
+
+    @Override
+    public void run() {
+        MapService mapService = getService();
+        PartitionContainer container = mapService.getMapServiceContext().getPartitionContainer(getPartitionId());
+        for (Map.Entry<String, Collection<RecordReplicationInfo>> entry : data.entrySet()) {
+            container.addMigrationChunk(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(data.size());
+        for (Map.Entry<String, Collection<RecordReplicationInfo>> entry : data.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (RecordReplicationInfo recordReplicationInfo : entry.getValue()) {
+                out.writeObject(recordReplicationInfo);
+            }
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        data = new HashMap<String, Collection<RecordReplicationInfo>>(size);
+        for (int i = 0; i < size; i++) {
+            String name = in.readUTF();
+            int recordCount = in.readInt();
+            Collection<RecordReplicationInfo> recordReplicationInfos = new ArrayList<RecordReplicationInfo>(recordCount);
+            for (int j = 0; j < recordCount; j++) {
+                RecordReplicationInfo recordReplicationInfo = in.readObject();
+                recordReplicationInfos.add(recordReplicationInfo);
+            }
+            data.put(name, recordReplicationInfos);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapReplicaDigest;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
@@ -30,6 +31,7 @@ import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordInfo;
 import com.hazelcast.map.impl.record.RecordReplicationInfo;
 import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
@@ -40,6 +42,7 @@ import com.hazelcast.util.Clock;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -55,6 +58,19 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
     private Map<String, Set<RecordReplicationInfo>> data;
     private Map<String, Collection<DelayedEntry>> delayedEntries;
 
+    /**
+     * Keys removed while the partition was copied in chunks, by map name; {@code null} if the partition has not been
+     * copied in chunks. Records of the chunks are only applied for the maps contained.
+     */
+    private Map<String, Collection<Data>> removedKeys;
+
+    /**
+     * Key ranges synchronized with the digest of a backup replica by map name, indexed by range; {@code null} if the
+     * replica is copied entirely. Only the records of the ranges marked are carried and replaced on the backup, the
+     * record stores of the maps missing are replaced entirely.
+     */
+    private Map<String, boolean[]> syncedRanges;
+
     public MapReplicationOperation() {
     }
 
@@ -71,20 +87,111 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
                 continue;
             }
             String name = entry.getKey();
-            // now prepare data to migrate records
-            Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>(recordStore.size());
-            final Iterator<Record> iterator = recordStore.iterator();
-            while (iterator.hasNext()) {
-                final Record record = iterator.next();
-                RecordReplicationInfo recordReplicationInfo;
-                recordReplicationInfo = createRecordReplicationInfo(record, mapService);
-                recordSet.add(recordReplicationInfo);
+            data.put(name, copyRecords(recordStore, mapService));
+        }
+        readDelayedEntries(container);
+    }
+
+    /**
+     * Creates the final operation of a migration for a partition which has been copied in chunks. Only the records
+     * mutated meanwhile are carried, the destination applies them on top of the received chunks.
+     *
+     * @param mutatedKeys the keys mutated since the copying started by map name; maps missing are copied entirely
+     */
+    public MapReplicationOperation(MapService mapService, PartitionContainer container, int partitionId,
+                                   Map<String, Set<Data>> mutatedKeys) {
+        this.setPartitionId(partitionId).setReplicaIndex(0);
+
+        data = new HashMap<String, Set<RecordReplicationInfo>>(container.getMaps().size());
+        removedKeys = new HashMap<String, Collection<Data>>(mutatedKeys.size());
+        for (Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            String name = entry.getKey();
+            RecordStore recordStore = entry.getValue();
+            Set<Data> keys = mutatedKeys.get(name);
+            if (keys == null) {
+                data.put(name, copyRecords(recordStore, mapService));
+                continue;
+            }
+            Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>(keys.size());
+            Collection<Data> removed = new ArrayList<Data>();
+            for (Data key : keys) {
+                Record record = recordStore.getRecord(key);
+                if (record == null) {
+                    removed.add(key);
+                } else {
+                    recordSet.add(createRecordReplicationInfo(record, mapService));
+                }
             }
             data.put(name, recordSet);
+            removedKeys.put(name, removed);
+        }
+        readDelayedEntries(container);
+    }
+
+    /**
+     * Creates the operation bringing a backup replica up to date, carrying only the records of the key ranges which
+     * differ from the given digest of the backup replica.
+     */
+    public MapReplicationOperation(MapService mapService, PartitionContainer container, int partitionId,
+                                   int replicaIndex, MapReplicaDigest digest) {
+        this.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+
+        SerializationService serializationService = mapService.getMapServiceContext().getNodeEngine()
+                .getSerializationService();
+        data = new HashMap<String, Set<RecordReplicationInfo>>(container.getMaps().size());
+        syncedRanges = new HashMap<String, boolean[]>(container.getMaps().size());
+        for (Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            RecordStore recordStore = entry.getValue();
+            if (recordStore.getMapContainer().getMapConfig().getTotalBackupCount() < replicaIndex) {
+                continue;
+            }
+            String name = entry.getKey();
+            long[] backupHashes = digest.getRangeHashes(name);
+            if (backupHashes == null) {
+                data.put(name, copyRecords(recordStore, mapService));
+                continue;
+            }
+            long[] hashes = MapReplicaDigest.computeRangeHashes(recordStore, backupHashes.length, serializationService);
+            boolean[] ranges = MapReplicaDigest.getDifferingRanges(hashes, backupHashes);
+            if (ranges == null) {
+                // the replica of the map is up to date, nothing to replace
+                ranges = new boolean[backupHashes.length];
+            }
+            data.put(name, copyRecords(recordStore, mapService, ranges));
+            syncedRanges.put(name, ranges);
+        }
+        for (String name : digest.getMapNames()) {
+            if (!data.containsKey(name) && container.getExistingRecordStore(name) == null) {
+                // the map has no records on the owner anymore, the backup replica is cleared
+                data.put(name, Collections.<RecordReplicationInfo>emptySet());
+            }
         }
         readDelayedEntries(container);
     }
 
+    private Set<RecordReplicationInfo> copyRecords(RecordStore recordStore, MapService mapService, boolean[] ranges) {
+        Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>();
+        for (Record record : recordStore.getRecordMap().values()) {
+            if (ranges[MapReplicaDigest.getRange(record.getKey(), ranges.length)]) {
+                recordSet.add(createRecordReplicationInfo(record, mapService));
+            }
+        }
+        return recordSet;
+    }
+
+    private Set<RecordReplicationInfo> copyRecords(RecordStore recordStore, MapService mapService) {
+        // now prepare data to migrate records
+        Set<RecordReplicationInfo> recordSet = new HashSet<RecordReplicationInfo>(recordStore.size());
+        final Iterator<Record> iterator = recordStore.iterator();
+        while (iterator.hasNext()) {
+            final Record record = iterator.next();
+            RecordReplicationInfo recordReplicationInfo;
+            recordReplicationInfo = createRecordReplicationInfo(record, mapService);
+            recordSet.add(recordReplicationInfo);
+        }
+        return recordSet;
+    }
+
     private void readDelayedEntries(PartitionContainer container) {
         delayedEntries = new HashMap<String, Collection<DelayedEntry>>(container.getMaps().size());
         for (Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
@@ -107,20 +214,28 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
     public void run() {
         MapService mapService = getService();
         final MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        final Map<String, List<RecordReplicationInfo>> chunks = removedKeys != null
+                ? mapServiceContext.getPartitionContainer(getPartitionId()).removeMigrationChunks()
+                : Collections.<String, List<RecordReplicationInfo>>emptyMap();
         if (data != null) {
             for (Entry<String, Set<RecordReplicationInfo>> dataEntry : data.entrySet()) {
                 Set<RecordReplicationInfo> recordReplicationInfos = dataEntry.getValue();
                 final String mapName = dataEntry.getKey();
                 RecordStore recordStore = mapServiceContext.getRecordStore(getPartitionId(), mapName);
-                recordStore.reset();
+                boolean[] ranges = syncedRanges != null ? syncedRanges.get(mapName) : null;
+                if (ranges != null) {
+                    removeRecords(recordStore, ranges);
+                } else {
+                    recordStore.reset();
+                }
 
+                Collection<Data> removed = removedKeys != null ? removedKeys.get(mapName) : null;
+                List<RecordReplicationInfo> chunkRecords = chunks.get(mapName);
+                if (removed != null && chunkRecords != null) {
+                    putChunkRecords(recordStore, chunkRecords, recordReplicationInfos, removed);
+                }
                 for (RecordReplicationInfo recordReplicationInfo : recordReplicationInfos) {
-                    Data key = recordReplicationInfo.getKey();
-                    final Data value = recordReplicationInfo.getValue();
-                    final MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
-                    Record newRecord = mapContainer.createRecord(key, value, -1L, Clock.currentTimeMillis());
-                    applyRecordInfo(newRecord, recordReplicationInfo);
-                    recordStore.putRecord(key, newRecord);
+                    putRecord(recordStore, recordReplicationInfo);
                 }
             }
         }
@@ -137,6 +252,46 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
         }
     }
 
+    /**
+     * Removes the records of the given key ranges, which are replaced by the ones of the owner replica.
+     */
+    private void removeRecords(RecordStore recordStore, boolean[] ranges) {
+        Collection<Data> keys = new ArrayList<Data>();
+        for (Data key : recordStore.getRecordMap().keySet()) {
+            if (ranges[MapReplicaDigest.getRange(key, ranges.length)]) {
+                keys.add(key);
+            }
+        }
+        for (Data key : keys) {
+            recordStore.removeRecord(key);
+        }
+    }
+
+    /**
+     * Puts the records received in migration chunks, except the ones mutated while the chunks were in flight.
+     */
+    private void putChunkRecords(RecordStore recordStore, List<RecordReplicationInfo> chunkRecords,
+                                 Set<RecordReplicationInfo> mutatedRecords, Collection<Data> removed) {
+        Set<Data> mutatedKeys = new HashSet<Data>(removed);
+        for (RecordReplicationInfo recordReplicationInfo : mutatedRecords) {
+            mutatedKeys.add(recordReplicationInfo.getKey());
+        }
+        for (RecordReplicationInfo recordReplicationInfo : chunkRecords) {
+            if (!mutatedKeys.contains(recordReplicationInfo.getKey())) {
+                putRecord(recordStore, recordReplicationInfo);
+            }
+        }
+    }
+
+    private void putRecord(RecordStore recordStore, RecordReplicationInfo recordReplicationInfo) {
+        Data key = recordReplicationInfo.getKey();
+        final Data value = recordReplicationInfo.getValue();
+        final MapContainer mapContainer = recordStore.getMapContainer();
+        Record newRecord = mapContainer.createRecord(key, value, -1L, Clock.currentTimeMillis());
+        applyRecordInfo(newRecord, recordReplicationInfo);
+        recordStore.putRecord(key, newRecord);
+    }
+
     @Override
     public String getServiceName() {
         return MapService.SERVICE_NAME;
@@ -156,6 +311,8 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
             }
             data.put(name, recordReplicationInfos);
         }
+        readRemovedKeys(in);
+        readSyncedRanges(in);
         size = in.readInt();
         delayedEntries = new HashMap<String, Collection<DelayedEntry>>(size);
         for (int i = 0; i < size; i++) {
@@ -186,6 +343,8 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
                 out.writeObject(recordReplicationInfo);
             }
         }
+        writeRemovedKeys(out);
+        writeSyncedRanges(out);
         final MapService mapService = getService();
         final MapServiceContext mapServiceContext = mapService.getMapServiceContext();
         out.writeInt(delayedEntries.size());
@@ -204,11 +363,82 @@ public class MapReplicationOperation extends AbstractOperation implements Mutati
         }
     }
 
+    private void writeRemovedKeys(ObjectDataOutput out) throws IOException {
+        out.writeInt(removedKeys != null ? removedKeys.size() : -1);
+        if (removedKeys == null) {
+            return;
+        }
+        for (Entry<String, Collection<Data>> entry : removedKeys.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Data key : entry.getValue()) {
+                out.writeData(key);
+            }
+        }
+    }
+
+    private void readRemovedKeys(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return;
+        }
+        removedKeys = new HashMap<String, Collection<Data>>(size);
+        for (int i = 0; i < size; i++) {
+            String mapName = in.readUTF();
+            int keyCount = in.readInt();
+            Collection<Data> keys = new ArrayList<Data>(keyCount);
+            for (int j = 0; j < keyCount; j++) {
+                keys.add(in.readData());
+            }
+            removedKeys.put(mapName, keys);
+        }
+    }
+
+    private void writeSyncedRanges(ObjectDataOutput out) throws IOException {
+        out.writeInt(syncedRanges != null ? syncedRanges.size() : -1);
+        if (syncedRanges == null) {
+            return;
+        }
+        for (Entry<String, boolean[]> entry : syncedRanges.entrySet()) {
+            boolean[] ranges = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeInt(ranges.length);
+            // only the indexes of the ranges marked are written
+            int count = 0;
+            for (boolean synced : ranges) {
+                count += synced ? 1 : 0;
+            }
+            out.writeInt(count);
+            for (int i = 0; i < ranges.length; i++) {
+                if (ranges[i]) {
+                    out.writeInt(i);
+                }
+            }
+        }
+    }
+
+    private void readSyncedRanges(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return;
+        }
+        syncedRanges = new HashMap<String, boolean[]>(size);
+        for (int i = 0; i < size; i++) {
+            String mapName = in.readUTF();
+            boolean[] ranges = new boolean[in.readInt()];
+            int count = in.readInt();
+            for (int j = 0; j < count; j++) {
+                ranges[in.readInt()] = true;
+            }
+            syncedRanges.put(mapName, ranges);
+        }
+    }
+
     public boolean isEmpty() {
         return data == null || data.isEmpty();
     }
 
-    private RecordReplicationInfo createRecordReplicationInfo(Record record, MapService mapService) {
+    static RecordReplicationInfo createRecordReplicationInfo(Record record, MapService mapService) {
         final RecordInfo info = Records.buildRecordInfo(record);
         return new RecordReplicationInfo(record.getKey(), mapService.getMapServiceContext().toData(record.getValue()),
                 info);
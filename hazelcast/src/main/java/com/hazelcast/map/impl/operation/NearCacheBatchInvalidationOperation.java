@@ -14,28 +14,35 @@
  * limitations under the License.
  */
 
+
 package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.nearcache.invalidation.Invalidation;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
-import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.AbstractOperation;
 import com.hazelcast.spi.impl.MutatingOperation;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
-public class InvalidateNearCacheOperation extends AbstractOperation implements MutatingOperation {
+/**
+ * Applies a batch of near cache {@link Invalidation}s of a map to the near cache of this member.
+ */
+public class NearCacheBatchInvalidationOperation extends AbstractOperation implements MutatingOperation {
 
-    private Data key;
     private String mapName;
+    private List<Invalidation> invalidations;
 
-    public InvalidateNearCacheOperation(String mapName, Data key) {
-        this.key = key;
-        this.mapName = mapName;
+    public NearCacheBatchInvalidationOperation() {
     }
 
-    public InvalidateNearCacheOperation() {
+    public NearCacheBatchInvalidationOperation(String mapName, List<Invalidation> invalidations) {
+        this.mapName = mapName;
+        this.invalidations = invalidations;
     }
 
     @Override
@@ -43,13 +50,14 @@ public class InvalidateNearCacheOperation extends AbstractOperation implements M
         return MapService.SERVICE_NAME;
     }
 
+    @Override
     public void run() {
         MapService mapService = getService();
         MapServiceContext mapServiceContext = mapService.getMapServiceContext();
         if (mapServiceContext.getMapContainer(mapName).isNearCacheEnabled()) {
-            mapServiceContext.getNearCacheProvider().invalidateNearCache(mapName, key);
+            mapServiceContext.getNearCacheProvider().applyInvalidations(mapName, invalidations);
         } else {
-            getLogger().warning("Cache clear operation has been accepted while near cache is not enabled for "
+            getLogger().warning("Near cache invalidations have been accepted while near cache is not enabled for "
                     + mapName + " map. Possible configuration conflict among nodes.");
         }
     }
@@ -60,21 +68,33 @@ public class InvalidateNearCacheOperation extends AbstractOperation implements M
     }
 
     @Override
-    public void readInternal(ObjectDataInput in) throws IOException {
-        super.readInternal(in);
-        mapName = in.readUTF();
-        key = in.readData();
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(mapName);
+        out.writeInt(invalidations.size());
+        for (Invalidation invalidation : invalidations) {
+            invalidation.writeData(out);
+        }
     }
 
     @Override
-    public void writeInternal(ObjectDataOutput out) throws IOException {
-        super.writeInternal(out);
-        out.writeUTF(mapName);
-        out.writeData(key);
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        mapName = in.readUTF();
+        int size = in.readInt();
+        invalidations = new ArrayList<Invalidation>(size);
+        for (int i = 0; i < size; i++) {
+            Invalidation invalidation = new Invalidation();
+            invalidation.readData(in);
+            invalidations.add(invalidation);
+        }
     }
 
     @Override
     public String toString() {
-        return "InvalidateNearCacheOperation{}";
+        return "NearCacheBatchInvalidationOperation{"
+                + "mapName='" + mapName + '\''
+                + ", size=" + invalidations.size()
+                + '}';
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.nearcache.invalidation.InvalidationMetaData;
+import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.spi.impl.AbstractNamedOperation;
+
+/**
+ * Returns the near cache {@link InvalidationMetaData} of a map for the partitions owned by this member.
+ */
+public class NearCacheInvalidationMetaDataOperation extends AbstractNamedOperation implements ReadonlyOperation {
+
+    private InvalidationMetaData response;
+
+    public NearCacheInvalidationMetaDataOperation() {
+    }
+
+    public NearCacheInvalidationMetaDataOperation(String mapName) {
+        super(mapName);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public void run() {
+        MapService mapService = getService();
+        response = mapService.getMapServiceContext().getNearCacheProvider().getInvalidator().getMetaData(name);
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCacheInvalidationMetaDataOperation{}";
+    }
+}
@@ -20,14 +20,18 @@ import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.publisher.QueryCachePublisherService;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.query.impl.BitmapIndexImpl;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.spi.AbstractOperation;
 import java.io.IOException;
 import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -37,6 +41,7 @@ public class PostJoinMapOperation extends AbstractOperation {
 
     private List<MapIndexInfo> indexInfoList = new LinkedList<MapIndexInfo>();
     private List<InterceptorInfo> interceptorInfoList = new LinkedList<InterceptorInfo>();
+    private List<PublisherInfo> publisherInfoList = new LinkedList<PublisherInfo>();
 
     @Override
     public String getServiceName() {
@@ -48,7 +53,7 @@ public class PostJoinMapOperation extends AbstractOperation {
         if (indexes.hasIndex()) {
             MapIndexInfo mapIndexInfo = new MapIndexInfo(mapContainer.getName());
             for (Index index : indexes.getIndexes()) {
-                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered());
+                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered(), index instanceof BitmapIndexImpl);
             }
             indexInfoList.add(mapIndexInfo);
         }
@@ -68,6 +73,10 @@ public class PostJoinMapOperation extends AbstractOperation {
         interceptorInfoList.add(interceptorInfo);
     }
 
+    public void addQueryCachePublishers(Collection<PublisherInfo> publisherInfos) {
+        publisherInfoList.addAll(publisherInfos);
+    }
+
     static class InterceptorInfo implements DataSerializable {
 
         private String mapName;
@@ -114,7 +123,7 @@ public class PostJoinMapOperation extends AbstractOperation {
             final MapContainer mapContainer = mapServiceContext.getMapContainer(mapIndex.mapName);
             final Indexes indexes = mapContainer.getIndexes();
             for (MapIndexInfo.IndexInfo indexInfo : mapIndex.lsIndexes) {
-                indexes.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered);
+                indexes.addOrGetIndex(indexInfo.attributeName, indexInfo.ordered, indexInfo.bitmap);
             }
         }
         for (InterceptorInfo interceptorInfo : interceptorInfoList) {
@@ -127,6 +136,10 @@ public class PostJoinMapOperation extends AbstractOperation {
                 }
             }
         }
+        QueryCachePublisherService publisherService = mapServiceContext.getQueryCachePublisherService();
+        for (PublisherInfo publisherInfo : publisherInfoList) {
+            publisherService.addPublisher(publisherInfo);
+        }
     }
 
     @Override
@@ -140,6 +153,10 @@ public class PostJoinMapOperation extends AbstractOperation {
         for (InterceptorInfo interceptorInfo : interceptorInfoList) {
             interceptorInfo.writeData(out);
         }
+        out.writeInt(publisherInfoList.size());
+        for (PublisherInfo publisherInfo : publisherInfoList) {
+            publisherInfo.writeData(out);
+        }
     }
 
     @Override
@@ -157,6 +174,12 @@ public class PostJoinMapOperation extends AbstractOperation {
             info.readData(in);
             interceptorInfoList.add(info);
         }
+        int size3 = in.readInt();
+        for (int i = 0; i < size3; i++) {
+            PublisherInfo publisherInfo = new PublisherInfo();
+            publisherInfo.readData(in);
+            publisherInfoList.add(publisherInfo);
+        }
     }
 
     static class MapIndexInfo implements DataSerializable {
@@ -173,30 +196,34 @@ public class PostJoinMapOperation extends AbstractOperation {
         static class IndexInfo implements DataSerializable {
             private String attributeName;
             private boolean ordered;
+            private boolean bitmap;
 
             IndexInfo() {
             }
 
-            IndexInfo(String attributeName, boolean ordered) {
+            IndexInfo(String attributeName, boolean ordered, boolean bitmap) {
                 this.attributeName = attributeName;
                 this.ordered = ordered;
+                this.bitmap = bitmap;
             }
 
             @Override
             public void writeData(ObjectDataOutput out) throws IOException {
                 out.writeUTF(attributeName);
                 out.writeBoolean(ordered);
+                out.writeBoolean(bitmap);
             }
 
             @Override
             public void readData(ObjectDataInput in) throws IOException {
                 attributeName = in.readUTF();
                 ordered = in.readBoolean();
+                bitmap = in.readBoolean();
             }
         }
 
-        public void addIndexInfo(String attributeName, boolean ordered) {
-            lsIndexes.add(new MapIndexInfo.IndexInfo(attributeName, ordered));
+        public void addIndexInfo(String attributeName, boolean ordered, boolean bitmap) {
+            lsIndexes.add(new MapIndexInfo.IndexInfo(attributeName, ordered, bitmap));
         }
 
         @Override
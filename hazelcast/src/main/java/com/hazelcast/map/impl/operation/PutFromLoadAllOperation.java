@@ -114,7 +114,11 @@ public class PutFromLoadAllOperation extends AbstractMapOperation implements Par
             dataKeys.add(key);
         }
         NearCacheProvider nearCacheProvider = mapService.getMapServiceContext().getNearCacheProvider();
-        nearCacheProvider.invalidateNearCache(name, dataKeys);
+        if (nearCacheProvider.isNearCacheAndInvalidationEnabled(name)) {
+            nearCacheProvider.invalidateAllNearCaches(name, dataKeys);
+        } else {
+            nearCacheProvider.invalidateNearCache(name, dataKeys);
+        }
     }
 
     @Override
@@ -17,6 +17,7 @@
 
 package com.hazelcast.map.impl.proxy;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.core.EntryListener;
 import com.hazelcast.core.EntryView;
 import com.hazelcast.core.ExecutionCallback;
@@ -26,11 +27,13 @@ import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IMap;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.MapInterceptor;
+import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.impl.query.MapQueryEngine;
 import com.hazelcast.map.impl.query.QueryResult;
 import com.hazelcast.map.impl.query.QueryResultCollection;
+import com.hazelcast.map.impl.querycache.subscriber.SubscriberRegistry;
 import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.mapreduce.Collator;
@@ -45,6 +48,7 @@ import com.hazelcast.mapreduce.ReducingSubmittableJob;
 import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
@@ -56,6 +60,7 @@ import com.hazelcast.util.executor.DelegatingFuture;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -712,6 +717,79 @@ public class MapProxyImpl<K, V> extends MapProxySupport implements IMap<K, V>, I
         }
     }
 
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator) {
+        return aggregate(aggregator, TruePredicate.INSTANCE);
+    }
+
+    @Override
+    public <R> R aggregate(Aggregator<Map.Entry<K, V>, R> aggregator, Predicate predicate) {
+        checkNotNull(aggregator, "Aggregator should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getMapQueryEngine().invokeAggregateAllPartitions(name, predicate, aggregator);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection) {
+        return project(projection, TruePredicate.INSTANCE);
+    }
+
+    @Override
+    public <R> Collection<R> project(Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        checkNotNull(projection, "Projection should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        QueryResult result = getMapQueryEngine().invokeQueryAllPartitions(name, predicate, projection);
+        return new QueryResultCollection<R>(getNodeEngine().getSerializationService(), IterationType.VALUE, false, false, result);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator(int fetchSize, Predicate predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getMapQueryEngine().iterateAllPartitions(name, predicate, IterationType.ENTRY, null, fetchSize);
+    }
+
+    @Override
+    public <R> Iterator<R> iterator(int fetchSize, Projection<Map.Entry<K, V>, R> projection, Predicate predicate) {
+        checkPositive(fetchSize, "fetchSize should be positive!");
+        checkNotNull(projection, "Projection should not be null!");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getMapQueryEngine().iterateAllPartitions(name, predicate, IterationType.VALUE, projection, fetchSize);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name) {
+        checkNotNull(name, "name cannot be null");
+
+        return getSubscriberRegistry().getOrCreate(this.name, name, null, null, null);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(name, "name cannot be null");
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getSubscriberRegistry().getOrCreate(this.name, name, predicate, includeValue, null);
+    }
+
+    @Override
+    public QueryCache<K, V> getQueryCache(String name, MapListener listener, Predicate<K, V> predicate,
+                                          boolean includeValue) {
+        checkNotNull(name, "name cannot be null");
+        checkNotNull(listener, NULL_LISTENER_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+
+        return getSubscriberRegistry().getOrCreate(this.name, name, predicate, includeValue, listener);
+    }
+
+    private SubscriberRegistry getSubscriberRegistry() {
+        return getQueryCacheContext().getSubscriberRegistry();
+    }
+
     protected Object invoke(Operation operation, int partitionId) throws Throwable {
         NodeEngine nodeEngine = getNodeEngine();
         Future f = nodeEngine.getOperationService().invokeOnPartition(SERVICE_NAME, operation, partitionId);
@@ -85,6 +85,7 @@ import com.hazelcast.map.impl.operation.SizeOperationFactory;
 import com.hazelcast.map.impl.operation.TryPutOperation;
 import com.hazelcast.map.impl.operation.TryRemoveOperation;
 import com.hazelcast.map.impl.query.MapQueryEngine;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
 import com.hazelcast.map.impl.query.QueryEventFilter;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.listener.MapListener;
@@ -201,7 +202,7 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     private void initializeIndexes() {
         for (MapIndexConfig index : getMapConfig().getMapIndexConfigs()) {
             if (index.getAttribute() != null) {
-                addIndex(index.getAttribute(), index.isOrdered());
+                addIndex(index.getAttribute(), index.isOrdered(), index.isBitmap());
             }
         }
     }
@@ -1080,11 +1081,15 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
     }
 
     public void addIndex(String attribute, boolean ordered) {
+        addIndex(attribute, ordered, false);
+    }
+
+    protected void addIndex(String attribute, boolean ordered, boolean bitmap) {
         if (attribute == null) {
             throw new IllegalArgumentException("Attribute name cannot be null");
         }
         try {
-            AddIndexOperation addIndexOperation = new AddIndexOperation(name, attribute, ordered);
+            AddIndexOperation addIndexOperation = new AddIndexOperation(name, attribute, ordered, bitmap);
             operationService.invokeOnAllPartitions(SERVICE_NAME, new BinaryOperationFactory(addIndexOperation, getNodeEngine()));
         } catch (Throwable t) {
             throw ExceptionUtil.rethrow(t);
@@ -1140,6 +1145,10 @@ abstract class MapProxySupport extends AbstractDistributedObject<MapService> imp
         return mapServiceContext.getMapQueryEngine();
     }
 
+    protected QueryCacheContext getQueryCacheContext() {
+        return mapServiceContext.getQueryCacheContext();
+    }
+
     protected MapStore getMapStore() {
         return mapContainer.getMapStoreContext().getMapStoreWrapper();
     }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.map.impl.operation.AbstractMapOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.ReadonlyOperation;
+
+import java.io.IOException;
+
+/**
+ * Aggregates the entries of a single partition on the partition thread.
+ */
+public class AggregationPartitionOperation extends AbstractMapOperation implements PartitionAwareOperation, ReadonlyOperation {
+
+    private Predicate predicate;
+    private Aggregator aggregator;
+    private AggregationResult result;
+
+    public AggregationPartitionOperation() {
+    }
+
+    public AggregationPartitionOperation(String mapName, Predicate predicate, Aggregator aggregator) {
+        super(mapName);
+        this.predicate = predicate;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public void run() {
+        MapQueryEngine queryEngine = mapService.getMapServiceContext().getMapQueryEngine();
+        result = queryEngine.aggregateLocalPartition(name, predicate, getPartitionId(), aggregator);
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeObject(predicate);
+        out.writeObject(aggregator);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        predicate = in.readObject();
+        aggregator = in.readObject();
+    }
+}
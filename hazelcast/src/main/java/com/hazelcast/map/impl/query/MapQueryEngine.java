@@ -16,10 +16,13 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.util.IterationType;
 
+import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
@@ -40,6 +43,20 @@ public interface MapQueryEngine {
     QueryResult queryLocalPartitions(String name, Predicate predicate, IterationType iterationType)
             throws ExecutionException, InterruptedException;
 
+    /**
+     * Executes a query on all the local partitions and applies the projection to every matching entry.
+     *
+     * @param name          the name of the map
+     * @param predicate     the predicate
+     * @param iterationType the IterationType; ignored if a projection is given.
+     * @param projection    the projection or null.
+     * @return the QueryResult
+     * @throws ExecutionException
+     * @throws InterruptedException
+     */
+    QueryResult queryLocalPartitions(String name, Predicate predicate, IterationType iterationType, Projection projection)
+            throws ExecutionException, InterruptedException;
+
     /**
      * Executes a query a specific local partition.
      *
@@ -52,6 +69,50 @@ public interface MapQueryEngine {
      */
     QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType);
 
+    /**
+     * Executes a query a specific local partition and applies the projection to every matching entry.
+     *
+     * @param mapName       map name.
+     * @param predicate     any predicate.
+     * @param partitionId   partition id.
+     * @param iterationType the IterationType; ignored if a projection is given.
+     * @param projection    the projection or null.
+     * @return result of query
+     */
+    QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType,
+                                    Projection projection);
+
+    /**
+     * Queries a chunk of a specific local partition. Must be called on the partition thread.
+     *
+     * @param mapName       map name.
+     * @param predicate     except paging predicate.
+     * @param partitionId   partition id.
+     * @param iterationType the IterationType; ignored if a projection is given.
+     * @param projection    the projection or null.
+     * @param tableIndex    the table index of the record store to continue from; {@link Integer#MAX_VALUE} to start.
+     * @param chunkSize     the number of matching entries to return at most, unless a bucket of the record store
+     *                      contains more.
+     * @return the chunk with the table index to continue from.
+     */
+    QueryResultChunk queryLocalPartitionChunk(String mapName, Predicate predicate, int partitionId, IterationType iterationType,
+                                              Projection projection, int tableIndex, int chunkSize);
+
+    /**
+     * Queries all partitions in chunks: the returned iterator pulls the result chunk by chunk and partition by partition,
+     * so large results can be iterated with bounded memory on the members and the caller. Paging predicates are not
+     * allowed.
+     *
+     * @param mapName       map name.
+     * @param predicate     except paging predicate.
+     * @param iterationType the IterationType; ignored if a projection is given.
+     * @param projection    the projection or null.
+     * @param chunkSize     the number of entries to fetch at once.
+     * @return a weakly consistent iterator over the deserialized result.
+     */
+    <E> Iterator<E> iterateAllPartitions(String mapName, Predicate predicate, IterationType iterationType,
+                                         Projection projection, int chunkSize);
+
     /**
      * Query all local partitions.
      *
@@ -73,6 +134,16 @@ public interface MapQueryEngine {
      */
     QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, IterationType iterationType);
 
+    /**
+     * Queries all partitions and applies the projection to every matching entry on the member owning the entry. Every row
+     * of the result only contains the serialized projection as value. Paging predicates are not allowed.
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param projection the projection.
+     */
+    QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, Projection projection);
+
     /**
      * Query all local partitions with a paging predicate.
      *
@@ -99,4 +170,40 @@ public interface MapQueryEngine {
      * @return {@link SortedQueryResultSet}
      */
     Set queryAllPartitionsWithPagingPredicate(String mapName, PagingPredicate pagingPredicate, IterationType iterationType);
+
+    /**
+     * Aggregates the entries matching the predicate of all local partitions. If the predicate can be evaluated using
+     * the indexes, the indexed entries are aggregated directly; otherwise every partition is aggregated on its
+     * partition thread. The partition results are combined into the given aggregator.
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param aggregator the aggregator.
+     * @return the AggregationResult; its partition ids are only set if the partitions didn't change while aggregating.
+     */
+    AggregationResult aggregateLocalPartitions(String mapName, Predicate predicate, Aggregator aggregator)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * Aggregates the entries matching the predicate of a local partition. Must be called on the partition thread.
+     *
+     * @param mapName     map name.
+     * @param predicate   except paging predicate.
+     * @param partitionId partition id.
+     * @param aggregator  the aggregator.
+     * @return the AggregationResult.
+     */
+    AggregationResult aggregateLocalPartition(String mapName, Predicate predicate, int partitionId, Aggregator aggregator);
+
+    /**
+     * Aggregates the entries matching the predicate of all partitions. Every member aggregates its own partitions, and
+     * the member results are combined on the caller. Partitions missed by the members, e.g. due to a migration, are
+     * aggregated one by one afterwards.
+     *
+     * @param mapName    map name.
+     * @param predicate  except paging predicate.
+     * @param aggregator the aggregator; it is copied and not modified.
+     * @return the result of the aggregation.
+     */
+    <R> R invokeAggregateAllPartitions(String mapName, Predicate predicate, Aggregator<?, R> aggregator);
 }
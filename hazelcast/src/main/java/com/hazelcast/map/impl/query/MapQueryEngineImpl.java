@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.cluster.ClusterService;
 import com.hazelcast.core.Member;
 import com.hazelcast.internal.serialization.SerializationService;
@@ -27,9 +28,11 @@ import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.PartitionContainer;
 import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
@@ -64,6 +67,7 @@ import static com.hazelcast.spi.ExecutionService.QUERY_EXECUTOR;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
 import static com.hazelcast.util.FutureUtil.RETHROW_EVERYTHING;
 import static com.hazelcast.util.FutureUtil.returnWithDeadline;
+import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.SortingUtil.compareAnchor;
 import static com.hazelcast.util.SortingUtil.getSortedQueryResultSet;
 import static com.hazelcast.util.SortingUtil.getSortedSubList;
@@ -112,6 +116,12 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     @Override
     public QueryResult queryLocalPartitions(String mapName, Predicate predicate, IterationType iterationType)
             throws ExecutionException, InterruptedException {
+        return queryLocalPartitions(mapName, predicate, iterationType, null);
+    }
+
+    @Override
+    public QueryResult queryLocalPartitions(String mapName, Predicate predicate, IterationType iterationType,
+                                            Projection projection) throws ExecutionException, InterruptedException {
 
         int initialPartitionStateVersion = partitionService.getPartitionStateVersion();
         Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
@@ -123,9 +133,9 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         // then we try to run using an index, but if that doesn't work, we'll try a full table scan
         // This would be the point where a query-plan should be added. It should determine if a full table scan
         // or an index should be used.
-        QueryResult result = tryQueryUsingIndexes(predicate, initialPartitions, mapContainer, iterationType);
+        QueryResult result = tryQueryUsingIndexes(predicate, initialPartitions, mapContainer, iterationType, projection);
         if (result == null) {
-            result = queryUsingFullTableScan(mapName, predicate, initialPartitions, iterationType);
+            result = queryUsingFullTableScan(mapName, predicate, initialPartitions, iterationType, projection);
         }
 
         if (hasPartitionVersion(initialPartitionStateVersion, predicate)) {
@@ -138,7 +148,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     private QueryResult tryQueryUsingIndexes(Predicate predicate, Collection<Integer> partitions, MapContainer mapContainer,
-                                             IterationType iterationType) {
+                                             IterationType iterationType, Projection projection) {
 
         if (partitionService.hasOnGoingMigrationLocal()) {
             return null;
@@ -149,7 +159,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
             return null;
         }
 
-        QueryResult result = newQueryResult(partitions.size(), iterationType);
+        QueryResult result = newQueryResult(partitions.size(), iterationType, projection);
         result.addAll(entries);
         return result;
     }
@@ -162,22 +172,22 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     private QueryResult queryUsingFullTableScan(String name, Predicate predicate, Collection<Integer> partitions,
-                                                IterationType iterationType)
+                                                IterationType iterationType, Projection projection)
             throws InterruptedException, ExecutionException {
 
         if (predicate instanceof PagingPredicate) {
             return queryParallelForPaging(name, (PagingPredicate) predicate, partitions, iterationType);
         } else if (parallelEvaluation) {
-            return queryParallel(name, predicate, partitions, iterationType);
+            return queryParallel(name, predicate, partitions, iterationType, projection);
         } else {
-            return querySequential(name, predicate, partitions, iterationType);
+            return querySequential(name, predicate, partitions, iterationType, projection);
         }
     }
 
     protected QueryResult querySequential(String name, Predicate predicate, Collection<Integer> partitions,
-                                          IterationType iterationType) {
+                                          IterationType iterationType, Projection projection) {
 
-        QueryResult result = newQueryResult(partitions.size(), iterationType);
+        QueryResult result = newQueryResult(partitions.size(), iterationType, projection);
         RetryableHazelcastException storedException = null;
         for (Integer partitionId : partitions) {
             try {
@@ -199,8 +209,9 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     private QueryResult queryParallel(String name, Predicate predicate, Collection<Integer> partitions,
-                                      IterationType iterationType) throws InterruptedException, ExecutionException {
-        QueryResult result = newQueryResult(partitions.size(), iterationType);
+                                      IterationType iterationType, Projection projection)
+            throws InterruptedException, ExecutionException {
+        QueryResult result = newQueryResult(partitions.size(), iterationType, projection);
 
         List<Future<Collection<QueryableEntry>>> futures
                 = new ArrayList<Future<Collection<QueryableEntry>>>(partitions.size());
@@ -284,13 +295,61 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
     @Override
     public QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType) {
+        return queryLocalPartition(mapName, predicate, partitionId, iterationType, null);
+    }
+
+    @Override
+    public QueryResult queryLocalPartition(String mapName, Predicate predicate, int partitionId, IterationType iterationType,
+                                           Projection projection) {
         Collection<QueryableEntry> queryableEntries = queryTheLocalPartition(mapName, predicate, partitionId);
-        QueryResult result = newQueryResult(1, iterationType);
+        QueryResult result = newQueryResult(1, iterationType, projection);
         result.addAll(queryableEntries);
         result.setPartitionIds(singletonList(partitionId));
         return result;
     }
 
+    @Override
+    public QueryResultChunk queryLocalPartitionChunk(String mapName, Predicate predicate, int partitionId,
+                                                     IterationType iterationType, Projection projection, int tableIndex,
+                                                     int chunkSize) {
+        RecordStore recordStore = mapServiceContext.getPartitionContainer(partitionId).getRecordStore(mapName);
+        List<QueryableEntry> entries = new ArrayList<QueryableEntry>(chunkSize);
+        List<Data> keys = new ArrayList<Data>(chunkSize);
+        long now = getNow();
+        int nextTableIndex = tableIndex;
+        while (entries.size() < chunkSize && nextTableIndex >= 0) {
+            keys.clear();
+            nextTableIndex = recordStore.fetchKeys(nextTableIndex, chunkSize - entries.size(), keys);
+            for (Data key : keys) {
+                Record record = recordStore.getRecord(key);
+                if (record == null || recordStore.isExpired(record, now, false)) {
+                    continue;
+                }
+                Object value = getValueOrCachedValue(record);
+                if (value == null) {
+                    continue;
+                }
+                QueryEntry queryEntry = new QueryEntry(serializationService, key, key, value);
+                if (predicate.apply(queryEntry)) {
+                    entries.add(queryEntry);
+                }
+            }
+        }
+
+        QueryResult result = new QueryResult(iterationType, Long.MAX_VALUE, projection, serializationService);
+        result.addAll(entries);
+        return new QueryResultChunk(result, nextTableIndex);
+    }
+
+    @Override
+    public <E> Iterator<E> iterateAllPartitions(String mapName, Predicate predicate, IterationType iterationType,
+                                                Projection projection, int chunkSize) {
+        checkNotPagingPredicate(predicate);
+        IterationType resultIterationType = projection == null ? iterationType : IterationType.VALUE;
+        return new QueryResultChunkIterator<E>(mapName, predicate, resultIterationType, projection, chunkSize,
+                partitionService.getPartitionCount(), operationService, serializationService);
+    }
+
     private Object getValueOrCachedValue(Record record) {
         Object value = record.getCachedValue();
         if (value == NOT_CACHED) {
@@ -402,6 +461,17 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
     @Override
     public QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, IterationType iterationType) {
+        return invokeQueryAllPartitions(mapName, predicate, iterationType, null);
+    }
+
+    @Override
+    public QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, Projection projection) {
+        checkNotNull(projection, "projection must not be null");
+        return invokeQueryAllPartitions(mapName, predicate, IterationType.VALUE, projection);
+    }
+
+    private QueryResult invokeQueryAllPartitions(String mapName, Predicate predicate, IterationType iterationType,
+                                                 Projection projection) {
         checkNotPagingPredicate(predicate);
         if (predicate == TruePredicate.INSTANCE) {
             queryResultSizeLimiter.checkMaxResultLimitOnLocalPartitions(mapName);
@@ -411,7 +481,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         QueryResult result = newQueryResult(partitionIds.size(), iterationType);
 
         try {
-            List<Future<QueryResult>> futures = queryOnMembers(mapName, predicate, iterationType);
+            List<Future<QueryResult>> futures = queryOnMembers(mapName, predicate, iterationType, projection);
             addResultsOfPredicate(futures, result, partitionIds);
             if (partitionIds.isEmpty()) {
                 return result;
@@ -424,7 +494,7 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         }
 
         try {
-            List<Future<QueryResult>> futures = queryPartitions(mapName, predicate, partitionIds, iterationType);
+            List<Future<QueryResult>> futures = queryPartitions(mapName, predicate, partitionIds, iterationType, projection);
             addResultsOfPredicate(futures, result, partitionIds);
         } catch (Throwable t) {
             throw rethrow(t);
@@ -440,7 +510,12 @@ public class MapQueryEngineImpl implements MapQueryEngine {
      * @return {@link QueryResult}
      */
     private QueryResult newQueryResult(int numberOfPartitions, IterationType iterationType) {
-        return new QueryResult(iterationType, queryResultSizeLimiter.getNodeResultLimit(numberOfPartitions));
+        return newQueryResult(numberOfPartitions, iterationType, null);
+    }
+
+    private QueryResult newQueryResult(int numberOfPartitions, IterationType iterationType, Projection projection) {
+        long resultLimit = queryResultSizeLimiter.getNodeResultLimit(numberOfPartitions);
+        return new QueryResult(iterationType, resultLimit, projection, serializationService);
     }
 
     private void checkNotPagingPredicate(Predicate predicate) {
@@ -455,10 +530,15 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     }
 
     private List<Future<QueryResult>> queryOnMembers(String mapName, Predicate predicate, IterationType iterationType) {
+        return queryOnMembers(mapName, predicate, iterationType, null);
+    }
+
+    private List<Future<QueryResult>> queryOnMembers(String mapName, Predicate predicate, IterationType iterationType,
+                                                     Projection projection) {
         Collection<Member> members = clusterService.getMembers();
         List<Future<QueryResult>> futures = new ArrayList<Future<QueryResult>>(members.size());
         for (Member member : members) {
-            QueryOperation op = new QueryOperation(mapName, predicate, iterationType);
+            QueryOperation op = new QueryOperation(mapName, predicate, iterationType, projection);
             Future<QueryResult> future = operationService.invokeOnTarget(MapService.SERVICE_NAME, op, member.getAddress());
             futures.add(future);
         }
@@ -467,13 +547,18 @@ public class MapQueryEngineImpl implements MapQueryEngine {
 
     private List<Future<QueryResult>> queryPartitions(String mapName, Predicate predicate,
                                                       Collection<Integer> partitionIds, IterationType iterationType) {
+        return queryPartitions(mapName, predicate, partitionIds, iterationType, null);
+    }
+
+    private List<Future<QueryResult>> queryPartitions(String mapName, Predicate predicate, Collection<Integer> partitionIds,
+                                                      IterationType iterationType, Projection projection) {
         if (partitionIds == null || partitionIds.isEmpty()) {
             return Collections.emptyList();
         }
 
         List<Future<QueryResult>> futures = new ArrayList<Future<QueryResult>>(partitionIds.size());
         for (Integer partitionId : partitionIds) {
-            QueryPartitionOperation op = new QueryPartitionOperation(mapName, predicate, iterationType);
+            QueryPartitionOperation op = new QueryPartitionOperation(mapName, predicate, iterationType, projection);
             op.setPartitionId(partitionId);
             try {
                 Future<QueryResult> future = operationService
@@ -556,6 +641,166 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         return Clock.currentTimeMillis();
     }
 
+    @Override
+    public AggregationResult aggregateLocalPartitions(String mapName, Predicate predicate, Aggregator aggregator)
+            throws ExecutionException, InterruptedException {
+
+        int initialPartitionStateVersion = partitionService.getPartitionStateVersion();
+        Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
+        MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
+
+        predicate = queryOptimizer.optimize(predicate, mapContainer.getIndexes());
+
+        AggregationResult result = tryAggregateUsingIndexes(predicate, mapContainer, aggregator);
+        if (result == null) {
+            result = aggregateOnPartitionThreads(mapName, predicate, initialPartitions, aggregator);
+        }
+
+        if (hasPartitionVersion(initialPartitionStateVersion, predicate)) {
+            result.setPartitionIds(initialPartitions);
+        }
+
+        updateStatistics(mapContainer);
+
+        return result;
+    }
+
+    private AggregationResult tryAggregateUsingIndexes(Predicate predicate, MapContainer mapContainer, Aggregator aggregator) {
+        if (partitionService.hasOnGoingMigrationLocal()) {
+            return null;
+        }
+
+        Set<QueryableEntry> entries = mapContainer.getIndexes().query(predicate);
+        if (entries == null) {
+            return null;
+        }
+
+        for (QueryableEntry entry : entries) {
+            aggregator.accumulate(entry);
+        }
+        return new AggregationResult(aggregator);
+    }
+
+    private AggregationResult aggregateOnPartitionThreads(String mapName, Predicate predicate, Collection<Integer> partitions,
+                                                          Aggregator aggregator) {
+        // every partition accumulates into its own copy of the aggregator
+        Data aggregatorData = serializationService.toData(aggregator);
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(partitions.size());
+        for (Integer partitionId : partitions) {
+            AggregationPartitionOperation op = new AggregationPartitionOperation(mapName, predicate,
+                    (Aggregator) serializationService.toObject(aggregatorData));
+            op.setPartitionId(partitionId);
+            Future<AggregationResult> future = operationService.invokeOnPartition(MapService.SERVICE_NAME, op, partitionId);
+            futures.add(future);
+        }
+
+        Collection<AggregationResult> partitionResults
+                = returnWithDeadline(futures, QUERY_EXECUTION_TIMEOUT_MINUTES, MINUTES, RETHROW_EVERYTHING);
+        for (AggregationResult partitionResult : partitionResults) {
+            aggregator.combine(partitionResult.getAggregator());
+        }
+        return new AggregationResult(aggregator);
+    }
+
+    @Override
+    public AggregationResult aggregateLocalPartition(String mapName, Predicate predicate, int partitionId,
+                                                     Aggregator aggregator) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        Iterator<Record> iterator = container.getRecordStore(mapName).loadAwareIterator(getNow(), false);
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            Data key = record.getKey();
+            Object value = getValueOrCachedValue(record);
+            if (value == null) {
+                continue;
+            }
+            QueryEntry queryEntry = new QueryEntry(serializationService, key, key, value);
+            if (predicate.apply(queryEntry)) {
+                aggregator.accumulate(queryEntry);
+            }
+        }
+        AggregationResult result = new AggregationResult(aggregator);
+        result.setPartitionIds(singletonList(partitionId));
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R invokeAggregateAllPartitions(String mapName, Predicate predicate, Aggregator<?, R> aggregator) {
+        checkNotPagingPredicate(predicate);
+
+        Set<Integer> partitionIds = getAllPartitionIds();
+        // the results are combined into a copy, so the aggregator of the caller is left untouched
+        Data aggregatorData = serializationService.toData(aggregator);
+        Aggregator<?, R> result = serializationService.toObject(aggregatorData);
+
+        try {
+            List<Future<AggregationResult>> futures = aggregateOnMembers(mapName, predicate, aggregatorData);
+            addResultsOfAggregation(futures, result, partitionIds);
+            if (partitionIds.isEmpty()) {
+                return result.aggregate();
+            }
+        } catch (Throwable t) {
+            logger.warning("Could not get results", t);
+        }
+
+        try {
+            List<Future<AggregationResult>> futures = aggregatePartitions(mapName, predicate, partitionIds, aggregatorData);
+            addResultsOfAggregation(futures, result, partitionIds);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+
+        return result.aggregate();
+    }
+
+    private List<Future<AggregationResult>> aggregateOnMembers(String mapName, Predicate predicate, Data aggregatorData) {
+        Collection<Member> members = clusterService.getMembers();
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(members.size());
+        for (Member member : members) {
+            AggregationOperation op = new AggregationOperation(mapName, predicate,
+                    (Aggregator) serializationService.toObject(aggregatorData));
+            Future<AggregationResult> future = operationService.invokeOnTarget(MapService.SERVICE_NAME, op, member.getAddress());
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    private List<Future<AggregationResult>> aggregatePartitions(String mapName, Predicate predicate,
+                                                                Collection<Integer> partitionIds, Data aggregatorData) {
+        List<Future<AggregationResult>> futures = new ArrayList<Future<AggregationResult>>(partitionIds.size());
+        for (Integer partitionId : partitionIds) {
+            AggregationPartitionOperation op = new AggregationPartitionOperation(mapName, predicate,
+                    (Aggregator) serializationService.toObject(aggregatorData));
+            op.setPartitionId(partitionId);
+            Future<AggregationResult> future = operationService.invokeOnPartition(MapService.SERVICE_NAME, op, partitionId);
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    /**
+     * Combines the results of aggregations into the given aggregator and removes the aggregated partition ids.
+     *
+     * During a migration two members can report the same partition. Unlike query rows, aggregated values can't be
+     * deduplicated, so a result is only combined if none of its partitions has been aggregated already; otherwise it is
+     * dropped and its remaining partitions are aggregated again one by one.
+     */
+    private void addResultsOfAggregation(List<Future<AggregationResult>> futures, Aggregator aggregator,
+                                         Collection<Integer> partitionIds) throws ExecutionException, InterruptedException {
+        for (Future<AggregationResult> future : futures) {
+            AggregationResult aggregationResult = future.get();
+            if (aggregationResult == null) {
+                continue;
+            }
+            Collection<Integer> aggregatedPartitionIds = aggregationResult.getPartitionIds();
+            if (aggregatedPartitionIds != null && partitionIds.containsAll(aggregatedPartitionIds)) {
+                partitionIds.removeAll(aggregatedPartitionIds);
+                aggregator.combine(aggregationResult.getAggregator());
+            }
+        }
+    }
+
     private final class QueryPartitionCallable implements Callable<Collection<QueryableEntry>> {
 
         private final int partition;
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.map.impl.operation.AbstractMapOperation;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.ReadonlyOperation;
+import com.hazelcast.util.IterationType;
+
+import java.io.IOException;
+
+/**
+ * Queries a chunk of a single partition, starting at a table index of the record store.
+ *
+ * No state is kept on the member between two chunks: the table index of the returned {@link QueryResultChunk} is the
+ * cursor to continue the query from.
+ */
+public class QueryChunkOperation extends AbstractMapOperation implements PartitionAwareOperation, ReadonlyOperation {
+
+    private Predicate predicate;
+    private IterationType iterationType;
+    private Projection projection;
+    private int tableIndex;
+    private int chunkSize;
+    private QueryResultChunk result;
+
+    public QueryChunkOperation() {
+    }
+
+    public QueryChunkOperation(String mapName, Predicate predicate, IterationType iterationType, Projection projection,
+                               int tableIndex, int chunkSize) {
+        super(mapName);
+        this.predicate = predicate;
+        this.iterationType = iterationType;
+        this.projection = projection;
+        this.tableIndex = tableIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run() {
+        MapQueryEngine queryEngine = mapService.getMapServiceContext().getMapQueryEngine();
+        result = queryEngine.queryLocalPartitionChunk(name, predicate, getPartitionId(), iterationType, projection,
+                tableIndex, chunkSize);
+    }
+
+    @Override
+    public Object getResponse() {
+        return result;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeObject(predicate);
+        out.writeByte(iterationType.getId());
+        out.writeObject(projection);
+        out.writeInt(tableIndex);
+        out.writeInt(chunkSize);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        predicate = in.readObject();
+        iterationType = IterationType.getById(in.readByte());
+        projection = in.readObject();
+        tableIndex = in.readInt();
+        chunkSize = in.readInt();
+    }
+}
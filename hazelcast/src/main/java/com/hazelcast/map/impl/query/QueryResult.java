@@ -16,12 +16,14 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.QueryResultSizeExceededException;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.projection.Projection;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.util.IterationType;
 
@@ -35,6 +37,9 @@ import java.util.LinkedList;
  * Contains the result of a query evaluation.
  *
  * A QueryResults is a collections of {@link QueryResultRow} instances.
+ *
+ * If a {@link Projection} is set, every row only contains the serialized projection of the entry as value, and the
+ * iteration type is ignored.
  */
 public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryResultRow> {
 
@@ -45,6 +50,8 @@ public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryRe
 
     private transient long resultLimit;
     private transient long resultSize;
+    private transient Projection projection;
+    private transient SerializationService serializationService;
     private IterationType iterationType;
 
     public QueryResult() {
@@ -56,6 +63,13 @@ public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryRe
         this.iterationType = iterationType;
     }
 
+    public QueryResult(IterationType iterationType, long resultLimit, Projection projection,
+                       SerializationService serializationService) {
+        this(iterationType, resultLimit);
+        this.projection = projection;
+        this.serializationService = serializationService;
+    }
+
     // for testing
     IterationType getIterationType() {
         return iterationType;
@@ -87,12 +101,18 @@ public class QueryResult implements IdentifiedDataSerializable, Iterable<QueryRe
         rows.add(row);
     }
 
+    @SuppressWarnings("unchecked")
     public void addAll(Collection<QueryableEntry> entries) {
         for (QueryableEntry entry : entries) {
             if (++resultSize > resultLimit) {
                 throw new QueryResultSizeExceededException();
             }
 
+            if (projection != null) {
+                rows.add(new QueryResultRow(null, serializationService.toData(projection.transform(entry))));
+                continue;
+            }
+
             Data key = null;
             Data value = null;
             switch (iterationType) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * Contains a chunk of the result of a query on a single partition, and the table index to continue the query from.
+ *
+ * @see QueryChunkOperation
+ * @see QueryResultChunkIterator
+ */
+public class QueryResultChunk implements IdentifiedDataSerializable {
+
+    private QueryResult result;
+    private int tableIndex;
+
+    public QueryResultChunk() {
+    }
+
+    public QueryResultChunk(QueryResult result, int tableIndex) {
+        this.result = result;
+        this.tableIndex = tableIndex;
+    }
+
+    public QueryResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return the table index to fetch the next chunk from; negative if the partition has been queried completely.
+     */
+    public int getTableIndex() {
+        return tableIndex;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.QUERY_RESULT_CHUNK;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(tableIndex);
+        result.writeData(out);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        tableIndex = in.readInt();
+        result = new QueryResult();
+        result.readData(in);
+    }
+}
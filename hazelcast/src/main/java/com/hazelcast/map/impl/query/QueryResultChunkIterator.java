@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.util.IterationType;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.util.ExceptionUtil.rethrow;
+
+/**
+ * Iterates over the result of a query on all partitions by pulling chunks of bounded size from the partitions one by
+ * one, so neither the members nor the caller ever hold more than a few chunks of the result.
+ *
+ * Every chunk is fetched with a {@link QueryChunkOperation} that continues at the table index returned with the previous
+ * chunk of the partition, like the cluster-wide iterator of ICache. Only the next chunk is prefetched while the current
+ * one is consumed, so the members are never asked for more than the caller consumes.
+ *
+ * The iteration is weakly consistent: entries that are modified during the iteration may or may not be returned, and
+ * if the record store of a partition is resized or the partition is migrated, entries can be missed or returned twice.
+ *
+ * @param <E> the type of the elements.
+ */
+final class QueryResultChunkIterator<E> implements Iterator<E> {
+
+    private final String mapName;
+    private final Predicate predicate;
+    private final IterationType iterationType;
+    private final Projection projection;
+    private final int chunkSize;
+    private final int partitionCount;
+    private final OperationService operationService;
+    private final SerializationService serializationService;
+
+    private int partitionId;
+    private Future<QueryResultChunk> pending;
+    private Iterator current;
+
+    QueryResultChunkIterator(String mapName, Predicate predicate, IterationType iterationType, Projection projection,
+                             int chunkSize, int partitionCount, OperationService operationService,
+                             SerializationService serializationService) {
+        this.mapName = mapName;
+        this.predicate = predicate;
+        this.iterationType = iterationType;
+        this.projection = projection;
+        this.chunkSize = chunkSize;
+        this.partitionCount = partitionCount;
+        this.operationService = operationService;
+        this.serializationService = serializationService;
+        this.pending = partitionCount > 0 ? fetch(Integer.MAX_VALUE) : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (current == null || !current.hasNext()) {
+            if (pending == null) {
+                return false;
+            }
+            QueryResultChunk chunk = getChunk();
+            pending = fetchNext(chunk.getTableIndex());
+            current = new QueryResultIterator(chunk.getResult().iterator(), iterationType, false, serializationService);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return (E) current.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private QueryResultChunk getChunk() {
+        try {
+            return pending.get();
+        } catch (Throwable t) {
+            pending = null;
+            throw rethrow(t);
+        }
+    }
+
+    private Future<QueryResultChunk> fetchNext(int tableIndex) {
+        if (tableIndex >= 0) {
+            return fetch(tableIndex);
+        }
+        if (++partitionId >= partitionCount) {
+            return null;
+        }
+        return fetch(Integer.MAX_VALUE);
+    }
+
+    private Future<QueryResultChunk> fetch(int tableIndex) {
+        QueryChunkOperation op = new QueryChunkOperation(mapName, predicate, iterationType, projection, tableIndex, chunkSize);
+        return operationService.invokeOnPartition(MapService.SERVICE_NAME, op, partitionId);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.query.QueryResult;
+import com.hazelcast.map.impl.query.QueryResultRow;
+import com.hazelcast.map.impl.querycache.publisher.PublisherCreateOperation;
+import com.hazelcast.map.impl.querycache.publisher.PublisherDestroyOperation;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.subscriber.SubscriberRegistry;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.OperationService;
+import com.hazelcast.util.ExceptionUtil;
+import com.hazelcast.util.IterationType;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+
+/**
+ * {@link QueryCacheContext} of the query caches created on a member.
+ */
+public class NodeQueryCacheContext implements QueryCacheContext {
+
+    private final MapServiceContext mapServiceContext;
+    private final NodeEngine nodeEngine;
+    private final SubscriberRegistry subscriberRegistry;
+
+    public NodeQueryCacheContext(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.subscriberRegistry = new SubscriberRegistry(this);
+    }
+
+    @Override
+    public SerializationService getSerializationService() {
+        return nodeEngine.getSerializationService();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return nodeEngine.getConfigClassLoader();
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return nodeEngine.getPartitionService().getPartitionCount();
+    }
+
+    @Override
+    public int getPartitionId(Data key) {
+        return nodeEngine.getPartitionService().getPartitionId(key);
+    }
+
+    @Override
+    public QueryCacheConfig getQueryCacheConfig(String mapName, String cacheName) {
+        for (QueryCacheConfig config : nodeEngine.getConfig().findMapConfig(mapName).getQueryCacheConfigs()) {
+            if (cacheName.equals(config.getName())) {
+                return config;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public SubscriberRegistry getSubscriberRegistry() {
+        return subscriberRegistry;
+    }
+
+    @Override
+    public String addListener(String cacheId, QueryCacheListenerAdapter listener) {
+        return nodeEngine.getEventService().registerListener(SERVICE_NAME, cacheId, listener).getId();
+    }
+
+    @Override
+    public void removeListener(String cacheId, String registrationId) {
+        nodeEngine.getEventService().deregisterListener(SERVICE_NAME, cacheId, registrationId);
+    }
+
+    @Override
+    public Collection<Map.Entry<Data, Data>> createPublishers(PublisherInfo info, boolean populate) {
+        OperationService operationService = nodeEngine.getOperationService();
+        List<Future> futures = new ArrayList<Future>();
+        for (Member member : nodeEngine.getClusterService().getMembers()) {
+            PublisherCreateOperation operation = new PublisherCreateOperation(info);
+            futures.add(operationService.invokeOnTarget(SERVICE_NAME, operation, member.getAddress()));
+        }
+        waitAll(futures);
+        if (!populate) {
+            return Collections.emptyList();
+        }
+        IterationType iterationType = info.isIncludeValue() ? IterationType.ENTRY : IterationType.KEY;
+        QueryResult result = mapServiceContext.getMapQueryEngine()
+                .invokeQueryAllPartitions(info.getMapName(), info.getPredicate(), iterationType);
+        List<Map.Entry<Data, Data>> entries = new ArrayList<Map.Entry<Data, Data>>(result.getRows().size());
+        for (QueryResultRow row : result) {
+            Data value = info.isIncludeValue() ? row.getValue() : null;
+            entries.add(new AbstractMap.SimpleImmutableEntry<Data, Data>(row.getKey(), value));
+        }
+        return entries;
+    }
+
+    @Override
+    public void destroyPublishers(String mapName, String cacheId) {
+        OperationService operationService = nodeEngine.getOperationService();
+        List<Future> futures = new ArrayList<Future>();
+        for (Member member : nodeEngine.getClusterService().getMembers()) {
+            PublisherDestroyOperation operation = new PublisherDestroyOperation(mapName, cacheId);
+            futures.add(operationService.invokeOnTarget(SERVICE_NAME, operation, member.getAddress()));
+        }
+        waitAll(futures);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        nodeEngine.getExecutionService().execute(ExecutionService.ASYNC_EXECUTOR, task);
+    }
+
+    private static void waitAll(List<Future> futures) {
+        try {
+            for (Future future : futures) {
+                future.get();
+            }
+        } catch (Throwable t) {
+            throw ExceptionUtil.rethrow(t);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.impl.querycache.subscriber.SubscriberRegistry;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The environment of query cache subscribers, implemented once for members and once for clients.
+ */
+public interface QueryCacheContext {
+
+    SerializationService getSerializationService();
+
+    ClassLoader getClassLoader();
+
+    int getPartitionCount();
+
+    int getPartitionId(Data key);
+
+    /**
+     * Returns the configuration of a query cache.
+     *
+     * @return the configuration or {@code null} if the query cache isn't configured
+     */
+    QueryCacheConfig getQueryCacheConfig(String mapName, String cacheName);
+
+    /**
+     * Returns the registry of the query caches created in this context.
+     */
+    SubscriberRegistry getSubscriberRegistry();
+
+    /**
+     * Subscribes to the events published for a query cache.
+     *
+     * @return the registration id
+     */
+    String addListener(String cacheId, QueryCacheListenerAdapter listener);
+
+    void removeListener(String cacheId, String registrationId);
+
+    /**
+     * Creates the publishers of a query cache on all members. When {@code populate} is set the
+     * entries matching the predicate of the publishers are queried once all publishers are in place.
+     *
+     * @return the matching entries, their values are {@code null} if the publishers don't include values
+     */
+    Collection<Map.Entry<Data, Data>> createPublishers(PublisherInfo info, boolean populate);
+
+    void destroyPublishers(String mapName, String cacheId);
+
+    /**
+     * Executes a task asynchronously, used to recover query caches off the event threads.
+     */
+    void execute(Runnable task);
+}
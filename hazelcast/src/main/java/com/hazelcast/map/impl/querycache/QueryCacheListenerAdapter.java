@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.core.IMapEvent;
+import com.hazelcast.map.impl.ListenerAdapter;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+
+/**
+ * Listener of the events published by query cache publishers. Registered with the
+ * {@link com.hazelcast.spi.EventService} on the topic named after the id of a query cache.
+ */
+public abstract class QueryCacheListenerAdapter implements ListenerAdapter {
+
+    /**
+     * Handles a batch of events of a single partition.
+     *
+     * @param batch the events in sequence order
+     */
+    public abstract void onBatch(BatchEventData batch);
+
+    @Override
+    public final void onEvent(IMapEvent event) {
+        throw new UnsupportedOperationException("Query cache listeners only receive event batches");
+    }
+}
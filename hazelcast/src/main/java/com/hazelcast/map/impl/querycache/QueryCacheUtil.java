@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.util.UuidUtil;
+
+/**
+ * Utility methods for query caches.
+ */
+public final class QueryCacheUtil {
+
+    // a uuid doesn't contain this separator, so the map name is everything before the last one
+    private static final char CACHE_ID_SEPARATOR = '/';
+
+    private QueryCacheUtil() {
+    }
+
+    /**
+     * Creates a new unique id for a subscription of a query cache. The id contains the name of the map, so members
+     * can check the permissions of the map when a client listens for the events of the subscription.
+     *
+     * @param mapName the name of the map the query cache belongs to.
+     * @return the new cache id.
+     */
+    public static String newCacheId(String mapName) {
+        return mapName + CACHE_ID_SEPARATOR + UuidUtil.newUnsecureUuidString();
+    }
+
+    /**
+     * Returns the name of the map a cache id created by {@link #newCacheId(String)} belongs to.
+     *
+     * @param cacheId the cache id.
+     * @return the name of the map.
+     * @throws IllegalArgumentException if the cache id doesn't contain a map name.
+     */
+    public static String getMapName(String cacheId) {
+        int index = cacheId.lastIndexOf(CACHE_ID_SEPARATOR);
+        if (index < 0) {
+            throw new IllegalArgumentException("Cache id doesn't contain a map name: " + cacheId);
+        }
+        return cacheId.substring(0, index);
+    }
+}
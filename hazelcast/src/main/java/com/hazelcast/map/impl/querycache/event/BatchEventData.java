@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.event;
+
+import com.hazelcast.map.impl.event.EventData;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of {@link QueryCacheEventData} belonging to a single partition. Events in a batch are ordered
+ * by their sequence numbers and batches of the same partition are published in order.
+ */
+public class BatchEventData implements EventData {
+
+    private String source;
+    private String cacheId;
+    private int partitionId;
+    private List<QueryCacheEventData> events;
+
+    public BatchEventData() {
+    }
+
+    public BatchEventData(String source, String cacheId, int partitionId, List<QueryCacheEventData> events) {
+        this.source = source;
+        this.cacheId = cacheId;
+        this.partitionId = partitionId;
+        this.events = events;
+    }
+
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    public List<QueryCacheEventData> getEvents() {
+        return events == null ? Collections.<QueryCacheEventData>emptyList() : events;
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the id of the query cache, the topic these events are published on.
+     */
+    @Override
+    public String getMapName() {
+        return cacheId;
+    }
+
+    @Override
+    public Address getCaller() {
+        return null;
+    }
+
+    @Override
+    public int getEventType() {
+        return -1;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(source);
+        out.writeUTF(cacheId);
+        out.writeInt(partitionId);
+        List<QueryCacheEventData> events = getEvents();
+        out.writeInt(events.size());
+        for (QueryCacheEventData event : events) {
+            event.writeData(out);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        source = in.readUTF();
+        cacheId = in.readUTF();
+        partitionId = in.readInt();
+        int size = in.readInt();
+        events = new ArrayList<QueryCacheEventData>(size);
+        for (int i = 0; i < size; i++) {
+            DefaultQueryCacheEventData event = new DefaultQueryCacheEventData();
+            event.readData(in);
+            events.add(event);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchEventData{"
+                + "cacheId='" + cacheId + '\''
+                + ", partitionId=" + partitionId
+                + ", size=" + getEvents().size()
+                + '}';
+    }
+}
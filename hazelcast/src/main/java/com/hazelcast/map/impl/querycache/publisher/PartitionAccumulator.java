@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers the query cache events of a single partition until they are published.
+ * <p/>
+ * Sequence numbers are assigned when events are drained, so coalesced events don't leave holes behind.
+ * When the buffer overflows the oldest event is dropped and its sequence number is skipped;
+ * subscribers see the hole and recover the partition.
+ */
+final class PartitionAccumulator {
+
+    private final int capacity;
+    private final ArrayDeque<QueryCacheEventData> buffer;
+    private long sequence;
+    private int dropped;
+
+    PartitionAccumulator(int capacity) {
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<QueryCacheEventData>(capacity);
+    }
+
+    /**
+     * Adds an event to this accumulator.
+     *
+     * @return the number of buffered events
+     */
+    synchronized int add(QueryCacheEventData event) {
+        if (buffer.size() >= capacity) {
+            buffer.poll();
+            dropped++;
+        }
+        buffer.add(event);
+        return buffer.size();
+    }
+
+    synchronized int size() {
+        return buffer.size();
+    }
+
+    synchronized long getOldestCreationTime() {
+        QueryCacheEventData oldest = buffer.peek();
+        return oldest == null ? Long.MAX_VALUE : oldest.getCreationTime();
+    }
+
+    /**
+     * Removes all buffered events and assigns them their sequence numbers. Must be called
+     * while holding the lock of this accumulator, the drained batch has to be handed over
+     * for publishing before the lock is released so batches stay in sequence order.
+     *
+     * @param coalesce {@code true} to only keep the latest event of each key
+     * @return the drained events in sequence order
+     */
+    List<QueryCacheEventData> drain(boolean coalesce) {
+        assert Thread.holdsLock(this);
+
+        List<QueryCacheEventData> events;
+        if (coalesce) {
+            Map<Data, QueryCacheEventData> latest = new LinkedHashMap<Data, QueryCacheEventData>(buffer.size());
+            for (QueryCacheEventData event : buffer) {
+                if (isPartitionWide(event)) {
+                    latest.clear();
+                }
+                latest.remove(event.getDataKey());
+                latest.put(event.getDataKey(), event);
+            }
+            events = new ArrayList<QueryCacheEventData>(latest.values());
+        } else {
+            events = new ArrayList<QueryCacheEventData>(buffer);
+        }
+        buffer.clear();
+
+        sequence += dropped;
+        dropped = 0;
+        for (QueryCacheEventData event : events) {
+            event.setSequence(++sequence);
+        }
+        return events;
+    }
+
+    private static boolean isPartitionWide(QueryCacheEventData event) {
+        int eventType = event.getEventType();
+        return eventType == EntryEventType.CLEAR_ALL.getType() || eventType == EntryEventType.EVICT_ALL.getType();
+    }
+}
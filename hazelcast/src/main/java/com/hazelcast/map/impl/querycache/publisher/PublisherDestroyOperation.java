@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.AbstractOperation;
+
+import java.io.IOException;
+
+/**
+ * Removes a query cache publisher from the member it is sent to.
+ */
+public class PublisherDestroyOperation extends AbstractOperation {
+
+    private String mapName;
+    private String cacheId;
+
+    public PublisherDestroyOperation() {
+    }
+
+    public PublisherDestroyOperation(String mapName, String cacheId) {
+        this.mapName = mapName;
+        this.cacheId = cacheId;
+    }
+
+    @Override
+    public void run() throws Exception {
+        MapService mapService = getService();
+        mapService.getMapServiceContext().getQueryCachePublisherService().removePublisher(mapName, cacheId);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(mapName);
+        out.writeUTF(cacheId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        mapName = in.readUTF();
+        cacheId = in.readUTF();
+    }
+}
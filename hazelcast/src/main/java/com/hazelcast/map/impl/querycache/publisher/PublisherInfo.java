@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.query.Predicate;
+
+import java.io.IOException;
+
+/**
+ * Describes a query cache publisher: which map it listens to, which entries it forwards
+ * and how it batches the forwarded events.
+ */
+public class PublisherInfo implements DataSerializable {
+
+    private String mapName;
+    private String cacheId;
+    private Predicate predicate;
+    private boolean includeValue;
+    private int batchSize;
+    private int bufferSize;
+    private int delaySeconds;
+    private boolean coalesce;
+
+    public PublisherInfo() {
+    }
+
+    public PublisherInfo(String mapName, String cacheId, Predicate predicate, boolean includeValue,
+                         int batchSize, int bufferSize, int delaySeconds, boolean coalesce) {
+        this.mapName = mapName;
+        this.cacheId = cacheId;
+        this.predicate = predicate;
+        this.includeValue = includeValue;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+        this.delaySeconds = delaySeconds;
+        this.coalesce = coalesce;
+    }
+
+    public PublisherInfo(String mapName, String cacheId, Predicate predicate, QueryCacheConfig config) {
+        this(mapName, cacheId, predicate, config.isIncludeValue(), config.getBatchSize(),
+                config.getBufferSize(), config.getDelaySeconds(), config.isCoalesce());
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    public boolean isIncludeValue() {
+        return includeValue;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getDelaySeconds() {
+        return delaySeconds;
+    }
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(mapName);
+        out.writeUTF(cacheId);
+        out.writeObject(predicate);
+        out.writeBoolean(includeValue);
+        out.writeInt(batchSize);
+        out.writeInt(bufferSize);
+        out.writeInt(delaySeconds);
+        out.writeBoolean(coalesce);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        mapName = in.readUTF();
+        cacheId = in.readUTF();
+        predicate = in.readObject();
+        includeValue = in.readBoolean();
+        batchSize = in.readInt();
+        bufferSize = in.readInt();
+        delaySeconds = in.readInt();
+        coalesce = in.readBoolean();
+    }
+
+    @Override
+    public String toString() {
+        return "PublisherInfo{"
+                + "mapName='" + mapName + '\''
+                + ", cacheId='" + cacheId + '\''
+                + ", predicate=" + predicate
+                + ", includeValue=" + includeValue
+                + ", batchSize=" + batchSize
+                + ", bufferSize=" + bufferSize
+                + ", delaySeconds=" + delaySeconds
+                + ", coalesce=" + coalesce
+                + '}';
+    }
+}
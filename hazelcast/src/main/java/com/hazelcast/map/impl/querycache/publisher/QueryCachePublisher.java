@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.map.impl.querycache.event.DefaultQueryCacheEventData;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.spi.EventRegistration;
+import com.hazelcast.spi.EventService;
+import com.hazelcast.util.Clock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+
+/**
+ * Member side of a query cache: turns the mutations of the local partitions of a map into query cache
+ * events, buffers them per partition and publishes them in batches to the subscriber of the cache.
+ */
+final class QueryCachePublisher {
+
+    private final PublisherInfo info;
+    private final int capacity;
+    private final long delayMillis;
+    private final AtomicReferenceArray<PartitionAccumulator> accumulators;
+    private volatile boolean subscribed;
+
+    QueryCachePublisher(PublisherInfo info, int partitionCount) {
+        this.info = info;
+        this.capacity = Math.max(info.getBufferSize(), info.getBatchSize());
+        this.delayMillis = TimeUnit.SECONDS.toMillis(info.getDelaySeconds());
+        this.accumulators = new AtomicReferenceArray<PartitionAccumulator>(partitionCount);
+    }
+
+    PublisherInfo getInfo() {
+        return info;
+    }
+
+    int getPartitionCount() {
+        return accumulators.length();
+    }
+
+    /**
+     * Creates the event the subscriber has to see for a mutation of an entry.
+     *
+     * @return the event or {@code null} if the mutation isn't visible in the query cache
+     */
+    QueryCacheEventData createEventData(SerializationService serializationService, EntryEventType eventType,
+                                        int partitionId, Data dataKey, Data dataOldValue, Data dataValue) {
+        boolean removal = eventType == EntryEventType.REMOVED || eventType == EntryEventType.EVICTED
+                || eventType == EntryEventType.EXPIRED;
+        EntryEventType cacheEventType;
+        if (!removal && dataValue != null && matches(serializationService, dataKey, dataValue)) {
+            boolean oldMatches = dataOldValue != null && matches(serializationService, dataKey, dataOldValue);
+            cacheEventType = oldMatches ? EntryEventType.UPDATED : EntryEventType.ADDED;
+        } else {
+            if (eventType == EntryEventType.ADDED && dataOldValue == null) {
+                return null;
+            }
+            // when the old value is unknown the entry may be cached, so the removal is sent anyway
+            if (dataOldValue != null && !matches(serializationService, dataKey, dataOldValue)) {
+                return null;
+            }
+            cacheEventType = removal ? eventType : EntryEventType.REMOVED;
+        }
+
+        DefaultQueryCacheEventData eventData = new DefaultQueryCacheEventData();
+        eventData.setDataKey(dataKey);
+        if (info.isIncludeValue() && !removal && cacheEventType != EntryEventType.REMOVED) {
+            eventData.setDataNewValue(dataValue);
+        }
+        eventData.setEventType(cacheEventType.getType());
+        eventData.setPartitionId(partitionId);
+        return eventData;
+    }
+
+    /**
+     * Creates the event for a mutation affecting all entries of a partition, e.g. {@code clear}.
+     */
+    QueryCacheEventData createPartitionEventData(EntryEventType eventType, int partitionId) {
+        DefaultQueryCacheEventData eventData = new DefaultQueryCacheEventData();
+        eventData.setEventType(eventType.getType());
+        eventData.setPartitionId(partitionId);
+        return eventData;
+    }
+
+    /**
+     * Buffers an event.
+     *
+     * @return {@code true} if a full batch is buffered and should be published right away
+     */
+    boolean add(int partitionId, QueryCacheEventData eventData) {
+        PartitionAccumulator accumulator = accumulators.get(partitionId);
+        if (accumulator == null) {
+            accumulators.compareAndSet(partitionId, null, new PartitionAccumulator(capacity));
+            accumulator = accumulators.get(partitionId);
+        }
+        return accumulator.add(eventData) >= info.getBatchSize();
+    }
+
+    /**
+     * Publishes the buffered events of a partition.
+     *
+     * @param force {@code true} to publish regardless of the configured delay
+     * @return {@code false} if the subscriber of this publisher is gone
+     */
+    boolean publish(int partitionId, boolean force, EventService eventService, String source) {
+        PartitionAccumulator accumulator = accumulators.get(partitionId);
+        if (accumulator == null) {
+            return true;
+        }
+        synchronized (accumulator) {
+            if (accumulator.size() == 0) {
+                return true;
+            }
+            if (!force && Clock.currentTimeMillis() - accumulator.getOldestCreationTime() < delayMillis) {
+                return true;
+            }
+            Collection<EventRegistration> registrations = eventService.getRegistrations(SERVICE_NAME, info.getCacheId());
+            if (registrations.isEmpty()) {
+                // a publisher may be created before its subscription reached this member
+                return !subscribed;
+            }
+            subscribed = true;
+            List<QueryCacheEventData> events = accumulator.drain(info.isCoalesce());
+            BatchEventData batch = new BatchEventData(source, info.getCacheId(), partitionId, events);
+            eventService.publishEvent(SERVICE_NAME, registrations, batch, partitionId);
+        }
+        return true;
+    }
+
+    private boolean matches(SerializationService serializationService, Data dataKey, Data dataValue) {
+        return info.getPredicate().apply(new QueryEntry(serializationService, dataKey, dataKey, dataValue));
+    }
+}
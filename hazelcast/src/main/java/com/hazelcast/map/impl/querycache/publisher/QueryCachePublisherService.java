@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.publisher;
+
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+
+/**
+ * Keeps the query cache publishers of this member and feeds them with the mutations of the local partitions.
+ * <p/>
+ * Full batches are published by the thread doing the mutation, the remaining events are published by
+ * a background task once they have been waiting for the configured delay.
+ */
+public class QueryCachePublisherService {
+
+    private static final long FLUSH_PERIOD_SECONDS = 1;
+
+    private final NodeEngine nodeEngine;
+    private final ILogger logger;
+    private final ConcurrentMap<String, ConcurrentMap<String, QueryCachePublisher>> publishers
+            = new ConcurrentHashMap<String, ConcurrentMap<String, QueryCachePublisher>>();
+    private final AtomicBoolean flusherScheduled = new AtomicBoolean();
+    private final ConstructorFunction<String, ConcurrentMap<String, QueryCachePublisher>> publishersConstructor
+            = new ConstructorFunction<String, ConcurrentMap<String, QueryCachePublisher>>() {
+        @Override
+        public ConcurrentMap<String, QueryCachePublisher> createNew(String mapName) {
+            return new ConcurrentHashMap<String, QueryCachePublisher>();
+        }
+    };
+
+    public QueryCachePublisherService(MapServiceContext mapServiceContext) {
+        this.nodeEngine = mapServiceContext.getNodeEngine();
+        this.logger = nodeEngine.getLogger(getClass());
+    }
+
+    public void addPublisher(PublisherInfo info) {
+        ConcurrentMap<String, QueryCachePublisher> mapPublishers
+                = getOrPutIfAbsent(publishers, info.getMapName(), publishersConstructor);
+        int partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        mapPublishers.putIfAbsent(info.getCacheId(), new QueryCachePublisher(info, partitionCount));
+        scheduleFlusher();
+    }
+
+    public void removePublisher(String mapName, String cacheId) {
+        ConcurrentMap<String, QueryCachePublisher> mapPublishers = publishers.get(mapName);
+        if (mapPublishers != null) {
+            mapPublishers.remove(cacheId);
+        }
+    }
+
+    public void removePublishers(String mapName) {
+        publishers.remove(mapName);
+    }
+
+    public boolean hasPublishers(String mapName) {
+        ConcurrentMap<String, QueryCachePublisher> mapPublishers = publishers.get(mapName);
+        return mapPublishers != null && !mapPublishers.isEmpty();
+    }
+
+    /**
+     * Returns the publishers of this member, used to create the same publishers on joining members.
+     */
+    public Collection<PublisherInfo> getPublisherInfos() {
+        Collection<PublisherInfo> infos = new ArrayList<PublisherInfo>();
+        for (ConcurrentMap<String, QueryCachePublisher> mapPublishers : publishers.values()) {
+            for (QueryCachePublisher publisher : mapPublishers.values()) {
+                infos.add(publisher.getInfo());
+            }
+        }
+        return infos;
+    }
+
+    public void onEntryEvent(String mapName, EntryEventType eventType, Data dataKey, Data dataOldValue, Data dataValue) {
+        ConcurrentMap<String, QueryCachePublisher> mapPublishers = publishers.get(mapName);
+        if (mapPublishers == null || mapPublishers.isEmpty()) {
+            return;
+        }
+        int partitionId = nodeEngine.getPartitionService().getPartitionId(dataKey);
+        for (QueryCachePublisher publisher : mapPublishers.values()) {
+            QueryCacheEventData eventData = publisher.createEventData(nodeEngine.getSerializationService(), eventType,
+                    partitionId, dataKey, dataOldValue, dataValue);
+            if (eventData != null) {
+                accumulate(publisher, partitionId, eventData);
+            }
+        }
+    }
+
+    /**
+     * Handles a mutation affecting all entries of a partition, e.g. {@code clear} or {@code evictAll}.
+     */
+    public void onPartitionEvent(String mapName, EntryEventType eventType, int partitionId) {
+        ConcurrentMap<String, QueryCachePublisher> mapPublishers = publishers.get(mapName);
+        if (mapPublishers == null || mapPublishers.isEmpty()) {
+            return;
+        }
+        for (QueryCachePublisher publisher : mapPublishers.values()) {
+            accumulate(publisher, partitionId, publisher.createPartitionEventData(eventType, partitionId));
+        }
+    }
+
+    private void accumulate(QueryCachePublisher publisher, int partitionId, QueryCacheEventData eventData) {
+        if (publisher.add(partitionId, eventData)) {
+            publish(publisher, partitionId, true);
+        }
+    }
+
+    private void publish(QueryCachePublisher publisher, int partitionId, boolean force) {
+        String source = nodeEngine.getThisAddress().toString();
+        if (!publisher.publish(partitionId, force, nodeEngine.getEventService(), source)) {
+            PublisherInfo info = publisher.getInfo();
+            removePublisher(info.getMapName(), info.getCacheId());
+        }
+    }
+
+    void flush() {
+        for (ConcurrentMap<String, QueryCachePublisher> mapPublishers : publishers.values()) {
+            for (QueryCachePublisher publisher : mapPublishers.values()) {
+                for (int partitionId = 0; partitionId < publisher.getPartitionCount(); partitionId++) {
+                    publish(publisher, partitionId, false);
+                }
+            }
+        }
+    }
+
+    private void scheduleFlusher() {
+        if (!flusherScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        nodeEngine.getExecutionService().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Throwable t) {
+                    logger.log(Level.WARNING, "Could not publish query cache events", t);
+                }
+            }
+        }, FLUSH_PERIOD_SECONDS, FLUSH_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+}
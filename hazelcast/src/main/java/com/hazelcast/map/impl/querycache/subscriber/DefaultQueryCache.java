@@ -0,0 +1,632 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.subscriber;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.EntryEventType;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.impl.DataAwareEntryEvent;
+import com.hazelcast.map.impl.ListenerAdapter;
+import com.hazelcast.map.impl.ListenerAdapters;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.impl.querycache.QueryCacheListenerAdapter;
+import com.hazelcast.map.impl.querycache.QueryCacheUtil;
+import com.hazelcast.map.impl.querycache.event.BatchEventData;
+import com.hazelcast.map.impl.querycache.event.QueryCacheEventData;
+import com.hazelcast.map.impl.querycache.publisher.PublisherInfo;
+import com.hazelcast.map.listener.MapListener;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.util.UuidUtil;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * Default {@link QueryCache} implementation, used by members and clients.
+ * <p/>
+ * The cache subscribes to the events of its publishers before it populates itself; events received while
+ * populating are replayed on top of the populated entries. Every partition streams its events with contiguous
+ * sequence numbers. When a sequence number is missing the cache recovers by subscribing again under a new id,
+ * repopulating itself and dropping the old subscription.
+ * <p/>
+ * Reads don't block the updates: they see the entries and indexes as they are updated.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@SuppressWarnings("unchecked")
+public class DefaultQueryCache<K, V> implements QueryCache<K, V> {
+
+    private static final ILogger LOGGER = Logger.getLogger(DefaultQueryCache.class);
+
+    /**
+     * Stored instead of a value when the cache doesn't include values.
+     */
+    private static final Object NO_VALUE = new Object();
+
+    private final String name;
+    private final String mapName;
+    private final Predicate predicate;
+    private final QueryCacheConfig config;
+    private final boolean includeValue;
+    private final boolean objectFormat;
+    private final QueryCacheContext context;
+    private final SerializationService serializationService;
+    private final ConcurrentMap<Data, Object> records = new ConcurrentHashMap<Data, Object>();
+    private final Indexes indexes = new Indexes();
+    private final ConcurrentMap<String, LocalListener> listeners = new ConcurrentHashMap<String, LocalListener>();
+    private final AtomicBoolean recovering = new AtomicBoolean();
+    private final Object mutex = new Object();
+
+    // guarded by mutex
+    private Subscription subscription;
+
+    public DefaultQueryCache(String name, String mapName, Predicate predicate, QueryCacheConfig config,
+                             QueryCacheContext context) {
+        this.name = name;
+        this.mapName = mapName;
+        this.predicate = predicate;
+        this.config = config;
+        this.includeValue = config.isIncludeValue();
+        this.objectFormat = config.getInMemoryFormat() == InMemoryFormat.OBJECT;
+        this.context = context;
+        this.serializationService = context.getSerializationService();
+        warnIfEvictionConfigured(name, config.getEvictionConfig());
+    }
+
+    // eviction of query caches is not implemented yet, a configured eviction would silently be ignored otherwise
+    private static void warnIfEvictionConfigured(String name, EvictionConfig evictionConfig) {
+        if (evictionConfig == null) {
+            return;
+        }
+        if (evictionConfig.getSize() != EvictionConfig.DEFAULT_MAX_ENTRY_COUNT
+                || evictionConfig.getMaximumSizePolicy() != EvictionConfig.MaxSizePolicy.ENTRY_COUNT
+                || evictionConfig.getEvictionPolicy() != EvictionConfig.DEFAULT_EVICTION_POLICY) {
+            LOGGER.warning("Eviction is not supported by query caches yet, the eviction config of query cache "
+                    + name + " is ignored: " + evictionConfig);
+        }
+    }
+
+    String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * Subscribes this cache to a new set of publishers and drops the previous subscription.
+     *
+     * @param populate {@code true} to populate the cache with the entries matching the predicate
+     * @return {@code true} if this cache is subscribed, {@code false} if a concurrent subscription won
+     */
+    boolean subscribe(boolean populate) {
+        Subscription next = new Subscription(context.getPartitionCount());
+        Subscription previous;
+        synchronized (mutex) {
+            previous = subscription;
+            subscription = next;
+        }
+        Collection<Map.Entry<Data, Data>> entries;
+        try {
+            next.registrationId = context.addListener(next.cacheId, next);
+            PublisherInfo info = new PublisherInfo(mapName, next.cacheId, predicate, config);
+            entries = context.createPublishers(info, populate);
+        } catch (RuntimeException e) {
+            synchronized (mutex) {
+                if (subscription == next) {
+                    subscription = previous;
+                }
+            }
+            unsubscribe(next);
+            throw e;
+        }
+
+        boolean gap = false;
+        synchronized (mutex) {
+            if (subscription != next) {
+                return false;
+            }
+            if (populate) {
+                populate(entries);
+            }
+            for (BatchEventData batch : next.pending) {
+                gap |= apply(next, batch);
+            }
+            next.pending = null;
+        }
+        unsubscribe(previous);
+        if (gap) {
+            recoverAsync();
+        }
+        return true;
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscription == null) {
+            return;
+        }
+        try {
+            if (subscription.registrationId != null) {
+                context.removeListener(subscription.cacheId, subscription.registrationId);
+            }
+            context.destroyPublishers(mapName, subscription.cacheId);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINEST, "Could not unsubscribe query cache " + name, e);
+        }
+    }
+
+    private void onBatch(Subscription receiver, BatchEventData batch) {
+        boolean gap;
+        synchronized (mutex) {
+            if (receiver != subscription) {
+                return;
+            }
+            if (receiver.pending != null) {
+                receiver.pending.add(batch);
+                return;
+            }
+            gap = apply(receiver, batch);
+        }
+        if (gap) {
+            recoverAsync();
+        }
+    }
+
+    /**
+     * Applies a batch of events.
+     *
+     * @return {@code true} if an event is missing before or within the batch
+     */
+    private boolean apply(Subscription receiver, BatchEventData batch) {
+        boolean gap = false;
+        int partitionId = batch.getPartitionId();
+        for (QueryCacheEventData event : batch.getEvents()) {
+            if (event.getSequence() != receiver.expectedSequences[partitionId]) {
+                gap = true;
+            }
+            receiver.expectedSequences[partitionId] = event.getSequence() + 1;
+            apply(event);
+        }
+        return gap;
+    }
+
+    private void apply(QueryCacheEventData event) {
+        EntryEventType eventType = EntryEventType.getByType(event.getEventType());
+        switch (eventType) {
+            case ADDED:
+            case UPDATED:
+                put(event.getDataKey(), toStoredValue(event.getDataNewValue()));
+                break;
+            case REMOVED:
+            case EVICTED:
+            case EXPIRED:
+                remove(event.getDataKey(), eventType);
+                break;
+            case CLEAR_ALL:
+                removePartition(event.getPartitionId(), EntryEventType.REMOVED);
+                break;
+            case EVICT_ALL:
+                removePartition(event.getPartitionId(), EntryEventType.EVICTED);
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected query cache event type: " + eventType);
+        }
+    }
+
+    /**
+     * Makes the content of this cache match the given entries, firing events only for the entries that changed.
+     */
+    private void populate(Collection<Map.Entry<Data, Data>> entries) {
+        Set<Data> keys = new HashSet<Data>(entries.size());
+        for (Map.Entry<Data, Data> entry : entries) {
+            Data key = entry.getKey();
+            keys.add(key);
+            Object current = records.get(key);
+            if (current == null || !isSameValue(current, entry.getValue())) {
+                put(key, toStoredValue(entry.getValue()));
+            }
+        }
+        for (Data key : records.keySet()) {
+            if (!keys.contains(key)) {
+                remove(key, EntryEventType.REMOVED);
+            }
+        }
+    }
+
+    private void put(Data key, Object value) {
+        Object oldValue = records.put(key, value);
+        if (indexes.hasIndex()) {
+            indexes.saveEntryIndex(newQueryEntry(key, value));
+        }
+        publishLocal(oldValue == null ? EntryEventType.ADDED : EntryEventType.UPDATED, key, oldValue, value);
+    }
+
+    private void remove(Data key, EntryEventType eventType) {
+        Object oldValue = records.remove(key);
+        if (oldValue == null) {
+            return;
+        }
+        if (indexes.hasIndex()) {
+            indexes.removeEntryIndex(key);
+        }
+        publishLocal(eventType, key, oldValue, null);
+    }
+
+    private void removePartition(int partitionId, EntryEventType eventType) {
+        for (Data key : records.keySet()) {
+            if (context.getPartitionId(key) == partitionId) {
+                remove(key, eventType);
+            }
+        }
+    }
+
+    private void recoverAsync() {
+        if (!recovering.compareAndSet(false, true)) {
+            return;
+        }
+        context.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    subscribe(true);
+                } catch (Exception e) {
+                    LOGGER.warning("Could not recover query cache " + name, e);
+                } finally {
+                    recovering.set(false);
+                }
+            }
+        });
+    }
+
+    private void publishLocal(EntryEventType eventType, Data key, Object oldValue, Object newValue) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (LocalListener listener : listeners.values()) {
+            try {
+                listener.publish(eventType, key, oldValue, newValue);
+            } catch (Exception e) {
+                LOGGER.warning("Query cache listener of " + name + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        checkNotNull(key, "key cannot be null");
+        Object value = records.get(toData(key));
+        return value == null ? null : (V) toObject(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        checkNotNull(key, "key cannot be null");
+        return records.containsKey(toData(key));
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        checkNotNull(value, "value cannot be null");
+        Data dataValue = toData(value);
+        for (Object storedValue : records.values()) {
+            if (isSameValue(storedValue, dataValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public void addIndex(String attribute, boolean ordered) {
+        checkNotNull(attribute, "attribute cannot be null");
+        addIndex(attribute, ordered, false);
+    }
+
+    void addIndex(String attribute, boolean ordered, boolean bitmap) {
+        synchronized (mutex) {
+            Index index = indexes.addOrGetIndex(attribute, ordered, bitmap);
+            for (Map.Entry<Data, Object> entry : records.entrySet()) {
+                index.saveEntryIndex(newQueryEntry(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public Map<K, V> getAll(Set<K> keys) {
+        checkNotNull(keys, "keys cannot be null");
+        Map<K, V> result = new HashMap<K, V>(keys.size());
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<K>(records.size());
+        for (Data key : records.keySet()) {
+            result.add((K) toObject(key));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<K> keySet(Predicate predicate) {
+        checkNotNull(predicate, "predicate cannot be null");
+        Set<K> result = new HashSet<K>();
+        for (QueryableEntry entry : query(predicate)) {
+            result.add((K) entry.getKey());
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> result = new HashSet<Map.Entry<K, V>>(records.size());
+        for (Map.Entry<Data, Object> entry : records.entrySet()) {
+            K key = (K) toObject(entry.getKey());
+            V value = (V) toObject(entry.getValue());
+            result.add(new AbstractMap.SimpleImmutableEntry<K, V>(key, value));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet(Predicate predicate) {
+        checkNotNull(predicate, "predicate cannot be null");
+        Set<Map.Entry<K, V>> result = new HashSet<Map.Entry<K, V>>();
+        for (QueryableEntry entry : query(predicate)) {
+            result.add(new AbstractMap.SimpleImmutableEntry<K, V>((K) entry.getKey(), (V) entry.getValue()));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Collection<V> values() {
+        List<V> result = new ArrayList<V>(records.size());
+        for (Object value : records.values()) {
+            result.add((V) toObject(value));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public Collection<V> values(Predicate predicate) {
+        checkNotNull(predicate, "predicate cannot be null");
+        List<V> result = new ArrayList<V>();
+        for (QueryableEntry entry : query(predicate)) {
+            result.add((V) entry.getValue());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Collection<QueryableEntry> query(Predicate predicate) {
+        Set<QueryableEntry> indexed = indexes.query(predicate);
+        if (indexed != null) {
+            return indexed;
+        }
+        List<QueryableEntry> result = new ArrayList<QueryableEntry>();
+        for (Map.Entry<Data, Object> entry : records.entrySet()) {
+            QueryableEntry queryEntry = newQueryEntry(entry.getKey(), entry.getValue());
+            if (predicate.apply(queryEntry)) {
+                result.add(queryEntry);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, boolean includeValue) {
+        return addListener(listener, null, null, includeValue);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, K key, boolean includeValue) {
+        checkNotNull(key, "key cannot be null");
+        return addListener(listener, null, toData(key), includeValue);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, Predicate<K, V> predicate, boolean includeValue) {
+        checkNotNull(predicate, "predicate cannot be null");
+        return addListener(listener, predicate, null, includeValue);
+    }
+
+    @Override
+    public String addEntryListener(MapListener listener, Predicate<K, V> predicate, K key, boolean includeValue) {
+        checkNotNull(predicate, "predicate cannot be null");
+        checkNotNull(key, "key cannot be null");
+        return addListener(listener, predicate, toData(key), includeValue);
+    }
+
+    String addListener(Object listener, Predicate predicate, Data key, boolean includeValue) {
+        checkNotNull(listener, "listener cannot be null");
+        String id = UuidUtil.newUnsecureUuidString();
+        ListenerAdapter adapter = ListenerAdapters.createListenerAdapter(listener);
+        listeners.put(id, new LocalListener(adapter, predicate, key, includeValue));
+        return id;
+    }
+
+    @Override
+    public boolean removeEntryListener(String id) {
+        checkNotNull(id, "listener id cannot be null");
+        return listeners.remove(id) != null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean tryRecover() {
+        if (!recovering.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            return subscribe(true);
+        } catch (Exception e) {
+            LOGGER.warning("Could not recover query cache " + name, e);
+            return false;
+        } finally {
+            recovering.set(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        Subscription current;
+        synchronized (mutex) {
+            current = subscription;
+            subscription = null;
+            records.clear();
+            indexes.clearIndexes();
+        }
+        unsubscribe(current);
+        listeners.clear();
+        context.getSubscriberRegistry().remove(this);
+    }
+
+    private Object toStoredValue(Data value) {
+        if (!includeValue || value == null) {
+            return NO_VALUE;
+        }
+        return objectFormat ? toObject(value) : value;
+    }
+
+    private boolean isSameValue(Object storedValue, Data value) {
+        if (storedValue == NO_VALUE || value == null) {
+            return storedValue == NO_VALUE && (value == null || !includeValue);
+        }
+        return value.equals(toData(storedValue));
+    }
+
+    private QueryableEntry newQueryEntry(Data key, Object storedValue) {
+        return new QueryEntry(serializationService, key, key, storedValue == NO_VALUE ? null : storedValue);
+    }
+
+    private Data toData(Object object) {
+        return object == null || object == NO_VALUE ? null : serializationService.toData(object);
+    }
+
+    private Object toObject(Object object) {
+        return object == NO_VALUE ? null : serializationService.toObject(object);
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultQueryCache{"
+                + "name='" + name + '\''
+                + ", mapName='" + mapName + '\''
+                + ", predicate=" + predicate
+                + ", size=" + records.size()
+                + '}';
+    }
+
+    /**
+     * A subscription to the publishers of this cache, replaced on every recovery.
+     */
+    private final class Subscription extends QueryCacheListenerAdapter {
+
+        private final String cacheId = QueryCacheUtil.newCacheId(mapName);
+        // guarded by mutex
+        private final long[] expectedSequences;
+        // guarded by mutex, events received while populating, null once populated
+        private List<BatchEventData> pending = new ArrayList<BatchEventData>();
+        private volatile String registrationId;
+
+        private Subscription(int partitionCount) {
+            this.expectedSequences = new long[partitionCount];
+            Arrays.fill(expectedSequences, 1);
+        }
+
+        @Override
+        public void onBatch(BatchEventData batch) {
+            DefaultQueryCache.this.onBatch(this, batch);
+        }
+    }
+
+    /**
+     * A listener registered on this cache.
+     */
+    private final class LocalListener {
+
+        private final ListenerAdapter adapter;
+        private final Predicate predicate;
+        private final Data key;
+        private final boolean includeValue;
+
+        private LocalListener(ListenerAdapter adapter, Predicate predicate, Data key, boolean includeValue) {
+            this.adapter = adapter;
+            this.predicate = predicate;
+            this.key = key;
+            this.includeValue = includeValue;
+        }
+
+        private void publish(EntryEventType eventType, Data dataKey, Object oldValue, Object newValue) {
+            if (key != null && !key.equals(dataKey)) {
+                return;
+            }
+            if (predicate != null) {
+                Object testedValue = newValue == null ? oldValue : newValue;
+                if (!predicate.apply(newQueryEntry(dataKey, testedValue))) {
+                    return;
+                }
+            }
+            Data dataOldValue = includeValue ? toData(oldValue) : null;
+            Data dataNewValue = includeValue ? toData(newValue) : null;
+            adapter.onEvent(new DataAwareEntryEvent(null, eventType.getType(), name, dataKey,
+                    dataNewValue, dataOldValue, null, serializationService));
+        }
+    }
+}
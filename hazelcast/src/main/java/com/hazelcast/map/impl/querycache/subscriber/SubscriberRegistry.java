@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.querycache.subscriber;
+
+import com.hazelcast.config.EntryListenerConfig;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.config.PredicateConfig;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.impl.querycache.QueryCacheContext;
+import com.hazelcast.map.listener.MapListener;
+import com.hazelcast.nio.ClassLoaderUtil;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.util.ConstructorFunction;
+import com.hazelcast.util.ExceptionUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+
+/**
+ * Keeps the query caches created in a {@link QueryCacheContext}, so a query cache is created
+ * once per map and cache name and shared by all callers afterwards.
+ */
+public class SubscriberRegistry {
+
+    private final QueryCacheContext context;
+    private final ConcurrentMap<String, ConcurrentMap<String, DefaultQueryCache>> caches
+            = new ConcurrentHashMap<String, ConcurrentMap<String, DefaultQueryCache>>();
+    private final ConstructorFunction<String, ConcurrentMap<String, DefaultQueryCache>> cachesConstructor
+            = new ConstructorFunction<String, ConcurrentMap<String, DefaultQueryCache>>() {
+        @Override
+        public ConcurrentMap<String, DefaultQueryCache> createNew(String mapName) {
+            return new ConcurrentHashMap<String, DefaultQueryCache>();
+        }
+    };
+
+    public SubscriberRegistry(QueryCacheContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Returns the query cache with the given name, creating it if it doesn't exist yet.
+     *
+     * @param predicate    the predicate of the cache or {@code null} to use the configured predicate
+     * @param includeValue whether the cache includes values or {@code null} to use the configured setting
+     * @param listener     a listener to register before the cache is populated, can be {@code null}
+     * @return the query cache or {@code null} if no predicate is given and none is configured
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> QueryCache<K, V> getOrCreate(String mapName, String cacheName, Predicate predicate,
+                                               Boolean includeValue, MapListener listener) {
+        ConcurrentMap<String, DefaultQueryCache> mapCaches = getOrPutIfAbsent(caches, mapName, cachesConstructor);
+        DefaultQueryCache cache = mapCaches.get(cacheName);
+        if (cache != null) {
+            return cache;
+        }
+        synchronized (mapCaches) {
+            cache = mapCaches.get(cacheName);
+            if (cache != null) {
+                return cache;
+            }
+            QueryCacheConfig config = context.getQueryCacheConfig(mapName, cacheName);
+            if (predicate == null) {
+                predicate = config == null ? null : toPredicate(config.getPredicateConfig());
+                if (predicate == null) {
+                    return null;
+                }
+            }
+            config = config == null ? new QueryCacheConfig(cacheName) : new QueryCacheConfig(config);
+            if (includeValue != null) {
+                config.setIncludeValue(includeValue);
+            }
+
+            cache = new DefaultQueryCache(cacheName, mapName, predicate, config, context);
+            for (MapIndexConfig indexConfig : config.getIndexConfigs()) {
+                cache.addIndex(indexConfig.getAttribute(), indexConfig.isOrdered(), indexConfig.isBitmap());
+            }
+            for (EntryListenerConfig listenerConfig : config.getEntryListenerConfigs()) {
+                cache.addListener(toListener(listenerConfig), null, null, listenerConfig.isIncludeValue());
+            }
+            if (listener != null) {
+                cache.addListener(listener, null, null, true);
+            }
+            cache.subscribe(config.isPopulate());
+            mapCaches.put(cacheName, cache);
+            return cache;
+        }
+    }
+
+    /**
+     * Returns an existing query cache.
+     *
+     * @return the query cache or {@code null} if it doesn't exist
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> QueryCache<K, V> getOrNull(String mapName, String cacheName) {
+        ConcurrentMap<String, DefaultQueryCache> mapCaches = caches.get(mapName);
+        return mapCaches == null ? null : mapCaches.get(cacheName);
+    }
+
+    void remove(DefaultQueryCache cache) {
+        ConcurrentMap<String, DefaultQueryCache> mapCaches = caches.get(cache.getMapName());
+        if (mapCaches != null) {
+            mapCaches.remove(cache.getName(), cache);
+        }
+    }
+
+    private Predicate toPredicate(PredicateConfig predicateConfig) {
+        if (predicateConfig == null) {
+            return null;
+        }
+        if (predicateConfig.getImplementation() != null) {
+            return predicateConfig.getImplementation();
+        }
+        if (predicateConfig.getSql() != null) {
+            return new SqlPredicate(predicateConfig.getSql());
+        }
+        if (predicateConfig.getClassName() != null) {
+            return newInstance(predicateConfig.getClassName());
+        }
+        return null;
+    }
+
+    private Object toListener(EntryListenerConfig listenerConfig) {
+        Object listener = listenerConfig.getImplementation();
+        return listener != null ? listener : newInstance(listenerConfig.getClassName());
+    }
+
+    private <T> T newInstance(String className) {
+        try {
+            return ClassLoaderUtil.newInstance(context.getClassLoader(), className);
+        } catch (Exception e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+}
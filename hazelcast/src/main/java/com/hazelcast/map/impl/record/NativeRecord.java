@@ -23,7 +23,7 @@ import com.hazelcast.internal.storage.Storage;
 class NativeRecord extends AbstractRecord<Data> {
 
     private Storage<DataRef> storage;
-    private DataRef valueRef;
+    private volatile DataRef valueRef;
 
     NativeRecord() {
     }
@@ -45,27 +45,44 @@ class NativeRecord extends AbstractRecord<Data> {
         return size;
     }
 
+    /**
+     * The value may be read by other threads, e.g. query threads, while the owning partition thread replaces it. The new
+     * block is stored before the old one is freed, so a read that finds its block freed retries with the current ref and
+     * only returns {@code null} if the value has been invalidated.
+     */
     @Override
     public Data getValue() {
-        if (valueRef != null) {
-            return storage.get(key.getPartitionHash(), valueRef);
+        DataRef ref = valueRef;
+        while (ref != null) {
+            Data value = storage.get(key.getPartitionHash(), ref);
+            if (value != null) {
+                return value;
+            }
+            DataRef currentRef = valueRef;
+            if (currentRef == ref) {
+                // the storage has been destroyed
+                return null;
+            }
+            ref = currentRef;
         }
         return null;
     }
 
     @Override
     public void setValue(Data value) {
-        invalidate();
-        if (value != null) {
-            valueRef = storage.put(key.getPartitionHash(), value);
+        DataRef oldRef = valueRef;
+        valueRef = value == null ? null : storage.put(key.getPartitionHash(), value);
+        if (oldRef != null) {
+            storage.remove(key.getPartitionHash(), oldRef);
         }
     }
 
     @Override
     public void invalidate() {
-        if (valueRef != null) {
-            storage.remove(key.getPartitionHash(), valueRef);
-        }
+        DataRef ref = valueRef;
         valueRef = null;
+        if (ref != null) {
+            storage.remove(key.getPartitionHash(), ref);
+        }
     }
 }
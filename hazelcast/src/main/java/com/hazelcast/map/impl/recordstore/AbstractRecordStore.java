@@ -24,6 +24,7 @@ import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
 import com.hazelcast.map.impl.SizeEstimator;
+import com.hazelcast.map.impl.hotrestart.HotRestartLog;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
@@ -36,10 +37,10 @@ import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.util.Clock;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.map.impl.SizeEstimators.createMapSizeEstimator;
@@ -49,8 +50,8 @@ import static com.hazelcast.map.impl.SizeEstimators.createMapSizeEstimator;
  */
 abstract class AbstractRecordStore implements RecordStore {
 
-    // Concurrency level is 1 since at most one thread can write at a time.
-    protected final ConcurrentMap<Data, Record> records = new ConcurrentHashMap<Data, Record>(1000, 0.75f, 1);
+    // Only the partition thread writes; see RecordMapFactory.
+    protected final ConcurrentMap<Data, Record> records;
 
     protected final RecordFactory recordFactory;
 
@@ -66,11 +67,23 @@ abstract class AbstractRecordStore implements RecordStore {
 
     private SizeEstimator sizeEstimator;
 
+    /**
+     * Keys of the records mutated since {@link #startMutationTracking()}, {@code null} if mutations are not tracked.
+     * Only accessed by the partition thread.
+     */
+    private Set<Data> mutatedKeys;
+
+    /**
+     * Log the mutations are appended to for hot restart, {@code null} if the record store is not persisted.
+     */
+    private HotRestartLog hotRestartLog;
+
     protected AbstractRecordStore(MapContainer mapContainer, int partitionId) {
         this.mapContainer = mapContainer;
         this.partitionId = partitionId;
         this.mapServiceContext = mapContainer.getMapServiceContext();
         this.serializationService = mapServiceContext.getNodeEngine().getSerializationService();
+        this.records = RecordMapFactory.newRecordMap(mapServiceContext.getNodeEngine().getGroupProperties());
         this.name = mapContainer.getName();
         this.recordFactory = mapContainer.getRecordFactory();
         this.sizeEstimator = createMapSizeEstimator();
@@ -139,11 +152,62 @@ abstract class AbstractRecordStore implements RecordStore {
         sizeEstimator.reset();
     }
 
+    @Override
+    public void startMutationTracking() {
+        mutatedKeys = new HashSet<Data>();
+    }
+
+    @Override
+    public Set<Data> stopMutationTracking() {
+        Set<Data> keys = mutatedKeys;
+        mutatedKeys = null;
+        return keys;
+    }
+
+    /**
+     * Sets the log the mutations of this record store are appended to, once it has been restored from it.
+     */
+    public void setHotRestartLog(HotRestartLog hotRestartLog) {
+        this.hotRestartLog = hotRestartLog;
+    }
+
+    /**
+     * Closes and deletes the hot restart log, when the record store is removed from this member.
+     */
+    protected void destroyHotRestartLog() {
+        if (hotRestartLog != null) {
+            hotRestartLog = null;
+            mapServiceContext.getHotRestartStore().destroyLog(name, partitionId);
+        }
+    }
+
+    /**
+     * Called after the record of the key has been put, updated or removed.
+     */
+    protected void markMutated(Data key) {
+        if (mutatedKeys != null) {
+            mutatedKeys.add(key);
+        }
+        if (hotRestartLog != null) {
+            persistRecord(key);
+        }
+    }
+
+    private void persistRecord(Data key) {
+        Record record = records.get(key);
+        if (record != null) {
+            hotRestartLog.put(key, toData(record.getValue()), record);
+        } else {
+            hotRestartLog.remove(key);
+        }
+    }
+
     protected void updateRecord(Record record, Object value, long now) {
         accessRecord(record, now);
         record.setLastUpdateTime(now);
         record.onUpdate();
         recordFactory.setValue(record, value);
+        markMutated(record.getKey());
     }
 
     @Override
@@ -211,6 +275,13 @@ abstract class AbstractRecordStore implements RecordStore {
     }
 
     protected void clearRecordsMap(Map<Data, Record> excludeRecords) {
+        if (mutatedKeys != null) {
+            for (Data key : records.keySet()) {
+                if (excludeRecords == null || !excludeRecords.containsKey(key)) {
+                    mutatedKeys.add(key);
+                }
+            }
+        }
         InMemoryFormat inMemoryFormat = recordFactory.getStorageFormat();
         switch (inMemoryFormat) {
             case BINARY:
@@ -219,6 +290,7 @@ abstract class AbstractRecordStore implements RecordStore {
                 if (excludeRecords != null && !excludeRecords.isEmpty()) {
                     records.putAll(excludeRecords);
                 }
+                persistClear(excludeRecords);
                 return;
 
             case NATIVE:
@@ -230,6 +302,7 @@ abstract class AbstractRecordStore implements RecordStore {
                         iter.remove();
                     }
                 }
+                persistClear(excludeRecords);
                 return;
 
             default:
@@ -237,6 +310,18 @@ abstract class AbstractRecordStore implements RecordStore {
         }
     }
 
+    private void persistClear(Map<Data, Record> excludeRecords) {
+        if (hotRestartLog == null) {
+            return;
+        }
+        hotRestartLog.clear();
+        if (excludeRecords != null) {
+            for (Data key : excludeRecords.keySet()) {
+                persistRecord(key);
+            }
+        }
+    }
+
     protected Data toData(Object value) {
         return mapServiceContext.toData(value);
     }
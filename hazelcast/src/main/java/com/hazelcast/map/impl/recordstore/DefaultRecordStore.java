@@ -54,6 +54,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.map.impl.ExpirationTimeSetter.updateExpiryTime;
 import static com.hazelcast.map.impl.mapstore.MapDataStores.EMPTY_MAP_DATA_STORE;
 
@@ -175,10 +176,25 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
         markRecordStoreExpirable(record.getTtl());
 
         final Record existingRecord = records.put(key, record);
+        markMutated(key);
+        if (existingRecord != null && existingRecord != record && recordFactory.getStorageFormat() == NATIVE) {
+            // the replaced record owns native memory which would otherwise leak.
+            existingRecord.invalidate();
+        }
         updateSizeEstimator(-calculateRecordHeapCost(existingRecord));
         updateSizeEstimator(calculateRecordHeapCost(record));
     }
 
+    @Override
+    public void removeRecord(Data key) {
+        final Record record = records.get(key);
+        if (record == null) {
+            return;
+        }
+        updateSizeEstimator(-calculateRecordHeapCost(record));
+        deleteRecord(key);
+    }
+
     @Override
     public Record putBackup(Data key, Object value) {
         return putBackup(key, value, DEFAULT_TTL, false);
@@ -194,6 +210,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
         if (record == null) {
             record = createRecord(key, value, ttl, now);
             records.put(key, record);
+            markMutated(key);
             updateSizeEstimator(calculateRecordHeapCost(record));
         } else {
             updateSizeEstimator(-calculateRecordHeapCost(record));
@@ -224,6 +241,12 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
         return iterator(now, backup);
     }
 
+    @Override
+    public int fetchKeys(int tableIndex, int size, List<Data> keys) {
+        checkIfLoaded();
+        return RecordMapFactory.fetchKeys(records, tableIndex, size, keys);
+    }
+
     @Override
     public Map<Data, Record> getRecordMap() {
         return records;
@@ -243,6 +266,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
                 indexes.removeEntryIndex(key);
             }
         }
+        destroyHotRestartLog();
         clearRecordsMap(Collections.<Data, Record>emptyMap());
         resetSizeEstimator();
         resetAccessSequenceNumber();
@@ -372,6 +396,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
         if (value != null) {
             record = createRecord(key, value, getNow());
             records.put(key, record);
+            markMutated(key);
             if (!backup) {
                 saveIndex(record);
             }
@@ -737,6 +762,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             if (value != null) {
                 record = createRecord(key, value, now);
                 records.put(key, record);
+                markMutated(key);
                 updateSizeEstimator(calculateRecordHeapCost(record));
             }
         }
@@ -769,6 +795,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
         if (record == null) {
             record = createRecord(key, value, ttl, now);
             records.put(key, record);
+            markMutated(key);
         } else {
             updateRecord(record, value, now);
             updateSizeEstimator(-calculateRecordHeapCost(record));
@@ -800,6 +827,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             record = createRecord(key, newValue, now);
             mergeRecordExpiration(record, mergingEntry);
             records.put(key, record);
+            markMutated(key);
             updateSizeEstimator(calculateRecordHeapCost(record));
         } else {
             Object oldValue = record.getValue();
@@ -828,6 +856,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             onStore(record);
             updateSizeEstimator(-calculateRecordHeapCost(record));
             recordFactory.setValue(record, newValue);
+            markMutated(key);
             updateSizeEstimator(calculateRecordHeapCost(record));
         }
         saveIndex(record);
@@ -891,6 +920,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             value = mapServiceContext.interceptPut(name, null, value);
             record = createRecord(key, value, ttl, now);
             records.put(key, record);
+            markMutated(key);
             updateSizeEstimator(calculateRecordHeapCost(record));
         } else {
             value = mapServiceContext.interceptPut(name, record.getValue(), value);
@@ -923,6 +953,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             value = mapServiceContext.interceptPut(name, null, value);
             record = createRecord(key, value, ttl, now);
             records.put(key, record);
+            markMutated(key);
             updateSizeEstimator(calculateRecordHeapCost(record));
         } else {
             oldValue = record.getValue();
@@ -962,6 +993,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             if (oldValue != null) {
                 record = createRecord(key, oldValue, now);
                 records.put(key, record);
+                markMutated(key);
                 updateSizeEstimator(calculateRecordHeapCost(record));
             }
         } else {
@@ -974,6 +1006,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
             onStore(record);
             record = createRecord(key, value, ttl, now);
             records.put(key, record);
+            markMutated(key);
             updateSizeEstimator(calculateRecordHeapCost(record));
             updateExpiryTime(record, ttl, mapContainer.getMapConfig());
         }
@@ -1019,6 +1052,7 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore implements
     private void deleteRecord(Data key) {
         Record record = records.remove(key);
         if (record != null) {
+            markMutated(key);
             record.invalidate();
         }
     }
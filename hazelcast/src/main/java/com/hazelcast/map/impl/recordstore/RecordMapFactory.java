@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.SampleableConcurrentHashMap;
+import com.hazelcast.util.collection.SingleWriterOpenAddressingMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.util.ConcurrentReferenceHashMap.ReferenceType.STRONG;
+
+/**
+ * Creates the map that holds the records of a {@link RecordStore} according to GroupProperties configuration.
+ */
+public final class RecordMapFactory {
+
+    /**
+     * The type of the map backing a record store.
+     */
+    public enum Type {
+        /**
+         * A concurrent hash map with concurrency level 1; a {@link SampleableConcurrentHashMap}, so it can be
+         * fetched by table index.
+         */
+        CONCURRENT_HASH_MAP,
+        /**
+         * A {@link SingleWriterOpenAddressingMap}; relies on all modifications being done by the partition thread.
+         */
+        OPEN_ADDRESSING
+    }
+
+    private static final int INITIAL_CAPACITY = 1000;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final float OPEN_ADDRESSING_LOAD_FACTOR = 0.6f;
+
+    private RecordMapFactory() {
+    }
+
+    /**
+     * Creates a new record map. The exact implementation depends on GroupProperties.
+     *
+     * @param properties the GroupProperties
+     * @return the created map
+     */
+    public static ConcurrentMap<Data, Record> newRecordMap(GroupProperties properties) {
+        return newRecordMap(getType(properties));
+    }
+
+    static ConcurrentMap<Data, Record> newRecordMap(Type type) {
+        switch (type) {
+            case OPEN_ADDRESSING:
+                return new SingleWriterOpenAddressingMap<Data, Record>(INITIAL_CAPACITY, OPEN_ADDRESSING_LOAD_FACTOR);
+            default:
+                // concurrency level is 1 since at most one thread can write at a time; it is also required for fetching.
+                return new SampleableConcurrentHashMap<Data, Record>(INITIAL_CAPACITY, LOAD_FACTOR, 1, STRONG, STRONG, null);
+        }
+    }
+
+    /**
+     * Fetches keys of a record map created by this factory from the given table index downwards.
+     *
+     * @param records    the record map
+     * @param tableIndex the index (checkpoint) to start from; an index outside of the table starts at the end
+     * @param size       the number of keys to fetch
+     * @param keys       the list the fetched keys are added to
+     * @return the next index (checkpoint) for later fetches; negative if the end of the table has been reached
+     */
+    static int fetchKeys(ConcurrentMap<Data, Record> records, int tableIndex, int size, List<Data> keys) {
+        if (records instanceof SampleableConcurrentHashMap) {
+            return ((SampleableConcurrentHashMap<Data, Record>) records).fetch(tableIndex, size, keys);
+        }
+        if (records instanceof SingleWriterOpenAddressingMap) {
+            return ((SingleWriterOpenAddressingMap<Data, Record>) records).fetch(tableIndex, size, keys);
+        }
+        throw new UnsupportedOperationException("Record map can't be fetched: " + records.getClass().getName());
+    }
+
+    static Type getType(GroupProperties properties) {
+        String string = properties.getString(GroupProperty.MAP_RECORD_MAP_TYPE);
+        try {
+            return Type.valueOf(string);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown record map type: " + string + ". Use property '"
+                    + GroupProperty.MAP_RECORD_MAP_TYPE.getName() + "' to select the record map type. "
+                    + "Available types: " + Arrays.toString(Type.values()));
+        }
+    }
+}
@@ -158,6 +158,15 @@ public interface RecordStore {
      */
     void putRecord(Data key, Record record);
 
+    /**
+     * Removes the record of a data key from record-store, without touching the map store.
+     * Used in replication operations.
+     *
+     * @param key the data key to remove from record store.
+     * @see com.hazelcast.map.impl.operation.MapReplicationOperation
+     */
+    void removeRecord(Data key);
+
     /**
      * Iterates over record store values.
      *
@@ -185,6 +194,17 @@ public interface RecordStore {
      */
     Iterator<Record> loadAwareIterator(long now, boolean backup);
 
+    /**
+     * Fetches keys of the record store from the given table index downwards, but first waits map store to load.
+     * Used to iterate over the record store in chunks without keeping any state between the chunks.
+     *
+     * @param tableIndex the index (checkpoint) to start from; {@link Integer#MAX_VALUE} to start at the beginning.
+     * @param size       the number of keys to fetch.
+     * @param keys       the list the fetched keys are added to; can contain keys of expired records.
+     * @return the next index (checkpoint) for later fetches; negative if all keys have been fetched.
+     */
+    int fetchKeys(int tableIndex, int size, List<Data> keys);
+
     /**
      * Returns records map.
      *
@@ -192,6 +212,20 @@ public interface RecordStore {
      */
     Map<Data, Record> getRecordMap();
 
+    /**
+     * Starts recording the keys of the records mutated from now on. Used to catch up with the changes made while a
+     * migrating partition is copied in chunks.
+     */
+    void startMutationTracking();
+
+    /**
+     * Stops recording mutated keys.
+     *
+     * @return the keys of the records put, updated or removed since {@link #startMutationTracking()};
+     * {@code null} if mutations were not tracked.
+     */
+    Set<Data> stopMutationTracking();
+
     Set<Data> keySet();
 
     int size();
@@ -96,6 +96,27 @@ public interface IOService {
      */
     int getSocketClientSendBufferSize();
 
+    /**
+     * Minimum size of a packet payload for it to be written using a gathering write.
+     *
+     * @return size in kilobytes, or a value smaller than 1 if gathering writes are disabled.
+     */
+    int getSocketGatheringWriteThreshold();
+
+    /**
+     * Maximum time a socket writer waits for more frames before writing a partially filled send buffer.
+     *
+     * @return the time in microseconds, or 0 if write coalescing is disabled.
+     */
+    int getSocketWriteCoalesceMicros();
+
+    /**
+     * Number of bytes in the send buffer after which a socket writer stops waiting for more frames.
+     *
+     * @return the number of bytes.
+     */
+    int getSocketWriteCoalesceBytes();
+
     int getSocketLingerSeconds();
 
     int getSocketConnectTimeoutSeconds();
@@ -201,6 +201,21 @@ public class NodeIOService implements IOService {
         return clientReceiveBuffer != -1 ? clientReceiveBuffer : getSocketReceiveBufferSize();
     }
 
+    @Override
+    public int getSocketGatheringWriteThreshold() {
+        return node.getGroupProperties().getInteger(GroupProperty.SOCKET_GATHERING_WRITE_THRESHOLD);
+    }
+
+    @Override
+    public int getSocketWriteCoalesceMicros() {
+        return node.getGroupProperties().getInteger(GroupProperty.SOCKET_WRITE_COALESCE_MICROS);
+    }
+
+    @Override
+    public int getSocketWriteCoalesceBytes() {
+        return node.getGroupProperties().getInteger(GroupProperty.SOCKET_WRITE_COALESCE_BYTES);
+    }
+
     @Override
     public int getSocketLingerSeconds() {
         return node.getGroupProperties().getSeconds(GroupProperty.SOCKET_LINGER_SECONDS);
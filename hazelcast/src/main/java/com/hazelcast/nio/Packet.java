@@ -41,6 +41,12 @@ public final class Packet extends HeapData implements OutboundFrame {
     public static final int HEADER_WAN_REPLICATION = 3;
     public static final int HEADER_URGENT = 4;
     public static final int HEADER_BIND = 5;
+    public static final int HEADER_BATCH = 6;
+
+    /**
+     * The number of bytes written before the value: byte(version) + short(header) + int(partitionId) + int(data size).
+     */
+    public static final int HEADER_SIZE = 11;
 
     // The value of these constants is important. The order needs to match the order in the read/write process
     private static final short PERSIST_VERSION = 1;
@@ -151,6 +157,20 @@ public final class Packet extends HeapData implements OutboundFrame {
         return true;
     }
 
+    /**
+     * Writes everything of this Packet except the value to the dst buffer. This makes it possible to write the value
+     * directly from {@link #toByteArray()}, e.g. using a gathering write, instead of copying it into the dst buffer.
+     * <p/>
+     * The caller is responsible for writing the first {@link #totalSize()} bytes of {@link #toByteArray()} after the
+     * header.
+     *
+     * @param dst the buffer to write the header to.
+     * @return true if the header has been written completely, false otherwise.
+     */
+    public boolean writeHeaderTo(ByteBuffer dst) {
+        return writeVersion(dst) && writeHeader(dst) && writePartition(dst) && writeSize(dst);
+    }
+
     public boolean readFrom(ByteBuffer src) {
         if (!readVersion(src)) {
             return false;
@@ -355,8 +375,7 @@ public final class Packet extends HeapData implements OutboundFrame {
      * @return the size of the packet.
      */
     public int packetSize() {
-        // 11 = byte(version) + short(header) + int(partitionId) + int(data size)
-        return (payload != null ? totalSize() : 0) + 11;
+        return (payload != null ? totalSize() : 0) + HEADER_SIZE;
     }
 
     public boolean done() {
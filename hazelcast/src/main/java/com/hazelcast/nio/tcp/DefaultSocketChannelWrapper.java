@@ -21,12 +21,20 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 
-public class DefaultSocketChannelWrapper implements SocketChannelWrapper {
+/**
+ * The default {@link SocketChannelWrapper}. It also implements the {@link GatheringByteChannel} so that multiple buffers
+ * can be written with a single call, without needing to copy them into a single buffer first.
+ * <p/>
+ * The socket writer only uses gathering writes if the channel is exactly this class, so subclasses that transform the
+ * written data, e.g. encryption, are never bypassed.
+ */
+public class DefaultSocketChannelWrapper implements SocketChannelWrapper, GatheringByteChannel {
 
     protected final SocketChannel socketChannel;
 
@@ -64,6 +72,16 @@ public class DefaultSocketChannelWrapper implements SocketChannelWrapper {
         return socketChannel.write(src);
     }
 
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        return socketChannel.write(srcs, offset, length);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return socketChannel.write(srcs);
+    }
+
     @Override
     public SelectableChannel configureBlocking(boolean block) throws IOException {
         return socketChannel.configureBlocking(block);
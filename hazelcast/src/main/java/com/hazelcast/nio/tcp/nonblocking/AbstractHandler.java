@@ -39,7 +39,7 @@ public abstract class AbstractHandler implements MigratableHandler {
     protected Selector selector;
     protected NonBlockingIOThread ioThread;
     protected SelectionKey selectionKey;
-    private final int initialOps;
+    final int initialOps;
 
     public AbstractHandler(TcpIpConnection connection, NonBlockingIOThread ioThread, int initialOps) {
         this.connection = connection;
@@ -59,6 +59,15 @@ public abstract class AbstractHandler implements MigratableHandler {
 
     protected SelectionKey getSelectionKey() {
         if (selectionKey == null) {
+            SelectionKey sharedKey = socketChannel.keyFor(selector);
+            if (sharedKey != null && sharedKey.isValid()) {
+                // the other handler of this connection is owned by the same NonBlockingIOThread, so the key is shared
+                selectionKey = sharedKey;
+                selectionKey.attach(new DuplexSelectionHandler(selectionKey, (AbstractHandler) sharedKey.attachment(), this));
+                registerOp(initialOps);
+                return selectionKey;
+            }
+
             try {
                 selectionKey = socketChannel.register(selector, initialOps, this);
             } catch (ClosedChannelException e) {
@@ -125,7 +134,13 @@ public abstract class AbstractHandler implements MigratableHandler {
 
         unregisterOp(initialOps);
         ioThread = newOwner;
-        selectionKey.cancel();
+        Object attachment = selectionKey.attachment();
+        if (attachment instanceof DuplexSelectionHandler) {
+            // the key is still in use by the other handler of this connection, so it should not be cancelled
+            selectionKey.attach(((DuplexSelectionHandler) attachment).other(this));
+        } else {
+            selectionKey.cancel();
+        }
         selectionKey = null;
         selector = null;
 
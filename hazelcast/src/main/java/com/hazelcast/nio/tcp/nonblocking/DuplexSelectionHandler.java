@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.nonblocking;
+
+import java.nio.channels.SelectionKey;
+
+/**
+ * A {@link SelectionHandler} that is attached to a SelectionKey when the reading and writing side of a connection are
+ * owned by the same {@link NonBlockingIOThread}. A SocketChannel can be registered only once on a Selector, so both
+ * handlers need to share the SelectionKey; the ready ops determine which of the two handlers are triggered.
+ */
+final class DuplexSelectionHandler implements SelectionHandler {
+
+    private final SelectionKey selectionKey;
+    private final AbstractHandler first;
+    private final AbstractHandler second;
+
+    DuplexSelectionHandler(SelectionKey selectionKey, AbstractHandler first, AbstractHandler second) {
+        this.selectionKey = selectionKey;
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Returns the handler sharing the SelectionKey with the given handler.
+     *
+     * @param handler the handler
+     * @return the other handler.
+     */
+    AbstractHandler other(AbstractHandler handler) {
+        return handler == first ? second : first;
+    }
+
+    @Override
+    public void handle() throws Exception {
+        int readyOps = selectionKey.readyOps();
+        handle(first, readyOps);
+        if (selectionKey.isValid()) {
+            handle(second, readyOps);
+        }
+    }
+
+    private static void handle(AbstractHandler handler, int readyOps) {
+        if ((readyOps & handler.initialOps) == 0) {
+            return;
+        }
+
+        try {
+            handler.handle();
+        } catch (Throwable t) {
+            handler.onFailure(t);
+        }
+    }
+
+    @Override
+    public void onFailure(Throwable throwable) {
+        first.onFailure(throwable);
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.core.HazelcastException;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.operationexecutor.OperationHostileThread;
+import com.hazelcast.util.counters.MwCounter;
 import com.hazelcast.util.counters.SwCounter;
 
 import java.io.IOException;
@@ -27,12 +28,17 @@ import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.Iterator;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class NonBlockingIOThread extends Thread implements OperationHostileThread {
 
@@ -46,6 +52,16 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
     private final SwCounter eventCount = newSwCounter();
     @Probe
     private final SwCounter selectorIOExceptionCount = newSwCounter();
+    @Probe
+    private final MwCounter selectorWakeupCount = newMwCounter();
+
+    // Indicates if the selector already has been woken up since this thread started its last round of processing
+    // the taskQueue. Only the first task added in a round needs to wake up the selector, so concurrent producers
+    // don't all pay for the selector.wakeup.
+    private final AtomicBoolean wokenUp = new AtomicBoolean();
+
+    // Tasks that should run on this thread once their deadline has passed. Only accessed by this thread.
+    private final Queue<DelayedTask> delayedTasks = new PriorityQueue<DelayedTask>();
 
     private final ILogger logger;
 
@@ -121,6 +137,15 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
         return max(currentTimeMillis() - lastSelectTimeMs, 0);
     }
 
+    /**
+     * Returns the number of tasks waiting to be processed by this NonBlockingIOThread.
+     *
+     * @return the number of pending tasks.
+     */
+    public final int getTaskQueueSize() {
+        return taskQueue.size();
+    }
+
     /**
      * Adds a task to this NonBlockingIOThread without notifying the thread.
      *
@@ -131,6 +156,23 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
         taskQueue.add(task);
     }
 
+    /**
+     * Adds a task to be executed by this NonBlockingIOThread after the given delay. The selector wait is bounded by
+     * the deadline of the first delayed task, so the task is executed without spinning the thread while it waits.
+     *
+     * Can only be called from this NonBlockingIOThread.
+     *
+     * @param task        the task to add
+     * @param delayNanos  the minimal delay in nanoseconds before the task is executed
+     * @throws NullPointerException if task is null
+     */
+    public final void addDelayedTask(Runnable task, long delayNanos) {
+        if (task == null) {
+            throw new NullPointerException("task can't be null");
+        }
+        delayedTasks.add(new DelayedTask(task, System.nanoTime() + delayNanos));
+    }
+
     /**
      * Adds a task to be executed by the NonBlockingIOThread and wakes up the selector so that it will
      * eventually pick up the task.
@@ -140,7 +182,8 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
      */
     public void addTaskAndWakeup(Runnable task) {
         taskQueue.add(task);
-        if (!selectNow) {
+        if (!selectNow && !wokenUp.get() && wokenUp.compareAndSet(false, true)) {
+            selectorWakeupCount.inc();
             selector.wakeup();
         }
     }
@@ -198,9 +241,15 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
 
     private void runSelectLoop() throws IOException {
         while (!isInterrupted()) {
+            // the flag needs to be reset before processing the taskQueue. Otherwise a task added after the taskQueue has
+            // been processed, but before the flag is reset, would not wake up the selector and would be delayed.
+            wokenUp.set(false);
             processTaskQueue();
 
-            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            long selectWaitTimeMillis = selectWaitTimeMillis();
+            // a select with a timeout of 0 blocks, so when the first delayed task is due within a millisecond we spin
+            // with selectNow until its deadline.
+            int selectedKeys = selectWaitTimeMillis > 0 ? selector.select(selectWaitTimeMillis) : selector.selectNow();
             if (selectedKeys > 0) {
                 lastSelectTimeMs = currentTimeMillis();
                 handleSelectionKeys();
@@ -220,7 +269,25 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
         }
     }
 
+    /**
+     * Returns the time to wait in the select. If there are delayed tasks, the wait ends at the first deadline. The
+     * selector has millisecond resolution, so the wait is rounded down; 0 is returned if the first deadline is less than
+     * a millisecond away, so sub-millisecond delays aren't stretched to a full millisecond.
+     */
+    private long selectWaitTimeMillis() {
+        DelayedTask first = delayedTasks.peek();
+        if (first == null) {
+            return SELECT_WAIT_TIME_MILLIS;
+        }
+
+        long remainingNanos = first.deadlineNanos - System.nanoTime();
+        long remainingMillis = NANOSECONDS.toMillis(remainingNanos);
+        return min(max(remainingMillis, 0), SELECT_WAIT_TIME_MILLIS);
+    }
+
     private void processTaskQueue() {
+        processDelayedTasks();
+
         while (!isInterrupted()) {
             Runnable task = taskQueue.poll();
             if (task == null) {
@@ -230,6 +297,22 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
         }
     }
 
+    private void processDelayedTasks() {
+        if (delayedTasks.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        while (!isInterrupted()) {
+            DelayedTask first = delayedTasks.peek();
+            if (first == null || first.deadlineNanos - now > 0) {
+                return;
+            }
+            delayedTasks.poll();
+            executeTask(first.task);
+        }
+    }
+
     private void executeTask(Runnable task) {
         NonBlockingIOThread target = getTargetIoThread(task);
         if (target == this) {
@@ -301,4 +384,30 @@ public class NonBlockingIOThread extends Thread implements OperationHostileThrea
     public String toString() {
         return getName();
     }
+
+    private static final class DelayedTask implements Comparable<DelayedTask> {
+        private final Runnable task;
+        private final long deadlineNanos;
+
+        private DelayedTask(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public int compareTo(DelayedTask that) {
+            long diff = deadlineNanos - that.deadlineNanos;
+            return diff < 0 ? -1 : (diff == 0 ? 0 : 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
 }
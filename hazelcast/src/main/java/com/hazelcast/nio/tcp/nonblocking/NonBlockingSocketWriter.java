@@ -16,27 +16,34 @@
 
 package com.hazelcast.nio.tcp.nonblocking;
 
+import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.OutboundFrame;
 import com.hazelcast.nio.ascii.TextWriteHandler;
+import com.hazelcast.nio.tcp.DefaultSocketChannelWrapper;
+import com.hazelcast.nio.tcp.MemberWriteHandler;
 import com.hazelcast.nio.tcp.NewClientWriteHandler;
 import com.hazelcast.nio.tcp.OldClientWriteHandler;
 import com.hazelcast.nio.tcp.SocketWriter;
 import com.hazelcast.nio.tcp.TcpIpConnection;
 import com.hazelcast.nio.tcp.WriteHandler;
+import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.IdleStrategy;
+import com.hazelcast.util.concurrent.MPSCQueue;
 import com.hazelcast.util.counters.SwCounter;
 
 import java.io.IOException;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectionKey;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
@@ -49,6 +56,7 @@ import static com.hazelcast.util.EmptyStatement.ignore;
 import static com.hazelcast.util.StringUtil.stringToBytes;
 import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 /**
  * The writing side of the {@link TcpIpConnection}.
@@ -56,13 +64,17 @@ import static java.lang.Math.max;
 public final class NonBlockingSocketWriter extends AbstractHandler implements Runnable, SocketWriter {
 
     private static final long TIMEOUT = 3;
+    // the write queues are polled by the io thread and never block, so the idle strategy is never used.
+    private static final IdleStrategy IDLE_STRATEGY = new BackoffIdleStrategy(0, 0, 1, 1);
+    // keeps the memory overhead per connection low.
+    private static final int WRITE_QUEUE_CHUNK_SIZE = 128;
 
     @Probe(name = "out.eventCount")
     private final SwCounter eventCount = newSwCounter();
     @Probe(name = "out.writeQueueSize")
-    private final Queue<OutboundFrame> writeQueue = new ConcurrentLinkedQueue<OutboundFrame>();
+    private final Queue<OutboundFrame> writeQueue = new MPSCQueue<OutboundFrame>(WRITE_QUEUE_CHUNK_SIZE, IDLE_STRATEGY);
     @Probe(name = "out.priorityWriteQueueSize")
-    private final Queue<OutboundFrame> urgentWriteQueue = new ConcurrentLinkedQueue<OutboundFrame>();
+    private final Queue<OutboundFrame> urgentWriteQueue = new MPSCQueue<OutboundFrame>(WRITE_QUEUE_CHUNK_SIZE, IDLE_STRATEGY);
     private final AtomicBoolean scheduled = new AtomicBoolean(false);
     private ByteBuffer outputBuffer;
     @Probe(name = "out.bytesWritten")
@@ -71,6 +83,14 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = "out.priorityFramesWritten")
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = "out.gatheringWrites")
+    private final SwCounter gatheringWrites = newSwCounter();
+    @Probe(name = "out.socketWrites")
+    private final SwCounter socketWrites = newSwCounter();
+    @Probe(name = "out.coalesceCount", level = DEBUG)
+    private final SwCounter coalesceCount = newSwCounter();
+    private final long coalesceNanos;
+    private final int coalesceBytes;
     private final MetricsRegistry metricsRegistry;
 
     private volatile OutboundFrame currentFrame;
@@ -78,6 +98,23 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
     private volatile long lastWriteTime;
 
     private boolean shutdown;
+    // the minimum payload size of a packet to be written with a gathering write; -1 if gathering writes are disabled.
+    private int gatheringWriteThreshold = -1;
+    // the buffers for a gathering write: the outputBuffer, the reused direct header buffer and the packet value.
+    private ByteBuffer[] gatheringBuffers;
+    // the value of the packet that is being written with a gathering write, or null if there is no such packet.
+    private ByteBuffer valueBuffer;
+    // the number of frames added to the outputBuffer since the last write to the socket.
+    private int framesInOutputBuffer;
+    // the number of frames in the last write to the socket; 0 if that write was incomplete.
+    private int lastWriteFrameCount;
+    // written by the ioThread, read by offering threads to end the delay of the write once enough bytes are offered.
+    private volatile boolean coalescing;
+    private long coalesceStartNanos;
+    // identifies the current coalesce round, so the deadline task of an earlier round is ignored.
+    private int coalesceRound;
+    // the number of bytes that can still be offered before the coalesce bytes are reached.
+    private final AtomicInteger coalesceBudget = new AtomicInteger();
     // this field will be accessed by the NonBlockingIOThread or
     // it is accessed by any other thread but only that thread managed to cas the scheduled flag to true.
     // This prevents running into an NonBlockingIOThread that is migrating.
@@ -85,6 +122,8 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
 
     NonBlockingSocketWriter(TcpIpConnection connection, NonBlockingIOThread ioThread, MetricsRegistry metricsRegistry) {
         super(connection, ioThread, SelectionKey.OP_WRITE);
+        this.coalesceNanos = MICROSECONDS.toNanos(ioService.getSocketWriteCoalesceMicros());
+        this.coalesceBytes = ioService.getSocketWriteCoalesceBytes();
 
         // sensors
         this.metricsRegistry = metricsRegistry;
@@ -143,6 +182,20 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
         return max(System.currentTimeMillis() - lastWriteTime, 0);
     }
 
+    /**
+     * A probe that measures the average number of frames written to the socket with a single write.
+     *
+     * @return the batching factor.
+     */
+    @Probe(name = "out.batchingFactor")
+    private double batchingFactor() {
+        long socketWrites = this.socketWrites.get();
+        if (socketWrites == 0) {
+            return 0;
+        }
+        return (double) (normalFramesWritten.get() + priorityFramesWritten.get()) / socketWrites;
+    }
+
     @Probe(name = "out.isScheduled", level = DEBUG)
     private long isScheduled() {
         return scheduled.get() ? 1 : 0;
@@ -171,6 +224,7 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
             if (CLUSTER.equals(protocol)) {
                 configureBuffers(ioService.getSocketSendBufferSize() * KILO_BYTE);
                 writeHandler = ioService.createWriteHandler(connection);
+                configureGatheringWrites();
                 outputBuffer.put(stringToBytes(CLUSTER));
                 registerOp(SelectionKey.OP_WRITE);
             } else if (CLIENT_BINARY.equals(protocol)) {
@@ -186,6 +240,21 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
         }
     }
 
+    private void configureGatheringWrites() {
+        int threshold = ioService.getSocketGatheringWriteThreshold();
+        // the MemberWriteHandler writes packets without transforming them, so the value can be written as is. The exact
+        // class of the channel is checked, since a subclass that transforms the data in write(ByteBuffer), e.g. for
+        // encryption, would be bypassed by the inherited gathering write.
+        if (threshold < 1
+                || socketChannel.getClass() != DefaultSocketChannelWrapper.class
+                || writeHandler.getClass() != MemberWriteHandler.class) {
+            return;
+        }
+
+        gatheringWriteThreshold = threshold * KILO_BYTE;
+        gatheringBuffers = new ByteBuffer[]{null, ByteBuffer.allocateDirect(Packet.HEADER_SIZE), null};
+    }
+
     private void configureBuffers(int size) {
         outputBuffer = ByteBuffer.allocate(size);
         try {
@@ -204,9 +273,41 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
             writeQueue.offer(frame);
         }
 
+        if (coalescing) {
+            consumeCoalesceBudget(frame);
+        }
         schedule();
     }
 
+    /**
+     * While the write is delayed, this WriteHandler stays scheduled and is only run again at the end of the coalesce
+     * time. So the offering thread that uses up the coalesce budget makes sure it is run right away.
+     */
+    private void consumeCoalesceBudget(OutboundFrame frame) {
+        int frameLength = frameLength(frame);
+        int remaining = coalesceBudget.addAndGet(-frameLength);
+        if (remaining > 0 || remaining + frameLength <= 0) {
+            // the budget isn't used up yet, or another thread already used it up.
+            return;
+        }
+
+        if (Thread.currentThread() == ioThread) {
+            ioThread.addTask(this);
+        } else {
+            ioThread.addTaskAndWakeup(this);
+        }
+    }
+
+    private static int frameLength(OutboundFrame frame) {
+        if (frame instanceof Packet) {
+            return ((Packet) frame).packetSize();
+        }
+        if (frame instanceof ClientMessage) {
+            return ((ClientMessage) frame).getFrameLength();
+        }
+        return 0;
+    }
+
     private OutboundFrame poll() {
         for (; ; ) {
             boolean urgent = true;
@@ -240,7 +341,8 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
      * Makes sure this WriteHandler is scheduled to be executed by the IO thread.
      * <p/>
      * This call is made by 'outside' threads that interact with the connection. For example when a frame is placed
-     * on the connection to be written. It will never be made by an IO thread.
+     * on the connection to be written. It can be made by the owning IO thread if that thread also executes operations,
+     * e.g. with the {@link ThreadPerCoreIOThreadingModel}.
      * <p/>
      * If the WriteHandler already is scheduled, the call is ignored.
      */
@@ -256,6 +358,13 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
             return;
         }
 
+        if (Thread.currentThread() == ioThread) {
+            // The owning ioThread is offering the frame itself. It will process its task queue before
+            // it selects again, so there is no need to wake up the selector.
+            ioThread.addTask(this);
+            return;
+        }
+
         // We managed to schedule this WriteHandler. This means we need to add a task to
         // the ioThread and give it a kick so that it processes our frames.
         ioThread.addTaskAndWakeup(this);
@@ -329,9 +438,18 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
             createWriterHandler(CLUSTER);
         }
 
-        fillOutputBuffer();
+        if (valueBuffer == null) {
+            fillOutputBuffer();
+        }
 
-        if (dirtyOutputBuffer()) {
+        if (valueBuffer != null) {
+            writeGatheringToSocket();
+        } else if (dirtyOutputBuffer()) {
+            if (coalesce()) {
+                // We stay scheduled, so frames offered in the meantime don't wake up the selector, and we
+                // are processed again at the end of the coalesce time or once the coalesce bytes are offered.
+                return;
+            }
             writeOutputBufferToSocket();
         }
 
@@ -342,6 +460,49 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
         }
     }
 
+    /**
+     * Checks if the write of the outputBuffer should be delayed so more frames can be added to it. This is adaptive:
+     * the write is only delayed if the previous write contained more than a single frame and wasn't incomplete. So under
+     * low load frames are written immediately and under high load small frames are coalesced.
+     *
+     * The write is delayed for at most the coalesce time and only as long as the outputBuffer and the frames offered
+     * during the delay contain less than the coalesce bytes.
+     *
+     * @return true if the write should be delayed, false if the outputBuffer should be written now.
+     */
+    private boolean coalesce() {
+        if (coalesceNanos <= 0
+                || lastWriteFrameCount <= 1
+                || outputBuffer.position() >= coalesceBytes
+                || newOwner != null) {
+            coalescing = false;
+            return false;
+        }
+
+        if (!coalescing) {
+            coalesceStartNanos = System.nanoTime();
+            coalesceRound++;
+            coalesceBudget.set(coalesceBytes - outputBuffer.position());
+            coalescing = true;
+            coalesceCount.inc();
+            ioThread.addDelayedTask(new CoalesceDeadlineTask(coalesceRound), coalesceNanos);
+            return true;
+        }
+
+        if (coalesceBudget.get() > 0 && System.nanoTime() - coalesceStartNanos < coalesceNanos) {
+            return true;
+        }
+
+        coalescing = false;
+        return false;
+    }
+
+    private void onSocketWrite(boolean complete) {
+        socketWrites.inc();
+        lastWriteFrameCount = complete ? framesInOutputBuffer : 0;
+        framesInOutputBuffer = 0;
+    }
+
     private void startMigration() {
         NonBlockingIOThread newOwner = this.newOwner;
         this.newOwner = null;
@@ -368,6 +529,7 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
         int written = socketChannel.write(outputBuffer);
 
         bytesWritten.inc(written);
+        onSocketWrite(!outputBuffer.hasRemaining());
 
         // Now we verify if all data is written.
         if (outputBuffer.hasRemaining()) {
@@ -379,6 +541,55 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
         }
     }
 
+    /**
+     * Writes the content of the outputBuffer, the header and the value of the current packet to the socket using a
+     * single gathering write. So the value doesn't need to be copied into the outputBuffer first.
+     * <p/>
+     * As long as the value has not been written completely, no frames are added to the outputBuffer since they would
+     * end up on the socket before the current packet.
+     *
+     * @throws Exception
+     */
+    private void writeGatheringToSocket() throws Exception {
+        ByteBuffer[] buffers = gatheringBuffers;
+        outputBuffer.flip();
+        buffers[0] = outputBuffer;
+        buffers[2] = valueBuffer;
+        long written = ((GatheringByteChannel) socketChannel).write(buffers);
+
+        bytesWritten.inc(written);
+        // a large packet gains nothing from coalescing, so the next write is not delayed.
+        onSocketWrite(false);
+
+        if (outputBuffer.hasRemaining()) {
+            outputBuffer.compact();
+        } else {
+            outputBuffer.clear();
+        }
+
+        if (!valueBuffer.hasRemaining()) {
+            // the packet has been written completely.
+            gatheringWrites.inc();
+            buffers[2] = null;
+            valueBuffer = null;
+            currentFrame = null;
+        }
+    }
+
+    private boolean isGatheringWrite(OutboundFrame frame) {
+        return gatheringWriteThreshold > 0
+                && frame instanceof Packet
+                && ((Packet) frame).totalSize() >= gatheringWriteThreshold;
+    }
+
+    private void prepareGatheringWrite(Packet packet) {
+        ByteBuffer headerBuffer = gatheringBuffers[1];
+        headerBuffer.clear();
+        packet.writeHeaderTo(headerBuffer);
+        headerBuffer.flip();
+        valueBuffer = ByteBuffer.wrap(packet.toByteArray(), 0, packet.totalSize());
+    }
+
     /**
      * Fills the outBuffer with frames. This is done till there are no more frames or till there is no more space in the
      * outputBuffer.
@@ -399,6 +610,12 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
                     // There is no frames to write, we are done.
                     return;
                 }
+
+                if (isGatheringWrite(currentFrame)) {
+                    // The value of this packet is written directly from its byte-array, instead of copying it.
+                    prepareGatheringWrite((Packet) currentFrame);
+                    return;
+                }
             }
 
             // Lets write the currentFrame to the outputBuffer.
@@ -409,6 +626,7 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
 
             // The current frame has been written completely. So lets null it and lets try to write another frame.
             currentFrame = null;
+            framesInOutputBuffer++;
         }
     }
 
@@ -424,8 +642,6 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
     @Override
     public void shutdown() {
         metricsRegistry.deregister(this);
-        writeQueue.clear();
-        urgentWriteQueue.clear();
 
         ShutdownTask shutdownTask = new ShutdownTask();
         offer(shutdownTask);
@@ -496,6 +712,9 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
         @Override
         void run() {
             shutdown = true;
+            // the write queues are cleared on the io thread since they only support a single consumer.
+            writeQueue.clear();
+            urgentWriteQueue.clear();
             try {
                 socketChannel.closeOutbound();
             } catch (IOException e) {
@@ -513,4 +732,24 @@ public final class NonBlockingSocketWriter extends AbstractHandler implements Ru
             }
         }
     }
+
+    /**
+     * Runs the WriteHandler at the end of the coalesce time, unless the write of that coalesce round already happened
+     * because the coalesce bytes were offered earlier.
+     */
+    private final class CoalesceDeadlineTask implements Runnable {
+
+        private final int round;
+
+        CoalesceDeadlineTask(int round) {
+            this.round = round;
+        }
+
+        @Override
+        public void run() {
+            if (coalescing && round == coalesceRound) {
+                NonBlockingSocketWriter.this.run();
+            }
+        }
+    }
 }
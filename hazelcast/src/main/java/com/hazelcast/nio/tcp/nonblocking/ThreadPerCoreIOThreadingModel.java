@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.nio.tcp.nonblocking;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.nio.tcp.IOThreadingModel;
+import com.hazelcast.nio.tcp.SocketReader;
+import com.hazelcast.nio.tcp.SocketWriter;
+import com.hazelcast.nio.tcp.TcpIpConnection;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import static com.hazelcast.util.HashUtil.hashToIndex;
+
+/**
+ * A non blocking {@link IOThreadingModel} where the io threads are provided by the
+ * {@link com.hazelcast.spi.impl.operationexecutor.threadpercore.ThreadPerCoreOperationExecutor}.
+ *
+ * Each connection is pinned to a single thread: both the {@link NonBlockingSocketReader} and the
+ * {@link NonBlockingSocketWriter} are owned by the same thread and share the SelectionKey. Partition operations read
+ * from the connection are executed directly on that thread if the thread owns the partition, and the response is written
+ * to the connection without handing it off to another thread.
+ *
+ * Connections are never migrated to another thread, so there is no {@link iobalancer.IOBalancer}. The threads are
+ * started and stopped by the OperationExecutor that owns them.
+ *
+ * This is an experimental feature and disabled by default.
+ */
+public class ThreadPerCoreIOThreadingModel implements IOThreadingModel {
+
+    private final NonBlockingIOThread[] ioThreads;
+    private final ILogger logger;
+    private final MetricsRegistry metricsRegistry;
+
+    @SuppressFBWarnings({"EI_EXPOSE_REP2" })
+    public ThreadPerCoreIOThreadingModel(LoggingService loggingService,
+                                         MetricsRegistry metricsRegistry,
+                                         NonBlockingIOThread[] ioThreads) {
+        this.logger = loggingService.getLogger(ThreadPerCoreIOThreadingModel.class);
+        this.metricsRegistry = metricsRegistry;
+        this.ioThreads = ioThreads;
+    }
+
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "used only for testing")
+    public NonBlockingIOThread[] getIOThreads() {
+        return ioThreads;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public SocketWriter newSocketWriter(TcpIpConnection connection) {
+        return new NonBlockingSocketWriter(connection, getIOThread(connection), metricsRegistry);
+    }
+
+    @Override
+    public SocketReader newSocketReader(TcpIpConnection connection) {
+        return new NonBlockingSocketReader(connection, getIOThread(connection), metricsRegistry);
+    }
+
+    private NonBlockingIOThread getIOThread(TcpIpConnection connection) {
+        return ioThreads[hashToIndex(connection.getConnectionId(), ioThreads.length)];
+    }
+
+    @Override
+    public void onConnectionAdded(TcpIpConnection connection) {
+        //no-op
+    }
+
+    @Override
+    public void onConnectionRemoved(TcpIpConnection connection) {
+        //no-op
+    }
+
+    @Override
+    public void start() {
+        logger.info("TcpIpConnectionManager configured with Thread Per Core IO-threading model: "
+                + ioThreads.length + " threads");
+    }
+
+    @Override
+    public void shutdown() {
+        //no-op; the threads are shut down by the OperationExecutor
+    }
+}
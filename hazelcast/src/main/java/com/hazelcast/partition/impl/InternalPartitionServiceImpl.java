@@ -66,6 +66,7 @@ import com.hazelcast.util.Clock;
 import com.hazelcast.util.ExceptionUtil;
 import com.hazelcast.util.FutureUtil.ExceptionHandler;
 import com.hazelcast.util.HashUtil;
+import com.hazelcast.util.executor.ExecutorType;
 import com.hazelcast.util.scheduler.CoalescingDelayedTrigger;
 import com.hazelcast.util.scheduler.EntryTaskScheduler;
 import com.hazelcast.util.scheduler.EntryTaskSchedulerFactory;
@@ -84,11 +85,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -122,6 +123,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
     private static final int DEFAULT_PAUSE_MILLIS = 1000;
     private static final int PARTITION_OWNERSHIP_WAIT_MILLIS = 10;
     private static final int REPLICA_SYNC_CHECK_TIMEOUT_SECONDS = 10;
+    private static final String MIGRATION_EXECUTOR = "hz:migration";
 
     private final Node node;
     private final NodeEngineImpl nodeEngine;
@@ -134,6 +136,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
     @Probe
     private final Semaphore replicaSyncProcessLock;
     private final MigrationThread migrationThread;
+    private final MigrationPlanner migrationPlanner;
     private final long partitionMigrationInterval;
     private final long partitionMigrationTimeout;
     private final long backupSyncCheckInterval;
@@ -146,7 +149,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
     @Probe
     private final AtomicInteger stateVersion = new AtomicInteger();
     @Probe(name = "migrationQueueSize")
-    private final BlockingQueue<Runnable> migrationQueue = new LinkedBlockingQueue<Runnable>();
+    private final BlockingDeque<Runnable> migrationQueue = new LinkedBlockingDeque<Runnable>();
     private final AtomicBoolean migrationActive = new AtomicBoolean(true);
     @Probe(name = "lastRepartitionTime")
     private final AtomicLong lastRepartitionTime = new AtomicLong();
@@ -202,6 +205,14 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         proxy = new PartitionServiceProxy(this);
 
         ExecutionService executionService = nodeEngine.getExecutionService();
+        migrationPlanner = new MigrationPlanner(
+                node.groupProperties.getInteger(GroupProperty.PARTITION_MAX_PARALLEL_MIGRATIONS),
+                node.groupProperties.getInteger(GroupProperty.PARTITION_MAX_PARALLEL_MIGRATIONS_PER_MEMBER));
+        if (migrationPlanner.isParallel()) {
+            executionService.register(MIGRATION_EXECUTOR,
+                    node.groupProperties.getInteger(GroupProperty.PARTITION_MAX_PARALLEL_MIGRATIONS),
+                    Integer.MAX_VALUE, ExecutorType.CACHED);
+        }
         ScheduledExecutorService scheduledExecutor = executionService.getDefaultScheduledExecutor();
 
         // The reason behind this scheduler to have POSTPONE type is as follows:
@@ -803,7 +814,10 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             int partitionId = migrationInfo.getPartitionId();
             partitions[partitionId].setMigrating(true);
             MigrationInfo currentMigrationInfo = activeMigrations.putIfAbsent(partitionId, migrationInfo);
-            if (currentMigrationInfo != null) {
+            if (migrationInfo.equals(currentMigrationInfo)) {
+                // the destination of a chunked migration registers the migration when the chunks arrive
+                activeMigrations.put(partitionId, migrationInfo);
+            } else if (currentMigrationInfo != null) {
                 boolean oldMaster = false;
                 MigrationInfo oldMigration;
                 MigrationInfo newMigration;
@@ -958,8 +972,11 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                         + ", replicaIndex=" + replicaIndex);
             }
             replicaSyncScheduler.schedule(partitionMigrationTimeout, partitionId, syncInfo);
-            ReplicaSyncRequest syncRequest = new ReplicaSyncRequest(partitionId, replicaIndex);
-            nodeEngine.getOperationService().send(syncRequest, target);
+            // digests of the local replica are collected on the partition thread and sent with the sync request
+            ReplicaSyncDigestOperation op = new ReplicaSyncDigestOperation(target);
+            op.setPartitionId(partitionId).setReplicaIndex(replicaIndex).setNodeEngine(nodeEngine)
+                    .setValidateTarget(false).setService(this);
+            nodeEngine.getOperationService().executeOperation(op);
             return true;
         }
         return false;
@@ -1718,6 +1735,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         private void processNewPartitionState(Address[][] newState) {
             int migrationCount = 0;
             int lostCount = 0;
+            List<MigrationInfo> migrations = new ArrayList<MigrationInfo>();
             lastRepartitionTime.set(Clock.currentTimeMillis());
             for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
                 Address[] replicas = newState[partitionId];
@@ -1737,11 +1755,14 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                     }
 
                     migrationCount++;
-                    migratePartitionToNewOwner(partitionId, replicas, currentOwner, newOwner);
+                    migrations.add(new MigrationInfo(partitionId, currentOwner, newOwner));
                 } else {
                     currentPartition.setReplicaAddresses(replicas);
                 }
             }
+            for (MigrationInfo info : MigrationPlanner.order(migrations)) {
+                migratePartitionToNewOwner(info, newState[info.getPartitionId()]);
+            }
             logMigrationStatistics(migrationCount, lostCount);
         }
 
@@ -1757,8 +1778,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             }
         }
 
-        private void migratePartitionToNewOwner(int partitionId, Address[] replicas, Address currentOwner, Address newOwner) {
-            MigrationInfo info = new MigrationInfo(partitionId, currentOwner, newOwner);
+        private void migratePartitionToNewOwner(MigrationInfo info, Address[] replicas) {
             MigrateTask migrateTask = new MigrateTask(info, replicas);
             boolean offered = migrationQueue.offer(migrateTask);
             if (!offered) {
@@ -1906,7 +1926,9 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
 
     private class MigrationThread extends Thread implements Runnable {
         private final long sleepTime = max(250L, partitionMigrationInterval);
+        private final Set<Thread> parallelMigrationThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
         private volatile boolean migrating;
+        private volatile boolean stopped;
 
         MigrationThread(Node node) {
             super(node.getHazelcastThreadGroup().getInternalThreadGroup(),
@@ -1935,7 +1957,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                 if (!isMigrationActive()) {
                     break;
                 }
-                Runnable r = migrationQueue.poll(1, TimeUnit.SECONDS);
+                Runnable r = nextTask();
                 if (r == null) {
                     break;
                 }
@@ -1946,7 +1968,10 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                 }
             }
             boolean hasNoTasks = migrationQueue.isEmpty();
-            if (hasNoTasks) {
+            // parallel migrations may still be running on the migration executor after the queue has drained;
+            // the next round polls the queue again, so waiting for them doesn't spin.
+            boolean hasNoRunningMigrations = migrationPlanner.getMigrationCount() == 0;
+            if (hasNoTasks && hasNoRunningMigrations) {
                 if (migrating) {
                     migrating = false;
                     logger.info("All migration tasks have been completed, queues are empty.");
@@ -1958,11 +1983,56 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             }
         }
 
+        /**
+         * Takes the next task from the migration queue. When migrations run in parallel, the first queued migration
+         * whose slots are free in the {@link MigrationPlanner} is taken; other tasks, like repartitioning, are only
+         * taken in their queue order once the running migrations have completed, since they work on the partition table.
+         */
+        private Runnable nextTask() throws InterruptedException {
+            Runnable r = migrationQueue.poll(1, TimeUnit.SECONDS);
+            if (r == null || !migrationPlanner.isParallel()) {
+                return r;
+            }
+            if (!(r instanceof MigrateTask)) {
+                migrationPlanner.awaitIdle();
+                return r;
+            }
+            if (migrationPlanner.tryStart(((MigrateTask) r).migrationInfo)) {
+                return r;
+            }
+            migrationQueue.addFirst(r);
+            MigrateTask migrateTask = pollStartableMigration();
+            if (migrateTask == null) {
+                migrationPlanner.awaitFinish(TimeUnit.SECONDS.toMillis(1));
+            }
+            return migrateTask;
+        }
+
+        private MigrateTask pollStartableMigration() {
+            for (Runnable queued : migrationQueue) {
+                if (!(queued instanceof MigrateTask)) {
+                    return null;
+                }
+                MigrateTask migrateTask = (MigrateTask) queued;
+                if (migrationPlanner.tryStart(migrateTask.migrationInfo)) {
+                    if (migrationQueue.remove(migrateTask)) {
+                        return migrateTask;
+                    }
+                    migrationPlanner.finish(migrateTask.migrationInfo);
+                }
+            }
+            return null;
+        }
+
         boolean processTask(Runnable r) {
             if (r == null || isInterrupted()) {
                 return false;
             }
             migrating = (r instanceof MigrateTask);
+            if (migrating && migrationPlanner.isParallel()) {
+                executeInParallel((MigrateTask) r);
+                return true;
+            }
             try {
                 r.run();
             } catch (Throwable t) {
@@ -1971,13 +2041,61 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             return true;
         }
 
+        private void executeInParallel(final MigrateTask migrateTask) {
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    Thread currentThread = Thread.currentThread();
+                    parallelMigrationThreads.add(currentThread);
+                    try {
+                        if (!stopped) {
+                            migrateTask.run();
+                        }
+                    } catch (Throwable t) {
+                        logger.warning(t);
+                    } finally {
+                        parallelMigrationThreads.remove(currentThread);
+                        migrationPlanner.finish(migrateTask.migrationInfo);
+                    }
+                }
+            };
+            try {
+                nodeEngine.getExecutionService().execute(MIGRATION_EXECUTOR, task);
+            } catch (RuntimeException e) {
+                // e.g. the executor rejected the task; the migration thread must survive, so the migration runs here
+                logger.warning("Could not execute migration in parallel, executing it sequentially: "
+                        + migrateTask.migrationInfo, e);
+                task.run();
+            }
+        }
+
         void stopNow() {
+            stopped = true;
             migrationQueue.clear();
             interrupt();
+            cancelParallelMigrations();
+        }
+
+        /**
+         * Interrupts the migrations running on the migration executor, which makes them fail, and waits until they
+         * have completed. Migrations submitted but not started yet are skipped.
+         */
+        private void cancelParallelMigrations() {
+            for (Thread thread : parallelMigrationThreads) {
+                thread.interrupt();
+            }
+            try {
+                if (!migrationPlanner.awaitIdle(partitionMigrationTimeout)) {
+                    logger.warning("Parallel migrations are still running after shutdown: "
+                            + migrationPlanner.getMigrationCount());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         boolean isMigrating() {
-            return migrating;
+            return migrating || migrationPlanner.getMigrationCount() > 0;
         }
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.partition.impl;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.OperationResponseHandler;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Applies a chunk of a migrating partition on the destination while the partition is still owned and served by the
+ * source. Sent by {@link MigrationRequestOperation} before the final {@link MigrationOperation}.
+ *
+ * @see com.hazelcast.spi.ChunkedMigrationAwareService
+ */
+@SuppressFBWarnings("EI_EXPOSE_REP")
+public final class MigrationChunkOperation extends BaseMigrationOperation {
+
+    private static final OperationResponseHandler ERROR_RESPONSE_HANDLER = new OperationResponseHandler() {
+        @Override
+        public void sendResponse(Operation op, Object obj) {
+            throw new HazelcastException("Migration chunk operations can not send response!");
+        }
+
+        @Override
+        public boolean isLocal() {
+            return true;
+        }
+    };
+
+    private Collection<Operation> tasks;
+
+    public MigrationChunkOperation() {
+    }
+
+    public MigrationChunkOperation(MigrationInfo migrationInfo, Collection<Operation> tasks) {
+        super(migrationInfo);
+        this.tasks = tasks;
+    }
+
+    @Override
+    public void run() throws Exception {
+        Address masterAddress = getNodeEngine().getMasterAddress();
+        if (!masterAddress.equals(migrationInfo.getMaster())) {
+            throw new RetryableHazelcastException("Migration initiator is not master node! => " + toString());
+        }
+
+        // registered so that the received chunks are rolled back if the migration fails
+        InternalPartitionServiceImpl partitionService = getService();
+        partitionService.addActiveMigration(migrationInfo);
+
+        for (Operation op : tasks) {
+            op.setNodeEngine(getNodeEngine())
+                    .setPartitionId(getPartitionId())
+                    .setReplicaIndex(getReplicaIndex());
+            op.setOperationResponseHandler(ERROR_RESPONSE_HANDLER);
+            OperationAccessor.setCallerAddress(op, migrationInfo.getSource());
+            try {
+                op.beforeRun();
+                op.run();
+                op.afterRun();
+            } catch (Throwable e) {
+                getLogger().severe("An exception occurred while executing migration chunk operation " + op, e);
+                success = false;
+                return;
+            }
+        }
+        success = true;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeInt(tasks.size());
+        for (Operation task : tasks) {
+            out.writeObject(task);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        int size = in.readInt();
+        tasks = new ArrayList<Operation>(size);
+        for (int i = 0; i < size; i++) {
+            Operation op = in.readObject();
+            tasks.add(op);
+        }
+    }
+
+    @Override
+    public String toString() {
+        int numberOfTasks = tasks != null ? tasks.size() : 0;
+        return getClass().getSimpleName() + "{partitionId=" + getPartitionId() + ", migration=" + migrationInfo
+                + ", numberOfTasks=" + numberOfTasks + '}';
+    }
+}
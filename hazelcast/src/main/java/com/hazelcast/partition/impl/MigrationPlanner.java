@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.partition.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.partition.MigrationInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the migrations executed by the master: orders them and decides how many of them run in parallel.
+ * <p>
+ * A migration occupies one of the {@code maxParallelMigrations} slots of the cluster and one of the
+ * {@code maxParallelMigrationsPerMember} slots of both its source and its destination. The planner only limits
+ * the number of concurrent migrations; it doesn't measure the bandwidth or CPU time they take.
+ */
+final class MigrationPlanner {
+
+    private final int maxParallelMigrations;
+    private final int maxParallelMigrationsPerMember;
+
+    private final Map<Address, Integer> memberMigrationCounts = new HashMap<Address, Integer>();
+    private int migrationCount;
+
+    MigrationPlanner(int maxParallelMigrations, int maxParallelMigrationsPerMember) {
+        this.maxParallelMigrations = Math.max(maxParallelMigrations, 1);
+        this.maxParallelMigrationsPerMember = Math.max(maxParallelMigrationsPerMember, 1);
+    }
+
+    /**
+     * Orders migrations so that consecutive migrations have distinct sources and destinations: the migrations are
+     * grouped by source and destination and the groups are visited round-robin. Hence the migrations at the head
+     * of the queue can run in parallel and the load is spread over all members during the whole rebalancing.
+     *
+     * @param migrations the migrations in partition order
+     * @return the migrations in execution order
+     */
+    static List<MigrationInfo> order(Collection<MigrationInfo> migrations) {
+        Collection<List<MigrationInfo>> sourceGroups = groupBy(migrations, true);
+        List<List<MigrationInfo>> interleavedSourceGroups = new ArrayList<List<MigrationInfo>>(sourceGroups.size());
+        for (List<MigrationInfo> sourceGroup : sourceGroups) {
+            interleavedSourceGroups.add(roundRobin(groupBy(sourceGroup, false)));
+        }
+        return roundRobin(interleavedSourceGroups);
+    }
+
+    private static Collection<List<MigrationInfo>> groupBy(Collection<MigrationInfo> migrations, boolean bySource) {
+        Map<Address, List<MigrationInfo>> groups = new LinkedHashMap<Address, List<MigrationInfo>>();
+        for (MigrationInfo migration : migrations) {
+            Address address = bySource ? migration.getSource() : migration.getDestination();
+            List<MigrationInfo> group = groups.get(address);
+            if (group == null) {
+                group = new ArrayList<MigrationInfo>();
+                groups.put(address, group);
+            }
+            group.add(migration);
+        }
+        return groups.values();
+    }
+
+    private static List<MigrationInfo> roundRobin(Collection<List<MigrationInfo>> groups) {
+        List<MigrationInfo> merged = new ArrayList<MigrationInfo>();
+        for (int index = 0; merged.size() < size(groups); index++) {
+            for (List<MigrationInfo> group : groups) {
+                if (index < group.size()) {
+                    merged.add(group.get(index));
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static int size(Collection<List<MigrationInfo>> groups) {
+        int size = 0;
+        for (List<MigrationInfo> group : groups) {
+            size += group.size();
+        }
+        return size;
+    }
+
+    /**
+     * Reserves the slots of a migration if they are free.
+     *
+     * @param migration the migration to start
+     * @return {@code true} if the migration can be started; it then needs to be {@link #finish(MigrationInfo) finished}
+     */
+    synchronized boolean tryStart(MigrationInfo migration) {
+        if (migrationCount >= maxParallelMigrations
+                || getMemberMigrationCount(migration.getSource()) >= maxParallelMigrationsPerMember
+                || getMemberMigrationCount(migration.getDestination()) >= maxParallelMigrationsPerMember) {
+            return false;
+        }
+        migrationCount++;
+        addMemberMigrationCount(migration.getSource(), 1);
+        addMemberMigrationCount(migration.getDestination(), 1);
+        return true;
+    }
+
+    /**
+     * Releases the slots of a migration started with {@link #tryStart(MigrationInfo)}.
+     *
+     * @param migration the completed migration
+     */
+    synchronized void finish(MigrationInfo migration) {
+        migrationCount--;
+        addMemberMigrationCount(migration.getSource(), -1);
+        addMemberMigrationCount(migration.getDestination(), -1);
+        notifyAll();
+    }
+
+    /**
+     * Waits until a migration finishes.
+     *
+     * @param timeoutMillis the maximum time to wait
+     */
+    synchronized void awaitFinish(long timeoutMillis) throws InterruptedException {
+        if (migrationCount > 0) {
+            wait(timeoutMillis);
+        }
+    }
+
+    /**
+     * Waits until all running migrations have finished.
+     */
+    synchronized void awaitIdle() throws InterruptedException {
+        while (migrationCount > 0) {
+            wait();
+        }
+    }
+
+    /**
+     * Waits until all running migrations have finished or the timeout elapses.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return {@code true} if no migration is running anymore
+     */
+    synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (migrationCount > 0 && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return migrationCount == 0;
+    }
+
+    synchronized int getMigrationCount() {
+        return migrationCount;
+    }
+
+    boolean isParallel() {
+        return maxParallelMigrations > 1;
+    }
+
+    private int getMemberMigrationCount(Address address) {
+        Integer count = memberMigrationCounts.get(address);
+        return count != null ? count : 0;
+    }
+
+    private void addMemberMigrationCount(Address address, int delta) {
+        int count = getMemberMigrationCount(address) + delta;
+        if (count > 0) {
+            memberMigrationCounts.put(address, count);
+        } else {
+            memberMigrationCounts.remove(address);
+        }
+    }
+}
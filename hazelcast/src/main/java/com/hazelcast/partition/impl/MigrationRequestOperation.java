@@ -19,15 +19,23 @@ package com.hazelcast.partition.impl;
 import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.partition.InternalPartition;
 import com.hazelcast.partition.InternalPartitionService;
+import com.hazelcast.partition.MigrationCycleOperation;
 import com.hazelcast.partition.MigrationEndpoint;
 import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.ChunkedMigrationAwareService;
 import com.hazelcast.spi.ExceptionAction;
 import com.hazelcast.spi.MigrationAwareService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.PartitionReplicationEvent;
 import com.hazelcast.spi.impl.SimpleExecutionCallback;
@@ -37,17 +45,33 @@ import com.hazelcast.spi.exception.TargetNotMemberException;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Sent by the master to the source of a migration. Copies the partition to the destination and responds once the
+ * destination has applied it.
+ * <p>
+ * When {@link GroupProperty#PARTITION_MIGRATION_CHUNK_SIZE} is positive, data of the
+ * {@link ChunkedMigrationAwareService}s is first sent with {@link MigrationChunkOperation}s, one chunk at a time,
+ * while the partition keeps serving operations. Each chunk is prepared on the partition thread once the previous one
+ * has been applied, optionally after a {@link GroupProperty#PARTITION_MIGRATION_CHUNK_INTERVAL_MILLIS} pause. Only
+ * then the partition is marked as migrating and the {@link MigrationOperation} carrying the remaining data and the
+ * changes made meanwhile is sent.
+ */
 public final class MigrationRequestOperation extends BaseMigrationOperation {
 
     private static final int TRY_PAUSE_MILLIS = 1000;
 
     private boolean returnResponse = true;
 
+    private transient Collection<ServiceInfo> chunkedServices;
+
     public MigrationRequestOperation() {
     }
 
@@ -85,14 +109,12 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
 
         try {
             verifyOwner(source, partition, owner);
-            partitionService.addActiveMigration(migrationInfo);
-            Collection<Operation> tasks = prepareMigrationTasks();
-            if (tasks.size() > 0) {
-                long[] replicaVersions = partitionService.getPartitionReplicaVersions(migrationInfo.getPartitionId());
-                invokeMigrationOperation(destination, replicaVersions, tasks);
-                returnResponse = false;
+            chunkedServices = getChunkedMigrationServices(nodeEngine);
+            if (chunkedServices.isEmpty()) {
+                returnResponse = !migrate();
             } else {
-                success = true;
+                returnResponse = false;
+                sendNextChunk();
             }
         } catch (Throwable e) {
             logThrowable(e);
@@ -102,6 +124,131 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         }
     }
 
+    /**
+     * Marks the partition as migrating and sends the remaining data with a {@link MigrationOperation}.
+     *
+     * @return {@code true} if the {@link MigrationOperation} has been sent and will respond to the master
+     */
+    private boolean migrate() throws IOException {
+        InternalPartitionServiceImpl partitionService = getService();
+        partitionService.addActiveMigration(migrationInfo);
+        Collection<Operation> tasks = prepareMigrationTasks();
+        if (tasks.size() > 0) {
+            long[] replicaVersions = partitionService.getPartitionReplicaVersions(migrationInfo.getPartitionId());
+            invokeMigrationOperation(migrationInfo.getDestination(), replicaVersions, tasks);
+            return true;
+        }
+        success = true;
+        return false;
+    }
+
+    private Collection<ServiceInfo> getChunkedMigrationServices(NodeEngine nodeEngine) {
+        int chunkSize = nodeEngine.getGroupProperties().getInteger(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE);
+        if (chunkSize <= 0) {
+            return new ArrayList<ServiceInfo>(0);
+        }
+        return ((NodeEngineImpl) nodeEngine).getServiceInfos(ChunkedMigrationAwareService.class);
+    }
+
+    /**
+     * Sends the next chunk of the partition to the destination or, if all chunks have been sent, the final
+     * {@link MigrationOperation}. Runs on the partition thread; the response is sent once the migration completes.
+     */
+    private void sendNextChunk() {
+        try {
+            Collection<Operation> chunk = prepareMigrationChunk();
+            if (chunk.isEmpty()) {
+                if (!migrate()) {
+                    sendResponse(Boolean.TRUE);
+                }
+            } else {
+                invokeMigrationChunkOperation(chunk);
+            }
+        } catch (Throwable e) {
+            logThrowable(e);
+            failChunkedMigration();
+        }
+    }
+
+    private void continueChunkedMigration() {
+        if (!migrationInfo.startProcessing()) {
+            getLogger().warning("Migration is cancelled -> " + migrationInfo);
+            failChunkedMigration();
+            return;
+        }
+        try {
+            sendNextChunk();
+        } finally {
+            migrationInfo.doneProcessing();
+        }
+    }
+
+    private void failChunkedMigration() {
+        PartitionMigrationEvent event = new PartitionMigrationEvent(MigrationEndpoint.SOURCE, getPartitionId());
+        for (ServiceInfo serviceInfo : chunkedServices) {
+            ChunkedMigrationAwareService service = (ChunkedMigrationAwareService) serviceInfo.getService();
+            try {
+                service.discardMigrationChunks(event);
+            } catch (Throwable t) {
+                getLogger().warning("While discarding migration chunks -> " + event, t);
+            }
+        }
+        success = false;
+        sendResponse(Boolean.FALSE);
+    }
+
+    private Collection<Operation> prepareMigrationChunk() {
+        GroupProperties groupProperties = getNodeEngine().getGroupProperties();
+        int chunkSize = groupProperties.getInteger(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE);
+        PartitionMigrationEvent event = new PartitionMigrationEvent(MigrationEndpoint.SOURCE, getPartitionId());
+
+        Collection<Operation> tasks = new LinkedList<Operation>();
+        for (ServiceInfo serviceInfo : chunkedServices) {
+            ChunkedMigrationAwareService service = (ChunkedMigrationAwareService) serviceInfo.getService();
+            Operation op = service.prepareMigrationChunk(event, chunkSize);
+            if (op != null) {
+                op.setServiceName(serviceInfo.getName());
+                tasks.add(op);
+            }
+        }
+        return tasks;
+    }
+
+    private void invokeMigrationChunkOperation(Collection<Operation> chunk) {
+        MigrationChunkOperation operation = new MigrationChunkOperation(migrationInfo, chunk);
+        InternalPartitionServiceImpl partitionService = getService();
+
+        getNodeEngine().getOperationService()
+                .createInvocationBuilder(InternalPartitionService.SERVICE_NAME, operation, migrationInfo.getDestination())
+                .setExecutionCallback(new MigrationChunkCallback(this))
+                .setResultDeserialized(true)
+                .setCallTimeout(partitionService.getPartitionMigrationTimeout())
+                .setTryPauseMillis(TRY_PAUSE_MILLIS)
+                .setReplicaIndex(getReplicaIndex())
+                .invoke();
+    }
+
+    private void scheduleChunkedMigrationStep(boolean fail) {
+        final NodeEngine nodeEngine = getNodeEngine();
+        final ChunkedMigrationStep step = new ChunkedMigrationStep(this, fail);
+        step.setPartitionId(getPartitionId())
+                .setNodeEngine(nodeEngine)
+                .setValidateTarget(false)
+                .setService(getService());
+
+        long interval = nodeEngine.getGroupProperties().getMillis(GroupProperty.PARTITION_MIGRATION_CHUNK_INTERVAL_MILLIS);
+        if (fail || interval <= 0) {
+            nodeEngine.getOperationService().executeOperation(step);
+            return;
+        }
+        nodeEngine.getExecutionService().schedule(new Runnable() {
+            @Override
+            public void run() {
+                nodeEngine.getOperationService().executeOperation(step);
+            }
+        }, interval, MILLISECONDS);
+    }
+
     private void logThrowable(Throwable t) {
         Throwable throwableToLog = t;
         if (throwableToLog instanceof ExecutionException) {
@@ -144,8 +291,6 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         NodeEngine nodeEngine = getNodeEngine();
         InternalPartitionServiceImpl partitionService = getService();
 
-
-
         nodeEngine.getOperationService()
                 .createInvocationBuilder(InternalPartitionService.SERVICE_NAME, operation, destination)
                 .setExecutionCallback(new MigrationCallback(migrationInfo, this))
@@ -226,4 +371,65 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
             op.sendResponse(result);
         }
     }
+
+    private static final class MigrationChunkCallback extends SimpleExecutionCallback<Object> {
+
+        final MigrationRequestOperation op;
+
+        private MigrationChunkCallback(MigrationRequestOperation op) {
+            this.op = op;
+        }
+
+        @Override
+        public void notify(Object result) {
+            if (result instanceof Throwable) {
+                op.logThrowable((Throwable) result);
+            }
+            op.scheduleChunkedMigrationStep(!Boolean.TRUE.equals(result));
+        }
+    }
+
+    /**
+     * Continues a chunked migration on the partition thread after a chunk has been applied by the destination.
+     */
+    private static final class ChunkedMigrationStep extends AbstractOperation
+            implements PartitionAwareOperation, MigrationCycleOperation {
+
+        private final MigrationRequestOperation op;
+        private final boolean fail;
+
+        private ChunkedMigrationStep(MigrationRequestOperation op, boolean fail) {
+            this.op = op;
+            this.fail = fail;
+        }
+
+        @Override
+        public void run() {
+            if (fail) {
+                op.failChunkedMigration();
+            } else {
+                op.continueChunkedMigration();
+            }
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return false;
+        }
+
+        @Override
+        public boolean validatesTarget() {
+            return false;
+        }
+
+        @Override
+        protected void readInternal(ObjectDataInput in) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void writeInternal(ObjectDataOutput out) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
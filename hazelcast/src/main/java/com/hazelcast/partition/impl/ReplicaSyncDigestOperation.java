@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.partition.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.partition.MigrationCycleOperation;
+import com.hazelcast.spi.AbstractOperation;
+import com.hazelcast.spi.PartitionAwareOperation;
+import com.hazelcast.spi.ReplicaDigestAwareService;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs locally on the partition thread of a backup replica; collects the digests of the data held by the
+ * {@link ReplicaDigestAwareService}s and sends them to the owner with the {@link ReplicaSyncRequest}, so that the
+ * owner only sends back the data which differs.
+ */
+final class ReplicaSyncDigestOperation extends AbstractOperation
+        implements PartitionAwareOperation, MigrationCycleOperation {
+
+    private final Address target;
+
+    public ReplicaSyncDigestOperation(Address target) {
+        this.target = target;
+    }
+
+    @Override
+    public void run() {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        int partitionId = getPartitionId();
+        Map<String, Object> digests = new HashMap<String, Object>();
+        for (ServiceInfo serviceInfo : nodeEngine.getServiceInfos(ReplicaDigestAwareService.class)) {
+            ReplicaDigestAwareService service = (ReplicaDigestAwareService) serviceInfo.getService();
+            try {
+                Object digest = service.createReplicaDigest(partitionId);
+                if (digest != null) {
+                    digests.put(serviceInfo.getName(), digest);
+                }
+            } catch (Throwable e) {
+                // the replica of the service is copied entirely
+                getLogger().warning("Could not create replica digest of " + serviceInfo.getName()
+                        + " for partitionId=" + partitionId, e);
+            }
+        }
+        ReplicaSyncRequest syncRequest = new ReplicaSyncRequest(partitionId, getReplicaIndex(), digests);
+        nodeEngine.getOperationService().send(syncRequest, target);
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+}
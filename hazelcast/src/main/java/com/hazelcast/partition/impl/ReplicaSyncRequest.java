@@ -30,17 +30,26 @@ import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.PartitionReplicationEvent;
+import com.hazelcast.spi.ReplicaDigestAwareService;
 import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 public final class ReplicaSyncRequest extends Operation implements PartitionAwareOperation, MigrationCycleOperation {
 
+    /**
+     * Digests of the data held by the requesting replica by service name, see {@link ReplicaDigestAwareService}.
+     */
+    private Map<String, Object> replicaDigests = Collections.emptyMap();
+
     public ReplicaSyncRequest() {
     }
 
@@ -49,6 +58,11 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
         setReplicaIndex(replicaIndex);
     }
 
+    public ReplicaSyncRequest(int partitionId, int replicaIndex, Map<String, Object> replicaDigests) {
+        this(partitionId, replicaIndex);
+        this.replicaDigests = replicaDigests;
+    }
+
     @Override
     public void beforeRun() throws Exception {
         int syncReplicaIndex = getReplicaIndex();
@@ -147,7 +161,13 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
         List<Operation> tasks = new LinkedList<Operation>();
         for (ServiceInfo serviceInfo : services) {
             MigrationAwareService service = (MigrationAwareService) serviceInfo.getService();
-            Operation op = service.prepareReplicationOperation(event);
+            Object digest = replicaDigests.get(serviceInfo.getName());
+            Operation op;
+            if (digest != null && service instanceof ReplicaDigestAwareService) {
+                op = ((ReplicaDigestAwareService) service).prepareReplicationOperation(event, digest);
+            } else {
+                op = service.prepareReplicationOperation(event);
+            }
             if (op != null) {
                 op.setServiceName(serviceInfo.getName());
                 tasks.add(op);
@@ -220,10 +240,24 @@ public final class ReplicaSyncRequest extends Operation implements PartitionAwar
 
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(replicaDigests.size());
+        for (Map.Entry<String, Object> entry : replicaDigests.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size > 0) {
+            replicaDigests = new HashMap<String, Object>(size);
+            for (int i = 0; i < size; i++) {
+                String serviceName = in.readUTF();
+                Object digest = in.readObject();
+                replicaDigests.put(serviceName, digest);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import java.io.Serializable;
+
+/**
+ * Transforms the entries of an {@link com.hazelcast.core.IMap} query on the member that owns them, so only the projected
+ * part of a value has to be sent to the caller instead of the full value.
+ * <p/>
+ * A projection is serialized and sent to every member, so it should not hold any state. A predefined set of projections
+ * can be found in {@link Projections}.
+ *
+ * @param <I> the type of the input, e.g. a {@link java.util.Map.Entry}.
+ * @param <O> the type of the output.
+ */
+public abstract class Projection<I, O> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Transforms an input entry.
+     *
+     * @param input the input entry.
+     * @return the projected output.
+     */
+    public abstract O transform(I input);
+}
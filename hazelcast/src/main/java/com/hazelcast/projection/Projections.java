@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection;
+
+import com.hazelcast.projection.impl.MultiAttributeProjection;
+import com.hazelcast.projection.impl.SingleAttributeProjection;
+
+/**
+ * Provides the predefined {@link Projection}s.
+ * <p/>
+ * The attribute path is resolved like the attribute of a {@link com.hazelcast.query.Predicate}, e.g. "age" or
+ * "address.city", so getters, fields and {@link com.hazelcast.nio.serialization.Portable} fields are supported.
+ */
+public final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * @return a projection extracting a single attribute.
+     */
+    public static <I, O> Projection<I, O> singleAttribute(String attributePath) {
+        return new SingleAttributeProjection<I, O>(attributePath);
+    }
+
+    /**
+     * @return a projection extracting the given attributes into an array in the order of the attribute paths.
+     */
+    public static <I> Projection<I, Object[]> multiAttribute(String... attributePaths) {
+        return new MultiAttributeProjection<I>(attributePaths);
+    }
+}
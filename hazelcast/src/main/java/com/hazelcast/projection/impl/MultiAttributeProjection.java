@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * Projects an entry to an array of attributes.
+ *
+ * @param <I> the type of the input.
+ */
+public final class MultiAttributeProjection<I> extends Projection<I, Object[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] attributePaths;
+
+    public MultiAttributeProjection(String... attributePaths) {
+        checkNotNull(attributePaths, "attributePaths must not be null");
+        if (attributePaths.length == 0) {
+            throw new IllegalArgumentException("At least one attributePath must be given");
+        }
+        for (String attributePath : attributePaths) {
+            checkHasText(attributePath, "attributePath must not be null or empty");
+        }
+        this.attributePaths = attributePaths.clone();
+    }
+
+    @Override
+    public Object[] transform(I input) {
+        if (!(input instanceof QueryableEntry)) {
+            throw new IllegalArgumentException("Can't extract attributes from " + input);
+        }
+        QueryableEntry entry = (QueryableEntry) input;
+        Object[] result = new Object[attributePaths.length];
+        for (int i = 0; i < attributePaths.length; i++) {
+            result[i] = entry.getAttribute(attributePaths[i]);
+        }
+        return result;
+    }
+}
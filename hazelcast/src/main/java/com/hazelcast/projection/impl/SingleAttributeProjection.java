@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.projection.impl;
+
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import static com.hazelcast.util.Preconditions.checkHasText;
+
+/**
+ * Projects an entry to a single attribute.
+ *
+ * @param <I> the type of the input.
+ * @param <O> the type of the attribute.
+ */
+public final class SingleAttributeProjection<I, O> extends Projection<I, O> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String attributePath;
+
+    public SingleAttributeProjection(String attributePath) {
+        this.attributePath = checkHasText(attributePath, "attributePath must not be null or empty");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public O transform(I input) {
+        if (input instanceof QueryableEntry) {
+            return (O) ((QueryableEntry) input).getAttribute(attributePath);
+        }
+        throw new IllegalArgumentException("Can't extract attribute '" + attributePath + "' from " + input);
+    }
+}
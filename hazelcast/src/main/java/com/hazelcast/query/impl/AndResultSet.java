@@ -21,6 +21,7 @@ import com.hazelcast.query.Predicate;
 
 import java.io.IOException;
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -38,7 +39,25 @@ public class AndResultSet extends AbstractSet<QueryableEntry> {
 
     public AndResultSet(Set<QueryableEntry> setSmallest, List<Set<QueryableEntry>> otherIndexedResults,
                         List<Predicate> lsNoIndexPredicates) {
-        this.setSmallest = isNotNull(setSmallest, "setSmallest");
+        isNotNull(setSmallest, "setSmallest");
+        if (setSmallest instanceof BitmapResultSet && otherIndexedResults != null) {
+            // intersect the bitmaps of all bitmap index results up front, instead of probing them entry by entry
+            List<Set<QueryableEntry>> bitmapResults = new ArrayList<Set<QueryableEntry>>();
+            List<Set<QueryableEntry>> otherResults = new ArrayList<Set<QueryableEntry>>();
+            bitmapResults.add(setSmallest);
+            for (Set<QueryableEntry> otherIndexedResult : otherIndexedResults) {
+                bitmapResults.add(otherIndexedResult);
+                if (!BitmapResultSet.canCombine(bitmapResults)) {
+                    bitmapResults.remove(bitmapResults.size() - 1);
+                    otherResults.add(otherIndexedResult);
+                }
+            }
+            if (bitmapResults.size() > 1) {
+                setSmallest = BitmapResultSet.and(bitmapResults);
+                otherIndexedResults = otherResults;
+            }
+        }
+        this.setSmallest = setSmallest;
         this.otherIndexedResults = otherIndexedResults;
         this.lsNoIndexPredicates = lsNoIndexPredicates;
     }
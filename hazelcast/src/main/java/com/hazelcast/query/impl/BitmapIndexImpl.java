@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An unordered index storing a {@link CompressedBitmap} of entry ordinals per value; see {@link BitmapIndexStore}.
+ * <p/>
+ * All queries return a {@link BitmapResultSet}, so {@link AndResultSet} and {@link OrResultSet} can combine the results
+ * of bitmap indexes of the same {@link Indexes} with bitmap operations.
+ */
+public class BitmapIndexImpl extends IndexImpl {
+
+    private final BitmapIndexStore bitmapStore;
+
+    public BitmapIndexImpl(String attribute, EntryOrdinals ordinals) {
+        this(attribute, new BitmapIndexStore(ordinals));
+    }
+
+    private BitmapIndexImpl(String attribute, BitmapIndexStore bitmapStore) {
+        super(attribute, false, bitmapStore, false);
+        this.bitmapStore = bitmapStore;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable[] values) {
+        if (getConverter() == null) {
+            return bitmapStore.getRecords(Collections.<Comparable>emptySet());
+        }
+        Set<Comparable> convertedValues = new HashSet<Comparable>(values.length);
+        for (Comparable value : values) {
+            convertedValues.add(convert(value));
+        }
+        return bitmapStore.getRecords(convertedValues);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        if (getConverter() == null) {
+            return bitmapStore.getRecords(Collections.<Comparable>emptySet());
+        }
+        return bitmapStore.getRecords(Collections.singleton(convert(value)));
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        if (getConverter() == null) {
+            return bitmapStore.getRecords(Collections.<Comparable>emptySet());
+        }
+        return bitmapStore.getRecords(bitmapStore.getValuesBetween(convert(from), convert(to)));
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        if (getConverter() == null) {
+            return bitmapStore.getRecords(Collections.<Comparable>emptySet());
+        }
+        if (comparisonType == ComparisonType.NOT_EQUAL) {
+            return bitmapStore.getRecordsNotEqual(convert(searchedValue));
+        }
+        return bitmapStore.getRecords(bitmapStore.getValues(comparisonType, convert(searchedValue)));
+    }
+
+    /**
+     * Returns the number of distinct values in this index.
+     *
+     * @return the number of distinct values.
+     */
+    public int getValueCount() {
+        return bitmapStore.getValueCount();
+    }
+
+    private Comparable convert(Comparable value) {
+        return getConverter().convert(value);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Store indexes as a {@link CompressedBitmap} of entry ordinals per value.
+ * <p/>
+ * Meant for attributes with a low cardinality, e.g. a status or a country: instead of a map entry per indexed entry per
+ * value like the {@link UnsortedIndexStore}, every entry costs a few bits in the bitmap of its value. The ordinals are
+ * assigned by the {@link EntryOrdinals} that is shared by all bitmap indexes of the same {@link Indexes}.
+ * <p/>
+ * The value of an entry isn't stored anywhere else: it is found by looking for the bitmap containing the ordinal of the
+ * entry, which is cheap since there are only a few distinct values. So a {@link BitmapIndexImpl} doesn't keep the values
+ * of its entries in a map either.
+ * <p/>
+ * Range and not-equal queries are evaluated by combining the bitmaps of all matching values, which is cheap since there
+ * are only a few distinct values.
+ */
+public class BitmapIndexStore extends BaseIndexStore {
+
+    private final EntryOrdinals ordinals;
+    private final Map<Comparable, CompressedBitmap> bitmaps = new HashMap<Comparable, CompressedBitmap>();
+    // the ordinals of all entries with a non-null value, so not-equal queries are a single andNot
+    private CompressedBitmap nonNullBitmap = new CompressedBitmap();
+
+    public BitmapIndexStore(EntryOrdinals ordinals) {
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    public void newIndex(Comparable newValue, QueryableEntry entry) {
+        takeWriteLock();
+        try {
+            int ordinal = ordinals.assign(entry);
+            CompressedBitmap bitmap = bitmaps.get(newValue);
+            if (bitmap != null && bitmap.contains(ordinal)) {
+                return;
+            }
+            Comparable oldValue = getValue(ordinal);
+            if (oldValue != null) {
+                removeBit(oldValue, ordinal);
+            }
+            addBit(newValue, ordinal);
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void updateIndex(Comparable oldValue, Comparable newValue, QueryableEntry entry) {
+        newIndex(newValue, entry);
+    }
+
+    @Override
+    public void removeIndex(Comparable oldValue, Data indexKey) {
+        takeWriteLock();
+        try {
+            int ordinal = ordinals.getOrdinal(indexKey);
+            Comparable value = ordinal >= 0 ? getValue(ordinal) : null;
+            if (value != null) {
+                removeBit(value, ordinal);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            bitmaps.clear();
+            nonNullBitmap = new CompressedBitmap();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    /**
+     * Returns the entries with one of the given values.
+     *
+     * @param values the values.
+     * @return the result set.
+     */
+    public BitmapResultSet getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            CompressedBitmap result = null;
+            for (Comparable value : values) {
+                CompressedBitmap bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    result = result == null ? bitmap.copy() : CompressedBitmap.or(result, bitmap);
+                }
+            }
+            return new BitmapResultSet(ordinals, result == null ? new CompressedBitmap() : result, this, values);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Returns the entries with a non-null value that isn't equal to the given value.
+     *
+     * @param value the value.
+     * @return the result set.
+     */
+    public BitmapResultSet getRecordsNotEqual(Comparable value) {
+        Set<Comparable> values = getValues(ComparisonType.NOT_EQUAL, value);
+        takeReadLock();
+        try {
+            CompressedBitmap bitmap = bitmaps.get(value);
+            CompressedBitmap result = bitmap == null ? nonNullBitmap.copy() : CompressedBitmap.andNot(nonNullBitmap, bitmap);
+            return new BitmapResultSet(ordinals, result, this, values);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Returns the distinct indexed values between from and to, both inclusive. Null values never match.
+     */
+    public Set<Comparable> getValuesBetween(Comparable from, Comparable to) {
+        boolean ascending = from.compareTo(to) <= 0;
+        Comparable lower = ascending ? from : to;
+        Comparable upper = ascending ? to : from;
+        takeReadLock();
+        try {
+            Set<Comparable> result = new HashSet<Comparable>();
+            for (Comparable value : bitmaps.keySet()) {
+                if (!(value instanceof IndexImpl.NullObject) && value.compareTo(lower) >= 0 && value.compareTo(upper) <= 0) {
+                    result.add(value);
+                }
+            }
+            return result;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Returns the distinct indexed values matching the comparison with the searched value. Null values never match.
+     */
+    public Set<Comparable> getValues(ComparisonType comparisonType, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            Set<Comparable> result = new HashSet<Comparable>();
+            for (Comparable value : bitmaps.keySet()) {
+                if (!(value instanceof IndexImpl.NullObject) && matches(comparisonType, searchedValue.compareTo(value))) {
+                    result.add(value);
+                }
+            }
+            return result;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Checks if the entry with the given ordinal currently has one of the given values.
+     */
+    boolean matches(int ordinal, Set<Comparable> values) {
+        takeReadLock();
+        try {
+            for (Comparable value : values) {
+                CompressedBitmap bitmap = bitmaps.get(value);
+                if (bitmap != null && bitmap.contains(ordinal)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct values in this store.
+     */
+    public int getValueCount() {
+        takeReadLock();
+        try {
+            return bitmaps.size();
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public void getSubRecordsBetween(MultiResultSet results, Comparable from, Comparable to) {
+        results.addResultSet(getRecords(getValuesBetween(from, to)));
+    }
+
+    @Override
+    public void getSubRecords(MultiResultSet results, ComparisonType comparisonType, Comparable searchedValue) {
+        if (comparisonType == ComparisonType.NOT_EQUAL) {
+            results.addResultSet(getRecordsNotEqual(searchedValue));
+        } else {
+            results.addResultSet(getRecords(getValues(comparisonType, searchedValue)));
+        }
+    }
+
+    @Override
+    public int getRecordCount(Comparable value) {
+        takeReadLock();
+        try {
+            CompressedBitmap bitmap = bitmaps.get(value);
+            return bitmap == null ? 0 : bitmap.cardinality();
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        return getRecords(Collections.singleton(value));
+    }
+
+    @Override
+    public void getRecords(MultiResultSet results, Set<Comparable> values) {
+        results.addResultSet(getRecords(values));
+    }
+
+    /**
+     * Copies the entries with the value into a map; queries use the bitmap result sets instead.
+     */
+    @Override
+    public ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue) {
+        return toRecordMap(getRecords(Collections.singleton(indexValue)));
+    }
+
+    private static boolean matches(ComparisonType comparisonType, int result) {
+        switch (comparisonType) {
+            case LESSER:
+                return result > 0;
+            case LESSER_EQUAL:
+                return result >= 0;
+            case GREATER:
+                return result < 0;
+            case GREATER_EQUAL:
+                return result <= 0;
+            case NOT_EQUAL:
+                return result != 0;
+            default:
+                throw new IllegalStateException("Unrecognized comparisonType: " + comparisonType);
+        }
+    }
+
+    private static ConcurrentMap<Data, QueryableEntry> toRecordMap(Set<QueryableEntry> entries) {
+        ConcurrentMap<Data, QueryableEntry> records = new ConcurrentHashMap<Data, QueryableEntry>();
+        for (QueryableEntry entry : entries) {
+            records.put(entry.getIndexKey(), entry);
+        }
+        return records;
+    }
+
+    private Comparable getValue(int ordinal) {
+        for (Map.Entry<Comparable, CompressedBitmap> entry : bitmaps.entrySet()) {
+            if (entry.getValue().contains(ordinal)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void addBit(Comparable value, int ordinal) {
+        CompressedBitmap bitmap = bitmaps.get(value);
+        if (bitmap == null) {
+            bitmap = new CompressedBitmap();
+            bitmaps.put(value, bitmap);
+        }
+        bitmap.add(ordinal);
+        if (!(value instanceof IndexImpl.NullObject)) {
+            nonNullBitmap.add(ordinal);
+        }
+    }
+
+    private void removeBit(Comparable value, int ordinal) {
+        CompressedBitmap bitmap = bitmaps.get(value);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+        nonNullBitmap.remove(ordinal);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Result set of a {@link BitmapIndexImpl}: a bitmap of entry ordinals.
+ * <p/>
+ * Result sets sharing the same {@link EntryOrdinals} can be combined with {@link #and(List)} and {@link #or(List)} by
+ * combining their bitmaps, without materializing any entries. The bitmap is a snapshot taken at query time; while
+ * iterating, every ordinal is checked against the current state of the index, so an ordinal that has been reused for
+ * another entry in the meantime is never returned as a false match.
+ */
+public final class BitmapResultSet extends AbstractSet<QueryableEntry> {
+
+    private final EntryOrdinals ordinals;
+    private final CompressedBitmap bitmap;
+
+    // set for a result set of a single index
+    private final BitmapIndexStore store;
+    private final Set<Comparable> values;
+
+    // set for a combination of result sets
+    private final BitmapResultSet[] operands;
+    private final boolean union;
+
+    BitmapResultSet(EntryOrdinals ordinals, CompressedBitmap bitmap, BitmapIndexStore store, Set<Comparable> values) {
+        this.ordinals = ordinals;
+        this.bitmap = bitmap;
+        this.store = store;
+        this.values = values;
+        this.operands = null;
+        this.union = false;
+    }
+
+    private BitmapResultSet(CompressedBitmap bitmap, BitmapResultSet[] operands, boolean union) {
+        this.ordinals = operands[0].ordinals;
+        this.bitmap = bitmap;
+        this.store = null;
+        this.values = null;
+        this.operands = operands;
+        this.union = union;
+    }
+
+    /**
+     * Checks if the given result sets can be combined with {@link #and(List)} or {@link #or(List)}.
+     *
+     * @param resultSets the result sets.
+     * @return true if there are at least 2 result sets, and all of them are bitmap result sets sharing the same ordinals.
+     */
+    public static boolean canCombine(List<Set<QueryableEntry>> resultSets) {
+        if (resultSets.size() < 2) {
+            return false;
+        }
+        EntryOrdinals ordinals = null;
+        for (Set<QueryableEntry> resultSet : resultSets) {
+            if (!(resultSet instanceof BitmapResultSet)) {
+                return false;
+            }
+            EntryOrdinals other = ((BitmapResultSet) resultSet).ordinals;
+            if (ordinals != null && ordinals != other) {
+                return false;
+            }
+            ordinals = other;
+        }
+        return true;
+    }
+
+    /**
+     * Intersects bitmap result sets.
+     *
+     * @param resultSets the result sets; see {@link #canCombine(List)}.
+     * @return the intersection.
+     */
+    public static BitmapResultSet and(List<Set<QueryableEntry>> resultSets) {
+        BitmapResultSet[] operands = toArray(resultSets);
+        CompressedBitmap bitmap = operands[0].bitmap;
+        for (int i = 1; i < operands.length; i++) {
+            bitmap = CompressedBitmap.and(bitmap, operands[i].bitmap);
+        }
+        return new BitmapResultSet(bitmap, operands, false);
+    }
+
+    /**
+     * Unites bitmap result sets.
+     *
+     * @param resultSets the result sets; see {@link #canCombine(List)}.
+     * @return the union.
+     */
+    public static BitmapResultSet or(List<Set<QueryableEntry>> resultSets) {
+        BitmapResultSet[] operands = toArray(resultSets);
+        CompressedBitmap bitmap = operands[0].bitmap;
+        for (int i = 1; i < operands.length; i++) {
+            bitmap = CompressedBitmap.or(bitmap, operands[i].bitmap);
+        }
+        return new BitmapResultSet(bitmap, operands, true);
+    }
+
+    private static BitmapResultSet[] toArray(List<Set<QueryableEntry>> resultSets) {
+        BitmapResultSet[] operands = new BitmapResultSet[resultSets.size()];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = (BitmapResultSet) resultSets.get(i);
+        }
+        return operands;
+    }
+
+    private boolean matches(int ordinal) {
+        if (operands == null) {
+            return store.matches(ordinal, values);
+        }
+        for (BitmapResultSet operand : operands) {
+            if (operand.matches(ordinal) == union) {
+                return union;
+            }
+        }
+        return !union;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof QueryableEntry)) {
+            return false;
+        }
+        int ordinal = ordinals.getOrdinal(((QueryableEntry) o).getIndexKey());
+        return ordinal >= 0 && matches(ordinal);
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        return new It();
+    }
+
+    /**
+     * Returns the number of ordinals in the bitmap; this is an estimate, since entries are validated while iterating.
+     */
+    @Override
+    public int size() {
+        return bitmap.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bitmap.isEmpty();
+    }
+
+    private class It implements Iterator<QueryableEntry> {
+
+        private int ordinal = -1;
+        private QueryableEntry next;
+        private boolean exhausted;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (exhausted) {
+                    return false;
+                }
+                ordinal = bitmap.nextSetBit(ordinal + 1);
+                if (ordinal < 0) {
+                    exhausted = true;
+                    return false;
+                }
+                QueryableEntry entry = ordinals.getEntry(ordinal);
+                if (entry != null && matches(ordinal)) {
+                    next = entry;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            QueryableEntry result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link Index} over multiple attributes. The indexed value of an entry is a {@link CompositeValue} containing the
+ * values of all attributes; so an equality lookup on all attributes is a single index hit instead of an intersection
+ * of the results of multiple single attribute indexes.
+ * <p/>
+ * A composite index is defined by a comma separated list of attributes, e.g. "customerId,status". The order of the
+ * attributes is the order of the components of the {@link CompositeValue}.
+ */
+public class CompositeIndexImpl extends IndexImpl {
+
+    /**
+     * The separator between the attributes in the name of a composite index.
+     */
+    public static final String SEPARATOR = ",";
+
+    private final String[] components;
+
+    public CompositeIndexImpl(String[] components, boolean ordered) {
+        super(toName(components), ordered);
+        this.components = components;
+    }
+
+    /**
+     * Checks if the given index attribute defines a composite index.
+     *
+     * @param attribute the index attribute.
+     * @return true if it is a composite index, false otherwise.
+     */
+    public static boolean isComposite(String attribute) {
+        return attribute.contains(SEPARATOR);
+    }
+
+    /**
+     * Parses the attributes of a composite index definition, e.g. "customerId, status".
+     *
+     * @param attribute the composite index definition.
+     * @return the attributes.
+     * @throws IllegalArgumentException if one of the attributes is empty or if an attribute is used twice.
+     */
+    public static String[] parseComponents(String attribute) {
+        List<String> components = new ArrayList<String>();
+        for (String component : attribute.split(SEPARATOR)) {
+            String trimmed = component.trim();
+            if (trimmed.length() == 0) {
+                throw new IllegalArgumentException("Composite index '" + attribute + "' contains an empty attribute");
+            }
+            if (components.contains(trimmed)) {
+                throw new IllegalArgumentException("Composite index '" + attribute + "' contains attribute '"
+                        + trimmed + "' more than once");
+            }
+            components.add(trimmed);
+        }
+        return components.toArray(new String[components.size()]);
+    }
+
+    /**
+     * Creates the canonical name of a composite index over the given attributes.
+     *
+     * @param components the attributes.
+     * @return the name.
+     */
+    public static String toName(String[] components) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(components[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the indexed attributes in the order of the components of the {@link CompositeValue}.
+     *
+     * @return the attributes.
+     */
+    public String[] getComponents() {
+        return components;
+    }
+
+    @Override
+    protected TypeConverter createConverter(QueryableEntry entry) {
+        TypeConverter[] converters = new TypeConverter[components.length];
+        for (int i = 0; i < components.length; i++) {
+            AttributeType attributeType = entry.getAttributeType(components[i]);
+            converters[i] = attributeType == null ? TypeConverters.IDENTITY_CONVERTER : attributeType.getConverter();
+        }
+        return new CompositeConverter(converters);
+    }
+
+    @Override
+    protected Comparable extractValue(QueryableEntry entry) {
+        Comparable[] values = new Comparable[components.length];
+        for (int i = 0; i < components.length; i++) {
+            values[i] = sanitizeValue(entry.getAttribute(components[i]));
+        }
+        return new CompositeValue(values);
+    }
+
+    /**
+     * Converts each component of a {@link CompositeValue} with the converter of its attribute.
+     */
+    private static final class CompositeConverter implements TypeConverter {
+
+        private final TypeConverter[] converters;
+
+        CompositeConverter(TypeConverter[] converters) {
+            this.converters = converters;
+        }
+
+        @Override
+        public Comparable convert(Comparable value) {
+            Comparable[] components = ((CompositeValue) value).getComponents();
+            Comparable[] converted = new Comparable[components.length];
+            for (int i = 0; i < components.length; i++) {
+                Comparable component = components[i];
+                if (component == null || component instanceof IndexImpl.NullObject) {
+                    converted[i] = NULL;
+                } else {
+                    converted[i] = sanitizeValue(converters[i].convert(component));
+                }
+            }
+            return new CompositeValue(converted);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+
+/**
+ * The value of a {@link CompositeIndexImpl}: an ordered tuple of the values of the indexed attributes.
+ * <p/>
+ * Composite values are compared component by component; a {@link IndexImpl#NULL} component is smaller than any
+ * other value.
+ */
+public final class CompositeValue implements Comparable<CompositeValue> {
+
+    private final Comparable[] components;
+
+    public CompositeValue(Comparable[] components) {
+        this.components = components;
+    }
+
+    /**
+     * Returns the values of the indexed attributes in the order of the attributes of the composite index.
+     *
+     * @return the components.
+     */
+    public Comparable[] getComponents() {
+        return components;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compareTo(CompositeValue that) {
+        int length = Math.min(components.length, that.components.length);
+        for (int i = 0; i < length; i++) {
+            Comparable left = components[i];
+            Comparable right = that.components[i];
+            int result;
+            if (left instanceof IndexImpl.NullObject) {
+                result = right instanceof IndexImpl.NullObject ? 0 : -1;
+            } else if (right instanceof IndexImpl.NullObject) {
+                result = 1;
+            } else {
+                result = left.compareTo(right);
+            }
+
+            if (result != 0) {
+                return result;
+            }
+        }
+        return components.length - that.components.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompositeValue)) {
+            return false;
+        }
+        return Arrays.equals(components, ((CompositeValue) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+}
@@ -0,0 +1,584 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+
+/**
+ * A compressed bitmap of non-negative ints, modelled after roaring bitmaps.
+ * <p/>
+ * The int space is split into chunks of 2^16 values, keyed by the high 16 bits of a value. Every non-empty chunk is
+ * stored in a container: a sorted array of the low 16 bits while the chunk is sparse, or a plain bitmap of 2^16 bits
+ * once it contains more than {@link #ARRAY_CONTAINER_MAX_SIZE} values. This keeps sparse bitmaps small and dense bitmaps
+ * fast, and allows and/or/andNot to be evaluated container by container.
+ * <p/>
+ * This class is not thread-safe.
+ */
+public final class CompressedBitmap {
+
+    /**
+     * The maximum number of values in an array container; above this the container is converted to a bitmap container.
+     */
+    static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int LOW_MASK = 0xFFFF;
+    private static final int WORD_SHIFT = 6;
+    private static final int BITMAP_WORDS = 1 << (CHUNK_SHIFT - WORD_SHIFT);
+    private static final int INITIAL_CONTAINERS = 4;
+    private static final int INITIAL_ARRAY_CAPACITY = 4;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this(INITIAL_CONTAINERS);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value; must not be negative.
+     * @return true if the value was added, false if it already was contained.
+     */
+    public boolean add(int value) {
+        checkValue(value);
+        char high = high(value);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, high, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality();
+        containers[index] = container.add(low(value));
+        return containers[index].cardinality() != cardinality;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value.
+     * @return true if the value was removed, false if it wasn't contained.
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf(high(value));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality();
+        Container updated = container.remove(low(value));
+        if (updated.cardinality() == 0) {
+            delete(index);
+        } else {
+            containers[index] = updated;
+        }
+        return updated.cardinality() != cardinality;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf(high(value));
+        return index >= 0 && containers[index].contains(low(value));
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of values in this bitmap.
+     *
+     * @return the cardinality.
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns the smallest value that is equal to or larger than the given value, in the style of
+     * {@link java.util.BitSet#nextSetBit(int)}:
+     * <pre>
+     * for (int i = bitmap.nextSetBit(0); i >= 0; i = bitmap.nextSetBit(i + 1)) {
+     *     ...
+     * }
+     * </pre>
+     *
+     * @param fromValue the value to start from.
+     * @return the next value, or -1 if there is none.
+     */
+    public int nextSetBit(int fromValue) {
+        if (fromValue < 0) {
+            return -1;
+        }
+        char high = high(fromValue);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        for (; index < size; index++) {
+            int from = keys[index] == high ? low(fromValue) : 0;
+            int low = containers[index].next(from);
+            if (low >= 0) {
+                return (keys[index] << CHUNK_SHIFT) | low;
+            }
+        }
+        return -1;
+    }
+
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap(Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            copy.append(keys[i], containers[i].copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a new bitmap containing the values contained in both given bitmaps.
+     */
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(Math.min(a.size, b.size), 1));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap containing the values contained in either of the given bitmaps.
+     */
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(a.size + b.size, 1));
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new bitmap containing the values contained in the first bitmap, but not in the second.
+     */
+    public static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap(Math.max(a.size, 1));
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            Container container;
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                container = a.containers[i].andNot(b.containers[j]);
+            } else {
+                container = a.containers[i].copy();
+            }
+            if (container.cardinality() > 0) {
+                result.append(a.keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedBitmap{containers=" + size + ", cardinality=" + cardinality() + '}';
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value can't be negative: " + value);
+        }
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> CHUNK_SHIFT);
+    }
+
+    private static char low(int value) {
+        return (char) (value & LOW_MASK);
+    }
+
+    private int indexOf(char high) {
+        // the last container is the most likely hit when values are added in ascending order
+        if (size > 0 && keys[size - 1] == high) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void delete(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * Holds the low 16 bits of the values of a single chunk.
+     */
+    private abstract static class Container {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract int next(int fromValue);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+    }
+
+    /**
+     * A container for a sparse chunk: the values are kept in a sorted array.
+     */
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(INITIAL_ARRAY_CAPACITY);
+        }
+
+        ArrayContainer(int capacity) {
+            values = new char[capacity];
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality >= ARRAY_CONTAINER_MAX_SIZE) {
+                return toBitmapContainer().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_CONTAINER_MAX_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int next(int fromValue) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) fromValue);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        Container and(Container other) {
+            ArrayContainer result = new ArrayContainer(Math.max(cardinality, 1));
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result.values[result.cardinality++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            int capacity = cardinality + that.cardinality;
+            if (capacity > ARRAY_CONTAINER_MAX_SIZE) {
+                return toBitmapContainer().or(that);
+            }
+            ArrayContainer result = new ArrayContainer(Math.max(capacity, 1));
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < that.cardinality) {
+                char value;
+                if (j == that.cardinality || (i < cardinality && values[i] < that.values[j])) {
+                    value = values[i++];
+                } else if (i == cardinality || values[i] > that.values[j]) {
+                    value = that.values[j++];
+                } else {
+                    value = values[i++];
+                    j++;
+                }
+                result.values[result.cardinality++] = value;
+            }
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            ArrayContainer result = new ArrayContainer(Math.max(cardinality, 1));
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result.values[result.cardinality++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer(Math.max(cardinality, 1));
+            System.arraycopy(values, 0, copy.values, 0, cardinality);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        BitmapContainer toBitmapContainer() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * A container for a dense chunk: the values are kept as a bitmap of 2^16 bits.
+     */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        Container add(char value) {
+            int index = value >>> WORD_SHIFT;
+            long word = words[index];
+            long updated = word | (1L << value);
+            if (updated != word) {
+                words[index] = updated;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = value >>> WORD_SHIFT;
+            long word = words[index];
+            long updated = word & ~(1L << value);
+            if (updated != word) {
+                words[index] = updated;
+                cardinality--;
+                if (cardinality <= ARRAY_CONTAINER_MAX_SIZE) {
+                    return toArrayContainer();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> WORD_SHIFT] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int next(int fromValue) {
+            int index = fromValue >>> WORD_SHIFT;
+            if (index >= BITMAP_WORDS) {
+                return -1;
+            }
+            long word = words[index] & (-1L << fromValue);
+            while (true) {
+                if (word != 0) {
+                    return (index << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                }
+                if (++index == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = words[index];
+            }
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer that = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] = words[i] & that.words[i];
+                result.cardinality += Long.bitCount(result.words[i]);
+            }
+            return result.normalize();
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    result.add(that.values[i]);
+                }
+            } else {
+                BitmapContainer that = (BitmapContainer) other;
+                result.cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] |= that.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    char value = that.values[i];
+                    int index = value >>> WORD_SHIFT;
+                    long word = result.words[index];
+                    long updated = word & ~(1L << value);
+                    if (updated != word) {
+                        result.words[index] = updated;
+                        result.cardinality--;
+                    }
+                }
+            } else {
+                BitmapContainer that = (BitmapContainer) other;
+                result.cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] &= ~that.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+            }
+            return result.normalize();
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, BITMAP_WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        private Container normalize() {
+            return cardinality <= ARRAY_CONTAINER_MAX_SIZE ? toArrayContainer() : this;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            ArrayContainer array = new ArrayContainer(Math.max(cardinality, 1));
+            for (int value = next(0); value >= 0; value = next(value + 1)) {
+                array.values[array.cardinality++] = (char) value;
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * Assigns a small int ordinal to every indexed entry, so that sets of entries can be stored as {@link CompressedBitmap}s.
+ * <p/>
+ * The ordinals are shared by all {@link BitmapIndexImpl}s of an {@link Indexes}, so the bitmaps of different indexes can
+ * be combined directly. Ordinals of removed entries are reused, which keeps the ordinals dense and the bitmaps compact.
+ * <p/>
+ * The entries are kept in an array indexed by ordinal. The ordinal of a key is looked up in an open addressing table of
+ * ints with linear probing, which stores the ordinal of an entry and compares the key of the entry in the array, so no
+ * node or boxed ordinal is created per entry. Removed slots are marked as deleted instead of being shifted.
+ * <p/>
+ * Lookups are lock free and weakly consistent: an entry which is assigned or released concurrently may be missed.
+ * Updates are serialized.
+ */
+@SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT", justification = "updates are serialized")
+public class EntryOrdinals {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // the slots store the ordinal + 1, so a new table is empty
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    private volatile AtomicReferenceArray<QueryableEntry> entries
+            = new AtomicReferenceArray<QueryableEntry>(INITIAL_CAPACITY);
+    private volatile AtomicIntegerArray slots = new AtomicIntegerArray(INITIAL_CAPACITY);
+    private volatile int size;
+
+    // the fields below are guarded by 'this'
+    private int[] freeOrdinals = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int nextOrdinal;
+    // number of slots which are either occupied or deleted
+    private int usedSlots;
+
+    /**
+     * Returns the ordinal of the entry, assigning one if the entry has none yet. The entry is stored as the current
+     * entry for the ordinal.
+     *
+     * @param entry the entry.
+     * @return the ordinal.
+     */
+    public synchronized int assign(QueryableEntry entry) {
+        Data key = entry.getIndexKey();
+        int slot = findSlot(slots, key);
+        if (slot >= 0) {
+            int ordinal = slots.get(slot) - 1;
+            entries.set(ordinal, entry);
+            return ordinal;
+        }
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        ensureCapacity(ordinal);
+        // the entry is set before the slot is published, so readers finding the slot find the entry
+        entries.set(ordinal, entry);
+        insert(key, ordinal);
+        size++;
+        return ordinal;
+    }
+
+    /**
+     * Releases the ordinal of an entry, so it can be reused for another entry.
+     *
+     * @param key the index key of the entry.
+     */
+    public synchronized void release(Data key) {
+        AtomicIntegerArray slots = this.slots;
+        int slot = findSlot(slots, key);
+        if (slot < 0) {
+            return;
+        }
+        int ordinal = slots.get(slot) - 1;
+        slots.set(slot, DELETED);
+        entries.set(ordinal, null);
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+        size--;
+    }
+
+    /**
+     * Returns the ordinal of an entry.
+     *
+     * @param key the index key of the entry.
+     * @return the ordinal, or -1 if the entry has no ordinal.
+     */
+    public int getOrdinal(Data key) {
+        AtomicIntegerArray slots = this.slots;
+        int slot = findSlot(slots, key);
+        return slot < 0 ? -1 : slots.get(slot) - 1;
+    }
+
+    /**
+     * Returns the current entry for an ordinal.
+     *
+     * @param ordinal the ordinal.
+     * @return the entry, or null if the ordinal is not assigned.
+     */
+    public QueryableEntry getEntry(int ordinal) {
+        AtomicReferenceArray<QueryableEntry> entries = this.entries;
+        return ordinal < entries.length() ? entries.get(ordinal) : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        entries = new AtomicReferenceArray<QueryableEntry>(INITIAL_CAPACITY);
+        slots = new AtomicIntegerArray(INITIAL_CAPACITY);
+        size = 0;
+        freeOrdinals = new int[INITIAL_CAPACITY];
+        freeCount = 0;
+        nextOrdinal = 0;
+        usedSlots = 0;
+    }
+
+    private int findSlot(AtomicIntegerArray slots, Data key) {
+        int mask = slots.length() - 1;
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            int value = slots.get(slot);
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (value != DELETED) {
+                QueryableEntry entry = getEntry(value - 1);
+                if (entry != null && key.equals(entry.getIndexKey())) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(Data key, int ordinal) {
+        if (usedSlots + 1 > slots.length() * LOAD_FACTOR) {
+            rehash();
+        }
+        AtomicIntegerArray slots = this.slots;
+        int mask = slots.length() - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            int value = slots.get(slot);
+            if (value == EMPTY) {
+                usedSlots++;
+                break;
+            }
+            if (value == DELETED) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots.set(slot, ordinal + 1);
+    }
+
+    // also drops the deleted slots, the new table is published when it is complete
+    private void rehash() {
+        AtomicIntegerArray oldSlots = slots;
+        int capacity = nextPowerOfTwo(Math.max(INITIAL_CAPACITY, (int) ((size + 1) / LOAD_FACTOR) * 2));
+        AtomicIntegerArray newSlots = new AtomicIntegerArray(capacity);
+        int mask = capacity - 1;
+        int used = 0;
+        for (int i = 0; i < oldSlots.length(); i++) {
+            int value = oldSlots.get(i);
+            if (value == EMPTY || value == DELETED) {
+                continue;
+            }
+            int slot = hash(entries.get(value - 1).getIndexKey()) & mask;
+            while (newSlots.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots.set(slot, value);
+            used++;
+        }
+        usedSlots = used;
+        slots = newSlots;
+    }
+
+    private void ensureCapacity(int ordinal) {
+        AtomicReferenceArray<QueryableEntry> entries = this.entries;
+        if (ordinal < entries.length()) {
+            return;
+        }
+        AtomicReferenceArray<QueryableEntry> newEntries = new AtomicReferenceArray<QueryableEntry>(entries.length() * 2);
+        for (int i = 0; i < entries.length(); i++) {
+            newEntries.set(i, entries.get(i));
+        }
+        this.entries = newEntries;
+    }
+
+    private static int hash(Data key) {
+        return MurmurHash3_fmix(key.hashCode());
+    }
+}
@@ -51,4 +51,11 @@ public interface Index {
     String getAttributeName();
 
     boolean isOrdered();
+
+    /**
+     * Returns the statistics of this index, used to estimate the selectivity of predicates on the indexed attribute.
+     *
+     * @return the statistics.
+     */
+    IndexStatistics getStatistics();
 }
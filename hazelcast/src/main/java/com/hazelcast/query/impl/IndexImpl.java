@@ -39,18 +39,33 @@ public class IndexImpl implements Index {
      */
     public static final NullObject NULL = new NullObject();
 
-    // indexKey -- indexValue
-    private final ConcurrentMap<Data, Comparable> recordValues = new ConcurrentHashMap<Data, Comparable>(1000);
+    // indexKey -- indexValue; null if the index store finds the value of an entry itself
+    private final ConcurrentMap<Data, Comparable> recordValues;
     private final IndexStore indexStore;
     private final String attribute;
     private final boolean ordered;
+    private final IndexStatistics statistics = new IndexStatistics(this);
 
     private volatile TypeConverter converter;
 
     public IndexImpl(String attribute, boolean ordered) {
+        this(attribute, ordered, ordered ? new SortedIndexStore() : new UnsortedIndexStore());
+    }
+
+    protected IndexImpl(String attribute, boolean ordered, IndexStore indexStore) {
+        this(attribute, ordered, indexStore, true);
+    }
+
+    /**
+     * @param trackRecordValues false if the index store finds the value of an entry itself, then
+     *                          {@link IndexStore#newIndex} is called for new and updated entries and
+     *                          {@link IndexStore#removeIndex} with a null old value.
+     */
+    protected IndexImpl(String attribute, boolean ordered, IndexStore indexStore, boolean trackRecordValues) {
         this.attribute = attribute;
         this.ordered = ordered;
-        indexStore = (ordered) ? new SortedIndexStore() : new UnsortedIndexStore();
+        this.indexStore = indexStore;
+        this.recordValues = trackRecordValues ? new ConcurrentHashMap<Data, Comparable>(1000) : null;
     }
 
     @Override
@@ -60,16 +75,25 @@ public class IndexImpl implements Index {
 
     @Override
     public void removeEntryIndex(Data indexKey) {
+        if (recordValues == null) {
+            indexStore.removeIndex(null, indexKey);
+            statistics.onModification();
+            return;
+        }
         Comparable oldValue = recordValues.remove(indexKey);
         if (oldValue != null) {
             indexStore.removeIndex(oldValue, indexKey);
+            statistics.onModification();
         }
     }
 
     @Override
     public void clear() {
-        recordValues.clear();
+        if (recordValues != null) {
+            recordValues.clear();
+        }
         indexStore.clear();
+        statistics.clear();
         // Clear converter
         converter = null;
     }
@@ -89,14 +113,12 @@ public class IndexImpl implements Index {
          */
         if (converter == null) {
             // Initialize attribute type by using entry index
-            AttributeType attributeType = e.getAttributeType(attribute);
-            converter = attributeType == null ? TypeConverters.IDENTITY_CONVERTER : attributeType.getConverter();
+            converter = createConverter(e);
         }
 
         Data key = e.getIndexKey();
-        Comparable newValue = e.getAttribute(attribute);
-        newValue = sanitizeValue(newValue);
-        Comparable oldValue = recordValues.put(key, newValue);
+        Comparable newValue = extractValue(e);
+        Comparable oldValue = recordValues == null ? null : recordValues.put(key, newValue);
         if (oldValue == null) {
             // new
             indexStore.newIndex(newValue, e);
@@ -104,9 +126,31 @@ public class IndexImpl implements Index {
             // update
             indexStore.updateIndex(oldValue, newValue, e);
         }
+        statistics.onModification();
+    }
+
+    /**
+     * Creates the converter for the values of this index, based on the type of the indexed attribute of the entry.
+     *
+     * @param entry the first entry saved in this index.
+     * @return the converter.
+     */
+    protected TypeConverter createConverter(QueryableEntry entry) {
+        AttributeType attributeType = entry.getAttributeType(attribute);
+        return attributeType == null ? TypeConverters.IDENTITY_CONVERTER : attributeType.getConverter();
     }
 
-    private Comparable sanitizeValue(Comparable value) {
+    /**
+     * Extracts the indexed value from the entry.
+     *
+     * @param entry the entry.
+     * @return the sanitized value; never null.
+     */
+    protected Comparable extractValue(QueryableEntry entry) {
+        return sanitizeValue(entry.getAttribute(attribute));
+    }
+
+    static Comparable sanitizeValue(Comparable value) {
         if (value == null) {
             return NULL;
         }
@@ -164,10 +208,22 @@ public class IndexImpl implements Index {
         return results;
     }
 
+    @Override
+    public IndexStatistics getStatistics() {
+        return statistics;
+    }
+
+    int getRecordCount(Comparable convertedValue) {
+        return indexStore.getRecordCount(convertedValue);
+    }
+
     private Comparable convert(Comparable value) {
         return converter.convert(value);
     }
 
+    /**
+     * @return the values of the indexed entries by index key, or null if the index store keeps track of them.
+     */
     public ConcurrentMap<Data, Comparable> getRecordValues() {
         return recordValues;
     }
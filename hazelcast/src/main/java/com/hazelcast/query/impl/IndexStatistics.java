@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.util.counters.Counter;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static com.hazelcast.util.counters.StripedCounter.newStripedCounter;
+
+/**
+ * Statistics of an {@link IndexImpl}, used by the predicates to estimate how many entries they match before the index
+ * is queried.
+ * <p/>
+ * Equality estimates are exact: they are the number of entries stored for the value. Range estimates come from an
+ * equi-depth histogram: a sorted sample of the indexed values, taken from every n-th indexed entry. The sample is
+ * taken lazily, and again once the index has been modified by more than a tenth of its size since the last sample.
+ */
+public final class IndexStatistics {
+
+    /**
+     * The maximum number of values in the histogram sample.
+     */
+    static final int SAMPLE_SIZE = 256;
+
+    private static final int RESAMPLE_DIVISOR = 10;
+
+    private final IndexImpl index;
+    // incremented by every partition thread modifying the index, so striped to avoid contention
+    private final Counter modificationCount = newStripedCounter();
+
+    private volatile Sample sample;
+
+    IndexStatistics(IndexImpl index) {
+        this.index = index;
+    }
+
+    void onModification() {
+        modificationCount.inc();
+    }
+
+    void clear() {
+        modificationCount.inc();
+        sample = null;
+    }
+
+    /**
+     * Returns the number of entries in the index, including the ones with a {@code null} value.
+     *
+     * @return the number of entries.
+     */
+    public long getEntryCount() {
+        return index.getRecordValues().size();
+    }
+
+    /**
+     * Returns the fraction of the entries in the index matched by an estimated number of entries.
+     *
+     * @param estimate the estimated number of matching entries.
+     * @return the selectivity, between 0 (nothing matches) and 1 (everything matches).
+     */
+    public double getSelectivity(long estimate) {
+        long entryCount = getEntryCount();
+        if (entryCount == 0) {
+            return 0;
+        }
+        return Math.min(1d, (double) estimate / entryCount);
+    }
+
+    /**
+     * Returns the number of entries with the given value.
+     *
+     * @param value the value.
+     * @return the number of entries.
+     */
+    public long estimateEqual(Comparable value) {
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            return 0;
+        }
+        return index.getRecordCount(converter.convert(value));
+    }
+
+    /**
+     * Returns the number of entries with one of the given values.
+     *
+     * @param values the values; duplicates are counted once per occurrence.
+     * @return the number of entries.
+     */
+    public long estimateIn(Comparable[] values) {
+        long estimate = 0;
+        for (Comparable value : values) {
+            estimate += estimateEqual(value);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the number of entries with a value between from and to, both inclusive.
+     *
+     * @param from the lower bound.
+     * @param to   the upper bound.
+     * @return the estimated number of entries.
+     */
+    public long estimateBetween(Comparable from, Comparable to) {
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            return 0;
+        }
+        Sample current = getSample();
+        if (current.values.length == 0) {
+            return 0;
+        }
+        Comparable lower = converter.convert(from);
+        Comparable upper = converter.convert(to);
+        if (lower.compareTo(upper) > 0) {
+            Comparable swap = lower;
+            lower = upper;
+            upper = swap;
+        }
+        int count = upperBound(current.values, upper) - lowerBound(current.values, lower);
+        return current.scale(count);
+    }
+
+    /**
+     * Estimates the number of entries with a value matching the comparison with the searched value.
+     *
+     * @param comparisonType the comparison.
+     * @param searchedValue  the value compared with.
+     * @return the estimated number of entries.
+     */
+    public long estimateComparison(ComparisonType comparisonType, Comparable searchedValue) {
+        TypeConverter converter = index.getConverter();
+        if (converter == null) {
+            return 0;
+        }
+        if (comparisonType == ComparisonType.NOT_EQUAL) {
+            return Math.max(0, getEntryCount() - estimateEqual(searchedValue));
+        }
+        Sample current = getSample();
+        Comparable[] values = current.values;
+        if (values.length == 0) {
+            return 0;
+        }
+        Comparable value = converter.convert(searchedValue);
+        int count;
+        switch (comparisonType) {
+            case LESSER:
+                count = lowerBound(values, value);
+                break;
+            case LESSER_EQUAL:
+                count = upperBound(values, value);
+                break;
+            case GREATER:
+                count = values.length - upperBound(values, value);
+                break;
+            case GREATER_EQUAL:
+                count = values.length - lowerBound(values, value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized comparisonType: " + comparisonType);
+        }
+        return current.scale(count);
+    }
+
+    private Sample getSample() {
+        Sample current = sample;
+        long modifications = modificationCount.get();
+        if (current == null || modifications - current.modificationCount > current.entryCount / RESAMPLE_DIVISOR) {
+            current = takeSample(modifications);
+            sample = current;
+        }
+        return current;
+    }
+
+    private Sample takeSample(long modifications) {
+        int entryCount = index.getRecordValues().size();
+        int step = Math.max(1, entryCount / SAMPLE_SIZE);
+        Comparable[] values = new Comparable[SAMPLE_SIZE];
+        int size = 0;
+        int nonNullCount = 0;
+        int position = 0;
+        Iterator<Comparable> iterator = index.getRecordValues().values().iterator();
+        while (iterator.hasNext()) {
+            Comparable value = iterator.next();
+            if (value instanceof IndexImpl.NullObject) {
+                continue;
+            }
+            if (position++ % step == 0 && size < SAMPLE_SIZE) {
+                values[size++] = value;
+            }
+            nonNullCount++;
+        }
+        values = Arrays.copyOf(values, size);
+        Arrays.sort(values);
+        return new Sample(values, nonNullCount, entryCount, modifications);
+    }
+
+    /**
+     * Returns the index of the first value not smaller than the given value.
+     */
+    private static int lowerBound(Comparable[] values, Comparable value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle].compareTo(value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first value greater than the given value.
+     */
+    private static int upperBound(Comparable[] values, Comparable value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle].compareTo(value) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A sorted sample of the non-null indexed values.
+     */
+    private static final class Sample {
+
+        final Comparable[] values;
+        final int nonNullCount;
+        final int entryCount;
+        final long modificationCount;
+
+        Sample(Comparable[] values, int nonNullCount, int entryCount, long modificationCount) {
+            this.values = values;
+            this.nonNullCount = nonNullCount;
+            this.entryCount = entryCount;
+            this.modificationCount = modificationCount;
+        }
+
+        long scale(int count) {
+            if (count <= 0) {
+                return 0;
+            }
+            return Math.max(1, (long) count * nonNullCount / values.length);
+        }
+    }
+}
@@ -36,4 +36,12 @@ public interface IndexStore {
     Set<QueryableEntry> getRecords(Comparable value);
     void getRecords(MultiResultSet results, Set<Comparable> values);
     ConcurrentMap<Data, QueryableEntry> getRecordMap(Comparable indexValue);
+
+    /**
+     * Returns the number of entries indexed with the given value, without materializing them.
+     *
+     * @param value the sanitized and converted index value.
+     * @return the number of entries.
+     */
+    int getRecordCount(Comparable value);
 }
@@ -21,6 +21,9 @@ import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.QueryException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -31,38 +34,156 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class Indexes {
     private static final Index[] EMPTY_INDEX = {};
+    private static final CompositeIndexImpl[] EMPTY_COMPOSITE_INDEX = {};
     private final ConcurrentMap<String, Index> mapIndexes = new ConcurrentHashMap<String, Index>(3);
     private final AtomicReference<Index[]> indexes = new AtomicReference<Index[]>(EMPTY_INDEX);
+    private volatile CompositeIndexImpl[] compositeIndexes = EMPTY_COMPOSITE_INDEX;
     private volatile boolean hasIndex;
+    private volatile EntryOrdinals ordinals;
 
+    /**
+     * Destroys the index for the attribute. A composite attribute may be given in any form accepted by
+     * {@link #addOrGetIndex(String, boolean, boolean)}, e.g. "customerId, status".
+     *
+     * @param attribute the attribute or the comma separated attributes of the index.
+     * @return the destroyed index, or null if there was no index for the attribute.
+     */
     public synchronized Index destroyIndex(String attribute) {
-        return mapIndexes.remove(attribute);
+        if (CompositeIndexImpl.isComposite(attribute)) {
+            attribute = CompositeIndexImpl.toName(CompositeIndexImpl.parseComponents(attribute));
+        }
+
+        Index index = mapIndexes.remove(attribute);
+        if (index == null) {
+            return null;
+        }
+
+        if (index instanceof CompositeIndexImpl) {
+            List<CompositeIndexImpl> newCompositeIndexes = new ArrayList<CompositeIndexImpl>(Arrays.asList(compositeIndexes));
+            newCompositeIndexes.remove(index);
+            compositeIndexes = newCompositeIndexes.toArray(new CompositeIndexImpl[newCompositeIndexes.size()]);
+        }
+        updateIndexes();
+        hasIndex = !mapIndexes.isEmpty();
+        return index;
     }
 
-    public synchronized Index addOrGetIndex(String attribute, boolean ordered) {
+    public Index addOrGetIndex(String attribute, boolean ordered) {
+        return addOrGetIndex(attribute, ordered, false);
+    }
+
+    /**
+     * Adds an index, or returns the existing index for the attribute.
+     * <p/>
+     * If the attribute is a comma separated list of attributes, e.g. "customerId,status", a
+     * {@link CompositeIndexImpl} is created.
+     *
+     * If bitmap is true, a {@link BitmapIndexImpl} is created; the ordered flag is then ignored. Bitmap indexes are
+     * not supported for composite indexes.
+     *
+     * @param attribute the attribute or the comma separated attributes to index.
+     * @param ordered   true if the index should be ordered.
+     * @param bitmap    true if the index should be a bitmap index.
+     * @return the index.
+     * @throws IllegalArgumentException if bitmap is true and the attribute is composite.
+     */
+    public synchronized Index addOrGetIndex(String attribute, boolean ordered, boolean bitmap) {
+        String[] components = null;
+        if (CompositeIndexImpl.isComposite(attribute)) {
+            if (bitmap) {
+                throw new IllegalArgumentException("Bitmap indexes are not supported for composite attributes: " + attribute);
+            }
+            components = CompositeIndexImpl.parseComponents(attribute);
+            attribute = CompositeIndexImpl.toName(components);
+        }
+
         Index index = mapIndexes.get(attribute);
         if (index != null) {
             return index;
         }
-        index = new IndexImpl(attribute, ordered);
+
+        if (components == null) {
+            index = bitmap ? new BitmapIndexImpl(attribute, getOrCreateOrdinals()) : new IndexImpl(attribute, ordered);
+        } else {
+            CompositeIndexImpl compositeIndex = new CompositeIndexImpl(components, ordered);
+            CompositeIndexImpl[] newCompositeIndexes = Arrays.copyOf(compositeIndexes, compositeIndexes.length + 1);
+            newCompositeIndexes[compositeIndexes.length] = compositeIndex;
+            compositeIndexes = newCompositeIndexes;
+            index = compositeIndex;
+        }
         mapIndexes.put(attribute, index);
+        updateIndexes();
+        hasIndex = true;
+        return index;
+    }
+
+    private void updateIndexes() {
         Object[] indexObjects = mapIndexes.values().toArray();
         Index[] newIndexes = new Index[indexObjects.length];
         for (int i = 0; i < indexObjects.length; i++) {
             newIndexes[i] = (Index) indexObjects[i];
         }
         indexes.set(newIndexes);
-        hasIndex = true;
-        return index;
+    }
+
+    private EntryOrdinals getOrCreateOrdinals() {
+        if (ordinals == null) {
+            ordinals = new EntryOrdinals();
+        }
+        return ordinals;
     }
 
     public Index[] getIndexes() {
         return indexes.get();
     }
 
+    /**
+     * Returns the composite index with the most attributes for which all attributes are contained in the given
+     * attributes.
+     *
+     * @param attributes the attributes, e.g. of the equal predicates of an and predicate.
+     * @return the matching composite index, or null if there is none.
+     */
+    public CompositeIndexImpl matchCompositeIndex(Set<String> attributes) {
+        CompositeIndexImpl match = null;
+        for (CompositeIndexImpl index : compositeIndexes) {
+            String[] components = index.getComponents();
+            if (match != null && components.length <= match.getComponents().length) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (String component : components) {
+                if (!attributes.contains(component)) {
+                    matches = false;
+                    break;
+                }
+            }
+
+            if (matches) {
+                match = index;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Checks if there is at least one composite index.
+     *
+     * @return true if there is a composite index, false otherwise.
+     */
+    public boolean hasCompositeIndex() {
+        return compositeIndexes.length > 0;
+    }
+
     public void clearIndexes() {
         indexes.set(EMPTY_INDEX);
+        compositeIndexes = EMPTY_COMPOSITE_INDEX;
         mapIndexes.clear();
+        EntryOrdinals ordinals = this.ordinals;
+        if (ordinals != null) {
+            ordinals.clear();
+        }
         hasIndex = false;
     }
 
@@ -71,6 +192,11 @@ public class Indexes {
         for (Index index : indexes) {
             index.removeEntryIndex(indexKey);
         }
+        // the ordinal can only be released after it has been removed from all bitmap indexes
+        EntryOrdinals ordinals = this.ordinals;
+        if (ordinals != null) {
+            ordinals.release(indexKey);
+        }
     }
 
     public boolean hasIndex() {
@@ -34,6 +34,8 @@ public class MultiResultSet extends AbstractSet<QueryableEntry> {
     private Set<Object> index;
     private final List<ConcurrentMap<Data, QueryableEntry>> resultSets
             = new ArrayList<ConcurrentMap<Data, QueryableEntry>>();
+    // result sets which aren't backed by a map, e.g. the bitmap result sets of a bitmap index
+    private final List<Set<QueryableEntry>> entrySets = new ArrayList<Set<QueryableEntry>>();
 
     public MultiResultSet() {
     }
@@ -42,8 +44,17 @@ public class MultiResultSet extends AbstractSet<QueryableEntry> {
         resultSets.add(resultSet);
     }
 
+    public void addResultSet(Set<QueryableEntry> resultSet) {
+        entrySets.add(resultSet);
+    }
+
     @Override
     public boolean contains(Object o) {
+        for (Set<QueryableEntry> entrySet : entrySets) {
+            if (entrySet.contains(o)) {
+                return true;
+            }
+        }
         QueryableEntry entry = (QueryableEntry) o;
         if (index != null) {
             return checkFromIndex(entry);
@@ -83,14 +94,17 @@ public class MultiResultSet extends AbstractSet<QueryableEntry> {
 
         @Override
         public boolean hasNext() {
-            if (resultSets.size() == 0) {
+            if (resultSets.size() == 0 && entrySets.size() == 0) {
                 return false;
             }
             if (currentIterator != null && currentIterator.hasNext()) {
                 return true;
             }
-            while (currentIndex < resultSets.size()) {
-                currentIterator = resultSets.get(currentIndex++).values().iterator();
+            while (currentIndex < resultSets.size() + entrySets.size()) {
+                int index = currentIndex++;
+                currentIterator = index < resultSets.size()
+                        ? resultSets.get(index).values().iterator()
+                        : entrySets.get(index - resultSets.size()).iterator();
                 if (currentIterator.hasNext()) {
                     return true;
                 }
@@ -100,7 +114,7 @@ public class MultiResultSet extends AbstractSet<QueryableEntry> {
 
         @Override
         public QueryableEntry next() {
-            if (resultSets.size() == 0) {
+            if (resultSets.size() == 0 && entrySets.size() == 0) {
                 return null;
             }
             return currentIterator.next();
@@ -123,6 +137,9 @@ public class MultiResultSet extends AbstractSet<QueryableEntry> {
         for (ConcurrentMap<Data, QueryableEntry> resultSet : resultSets) {
             size += resultSet.size();
         }
+        for (Set<QueryableEntry> entrySet : entrySets) {
+            size += entrySet.size();
+        }
         return size;
     }
 }
@@ -32,6 +32,10 @@ public class OrResultSet extends AbstractSet<QueryableEntry> {
 
     public OrResultSet(List<Set<QueryableEntry>> indexedResults) {
         this.indexedResults = indexedResults;
+        if (BitmapResultSet.canCombine(indexedResults)) {
+            // unite the bitmaps of the bitmap index results, instead of collecting all entries in a HashSet
+            entries = BitmapResultSet.or(indexedResults);
+        }
     }
 
     @Override
@@ -16,241 +16,336 @@
 
 package com.hazelcast.query.impl;
 
+import com.hazelcast.internal.serialization.PortableContext;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.BufferObjectDataInput;
 import com.hazelcast.nio.serialization.ClassDefinition;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.FieldDefinition;
 import com.hazelcast.nio.serialization.FieldType;
-import com.hazelcast.internal.serialization.PortableContext;
-import com.hazelcast.nio.serialization.PortableReader;
-import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.query.QueryException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.nio.Bits.BOOLEAN_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.SHORT_SIZE_IN_BYTES;
 
 /**
  * Utility class to extract a single field from a {@link com.hazelcast.nio.serialization.Portable} binary.
+ * <p/>
+ * The field is read in place: the path to it is followed through the field offset tables of the binary, using the
+ * {@link ClassDefinition}s registered in the {@link PortableContext}, without creating a
+ * {@link com.hazelcast.nio.serialization.PortableReader} or deserializing nested portables. A path is a dot separated
+ * list of field names, e.g. {@code address.city}; a portable array or primitive array field can be followed by an
+ * index, e.g. {@code orders[0].amount} or {@code scores[2]}.
+ * <p/>
+ * A field which doesn't exist, e.g. because it exists on one node but not on another one, a null nested portable or
+ * an index out of the array bounds all result in a {@code null} value, which makes a
+ * {@link com.hazelcast.query.Predicate} return false.
  */
 final class PortableExtractor {
 
-    private static final PortableFieldExtractor[] FIELD_EXTRACTORS =
-            new PortableFieldExtractor[FieldType.values().length];
+    /**
+     * The number of parsed paths kept, attribute names come from the predicates so there are usually only a few.
+     */
+    private static final int MAX_CACHED_PATHS = 1024;
+
+    // a portable starts with the final position and the field count, followed by the field offsets
+    private static final int FIELD_OFFSETS_OFFSET = 2 * INT_SIZE_IN_BYTES;
+
+    // a nested portable starts with the is-null flag, the factory id, the class id and the version
+    private static final int NESTED_PORTABLE_HEADER_SIZE = BOOLEAN_SIZE_IN_BYTES + 3 * INT_SIZE_IN_BYTES;
+
+    // a portable array starts with the length, the factory id and the class id, followed by the element offsets
+    private static final int PORTABLE_ARRAY_HEADER_SIZE = 3 * INT_SIZE_IN_BYTES;
+
+    private static final int NULL_PORTABLE = -1;
+
+    private static final AttributeType[] ATTRIBUTE_TYPES = new AttributeType[FieldType.values().length];
 
     static {
-        FIELD_EXTRACTORS[FieldType.PORTABLE.getId()] = new PortableUnsupportedFieldExtractor();
-
-        FIELD_EXTRACTORS[FieldType.BYTE.getId()] = new PortableByteFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.BOOLEAN.getId()] = new PortableBooleanFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.CHAR.getId()] = new PortableCharFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.SHORT.getId()] = new PortableShortFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.INT.getId()] = new PortableIntegerFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.LONG.getId()] = new PortableLongFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.FLOAT.getId()] = new PortableFloatFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.DOUBLE.getId()] = new PortableDoubleFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.UTF.getId()] = new PortableUtfFieldExtractor();
-
-        FIELD_EXTRACTORS[FieldType.PORTABLE_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.BYTE_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.CHAR_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.SHORT_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.INT_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.LONG_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.FLOAT_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
-        FIELD_EXTRACTORS[FieldType.DOUBLE_ARRAY.getId()] = new PortableUnsupportedFieldExtractor();
+        ATTRIBUTE_TYPES[FieldType.BYTE.getId()] = AttributeType.BYTE;
+        ATTRIBUTE_TYPES[FieldType.BOOLEAN.getId()] = AttributeType.BOOLEAN;
+        ATTRIBUTE_TYPES[FieldType.CHAR.getId()] = AttributeType.CHAR;
+        ATTRIBUTE_TYPES[FieldType.SHORT.getId()] = AttributeType.SHORT;
+        ATTRIBUTE_TYPES[FieldType.INT.getId()] = AttributeType.INTEGER;
+        ATTRIBUTE_TYPES[FieldType.LONG.getId()] = AttributeType.LONG;
+        ATTRIBUTE_TYPES[FieldType.FLOAT.getId()] = AttributeType.FLOAT;
+        ATTRIBUTE_TYPES[FieldType.DOUBLE.getId()] = AttributeType.DOUBLE;
+        ATTRIBUTE_TYPES[FieldType.UTF.getId()] = AttributeType.STRING;
     }
 
-    private static final PortableFieldExtractor NULL_PORTABLE_FIELD_EXTRACTOR = createNullPortableFieldExtractor();
+    private static final ConcurrentMap<String, PathElement[]> PATHS = new ConcurrentHashMap<String, PathElement[]>();
 
     private PortableExtractor() {
     }
 
     static Comparable extractValue(SerializationService serializationService, Data data, String fieldName)
             throws IOException {
-        PortableContext context = serializationService.getPortableContext();
-        PortableFieldExtractor fieldExtractor = getFieldExtractor(context, data, fieldName);
-        PortableReader reader = serializationService.createPortableReader(data);
-        return fieldExtractor.extract(reader, fieldName);
-    }
-
-    private static PortableFieldExtractor getFieldExtractor(PortableContext context, Data data, String fieldName)
-            throws IOException {
-
-        ClassDefinition classDefinition = context.lookupClassDefinition(data);
-        FieldDefinition fieldDefinition = context.getFieldDefinition(classDefinition, fieldName);
-
-        if (fieldDefinition != null) {
-            FieldType fieldType = fieldDefinition.getType();
-            int fieldTypeId = fieldType.getId();
-            if (fieldTypeId < 0 || fieldTypeId >= FIELD_EXTRACTORS.length) {
-                throw new ArrayIndexOutOfBoundsException("Invalid fieldType: " + fieldTypeId);
-            }
-
-            PortableFieldExtractor fieldExtractor = FIELD_EXTRACTORS[fieldTypeId];
-            if (fieldExtractor == null) {
-                throw new QueryException("Field extractor is not defined: " + fieldTypeId);
-            }
-            return fieldExtractor;
-        } else {
-            return NULL_PORTABLE_FIELD_EXTRACTOR;
+        BufferObjectDataInput in = serializationService.createObjectDataInput(data);
+        FieldLocation location = locate(serializationService.getPortableContext(), data, in, fieldName);
+        if (location == null) {
+            return null;
         }
+        if (location.index == PathElement.NO_INDEX) {
+            return readValue(in, location.type, location.position, fieldName);
+        }
+        return readArrayElement(in, location.type, location.position, location.index, fieldName);
     }
 
-    static AttributeType getAttributeType(PortableContext portableContext, Data data, String fieldName) {
-        PortableFieldExtractor fieldExtractor;
+    static AttributeType getAttributeType(SerializationService serializationService, Data data, String fieldName) {
+        FieldLocation location;
         try {
-            fieldExtractor = getFieldExtractor(portableContext, data, fieldName);
+            BufferObjectDataInput in = serializationService.createObjectDataInput(data);
+            location = locate(serializationService.getPortableContext(), data, in, fieldName);
         } catch (IOException e) {
             throw new QueryException(e);
         }
-        return fieldExtractor.getAttributeType();
-    }
-
-    private static PortableFieldExtractor createNullPortableFieldExtractor() {
-        return new NullPortableFieldExtractor();
-    }
-
-    private static class PortableIntegerFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readInt(fieldName);
+        if (location == null) {
+            return null;
         }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.INTEGER;
+        FieldType type = location.index == PathElement.NO_INDEX ? location.type : getElementType(location.type, fieldName);
+        AttributeType attributeType = ATTRIBUTE_TYPES[type.getId()];
+        if (attributeType == null) {
+            throw new UnsupportedOperationException("Unsupported Portable field in query: " + fieldName);
         }
+        return attributeType;
     }
 
-    private static class PortableByteFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readByte(fieldName);
+    /**
+     * Follows the path through the binary up to the value of its last field.
+     *
+     * @return the location of the value, or null if the path doesn't lead to a value.
+     */
+    private static FieldLocation locate(PortableContext context, Data data, BufferObjectDataInput in, String fieldName)
+            throws IOException {
+        int factoryId = in.readInt();
+        int classId = in.readInt();
+        int version = in.readInt();
+        ClassDefinition cd = context.lookupClassDefinition(factoryId, classId, version);
+        if (cd == null) {
+            // registers the class definitions of the portable and its nested portables from the binary
+            cd = context.lookupClassDefinition(data);
         }
+        int start = in.position();
+
+        PathElement[] path = getPath(fieldName);
+        for (int i = 0; ; i++) {
+            PathElement element = path[i];
+            FieldDefinition fd = cd.getField(element.name);
+            if (fd == null) {
+                return null;
+            }
+            int fieldPosition = in.readInt(start + FIELD_OFFSETS_OFFSET + fd.getIndex() * INT_SIZE_IN_BYTES);
+            // the value follows the field name and the field type
+            int position = fieldPosition + SHORT_SIZE_IN_BYTES + in.readShort(fieldPosition) + Bits.BYTE_SIZE_IN_BYTES;
+            if (i == path.length - 1) {
+                return new FieldLocation(fd.getType(), position, element.index);
+            }
 
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.BYTE;
+            start = getNestedPortableStart(in, fd, element, position, fieldName);
+            if (start == NULL_PORTABLE) {
+                return null;
+            }
+            // the version of a nested portable precedes its fields
+            cd = context.lookupClassDefinition(fd.getFactoryId(), fd.getClassId(), in.readInt(start - INT_SIZE_IN_BYTES));
+            if (cd == null) {
+                throw new QueryException("Not a registered Portable field: " + fd);
+            }
         }
     }
 
-    private static class PortableLongFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readLong(fieldName);
+    /**
+     * Returns the position of the nested portable in a portable field, or of the element of a portable array field.
+     *
+     * @return the position, or {@link #NULL_PORTABLE} if there is no such portable.
+     */
+    private static int getNestedPortableStart(BufferObjectDataInput in, FieldDefinition fd, PathElement element,
+                                              int position, String fieldName) throws IOException {
+        if (fd.getType() == FieldType.PORTABLE && element.index == PathElement.NO_INDEX) {
+            if (in.readBoolean(position)) {
+                return NULL_PORTABLE;
+            }
+            return position + NESTED_PORTABLE_HEADER_SIZE;
         }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.LONG;
+        if (fd.getType() == FieldType.PORTABLE_ARRAY && element.index != PathElement.NO_INDEX) {
+            if (element.index >= in.readInt(position)) {
+                return NULL_PORTABLE;
+            }
+            int elementPosition = in.readInt(position + PORTABLE_ARRAY_HEADER_SIZE + element.index * INT_SIZE_IN_BYTES);
+            return elementPosition + INT_SIZE_IN_BYTES;
         }
+        throw new QueryException("Not a Portable field: " + element.name + " in " + fieldName);
     }
 
-    private static class PortableDoubleFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readDouble(fieldName);
-        }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.DOUBLE;
+    private static Comparable readValue(BufferObjectDataInput in, FieldType type, int position, String fieldName)
+            throws IOException {
+        Comparable value;
+        switch (type) {
+            case BYTE:
+                value = in.readByte(position);
+                break;
+            case BOOLEAN:
+                value = in.readBoolean(position);
+                break;
+            case CHAR:
+                value = in.readChar(position);
+                break;
+            case SHORT:
+                value = in.readShort(position);
+                break;
+            case INT:
+                value = in.readInt(position);
+                break;
+            case LONG:
+                value = in.readLong(position);
+                break;
+            case FLOAT:
+                value = in.readFloat(position);
+                break;
+            case DOUBLE:
+                value = in.readDouble(position);
+                break;
+            case UTF:
+                in.position(position);
+                value = in.readUTF();
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported Portable field in query: " + fieldName);
         }
+        return value;
     }
 
-    private static class PortableFloatFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readFloat(fieldName);
-        }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.FLOAT;
+    private static Comparable readArrayElement(BufferObjectDataInput in, FieldType arrayType, int position, int index,
+                                               String fieldName) throws IOException {
+        FieldType type = getElementType(arrayType, fieldName);
+        if (index >= in.readInt(position)) {
+            return null;
         }
+        return readValue(in, type, position + INT_SIZE_IN_BYTES + index * getSize(type), fieldName);
     }
 
-    private static class PortableShortFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readShort(fieldName);
-        }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.SHORT;
+    private static FieldType getElementType(FieldType arrayType, String fieldName) {
+        switch (arrayType) {
+            case BYTE_ARRAY:
+                return FieldType.BYTE;
+            case CHAR_ARRAY:
+                return FieldType.CHAR;
+            case SHORT_ARRAY:
+                return FieldType.SHORT;
+            case INT_ARRAY:
+                return FieldType.INT;
+            case LONG_ARRAY:
+                return FieldType.LONG;
+            case FLOAT_ARRAY:
+                return FieldType.FLOAT;
+            case DOUBLE_ARRAY:
+                return FieldType.DOUBLE;
+            default:
+                throw new QueryException("Not a primitive array field: " + fieldName);
         }
     }
 
-    private static class PortableUtfFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readUTF(fieldName);
-        }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.STRING;
+    private static int getSize(FieldType type) {
+        switch (type) {
+            case BYTE:
+                return Bits.BYTE_SIZE_IN_BYTES;
+            case CHAR:
+                return Bits.CHAR_SIZE_IN_BYTES;
+            case SHORT:
+                return SHORT_SIZE_IN_BYTES;
+            case INT:
+                return INT_SIZE_IN_BYTES;
+            case LONG:
+                return Bits.LONG_SIZE_IN_BYTES;
+            case FLOAT:
+                return Bits.FLOAT_SIZE_IN_BYTES;
+            case DOUBLE:
+                return Bits.DOUBLE_SIZE_IN_BYTES;
+            default:
+                throw new IllegalArgumentException("Not a fixed size type: " + type);
         }
     }
 
-    private static class PortableCharFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readChar(fieldName);
-        }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.CHAR;
+    private static PathElement[] getPath(String fieldName) {
+        PathElement[] path = PATHS.get(fieldName);
+        if (path == null) {
+            path = parsePath(fieldName);
+            if (PATHS.size() < MAX_CACHED_PATHS) {
+                PATHS.put(fieldName, path);
+            }
         }
+        return path;
     }
 
-    private static class PortableBooleanFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return reader.readBoolean(fieldName);
-        }
-
-        @Override
-        public AttributeType getAttributeType() {
-            return AttributeType.BOOLEAN;
+    private static PathElement[] parsePath(String fieldName) {
+        List<PathElement> path = new ArrayList<PathElement>();
+        int begin = 0;
+        while (begin <= fieldName.length()) {
+            int end = fieldName.indexOf('.', begin);
+            if (end == -1) {
+                end = fieldName.length();
+            }
+            path.add(parsePathElement(fieldName, fieldName.substring(begin, end)));
+            begin = end + 1;
         }
+        return path.toArray(new PathElement[path.size()]);
     }
 
-    private static class PortableUnsupportedFieldExtractor implements PortableFieldExtractor {
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            throw new UnsupportedOperationException("Unsupported Portable field in query: " + fieldName);
+    private static PathElement parsePathElement(String fieldName, String element) {
+        int bracket = element.indexOf('[');
+        if (bracket == -1) {
+            return new PathElement(element, PathElement.NO_INDEX);
         }
-
-        @Override
-        public AttributeType getAttributeType() {
-            throw new UnsupportedOperationException();
+        if (!element.endsWith("]")) {
+            throw new QueryException("Invalid Portable field path: " + fieldName);
+        }
+        try {
+            int index = Integer.parseInt(element.substring(bracket + 1, element.length() - 1));
+            if (index < 0) {
+                throw new QueryException("Negative array index in Portable field path: " + fieldName);
+            }
+            return new PathElement(element.substring(0, bracket), index);
+        } catch (NumberFormatException e) {
+            throw new QueryException("Invalid array index in Portable field path: " + fieldName);
         }
     }
 
     /**
-     * A {@link com.hazelcast.query.impl.PortableExtractor.PortableFieldExtractor} which's methods always return null.
-     * Used in cases that a portable field exists on one node but not exists on another one. In those cases returning null
-     * makes a {@link com.hazelcast.query.Predicate} to return false.
+     * A field name in a path, optionally with an array index.
      */
-    private static final class NullPortableFieldExtractor implements PortableFieldExtractor {
+    private static final class PathElement {
 
-        @Override
-        public Comparable extract(PortableReader reader, String fieldName) throws IOException {
-            return null;
-        }
+        static final int NO_INDEX = -1;
 
-        @Override
-        public AttributeType getAttributeType() {
-            return null;
-        }
+        final String name;
+        final int index;
 
+        PathElement(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
     }
 
-    private interface PortableFieldExtractor {
+    /**
+     * The type and the position of the value of the last field in a path.
+     */
+    private static final class FieldLocation {
 
-        Comparable extract(PortableReader reader, String fieldName) throws IOException;
+        final FieldType type;
+        final int position;
+        final int index;
 
-        AttributeType getAttributeType();
+        FieldLocation(FieldType type, int position, int index) {
+            this.type = type;
+            this.position = position;
+            this.index = index;
+        }
     }
 }
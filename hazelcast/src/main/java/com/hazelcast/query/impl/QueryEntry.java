@@ -18,7 +18,6 @@ package com.hazelcast.query.impl;
 
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.Portable;
-import com.hazelcast.internal.serialization.PortableContext;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.query.QueryException;
 import com.hazelcast.query.impl.getters.ReflectionHelper;
@@ -141,9 +140,8 @@ public class QueryEntry implements QueryableEntry {
         }
     }
 
-    // This method is very inefficient because:
-    // lot of time is spend on retrieving field/method and it isn't cached
-    // the actual invocation on the Field, Method is also is quite expensive.
+    // The getters are cached per class and attribute by the ReflectionHelper, but the value still has to be
+    // deserialized and the invocation on the Field, Method boxes primitive values.
     private Comparable extractViaReflection(String attributeName, boolean isKey) {
         try {
             Object obj = isKey ? getKey() : getValue();
@@ -168,8 +166,7 @@ public class QueryEntry implements QueryableEntry {
         Data data = getOptionalTargetData(isKey);
 
         if (data != null && data.isPortable()) {
-            PortableContext portableContext = serializationService.getPortableContext();
-            return PortableExtractor.getAttributeType(portableContext, data, attributeName);
+            return PortableExtractor.getAttributeType(serializationService, data, attributeName);
         }
         return ReflectionHelper.getAttributeType(isKey ? getKey() : getValue(), attributeName);
     }
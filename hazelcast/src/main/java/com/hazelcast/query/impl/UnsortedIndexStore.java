@@ -180,6 +180,22 @@ public class UnsortedIndexStore extends BaseIndexStore {
         }
     }
 
+    @Override
+    public int getRecordCount(Comparable value) {
+        takeReadLock();
+        try {
+            ConcurrentMap<Data, QueryableEntry> records;
+            if (value instanceof IndexImpl.NullObject) {
+                records = recordsWithNullValue;
+            } else {
+                records = recordMap.get(value);
+            }
+            return records == null ? 0 : records.size();
+        } finally {
+            releaseReadLock();
+        }
+    }
+
     @Override
     public Set<QueryableEntry> getRecords(Comparable value) {
         takeReadLock();
@@ -19,6 +19,9 @@ package com.hazelcast.query.impl.getters;
 import java.lang.reflect.Method;
 
 final class MethodGetter extends Getter {
+    // passed to every invocation instead of a new varargs array
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final Method method;
 
     MethodGetter(Getter parent, Method method) {
@@ -29,7 +32,7 @@ final class MethodGetter extends Getter {
     Object getValue(Object obj) throws Exception {
         Object paramObj = obj;
         paramObj = parent != null ? parent.getValue(paramObj) : paramObj;
-        return paramObj != null ? method.invoke(paramObj) : null;
+        return paramObj != null ? method.invoke(paramObj, NO_ARGS) : null;
     }
 
     @Override
@@ -20,6 +20,7 @@ import com.hazelcast.query.QueryException;
 import com.hazelcast.query.impl.AttributeType;
 import com.hazelcast.query.impl.IndexImpl;
 import com.hazelcast.util.ConcurrencyUtil;
+import com.hazelcast.util.ConcurrentReferenceHashMap;
 import com.hazelcast.util.ConstructorFunction;
 import com.hazelcast.util.EmptyStatement;
 import com.hazelcast.util.ExceptionUtil;
@@ -38,6 +39,8 @@ import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
 import static com.hazelcast.query.impl.getters.NullGetter.NULL_GETTER;
+import static com.hazelcast.util.ConcurrentReferenceHashMap.ReferenceType.SOFT;
+import static com.hazelcast.util.ConcurrentReferenceHashMap.ReferenceType.WEAK;
 
 /**
  * Scans your classpath, indexes the metadata, allows you to query it on runtime.
@@ -50,6 +53,15 @@ public final class ReflectionHelper {
     private static final ConcurrentMap<Class, ConcurrentMap<String, Getter>> GETTER_CACHE
             = new ConcurrentHashMap<Class, ConcurrentMap<String, Getter>>(1000);
 
+    /**
+     * Getters of classes loaded by another class loader than Hazelcast's, so a full scan over such classes doesn't
+     * look up the accessors reflectively for every entry. The keys are weak, but the cached getters hold the
+     * {@link Method} or {@link Field} they access, which strongly reference their class and so the key. The values
+     * are soft, so the class loader of such a class can only be unloaded once the garbage collector has cleared them.
+     */
+    private static final ConcurrentMap<Class, ConcurrentMap<String, Getter>> FOREIGN_GETTER_CACHE
+            = new ConcurrentReferenceHashMap<Class, ConcurrentMap<String, Getter>>(WEAK, SOFT);
+
     private static final ConstructorFunction<Class, ConcurrentMap<String, Getter>> GETTER_CACHE_CONSTRUCTOR
             = new ConstructorFunction<Class, ConcurrentMap<String, Getter>>() {
         @Override
@@ -108,20 +120,25 @@ public final class ReflectionHelper {
     private static Getter get(Class clazz, String attribute) {
         ConcurrentMap<String, Getter> cache = GETTER_CACHE.get(clazz);
         if (cache == null) {
-            return null;
+            cache = FOREIGN_GETTER_CACHE.get(clazz);
+            if (cache == null) {
+                return null;
+            }
         }
 
         return cache.get(attribute);
     }
 
-    private static Getter set(Class clazz, String attribute, Getter getter) {
-        ConcurrentMap<String, Getter> cache = ConcurrencyUtil.getOrPutIfAbsent(GETTER_CACHE, clazz, GETTER_CACHE_CONSTRUCTOR);
+    private static Getter set(ConcurrentMap<Class, ConcurrentMap<String, Getter>> getterCache, Class clazz,
+                              String attribute, Getter getter) {
+        ConcurrentMap<String, Getter> cache = ConcurrencyUtil.getOrPutIfAbsent(getterCache, clazz, GETTER_CACHE_CONSTRUCTOR);
         Getter foundGetter = cache.putIfAbsent(attribute, getter);
         return foundGetter == null ? getter : foundGetter;
     }
 
     public static void reset() {
         GETTER_CACHE.clear();
+        FOREIGN_GETTER_CACHE.clear();
     }
 
     public static AttributeType getAttributeType(Object value, String attribute) {
@@ -167,6 +184,8 @@ public final class ReflectionHelper {
                     if (localGetter == null) {
                         try {
                             final Field field = clazz.getField(name);
+                            // skips the access check on every read, like for the methods
+                            field.setAccessible(true);
                             localGetter = new FieldGetter(parent, field);
                             clazz = field.getType();
                         } catch (NoSuchFieldException ignored) {
@@ -197,7 +216,9 @@ public final class ReflectionHelper {
             getter = parent;
 
             if (getter.isCacheable()) {
-                getter = set(targetClazz, attribute, getter);
+                getter = set(GETTER_CACHE, targetClazz, attribute, getter);
+            } else if (!holdsObject(getter)) {
+                getter = set(FOREIGN_GETTER_CACHE, targetClazz, attribute, getter);
             }
             return getter;
         } catch (Throwable e) {
@@ -205,6 +226,19 @@ public final class ReflectionHelper {
         }
     }
 
+    /**
+     * Checks if the getter or one of its parents is a {@link ThisGetter}, which holds on to the object it was
+     * created for and so must not be cached.
+     */
+    private static boolean holdsObject(Getter getter) {
+        for (Getter g = getter; g != null; g = g.parent) {
+            if (g instanceof ThisGetter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static Comparable extractValue(Object object, String attributeName) throws Exception {
         return (Comparable) createGetter(object, attributeName).getValue(object);
     }
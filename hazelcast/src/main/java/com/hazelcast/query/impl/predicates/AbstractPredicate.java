@@ -24,6 +24,7 @@ import com.hazelcast.query.QueryException;
 import com.hazelcast.query.impl.AttributeType;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.IndexStatistics;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -75,6 +76,27 @@ public abstract class AbstractPredicate implements IndexAwarePredicate, DataSeri
         }
     }
 
+    /**
+     * Converts the attribute value like {@link #convert(Map.Entry, Comparable, Comparable)}, unless the given cached
+     * conversion was made for the same attribute value and the same class of entry values. During a full scan the
+     * entry values of an attribute almost always share a class, so the value is converted once instead of for every
+     * entry.
+     *
+     * @param cached         the previous conversion, may be {@code null}.
+     * @param mapEntry       the entry.
+     * @param entryValue     the value of the attribute in the entry; not {@code null}.
+     * @param attributeValue the value to convert.
+     * @return the cached conversion if still valid, otherwise a new one the caller should cache.
+     */
+    protected ConvertedValue convert(ConvertedValue cached, Map.Entry mapEntry, Comparable entryValue,
+                                     Comparable attributeValue) {
+        Class entryValueClass = entryValue.getClass();
+        if (cached != null && cached.attributeValue == attributeValue && cached.entryValueClass == entryValueClass) {
+            return cached;
+        }
+        return new ConvertedValue(attributeValue, entryValueClass, convert(mapEntry, entryValue, attributeValue));
+    }
+
     @Override
     public boolean isIndexed(QueryContext queryContext) {
         return getIndex(queryContext) != null;
@@ -84,6 +106,22 @@ public abstract class AbstractPredicate implements IndexAwarePredicate, DataSeri
         return queryContext.getIndex(attribute);
     }
 
+    /**
+     * Returns the statistics of the index of the attribute, or {@code null} if there is none.
+     */
+    protected IndexStatistics getIndexStatistics(QueryContext queryContext) {
+        Index index = getIndex(queryContext);
+        return index == null ? null : index.getStatistics();
+    }
+
+    /**
+     * Returns the number of entries in the index of the attribute, see {@link EstimablePredicate}.
+     */
+    public long getIndexedEntryCount(QueryContext queryContext) {
+        IndexStatistics statistics = getIndexStatistics(queryContext);
+        return statistics == null ? EstimablePredicate.UNKNOWN : statistics.getEntryCount();
+    }
+
     protected Comparable readAttribute(Map.Entry entry) {
         QueryableEntry queryableEntry = (QueryableEntry) entry;
         Comparable val = queryableEntry.getAttribute(attribute);
@@ -102,4 +140,20 @@ public abstract class AbstractPredicate implements IndexAwarePredicate, DataSeri
     public void readData(ObjectDataInput in) throws IOException {
         attribute = in.readUTF();
     }
+
+    /**
+     * An attribute value converted for entry values of a given class.
+     */
+    protected static final class ConvertedValue {
+
+        final Comparable attributeValue;
+        final Class entryValueClass;
+        final Comparable value;
+
+        ConvertedValue(Comparable attributeValue, Class entryValueClass, Comparable value) {
+            this.attributeValue = attributeValue;
+            this.entryValueClass = entryValueClass;
+            this.value = value;
+        }
+    }
 }
@@ -28,6 +28,8 @@ import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +40,18 @@ import java.util.Set;
  */
 public final class AndPredicate implements IndexAwarePredicate, DataSerializable, VisitablePredicate, NegatablePredicate {
 
+    /**
+     * If even the most selective indexed predicate matches more than this fraction of the entries, iterating over the
+     * index result costs more than a full scan, so the predicate reports itself as not indexed.
+     */
+    static final double MAX_INDEX_SELECTIVITY = 0.8;
+
+    /**
+     * Indexed predicates matching more than this fraction of the entries are applied to the candidates instead of
+     * being probed in their index result.
+     */
+    static final double MAX_PROBE_SELECTIVITY = 0.5;
+
     protected Predicate[] predicates;
 
     public AndPredicate() {
@@ -60,45 +74,54 @@ public final class AndPredicate implements IndexAwarePredicate, DataSerializable
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
-        Set<QueryableEntry> smallestIndexedResult = null;
-        List<Set<QueryableEntry>> otherIndexedResults = new LinkedList<Set<QueryableEntry>>();
+        List<IndexedPredicate> indexedPredicates = new ArrayList<IndexedPredicate>(predicates.length);
         List<Predicate> lsNoIndexPredicates = null;
         for (Predicate predicate : predicates) {
-            boolean indexed = false;
-            if (predicate instanceof IndexAwarePredicate) {
-                IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
-                if (iap.isIndexed(queryContext)) {
-                    indexed = true;
-                    Set<QueryableEntry> s = iap.filter(queryContext);
-                    if (smallestIndexedResult == null) {
-                        smallestIndexedResult = s;
-                    } else if (s.size() < smallestIndexedResult.size()) {
-                        otherIndexedResults.add(smallestIndexedResult);
-                        smallestIndexedResult = s;
-                    } else {
-                        otherIndexedResults.add(s);
-                    }
-                }
+            IndexedPredicate indexedPredicate = null;
+            if (predicate instanceof IndexAwarePredicate && ((IndexAwarePredicate) predicate).isIndexed(queryContext)) {
+                indexedPredicate = new IndexedPredicate((IndexAwarePredicate) predicate, queryContext);
             }
-            if (!indexed) {
+            if (indexedPredicate != null && indexedPredicate.estimatedSize != EstimablePredicate.UNKNOWN) {
+                indexedPredicates.add(indexedPredicate);
+            } else {
                 if (lsNoIndexPredicates == null) {
                     lsNoIndexPredicates = new LinkedList<Predicate>();
                 }
                 lsNoIndexPredicates.add(predicate);
             }
         }
-        if (smallestIndexedResult == null) {
+        if (indexedPredicates.isEmpty()) {
             return null;
         }
+        // the most selective index drives the query, the others are probed for every candidate. Indexes matching
+        // most entries hardly reject a candidate, so their predicates are applied to the candidates instead
+        Collections.sort(indexedPredicates);
+        Set<QueryableEntry> smallestIndexedResult = indexedPredicates.get(0).getResult(queryContext);
+        List<Set<QueryableEntry>> otherIndexedResults = new LinkedList<Set<QueryableEntry>>();
+        for (int i = 1; i < indexedPredicates.size(); i++) {
+            IndexedPredicate indexedPredicate = indexedPredicates.get(i);
+            if (indexedPredicate.selectivity > MAX_PROBE_SELECTIVITY) {
+                if (lsNoIndexPredicates == null) {
+                    lsNoIndexPredicates = new LinkedList<Predicate>();
+                }
+                lsNoIndexPredicates.add(indexedPredicate.predicate);
+            } else {
+                otherIndexedResults.add(indexedPredicate.getResult(queryContext));
+            }
+        }
         return new AndResultSet(smallestIndexedResult, otherIndexedResults, lsNoIndexPredicates);
     }
 
+    /**
+     * Returns {@code true} if one of the predicates is indexed and either its index is selective enough to beat a full
+     * scan or its selectivity is unknown.
+     */
     @Override
     public boolean isIndexed(QueryContext queryContext) {
         for (Predicate predicate : predicates) {
             if (predicate instanceof IndexAwarePredicate) {
                 IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
-                if (iap.isIndexed(queryContext)) {
+                if (iap.isIndexed(queryContext) && estimateSelectivity(iap, queryContext) <= MAX_INDEX_SELECTIVITY) {
                     return true;
                 }
             }
@@ -106,6 +129,26 @@ public final class AndPredicate implements IndexAwarePredicate, DataSerializable
         return false;
     }
 
+    /**
+     * Estimates the fraction of the entries matched by an indexed predicate. Returns 0 if it can't be estimated, so
+     * predicates without statistics keep using their index.
+     */
+    private static double estimateSelectivity(IndexAwarePredicate predicate, QueryContext queryContext) {
+        if (!(predicate instanceof EstimablePredicate)) {
+            return 0;
+        }
+        EstimablePredicate estimablePredicate = (EstimablePredicate) predicate;
+        long entryCount = estimablePredicate.getIndexedEntryCount(queryContext);
+        if (entryCount <= 0) {
+            return 0;
+        }
+        long estimate = estimablePredicate.estimateResultSize(queryContext);
+        if (estimate == EstimablePredicate.UNKNOWN) {
+            return 0;
+        }
+        return Math.min(1d, (double) estimate / entryCount);
+    }
+
     @Override
     public boolean apply(Map.Entry mapEntry) {
         for (Predicate predicate : predicates) {
@@ -165,4 +208,51 @@ public final class AndPredicate implements IndexAwarePredicate, DataSerializable
         OrPredicate orPredicate = new OrPredicate(inners);
         return orPredicate;
     }
+
+    /**
+     * An indexed predicate with the estimated size of its result, ordered from the most to the least selective.
+     * Predicates without statistics are evaluated up front to learn the size of their result; their selectivity is
+     * taken as 0, so they are always probed.
+     */
+    private static final class IndexedPredicate implements Comparable<IndexedPredicate> {
+
+        final IndexAwarePredicate predicate;
+        final long estimatedSize;
+        final double selectivity;
+        Set<QueryableEntry> result;
+
+        IndexedPredicate(IndexAwarePredicate predicate, QueryContext queryContext) {
+            this.predicate = predicate;
+            long estimate = EstimablePredicate.UNKNOWN;
+            long entryCount = 0;
+            if (predicate instanceof EstimablePredicate) {
+                EstimablePredicate estimablePredicate = (EstimablePredicate) predicate;
+                estimate = estimablePredicate.estimateResultSize(queryContext);
+                entryCount = estimablePredicate.getIndexedEntryCount(queryContext);
+            }
+            if (estimate == EstimablePredicate.UNKNOWN) {
+                // a null result means the index can't answer the predicate after all, e.g. a partially indexed OR
+                result = predicate.filter(queryContext);
+                estimate = result == null ? EstimablePredicate.UNKNOWN : result.size();
+                entryCount = 0;
+            }
+            this.estimatedSize = estimate;
+            this.selectivity = entryCount > 0 ? Math.min(1d, (double) estimate / entryCount) : 0;
+        }
+
+        Set<QueryableEntry> getResult(QueryContext queryContext) {
+            if (result == null) {
+                result = predicate.filter(queryContext);
+            }
+            return result;
+        }
+
+        @Override
+        public int compareTo(IndexedPredicate other) {
+            if (estimatedSize == other.estimatedSize) {
+                return 0;
+            }
+            return estimatedSize < other.estimatedSize ? -1 : 1;
+        }
+    }
 }
@@ -19,6 +19,7 @@ package com.hazelcast.query.impl.predicates;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexStatistics;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -29,9 +30,11 @@ import java.util.Set;
 /**
  * Between Predicate
  */
-public class BetweenPredicate extends AbstractPredicate {
+public class BetweenPredicate extends AbstractPredicate implements EstimablePredicate {
     Comparable to;
     Comparable from;
+    private transient volatile ConvertedValue convertedFrom;
+    private transient volatile ConvertedValue convertedTo;
 
     public BetweenPredicate() {
     }
@@ -51,14 +54,28 @@ public class BetweenPredicate extends AbstractPredicate {
         if (entryValue == null) {
             return false;
         }
-        Comparable fromConvertedValue = convert(entry, entryValue, from);
-        Comparable toConvertedValue = convert(entry, entryValue, to);
+        ConvertedValue fromConverted = convert(convertedFrom, entry, entryValue, from);
+        ConvertedValue toConverted = convert(convertedTo, entry, entryValue, to);
+        if (fromConverted != convertedFrom) {
+            convertedFrom = fromConverted;
+        }
+        if (toConverted != convertedTo) {
+            convertedTo = toConverted;
+        }
+        Comparable fromConvertedValue = fromConverted.value;
+        Comparable toConvertedValue = toConverted.value;
         if (fromConvertedValue == null || toConvertedValue == null) {
             return false;
         }
         return entryValue.compareTo(fromConvertedValue) >= 0 && entryValue.compareTo(toConvertedValue) <= 0;
     }
 
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        IndexStatistics statistics = getIndexStatistics(queryContext);
+        return statistics == null ? UNKNOWN : statistics.estimateBetween(from, to);
+    }
+
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
         Index index = getIndex(queryContext);
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Equality on all attributes of a {@link com.hazelcast.query.impl.CompositeIndexImpl}. It is created by the
+ * {@link CompositeIndexVisitor} from the {@link EqualPredicate}s of an {@link AndPredicate}, so that they are
+ * evaluated with a single composite index lookup.
+ */
+public class CompositeEqualPredicate extends AbstractPredicate implements EstimablePredicate {
+
+    // the equal predicates in the order of the components of the composite index.
+    protected EqualPredicate[] predicates;
+
+    public CompositeEqualPredicate() {
+    }
+
+    public CompositeEqualPredicate(String indexName, EqualPredicate[] predicates) {
+        super(indexName);
+        this.predicates = predicates;
+    }
+
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        IndexStatistics statistics = getIndexStatistics(queryContext);
+        return statistics == null ? UNKNOWN : statistics.estimateEqual(getCompositeValue());
+    }
+
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        Index index = getIndex(queryContext);
+        return index.getRecords(getCompositeValue());
+    }
+
+    private CompositeValue getCompositeValue() {
+        Comparable[] values = new Comparable[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            values[i] = predicates[i].value;
+        }
+        return new CompositeValue(values);
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        for (EqualPredicate predicate : predicates) {
+            if (!predicate.apply(mapEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+        out.writeInt(predicates.length);
+        for (EqualPredicate predicate : predicates) {
+            out.writeObject(predicate);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        int size = in.readInt();
+        predicates = new EqualPredicate[size];
+        for (int i = 0; i < size; i++) {
+            predicates[i] = in.readObject();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < predicates.length; i++) {
+            if (i > 0) {
+                sb.append(" AND ");
+            }
+            sb.append(predicates[i]);
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+}
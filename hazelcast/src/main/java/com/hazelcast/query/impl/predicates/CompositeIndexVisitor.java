@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeIndexImpl;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.util.collection.ArrayUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rewrites (customerId = X and status = Y and ...) into a single {@link CompositeEqualPredicate} when there is a
+ * composite index on (customerId, status). Then the predicate is evaluated using a single index lookup, instead of
+ * intersecting the (potentially large) results of the single attribute indexes.
+ *
+ * If multiple composite indexes match, the one with the most attributes is used. The remaining predicates are kept.
+ * When the resulting AndPredicate contains only a single predicate, then it returns only the inner predicate.
+ */
+public class CompositeIndexVisitor extends AbstractVisitor {
+
+    @Override
+    public Predicate visit(AndPredicate andPredicate, Indexes indexes) {
+        if (!indexes.hasCompositeIndex()) {
+            return andPredicate;
+        }
+
+        Predicate[] originalPredicates = andPredicate.predicates;
+        Map<String, EqualPredicate> candidates = findCandidates(originalPredicates);
+        if (candidates == null) {
+            return andPredicate;
+        }
+
+        CompositeIndexImpl index = indexes.matchCompositeIndex(candidates.keySet());
+        if (index == null) {
+            return andPredicate;
+        }
+
+        String[] components = index.getComponents();
+        EqualPredicate[] equalPredicates = new EqualPredicate[components.length];
+        for (int i = 0; i < components.length; i++) {
+            equalPredicates[i] = candidates.get(components[i]);
+        }
+
+        Predicate[] target = ArrayUtils.createCopy(originalPredicates);
+        for (int i = 0; i < target.length; i++) {
+            for (EqualPredicate equalPredicate : equalPredicates) {
+                if (target[i] == equalPredicate) {
+                    target[i] = null;
+                }
+            }
+        }
+        Predicate compositePredicate = new CompositeEqualPredicate(index.getAttributeName(), equalPredicates);
+
+        int newSize = target.length - equalPredicates.length + 1;
+        if (newSize == 1) {
+            return compositePredicate;
+        }
+        Predicate[] newPredicates = new Predicate[newSize];
+        newPredicates[0] = compositePredicate;
+        int position = 1;
+        for (Predicate predicate : target) {
+            if (predicate != null) {
+                newPredicates[position++] = predicate;
+            }
+        }
+        return new AndPredicate(newPredicates);
+    }
+
+    private Map<String, EqualPredicate> findCandidates(Predicate[] predicates) {
+        Map<String, EqualPredicate> candidates = null;
+        for (Predicate predicate : predicates) {
+            // the NotEqualPredicate is an EqualPredicate as well, so we need to check the exact type.
+            if (predicate.getClass() != EqualPredicate.class) {
+                continue;
+            }
+
+            EqualPredicate equalPredicate = (EqualPredicate) predicate;
+            if (candidates == null) {
+                candidates = new HashMap<String, EqualPredicate>();
+            }
+            if (!candidates.containsKey(equalPredicate.attribute)) {
+                candidates.put(equalPredicate.attribute, equalPredicate);
+            }
+        }
+
+        if (candidates == null || candidates.size() < 2) {
+            return null;
+        }
+        return candidates;
+    }
+}
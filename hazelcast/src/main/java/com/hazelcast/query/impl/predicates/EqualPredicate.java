@@ -21,6 +21,7 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.IndexStatistics;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -31,7 +32,7 @@ import java.util.Set;
 /**
  * Equal Predicate
  */
-public class EqualPredicate extends AbstractPredicate implements NegatablePredicate {
+public class EqualPredicate extends AbstractPredicate implements NegatablePredicate, EstimablePredicate {
     protected Comparable value;
 
     public EqualPredicate() {
@@ -46,6 +47,12 @@ public class EqualPredicate extends AbstractPredicate implements NegatablePredic
         this.value = value;
     }
 
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        IndexStatistics statistics = getIndexStatistics(queryContext);
+        return statistics == null ? UNKNOWN : statistics.estimateEqual(value);
+    }
+
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
         Index index = getIndex(queryContext);
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.QueryContext;
+
+/**
+ * An {@link IndexAwarePredicate} which can estimate from the {@link IndexStatistics} how many entries it matches,
+ * without querying the index. {@link AndPredicate} uses the estimates to pick the most selective index and to decide
+ * when a full scan is cheaper.
+ */
+public interface EstimablePredicate extends IndexAwarePredicate {
+
+    /**
+     * Returned by {@link #estimateResultSize(QueryContext)} when no estimate can be made.
+     */
+    long UNKNOWN = -1;
+
+    /**
+     * Estimates the number of entries matched by this predicate using its index.
+     * Only called if {@link #isIndexed(QueryContext)} returns {@code true}.
+     *
+     * @param queryContext the query context.
+     * @return the estimated number of entries or {@link #UNKNOWN}.
+     */
+    long estimateResultSize(QueryContext queryContext);
+
+    /**
+     * Returns the number of entries in the index used by this predicate, so the estimate can be turned into a
+     * selectivity.
+     *
+     * @param queryContext the query context.
+     * @return the number of entries in the index or {@link #UNKNOWN}.
+     */
+    long getIndexedEntryCount(QueryContext queryContext);
+}
@@ -21,6 +21,7 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.ComparisonType;
 import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexStatistics;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -31,10 +32,11 @@ import java.util.Set;
 /**
  * Greater Less Predicate
  */
-public final class GreaterLessPredicate extends AbstractPredicate implements NegatablePredicate {
+public final class GreaterLessPredicate extends AbstractPredicate implements NegatablePredicate, EstimablePredicate {
     protected Comparable value;
     boolean equal;
     boolean less;
+    private transient volatile ConvertedValue convertedValue;
 
     public GreaterLessPredicate() {
     }
@@ -57,21 +59,32 @@ public final class GreaterLessPredicate extends AbstractPredicate implements Neg
         if (entryValue == null) {
             return false;
         }
-        final Comparable attributeValue = convert(mapEntry, entryValue, value);
-        final int result = entryValue.compareTo(attributeValue);
+        ConvertedValue converted = convert(convertedValue, mapEntry, entryValue, value);
+        if (converted != convertedValue) {
+            convertedValue = converted;
+        }
+        final int result = entryValue.compareTo(converted.value);
         return equal && result == 0 || (less ? (result < 0) : (result > 0));
     }
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
         Index index = getIndex(queryContext);
-        final ComparisonType comparisonType;
+        return index.getSubRecords(getComparisonType(), value);
+    }
+
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        IndexStatistics statistics = getIndexStatistics(queryContext);
+        return statistics == null ? UNKNOWN : statistics.estimateComparison(getComparisonType(), value);
+    }
+
+    private ComparisonType getComparisonType() {
         if (less) {
-            comparisonType = equal ? ComparisonType.LESSER_EQUAL : ComparisonType.LESSER;
+            return equal ? ComparisonType.LESSER_EQUAL : ComparisonType.LESSER;
         } else {
-            comparisonType = equal ? ComparisonType.GREATER_EQUAL : ComparisonType.GREATER;
+            return equal ? ComparisonType.GREATER_EQUAL : ComparisonType.GREATER;
         }
-        return index.getSubRecords(comparisonType, value);
     }
 
     @Override
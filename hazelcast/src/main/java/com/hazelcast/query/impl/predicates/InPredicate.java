@@ -19,6 +19,7 @@ package com.hazelcast.query.impl.predicates;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexStatistics;
 import com.hazelcast.query.impl.QueryContext;
 import com.hazelcast.query.impl.QueryableEntry;
 
@@ -30,7 +31,7 @@ import java.util.Set;
 /**
  * In Predicate
  */
-public class InPredicate extends AbstractPredicate {
+public class InPredicate extends AbstractPredicate implements EstimablePredicate {
     Comparable[] values;
     private volatile Set<Comparable> convertedInValues;
 
@@ -63,6 +64,12 @@ public class InPredicate extends AbstractPredicate {
         return set.contains(entryValue);
     }
 
+    @Override
+    public long estimateResultSize(QueryContext queryContext) {
+        IndexStatistics statistics = getIndexStatistics(queryContext);
+        return statistics == null ? UNKNOWN : statistics.estimateIn(values);
+    }
+
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
         Index index = getIndex(queryContext);
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi;
+
+/**
+ * A {@link MigrationAwareService} which can copy the data of a migrating partition to the destination in bounded
+ * chunks while the partition keeps serving operations.
+ * <p>
+ * The source calls {@link #prepareMigrationChunk(PartitionMigrationEvent, int)} on the partition thread until it
+ * returns {@code null}, sending each chunk to the destination and waiting for it to be applied before preparing the
+ * next one. The service tracks mutations made after the first chunk has been prepared, so that the operation created
+ * by {@link #prepareReplicationOperation(PartitionReplicationEvent)} for the final migration step only needs to carry
+ * the changes made while chunks were in flight.
+ */
+public interface ChunkedMigrationAwareService extends MigrationAwareService {
+
+    /**
+     * Prepares the next chunk of a migrating partition. Called on the source, on the partition thread.
+     *
+     * @param event      the migration event, the migration endpoint is {@link com.hazelcast.partition.MigrationEndpoint#SOURCE}
+     * @param maxRecords the maximum number of records to put into the chunk
+     * @return the operation applying the chunk on the destination or {@code null} if all data has been sent
+     */
+    Operation prepareMigrationChunk(PartitionMigrationEvent event, int maxRecords);
+
+    /**
+     * Discards the state kept for a chunked migration which did not complete: the source stops tracking mutations,
+     * the destination drops the chunks it has received. Called on the partition thread.
+     *
+     * @param event the migration event
+     */
+    void discardMigrationChunks(PartitionMigrationEvent event);
+}
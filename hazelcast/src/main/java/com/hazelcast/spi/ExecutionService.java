@@ -76,6 +76,11 @@ public interface ExecutionService {
      */
     String MAP_LOAD_ALL_KEYS_EXECUTOR = "hz:map-loadAllKeys";
 
+    /**
+     * The name of the executor that loads the key segments of a {@link com.hazelcast.core.MapLoaderSegmentSupport}
+     */
+    String MAP_LOAD_KEY_SEGMENTS_EXECUTOR = "hz:map-loadKeySegments";
+
     ManagedExecutorService register(String name, int poolSize, int queueCapacity, ExecutorType type);
 
     ManagedExecutorService getExecutor(String name);
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi;
+
+/**
+ * A {@link MigrationAwareService} which can bring a stale backup replica up to date by transferring only the data
+ * differing from the owner replica, instead of copying the entire replica.
+ * <p>
+ * When a backup replica is synchronized, the backup member calls {@link #createReplicaDigest(int)} on the partition
+ * thread and sends the digest to the owner with the sync request. The owner passes it to
+ * {@link #prepareReplicationOperation(PartitionReplicationEvent, Object)}, which compares it with its own data and
+ * returns an operation carrying only the differences.
+ */
+public interface ReplicaDigestAwareService extends MigrationAwareService {
+
+    /**
+     * Creates the digest of the data this member holds for a partition. Called on the partition thread.
+     *
+     * @param partitionId the partition id
+     * @return the digest, which must be serializable; {@code null} if there is no data to compare, in which case the
+     * replica is copied entirely
+     */
+    Object createReplicaDigest(int partitionId);
+
+    /**
+     * Prepares the operation bringing a backup replica up to date, given the digest created on the backup member.
+     * Called on the owner, on the partition thread.
+     *
+     * @param event  the replication event
+     * @param digest the digest created by {@link #createReplicaDigest(int)} on the backup member
+     * @return the operation, or {@code null} if there is nothing to replicate
+     */
+    Operation prepareReplicationOperation(PartitionReplicationEvent event, Object digest);
+}
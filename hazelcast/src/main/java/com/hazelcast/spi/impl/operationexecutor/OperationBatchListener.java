@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor;
+
+/**
+ * Is notified by an operation thread when it starts and completes the processing of a batch of tasks.
+ * <p/>
+ * An operation thread that has been woken up, drains multiple tasks from its queue before it blocks again. This makes
+ * it possible to do work for the whole batch instead of for every single task, e.g. coalescing the packets that are
+ * send by the operations of the batch.
+ * <p/>
+ * The methods are called by the operation thread itself, so an implementation can keep state per thread.
+ */
+public interface OperationBatchListener {
+
+    /**
+     * Is called before the first task of a batch is processed.
+     */
+    void onBatchStart();
+
+    /**
+     * Is called after the last task of a batch has been processed.
+     */
+    void onBatchComplete();
+}
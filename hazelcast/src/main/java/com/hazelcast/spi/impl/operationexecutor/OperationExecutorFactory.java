@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.instance.HazelcastThreadGroup;
+import com.hazelcast.instance.NodeExtension;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.impl.operationexecutor.classic.ClassicOperationExecutor;
+import com.hazelcast.spi.impl.operationexecutor.threadpercore.ThreadPerCoreOperationExecutor;
+
+import java.util.Arrays;
+
+/**
+ * Creates the {@link OperationExecutor} according to GroupProperties configuration.
+ */
+public final class OperationExecutorFactory {
+
+    /**
+     * The type of the OperationExecutor.
+     */
+    public enum Type {
+        /**
+         * The {@link ClassicOperationExecutor}; io threads hand off operations to partition operation threads.
+         */
+        CLASSIC,
+        /**
+         * The {@link ThreadPerCoreOperationExecutor}; operations are executed on the io thread that reads them.
+         */
+        THREAD_PER_CORE
+    }
+
+    private OperationExecutorFactory() {
+    }
+
+    /**
+     * Creates a new OperationExecutor. The exact implementation depends on GroupProperties.
+     *
+     * @param batchListener the listener notified when an operation thread processes a batch of tasks; only used by the
+     *                      {@link ClassicOperationExecutor}.
+     * @return the created OperationExecutor
+     */
+    public static OperationExecutor newOperationExecutor(GroupProperties properties,
+                                                         LoggingService loggingService,
+                                                         Address thisAddress,
+                                                         OperationRunnerFactory operationRunnerFactory,
+                                                         HazelcastThreadGroup threadGroup,
+                                                         NodeExtension nodeExtension,
+                                                         MetricsRegistry metricsRegistry,
+                                                         OperationBatchListener batchListener) {
+        switch (getType(properties)) {
+            case THREAD_PER_CORE:
+                return new ThreadPerCoreOperationExecutor(properties, loggingService, thisAddress, operationRunnerFactory,
+                        threadGroup, nodeExtension, metricsRegistry);
+            default:
+                return new ClassicOperationExecutor(properties, loggingService, thisAddress, operationRunnerFactory,
+                        threadGroup, nodeExtension, metricsRegistry, batchListener);
+        }
+    }
+
+    static Type getType(GroupProperties properties) {
+        String string = properties.getString(GroupProperty.OPERATION_EXECUTOR_TYPE);
+        try {
+            return Type.valueOf(string);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation executor type: " + string + ". Use property '"
+                    + GroupProperty.OPERATION_EXECUTOR_TYPE.getName() + "' to select one of "
+                    + Arrays.toString(Type.values()));
+        }
+    }
+}
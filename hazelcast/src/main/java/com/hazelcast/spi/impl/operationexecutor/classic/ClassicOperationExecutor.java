@@ -27,10 +27,13 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.OperationBatchListener;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
 import com.hazelcast.spi.impl.operationexecutor.OperationHostileThread;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunnerFactory;
+import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.MPSCQueue;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.concurrent.TimeUnit;
@@ -62,6 +65,11 @@ public final class ClassicOperationExecutor implements OperationExecutor {
 
     public static final int TERMINATION_TIMEOUT_SECONDS = 3;
 
+    private static final long IDLE_MAX_SPINS = 20;
+    private static final long IDLE_MAX_YIELDS = 50;
+    private static final long IDLE_MIN_PARK_NS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long IDLE_MAX_PARK_NS = TimeUnit.MILLISECONDS.toNanos(10);
+
     private final ILogger logger;
 
     // all operations for specific partitions will be executed on these threads, e.g. map.put(key, value)
@@ -79,6 +87,8 @@ public final class ClassicOperationExecutor implements OperationExecutor {
     private final HazelcastThreadGroup threadGroup;
     private final OperationRunner adHocOperationRunner;
     private final MetricsRegistry metricsRegistry;
+    private final int batchSize;
+    private final OperationBatchListener batchListener;
 
     public ClassicOperationExecutor(GroupProperties properties,
                                     LoggingService loggerService,
@@ -87,6 +97,26 @@ public final class ClassicOperationExecutor implements OperationExecutor {
                                     HazelcastThreadGroup hazelcastThreadGroup,
                                     NodeExtension nodeExtension,
                                     MetricsRegistry metricsRegistry) {
+        this(properties, loggerService, thisAddress, operationRunnerFactory, hazelcastThreadGroup, nodeExtension,
+                metricsRegistry, null);
+    }
+
+    /**
+     * Creates a ClassicOperationExecutor where the operation threads process their tasks in batches of at most
+     * {@link GroupProperty#OPERATION_BATCH_SIZE} tasks.
+     *
+     * @param batchListener the listener notified about every batch, or null if no batching should be done.
+     */
+    public ClassicOperationExecutor(GroupProperties properties,
+                                    LoggingService loggerService,
+                                    Address thisAddress,
+                                    OperationRunnerFactory operationRunnerFactory,
+                                    HazelcastThreadGroup hazelcastThreadGroup,
+                                    NodeExtension nodeExtension,
+                                    MetricsRegistry metricsRegistry,
+                                    OperationBatchListener batchListener) {
+        this.batchSize = batchListener == null ? 1 : properties.getInteger(GroupProperty.OPERATION_BATCH_SIZE);
+        this.batchListener = batchSize == 1 ? null : batchListener;
         this.thisAddress = thisAddress;
         this.nodeExtension = nodeExtension;
         this.threadGroup = hazelcastThreadGroup;
@@ -104,6 +134,9 @@ public final class ClassicOperationExecutor implements OperationExecutor {
 
         logger.info("Starting with " + genericOperationThreads.length + " generic operation threads and "
                 + partitionOperationThreads.length + " partition operation threads.");
+        if (batchSize > 1) {
+            logger.info("Operation threads process batches of up to " + batchSize + " operations.");
+        }
     }
 
     private OperationRunner[] initPartitionOperationRunners(GroupProperties properties, OperationRunnerFactory handlerFactory) {
@@ -140,15 +173,20 @@ public final class ClassicOperationExecutor implements OperationExecutor {
         PartitionOperationThread[] threads = new PartitionOperationThread[threadCount];
         for (int threadId = 0; threadId < threads.length; threadId++) {
             String threadName = threadGroup.getThreadPoolNamePrefix("partition-operation") + threadId;
-            ScheduleQueue scheduleQueue = new DefaultScheduleQueue();
+            // a partition thread is the only consumer of its queues, so we can use the lock-free MPSCQueue.
+            MPSCQueue normalQueue = newMPSCQueue();
+            MPSCQueue priorityQueue = newMPSCQueue();
+            ScheduleQueue scheduleQueue = new DefaultScheduleQueue(normalQueue, priorityQueue);
 
             PartitionOperationThread operationThread = new PartitionOperationThread(threadName, threadId, scheduleQueue, logger,
-                    threadGroup, nodeExtension, partitionOperationRunners);
+                    threadGroup, nodeExtension, partitionOperationRunners, batchSize, batchListener);
 
             threads[threadId] = operationThread;
             operationThread.start();
 
             metricsRegistry.scanAndRegister(operationThread, "operation." + operationThread.getName());
+            metricsRegistry.scanAndRegister(normalQueue, "operation." + operationThread.getName() + ".queue");
+            metricsRegistry.scanAndRegister(priorityQueue, "operation." + operationThread.getName() + ".priorityQueue");
         }
 
         // we need to assign the PartitionOperationThreads to all OperationRunners they own
@@ -162,6 +200,10 @@ public final class ClassicOperationExecutor implements OperationExecutor {
         return threads;
     }
 
+    private static MPSCQueue newMPSCQueue() {
+        return new MPSCQueue(new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NS, IDLE_MAX_PARK_NS));
+    }
+
     private GenericOperationThread[] initGenericThreads() {
         // we created as many generic operation handlers, as there are generic threads
         int threadCount = genericOperationRunners.length;
@@ -173,7 +215,7 @@ public final class ClassicOperationExecutor implements OperationExecutor {
 
             GenericOperationThread operationThread = new GenericOperationThread(
                     threadName, threadId, genericScheduleQueue,
-                    logger, threadGroup, nodeExtension, operationRunner);
+                    logger, threadGroup, nodeExtension, operationRunner, batchSize, batchListener);
 
             threads[threadId] = operationThread;
             operationThread.start();
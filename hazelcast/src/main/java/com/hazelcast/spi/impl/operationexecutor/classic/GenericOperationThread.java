@@ -19,6 +19,7 @@ package com.hazelcast.spi.impl.operationexecutor.classic;
 import com.hazelcast.instance.HazelcastThreadGroup;
 import com.hazelcast.instance.NodeExtension;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.operationexecutor.OperationBatchListener;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 
 /**
@@ -31,7 +32,14 @@ public final class GenericOperationThread extends OperationThread {
     public GenericOperationThread(String name, int threadId, ScheduleQueue scheduleQueue,
                                   ILogger logger, HazelcastThreadGroup threadGroup,
                                   NodeExtension nodeExtension,  OperationRunner operationRunner) {
-        super(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension);
+        this(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension, operationRunner, 1, null);
+    }
+
+    public GenericOperationThread(String name, int threadId, ScheduleQueue scheduleQueue,
+                                  ILogger logger, HazelcastThreadGroup threadGroup,
+                                  NodeExtension nodeExtension, OperationRunner operationRunner,
+                                  int batchSize, OperationBatchListener batchListener) {
+        super(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension, batchSize, batchListener);
         this.operationRunner = operationRunner;
     }
 
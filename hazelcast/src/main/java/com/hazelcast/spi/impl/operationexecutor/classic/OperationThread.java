@@ -23,6 +23,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.OperationBatchListener;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.util.counters.SwCounter;
 import com.hazelcast.util.executor.HazelcastManagedThread;
@@ -30,6 +31,7 @@ import com.hazelcast.util.executor.HazelcastManagedThread;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.inspectOutputMemoryError;
+import static com.hazelcast.util.Preconditions.checkPositive;
 import static com.hazelcast.util.counters.SwCounter.newSwCounter;
 
 /**
@@ -55,9 +57,13 @@ public abstract class OperationThread extends HazelcastManagedThread {
     private final SwCounter processedOperationsCount = newSwCounter();
     @Probe
     private final SwCounter processedPartitionSpecificRunnableCount = newSwCounter();
+    @Probe
+    private final SwCounter processedBatchCount = newSwCounter();
 
     private final NodeExtension nodeExtension;
     private final ILogger logger;
+    private final int batchSize;
+    private final OperationBatchListener batchListener;
     private volatile boolean shutdown;
 
     // This field wil only be accessed by the thread itself when doing 'self' calls. So no need
@@ -66,12 +72,26 @@ public abstract class OperationThread extends HazelcastManagedThread {
 
     public OperationThread(String name, int threadId, ScheduleQueue scheduleQueue,
                            ILogger logger, HazelcastThreadGroup threadGroup, NodeExtension nodeExtension) {
+        this(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension, 1, null);
+    }
+
+    /**
+     * Creates an OperationThread that processes up to batchSize tasks every time it is woken up.
+     *
+     * @param batchSize     the maximum number of tasks processed in a single batch. 1 disables batching.
+     * @param batchListener the listener that is notified about every batch; may be null if batching is disabled.
+     */
+    public OperationThread(String name, int threadId, ScheduleQueue scheduleQueue,
+                           ILogger logger, HazelcastThreadGroup threadGroup, NodeExtension nodeExtension,
+                           int batchSize, OperationBatchListener batchListener) {
         super(threadGroup.getInternalThreadGroup(), name);
         setContextClassLoader(threadGroup.getClassLoader());
         this.scheduleQueue = scheduleQueue;
         this.threadId = threadId;
         this.logger = logger;
         this.nodeExtension = nodeExtension;
+        this.batchSize = batchListener == null ? 1 : checkPositive(batchSize, "batchSize should be positive");
+        this.batchListener = batchListener;
     }
 
     @Probe
@@ -119,7 +139,33 @@ public abstract class OperationThread extends HazelcastManagedThread {
                 return;
             }
 
-            process(task);
+            if (batchSize == 1) {
+                process(task);
+            } else {
+                processBatch(task);
+            }
+        }
+    }
+
+    /**
+     * Processes the task that woke up this thread and drains up to batchSize - 1 additional tasks without blocking.
+     */
+    private void processBatch(Object firstTask) {
+        processedBatchCount.inc();
+
+        batchListener.onBatchStart();
+        try {
+            process(firstTask);
+
+            for (int k = 1; k < batchSize && !shutdown; k++) {
+                Object task = scheduleQueue.poll();
+                if (task == null) {
+                    break;
+                }
+                process(task);
+            }
+        } finally {
+            batchListener.onBatchComplete();
         }
     }
 
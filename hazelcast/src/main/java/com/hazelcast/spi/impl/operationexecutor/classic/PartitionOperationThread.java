@@ -19,6 +19,7 @@ package com.hazelcast.spi.impl.operationexecutor.classic;
 import com.hazelcast.instance.HazelcastThreadGroup;
 import com.hazelcast.instance.NodeExtension;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.operationexecutor.OperationBatchListener;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -34,7 +35,16 @@ public final class PartitionOperationThread extends OperationThread {
                                     ScheduleQueue scheduleQueue, ILogger logger,
                                     HazelcastThreadGroup threadGroup, NodeExtension nodeExtension,
                                     OperationRunner[] partitionOperationRunners) {
-        super(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension);
+        this(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension, partitionOperationRunners, 1, null);
+    }
+
+    @SuppressFBWarnings({"EI_EXPOSE_REP" })
+    public PartitionOperationThread(String name, int threadId,
+                                    ScheduleQueue scheduleQueue, ILogger logger,
+                                    HazelcastThreadGroup threadGroup, NodeExtension nodeExtension,
+                                    OperationRunner[] partitionOperationRunners,
+                                    int batchSize, OperationBatchListener batchListener) {
+        super(name, threadId, scheduleQueue, logger, threadGroup, nodeExtension, batchSize, batchListener);
         this.partitionOperationRunners = partitionOperationRunners;
     }
 
@@ -60,6 +60,15 @@ public interface ScheduleQueue {
      */
     Object take() throws InterruptedException;
 
+    /**
+     * Polls an item from this queue. If no item is available, null is returned.
+     * <p/>
+     * This method should always be called by the same thread.
+     *
+     * @return the polled item or null if no item is available.
+     */
+    Object poll();
+
     /**
      * returns the number of normal operations pending.
      * <p/>
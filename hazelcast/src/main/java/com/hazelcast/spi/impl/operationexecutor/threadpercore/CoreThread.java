@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.threadpercore;
+
+import com.hazelcast.instance.HazelcastThreadGroup;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThread;
+import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadOutOfMemoryHandler;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.util.counters.SwCounter;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.inspectOutputMemoryError;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
+
+/**
+ * A {@link NonBlockingIOThread} that also executes the operations of the partitions it owns.
+ * <p/>
+ * Packets for an owned partition that are read by this thread, are executed directly on this thread. Other tasks for an
+ * owned partition are added to the task queue of this thread; they are processed before the thread selects again.
+ * <p/>
+ * Although a NonBlockingIOThread is an {@link com.hazelcast.spi.impl.operationexecutor.OperationHostileThread}, the
+ * {@link ThreadPerCoreOperationExecutor} allows a CoreThread to run the operations of the partitions it owns.
+ */
+public final class CoreThread extends NonBlockingIOThread {
+
+    final int threadId;
+
+    // All these counters are updated by this CoreThread (so a single writer) and are read by the MetricsRegistry.
+    @Probe
+    private final SwCounter processedTotalCount = newSwCounter();
+    @Probe
+    private final SwCounter processedPacketCount = newSwCounter();
+    @Probe
+    private final SwCounter processedOperationsCount = newSwCounter();
+    @Probe
+    private final SwCounter processedPartitionSpecificRunnableCount = newSwCounter();
+    @Probe
+    private final SwCounter offloadedCount = newSwCounter();
+
+    private final OperationRunner[] partitionOperationRunners;
+    private final ILogger logger;
+
+    // This field wil only be accessed by the thread itself when doing 'self' calls. So no need
+    // for any form of synchronization.
+    private OperationRunner currentOperationRunner;
+
+    @SuppressFBWarnings({"EI_EXPOSE_REP2" })
+    public CoreThread(String name, int threadId, ILogger logger, HazelcastThreadGroup threadGroup,
+                      NonBlockingIOThreadOutOfMemoryHandler oomeHandler, OperationRunner[] partitionOperationRunners) {
+        super(threadGroup.getInternalThreadGroup(), name, logger, oomeHandler);
+        setContextClassLoader(threadGroup.getClassLoader());
+        this.threadId = threadId;
+        this.logger = logger;
+        this.partitionOperationRunners = partitionOperationRunners;
+    }
+
+    public OperationRunner getCurrentOperationRunner() {
+        return currentOperationRunner;
+    }
+
+    /**
+     * Schedules a task (Operation, Packet or PartitionSpecificRunnable) to be processed by this CoreThread.
+     *
+     * @param task the task to schedule.
+     */
+    void schedule(Object task) {
+        Runnable runnable = new TaskRunnable(task);
+        if (Thread.currentThread() == this) {
+            addTask(runnable);
+        } else {
+            offloadedCount.inc();
+            addTaskAndWakeup(runnable);
+        }
+    }
+
+    /**
+     * Processes a task (Operation, Packet or PartitionSpecificRunnable). Should only be called by this CoreThread.
+     *
+     * @param task the task to process.
+     */
+    void process(Object task) {
+        processedTotalCount.inc();
+
+        if (task instanceof Operation) {
+            processOperation((Operation) task);
+            return;
+        }
+
+        if (task instanceof Packet) {
+            processPacket((Packet) task);
+            return;
+        }
+
+        if (task instanceof PartitionSpecificRunnable) {
+            processPartitionSpecificRunnable((PartitionSpecificRunnable) task);
+            return;
+        }
+
+        throw new IllegalStateException("Unhandled task type for task:" + task);
+    }
+
+    private void processPartitionSpecificRunnable(PartitionSpecificRunnable runnable) {
+        processedPartitionSpecificRunnableCount.inc();
+
+        OperationRunner previous = currentOperationRunner;
+        currentOperationRunner = partitionOperationRunners[runnable.getPartitionId()];
+        try {
+            currentOperationRunner.run(runnable);
+        } catch (Throwable e) {
+            inspectOutputMemoryError(e);
+            logger.severe("Failed to process task: " + runnable + " on " + getName(), e);
+        } finally {
+            currentOperationRunner = previous;
+        }
+    }
+
+    private void processPacket(Packet packet) {
+        processedPacketCount.inc();
+
+        OperationRunner previous = currentOperationRunner;
+        currentOperationRunner = partitionOperationRunners[packet.getPartitionId()];
+        try {
+            currentOperationRunner.run(packet);
+        } catch (Throwable e) {
+            inspectOutputMemoryError(e);
+            logger.severe("Failed to process packet: " + packet + " on " + getName(), e);
+        } finally {
+            currentOperationRunner = previous;
+        }
+    }
+
+    private void processOperation(Operation operation) {
+        processedOperationsCount.inc();
+
+        OperationRunner previous = currentOperationRunner;
+        currentOperationRunner = partitionOperationRunners[operation.getPartitionId()];
+        try {
+            currentOperationRunner.run(operation);
+        } catch (Throwable e) {
+            inspectOutputMemoryError(e);
+            logger.severe("Failed to process operation: " + operation + " on " + getName(), e);
+        } finally {
+            currentOperationRunner = previous;
+        }
+    }
+
+    /**
+     * Wraps a task so it can be placed on the task queue of the NonBlockingIOThread.
+     */
+    private final class TaskRunnable implements Runnable {
+        private final Object task;
+
+        private TaskRunnable(Object task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            process(task);
+        }
+    }
+}
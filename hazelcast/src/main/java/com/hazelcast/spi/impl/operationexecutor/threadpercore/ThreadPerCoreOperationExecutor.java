@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.threadpercore;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.instance.HazelcastThreadGroup;
+import com.hazelcast.instance.NodeExtension;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.nonblocking.NonBlockingIOThreadOutOfMemoryHandler;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
+import com.hazelcast.spi.impl.operationexecutor.OperationHostileThread;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunnerFactory;
+import com.hazelcast.spi.impl.operationexecutor.classic.DefaultScheduleQueue;
+import com.hazelcast.spi.impl.operationexecutor.classic.GenericOperationThread;
+import com.hazelcast.spi.impl.operationexecutor.classic.OperationThread;
+import com.hazelcast.spi.impl.operationexecutor.classic.ScheduleQueue;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.onOutOfMemory;
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * A {@link OperationExecutor} where every core gets a single {@link CoreThread} that does both the network io and the
+ * execution of the partition operations:
+ * <ol>
+ * <li>the partitions are pinned to a CoreThread (using a mod on the partition-id)</li>
+ * <li>the connections are pinned to a CoreThread by the
+ * {@link com.hazelcast.nio.tcp.nonblocking.ThreadPerCoreIOThreadingModel}</li>
+ * </ol>
+ * When a CoreThread reads an operation packet for a partition it owns, the operation is executed directly on that thread
+ * and the response is written to the connection by that same thread; so there is no handoff between io threads and
+ * operation threads. Only when the partition is owned by a different CoreThread, the packet is offloaded to that thread.
+ * <p/>
+ * Non partition specific operations are executed by generic operation threads just like the
+ * {@link com.hazelcast.spi.impl.operationexecutor.classic.ClassicOperationExecutor}.
+ * <p/>
+ * Since a CoreThread also does the network io, it is not allowed to block on an invocation unless the invocation can be
+ * executed on the calling thread.
+ * <p/>
+ * This is an experimental feature and disabled by default.
+ */
+public final class ThreadPerCoreOperationExecutor implements OperationExecutor {
+
+    public static final int TERMINATION_TIMEOUT_SECONDS = 3;
+
+    private final ILogger logger;
+
+    // all operations for specific partitions will be executed on these threads, e.g. map.put(key, value)
+    private final CoreThread[] coreThreads;
+    private final OperationRunner[] partitionOperationRunners;
+
+    private final ScheduleQueue genericScheduleQueue;
+
+    // all operations that are not specific for a partition will be executed here, e.g. heartbeat or map.size()
+    private final GenericOperationThread[] genericOperationThreads;
+    private final OperationRunner[] genericOperationRunners;
+
+    private final Address thisAddress;
+    private final NodeExtension nodeExtension;
+    private final HazelcastThreadGroup threadGroup;
+    private final OperationRunner adHocOperationRunner;
+    private final MetricsRegistry metricsRegistry;
+
+    public ThreadPerCoreOperationExecutor(GroupProperties properties,
+                                          LoggingService loggerService,
+                                          Address thisAddress,
+                                          OperationRunnerFactory operationRunnerFactory,
+                                          HazelcastThreadGroup hazelcastThreadGroup,
+                                          NodeExtension nodeExtension,
+                                          MetricsRegistry metricsRegistry) {
+        this.thisAddress = thisAddress;
+        this.nodeExtension = nodeExtension;
+        this.threadGroup = hazelcastThreadGroup;
+        this.metricsRegistry = metricsRegistry;
+        this.logger = loggerService.getLogger(ThreadPerCoreOperationExecutor.class);
+        this.genericScheduleQueue = new DefaultScheduleQueue();
+
+        this.adHocOperationRunner = operationRunnerFactory.createAdHocRunner();
+
+        this.partitionOperationRunners = initPartitionOperationRunners(properties, operationRunnerFactory);
+        this.coreThreads = initCoreThreads(properties, loggerService);
+
+        this.genericOperationRunners = initGenericOperationRunners(properties, operationRunnerFactory);
+        this.genericOperationThreads = initGenericThreads();
+
+        logger.info("Starting with " + genericOperationThreads.length + " generic operation threads and "
+                + coreThreads.length + " core threads.");
+    }
+
+    private OperationRunner[] initPartitionOperationRunners(GroupProperties properties, OperationRunnerFactory handlerFactory) {
+        OperationRunner[] operationRunners = new OperationRunner[properties.getInteger(GroupProperty.PARTITION_COUNT)];
+        for (int partitionId = 0; partitionId < operationRunners.length; partitionId++) {
+            operationRunners[partitionId] = handlerFactory.createPartitionRunner(partitionId);
+        }
+        return operationRunners;
+    }
+
+    private OperationRunner[] initGenericOperationRunners(GroupProperties properties, OperationRunnerFactory runnerFactory) {
+        int genericThreadCount = properties.getInteger(GroupProperty.GENERIC_OPERATION_THREAD_COUNT);
+        if (genericThreadCount <= 0) {
+            // default generic operation thread count
+            int coreSize = Runtime.getRuntime().availableProcessors();
+            genericThreadCount = Math.max(2, coreSize / 2);
+        }
+
+        OperationRunner[] operationRunners = new OperationRunner[genericThreadCount];
+        for (int k = 0; k < operationRunners.length; k++) {
+            operationRunners[k] = runnerFactory.createGenericRunner();
+        }
+        return operationRunners;
+    }
+
+    private CoreThread[] initCoreThreads(GroupProperties properties, LoggingService loggingService) {
+        int threadCount = properties.getInteger(GroupProperty.PARTITION_OPERATION_THREAD_COUNT);
+        if (threadCount <= 0) {
+            // default core thread count
+            threadCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+        }
+
+        NonBlockingIOThreadOutOfMemoryHandler oomeHandler = new NonBlockingIOThreadOutOfMemoryHandler() {
+            @Override
+            public void handle(OutOfMemoryError error) {
+                onOutOfMemory(error);
+            }
+        };
+
+        ILogger coreThreadLogger = loggingService.getLogger(CoreThread.class);
+        CoreThread[] threads = new CoreThread[threadCount];
+        for (int threadId = 0; threadId < threads.length; threadId++) {
+            String threadName = threadGroup.getThreadPoolNamePrefix("core") + threadId;
+            CoreThread coreThread = new CoreThread(threadName, threadId, coreThreadLogger, threadGroup, oomeHandler,
+                    partitionOperationRunners);
+
+            threads[threadId] = coreThread;
+            coreThread.start();
+
+            metricsRegistry.scanAndRegister(coreThread, "operation." + coreThread.getName());
+        }
+
+        // we need to assign the CoreThreads to all OperationRunners they own
+        for (int partitionId = 0; partitionId < partitionOperationRunners.length; partitionId++) {
+            int threadId = partitionId % threadCount;
+            partitionOperationRunners[partitionId].setCurrentThread(threads[threadId]);
+        }
+
+        return threads;
+    }
+
+    private GenericOperationThread[] initGenericThreads() {
+        // we created as many generic operation handlers, as there are generic threads
+        int threadCount = genericOperationRunners.length;
+        GenericOperationThread[] threads = new GenericOperationThread[threadCount];
+
+        for (int threadId = 0; threadId < threads.length; threadId++) {
+            String threadName = threadGroup.getThreadPoolNamePrefix("generic-operation") + threadId;
+            OperationRunner operationRunner = genericOperationRunners[threadId];
+
+            GenericOperationThread operationThread = new GenericOperationThread(
+                    threadName, threadId, genericScheduleQueue,
+                    logger, threadGroup, nodeExtension, operationRunner);
+
+            threads[threadId] = operationThread;
+            operationThread.start();
+
+            operationRunner.setCurrentThread(operationThread);
+
+            metricsRegistry.scanAndRegister(operationThread, "operation." + operationThread.getName());
+        }
+
+        return threads;
+    }
+
+    /**
+     * Returns the CoreThreads; they are used as io threads by the
+     * {@link com.hazelcast.nio.tcp.nonblocking.ThreadPerCoreIOThreadingModel}.
+     *
+     * Don't modify the content of the array!
+     *
+     * @return the CoreThreads.
+     */
+    @SuppressFBWarnings({"EI_EXPOSE_REP" })
+    public CoreThread[] getCoreThreads() {
+        return coreThreads;
+    }
+
+    @SuppressFBWarnings({"EI_EXPOSE_REP" })
+    @Override
+    public OperationRunner[] getPartitionOperationRunners() {
+        return partitionOperationRunners;
+    }
+
+    @SuppressFBWarnings({"EI_EXPOSE_REP" })
+    @Override
+    public OperationRunner[] getGenericOperationRunners() {
+        return genericOperationRunners;
+    }
+
+    @Override
+    public boolean isAllowedToRunInCurrentThread(Operation op) {
+        checkNotNull(op, "op can't be null");
+
+        Thread currentThread = Thread.currentThread();
+        int partitionId = op.getPartitionId();
+
+        // a CoreThread is only allowed to execute partition specific operations for the partitions it owns
+        if (currentThread instanceof CoreThread) {
+            return partitionId < 0 || toCoreThreadIndex(partitionId) == ((CoreThread) currentThread).threadId;
+        }
+
+        // other IO threads are not allowed to run any operation
+        if (currentThread instanceof OperationHostileThread) {
+            return false;
+        }
+
+        // partition specific operations are only allowed to run on a CoreThread
+        return partitionId < 0;
+    }
+
+    @Override
+    public boolean isOperationThread() {
+        Thread currentThread = Thread.currentThread();
+        return currentThread instanceof OperationThread || currentThread instanceof CoreThread;
+    }
+
+    @Override
+    public boolean isInvocationAllowedFromCurrentThread(Operation op, boolean isAsync) {
+        checkNotNull(op, "op can't be null");
+
+        Thread currentThread = Thread.currentThread();
+
+        if (currentThread instanceof CoreThread) {
+            if (isAsync) {
+                return true;
+            }
+
+            // blocking a CoreThread would also block the io of its connections, so we only allow a nested call
+            // for the same partition; it will be executed on the calling thread.
+            OperationRunner runner = ((CoreThread) currentThread).getCurrentOperationRunner();
+            return runner != null && op.getPartitionId() >= 0 && runner.getPartitionId() == op.getPartitionId();
+        }
+
+        // other IO threads are not allowed to run any operation
+        return !(currentThread instanceof OperationHostileThread);
+    }
+
+    @Override
+    public int getRunningOperationCount() {
+        int result = 0;
+        for (OperationRunner handler : partitionOperationRunners) {
+            if (handler.currentTask() != null) {
+                result++;
+            }
+        }
+        for (OperationRunner handler : genericOperationRunners) {
+            if (handler.currentTask() != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getOperationExecutorQueueSize() {
+        int size = 0;
+
+        for (CoreThread t : coreThreads) {
+            size += t.getTaskQueueSize();
+        }
+
+        size += genericScheduleQueue.normalSize();
+
+        return size;
+    }
+
+    @Override
+    public int getPriorityOperationExecutorQueueSize() {
+        // a CoreThread has no separate priority queue since its task queue is drained before every select.
+        return genericScheduleQueue.prioritySize();
+    }
+
+    @Override
+    public int getPartitionOperationThreadCount() {
+        return coreThreads.length;
+    }
+
+    @Override
+    public int getGenericOperationThreadCount() {
+        return genericOperationThreads.length;
+    }
+
+    @Override
+    public void execute(Operation op) {
+        checkNotNull(op, "op can't be null");
+
+        execute(op, op.getPartitionId(), op.isUrgent());
+    }
+
+    @Override
+    public void execute(PartitionSpecificRunnable task) {
+        checkNotNull(task, "task can't be null");
+
+        execute(task, task.getPartitionId(), false);
+    }
+
+    @Override
+    public void runOnCallingThreadIfPossible(Operation op) {
+        if (isAllowedToRunInCurrentThread(op)) {
+            runOnCallingThread(op);
+        } else {
+            execute(op);
+        }
+    }
+
+    @Override
+    public void execute(Packet packet) {
+        checkNotNull(packet, "packet can't be null");
+        checkOpPacket(packet);
+
+        int partitionId = packet.getPartitionId();
+        if (partitionId >= 0) {
+            CoreThread coreThread = coreThreads[toCoreThreadIndex(partitionId)];
+            if (Thread.currentThread() == coreThread) {
+                // the packet has been read by the thread owning the partition, so there is no need for a handoff.
+                coreThread.process(packet);
+                return;
+            }
+        }
+
+        execute(packet, partitionId, packet.isUrgent());
+    }
+
+    private void checkOpPacket(Packet packet) {
+        if (!packet.isHeaderSet(Packet.HEADER_OP)) {
+            throw new IllegalStateException("Packet " + packet + " doesn't have Packet.HEADER_OP set");
+        }
+    }
+
+    @Override
+    public void runOnCallingThread(Operation operation) {
+        checkNotNull(operation, "operation can't be null");
+
+        if (!isAllowedToRunInCurrentThread(operation)) {
+            throw new IllegalThreadStateException("Operation '" + operation + "' cannot be run in current thread: "
+                    + Thread.currentThread());
+        }
+
+        OperationRunner operationRunner = getOperationRunner(operation);
+        operationRunner.run(operation);
+    }
+
+    OperationRunner getOperationRunner(Operation operation) {
+        checkNotNull(operation, "operation can't be null");
+
+        if (operation.getPartitionId() >= 0) {
+            return partitionOperationRunners[operation.getPartitionId()];
+        }
+
+        Thread thread = Thread.currentThread();
+        OperationRunner runner = null;
+        if (thread instanceof OperationThread) {
+            runner = ((OperationThread) thread).getCurrentOperationRunner();
+        } else if (thread instanceof CoreThread) {
+            runner = ((CoreThread) thread).getCurrentOperationRunner();
+        }
+
+        // if the thread isn't running an operation, we return the adHocOperationRunner
+        return runner == null ? adHocOperationRunner : runner;
+    }
+
+    private void execute(Object task, int partitionId, boolean priority) {
+        if (partitionId >= 0) {
+            coreThreads[toCoreThreadIndex(partitionId)].schedule(task);
+        } else if (priority) {
+            genericScheduleQueue.addUrgent(task);
+        } else {
+            genericScheduleQueue.add(task);
+        }
+    }
+
+    public int toCoreThreadIndex(int partitionId) {
+        return partitionId % coreThreads.length;
+    }
+
+    @Override
+    public void shutdown() {
+        for (CoreThread thread : coreThreads) {
+            thread.shutdown();
+        }
+        for (OperationThread thread : genericOperationThreads) {
+            thread.shutdown();
+        }
+
+        try {
+            long timeoutMs = TimeUnit.SECONDS.toMillis(TERMINATION_TIMEOUT_SECONDS);
+            for (CoreThread thread : coreThreads) {
+                thread.join(timeoutMs);
+            }
+            for (OperationThread thread : genericOperationThreads) {
+                thread.awaitTermination(TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadPerCoreOperationExecutor{"
+                + "node=" + thisAddress
+                + '}';
+    }
+}
@@ -43,9 +43,10 @@ import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
-import com.hazelcast.spi.impl.operationexecutor.classic.ClassicOperationExecutor;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutorFactory;
 import com.hazelcast.spi.impl.operationexecutor.slowoperationdetector.SlowOperationDetector;
 import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
 import com.hazelcast.spi.impl.operationservice.impl.responses.Response;
 import com.hazelcast.util.EmptyStatement;
 import com.hazelcast.util.counters.MwCounter;
@@ -125,6 +126,7 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
     private final SlowOperationDetector slowOperationDetector;
     private final IsStillRunningService isStillRunningService;
     private final AsyncResponsePacketHandler responsePacketExecutor;
+    private final PacketBatcher packetBatcher;
     private final SerializationService serializationService;
 
     public OperationServiceImpl(NodeEngineImpl nodeEngine) {
@@ -154,14 +156,16 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
                         node.getSerializationService(),
                         invocationsRegistry));
 
-        this.operationExecutor = new ClassicOperationExecutor(
+        this.packetBatcher = new PacketBatcher(node);
+        this.operationExecutor = OperationExecutorFactory.newOperationExecutor(
                 groupProperties,
                 node.loggingService,
                 node.getThisAddress(),
                 new OperationRunnerFactoryImpl(this),
                 node.getHazelcastThreadGroup(),
                 node.getNodeExtension(),
-                metricsRegistry
+                metricsRegistry,
+                packetBatcher
         );
 
         this.isStillRunningService = new IsStillRunningService(operationExecutor, nodeEngine, logger);
@@ -171,6 +175,7 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
                 ASYNC_QUEUE_CAPACITY, ExecutorType.CONCRETE);
         this.slowOperationDetector = initSlowOperationDetector();
         metricsRegistry.scanAndRegister(this, "operation");
+        metricsRegistry.scanAndRegister(packetBatcher, "operation.batcher");
     }
 
     private SlowOperationDetector initSlowOperationDetector() {
@@ -251,7 +256,12 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
         checkNotNull(packet, "packet can't be null");
         checkTrue(packet.isHeaderSet(Packet.HEADER_OP), "Packet.HEADER_OP should be set!");
 
-        if (packet.isHeaderSet(Packet.HEADER_RESPONSE)) {
+        if (packet.isHeaderSet(Packet.HEADER_BATCH)) {
+            // the packets of a batch are handled by the calling io thread, so they keep the order they were sent in.
+            for (Packet batchedPacket : PacketBatcher.fromBatchPacket(packet)) {
+                handle(batchedPacket);
+            }
+        } else if (packet.isHeaderSet(Packet.HEADER_RESPONSE)) {
             responsePacketExecutor.handle(packet);
         } else {
             operationExecutor.execute(packet);
@@ -391,6 +401,15 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
             packet.setHeader(Packet.HEADER_URGENT);
         }
 
+        if (op instanceof Backup) {
+            if (packetBatcher.offer(packet, target)) {
+                return true;
+            }
+        } else {
+            // pending backups and responses of the current thread need to be send first to preserve the ordering
+            packetBatcher.flush();
+        }
+
         ConnectionManager connectionManager = node.getConnectionManager();
         Connection connection = connectionManager.getOrConnect(target);
         return connectionManager.transmit(packet, connection);
@@ -415,6 +434,10 @@ public final class OperationServiceImpl implements InternalOperationService, Pac
             packet.setHeader(Packet.HEADER_URGENT);
         }
 
+        if (packetBatcher.offer(packet, target)) {
+            return true;
+        }
+
         ConnectionManager connectionManager = node.getConnectionManager();
         Connection connection = connectionManager.getOrConnect(target);
         return connectionManager.transmit(packet, connection);
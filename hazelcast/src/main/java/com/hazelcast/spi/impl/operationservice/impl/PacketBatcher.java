@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.instance.Node;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.ConnectionManager;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.impl.operationexecutor.OperationBatchListener;
+import com.hazelcast.util.counters.MwCounter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.SHORT_SIZE_IN_BYTES;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+
+/**
+ * Coalesces the backup and response packets send by an operation thread while it processes a batch of operations.
+ * <p/>
+ * When the batch completes, the pending packets are written per target member: a single packet is written as is and
+ * multiple packets are combined in a single {@link Packet#HEADER_BATCH} packet. The receiving member unpacks the batch
+ * packet on the io thread that read it, so the packets are handled in the same order as they were sent.
+ * <p/>
+ * Urgent packets are never batched. Any other packet send by an operation thread, e.g. an invocation, first flushes the
+ * pending packets of that thread so that the ordering of packets to the same member is preserved.
+ */
+final class PacketBatcher implements OperationBatchListener {
+
+    private static final int PACKET_HEADER_SIZE = SHORT_SIZE_IN_BYTES + 2 * INT_SIZE_IN_BYTES;
+
+    @Probe(name = "batchedPacketCount")
+    private final MwCounter batchedPacketCount = newMwCounter();
+    @Probe(name = "batchPacketCount")
+    private final MwCounter batchPacketCount = newMwCounter();
+
+    // only threads that process batches get a Batch; for all other threads no object is created.
+    private final ThreadLocal<Batch> batches = new ThreadLocal<Batch>();
+    private final Node node;
+
+    PacketBatcher(Node node) {
+        this.node = node;
+    }
+
+    @Override
+    public void onBatchStart() {
+        Batch batch = batches.get();
+        if (batch == null) {
+            batch = new Batch();
+            batches.set(batch);
+        }
+        batch.active = true;
+    }
+
+    @Override
+    public void onBatchComplete() {
+        Batch batch = batches.get();
+        batch.active = false;
+        flush(batch);
+    }
+
+    /**
+     * Adds the packet to the batch of the current thread.
+     *
+     * @param packet the packet to add.
+     * @param target the member the packet should be send to.
+     * @return true if the packet has been added, false if the current thread isn't processing a batch or the packet is
+     * urgent. In that case the caller should send the packet itself.
+     */
+    boolean offer(Packet packet, Address target) {
+        if (packet.isUrgent()) {
+            return false;
+        }
+
+        Batch batch = batches.get();
+        if (batch == null || !batch.active) {
+            return false;
+        }
+
+        List<Packet> packets = batch.pending.get(target);
+        if (packets == null) {
+            packets = new ArrayList<Packet>();
+            batch.pending.put(target, packets);
+        }
+        packets.add(packet);
+        return true;
+    }
+
+    /**
+     * Sends the pending packets of the current thread, if any.
+     */
+    void flush() {
+        Batch batch = batches.get();
+        if (batch != null) {
+            flush(batch);
+        }
+    }
+
+    private void flush(Batch batch) {
+        if (batch.pending.isEmpty()) {
+            return;
+        }
+
+        ConnectionManager connectionManager = node.getConnectionManager();
+        for (Map.Entry<Address, List<Packet>> entry : batch.pending.entrySet()) {
+            List<Packet> packets = entry.getValue();
+            Packet packet;
+            if (packets.size() == 1) {
+                packet = packets.get(0);
+            } else {
+                packet = toBatchPacket(packets);
+                batchPacketCount.inc();
+                batchedPacketCount.inc(packets.size());
+            }
+
+            Connection connection = connectionManager.getOrConnect(entry.getKey());
+            connectionManager.transmit(packet, connection);
+        }
+        batch.pending.clear();
+    }
+
+    /**
+     * Combines the given packets in a single {@link Packet#HEADER_BATCH} packet.
+     *
+     * @param packets the packets to combine.
+     * @return the batch packet.
+     */
+    static Packet toBatchPacket(List<Packet> packets) {
+        int size = INT_SIZE_IN_BYTES;
+        for (Packet packet : packets) {
+            size += PACKET_HEADER_SIZE + packet.totalSize();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(packets.size());
+        for (Packet packet : packets) {
+            buffer.putShort(packet.getHeader());
+            buffer.putInt(packet.getPartitionId());
+            buffer.putInt(packet.totalSize());
+            if (packet.totalSize() > 0) {
+                buffer.put(packet.toByteArray());
+            }
+        }
+
+        Packet batchPacket = new Packet(buffer.array(), -1);
+        batchPacket.setHeader(Packet.HEADER_OP);
+        batchPacket.setHeader(Packet.HEADER_BATCH);
+        return batchPacket;
+    }
+
+    /**
+     * Splits a {@link Packet#HEADER_BATCH} packet into the packets it contains.
+     *
+     * @param batchPacket the batch packet
+     * @return the contained packets, in the order they were added to the batch.
+     */
+    static Packet[] fromBatchPacket(Packet batchPacket) {
+        ByteBuffer buffer = ByteBuffer.wrap(batchPacket.toByteArray());
+        Packet[] packets = new Packet[buffer.getInt()];
+        for (int k = 0; k < packets.length; k++) {
+            short header = buffer.getShort();
+            int partitionId = buffer.getInt();
+            byte[] payload = new byte[buffer.getInt()];
+            buffer.get(payload);
+
+            Packet packet = new Packet(payload.length == 0 ? null : payload, partitionId);
+            for (int bit = 0; bit < Short.SIZE; bit++) {
+                if ((header & 1 << bit) != 0) {
+                    packet.setHeader(bit);
+                }
+            }
+            packet.setConn(batchPacket.getConn());
+            packets[k] = packet;
+        }
+        return packets;
+    }
+
+    /**
+     * The packets pending for a single thread.
+     */
+    private static final class Batch {
+        private final Map<Address, List<Packet>> pending = new LinkedHashMap<Address, List<Packet>>();
+        private boolean active;
+    }
+}
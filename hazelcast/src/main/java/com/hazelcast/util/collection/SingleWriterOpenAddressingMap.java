@@ -0,0 +1,543 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import com.hazelcast.util.QuickMath;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * {@link ConcurrentMap} implementation using open addressing and linear probing, for a single writer thread and any
+ * number of reader threads.
+ *
+ * Keys and values are stored next to each other in a single array, and the hash code of every key is cached in a
+ * parallel int array, so a lookup normally touches only two cache lines and doesn't need to call
+ * {@link Object#equals(Object)} for keys with a different hash. No node objects are created on put.
+ *
+ * All mutating methods (including the removal through iterators and views) must be called by the same thread, or
+ * at least be externally serialized. Readers can run concurrently with the writer: entries are published with
+ * ordered writes, removed entries are replaced by a tombstone instead of being shifted, and a resize publishes a
+ * new table. So a reader never misses an entry that isn't modified concurrently, and iteration is weakly
+ * consistent and never throws {@link java.util.ConcurrentModificationException}.
+ *
+ * Null keys and values are not permitted.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@SuppressFBWarnings(value = "VO_VOLATILE_INCREMENT", justification = "single-writer, many-reader")
+public class SingleWriterOpenAddressingMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.6f;
+    private static final Object TOMBSTONE = new Object();
+
+    private final float loadFactor;
+    private final int initialCapacity;
+
+    private volatile Table table;
+    private volatile int size;
+    // number of slots that are either occupied or a tombstone; only accessed by the writer
+    private int usedSlots;
+
+    public SingleWriterOpenAddressingMap() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new map allowing a configuration for initial capacity and load factor.
+     *
+     * @param initialCapacity for the backing array
+     * @param loadFactor      limit for resizing on puts
+     */
+    public SingleWriterOpenAddressingMap(int initialCapacity, float loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("Load factor should be between 0 and 1 (exclusive), but was: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.initialCapacity = QuickMath.nextPowerOfTwo(Math.max(initialCapacity, 2));
+        this.table = new Table(this.initialCapacity, loadFactor);
+    }
+
+    /**
+     * Gets the total capacity of the current backing table.
+     *
+     * @return the capacity.
+     */
+    public int capacity() {
+        return table.capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fetches keys from the given <code>tableIndex</code> downwards and puts them into <code>keys</code>, like
+     * {@link com.hazelcast.util.SampleableConcurrentHashMap#fetch(int, int, List)}. Can be called by any thread; if
+     * the table is resized between two fetches, keys can be missed or returned twice.
+     *
+     * @param tableIndex the index (checkpoint) to start from; an index outside of the table starts at the end
+     * @param size       the number of keys to fetch
+     * @param keys       the list the fetched keys are added to
+     * @return the next index (checkpoint) for later fetches; negative if the end of the table has been reached
+     */
+    @SuppressWarnings("unchecked")
+    public int fetch(int tableIndex, int size, List<K> keys) {
+        Table t = table;
+        int slot = tableIndex >= 0 && tableIndex < t.capacity ? tableIndex : t.capacity - 1;
+        int counter = 0;
+        while (slot >= 0 && counter < size) {
+            Object key = t.key(slot--);
+            if (key != null && key != TOMBSTONE) {
+                keys.add((K) key);
+                counter++;
+            }
+        }
+        return slot;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        checkNotNull(key, "key can't be null");
+        return (V) table.get(key, key.hashCode());
+    }
+
+    @Override
+    public V put(K key, V value) {
+        checkNotNull(key, "key can't be null");
+        checkNotNull(value, "value can't be null");
+        return put(key, value, true);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        checkNotNull(key, "key can't be null");
+        checkNotNull(value, "value can't be null");
+        return put(key, value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(K key, V value, boolean replace) {
+        int hash = key.hashCode();
+        Table t = table;
+        int slot = t.find(key, hash);
+        if (slot >= 0) {
+            V old = (V) t.value(slot);
+            if (replace) {
+                t.setValue(slot, value);
+            }
+            return old;
+        }
+
+        if (usedSlots >= t.resizeThreshold) {
+            t = rehash();
+        }
+        if (t.insert(key, hash, value)) {
+            usedSlots++;
+        }
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        checkNotNull(key, "key can't be null");
+        Table t = table;
+        int slot = t.find(key, key.hashCode());
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) t.value(slot);
+        t.delete(slot);
+        size--;
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        checkNotNull(key, "key can't be null");
+        if (value == null) {
+            return false;
+        }
+        Table t = table;
+        int slot = t.find(key, key.hashCode());
+        if (slot < 0 || !value.equals(t.value(slot))) {
+            return false;
+        }
+        t.delete(slot);
+        size--;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V replace(K key, V value) {
+        checkNotNull(key, "key can't be null");
+        checkNotNull(value, "value can't be null");
+        Table t = table;
+        int slot = t.find(key, key.hashCode());
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) t.value(slot);
+        t.setValue(slot, value);
+        return old;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        checkNotNull(key, "key can't be null");
+        checkNotNull(oldValue, "oldValue can't be null");
+        checkNotNull(newValue, "newValue can't be null");
+        Table t = table;
+        int slot = t.find(key, key.hashCode());
+        if (slot < 0 || !oldValue.equals(t.value(slot))) {
+            return false;
+        }
+        t.setValue(slot, newValue);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        table = new Table(initialCapacity, loadFactor);
+        usedSlots = 0;
+        size = 0;
+    }
+
+    /**
+     * Rebuilds the table without tombstones; the capacity is doubled if the table is really full.
+     */
+    private Table rehash() {
+        Table old = table;
+        int capacity = size >= old.resizeThreshold / 2 ? old.capacity << 1 : old.capacity;
+        Table t = new Table(capacity, loadFactor);
+        for (int slot = 0; slot < old.capacity; slot++) {
+            Object key = old.key(slot);
+            if (key != null && key != TOMBSTONE) {
+                t.insert(key, old.hashes[slot], old.value(slot));
+            }
+        }
+        usedSlots = size;
+        table = t;
+        return t;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new KeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    /**
+     * The backing table. Key of slot i is stored at index 2*i of the entries array, the value at 2*i+1.
+     */
+    private static final class Table {
+        final int capacity;
+        final int mask;
+        final int resizeThreshold;
+        final int[] hashes;
+        final AtomicReferenceArray<Object> entries;
+
+        Table(int capacity, float loadFactor) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.resizeThreshold = (int) (capacity * loadFactor);
+            this.hashes = new int[capacity];
+            this.entries = new AtomicReferenceArray<Object>(capacity << 1);
+        }
+
+        Object key(int slot) {
+            return entries.get(slot << 1);
+        }
+
+        Object value(int slot) {
+            return entries.get((slot << 1) + 1);
+        }
+
+        void setValue(int slot, Object value) {
+            entries.lazySet((slot << 1) + 1, value);
+        }
+
+        /**
+         * Looks up the value for a key; safe to be called by any thread.
+         */
+        Object get(Object key, int hash) {
+            int slot = hash & mask;
+            for (int probes = 0; probes < capacity; probes++) {
+                Object k = key(slot);
+                if (k == null) {
+                    return null;
+                }
+                if (k != TOMBSTONE && hashes[slot] == hash && (k == key || k.equals(key))) {
+                    Object value = value(slot);
+                    // if the slot has been reused in the meantime, the value belongs to another key
+                    return key(slot) == k ? value : null;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Finds the slot of a key; only to be called by the writer.
+         */
+        int find(Object key, int hash) {
+            int slot = hash & mask;
+            for (int probes = 0; probes < capacity; probes++) {
+                Object k = key(slot);
+                if (k == null) {
+                    return -1;
+                }
+                if (k != TOMBSTONE && hashes[slot] == hash && (k == key || k.equals(key))) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts a key that is known not to be in the table.
+         *
+         * @return true if an empty slot was used, false if a tombstone was reused.
+         */
+        boolean insert(Object key, int hash, Object value) {
+            int slot = hash & mask;
+            for (; ; ) {
+                Object k = key(slot);
+                if (k == null || k == TOMBSTONE) {
+                    hashes[slot] = hash;
+                    entries.lazySet((slot << 1) + 1, value);
+                    // the key is published last, so a reader that sees the key also sees the hash and value
+                    entries.lazySet(slot << 1, key);
+                    return k == null;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        void delete(int slot) {
+            // the tombstone is published first, so a reader that sees the key sees the value too
+            entries.lazySet(slot << 1, TOMBSTONE);
+            entries.lazySet((slot << 1) + 1, null);
+        }
+    }
+
+    private abstract class AbstractIterator<T> implements Iterator<T> {
+        private final Table t = table;
+        private int slot = -1;
+        private int lastSlot = -1;
+        private Object nextKey;
+        private Object nextValue;
+
+        AbstractIterator() {
+            advance();
+        }
+
+        private void advance() {
+            nextKey = null;
+            nextValue = null;
+            while (++slot < t.capacity) {
+                Object key = t.key(slot);
+                if (key == null || key == TOMBSTONE) {
+                    continue;
+                }
+                Object value = t.value(slot);
+                if (value != null && t.key(slot) == key) {
+                    nextKey = key;
+                    nextValue = value;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Entry<K, V> nextEntry() {
+            if (nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new MapEntry((K) nextKey, (V) nextValue);
+            lastSlot = slot;
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastSlot < 0) {
+                throw new IllegalStateException();
+            }
+            Object key = t.key(lastSlot);
+            if (key != null && key != TOMBSTONE) {
+                SingleWriterOpenAddressingMap.this.remove(key);
+            }
+            lastSlot = -1;
+        }
+    }
+
+    private final class MapEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        MapEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = super.setValue(value);
+            put(getKey(), value);
+            return old;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new AbstractIterator<Entry<K, V>>() {
+                @Override
+                public Entry<K, V> next() {
+                    return nextEntry();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Entry e = (Entry) o;
+            Object value = get(e.getKey());
+            return value != null && value.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Entry e = (Entry) o;
+            return SingleWriterOpenAddressingMap.this.remove(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public void clear() {
+            SingleWriterOpenAddressingMap.this.clear();
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            return new AbstractIterator<K>() {
+                @Override
+                public K next() {
+                    return nextEntry().getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return SingleWriterOpenAddressingMap.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            SingleWriterOpenAddressingMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new AbstractIterator<V>() {
+                @Override
+                public V next() {
+                    return nextEntry().getValue();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            SingleWriterOpenAddressingMap.this.clear();
+        }
+    }
+}
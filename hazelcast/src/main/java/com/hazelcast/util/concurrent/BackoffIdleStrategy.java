@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.util.Preconditions.checkNotNegative;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static java.lang.Math.min;
+
+/**
+ * An {@link IdleStrategy} that first spins, then yields and finally parks with an exponentially increasing park period.
+ * <p/>
+ * A parked thread can be woken up earlier with {@link LockSupport#unpark(Thread)}; e.g. by a producer of a
+ * {@link MPSCQueue}. So the maximum park period only bounds the latency if no one wakes up the thread.
+ */
+public class BackoffIdleStrategy implements IdleStrategy {
+
+    private static final int MAX_SHIFT = 62;
+
+    private final long yieldThreshold;
+    private final long parkThreshold;
+    private final long minParkPeriodNs;
+    private final long maxParkPeriodNs;
+    private final int maxShift;
+
+    /**
+     * Creates a BackoffIdleStrategy.
+     *
+     * @param maxSpins        the number of spins before yielding.
+     * @param maxYields       the number of yields before parking.
+     * @param minParkPeriodNs the first park period.
+     * @param maxParkPeriodNs the maximum park period.
+     */
+    public BackoffIdleStrategy(long maxSpins, long maxYields, long minParkPeriodNs, long maxParkPeriodNs) {
+        checkNotNegative(maxSpins, "maxSpins can't be negative");
+        checkNotNegative(maxYields, "maxYields can't be negative");
+        checkPositive(minParkPeriodNs, "minParkPeriodNs should be positive");
+        if (maxParkPeriodNs < minParkPeriodNs) {
+            throw new IllegalArgumentException("maxParkPeriodNs can't be smaller than minParkPeriodNs");
+        }
+
+        this.yieldThreshold = maxSpins;
+        this.parkThreshold = maxSpins + maxYields;
+        this.minParkPeriodNs = minParkPeriodNs;
+        this.maxParkPeriodNs = maxParkPeriodNs;
+        this.maxShift = min(MAX_SHIFT, Long.numberOfLeadingZeros(minParkPeriodNs) - 1);
+    }
+
+    @Override
+    public boolean idle(long n) {
+        if (n < yieldThreshold) {
+            return false;
+        }
+
+        if (n < parkThreshold) {
+            Thread.yield();
+            return false;
+        }
+
+        LockSupport.parkNanos(parkTime(n));
+        return true;
+    }
+
+    long parkTime(long n) {
+        long shift = min(n - parkThreshold, maxShift);
+        return min(minParkPeriodNs << shift, maxParkPeriodNs);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+/**
+ * Idle strategy for a thread that has no work to do; e.g. a consumer of an empty {@link MPSCQueue}.
+ */
+public interface IdleStrategy {
+
+    /**
+     * Performs the idle action for the n-th consecutive call without work.
+     *
+     * @param n the number of consecutive calls to idle without work; 0 on the first call.
+     * @return true if the thread has been parked, false if it was spinning or yielding.
+     */
+    boolean idle(long n);
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.util.counters.MwCounter;
+import com.hazelcast.util.counters.SwCounter;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.util.counters.SwCounter.newSwCounter;
+
+/**
+ * An unbounded multi producer single consumer queue.
+ * <p/>
+ * The items are stored in a linked list of fixed size array chunks. A producer claims a slot using a single
+ * getAndIncrement on the producer index and writes the item in its slot; so in the common case there is no
+ * CAS loop and no allocation per item like with the {@link java.util.concurrent.ConcurrentLinkedQueue} or the
+ * {@link java.util.concurrent.LinkedBlockingQueue}. The producer that claims the first slot of a chunk, is
+ * responsible for creating and linking that chunk; other producers for that chunk spin till it has been linked.
+ * <p/>
+ * The blocking methods ({@link #take()} and {@link #poll(long, TimeUnit)}) make use of the {@link IdleStrategy}. When
+ * the consumer is waiting for items, a single producer will unpark the consumer thread after it has written its item; so
+ * there is no lock involved.
+ * <p/>
+ * This queue supports only a single consumer thread: {@link #poll()}, {@link #take()}, {@link #clear()} and
+ * {@link #drainTo(Collection)} should only be called by the same thread, or by a thread that has safely taken over
+ * from the previous consumer. The {@link #size()} and the {@link #iterator()} can be called by any thread, but they
+ * are only best-effort and meant for monitoring purposes.
+ *
+ * @param <E> the type of the items in this queue.
+ */
+public final class MPSCQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * The default number of items in a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private static final int YIELD_INTERVAL = 64;
+
+    @Probe
+    private final MwCounter wakeupCount = newMwCounter();
+    @Probe
+    private final SwCounter parkCount = newSwCounter();
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+    private final int chunkSize;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final IdleStrategy idleStrategy;
+
+    // the most recently linked chunk; it is a hint for producers where to start searching for their chunk.
+    private volatile Chunk<E> producerChunk;
+    // the chunk the consumer is reading from; only written by the consumer.
+    private volatile Chunk<E> consumerChunk;
+    private volatile Thread consumerThread;
+    private final AtomicBoolean consumerWaiting = new AtomicBoolean();
+
+    /**
+     * Creates an MPSCQueue with the {@link #DEFAULT_CHUNK_SIZE}.
+     *
+     * @param idleStrategy the IdleStrategy used by a consumer waiting for items.
+     */
+    public MPSCQueue(IdleStrategy idleStrategy) {
+        this(DEFAULT_CHUNK_SIZE, idleStrategy);
+    }
+
+    /**
+     * Creates an MPSCQueue.
+     *
+     * @param chunkSize    the number of items in a chunk; will be rounded up to the next power of 2.
+     * @param idleStrategy the IdleStrategy used by a consumer waiting for items.
+     */
+    public MPSCQueue(int chunkSize, IdleStrategy idleStrategy) {
+        checkPositive(chunkSize, "chunkSize should be positive");
+        this.idleStrategy = checkNotNull(idleStrategy, "idleStrategy can't be null");
+        this.chunkSize = nextPowerOfTwo(chunkSize);
+        this.chunkShift = Integer.numberOfTrailingZeros(this.chunkSize);
+        this.chunkMask = this.chunkSize - 1;
+
+        Chunk<E> chunk = new Chunk<E>(0, this.chunkSize);
+        this.producerChunk = chunk;
+        this.consumerChunk = chunk;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        int highestOneBit = Integer.highestOneBit(value);
+        return highestOneBit == value ? value : highestOneBit << 1;
+    }
+
+    /**
+     * Returns the number of times a producer had to unpark the waiting consumer.
+     *
+     * @return the number of wakeups.
+     */
+    public long wakeupCount() {
+        return wakeupCount.get();
+    }
+
+    /**
+     * Returns the number of times the consumer has been parked while waiting for items.
+     *
+     * @return the number of parks.
+     */
+    public long parkCount() {
+        return parkCount.get();
+    }
+
+    @Override
+    public boolean offer(E item) {
+        checkNotNull(item, "item can't be null");
+
+        // the hint needs to be read before claiming the index, so it can't point to a chunk beyond the claimed one.
+        Chunk<E> chunk = producerChunk;
+        long index = producerIndex.getAndIncrement();
+        long chunkIndex = index >>> chunkShift;
+        int offset = (int) (index & chunkMask);
+
+        int spins = 0;
+        while (chunk.index < chunkIndex) {
+            Chunk<E> next = chunk.next;
+            if (next == null) {
+                if (offset == 0 && chunk.index == chunkIndex - 1) {
+                    next = new Chunk<E>(chunkIndex, chunkSize);
+                    chunk.next = next;
+                    producerChunk = next;
+                } else {
+                    // the producer responsible for linking the next chunk hasn't done so yet.
+                    if (++spins % YIELD_INTERVAL == 0) {
+                        Thread.yield();
+                    }
+                    continue;
+                }
+            }
+            chunk = next;
+        }
+
+        chunk.slots.set(offset, item);
+
+        // only a single producer needs to unpark the waiting consumer.
+        if (consumerWaiting.get() && consumerWaiting.getAndSet(false)) {
+            wakeupCount.inc();
+            LockSupport.unpark(consumerThread);
+        }
+        return true;
+    }
+
+    @Override
+    public void put(E item) {
+        offer(item);
+    }
+
+    @Override
+    public boolean offer(E item, long timeout, TimeUnit unit) {
+        return offer(item);
+    }
+
+    @Override
+    public E poll() {
+        long index = consumerIndex.get();
+        Chunk<E> chunk = consumerChunk;
+        if ((index >>> chunkShift) != chunk.index) {
+            Chunk<E> next = chunk.next;
+            if (next == null) {
+                return null;
+            }
+            consumerChunk = next;
+            chunk = next;
+        }
+
+        int offset = (int) (index & chunkMask);
+        E item = chunk.slots.get(offset);
+        if (item == null) {
+            return null;
+        }
+
+        chunk.slots.lazySet(offset, null);
+        consumerIndex.lazySet(index + 1);
+        return item;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E item = poll();
+        if (item != null) {
+            return item;
+        }
+
+        Thread thread = Thread.currentThread();
+        consumerThread = thread;
+        try {
+            for (long n = 0; ; n++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                consumerWaiting.set(true);
+                // we need to check again after signalling we are waiting, else we could miss an unpark.
+                item = poll();
+                if (item != null) {
+                    return item;
+                }
+
+                if (idleStrategy.idle(n)) {
+                    parkCount.inc();
+                }
+            }
+        } finally {
+            consumerWaiting.set(false);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The timeout is only checked between calls to the {@link IdleStrategy}; so the actual waiting time can exceed
+     * the timeout by up to the maximum park period of the IdleStrategy.
+     */
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E item = poll();
+        if (item != null) {
+            return item;
+        }
+
+        long deadlineNs = System.nanoTime() + unit.toNanos(timeout);
+        Thread thread = Thread.currentThread();
+        consumerThread = thread;
+        try {
+            for (long n = 0; ; n++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                consumerWaiting.set(true);
+                item = poll();
+                if (item != null || System.nanoTime() - deadlineNs >= 0) {
+                    return item;
+                }
+
+                if (idleStrategy.idle(n)) {
+                    parkCount.inc();
+                }
+            }
+        } finally {
+            consumerWaiting.set(false);
+        }
+    }
+
+    @Override
+    public E peek() {
+        long index = consumerIndex.get();
+        Chunk<E> chunk = consumerChunk;
+        if ((index >>> chunkShift) != chunk.index) {
+            chunk = chunk.next;
+            if (chunk == null) {
+                return null;
+            }
+        }
+        return chunk.slots.get((int) (index & chunkMask));
+    }
+
+    @Probe
+    @Override
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        if (size < 0) {
+            return 0;
+        }
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex.get();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        checkNotNull(c, "collection can't be null");
+
+        int count = 0;
+        while (count < maxElements) {
+            E item = poll();
+            if (item == null) {
+                break;
+            }
+            c.add(item);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Should only be called by the consumer thread.
+     */
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // no-op
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the items in this queue.
+     * <p/>
+     * The snapshot is best-effort; items that are concurrently consumed or produced may be missing. The iterator
+     * doesn't support removal.
+     *
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        // the index needs to be read before the chunk; the consumer could have moved to the next chunk in between.
+        long index = consumerIndex.get();
+        Chunk<E> chunk = consumerChunk;
+        long limit = producerIndex.get();
+        index = Math.max(index, chunk.index << chunkShift);
+
+        List<E> snapshot = new ArrayList<E>();
+        while (chunk != null && index < limit) {
+            if ((index >>> chunkShift) != chunk.index) {
+                chunk = chunk.next;
+                continue;
+            }
+
+            E item = chunk.slots.get((int) (index & chunkMask));
+            if (item != null) {
+                snapshot.add(item);
+            }
+            index++;
+        }
+
+        final Iterator<E> it = snapshot.iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return it.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static final class Chunk<E> {
+        private final long index;
+        private final AtomicReferenceArray<E> slots;
+        private volatile Chunk<E> next;
+
+        Chunk(long index, int size) {
+            this.index = index;
+            this.slots = new AtomicReferenceArray<E>(size);
+        }
+    }
+}
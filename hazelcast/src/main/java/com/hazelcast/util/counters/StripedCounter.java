@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.counters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A {@link Counter} that is thread-safe and meant for a huge amount of contention; a Java 6 friendly alternative to
+ * the {@link java.util.concurrent.atomic.LongAdder}.
+ *
+ * The value is spread over stripes, each on its own cache line. A thread always increments the same stripe, selected
+ * by its thread id. So threads mostly don't contend, at the cost of a {@link #get()} that sums all stripes.
+ */
+public final class StripedCounter implements Counter {
+
+    // 8 longs (64 bytes) per stripe, so stripes don't share a cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    private StripedCounter(int stripeCount) {
+        this.cells = new AtomicLongArray(stripeCount * PADDING);
+        this.mask = stripeCount - 1;
+    }
+
+    @Override
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    @Override
+    public void inc() {
+        cells.incrementAndGet(index());
+    }
+
+    @Override
+    public void inc(long amount) {
+        cells.addAndGet(index(), amount);
+    }
+
+    private int index() {
+        long id = Thread.currentThread().getId();
+        return ((int) (id ^ (id >>> 32)) & mask) * PADDING;
+    }
+
+    @Override
+    public String toString() {
+        return "Counter{"
+                + "value=" + get()
+                + '}';
+    }
+
+    /**
+     * Creates a new StripedCounter with a stripe per available processor, rounded up to a power of two.
+     *
+     * @return the new StripedCounter, set to 0.
+     */
+    public static StripedCounter newStripedCounter() {
+        return newStripedCounter(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new StripedCounter.
+     *
+     * @param stripeCount the minimum number of stripes; rounded up to a power of two.
+     * @return the new StripedCounter, set to 0.
+     * @throws IllegalArgumentException if stripeCount is smaller than 1.
+     */
+    public static StripedCounter newStripedCounter(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount should be at least 1, but was: " + stripeCount);
+        }
+        return new StripedCounter(nextPowerOfTwo(stripeCount));
+    }
+}
@@ -5,6 +5,7 @@ import com.hazelcast.cache.impl.nearcache.NearCacheExecutor;
 import com.hazelcast.cache.impl.nearcache.NearCacheRecordStore;
 import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheDataRecordStore;
 import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheObjectRecordStore;
+import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheOffHeapRecordStore;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
@@ -61,6 +62,8 @@ public abstract class CommonNearCacheTestSupport extends HazelcastTestSupport {
                 return new NearCacheDataRecordStore<K, V>(nearCacheConfig, nearCacheContext);
             case OBJECT:
                 return new NearCacheObjectRecordStore<K, V>(nearCacheConfig, nearCacheContext);
+            case NATIVE:
+                return new NearCacheOffHeapRecordStore<K, V>(nearCacheConfig, nearCacheContext);
             default:
                 throw new IllegalArgumentException("Unsupported in-memory format: " + inMemoryFormat);
         }
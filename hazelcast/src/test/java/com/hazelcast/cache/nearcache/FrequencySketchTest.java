@@ -0,0 +1,79 @@
+package com.hazelcast.cache.nearcache;
+
+import com.hazelcast.cache.impl.nearcache.impl.admission.FrequencySketch;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class FrequencySketchTest {
+
+    @Test
+    public void frequencyOfUnseenKeyIsZero() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        assertEquals(0, sketch.frequency("unseen".hashCode()));
+    }
+
+    @Test
+    public void frequencyCountsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key".hashCode());
+        }
+
+        assertEquals(5, sketch.frequency("key".hashCode()));
+    }
+
+    @Test
+    public void frequencyIsCappedAtMaxFrequency() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("key".hashCode());
+        }
+
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("key".hashCode()));
+    }
+
+    @Test
+    public void frequenciesAreHalvedAfterSampleSizeIncrements() {
+        FrequencySketch sketch = new FrequencySketch(16);
+
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(-1);
+        }
+        // enough distinct increments to trigger aging of all counters
+        for (int i = 0; i < 10000; i++) {
+            sketch.increment(i);
+        }
+
+        assertTrue(sketch.frequency(-1) < 10);
+    }
+
+    @Test
+    public void hotKeysHaveHigherFrequencyThanColdKeys() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment(i);
+            if (i % 100 == 0) {
+                for (int j = 0; j < 10; j++) {
+                    sketch.increment(-i - 1);
+                }
+            }
+        }
+
+        for (int i = 0; i < 1000; i += 100) {
+            assertTrue(sketch.frequency(-i - 1) > sketch.frequency(i + 1));
+        }
+    }
+}
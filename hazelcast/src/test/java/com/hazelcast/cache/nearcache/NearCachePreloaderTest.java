@@ -0,0 +1,140 @@
+package com.hazelcast.cache.nearcache;
+
+import com.hazelcast.cache.impl.nearcache.impl.preloader.NearCachePreloader;
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NearCachePreloaderTest extends HazelcastTestSupport {
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    private File dir;
+    private NearCachePreloaderConfig preloaderConfig;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("near-cache-preloader", "");
+        assertTrue(dir.delete() && dir.mkdir());
+
+        preloaderConfig = new NearCachePreloaderConfig()
+                .setEnabled(true)
+                .setDirectory(dir.getAbsolutePath())
+                .setMaxKeyCount(10);
+    }
+
+    @After
+    public void tearDown() {
+        serializationService.destroy();
+        delete(dir);
+    }
+
+    @Test
+    public void loadKeys_returnsStoredKeysInOrder() {
+        NearCachePreloader preloader = new NearCachePreloader("map/near", preloaderConfig);
+        List<Data> keys = toData(0, 5);
+
+        preloader.storeKeys(keys);
+
+        assertEquals(keys, new NearCachePreloader("map/near", preloaderConfig).loadKeys());
+    }
+
+    @Test
+    public void storeKeys_keepsAtMostMaxKeyCount() {
+        NearCachePreloader preloader = new NearCachePreloader("map", preloaderConfig);
+        List<Data> keys = toData(0, 50);
+
+        preloader.storeKeys(keys);
+
+        assertEquals(keys.subList(0, 10), preloader.loadKeys());
+    }
+
+    @Test
+    public void storeKeys_replacesPreviousKeys() {
+        NearCachePreloader preloader = new NearCachePreloader("map", preloaderConfig);
+
+        preloader.storeKeys(toData(0, 5));
+        preloader.storeKeys(toData(100, 3));
+
+        assertEquals(toData(100, 3), preloader.loadKeys());
+    }
+
+    @Test
+    public void loadKeys_returnsNoKeysWithoutStoredFile() {
+        NearCachePreloader preloader = new NearCachePreloader("map", preloaderConfig);
+
+        assertTrue(preloader.loadKeys().isEmpty());
+    }
+
+    @Test
+    public void loadKeys_returnsNoKeysForCorruptFile() throws IOException {
+        FileOutputStream out = new FileOutputStream(new File(dir, "nearcache-map.keys"));
+        out.write(new byte[]{1, 2, 3});
+        out.close();
+
+        NearCachePreloader preloader = new NearCachePreloader("map", preloaderConfig);
+
+        assertTrue(preloader.loadKeys().isEmpty());
+    }
+
+    @Test
+    public void loadKeys_returnsNoKeysForCorruptKeyLength() throws IOException {
+        NearCachePreloader preloader = new NearCachePreloader("map", preloaderConfig);
+        preloader.storeKeys(toData(0, 3));
+        File file = new File(dir, "nearcache-map.keys");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        // the length of the first key follows the magic and the key count
+        raf.seek(8);
+        raf.writeInt(Integer.MAX_VALUE);
+        raf.close();
+
+        assertTrue(preloader.loadKeys().isEmpty());
+
+        raf = new RandomAccessFile(file, "rw");
+        raf.seek(8);
+        raf.writeInt(-1);
+        raf.close();
+
+        assertTrue(preloader.loadKeys().isEmpty());
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private List<Data> toData(int from, int count) {
+        List<Data> keys = new ArrayList<Data>(count);
+        for (int i = from; i < from + count; i++) {
+            keys.add(serializationService.toData(i));
+        }
+        return keys;
+    }
+}
@@ -1,10 +1,14 @@
 package com.hazelcast.cache.nearcache;
 
+import com.hazelcast.cache.impl.nearcache.NearCacheContext;
 import com.hazelcast.cache.impl.nearcache.NearCacheRecordStore;
+import com.hazelcast.cache.impl.nearcache.impl.store.NearCacheOffHeapRecordStore;
 import com.hazelcast.config.EvictionConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.storage.impl.NativeStorage;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.annotation.ParallelTest;
 import com.hazelcast.test.annotation.QuickTest;
@@ -13,6 +17,11 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -248,4 +257,155 @@ public class NearCacheRecordStoreTest extends NearCacheRecordStoreTestSupport {
         doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.BINARY, EvictionPolicy.RANDOM);
     }
 
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndLRUEvictionPolicyNearCacheOffHeapRecordStore() {
+        doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.NATIVE, EvictionPolicy.LRU);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndLFUEvictionPolicyNearCacheOffHeapRecordStore() {
+        doEvictionWithEntryCountMaxSizePolicy(InMemoryFormat.NATIVE, EvictionPolicy.LFU);
+    }
+
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithUsedNativeMemorySizeMaxSizePolicyOnNearCacheOffHeapRecordStore() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, InMemoryFormat.NATIVE);
+        EvictionConfig evictionConfig = new EvictionConfig();
+        evictionConfig.setMaximumSizePolicy(EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE);
+        evictionConfig.setSize(1);
+        nearCacheConfig.setEvictionConfig(evictionConfig);
+
+        NearCacheOffHeapRecordStore<Integer, byte[]> nearCacheRecordStore =
+                new NearCacheOffHeapRecordStore<Integer, byte[]>(nearCacheConfig, createNearCacheContext());
+
+        final long maxBytes = 1024L * 1024L;
+        final int valueSize = 64 * 1024;
+        for (int i = 0; i < 64; i++) {
+            nearCacheRecordStore.put(i, new byte[valueSize]);
+            nearCacheRecordStore.doEvictionIfRequired();
+            // at most one value over the limit until the next eviction
+            assertTrue(nearCacheRecordStore.getUsedOffHeapMemory() <= maxBytes + 2 * valueSize);
+        }
+        assertTrue(nearCacheRecordStore.size() < 64);
+    }
+
+    @Test
+    public void usedOffHeapMemoryReleasedOnRemoveAndClearOnNearCacheOffHeapRecordStore() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, InMemoryFormat.NATIVE);
+        NearCacheOffHeapRecordStore<Integer, String> nearCacheRecordStore =
+                new NearCacheOffHeapRecordStore<Integer, String>(nearCacheConfig, createNearCacheContext());
+
+        for (int i = 0; i < DEFAULT_RECORD_COUNT; i++) {
+            nearCacheRecordStore.put(i, "Record-" + i);
+        }
+        long usedAfterPuts = nearCacheRecordStore.getUsedOffHeapMemory();
+        assertTrue(usedAfterPuts > 0);
+
+        nearCacheRecordStore.remove(0);
+        assertTrue(nearCacheRecordStore.getUsedOffHeapMemory() < usedAfterPuts);
+        assertEquals("Record-1", nearCacheRecordStore.get(1));
+
+        nearCacheRecordStore.clear();
+        assertEquals(0L, nearCacheRecordStore.getUsedOffHeapMemory());
+    }
+
+    @Test
+    public void nativeMemoryFreedOnReplaceRemoveEvictAndClearOnNearCacheOffHeapRecordStore() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, InMemoryFormat.NATIVE);
+        EvictionConfig evictionConfig = new EvictionConfig();
+        evictionConfig.setMaximumSizePolicy(EvictionConfig.MaxSizePolicy.ENTRY_COUNT);
+        evictionConfig.setSize(DEFAULT_RECORD_COUNT / 2);
+        nearCacheConfig.setEvictionConfig(evictionConfig);
+
+        NativeStorage storage = new NativeStorage(new NativeMemoryConfig());
+        NearCacheContext nearCacheContext = createNearCacheContext();
+        nearCacheContext.setNativeDataStorage(storage);
+        NearCacheOffHeapRecordStore<Integer, String> nearCacheRecordStore =
+                new NearCacheOffHeapRecordStore<Integer, String>(nearCacheConfig, nearCacheContext);
+        try {
+            for (int i = 0; i < DEFAULT_RECORD_COUNT; i++) {
+                nearCacheRecordStore.doEvictionIfRequired();
+                nearCacheRecordStore.put(i, "Record-" + i);
+                nearCacheRecordStore.put(i, "Replaced-Record-" + i);
+                assertEquals(storage.getMemoryStats().getUsedNativeMemory(),
+                        nearCacheRecordStore.getUsedOffHeapMemory());
+            }
+            assertTrue(nearCacheRecordStore.size() < DEFAULT_RECORD_COUNT);
+
+            int key = DEFAULT_RECORD_COUNT - 1;
+            assertEquals("Replaced-Record-" + key, nearCacheRecordStore.get(key));
+            nearCacheRecordStore.remove(key);
+            assertEquals(storage.getMemoryStats().getUsedNativeMemory(),
+                    nearCacheRecordStore.getUsedOffHeapMemory());
+
+            nearCacheRecordStore.clear();
+            assertEquals(0L, nearCacheRecordStore.getUsedOffHeapMemory());
+            assertEquals(0L, storage.getMemoryStats().getUsedNativeMemory());
+        } finally {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    public void putAndGetRecordFromNearCacheOffHeapRecordStore() {
+        putAndGetRecord(InMemoryFormat.NATIVE);
+    }
+
+    @Test
+    public void canCreateNearCacheOffHeapRecordStoreWithUsedNativeMemorySizeMaxSizePolicy() {
+        createNearCacheWithMaxSizePolicy(InMemoryFormat.NATIVE,
+                                         EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE,
+                                         16);
+    }
+
+    @Test
+    public void tinyLfuAdmissionRejectsRarelyAccessedKeysWhenFull() {
+        final int MAX_SIZE = 100;
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, InMemoryFormat.OBJECT);
+        nearCacheConfig.setAdmissionPolicy(NearCacheConfig.AdmissionPolicy.TINY_LFU);
+        EvictionConfig evictionConfig = new EvictionConfig();
+        evictionConfig.setMaximumSizePolicy(EvictionConfig.MaxSizePolicy.ENTRY_COUNT);
+        evictionConfig.setSize(MAX_SIZE);
+        nearCacheConfig.setEvictionConfig(evictionConfig);
+
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore =
+                createNearCacheRecordStore(nearCacheConfig, createNearCacheContext(), InMemoryFormat.OBJECT);
+
+        for (int i = 0; i < MAX_SIZE; i++) {
+            nearCacheRecordStore.put(i, "Record-" + i);
+        }
+        // make the cached keys hot
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < MAX_SIZE; i++) {
+                nearCacheRecordStore.get(i);
+            }
+        }
+
+        // a key which has never been requested must not displace a hot one
+        assertFalse(nearCacheRecordStore.isAdmitted(MAX_SIZE + 1));
+
+        // a key which became hotter than the cached ones is admitted
+        for (int round = 0; round < 10; round++) {
+            nearCacheRecordStore.get(MAX_SIZE + 2);
+        }
+        assertTrue(nearCacheRecordStore.isAdmitted(MAX_SIZE + 2));
+    }
+
+    @Test
+    public void hottestKeysReturnedInAccessOrder() {
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, InMemoryFormat.BINARY);
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore =
+                createNearCacheRecordStore(nearCacheConfig, createNearCacheContext(), InMemoryFormat.BINARY);
+
+        for (int i = 0; i < 10; i++) {
+            nearCacheRecordStore.put(i, "Record-" + i);
+            for (int j = 0; j < i; j++) {
+                nearCacheRecordStore.get(i);
+            }
+        }
+
+        List<Integer> hottestKeys = nearCacheRecordStore.getHottestKeys(3);
+        assertEquals(Arrays.asList(9, 8, 7), hottestKeys);
+    }
+
 }
@@ -8,7 +8,9 @@ import com.hazelcast.monitor.NearCacheStats;
 import com.hazelcast.monitor.impl.NearCacheStatsImpl;
 import com.hazelcast.test.AssertTask;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -144,6 +146,27 @@ public abstract class NearCacheTestSupport extends CommonNearCacheTestSupport {
                 throw new IllegalStateException("Near-Cache is already destroyed");
             }
         }
+
+        @Override
+        public boolean isAdmitted(Integer key) {
+            return true;
+        }
+
+        @Override
+        public List<Integer> getHottestKeys(int maxCount) {
+            if (expectedKeyValueMappings == null) {
+                throw new IllegalStateException("Near-Cache is already destroyed");
+            }
+            return new ArrayList<Integer>(expectedKeyValueMappings.keySet());
+        }
+
+        @Override
+        public List<Integer> getKeys() {
+            if (expectedKeyValueMappings == null) {
+                throw new IllegalStateException("Near-Cache is already destroyed");
+            }
+            return new ArrayList<Integer>(expectedKeyValueMappings.keySet());
+        }
     }
 
     protected Map<Integer, String> generateRandomKeyValueMappings() {
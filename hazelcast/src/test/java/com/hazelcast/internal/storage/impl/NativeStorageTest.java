@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.storage.impl;
+
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.internal.storage.DataRef;
+import com.hazelcast.memory.MemorySize;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NativeStorageTest {
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+    private NativeStorage storage;
+
+    @After
+    public void tearDown() {
+        if (storage != null) {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    public void testPutGetRemove_pooled() {
+        testPutGetRemove(MemoryAllocatorType.POOLED);
+    }
+
+    @Test
+    public void testPutGetRemove_standard() {
+        testPutGetRemove(MemoryAllocatorType.STANDARD);
+    }
+
+    @Test
+    public void testGet_afterRemove_returnsNull() {
+        storage = new NativeStorage(newConfig(MemoryAllocatorType.STANDARD, 16), 4);
+        DataRef ref = storage.put(1, serializationService.toData("value"));
+        long used = storage.getMemoryStats().getUsedNativeMemory();
+
+        storage.remove(1, ref);
+        storage.remove(1, ref);
+
+        assertNull(storage.get(1, ref));
+        assertEquals(used - ref.size(), storage.getMemoryStats().getUsedNativeMemory());
+    }
+
+    private void testPutGetRemove(MemoryAllocatorType allocatorType) {
+        storage = new NativeStorage(newConfig(allocatorType, 16), 4);
+
+        List<DataRef> refs = new ArrayList<DataRef>();
+        for (int k = 0; k < 1000; k++) {
+            Data data = serializationService.toData("value-" + k);
+            refs.add(storage.put(k, data));
+        }
+
+        long used = storage.getMemoryStats().getUsedNativeMemory();
+        assertTrue(used > 0);
+        assertTrue(storage.getMemoryStats().getCommittedNativeMemory() >= used);
+
+        for (int k = 0; k < 1000; k++) {
+            Data data = storage.get(k, refs.get(k));
+            assertEquals("value-" + k, serializationService.toObject(data));
+        }
+
+        for (int k = 0; k < 1000; k++) {
+            storage.remove(k, refs.get(k));
+        }
+        assertEquals(0, storage.getMemoryStats().getUsedNativeMemory());
+    }
+
+    @Test
+    public void testLargeValue_biggerThanPage() {
+        NativeMemoryConfig config = newConfig(MemoryAllocatorType.POOLED, 16);
+        config.setPageSize(1024);
+        storage = new NativeStorage(config, 1);
+
+        byte[] bytes = new byte[10000];
+        for (int k = 0; k < bytes.length; k++) {
+            bytes[k] = (byte) k;
+        }
+        Data data = serializationService.toData(bytes);
+        DataRef ref = storage.put(1, data);
+
+        assertEquals(data, storage.get(1, ref));
+        assertEquals(ref.size(), storage.getMemoryStats().getCommittedNativeMemory());
+
+        // blocks bigger than a page are returned to the OS immediately
+        storage.remove(1, ref);
+        assertEquals(0, storage.getMemoryStats().getCommittedNativeMemory());
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testMemoryLimit() {
+        storage = new NativeStorage(newConfig(MemoryAllocatorType.STANDARD, 1), 1);
+
+        Data data = serializationService.toData(new byte[1024 * 1024]);
+        storage.put(1, data);
+        storage.put(1, data);
+    }
+
+    @Test
+    public void testUsedNativeMemory_countsBlockSize() {
+        storage = new NativeStorage(newConfig(MemoryAllocatorType.POOLED, 16), 1);
+
+        DataRef ref = storage.put(1, serializationService.toData(new byte[100]));
+
+        assertTrue(ref.blockSize() > ref.size());
+        assertEquals(ref.blockSize(), storage.getMemoryStats().getUsedNativeMemory());
+        storage.remove(1, ref);
+        assertEquals(0, storage.getMemoryStats().getUsedNativeMemory());
+    }
+
+    @Test
+    public void testDestroy_releasesLiveBlocks_standard() {
+        testDestroy_releasesLiveBlocks(MemoryAllocatorType.STANDARD);
+    }
+
+    @Test
+    public void testDestroy_releasesLiveBlocks_pooled() {
+        testDestroy_releasesLiveBlocks(MemoryAllocatorType.POOLED);
+    }
+
+    private void testDestroy_releasesLiveBlocks(MemoryAllocatorType allocatorType) {
+        NativeMemoryConfig config = newConfig(allocatorType, 16);
+        config.setPageSize(1024);
+        NativeStorage storage = new NativeStorage(config, 4);
+        List<DataRef> refs = new ArrayList<DataRef>();
+        for (int k = 0; k < 100; k++) {
+            refs.add(storage.put(k, serializationService.toData("value-" + k)));
+        }
+        // bigger than a page
+        refs.add(storage.put(100, serializationService.toData(new byte[10000])));
+        assertTrue(storage.getMemoryStats().getCommittedNativeMemory() > 0);
+
+        storage.destroy();
+
+        assertEquals(0, storage.getMemoryStats().getCommittedNativeMemory());
+        for (int k = 0; k < refs.size(); k++) {
+            // the refs are invalid once the storage has been destroyed
+            assertNull(storage.get(k, refs.get(k)));
+            storage.remove(k, refs.get(k));
+        }
+        assertEquals(0, storage.getMemoryStats().getCommittedNativeMemory());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPut_afterDestroy() {
+        NativeStorage storage = new NativeStorage(newConfig(MemoryAllocatorType.POOLED, 16), 1);
+        storage.destroy();
+
+        storage.put(1, serializationService.toData("value"));
+    }
+
+    @Test
+    public void testPooledAllocator_reusesFreedBlocks() {
+        NativeMemoryStats stats = new NativeMemoryStats(MemoryUnit.MEGABYTES.toBytes(16));
+        PooledMemoryAllocator allocator = new PooledMemoryAllocator(new StandardMemoryAllocator(stats), 16, 4096);
+        try {
+            long address1 = allocator.allocate(100);
+            long committed = stats.getCommittedNativeMemory();
+            allocator.free(address1, 100);
+
+            long address2 = allocator.allocate(120);
+            assertEquals(address1, address2);
+            assertEquals(committed, stats.getCommittedNativeMemory());
+            assertEquals(128, allocator.blockSize(120));
+            assertEquals(16, allocator.blockSize(1));
+        } finally {
+            allocator.dispose();
+        }
+        assertEquals(0, stats.getCommittedNativeMemory());
+    }
+
+    private static NativeMemoryConfig newConfig(MemoryAllocatorType allocatorType, int sizeInMegaBytes) {
+        return new NativeMemoryConfig()
+                .setEnabled(true)
+                .setAllocatorType(allocatorType)
+                .setSize(new MemorySize(sizeInMegaBytes, MemoryUnit.MEGABYTES));
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.config.Config;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
@@ -85,5 +86,71 @@ public class MigrationTest extends HazelcastTestSupport {
         assertEquals("Some records have been lost.", noOfRecords, myMap.values().size());
     }
 
+    @Test
+    public void testChunkedMapMigration_withConcurrentMutations() {
+        final int size = 1000;
+        final int rounds = 10;
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        Config cfg = new Config();
+        cfg.setProperty(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE.getName(), "3");
+        HazelcastInstance instance1 = nodeFactory.newHazelcastInstance(cfg);
+
+        final IMap<Integer, Integer> map = instance1.getMap("testChunkedMapMigration");
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+
+        HazelcastInstance instance2 = nodeFactory.newHazelcastInstance(cfg);
+        Thread mutator = new Thread() {
+            @Override
+            public void run() {
+                for (int round = 1; round <= rounds; round++) {
+                    for (int i = 0; i < size; i++) {
+                        if (i % 3 == 0 && round == rounds) {
+                            map.remove(i);
+                        } else {
+                            map.put(i, round);
+                        }
+                    }
+                }
+            }
+        };
+        mutator.start();
+        assertJoinable(mutator);
+        waitAllForSafeState(instance1, instance2);
+        instance1.shutdown();
+
+        IMap<Integer, Integer> migratedMap = instance2.getMap("testChunkedMapMigration");
+        assertEquals(size - (size + 2) / 3, migratedMap.size());
+        for (int i = 0; i < size; i++) {
+            Integer expected = i % 3 == 0 ? null : rounds;
+            assertEquals(expected, migratedMap.get(i));
+        }
+    }
+
+    @Test
+    public void testChunkedMapMigration_whenChunksDisabled() {
+        final int size = 1000;
+        TestHazelcastInstanceFactory nodeFactory = createHazelcastInstanceFactory(2);
+        Config cfg = new Config();
+        cfg.setProperty(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE.getName(), "0");
+        HazelcastInstance instance1 = nodeFactory.newHazelcastInstance(cfg);
+
+        IMap<Integer, Integer> map = instance1.getMap("testMapMigrationWithoutChunks");
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+
+        HazelcastInstance instance2 = nodeFactory.newHazelcastInstance(cfg);
+        waitAllForSafeState(instance1, instance2);
+        instance1.shutdown();
+
+        IMap<Integer, Integer> migratedMap = instance2.getMap("testMapMigrationWithoutChunks");
+        assertEquals(size, migratedMap.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, (int) migratedMap.get(i));
+        }
+    }
+
 
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.NativeMemoryConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.memory.MemoryStats;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.util.QuickMath;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NativeMemoryMapTest extends HazelcastTestSupport {
+
+    private static final String MAP_NAME = "nativeMap";
+
+    @Test
+    public void testPutGetRemove() {
+        HazelcastInstance hz = createHazelcastInstance(newConfig());
+        IMap<Integer, String> map = hz.getMap(MAP_NAME);
+
+        for (int k = 0; k < 1000; k++) {
+            map.put(k, "value-" + k);
+        }
+        for (int k = 0; k < 1000; k++) {
+            assertEquals("value-" + k, map.get(k));
+        }
+
+        MemoryStats memoryStats = getNode(hz).getNodeExtension().getMemoryStats();
+        long used = memoryStats.getUsedNativeMemory();
+        assertTrue(used > 0);
+        assertEquals(usedNativeMemory(hz, "value-"), used);
+
+        for (int k = 0; k < 1000; k++) {
+            map.put(k, "updated-" + k);
+        }
+        // the old blocks are freed, the new ones hold the two extra characters of every value
+        assertEquals(usedNativeMemory(hz, "updated-"), memoryStats.getUsedNativeMemory());
+
+        for (int k = 0; k < 500; k++) {
+            assertEquals("updated-" + k, map.remove(k));
+            assertNull(map.get(k));
+        }
+        assertEquals(500, map.size());
+
+        map.clear();
+        assertEquals(0, memoryStats.getUsedNativeMemory());
+    }
+
+    @Test
+    public void testBackups() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance hz1 = factory.newHazelcastInstance(newConfig());
+        HazelcastInstance hz2 = factory.newHazelcastInstance(newConfig());
+
+        IMap<Integer, String> map = hz1.getMap(MAP_NAME);
+        for (int k = 0; k < 1000; k++) {
+            map.put(k, "value-" + k);
+        }
+
+        hz1.shutdown();
+
+        IMap<Integer, String> map2 = hz2.getMap(MAP_NAME);
+        for (int k = 0; k < 1000; k++) {
+            assertEquals("value-" + k, map2.get(k));
+        }
+    }
+
+    // the used native memory is counted by the size of the pooled blocks the values are stored in
+    private static long usedNativeMemory(HazelcastInstance hz, String valuePrefix) {
+        SerializationService serializationService = getSerializationService(hz);
+        long used = 0;
+        for (int k = 0; k < 1000; k++) {
+            int size = serializationService.toData(valuePrefix + k).toByteArray().length;
+            used += QuickMath.nextPowerOfTwo(Math.max(size, NativeMemoryConfig.DEFAULT_MIN_BLOCK_SIZE));
+        }
+        return used;
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.getNativeMemoryConfig().setEnabled(true);
+        config.addMapConfig(new MapConfig(MAP_NAME).setInMemoryFormat(InMemoryFormat.NATIVE));
+        return config;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hazelcast.map.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapMigrationChunkerTest extends HazelcastTestSupport {
+
+    @Test
+    public void nextChunk_returnsRemainingRecords_whenRecordMapResizedBetweenChunks() {
+        Config config = new Config();
+        config.setProperty(GroupProperty.PARTITION_COUNT, "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        SerializationService serializationService = getSerializationService(instance);
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        PartitionContainer container = mapService.getMapServiceContext().getPartitionContainer(0);
+        MapMigrationChunker chunker = new MapMigrationChunker(container);
+
+        Set<Data> chunkedKeys = new HashSet<Data>();
+        addKeys(chunkedKeys, chunker.nextChunk(10));
+        // more puts than the initial capacity of the record map, so its table is resized
+        for (int i = 100; i < 3000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 50; i < 60; i++) {
+            map.remove(i);
+        }
+        Map<String, Collection<Record>> chunk;
+        while (!(chunk = chunker.nextChunk(10)).isEmpty()) {
+            addKeys(chunkedKeys, chunk);
+        }
+        Set<Data> mutatedKeys = chunker.stopMutationTracking().get("map");
+
+        for (int i = 0; i < 100; i++) {
+            Data key = serializationService.toData(i);
+            if (i >= 50 && i < 60) {
+                assertTrue("removed key " + i + " isn't a mutation", mutatedKeys.contains(key));
+            } else {
+                assertTrue("key " + i + " isn't in a chunk", chunkedKeys.contains(key));
+            }
+        }
+        for (int i = 100; i < 3000; i++) {
+            Data key = serializationService.toData(i);
+            assertTrue("new key " + i + " isn't a mutation", mutatedKeys.contains(key));
+        }
+    }
+
+    private static void addKeys(Set<Data> keys, Map<String, Collection<Record>> chunk) {
+        Collection<Record> records = chunk.get("map");
+        assertTrue(records.size() <= 10);
+        for (Record record : records) {
+            keys.add(record.getKey());
+        }
+    }
+}
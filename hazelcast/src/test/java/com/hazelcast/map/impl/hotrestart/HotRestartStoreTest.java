@@ -0,0 +1,220 @@
+package com.hazelcast.map.impl.hotrestart;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.EntryView;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class HotRestartStoreTest extends HazelcastTestSupport {
+
+    private static final int PORT = 5701;
+
+    private final List<TestHazelcastInstanceFactory> factories = new ArrayList<TestHazelcastInstanceFactory>();
+    private File dir;
+    private Config config;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("hot-restart", "");
+        assertTrue(dir.delete() && dir.mkdir());
+
+        config = new Config();
+        config.setProperty(GroupProperty.MAP_HOT_RESTART_ENABLED, "true");
+        config.setProperty(GroupProperty.MAP_HOT_RESTART_BASE_DIR, dir.getAbsolutePath());
+        config.setProperty(GroupProperty.MAP_HOT_RESTART_FSYNC_INTERVAL_MILLIS, "100");
+    }
+
+    @After
+    public void tearDown() {
+        for (TestHazelcastInstanceFactory factory : factories) {
+            factory.terminateAll();
+        }
+        delete(dir);
+    }
+
+    @Test
+    public void testMapIsRestored_afterRestart() {
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            map.remove(i);
+        }
+        map.put(100, -1);
+        instance.shutdown();
+
+        map = newInstance().getMap("map");
+
+        assertEquals(900, map.size());
+        assertNull(map.get(0));
+        assertEquals(-1, (int) map.get(100));
+        assertEquals(999, (int) map.get(999));
+    }
+
+    @Test
+    public void testClearedMapIsNotRestored() {
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        map.put(1, 1);
+        instance.shutdown();
+
+        map = newInstance().getMap("map");
+
+        assertEquals(1, map.size());
+        assertEquals(1, (int) map.get(1));
+    }
+
+    @Test
+    public void testClearedNativeMapIsNotRestored() {
+        config.getNativeMemoryConfig().setEnabled(true);
+        config.getMapConfig("native").setInMemoryFormat(InMemoryFormat.NATIVE);
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("native");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        map.put(1, 1);
+        instance.shutdown();
+
+        map = newInstance().getMap("native");
+
+        assertEquals(1, map.size());
+        assertEquals(1, (int) map.get(1));
+    }
+
+    @Test
+    public void testMapIsRestored_afterCompaction() {
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("map");
+        for (int i = 0; i < 5000; i++) {
+            map.put(1, i);
+        }
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                // the superseded entries of the key are dropped by the compaction
+                assertTrue(getTotalLength(dir) < 10000);
+            }
+        });
+        map.put(2, 2);
+        instance.shutdown();
+
+        map = newInstance().getMap("map");
+
+        assertEquals(2, map.size());
+        assertEquals(4999, (int) map.get(1));
+        assertEquals(2, (int) map.get(2));
+    }
+
+    @Test
+    public void testIndexedQuery_afterRestart() {
+        config.getMapConfig("indexed").addMapIndexConfig(new MapIndexConfig("this", true));
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("indexed");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        instance.shutdown();
+
+        map = newInstance().getMap("indexed");
+
+        assertEquals(10, map.values(Predicates.greaterEqual("this", 990)).size());
+        assertEquals(1, map.keySet(Predicates.equal("this", 500)).size());
+    }
+
+    @Test
+    public void testRecordTimesAreRestored_afterRestart() {
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("map");
+        map.put(1, 1, 1, TimeUnit.HOURS);
+        EntryView<Integer, Integer> before = map.getEntryView(1);
+        sleepMillis(10);
+        instance.shutdown();
+
+        map = newInstance().getMap("map");
+
+        EntryView<Integer, Integer> after = map.getEntryView(1);
+        assertEquals(before.getCreationTime(), after.getCreationTime());
+        assertEquals(before.getLastUpdateTime(), after.getLastUpdateTime());
+        assertEquals(before.getTtl(), after.getTtl());
+    }
+
+    @Test
+    public void testExpiredRecordIsNotRestored() {
+        HazelcastInstance instance = newInstance();
+        IMap<Integer, Integer> map = instance.getMap("map");
+        map.put(1, 1, 1, TimeUnit.SECONDS);
+        map.put(2, 2);
+        instance.shutdown();
+        sleepSeconds(2);
+
+        map = newInstance().getMap("map");
+
+        assertEquals(1, map.size());
+        assertNull(map.get(1));
+        assertEquals(2, (int) map.get(2));
+    }
+
+    private HazelcastInstance newInstance() {
+        // the member has to restart with the same address to find its logs
+        TestHazelcastInstanceFactory factory = new TestHazelcastInstanceFactory(PORT, "127.0.0.1");
+        factories.add(factory);
+        return factory.newHazelcastInstance(config);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static long getTotalLength(File file) {
+        File[] files = file.listFiles();
+        if (files == null) {
+            return file.length();
+        }
+        long length = 0;
+        for (File child : files) {
+            length += getTotalLength(child);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,102 @@
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class AdaptiveWriteBatchSizeTest {
+
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private static final long TARGET_LATENCY_MILLIS = 100;
+
+    private final AdaptiveWriteBatchSize batchSize = new AdaptiveWriteBatchSize(MAX_BATCH_SIZE, TARGET_LATENCY_MILLIS);
+
+    @Test
+    public void testStartsWithConfiguredBatchSize() {
+        assertEquals(MAX_BATCH_SIZE, batchSize.get());
+    }
+
+    @Test
+    public void testHalved_whenStoreIsSlow() {
+        batchSize.onBatchStored(MAX_BATCH_SIZE, TARGET_LATENCY_MILLIS + 1);
+        assertEquals(MAX_BATCH_SIZE / 2, batchSize.get());
+
+        batchSize.onBatchStored(MAX_BATCH_SIZE / 2, TARGET_LATENCY_MILLIS + 1);
+        assertEquals(MAX_BATCH_SIZE / 4, batchSize.get());
+    }
+
+    @Test
+    public void testHalved_whenStoreFails() {
+        batchSize.onBatchFailed();
+        assertEquals(MAX_BATCH_SIZE / 2, batchSize.get());
+    }
+
+    @Test
+    public void testNeverBelowOne() {
+        for (int i = 0; i < 20; i++) {
+            batchSize.onBatchFailed();
+        }
+        assertEquals(1, batchSize.get());
+    }
+
+    @Test
+    public void testGrowsBack_whenFullBatchesAreFast() {
+        batchSize.onBatchFailed();
+        batchSize.onBatchFailed();
+        int size = batchSize.get();
+
+        batchSize.onBatchStored(size, 0);
+        assertEquals(size + size / 8, batchSize.get());
+
+        for (int i = 0; i < 100; i++) {
+            batchSize.onBatchStored(batchSize.get(), 0);
+        }
+        assertEquals(MAX_BATCH_SIZE, batchSize.get());
+    }
+
+    @Test
+    public void testGrowsByAtLeastOne() {
+        for (int i = 0; i < 20; i++) {
+            batchSize.onBatchFailed();
+        }
+
+        batchSize.onBatchStored(1, 0);
+        assertEquals(2, batchSize.get());
+    }
+
+    @Test
+    public void testDoesNotGrow_whenBatchIsNotFull() {
+        batchSize.onBatchFailed();
+        int size = batchSize.get();
+
+        batchSize.onBatchStored(size - 1, 0);
+        assertEquals(size, batchSize.get());
+    }
+
+    @Test
+    public void testDoesNotGrow_whenLatencyIsAboveHalfOfTarget() {
+        batchSize.onBatchFailed();
+        int size = batchSize.get();
+
+        batchSize.onBatchStored(size, TARGET_LATENCY_MILLIS / 2);
+        assertEquals(size, batchSize.get());
+    }
+
+    @Test
+    public void testKeepsConfiguredBatchSize_whenTargetLatencyIsZero() {
+        AdaptiveWriteBatchSize fixedBatchSize = new AdaptiveWriteBatchSize(MAX_BATCH_SIZE, 0);
+
+        fixedBatchSize.onBatchFailed();
+        fixedBatchSize.onBatchStored(MAX_BATCH_SIZE, Long.MAX_VALUE);
+
+        assertEquals(MAX_BATCH_SIZE, fixedBatchSize.get());
+    }
+}
@@ -0,0 +1,75 @@
+package com.hazelcast.map.impl.mapstore.writebehind;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindBackoff.INITIAL_BACKOFF_MILLIS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class WriteBehindBackoffTest {
+
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final WriteBehindBackoff backoff = new WriteBehindBackoff(MAX_BACKOFF_MILLIS);
+
+    @Test
+    public void testNotBackingOff_initially() {
+        assertFalse(backoff.isBackingOff(0));
+        assertEquals(0, backoff.getBackoffMillis());
+    }
+
+    @Test
+    public void testBackoffDoubles_afterEachFailedRound() {
+        assertEquals(INITIAL_BACKOFF_MILLIS, backoff.onRoundFailed(0));
+        assertEquals(2 * INITIAL_BACKOFF_MILLIS, backoff.onRoundFailed(0));
+        assertEquals(4 * INITIAL_BACKOFF_MILLIS, backoff.onRoundFailed(0));
+    }
+
+    @Test
+    public void testBackoffIsCapped() {
+        for (int i = 0; i < 10; i++) {
+            backoff.onRoundFailed(0);
+        }
+
+        assertEquals(MAX_BACKOFF_MILLIS, backoff.getBackoffMillis());
+        assertEquals(MAX_BACKOFF_MILLIS, backoff.onRoundFailed(0));
+    }
+
+    @Test
+    public void testBackingOff_untilDelayElapsed() {
+        long now = 10000;
+        long delay = backoff.onRoundFailed(now);
+
+        assertTrue(backoff.isBackingOff(now));
+        assertTrue(backoff.isBackingOff(now + delay - 1));
+        assertFalse(backoff.isBackingOff(now + delay));
+    }
+
+    @Test
+    public void testBackoffReset_afterSuccessfulRound() {
+        backoff.onRoundFailed(0);
+        backoff.onRoundFailed(0);
+
+        backoff.onRoundSucceeded();
+
+        assertEquals(0, backoff.getBackoffMillis());
+        assertFalse(backoff.isBackingOff(0));
+        assertEquals(INITIAL_BACKOFF_MILLIS, backoff.onRoundFailed(0));
+    }
+
+    @Test
+    public void testNoBackoff_whenMaxBackoffIsZero() {
+        WriteBehindBackoff disabledBackoff = new WriteBehindBackoff(0);
+
+        assertEquals(0, disabledBackoff.onRoundFailed(0));
+        assertFalse(disabledBackoff.isBackingOff(0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MetaDataGeneratorTest {
+
+    private MetaDataGenerator generator = new MetaDataGenerator(2);
+
+    @Test
+    public void sequencesAreCountedPerMapAndPartition() {
+        assertEquals(1, generator.nextSequence("map", 0));
+        assertEquals(2, generator.nextSequence("map", 0));
+        assertEquals(1, generator.nextSequence("map", 1));
+        assertEquals(1, generator.nextSequence("otherMap", 0));
+
+        assertEquals(2, generator.currentSequence("map", 0));
+        assertEquals(0, generator.currentSequence("unknownMap", 0));
+    }
+
+    @Test
+    public void uuidIsStablePerPartition() {
+        String uuid = generator.getOrCreateUuid(0);
+
+        assertEquals(uuid, generator.getOrCreateUuid(0));
+        assertNotEquals(uuid, generator.getOrCreateUuid(1));
+    }
+
+    @Test
+    public void resetPartitionStartsNewSequence() {
+        String uuid = generator.getOrCreateUuid(0);
+        generator.nextSequence("map", 0);
+        generator.nextSequence("map", 1);
+
+        generator.resetPartition(0);
+
+        assertNotEquals(uuid, generator.getOrCreateUuid(0));
+        assertEquals(0, generator.currentSequence("map", 0));
+        assertEquals(1, generator.currentSequence("map", 1));
+    }
+
+    @Test
+    public void destroyMetaDataForForgetsSequencesOfMap() {
+        generator.nextSequence("map", 0);
+
+        generator.destroyMetaDataFor("map");
+
+        assertEquals(0, generator.currentSequence("map", 0));
+    }
+}
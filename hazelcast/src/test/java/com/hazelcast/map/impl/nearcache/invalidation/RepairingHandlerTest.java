@@ -0,0 +1,150 @@
+package com.hazelcast.map.impl.nearcache.invalidation;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class RepairingHandlerTest {
+
+    private static final String UUID = "uuid";
+
+    private RepairingHandler handler = new RepairingHandler(2);
+
+    @Test
+    public void consecutiveSequencesNeedNoRepair() {
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 1)));
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 2)));
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 3)));
+    }
+
+    @Test
+    public void firstInvalidationOfOwnerNeedsNoRepair() {
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 1)));
+    }
+
+    @Test
+    public void laterInvalidationOfUnseededPartitionNeedsRepair() {
+        assertTrue(handler.checkSequence(invalidation(0, UUID, 42)));
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 43)));
+    }
+
+    @Test
+    public void invalidationAfterSeedNeedsNoRepair() {
+        handler.initialize(0, UUID, 41);
+
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 42)));
+    }
+
+    @Test
+    public void invalidationMissedAfterSeedNeedsRepair() {
+        handler.initialize(0, UUID, 41);
+
+        assertTrue(handler.checkSequence(invalidation(0, UUID, 43)));
+    }
+
+    @Test
+    public void seedDoesNotOverrideReceivedInvalidations() {
+        handler.checkSequence(invalidation(0, UUID, 1));
+        handler.checkSequence(invalidation(0, UUID, 2));
+
+        assertFalse(handler.initialize(0, UUID, 1));
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 3)));
+    }
+
+    @Test
+    public void seedOfOwnerWithoutInvalidationsNeedsNoRepair() {
+        assertFalse(handler.initialize(0, UUID, 0));
+    }
+
+    @Test
+    public void seedOfOwnerWithInvalidationsNeedsRepair() {
+        assertTrue(handler.initialize(0, UUID, 7));
+    }
+
+    @Test
+    public void reconcileOfUnseededPartitionNeedsRepair() {
+        assertTrue(handler.reconcile(0, UUID, 5));
+        assertFalse(handler.reconcile(1, UUID, 0));
+    }
+
+    @Test
+    public void sequenceGapNeedsRepair() {
+        handler.checkSequence(invalidation(0, UUID, 1));
+
+        assertTrue(handler.checkSequence(invalidation(0, UUID, 3)));
+        assertFalse(handler.checkSequence(invalidation(0, UUID, 4)));
+    }
+
+    @Test
+    public void sequenceGapOnlyAffectsItsPartition() {
+        handler.checkSequence(invalidation(0, UUID, 1));
+        handler.checkSequence(invalidation(1, UUID, 1));
+
+        assertTrue(handler.checkSequence(invalidation(0, UUID, 5)));
+        assertFalse(handler.checkSequence(invalidation(1, UUID, 2)));
+    }
+
+    @Test
+    public void changedPartitionUuidNeedsRepair() {
+        handler.checkSequence(invalidation(0, UUID, 1));
+
+        assertTrue(handler.checkSequence(invalidation(0, "newUuid", 1)));
+        assertFalse(handler.checkSequence(invalidation(0, "newUuid", 2)));
+    }
+
+    @Test
+    public void reconcileWithReceivedSequenceNeedsNoRepair() {
+        handler.initialize(0, UUID, 3);
+
+        assertFalse(handler.reconcile(0, UUID, 3));
+        assertFalse(handler.reconcile(0, UUID, 3));
+    }
+
+    @Test
+    public void reconcileToleratesInvalidationsInFlight() {
+        handler.initialize(0, UUID, 3);
+
+        assertFalse(handler.reconcile(0, UUID, 5));
+        handler.checkSequence(invalidation(0, UUID, 4));
+        handler.checkSequence(invalidation(0, UUID, 5));
+        assertFalse(handler.reconcile(0, UUID, 5));
+    }
+
+    @Test
+    public void reconcileDetectsLostLastInvalidations() {
+        handler.initialize(0, UUID, 3);
+
+        assertFalse(handler.reconcile(0, UUID, 5));
+        assertTrue(handler.reconcile(0, UUID, 5));
+        assertFalse(handler.reconcile(0, UUID, 5));
+    }
+
+    @Test
+    public void reconcileWithChangedPartitionUuidNeedsRepair() {
+        handler.initialize(0, UUID, 3);
+
+        assertTrue(handler.reconcile(0, "newUuid", 1));
+        assertFalse(handler.checkSequence(invalidation(0, "newUuid", 2)));
+    }
+
+    @Test
+    public void resetForgetsPartitionUuids() {
+        handler.initialize(0, UUID, 3);
+
+        handler.reset();
+
+        assertFalse(handler.checkSequence(invalidation(0, "newUuid", 1)));
+    }
+
+    private static Invalidation invalidation(int partitionId, String partitionUuid, long sequence) {
+        return new Invalidation(null, partitionId, partitionUuid, sequence);
+    }
+}
@@ -0,0 +1,140 @@
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.query.SampleObjects.Employee;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapAggregateTest extends HazelcastTestSupport {
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Employee> map;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.getMapConfig("indexed").addMapIndexConfig(new MapIndexConfig("age", true));
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        instance = factory.newHazelcastInstance(config);
+        factory.newHazelcastInstance(config);
+        map = instance.getMap(randomName());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenAggregatorNull() {
+        map.aggregate(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenPredicateNull() {
+        map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPagingPredicate() {
+        map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), new PagingPredicate(10));
+    }
+
+    @Test
+    public void whenMapEmpty() {
+        assertEquals(Long.valueOf(0), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count()));
+        assertNull(map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>numberAvg("age")));
+        assertNull(map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, Integer>max("age")));
+    }
+
+    @Test
+    public void whenAggregatingAllEntries() {
+        fill(map);
+
+        assertEquals(Long.valueOf(1000), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count()));
+        assertEquals(Long.valueOf(49500), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>longSum("age")));
+        assertEquals(99000, map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>doubleSum("salary")), 0.001);
+        assertEquals(49.5, map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>numberAvg("age")), 0.001);
+        assertEquals(Integer.valueOf(99), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, Integer>max("age")));
+        assertEquals(Integer.valueOf(0), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, Integer>min("age")));
+
+        Set<String> names = map.aggregate(Aggregators.<Map.Entry<Integer, Employee>, String>distinct("name"));
+        assertEquals(10, names.size());
+        assertTrue(names.contains("name3"));
+    }
+
+    @Test
+    public void whenAggregatingSomeEntries() {
+        fill(map);
+
+        SqlPredicate predicate = new SqlPredicate("age < 10");
+
+        assertEquals(Long.valueOf(100), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), predicate));
+        assertEquals(Long.valueOf(450), map.aggregate(Aggregators.<Map.Entry<Integer, Employee>>longSum("age"), predicate));
+    }
+
+    @Test
+    public void whenAggregatingUsingIndex() {
+        IMap<Integer, Employee> indexedMap = instance.getMap("indexed");
+        fill(indexedMap);
+
+        SqlPredicate predicate = new SqlPredicate("age between 10 and 19");
+
+        assertEquals(Long.valueOf(100), indexedMap.aggregate(Aggregators.<Map.Entry<Integer, Employee>>count(), predicate));
+        assertEquals(14.5, indexedMap.aggregate(Aggregators.<Map.Entry<Integer, Employee>>numberAvg("age"), predicate), 0.001);
+    }
+
+    @Test
+    public void whenCustomAggregator_thenCallerInstanceNotModified() {
+        fill(map);
+        KeySumAggregator aggregator = new KeySumAggregator();
+
+        assertEquals(Long.valueOf(499500), map.aggregate(aggregator));
+        assertEquals(Long.valueOf(499500), map.aggregate(aggregator));
+        assertEquals(Long.valueOf(0), aggregator.aggregate());
+    }
+
+    private static void fill(IMap<Integer, Employee> map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + (i % 10), i % 100, true, 99));
+        }
+    }
+
+    private static class KeySumAggregator extends Aggregator<Map.Entry<Integer, Employee>, Long> {
+
+        private long sum;
+
+        @Override
+        public void accumulate(Map.Entry<Integer, Employee> input) {
+            sum += input.getKey();
+        }
+
+        @Override
+        public void combine(Aggregator aggregator) {
+            sum += ((KeySumAggregator) aggregator).sum;
+        }
+
+        @Override
+        public Long aggregate() {
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.map.impl.recordstore.RecordMapFactory;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.TruePredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.hazelcast.query.SampleObjects.Employee;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapChunkedQueryTest extends HazelcastTestSupport {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenFetchSizeNotPositive() {
+        IMap<Integer, Employee> map = newMap(new Config());
+        map.iterator(0, TruePredicate.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPagingPredicate() {
+        IMap<Integer, Employee> map = newMap(new Config());
+        map.iterator(10, new PagingPredicate(10));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void whenMapEmpty() {
+        IMap<Integer, Employee> map = newMap(new Config());
+        Iterator<Map.Entry<Integer, Employee>> iterator = map.iterator(10, TruePredicate.INSTANCE);
+
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    @Test
+    public void whenIteratingAllEntries() {
+        assertAllEntriesIterated(newMap(new Config()));
+    }
+
+    @Test
+    public void whenIteratingAllEntries_withOpenAddressingRecordMap() {
+        Config config = new Config();
+        config.setProperty(GroupProperty.MAP_RECORD_MAP_TYPE, RecordMapFactory.Type.OPEN_ADDRESSING.toString());
+        assertAllEntriesIterated(newMap(config));
+    }
+
+    @Test
+    public void whenIteratingSomeEntries() {
+        IMap<Integer, Employee> map = newMap(new Config());
+        fill(map);
+
+        Iterator<Map.Entry<Integer, Employee>> iterator = map.iterator(3, new SqlPredicate("age = 5"));
+
+        Set<Integer> keys = new HashSet<Integer>();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Employee> entry = iterator.next();
+            assertEquals(5, entry.getValue().getAge());
+            assertTrue(keys.add(entry.getKey()));
+        }
+        assertEquals(10, keys.size());
+    }
+
+    @Test
+    public void whenIteratingProjection() {
+        IMap<Integer, Employee> map = newMap(new Config());
+        fill(map);
+
+        Iterator<String> iterator = map.iterator(10,
+                Projections.<Map.Entry<Integer, Employee>, String>singleAttribute("name"), new SqlPredicate("age < 10"));
+
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertTrue(iterator.next().startsWith("name"));
+            count++;
+        }
+        assertEquals(100, count);
+    }
+
+    private void assertAllEntriesIterated(IMap<Integer, Employee> map) {
+        fill(map);
+
+        Iterator<Map.Entry<Integer, Employee>> iterator = map.iterator(7, TruePredicate.INSTANCE);
+
+        Set<Integer> keys = new HashSet<Integer>();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Employee> entry = iterator.next();
+            assertEquals(entry.getKey().longValue(), entry.getValue().getId());
+            assertTrue(keys.add(entry.getKey()));
+        }
+        assertEquals(1000, keys.size());
+    }
+
+    private IMap<Integer, Employee> newMap(Config config) {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance = factory.newHazelcastInstance(config);
+        factory.newHazelcastInstance(config);
+        return instance.getMap(randomName());
+    }
+
+    private static void fill(IMap<Integer, Employee> map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + (i % 10), i % 100, true, 99));
+        }
+    }
+}
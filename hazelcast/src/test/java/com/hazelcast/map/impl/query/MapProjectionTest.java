@@ -0,0 +1,133 @@
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.query.SampleObjects.Employee;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapProjectionTest extends HazelcastTestSupport {
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Employee> map;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.getMapConfig("indexed").addMapIndexConfig(new MapIndexConfig("age", true));
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        instance = factory.newHazelcastInstance(config);
+        factory.newHazelcastInstance(config);
+        map = instance.getMap(randomName());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenProjectionNull() {
+        map.project(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenPredicateNull() {
+        map.project(Projections.<Map.Entry<Integer, Employee>, Integer>singleAttribute("age"), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPagingPredicate() {
+        map.project(Projections.<Map.Entry<Integer, Employee>, Integer>singleAttribute("age"), new PagingPredicate(10));
+    }
+
+    @Test
+    public void whenMapEmpty() {
+        assertTrue(map.project(Projections.<Map.Entry<Integer, Employee>, Integer>singleAttribute("age")).isEmpty());
+    }
+
+    @Test
+    public void whenProjectingSingleAttribute_thenDuplicatesKept() {
+        fill(map);
+
+        Collection<String> names = map.project(Projections.<Map.Entry<Integer, Employee>, String>singleAttribute("name"));
+
+        assertEquals(1000, names.size());
+        assertEquals(10, new HashSet<String>(names).size());
+        assertTrue(names.contains("name3"));
+    }
+
+    @Test
+    public void whenProjectingMultipleAttributes() {
+        fill(map);
+
+        Collection<Object[]> rows = map.project(Projections.<Map.Entry<Integer, Employee>>multiAttribute("id", "age"),
+                new SqlPredicate("age = 5"));
+
+        assertEquals(10, rows.size());
+        Set<Long> ids = new HashSet<Long>();
+        for (Object[] row : rows) {
+            assertEquals(2, row.length);
+            assertEquals(5, row[1]);
+            ids.add((Long) row[0]);
+        }
+        assertEquals(10, ids.size());
+        assertTrue(ids.contains(105L));
+    }
+
+    @Test
+    public void whenProjectingUsingIndex() {
+        IMap<Integer, Employee> indexedMap = instance.getMap("indexed");
+        fill(indexedMap);
+
+        Collection<Integer> ages = indexedMap.project(Projections.<Map.Entry<Integer, Employee>, Integer>singleAttribute("age"),
+                new SqlPredicate("age between 10 and 19"));
+
+        assertEquals(100, ages.size());
+        for (Integer age : ages) {
+            assertTrue(age >= 10 && age <= 19);
+        }
+    }
+
+    @Test
+    public void whenCustomProjection() {
+        fill(map);
+
+        Collection<Integer> keys = map.project(new KeyProjection(), new SqlPredicate("age = 0"));
+
+        assertEquals(10, keys.size());
+        assertTrue(keys.contains(900));
+    }
+
+    private static void fill(IMap<Integer, Employee> map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, new Employee(i, "name" + (i % 10), i % 100, true, 99));
+        }
+    }
+
+    private static class KeyProjection extends Projection<Map.Entry<Integer, Employee>, Integer> {
+
+        @Override
+        public Integer transform(Map.Entry<Integer, Employee> input) {
+            return input.getKey();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.hazelcast.map.impl.querycache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.QueryCacheConfig;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.QueryCache;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.querycache.publisher.QueryCachePublisherService;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.query.SampleObjects.Employee;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class QueryCacheTest extends HazelcastTestSupport {
+
+    private static final SqlPredicate OLD = new SqlPredicate("age >= 50");
+
+    private HazelcastInstance instance;
+    private HazelcastInstance other;
+    private IMap<Integer, Employee> map;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        QueryCacheConfig batchedConfig = new QueryCacheConfig("batched");
+        batchedConfig.setBatchSize(10);
+        batchedConfig.setDelaySeconds(1);
+        batchedConfig.setCoalesce(true);
+        config.getMapConfig("batched*").addQueryCacheConfig(batchedConfig);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        instance = factory.newHazelcastInstance(config);
+        other = factory.newHazelcastInstance(config);
+        map = instance.getMap(randomName());
+    }
+
+    @Test
+    public void whenCreated_thenPopulatedWithMatchingEntries() {
+        fill(map, 100);
+
+        QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+
+        assertEquals(50, cache.size());
+        assertEquals(99, cache.get(99).getAge());
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void whenMapChanges_thenCacheFollows() {
+        fill(map, 100);
+        final QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+
+        map.put(200, new Employee(200, "name", 70, true, 0));
+        map.put(99, new Employee(99, "name", 10, true, 0));
+        map.put(1, new Employee(1, "name", 80, true, 0));
+        map.remove(98);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(50, cache.size());
+                assertTrue(cache.containsKey(200));
+                assertFalse(cache.containsKey(99));
+                assertEquals(80, cache.get(1).getAge());
+                assertFalse(cache.containsKey(98));
+            }
+        });
+    }
+
+    @Test
+    public void whenMapCleared_thenCacheEmpty() {
+        fill(map, 100);
+        final QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+
+        map.clear();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(cache.isEmpty());
+            }
+        });
+    }
+
+    @Test
+    public void whenEntryExpires_thenRemovedFromCache() {
+        fill(map, 100);
+        final QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+        map.put(200, new Employee(200, "name", 70, true, 0), 1, TimeUnit.SECONDS);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(cache.containsKey(200));
+            }
+        });
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertNull(map.get(200));
+                assertFalse(cache.containsKey(200));
+                assertEquals(50, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenValuesExcluded_thenOnlyKeysCached() {
+        fill(map, 100);
+
+        QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, false);
+
+        assertEquals(50, cache.keySet().size());
+        assertTrue(cache.containsKey(60));
+        assertNull(cache.get(60));
+    }
+
+    @Test
+    public void whenQueriedWithIndex_thenMatchingValuesReturned() {
+        fill(map, 100);
+        QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+
+        cache.addIndex("age", true);
+
+        assertEquals(10, cache.values(new SqlPredicate("age >= 90")).size());
+        assertEquals(10, cache.keySet(new SqlPredicate("age < 60")).size());
+        assertEquals(1, cache.entrySet(new SqlPredicate("age = 77")).size());
+    }
+
+    @Test
+    public void whenCreatedWithListener_thenListenerSeesPopulation() {
+        fill(map, 100);
+        final AtomicInteger added = new AtomicInteger();
+        EntryAddedListener<Integer, Employee> listener = new EntryAddedListener<Integer, Employee>() {
+            @Override
+            public void entryAdded(EntryEvent<Integer, Employee> event) {
+                added.incrementAndGet();
+            }
+        };
+
+        map.getQueryCache("cache", listener, OLD, true);
+        map.put(100, new Employee(100, "name", 100, true, 0));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(51, added.get());
+            }
+        });
+    }
+
+    @Test
+    public void whenBatched_thenEventsEventuallyDelivered() {
+        IMap<Integer, Employee> batchedMap = instance.getMap("batched" + randomName());
+        final QueryCache<Integer, Employee> cache = batchedMap.getQueryCache("batched", OLD, true);
+
+        fill(batchedMap, 105);
+        for (int i = 0; i < 50; i++) {
+            batchedMap.put(i, new Employee(i, "name", 90, true, 0));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(105, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenRecovered_thenContentUnchanged() {
+        fill(map, 100);
+        QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+
+        assertTrue(cache.tryRecover());
+
+        assertEquals(50, cache.size());
+    }
+
+    @Test
+    public void whenRetrievedTwice_thenSameCache() {
+        QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+
+        assertSame(cache, map.getQueryCache("cache"));
+    }
+
+    @Test
+    public void whenNotConfigured_thenNull() {
+        assertNull(map.getQueryCache("unknown"));
+    }
+
+    @Test
+    public void whenDestroyed_thenPublishersRemoved() {
+        QueryCache<Integer, Employee> cache = map.getQueryCache("cache", OLD, true);
+        assertTrue(getPublisherService(instance).hasPublishers(map.getName()));
+
+        cache.destroy();
+
+        assertFalse(getPublisherService(instance).hasPublishers(map.getName()));
+        assertFalse(getPublisherService(other).hasPublishers(map.getName()));
+    }
+
+    private static QueryCachePublisherService getPublisherService(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getQueryCachePublisherService();
+    }
+
+    private static void fill(IMap<Integer, Employee> map, int count) {
+        for (int i = 0; i < count; i++) {
+            map.put(i, new Employee(i, "name" + i, i, true, i));
+        }
+    }
+}
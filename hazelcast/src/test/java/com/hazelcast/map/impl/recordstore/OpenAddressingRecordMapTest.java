@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.util.collection.SingleWriterOpenAddressingMap;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class OpenAddressingRecordMapTest extends HazelcastTestSupport {
+
+    @Test
+    public void testRecordMapType() {
+        HazelcastInstance hz = createHazelcastInstance(newConfig());
+
+        assertEquals(RecordMapFactory.Type.OPEN_ADDRESSING, RecordMapFactory.getType(getNode(hz).getGroupProperties()));
+        assertTrue(RecordMapFactory.newRecordMap(RecordMapFactory.Type.OPEN_ADDRESSING)
+                instanceof SingleWriterOpenAddressingMap);
+    }
+
+    @Test
+    public void testPutGetRemoveQuery() {
+        HazelcastInstance hz = createHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = hz.getMap("map");
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, (int) map.remove(i));
+        }
+
+        assertEquals(500, map.size());
+        assertEquals(100, map.values(new SqlPredicate("this >= 900")).size());
+    }
+
+    @Test
+    public void testMigration() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance hz1 = factory.newHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = hz1.getMap("map");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+
+        HazelcastInstance hz2 = factory.newHazelcastInstance(newConfig());
+        waitAllForSafeState(hz1, hz2);
+        hz1.shutdown();
+
+        IMap<Integer, Integer> map2 = hz2.getMap("map");
+        assertEquals(1000, map2.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) map2.get(i));
+        }
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperty.MAP_RECORD_MAP_TYPE, RecordMapFactory.Type.OPEN_ADDRESSING.toString());
+        return config;
+    }
+}
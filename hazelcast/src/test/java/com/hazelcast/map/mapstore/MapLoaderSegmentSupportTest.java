@@ -0,0 +1,165 @@
+package com.hazelcast.map.mapstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.GroupConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.config.MapStoreConfig.InitialLoadMode;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapLoader;
+import com.hazelcast.core.MapLoaderSegmentSupport;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.hazelcast.config.MapStoreConfig.InitialLoadMode.EAGER;
+import static com.hazelcast.config.MapStoreConfig.InitialLoadMode.LAZY;
+import static com.hazelcast.test.TimeConstants.MINUTE;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapLoaderSegmentSupportTest extends HazelcastTestSupport {
+
+    private static final int MAP_STORE_ENTRY_COUNT = 10000;
+    private static final int SEGMENT_COUNT = 16;
+    private static final int NODE_COUNT = 3;
+
+    private TestHazelcastInstanceFactory nodeFactory;
+    private SegmentedMapLoader mapLoader;
+    private final String mapName = getClass().getSimpleName();
+
+    @Before
+    public void setUp() throws Exception {
+        nodeFactory = createHazelcastInstanceFactory(NODE_COUNT);
+        mapLoader = new SegmentedMapLoader(MAP_STORE_ENTRY_COUNT, SEGMENT_COUNT);
+    }
+
+    @Test(timeout = MINUTE)
+    public void testLoadsAllSegments_whenMapCreatedInEager() throws Exception {
+        IMap<Object, Object> map = getMap(newConfig(EAGER));
+
+        assertSizeEventually(MAP_STORE_ENTRY_COUNT, map);
+        assertEachSegmentLoadedTimes(1);
+        assertEquals(0, mapLoader.loadAllKeysInvocations.get());
+        assertEquals(MAP_STORE_ENTRY_COUNT, mapLoader.loadedValueCount.get());
+    }
+
+    @Test(timeout = MINUTE)
+    public void testLoadsAllSegmentsAgain_whenLoadAllWithReplace() throws Exception {
+        IMap<Object, Object> map = getMap(newConfig(LAZY));
+        map.loadAll(true);
+        map.loadAll(true);
+
+        assertSizeEventually(MAP_STORE_ENTRY_COUNT, map);
+        assertEachSegmentLoadedTimes(2);
+        assertEquals(0, mapLoader.loadAllKeysInvocations.get());
+    }
+
+    @Test(timeout = MINUTE)
+    public void testLoadsAllKeys_whenNoSegments() throws Exception {
+        mapLoader = new SegmentedMapLoader(MAP_STORE_ENTRY_COUNT, 0);
+        IMap<Object, Object> map = getMap(newConfig(EAGER));
+
+        assertSizeEventually(MAP_STORE_ENTRY_COUNT, map);
+        assertEquals(1, mapLoader.loadAllKeysInvocations.get());
+    }
+
+    private void assertEachSegmentLoadedTimes(int times) {
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            assertEquals("segment " + segment, times, mapLoader.segmentLoads.get(segment));
+        }
+    }
+
+    private IMap<Object, Object> getMap(Config cfg) {
+        HazelcastInstance hz = nodeFactory.newInstances(cfg, NODE_COUNT)[0];
+        assertClusterSizeEventually(NODE_COUNT, hz);
+        IMap<Object, Object> map = hz.getMap(mapName);
+        waitClusterForSafeState(hz);
+        return map;
+    }
+
+    private Config newConfig(InitialLoadMode loadMode) {
+        Config cfg = new Config();
+        cfg.setGroupConfig(new GroupConfig(getClass().getSimpleName()));
+        cfg.setProperty(GroupProperty.MAP_LOAD_CHUNK_SIZE, "100");
+        cfg.setProperty(GroupProperty.MAP_LOAD_KEY_SEGMENT_PARALLELISM, "2");
+        cfg.setProperty(GroupProperty.PARTITION_COUNT, "31");
+
+        MapStoreConfig mapStoreConfig = new MapStoreConfig()
+                .setImplementation(mapLoader).setInitialLoadMode(loadMode);
+        cfg.getMapConfig(mapName).setMapStoreConfig(mapStoreConfig).setBackupCount(1);
+        return cfg;
+    }
+
+    static class SegmentedMapLoader implements MapLoader<Integer, Integer>, MapLoaderSegmentSupport<Integer> {
+
+        final AtomicInteger loadAllKeysInvocations = new AtomicInteger();
+        final AtomicInteger loadedValueCount = new AtomicInteger();
+        final AtomicIntegerArray segmentLoads;
+        final int size;
+        final int segmentCount;
+
+        SegmentedMapLoader(int size, int segmentCount) {
+            this.size = size;
+            this.segmentCount = segmentCount;
+            this.segmentLoads = new AtomicIntegerArray(Math.max(segmentCount, 1));
+        }
+
+        @Override
+        public Integer load(Integer key) {
+            loadedValueCount.incrementAndGet();
+            return key;
+        }
+
+        @Override
+        public Map<Integer, Integer> loadAll(Collection<Integer> keys) {
+            Map<Integer, Integer> result = new HashMap<Integer, Integer>();
+            for (Integer key : keys) {
+                result.put(key, key);
+            }
+            loadedValueCount.addAndGet(keys.size());
+            return result;
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys() {
+            loadAllKeysInvocations.incrementAndGet();
+            List<Integer> keys = new ArrayList<Integer>(size);
+            for (int i = 0; i < size; i++) {
+                keys.add(i);
+            }
+            return keys;
+        }
+
+        @Override
+        public int getKeySegmentCount() {
+            return segmentCount;
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys(int segment) {
+            segmentLoads.incrementAndGet(segment);
+            List<Integer> keys = new ArrayList<Integer>();
+            for (int i = segment; i < size; i += segmentCount) {
+                keys.add(i);
+            }
+            return keys;
+        }
+    }
+}
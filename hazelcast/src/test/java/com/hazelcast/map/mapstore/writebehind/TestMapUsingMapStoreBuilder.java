@@ -9,6 +9,9 @@ import com.hazelcast.core.MapStore;
 import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.test.TestHazelcastInstanceFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.hazelcast.test.HazelcastTestSupport.randomMapName;
 
 public class TestMapUsingMapStoreBuilder<K, V> {
@@ -39,6 +42,8 @@ public class TestMapUsingMapStoreBuilder<K, V> {
 
     private TestHazelcastInstanceFactory instanceFactory;
 
+    private final Map<GroupProperty, String> properties = new HashMap<GroupProperty, String>();
+
     private TestMapUsingMapStoreBuilder() {
     }
 
@@ -127,6 +132,11 @@ public class TestMapUsingMapStoreBuilder<K, V> {
         return this;
     }
 
+    public TestMapUsingMapStoreBuilder<K, V> withProperty(GroupProperty property, String value) {
+        properties.put(property, value);
+        return this;
+    }
+
     public IMap<K, V> build() {
         if (backupCount != 0 && backupCount > nodeCount - 1) {
             throw new IllegalArgumentException("backupCount > nodeCount - 1");
@@ -152,6 +162,9 @@ public class TestMapUsingMapStoreBuilder<K, V> {
         if (backupDelaySeconds > 0) {
             config.setProperty(GroupProperty.MAP_REPLICA_SCHEDULED_TASK_DELAY_SECONDS, String.valueOf(backupCount));
         }
+        for (Map.Entry<GroupProperty, String> property : properties.entrySet()) {
+            config.setProperty(property.getKey(), property.getValue());
+        }
 
         // nodes
         nodes = new HazelcastInstance[nodeCount];
@@ -19,10 +19,12 @@ import org.junit.runner.RunWith;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueues.createBoundedWriteBehindQueue;
 import static com.hazelcast.map.impl.mapstore.writebehind.WriteBehindQueues.createDefaultWriteBehindQueue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelTest.class})
@@ -83,6 +85,41 @@ public class WriteBehindQueueTest extends HazelcastTestSupport {
         assertEquals(0, counter.intValue());
     }
 
+    @Test(expected = ReachedMaxSizeException.class)
+    public void testWBQMaxBytesException_onCoalescedWBQ() {
+        final AtomicLong byteCounter = new AtomicLong(0);
+        final WriteBehindQueue<DelayedEntry> queue1 = createDefaultWriteBehindQueue(10000, byteCounter);
+        final WriteBehindQueue<DelayedEntry> queue2 = createDefaultWriteBehindQueue(10000, byteCounter);
+
+        addEnd(1000, queue1);
+        addEnd(1000, queue2);
+    }
+
+    @Test
+    public void testWBQ_byteCounter_followsQueueContent() {
+        final AtomicLong byteCounter = new AtomicLong(0);
+        final WriteBehindQueue<DelayedEntry> queue = createBoundedWriteBehindQueue(1000, new AtomicInteger(0),
+                Long.MAX_VALUE, byteCounter);
+        addEnd(100, queue);
+
+        assertTrue(byteCounter.get() > 0);
+        assertEquals(queue.getHeapCost(), byteCounter.get());
+
+        queue.drainTo(new ArrayList<DelayedEntry>(100));
+
+        assertEquals(0, byteCounter.get());
+        assertEquals(0, queue.getHeapCost());
+    }
+
+    @Test
+    public void testWBQ_addFirst_acceptedOverMaxBytes() {
+        final AtomicLong byteCounter = new AtomicLong(0);
+        final WriteBehindQueue<DelayedEntry> queue = createDefaultWriteBehindQueue(1, byteCounter);
+
+        queue.addFirst(createDelayedEntryList(100));
+
+        assertEquals(100, queue.size());
+    }
 
     @Test
     public void testOffer_thenRemove_thenOffer() {
@@ -0,0 +1,93 @@
+package com.hazelcast.map.mapstore.writebehind;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapStoreAdapter;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class WriteBehindStoreConcurrencyTest extends HazelcastTestSupport {
+
+    @Test
+    public void testUpdatesOfAKeyAreStoredInOrder_whenPartitionsAreStoredConcurrently() throws Exception {
+        final int keyCount = 64;
+        final int updateCount = 20;
+        final RecordingMapStore mapStore = new RecordingMapStore();
+        final IMap<Integer, Integer> map = TestMapUsingMapStoreBuilder.<Integer, Integer>create()
+                .withMapStore(mapStore)
+                .withNodeCount(1)
+                .withNodeFactory(createHazelcastInstanceFactory(1))
+                .withWriteDelaySeconds(1)
+                .withWriteCoalescing(false)
+                .withPartitionCount(16)
+                .withProperty(GroupProperty.MAP_WRITE_BEHIND_STORE_CONCURRENCY, "4")
+                .build();
+
+        for (int value = 0; value < updateCount; value++) {
+            for (int key = 0; key < keyCount; key++) {
+                map.put(key, value);
+            }
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                for (int key = 0; key < keyCount; key++) {
+                    List<Integer> storedValues = mapStore.getStoredValues(key);
+                    assertEquals("stored values of key " + key, updateCount, storedValues.size());
+                }
+            }
+        });
+
+        for (int key = 0; key < keyCount; key++) {
+            List<Integer> storedValues = mapStore.getStoredValues(key);
+            for (int value = 0; value < updateCount; value++) {
+                assertEquals("stored values of key " + key + ": " + storedValues, value, (int) storedValues.get(value));
+            }
+        }
+    }
+
+    static class RecordingMapStore extends MapStoreAdapter<Integer, Integer> {
+
+        private final ConcurrentMap<Integer, List<Integer>> storedValues = new ConcurrentHashMap<Integer, List<Integer>>();
+
+        @Override
+        public void store(Integer key, Integer value) {
+            List<Integer> values = storedValues.get(key);
+            if (values == null) {
+                List<Integer> newValues = Collections.synchronizedList(new ArrayList<Integer>());
+                values = storedValues.putIfAbsent(key, newValues);
+                if (values == null) {
+                    values = newValues;
+                }
+            }
+            values.add(value);
+        }
+
+        List<Integer> getStoredValues(int key) {
+            List<Integer> values = storedValues.get(key);
+            if (values == null) {
+                return Collections.emptyList();
+            }
+            synchronized (values) {
+                return new ArrayList<Integer>(values);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.hazelcast.map.mapstore.writebehind;
 
 import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -9,6 +10,9 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -43,6 +47,53 @@ public class WriteBehindWriteBatchingTest extends HazelcastTestSupport {
 
     }
 
+    @Test
+    public void testWriteBatchSizeShrinks_whenMapStoreIsSlowerThanTargetLatency() throws Exception {
+        final int writeBatchSize = 64;
+        final SlowMapStore<Integer, Integer> mapStore = new SlowMapStore<Integer, Integer>(30);
+        final IMap<Integer, Integer> map = TestMapUsingMapStoreBuilder.<Integer, Integer>create()
+                .withMapStore(mapStore)
+                .withNodeCount(1)
+                .withNodeFactory(createHazelcastInstanceFactory(1))
+                .withWriteDelaySeconds(3)
+                .withPartitionCount(1)
+                .withWriteBatchSize(writeBatchSize)
+                .withProperty(GroupProperty.MAP_WRITE_BEHIND_BATCH_TARGET_LATENCY_MILLIS, "10")
+                .build();
+
+        final int numberOfItems = 256;
+        populateMap(map, numberOfItems);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(numberOfItems, mapStore.size());
+            }
+        });
+
+        // every batch call is slower than the target latency, so only the first one can have the configured size
+        assertTrue(mapStore.findNumberOfBatchsEqualWriteBatchSize(writeBatchSize) <= 1);
+        int smallestBatch = writeBatchSize;
+        for (int size : mapStore.getBatchOpCountMap().values()) {
+            smallestBatch = Math.min(smallestBatch, size);
+        }
+        assertTrue("smallest batch: " + smallestBatch, smallestBatch <= writeBatchSize / 8);
+    }
+
+    private static class SlowMapStore<K, V> extends MapStoreWithCounter<K, V> {
+
+        private final long storeAllMillis;
+
+        SlowMapStore(long storeAllMillis) {
+            this.storeAllMillis = storeAllMillis;
+        }
+
+        @Override
+        public void storeAll(Map<K, V> map) {
+            sleepMillis((int) storeAllMillis);
+            super.storeAll(map);
+        }
+    }
+
     private void populateMap(IMap map, int numberOfItems) {
         for (int i = 0; i < numberOfItems; i++) {
             map.put(i, i);
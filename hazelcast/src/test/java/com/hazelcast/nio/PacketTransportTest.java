@@ -94,6 +94,24 @@ public class PacketTransportTest extends HazelcastTestSupport {
         assertPacketEquals(originalPacket, clonedPacket);
     }
 
+    // the header written by writeHeaderTo followed by the value should be readable as a normal packet.
+    @Test
+    public void writeHeaderTo() {
+        Packet originalPacket = new Packet("foobar".getBytes(), 10);
+
+        ByteBuffer bb = ByteBuffer.allocate(100);
+        assertTrue(originalPacket.writeHeaderTo(bb));
+        assertEquals(Packet.HEADER_SIZE, bb.position());
+        bb.put(originalPacket.toByteArray(), 0, originalPacket.totalSize());
+        bb.flip();
+
+        Packet clonedPacket = new Packet();
+        assertTrue(clonedPacket.readFrom(bb));
+
+        assertPacketEquals(originalPacket, clonedPacket);
+        assertEquals(10, clonedPacket.getPartitionId());
+    }
+
     private void assertPacketEquals(Packet originalPacket, Packet clonedPacket) {
         assertEquals(originalPacket.getHeader(), clonedPacket.getHeader());
         assertArrayEquals(originalPacket.toByteArray(), clonedPacket.toByteArray());
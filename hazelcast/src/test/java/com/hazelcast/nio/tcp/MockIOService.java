@@ -185,6 +185,21 @@ public class MockIOService implements IOService {
         return 32;
     }
 
+    @Override
+    public int getSocketGatheringWriteThreshold() {
+        return 16;
+    }
+
+    @Override
+    public int getSocketWriteCoalesceMicros() {
+        return 0;
+    }
+
+    @Override
+    public int getSocketWriteCoalesceBytes() {
+        return 16384;
+    }
+
     @Override
     public int getSocketLingerSeconds() {
         return 0;
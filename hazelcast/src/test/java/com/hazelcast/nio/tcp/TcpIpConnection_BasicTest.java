@@ -76,6 +76,31 @@ public abstract class TcpIpConnection_BasicTest extends TcpIpConnection_Abstract
         assertEquals(packet, found);
     }
 
+    // a large packet can be written using a gathering write; the order of the packets should not change.
+    @Test
+    public void write_whenLargePacket() {
+        TcpIpConnection c = connect(connManagerA, addressB);
+
+        Packet small1 = new Packet(serializationService.toBytes("foo"));
+        Packet large = new Packet(serializationService.toBytes(new byte[500 * 1024]));
+        Packet small2 = new Packet(serializationService.toBytes("bar"));
+
+        assertTrue(c.write(small1));
+        assertTrue(c.write(large));
+        assertTrue(c.write(small2));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(3, packetsB.size());
+            }
+        });
+
+        assertEquals(small1, packetsB.get(0));
+        assertEquals(large, packetsB.get(1));
+        assertEquals(small2, packetsB.get(2));
+    }
+
     @Test
     public void lastWriteTimeMillis_whenPacketWritten() {
         TcpIpConnection connAB = connect(connManagerA, addressB);
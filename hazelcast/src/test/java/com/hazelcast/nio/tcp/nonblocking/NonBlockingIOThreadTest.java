@@ -17,11 +17,14 @@ import java.nio.channels.spi.SelectorProvider;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.doThrow;
@@ -146,6 +149,91 @@ public abstract class NonBlockingIOThreadTest extends HazelcastTestSupport {
         verify(oomeHandler).handle(any(OutOfMemoryError.class));
     }
 
+    // the selector is only woken up by the first task added in a round, so we verify that no tasks get stuck
+    // till the select times out.
+    @Test
+    public void whenTasksAddedConcurrently_thenAllExecutedWithoutSelectTimeout() throws Exception {
+        startThread();
+
+        final int producerCount = 4;
+        final int tasksPerProducer = 1000;
+        final CountDownLatch executed = new CountDownLatch(producerCount * tasksPerProducer);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        };
+
+        for (int k = 0; k < producerCount; k++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < tasksPerProducer; i++) {
+                        thread.addTaskAndWakeup(task);
+                    }
+                }
+            }.start();
+        }
+
+        // the select wait time is 5 seconds, so a missed wakeup would make this assert fail.
+        assertOpenEventually(executed, 3);
+    }
+
+    // a delayed task must bound the select wait, otherwise it would only run after the select times out.
+    @Test
+    public void whenDelayedTaskAdded_thenExecutedAfterDelayWithoutSelectTimeout() throws Exception {
+        startThread();
+
+        final long delayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        final CountDownLatch executed = new CountDownLatch(1);
+        final AtomicLong addedNanos = new AtomicLong();
+        final AtomicLong executedNanos = new AtomicLong();
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                addedNanos.set(System.nanoTime());
+                thread.addDelayedTask(new Runnable() {
+                    @Override
+                    public void run() {
+                        executedNanos.set(System.nanoTime());
+                        executed.countDown();
+                    }
+                }, delayNanos);
+            }
+        });
+
+        assertOpenEventually(executed, 3);
+        assertTrue(executedNanos.get() - addedNanos.get() >= delayNanos);
+    }
+
+    // a delay below the millisecond resolution of the selector must not make the select block.
+    @Test
+    public void whenSubMillisecondDelayedTaskAdded_thenExecutedAfterDelay() throws Exception {
+        startThread();
+
+        final long delayNanos = TimeUnit.MICROSECONDS.toNanos(200);
+        final CountDownLatch executed = new CountDownLatch(1);
+        final AtomicLong addedNanos = new AtomicLong();
+        final AtomicLong executedNanos = new AtomicLong();
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                addedNanos.set(System.nanoTime());
+                thread.addDelayedTask(new Runnable() {
+                    @Override
+                    public void run() {
+                        executedNanos.set(System.nanoTime());
+                        executed.countDown();
+                    }
+                }, delayNanos);
+            }
+        });
+
+        assertOpenEventually(executed, 3);
+        assertTrue(executedNanos.get() - addedNanos.get() >= delayNanos);
+    }
+
     @Test
     public void testToString() {
         startThread();
@@ -0,0 +1,46 @@
+package com.hazelcast.nio.tcp.nonblocking;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.nio.tcp.IOThreadingModelFactory;
+import com.hazelcast.nio.tcp.MockIOService;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.spi.impl.operationexecutor.threadpercore.CoreThread;
+
+public class ThreadPerCore_IOThreadingModelFactory implements IOThreadingModelFactory {
+
+    private static final int THREAD_COUNT = 2;
+
+    @Override
+    public ThreadPerCoreIOThreadingModel create(MockIOService ioService, MetricsRegistry metricsRegistry) {
+        NonBlockingIOThreadOutOfMemoryHandler oomeHandler = new NonBlockingIOThreadOutOfMemoryHandler() {
+            @Override
+            public void handle(OutOfMemoryError error) {
+            }
+        };
+
+        final CoreThread[] threads = new CoreThread[THREAD_COUNT];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new CoreThread(ioService.getThreadPrefix() + "core-" + k, k,
+                    ioService.getLogger(CoreThread.class.getName()), ioService.hazelcastThreadGroup, oomeHandler,
+                    new OperationRunner[0]);
+        }
+
+        // in production the threads are owned by the ThreadPerCoreOperationExecutor
+        return new ThreadPerCoreIOThreadingModel(ioService.loggingService, metricsRegistry, threads) {
+            @Override
+            public void start() {
+                super.start();
+                for (CoreThread thread : threads) {
+                    thread.start();
+                }
+            }
+
+            @Override
+            public void shutdown() {
+                for (CoreThread thread : threads) {
+                    thread.shutdown();
+                }
+            }
+        };
+    }
+}
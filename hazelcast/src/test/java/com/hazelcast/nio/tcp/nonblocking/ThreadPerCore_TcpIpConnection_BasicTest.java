@@ -0,0 +1,19 @@
+package com.hazelcast.nio.tcp.nonblocking;
+
+import com.hazelcast.nio.tcp.TcpIpConnection_BasicTest;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ThreadPerCore_TcpIpConnection_BasicTest extends TcpIpConnection_BasicTest {
+
+    @Before
+    public void setup() throws Exception {
+        threadingModelFactory = new ThreadPerCore_IOThreadingModelFactory();
+        super.setup();
+    }
+}
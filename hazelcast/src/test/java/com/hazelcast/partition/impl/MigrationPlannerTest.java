@@ -0,0 +1,93 @@
+package com.hazelcast.partition.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.partition.MigrationInfo;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MigrationPlannerTest {
+
+    private Address a;
+    private Address b;
+    private Address c;
+    private Address d;
+
+    @Before
+    public void setUp() throws Exception {
+        a = new Address("127.0.0.1", 5701);
+        b = new Address("127.0.0.1", 5702);
+        c = new Address("127.0.0.1", 5703);
+        d = new Address("127.0.0.1", 5704);
+    }
+
+    @Test
+    public void testOrder_interleavesSourcesAndDestinations() {
+        MigrationInfo m0 = new MigrationInfo(0, a, c);
+        MigrationInfo m1 = new MigrationInfo(1, a, c);
+        MigrationInfo m2 = new MigrationInfo(2, a, d);
+        MigrationInfo m3 = new MigrationInfo(3, b, c);
+        MigrationInfo m4 = new MigrationInfo(4, b, d);
+
+        List<MigrationInfo> ordered = MigrationPlanner.order(asList(m0, m1, m2, m3, m4));
+
+        assertEquals(asList(m0, m3, m2, m4, m1), ordered);
+    }
+
+    @Test
+    public void testTryStart_respectsMemberBudget() {
+        MigrationPlanner planner = new MigrationPlanner(10, 1);
+        MigrationInfo m0 = new MigrationInfo(0, a, c);
+        MigrationInfo m1 = new MigrationInfo(1, a, d);
+        MigrationInfo m2 = new MigrationInfo(2, b, d);
+
+        assertTrue(planner.tryStart(m0));
+        assertFalse(planner.tryStart(m1));
+        assertTrue(planner.tryStart(m2));
+        assertEquals(2, planner.getMigrationCount());
+
+        planner.finish(m0);
+        assertFalse(planner.tryStart(m1));
+        planner.finish(m2);
+        assertTrue(planner.tryStart(m1));
+    }
+
+    @Test
+    public void testTryStart_respectsOverallBudget() {
+        MigrationPlanner planner = new MigrationPlanner(1, 2);
+        MigrationInfo m0 = new MigrationInfo(0, a, c);
+        MigrationInfo m1 = new MigrationInfo(1, b, d);
+
+        assertTrue(planner.tryStart(m0));
+        assertFalse(planner.tryStart(m1));
+        assertFalse(planner.isParallel());
+
+        planner.finish(m0);
+        assertTrue(planner.tryStart(m1));
+    }
+
+    @Test
+    public void testAwaitIdle_timesOutWhileMigrationRuns() throws InterruptedException {
+        MigrationPlanner planner = new MigrationPlanner(2, 2);
+        MigrationInfo m0 = new MigrationInfo(0, a, c);
+
+        assertTrue(planner.tryStart(m0));
+        assertFalse(planner.awaitIdle(10));
+
+        planner.finish(m0);
+        assertTrue(planner.awaitIdle(10));
+    }
+}
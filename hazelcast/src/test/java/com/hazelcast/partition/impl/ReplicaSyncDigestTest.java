@@ -0,0 +1,124 @@
+package com.hazelcast.partition.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapReplicaDigest;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ReplicaSyncDigestTest extends HazelcastTestSupport {
+
+    private String mapName;
+    private HazelcastInstance owner;
+    private HazelcastInstance backup;
+    private int partitionId;
+    private Data key;
+
+    @Before
+    public void setUp() {
+        mapName = randomMapName();
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        owner = factory.newHazelcastInstance();
+        backup = factory.newHazelcastInstance();
+        warmUpPartitions(owner, backup);
+
+        String ownedKey = generateKeyOwnedBy(owner);
+        partitionId = getPartitionService(owner).getPartitionId(ownedKey);
+        key = getSerializationService(owner).toData(ownedKey);
+
+        IMap<Object, Object> map = owner.getMap(mapName);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        map.put(ownedKey, "value");
+        waitAllForSafeState(owner, backup);
+    }
+
+    @Test
+    public void testDigest_differsOnlyInRangeOfDivergedKey() {
+        RecordStore ownerRecordStore = getRecordStore(owner);
+        RecordStore backupRecordStore = getRecordStore(backup);
+        int rangeCount = 8;
+        SerializationService serializationService = getSerializationService(owner);
+
+        long[] ownerHashes = MapReplicaDigest.computeRangeHashes(ownerRecordStore, rangeCount, serializationService);
+        long[] backupHashes = MapReplicaDigest.computeRangeHashes(backupRecordStore, rangeCount, serializationService);
+        assertNull(MapReplicaDigest.getDifferingRanges(ownerHashes, backupHashes));
+
+        backupRecordStore.removeRecord(key);
+        backupHashes = MapReplicaDigest.computeRangeHashes(backupRecordStore, rangeCount, serializationService);
+        boolean[] ranges = MapReplicaDigest.getDifferingRanges(ownerHashes, backupHashes);
+
+        assertNotNull(ranges);
+        int range = MapReplicaDigest.getRange(key, rangeCount);
+        for (int i = 0; i < rangeCount; i++) {
+            assertEquals(i == range, ranges[i]);
+        }
+    }
+
+    @Test
+    public void testDigest_differsOnDivergedMetadata() {
+        RecordStore ownerRecordStore = getRecordStore(owner);
+        RecordStore backupRecordStore = getRecordStore(backup);
+        int rangeCount = 8;
+        SerializationService serializationService = getSerializationService(owner);
+
+        long[] ownerHashes = MapReplicaDigest.computeRangeHashes(ownerRecordStore, rangeCount, serializationService);
+        Record record = backupRecordStore.getRecord(key);
+        record.setTtl(TimeUnit.MINUTES.toMillis(1));
+        long[] backupHashes = MapReplicaDigest.computeRangeHashes(backupRecordStore, rangeCount, serializationService);
+        assertNotNull(MapReplicaDigest.getDifferingRanges(ownerHashes, backupHashes));
+
+        record.setTtl(ownerRecordStore.getRecord(key).getTtl());
+        record.setVersion(record.getVersion() + 1);
+        backupHashes = MapReplicaDigest.computeRangeHashes(backupRecordStore, rangeCount, serializationService);
+        assertNotNull(MapReplicaDigest.getDifferingRanges(ownerHashes, backupHashes));
+    }
+
+    @Test
+    public void testReplicaSync_restoresDivergedBackup() {
+        final RecordStore ownerRecordStore = getRecordStore(owner);
+        final RecordStore backupRecordStore = getRecordStore(backup);
+        final Data staleKey = getSerializationService(backup).toData(generateKeyForPartition(backup, partitionId));
+        backupRecordStore.removeRecord(key);
+        backupRecordStore.putBackup(staleKey, "stale");
+
+        InternalPartitionServiceImpl partitionService = (InternalPartitionServiceImpl) getPartitionService(backup);
+        partitionService.triggerPartitionReplicaSync(partitionId, 1, 0L);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertNotNull(backupRecordStore.getRecord(key));
+                assertNull(backupRecordStore.getRecord(staleKey));
+                assertEquals(ownerRecordStore.size(), backupRecordStore.size());
+            }
+        });
+    }
+
+    private RecordStore getRecordStore(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getPartitionContainer(partitionId).getExistingRecordStore(mapName);
+    }
+}
@@ -0,0 +1,69 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.SlowTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.SampleObjects.Employee;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the heap retained per entry by a bitmap index and by an unsorted index of a low-cardinality attribute.
+ */
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(SlowTest.class)
+public class BitmapIndexMemoryTest {
+
+    private static final int ENTRY_COUNT = 200000;
+
+    @Test
+    public void bitmapIndex_retainsLessThanUnsortedIndex() {
+        List<QueryableEntry> entries = new ArrayList<QueryableEntry>(ENTRY_COUNT);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Employee employee = new Employee(i, "name" + (i % 10), i % 100, true, i);
+            entries.add(new QueryEntry(null, toData(i), i, employee));
+        }
+
+        long bitmapBytesPerEntry = measureBytesPerEntry(entries, true);
+        long unsortedBytesPerEntry = measureBytesPerEntry(entries, false);
+
+        String message = "bitmap: " + bitmapBytesPerEntry + " bytes/entry, unsorted: " + unsortedBytesPerEntry
+                + " bytes/entry";
+        assertTrue(message, bitmapBytesPerEntry <= 32);
+        assertTrue(message, bitmapBytesPerEntry * 3 <= unsortedBytesPerEntry);
+    }
+
+    private static long measureBytesPerEntry(List<QueryableEntry> entries, boolean bitmap) {
+        long before = usedMemory();
+        Indexes indexes = new Indexes();
+        indexes.addOrGetIndex("name", false, bitmap);
+        for (QueryableEntry entry : entries) {
+            indexes.saveEntryIndex(entry);
+        }
+        long after = usedMemory();
+        // keeps the index reachable until it is measured
+        assertTrue(indexes.getIndex("name").getRecords("name1").size() > 0);
+        return (after - before) / entries.size();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // repeats until a collection doesn't free any more memory
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                break;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
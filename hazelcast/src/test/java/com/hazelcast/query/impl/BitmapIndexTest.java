@@ -0,0 +1,205 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.Set;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static com.hazelcast.query.SampleObjects.Employee;
+import static com.hazelcast.query.SampleObjects.State;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BitmapIndexTest extends HazelcastTestSupport {
+
+    @Test
+    public void addOrGetIndex_whenBitmap() {
+        Indexes indexes = new Indexes();
+
+        Index index = indexes.addOrGetIndex("name", true, true);
+
+        assertTrue(index instanceof BitmapIndexImpl);
+        assertFalse(index.isOrdered());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addOrGetIndex_whenBitmapAndComposite_thenIllegalArgumentException() {
+        Indexes indexes = new Indexes();
+
+        indexes.addOrGetIndex("name,age", false, true);
+    }
+
+    @Test
+    public void getRecords() {
+        Indexes indexes = newIndexes();
+
+        Set<QueryableEntry> records = indexes.getIndex("name").getRecords("name3");
+
+        assertTrue(records instanceof BitmapResultSet);
+        assertEquals(100, records.size());
+        for (QueryableEntry entry : records) {
+            assertEquals("name3", ((Employee) entry.getValue()).getName());
+        }
+        assertEquals(10, ((BitmapIndexImpl) indexes.getIndex("name")).getValueCount());
+    }
+
+    @Test
+    public void getRecords_whenConversionNeeded() {
+        Indexes indexes = newIndexes();
+
+        assertEquals(10, indexes.getIndex("age").getRecords("13").size());
+    }
+
+    @Test
+    public void getSubRecords() {
+        Indexes indexes = newIndexes();
+
+        assertEquals(900, countEntries(indexes.getIndex("name").getSubRecords(ComparisonType.NOT_EQUAL, "name3")));
+        assertEquals(10, countEntries(indexes.getIndex("age").getSubRecords(ComparisonType.LESSER, 11)));
+        assertEquals(30, countEntries(indexes.getIndex("age").getSubRecordsBetween(12, 10)));
+    }
+
+    @Test
+    public void getSubRecords_whenNotEqual_thenNullValuesAndRemovedEntriesExcluded() {
+        Indexes indexes = newIndexes();
+        indexes.saveEntryIndex(new QueryEntry(null, toData(0), 0, new Employee(0, null, 10, true, 0)));
+        indexes.removeEntryIndex(toData(1));
+
+        Set<QueryableEntry> records = indexes.getIndex("name").getSubRecords(ComparisonType.NOT_EQUAL, "name3");
+
+        assertTrue(records instanceof BitmapResultSet);
+        assertEquals(898, records.size());
+        for (QueryableEntry entry : records) {
+            String name = ((Employee) entry.getValue()).getName();
+            assertTrue(name != null && !"name3".equals(name));
+        }
+    }
+
+    @Test
+    public void query_and_intersectsBitmaps() {
+        Indexes indexes = newIndexes();
+        Predicate predicate = and(equal("name", "name3"), between("age", 10, 19));
+
+        Set<QueryableEntry> result = indexes.query(predicate);
+
+        assertEquals(10, countEntries(result));
+        for (QueryableEntry entry : result) {
+            Employee employee = (Employee) entry.getValue();
+            assertEquals("name3", employee.getName());
+            assertEquals(13, employee.getAge());
+        }
+    }
+
+    @Test
+    public void query_or_unitesBitmaps() {
+        Indexes indexes = newIndexes();
+        Predicate predicate = or(equal("name", "name3"), equal("age", 10));
+
+        Set<QueryableEntry> result = indexes.query(predicate);
+
+        assertEquals(110, countEntries(result));
+        for (QueryableEntry entry : result) {
+            Employee employee = (Employee) entry.getValue();
+            assertTrue("name3".equals(employee.getName()) || employee.getAge() == 10);
+        }
+    }
+
+    @Test
+    public void query_andNot() {
+        Indexes indexes = newIndexes();
+        Predicate predicate = and(equal("age", 13), notEqual("name", "name3"));
+
+        assertEquals(0, countEntries(indexes.query(predicate)));
+    }
+
+    @Test
+    public void updateAndRemove() {
+        Indexes indexes = newIndexes();
+        Employee employee = new Employee(0, "name3", 13, true, 0);
+
+        indexes.saveEntryIndex(new QueryEntry(null, toData(0), 0, employee));
+        indexes.removeEntryIndex(toData(1));
+
+        assertEquals(101, countEntries(indexes.getIndex("name").getRecords("name3")));
+        assertEquals(99, countEntries(indexes.getIndex("name").getRecords("name0")));
+        assertEquals(99, countEntries(indexes.getIndex("name").getRecords("name1")));
+    }
+
+    @Test
+    public void removedOrdinal_isNotReturnedForReusingEntry() {
+        Indexes indexes = newIndexes();
+        Set<QueryableEntry> records = indexes.getIndex("name").getRecords("name1");
+
+        // entry 1 releases its ordinal, which is then reused by a new entry that doesn't match
+        indexes.removeEntryIndex(toData(1));
+        indexes.saveEntryIndex(new QueryEntry(null, toData(5000), 5000, new Employee(5000, "name2", 10, true, 0)));
+
+        assertEquals(99, countEntries(records));
+        for (QueryableEntry entry : records) {
+            assertEquals("name1", ((Employee) entry.getValue()).getName());
+        }
+    }
+
+    @Test
+    public void query_withMapIndexConfig() {
+        Config config = new Config();
+        config.getMapConfig("employees").addMapIndexConfig(new MapIndexConfig("state", false).setBitmap(true));
+        config.getMapConfig("employees").addMapIndexConfig(new MapIndexConfig("name", false).setBitmap(true));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Employee> map = instance.getMap("employees");
+        for (int i = 0; i < 1000; i++) {
+            State state = i % 2 == 0 ? State.STATE1 : State.STATE2;
+            map.put(i, new Employee(i, "name" + (i % 10), i % 100, true, i, state));
+        }
+
+        Collection<Employee> values = map.values(new SqlPredicate("name = 'name4' and state = 'STATE1'"));
+
+        assertEquals(100, values.size());
+        for (Employee employee : values) {
+            assertEquals("name4", employee.getName());
+            assertEquals(State.STATE1, employee.getState());
+        }
+        assertEquals(0, map.values(new SqlPredicate("name = 'name3' and state = 'STATE1'")).size());
+        assertEquals(600, map.values(new SqlPredicate("name = 'name3' or state = 'STATE1'")).size());
+    }
+
+    private static int countEntries(Set<QueryableEntry> entries) {
+        int count = 0;
+        for (QueryableEntry ignored : entries) {
+            count++;
+        }
+        return count;
+    }
+
+    private static Indexes newIndexes() {
+        Indexes indexes = new Indexes();
+        indexes.addOrGetIndex("name", false, true);
+        indexes.addOrGetIndex("age", false, true);
+        for (int i = 0; i < 1000; i++) {
+            Employee employee = new Employee(i, "name" + (i % 10), 10 + (i % 100), true, i);
+            indexes.saveEntryIndex(new QueryEntry(null, toData(i), i, employee));
+        }
+        return indexes;
+    }
+}
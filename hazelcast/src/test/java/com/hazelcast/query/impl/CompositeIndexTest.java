@@ -0,0 +1,179 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.SqlPredicate;
+import com.hazelcast.query.impl.predicates.CompositeEqualPredicate;
+import com.hazelcast.query.impl.predicates.RuleBasedQueryOptimizer;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.SampleObjects.Employee;
+import static com.hazelcast.query.SampleObjects.State;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexTest extends HazelcastTestSupport {
+
+    @Test
+    public void addOrGetIndex_normalizesName() {
+        Indexes indexes = new Indexes();
+
+        Index index = indexes.addOrGetIndex("name, age", false);
+
+        assertTrue(index instanceof CompositeIndexImpl);
+        assertEquals("name,age", index.getAttributeName());
+        assertSame(index, indexes.addOrGetIndex("name,age", false));
+        assertSame(index, indexes.getIndex("name,age"));
+    }
+
+    @Test
+    public void destroyIndex_removesCompositeIndex() {
+        Indexes indexes = new Indexes();
+        Index index = indexes.addOrGetIndex("name,age", false);
+
+        assertSame(index, indexes.destroyIndex("name, age"));
+
+        assertNull(indexes.getIndex("name,age"));
+        assertFalse(indexes.hasCompositeIndex());
+        assertNull(indexes.matchCompositeIndex(new HashSet<String>(Arrays.asList("name", "age"))));
+        assertEquals(0, indexes.getIndexes().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addOrGetIndex_whenDuplicateAttribute() {
+        new Indexes().addOrGetIndex("name,name", false);
+    }
+
+    @Test
+    public void getRecords() {
+        Indexes indexes = newIndexes(false);
+
+        Set<QueryableEntry> records = indexes.getIndex("name,age").getRecords(new CompositeValue(new Comparable[]{"name3", 13}));
+
+        assertEquals(10, records.size());
+        for (QueryableEntry entry : records) {
+            Employee employee = (Employee) entry.getValue();
+            assertEquals("name3", employee.getName());
+            assertEquals(13, employee.getAge());
+        }
+    }
+
+    @Test
+    public void getRecords_whenOrdered() {
+        Indexes indexes = newIndexes(true);
+
+        Set<QueryableEntry> records = indexes.getIndex("name,age").getRecords(new CompositeValue(new Comparable[]{"name3", 13}));
+
+        assertEquals(10, records.size());
+    }
+
+    @Test
+    public void getRecords_whenConversionNeeded() {
+        Indexes indexes = newIndexes(false);
+
+        CompositeValue value = new CompositeValue(new Comparable[]{"name3", "13"});
+        Set<QueryableEntry> records = indexes.getIndex("name,age").getRecords(value);
+
+        assertEquals(10, records.size());
+    }
+
+    @Test
+    public void matchCompositeIndex_prefersMostAttributes() {
+        Indexes indexes = new Indexes();
+        indexes.addOrGetIndex("name,age", false);
+        indexes.addOrGetIndex("name,age,state", false);
+        indexes.addOrGetIndex("name,city", false);
+
+        Set<String> attributes = setOf("name", "age", "state", "active");
+
+        assertEquals("name,age,state", indexes.matchCompositeIndex(attributes).getAttributeName());
+        assertEquals(null, indexes.matchCompositeIndex(setOf("name", "active")));
+    }
+
+    @Test
+    public void optimizer_rewritesToCompositeLookup() {
+        Indexes indexes = newIndexes(false);
+        Predicate predicate = and(equal("name", "name3"), equal("age", 13), equal("active", true));
+
+        Predicate optimized = new RuleBasedQueryOptimizer().optimize(predicate, indexes);
+
+        assertTrue(optimized.toString(), optimized.toString().startsWith("((name=name3 AND age=13)"));
+        Set<QueryableEntry> result = indexes.query(optimized);
+        int count = 0;
+        for (QueryableEntry entry : result) {
+            if (optimized.apply(entry)) {
+                count++;
+            }
+        }
+        assertEquals(10, count);
+    }
+
+    @Test
+    public void optimizer_whenAllAttributesInComposite() {
+        Indexes indexes = newIndexes(false);
+        Predicate predicate = and(equal("age", 13), equal("name", "name3"));
+
+        Predicate optimized = new RuleBasedQueryOptimizer().optimize(predicate, indexes);
+
+        assertTrue(optimized instanceof CompositeEqualPredicate);
+        assertEquals(10, indexes.query(optimized).size());
+    }
+
+    @Test
+    public void query_withMapIndexConfig() {
+        Config config = new Config();
+        config.getMapConfig("employees").addMapIndexConfig(new MapIndexConfig("name,state", false));
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Employee> map = instance.getMap("employees");
+        for (int i = 0; i < 1000; i++) {
+            State state = i % 2 == 0 ? State.STATE1 : State.STATE2;
+            map.put(i, new Employee(i, "name" + (i % 10), i % 100, true, i, state));
+        }
+
+        Collection<Employee> values = map.values(new SqlPredicate("name = 'name4' and state = 'STATE1'"));
+
+        assertEquals(100, values.size());
+        for (Employee employee : values) {
+            assertEquals("name4", employee.getName());
+            assertEquals(State.STATE1, employee.getState());
+        }
+        assertEquals(0, map.values(new SqlPredicate("name = 'name3' and state = 'STATE1'")).size());
+    }
+
+    private static Indexes newIndexes(boolean ordered) {
+        Indexes indexes = new Indexes();
+        indexes.addOrGetIndex("name,age", ordered);
+        indexes.addOrGetIndex("active", false);
+        for (int i = 0; i < 1000; i++) {
+            Employee employee = new Employee(i, "name" + (i % 10), 10 + (i % 100), true, i);
+            indexes.saveEntryIndex(new QueryEntry(null, toData(i), i, employee));
+        }
+        return indexes;
+    }
+
+    private static Set<String> setOf(String... attributes) {
+        return new HashSet<String>(Arrays.asList(attributes));
+    }
+}
@@ -0,0 +1,115 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompressedBitmapTest {
+
+    @Test
+    public void addRemoveContains() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertTrue(bitmap.add(5));
+        assertFalse(bitmap.add(5));
+        assertTrue(bitmap.add(1 << 20));
+
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(1 << 20));
+        assertFalse(bitmap.contains(6));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(5));
+        assertFalse(bitmap.remove(5));
+        assertFalse(bitmap.contains(5));
+        assertEquals(1, bitmap.cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_whenNegative() {
+        new CompressedBitmap().add(-1);
+    }
+
+    @Test
+    public void nextSetBit_whenEmpty() {
+        assertEquals(-1, new CompressedBitmap().nextSetBit(0));
+    }
+
+    @Test
+    public void denseChunk_convertsBackAndForth() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int count = CompressedBitmap.ARRAY_CONTAINER_MAX_SIZE * 2;
+        for (int i = 0; i < count; i++) {
+            bitmap.add(i);
+        }
+        assertEquals(count, bitmap.cardinality());
+
+        for (int i = 0; i < count; i += 2) {
+            bitmap.remove(i);
+        }
+
+        assertEquals(count / 2, bitmap.cardinality());
+        assertEquals(1, bitmap.nextSetBit(0));
+        assertEquals(3, bitmap.nextSetBit(2));
+        assertFalse(bitmap.contains(2));
+    }
+
+    @Test
+    public void randomized_matchesTreeSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int range = round % 2 == 0 ? 1 << 14 : 1 << 20;
+            TreeSet<Integer> expectedA = new TreeSet<Integer>();
+            TreeSet<Integer> expectedB = new TreeSet<Integer>();
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            for (int i = 0; i < 10000; i++) {
+                int value = random.nextInt(range);
+                if (random.nextInt(4) == 0) {
+                    assertEquals(expectedA.remove(value), a.remove(value));
+                } else {
+                    assertEquals(expectedA.add(value), a.add(value));
+                }
+                value = random.nextInt(range);
+                assertEquals(expectedB.add(value), b.add(value));
+            }
+
+            assertBitmap(expectedA, a);
+            assertBitmap(expectedA, a.copy());
+
+            TreeSet<Integer> and = new TreeSet<Integer>(expectedA);
+            and.retainAll(expectedB);
+            assertBitmap(and, CompressedBitmap.and(a, b));
+
+            TreeSet<Integer> or = new TreeSet<Integer>(expectedA);
+            or.addAll(expectedB);
+            assertBitmap(or, CompressedBitmap.or(a, b));
+
+            TreeSet<Integer> andNot = new TreeSet<Integer>(expectedA);
+            andNot.removeAll(expectedB);
+            assertBitmap(andNot, CompressedBitmap.andNot(a, b));
+        }
+    }
+
+    private static void assertBitmap(TreeSet<Integer> expected, CompressedBitmap bitmap) {
+        assertEquals(expected.size(), bitmap.cardinality());
+        TreeSet<Integer> actual = new TreeSet<Integer>();
+        for (int i = bitmap.nextSetBit(0); i >= 0; i = bitmap.nextSetBit(i + 1)) {
+            assertTrue(bitmap.contains(i));
+            actual.add(i);
+        }
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,98 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class EntryOrdinalsTest {
+
+    private final EntryOrdinals ordinals = new EntryOrdinals();
+
+    @Test
+    public void assign_whenSameKey_thenSameOrdinalAndLatestEntry() {
+        int ordinal = ordinals.assign(newEntry(1, "a"));
+        QueryableEntry updated = newEntry(1, "b");
+
+        assertEquals(ordinal, ordinals.assign(updated));
+        assertSame(updated, ordinals.getEntry(ordinal));
+        assertEquals(1, ordinals.size());
+    }
+
+    @Test
+    public void release_thenOrdinalReused() {
+        ordinals.assign(newEntry(1, "a"));
+        int ordinal = ordinals.assign(newEntry(2, "b"));
+
+        ordinals.release(toData(2));
+
+        assertEquals(-1, ordinals.getOrdinal(toData(2)));
+        assertNull(ordinals.getEntry(ordinal));
+        assertEquals(ordinal, ordinals.assign(newEntry(3, "c")));
+        assertEquals(2, ordinals.size());
+    }
+
+    @Test
+    public void release_whenUnknownKey_thenIgnored() {
+        ordinals.assign(newEntry(1, "a"));
+
+        ordinals.release(toData(2));
+
+        assertEquals(1, ordinals.size());
+    }
+
+    @Test
+    public void getOrdinal_whenManyEntriesAssignedAndReleased() {
+        int count = 10000;
+        Set<Integer> assigned = new HashSet<Integer>();
+        for (int i = 0; i < count; i++) {
+            assertTrue(assigned.add(ordinals.assign(newEntry(i, "v" + i))));
+        }
+        for (int i = 0; i < count; i += 2) {
+            ordinals.release(toData(i));
+        }
+        // reassigning fills the deleted slots and forces rehashes
+        for (int i = count; i < 2 * count; i++) {
+            ordinals.assign(newEntry(i, "v" + i));
+        }
+
+        assertEquals(count + count / 2, ordinals.size());
+        for (int i = 0; i < 2 * count; i++) {
+            int ordinal = ordinals.getOrdinal(toData(i));
+            if (i < count && i % 2 == 0) {
+                assertEquals(-1, ordinal);
+            } else {
+                assertEquals(toData(i), ordinals.getEntry(ordinal).getIndexKey());
+            }
+        }
+        assertTrue(ordinals.getOrdinal(toData(2 * count)) < 0);
+    }
+
+    @Test
+    public void clear() {
+        ordinals.assign(newEntry(1, "a"));
+
+        ordinals.clear();
+
+        assertEquals(0, ordinals.size());
+        assertEquals(-1, ordinals.getOrdinal(toData(1)));
+        assertEquals(0, ordinals.assign(newEntry(2, "b")));
+    }
+
+    private static QueryableEntry newEntry(int key, String value) {
+        return new QueryEntry(null, toData(key), key, value);
+    }
+}
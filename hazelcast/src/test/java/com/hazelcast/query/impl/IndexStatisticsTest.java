@@ -0,0 +1,142 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.instance.TestUtil.toData;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.SampleObjects.Employee;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class IndexStatisticsTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        indexes = new Indexes();
+        indexes.addOrGetIndex("name", false);
+        indexes.addOrGetIndex("age", true);
+        indexes.addOrGetIndex("active", false);
+        indexes.addOrGetIndex("salary", true);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Employee employee = new Employee(i, "name" + i, i % 100, i % 2 == 0, i);
+            indexes.saveEntryIndex(new QueryEntry(null, toData(i), i, employee));
+        }
+    }
+
+    @Test
+    public void getEntryCount() {
+        assertEquals(ENTRY_COUNT, statistics("age").getEntryCount());
+    }
+
+    @Test
+    public void estimateEqual_isExact() {
+        assertEquals(10, statistics("age").estimateEqual(42));
+        assertEquals(ENTRY_COUNT / 2, statistics("active").estimateEqual(true));
+        assertEquals(0, statistics("age").estimateEqual(1000));
+    }
+
+    @Test
+    public void estimateIn_isExact() {
+        assertEquals(30, statistics("age").estimateIn(new Comparable[]{1, 2, 3}));
+    }
+
+    @Test
+    public void estimateComparison() {
+        assertEstimate(500, statistics("salary").estimateComparison(ComparisonType.LESSER, 500));
+        assertEstimate(250, statistics("salary").estimateComparison(ComparisonType.GREATER_EQUAL, 750));
+        assertEquals(ENTRY_COUNT - 10, statistics("age").estimateComparison(ComparisonType.NOT_EQUAL, 42));
+        assertEquals(0, statistics("salary").estimateComparison(ComparisonType.GREATER, 5000));
+    }
+
+    @Test
+    public void estimateBetween() {
+        assertEstimate(200, statistics("salary").estimateBetween(100, 299));
+        assertEstimate(200, statistics("salary").estimateBetween(299, 100));
+    }
+
+    @Test
+    public void estimates_whenIndexModified() {
+        for (int i = 0; i < ENTRY_COUNT / 2; i++) {
+            indexes.removeEntryIndex(toData(i));
+        }
+
+        assertEquals(ENTRY_COUNT / 2, statistics("salary").getEntryCount());
+        assertEquals(0, statistics("salary").estimateComparison(ComparisonType.LESSER, 500));
+        assertEstimate(250, statistics("salary").estimateBetween(500, 749));
+    }
+
+    @Test
+    public void estimates_whenIndexEmpty() {
+        Indexes empty = new Indexes();
+        Index index = empty.addOrGetIndex("age", true);
+
+        assertEquals(0, index.getStatistics().getEntryCount());
+        assertEquals(0, index.getStatistics().estimateEqual(1));
+        assertEquals(0, index.getStatistics().estimateBetween(1, 2));
+    }
+
+    @Test
+    public void andQuery_usesSelectiveIndex() {
+        Predicate predicate = and(equal("active", true), equal("name", "name42"));
+
+        Set<QueryableEntry> result = indexes.query(predicate);
+
+        assertNotNull(result);
+        assertEquals(1, new HashSet<QueryableEntry>(result).size());
+    }
+
+    @Test
+    public void andQuery_appliesNonSelectivePredicates() {
+        Predicate predicate = and(equal("active", true), lessThan("salary", 900), in("age", 0, 2, 4, 5));
+
+        Set<QueryableEntry> result = indexes.query(predicate);
+
+        assertNotNull(result);
+        Set<QueryableEntry> entries = new HashSet<QueryableEntry>(result);
+        assertEquals(27, entries.size());
+        for (QueryableEntry entry : entries) {
+            Employee employee = (Employee) entry.getValue();
+            assertTrue(employee.isActive());
+            assertTrue(employee.getSalary() < 900);
+        }
+    }
+
+    @Test
+    public void andQuery_fallsBackToScan_whenNoIndexIsSelective() {
+        Predicate predicate = and(greaterEqual("age", 0), between("salary", 0, ENTRY_COUNT));
+
+        assertNull(indexes.query(predicate));
+    }
+
+    private IndexStatistics statistics(String attribute) {
+        return indexes.getIndex(attribute).getStatistics();
+    }
+
+    private static void assertEstimate(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual, Math.abs(expected - actual) <= ENTRY_COUNT / 10);
+    }
+}
@@ -0,0 +1,269 @@
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableFactory;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.query.QueryException;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PortableExtractorTest {
+
+    private static final int FACTORY_ID = 1;
+    private static final int ORDER_CLASS_ID = 1;
+    private static final int CUSTOMER_CLASS_ID = 2;
+    private static final int ITEM_CLASS_ID = 3;
+
+    private SerializationService writer;
+    private SerializationService reader;
+
+    @Before
+    public void setUp() {
+        writer = createSerializationService(ByteOrder.BIG_ENDIAN);
+        // a second service, which has not seen the class definitions yet, like another member
+        reader = createSerializationService(ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void getAttribute_topLevelFields() {
+        QueryEntry entry = newEntry(newOrder());
+
+        assertEquals("order-1", entry.getAttribute("id"));
+        assertEquals(42, entry.getAttribute("amount"));
+        assertEquals(AttributeType.INTEGER, entry.getAttributeType("amount"));
+        assertEquals(AttributeType.STRING, entry.getAttributeType("id"));
+    }
+
+    @Test
+    public void getAttribute_nestedPortable() {
+        QueryEntry entry = newEntry(newOrder());
+
+        assertEquals("alice", entry.getAttribute("customer.name"));
+        assertEquals(31, entry.getAttribute("customer.age"));
+        assertEquals(AttributeType.INTEGER, entry.getAttributeType("customer.age"));
+    }
+
+    @Test
+    public void getAttribute_nullNestedPortable() {
+        Order order = newOrder();
+        order.customer = null;
+        QueryEntry entry = newEntry(order);
+
+        assertNull(entry.getAttribute("customer.name"));
+    }
+
+    @Test
+    public void getAttribute_portableArrayElement() {
+        QueryEntry entry = newEntry(newOrder());
+
+        assertEquals("sku-0", entry.getAttribute("items[0].sku"));
+        assertEquals(20.5, entry.getAttribute("items[1].price"));
+        assertEquals(AttributeType.DOUBLE, entry.getAttributeType("items[1].price"));
+        assertNull(entry.getAttribute("items[2].sku"));
+    }
+
+    @Test
+    public void getAttribute_primitiveArrayElement() {
+        QueryEntry entry = newEntry(newOrder());
+
+        assertEquals(7, entry.getAttribute("scores[0]"));
+        assertEquals(9, entry.getAttribute("scores[2]"));
+        assertEquals(AttributeType.INTEGER, entry.getAttributeType("scores[1]"));
+        assertNull(entry.getAttribute("scores[3]"));
+    }
+
+    @Test
+    public void getAttribute_unknownField() {
+        QueryEntry entry = newEntry(newOrder());
+
+        assertNull(entry.getAttribute("unknown"));
+        assertNull(entry.getAttribute("customer.unknown"));
+        assertNull(entry.getAttributeType("unknown"));
+    }
+
+    @Test
+    public void getAttribute_littleEndian() {
+        writer = createSerializationService(ByteOrder.LITTLE_ENDIAN);
+        reader = createSerializationService(ByteOrder.LITTLE_ENDIAN);
+        QueryEntry entry = newEntry(newOrder());
+
+        assertEquals(42, entry.getAttribute("amount"));
+        assertEquals(31, entry.getAttribute("customer.age"));
+        assertEquals(10.0, entry.getAttribute("items[0].price"));
+        assertEquals(8, entry.getAttribute("scores[1]"));
+    }
+
+    @Test(expected = QueryException.class)
+    public void getAttribute_wholeArray() {
+        newEntry(newOrder()).getAttribute("scores");
+    }
+
+    @Test(expected = QueryException.class)
+    public void getAttribute_indexOnNonArray() {
+        newEntry(newOrder()).getAttribute("amount[0]");
+    }
+
+    private QueryEntry newEntry(Order order) {
+        Data value = writer.toData(order);
+        return new QueryEntry(reader, reader.toData(1), 1, value);
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.id = "order-1";
+        order.amount = 42;
+        order.scores = new int[]{7, 8, 9};
+        order.customer = new Customer("alice", 31);
+        order.items = new Item[]{new Item("sku-0", 10.0), new Item("sku-1", 20.5)};
+        return order;
+    }
+
+    private static SerializationService createSerializationService(ByteOrder byteOrder) {
+        return new DefaultSerializationServiceBuilder()
+                .setUseNativeByteOrder(false).setByteOrder(byteOrder)
+                .addPortableFactory(FACTORY_ID, new PortableFactory() {
+                    @Override
+                    public Portable create(int classId) {
+                        switch (classId) {
+                            case ORDER_CLASS_ID:
+                                return new Order();
+                            case CUSTOMER_CLASS_ID:
+                                return new Customer();
+                            case ITEM_CLASS_ID:
+                                return new Item();
+                            default:
+                                return null;
+                        }
+                    }
+                }).build();
+    }
+
+    static class Order implements Portable {
+        String id;
+        int amount;
+        int[] scores;
+        Customer customer;
+        Item[] items;
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return ORDER_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("id", id);
+            writer.writeInt("amount", amount);
+            writer.writeIntArray("scores", scores);
+            if (customer == null) {
+                writer.writeNullPortable("customer", FACTORY_ID, CUSTOMER_CLASS_ID);
+            } else {
+                writer.writePortable("customer", customer);
+            }
+            writer.writePortableArray("items", items);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            id = reader.readUTF("id");
+            amount = reader.readInt("amount");
+            scores = reader.readIntArray("scores");
+            customer = reader.readPortable("customer");
+            Portable[] portables = reader.readPortableArray("items");
+            items = new Item[portables.length];
+            System.arraycopy(portables, 0, items, 0, portables.length);
+        }
+    }
+
+    static class Customer implements Portable {
+        String name;
+        int age;
+
+        Customer() {
+        }
+
+        Customer(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return CUSTOMER_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("name", name);
+            writer.writeInt("age", age);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            name = reader.readUTF("name");
+            age = reader.readInt("age");
+        }
+    }
+
+    static class Item implements Portable {
+        String sku;
+        double price;
+
+        Item() {
+        }
+
+        Item(String sku, double price) {
+            this.sku = sku;
+            this.price = price;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return ITEM_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeUTF("sku", sku);
+            writer.writeDouble("price", price);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            sku = reader.readUTF("sku");
+            price = reader.readDouble("price");
+        }
+    }
+}
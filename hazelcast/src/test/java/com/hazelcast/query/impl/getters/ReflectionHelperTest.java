@@ -42,10 +42,43 @@ public class ReflectionHelperTest {
 
 
 
+    @Test
+    public void extractValue_fromPublicField_method_andNestedAttribute() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person("name" + i, i);
+
+            assertEquals(i, ReflectionHelper.extractValue(person, "age"));
+            assertEquals("name" + i, ReflectionHelper.extractValue(person, "name"));
+            assertEquals(i * 2, ReflectionHelper.extractValue(person, "self.doubleAge"));
+        }
+    }
+
     private static class OuterObject {
         private EmptyInterface emptyInterface;
     }
 
+    public static class Person {
+        public int age;
+        private final String name;
+
+        Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int doubleAge() {
+            return age * 2;
+        }
+
+        public Person getSelf() {
+            return this;
+        }
+    }
+
     private interface EmptyInterface {
 
     }
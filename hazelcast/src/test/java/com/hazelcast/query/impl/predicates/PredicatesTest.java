@@ -64,6 +64,7 @@ import static com.hazelcast.query.SampleObjects.Value;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static java.util.Map.Entry;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
@@ -201,6 +202,16 @@ public class PredicatesTest extends HazelcastTestSupport {
         assertPredicateFalse(between(null, 6, 7), 5);
     }
 
+    @Test
+    public void testComparisons_whenSameInstanceAppliedToManyEntries() {
+        Predicate greaterThan = greaterThan(null, "5");
+        Predicate between = between(null, "4", "6");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i > 5, greaterThan.apply(new DummyEntry(i)));
+            assertEquals(i >= 4 && i <= 6, between.apply(new DummyEntry(i)));
+        }
+    }
+
     @Test
     public void testIn() {
         assertPredicateTrue(in(null, 4, 7, 8, 5), 5);
@@ -0,0 +1,183 @@
+package com.hazelcast.spi.impl.operationexecutor.threadpercore;
+
+import com.hazelcast.instance.GroupProperties;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.impl.operationexecutor.classic.AbstractClassicOperationExecutorTest;
+import com.hazelcast.spi.impl.operationexecutor.classic.GenericOperationThread;
+import com.hazelcast.spi.impl.operationexecutor.classic.PartitionSpecificCallable;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ThreadPerCoreOperationExecutorTest extends AbstractClassicOperationExecutorTest {
+
+    private ThreadPerCoreOperationExecutor threadPerCoreExecutor;
+
+    private ThreadPerCoreOperationExecutor initThreadPerCoreExecutor() {
+        groupProperties = new GroupProperties(config);
+        threadPerCoreExecutor = new ThreadPerCoreOperationExecutor(
+                groupProperties, loggingService, thisAddress, handlerFactory,
+                threadGroup, nodeExtension, metricsRegistry);
+        return threadPerCoreExecutor;
+    }
+
+    @After
+    public void shutdownThreadPerCoreExecutor() {
+        if (threadPerCoreExecutor != null) {
+            threadPerCoreExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_partitionOperation_runsOnOwningCoreThread() {
+        final ThreadPerCoreOperationExecutor executor = initThreadPerCoreExecutor();
+        final int partitionId = 3;
+        final ThreadRecordingOperation operation = new ThreadRecordingOperation(partitionId);
+
+        executor.execute(operation);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                Thread thread = operation.thread.get();
+                assertNotNull(thread);
+                assertEquals(executor.getCoreThreads()[executor.toCoreThreadIndex(partitionId)], thread);
+            }
+        });
+    }
+
+    @Test
+    public void test_genericOperation_runsOnGenericThread() {
+        final ThreadPerCoreOperationExecutor executor = initThreadPerCoreExecutor();
+        final ThreadRecordingOperation operation = new ThreadRecordingOperation(-1);
+
+        executor.execute(operation);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(operation.thread.get() instanceof GenericOperationThread);
+            }
+        });
+    }
+
+    @Test
+    public void test_packetReadByOwningCoreThread_isExecutedWithoutHandoff() {
+        final ThreadPerCoreOperationExecutor executor = initThreadPerCoreExecutor();
+        final int partitionId = 1;
+        final PacketThreadRecordingOperation operation = new PacketThreadRecordingOperation(partitionId);
+        final Packet packet = new Packet(serializationService.toBytes(operation), partitionId);
+        packet.setHeader(Packet.HEADER_OP);
+
+        PartitionSpecificCallable task = new PartitionSpecificCallable(partitionId) {
+            @Override
+            public Object call() {
+                executor.execute(packet);
+                // the packet is processed by the calling thread before execute returns
+                return PacketThreadRecordingOperation.THREAD.get() == Thread.currentThread();
+            }
+        };
+
+        executor.execute(task);
+
+        assertEqualsEventually(task, Boolean.TRUE);
+    }
+
+    @Test
+    public void test_isAllowedToRunInCurrentThread_fromCoreThread() {
+        final ThreadPerCoreOperationExecutor executor = initThreadPerCoreExecutor();
+
+        PartitionSpecificCallable task = new PartitionSpecificCallable(0) {
+            @Override
+            public Object call() {
+                int otherPartitionId = 1;
+                return executor.isAllowedToRunInCurrentThread(new DummyPartitionOperation(0))
+                        && executor.isAllowedToRunInCurrentThread(new DummyGenericOperation())
+                        && !executor.isAllowedToRunInCurrentThread(new DummyPartitionOperation(otherPartitionId));
+            }
+        };
+
+        executor.execute(task);
+
+        assertEqualsEventually(task, Boolean.TRUE);
+    }
+
+    @Test
+    public void test_isInvocationAllowedFromCurrentThread_fromCoreThread() {
+        final ThreadPerCoreOperationExecutor executor = initThreadPerCoreExecutor();
+
+        PartitionSpecificCallable task = new PartitionSpecificCallable(0) {
+            @Override
+            public Object call() {
+                return executor.isInvocationAllowedFromCurrentThread(new DummyPartitionOperation(0), false)
+                        && executor.isInvocationAllowedFromCurrentThread(new DummyPartitionOperation(1), true)
+                        && !executor.isInvocationAllowedFromCurrentThread(new DummyPartitionOperation(1), false)
+                        && !executor.isInvocationAllowedFromCurrentThread(new DummyGenericOperation(), false);
+            }
+        };
+
+        executor.execute(task);
+
+        assertEqualsEventually(task, Boolean.TRUE);
+    }
+
+    @Test
+    public void test_isOperationThread() {
+        final ThreadPerCoreOperationExecutor executor = initThreadPerCoreExecutor();
+
+        PartitionSpecificCallable task = new PartitionSpecificCallable(0) {
+            @Override
+            public Object call() {
+                return executor.isOperationThread();
+            }
+        };
+
+        executor.execute(task);
+
+        assertEqualsEventually(task, Boolean.TRUE);
+        assertFalse(executor.isOperationThread());
+    }
+
+    public static class PacketThreadRecordingOperation extends DummyOperation {
+        static final AtomicReference<Thread> THREAD = new AtomicReference<Thread>();
+
+        public PacketThreadRecordingOperation() {
+            this(0);
+        }
+
+        public PacketThreadRecordingOperation(int partitionId) {
+            super(partitionId);
+        }
+
+        @Override
+        public void run() throws Exception {
+            THREAD.set(Thread.currentThread());
+        }
+    }
+
+    private static class ThreadRecordingOperation extends DummyOperation {
+        private final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+
+        ThreadRecordingOperation(int partitionId) {
+            super(partitionId);
+        }
+
+        @Override
+        public void run() throws Exception {
+            thread.set(Thread.currentThread());
+        }
+    }
+}
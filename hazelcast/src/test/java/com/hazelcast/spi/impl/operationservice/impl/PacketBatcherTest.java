@@ -0,0 +1,114 @@
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.GroupProperty;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PacketBatcherTest extends HazelcastTestSupport {
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void testBatchPacket_roundTrip() {
+        Packet operationPacket = new Packet(serializationService.toBytes("operation"), 10);
+        operationPacket.setHeader(Packet.HEADER_OP);
+        Packet responsePacket = new Packet(serializationService.toBytes("response"), -1);
+        responsePacket.setHeader(Packet.HEADER_OP);
+        responsePacket.setHeader(Packet.HEADER_RESPONSE);
+        List<Packet> packets = Arrays.asList(operationPacket, responsePacket);
+
+        Packet batchPacket = PacketBatcher.toBatchPacket(packets);
+        assertTrue(batchPacket.isHeaderSet(Packet.HEADER_OP));
+        assertTrue(batchPacket.isHeaderSet(Packet.HEADER_BATCH));
+
+        Packet[] result = PacketBatcher.fromBatchPacket(batchPacket);
+        assertEquals(packets.size(), result.length);
+        for (int k = 0; k < result.length; k++) {
+            assertEquals(packets.get(k).getHeader(), result[k].getHeader());
+            assertEquals(packets.get(k).getPartitionId(), result[k].getPartitionId());
+            assertArrayEquals(packets.get(k).toByteArray(), result[k].toByteArray());
+        }
+    }
+
+    @Test
+    public void testOffer_whenNoBatchStarted() throws Exception {
+        PacketBatcher batcher = new PacketBatcher(null);
+
+        assertFalse(batcher.offer(newPacket(), new Address("127.0.0.1", 5701)));
+    }
+
+    @Test
+    public void testOffer_whenUrgent() throws Exception {
+        PacketBatcher batcher = new PacketBatcher(null);
+        batcher.onBatchStart();
+        Packet packet = newPacket();
+        packet.setHeader(Packet.HEADER_URGENT);
+
+        assertFalse(batcher.offer(packet, new Address("127.0.0.1", 5701)));
+    }
+
+    @Test
+    public void testOffer_whenBatchStarted() throws Exception {
+        PacketBatcher batcher = new PacketBatcher(null);
+        batcher.onBatchStart();
+
+        assertTrue(batcher.offer(newPacket(), new Address("127.0.0.1", 5701)));
+    }
+
+    @Test
+    public void testBackupsAndResponses_whenBatchingEnabled() {
+        Config config = new Config()
+                .setProperty(GroupProperty.OPERATION_BATCH_SIZE, "32")
+                .setProperty(GroupProperty.PARTITION_OPERATION_THREAD_COUNT, "2");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance hz1 = factory.newHazelcastInstance(config);
+        HazelcastInstance hz2 = factory.newHazelcastInstance(config);
+        warmUpPartitions(hz1, hz2);
+
+        IMap<Integer, Integer> map = hz1.getMap(randomMapName());
+        int count = 1000;
+        for (int k = 0; k < count; k++) {
+            map.putAsync(k, k);
+        }
+        for (int k = 0; k < count; k++) {
+            map.put(k, k + 1);
+        }
+
+        hz1.getLifecycleService().terminate();
+
+        IMap<Integer, Integer> backupMap = hz2.getMap(map.getName());
+        assertEquals(count, backupMap.size());
+        for (int k = 0; k < count; k++) {
+            assertEquals(Integer.valueOf(k + 1), backupMap.get(k));
+        }
+    }
+
+    private Packet newPacket() {
+        Packet packet = new Packet(serializationService.toBytes("payload"), 1);
+        packet.setHeader(Packet.HEADER_OP);
+        return packet;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2008-2015, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class SingleWriterOpenAddressingMapTest {
+
+    private final SingleWriterOpenAddressingMap<Integer, String> map = new SingleWriterOpenAddressingMap<Integer, String>();
+
+    @Test
+    public void shouldDoPutAndThenGet() {
+        map.put(7, "Seven");
+
+        assertEquals("Seven", map.get(7));
+        assertTrue(map.containsKey(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldFetchAllKeysInChunks() {
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "value" + i);
+        }
+        map.remove(50);
+
+        List<Integer> keys = new ArrayList<Integer>();
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            int sizeBefore = keys.size();
+            tableIndex = map.fetch(tableIndex, 7, keys);
+            assertTrue(keys.size() - sizeBefore <= 7);
+        } while (tableIndex >= 0);
+
+        assertEquals(99, keys.size());
+        assertEquals(99, new HashSet<Integer>(keys).size());
+        assertFalse(keys.contains(50));
+    }
+
+    @Test
+    public void shouldReplaceExistingValueForTheSameKey() {
+        map.put(7, "Seven");
+
+        assertEquals("Seven", map.put(7, "New Seven"));
+        assertEquals("New Seven", map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldRemoveEntry() {
+        map.put(7, "Seven");
+
+        assertEquals("Seven", map.remove(7));
+        assertNull(map.get(7));
+        assertFalse(map.containsKey(7));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldSupportConcurrentMapMethods() {
+        assertNull(map.putIfAbsent(1, "one"));
+        assertEquals("one", map.putIfAbsent(1, "uno"));
+        assertEquals("one", map.replace(1, "uno"));
+        assertFalse(map.replace(1, "one", "eins"));
+        assertTrue(map.replace(1, "uno", "eins"));
+        assertFalse(map.remove(1, "one"));
+        assertTrue(map.remove(1, "eins"));
+        assertNull(map.replace(1, "one"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldGrowWhenThresholdExceeded() {
+        SingleWriterOpenAddressingMap<Integer, String> map = new SingleWriterOpenAddressingMap<Integer, String>(16, 0.5f);
+        for (int i = 0; i < 16; i++) {
+            map.put(i, Integer.toString(i));
+        }
+
+        assertEquals(32, map.capacity());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(Integer.toString(i), map.get(i));
+        }
+    }
+
+    @Test
+    public void shouldNotGrowWhenOnlyTombstonesAccumulate() {
+        SingleWriterOpenAddressingMap<Integer, String> map = new SingleWriterOpenAddressingMap<Integer, String>(16, 0.5f);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, Integer.toString(i));
+            map.remove(i);
+        }
+
+        assertEquals(16, map.capacity());
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldBehaveLikeHashMap() {
+        Map<Integer, String> expected = new HashMap<Integer, String>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertEquals(expected, new HashMap<Integer, String>(map));
+    }
+
+    @Test
+    public void shouldRemoveThroughIterator() {
+        for (int i = 0; i < 100; i++) {
+            map.put(i, Integer.toString(i));
+        }
+
+        Iterator<Integer> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(50, map.size());
+        for (Integer key : map.keySet()) {
+            assertTrue(key % 2 == 1);
+        }
+    }
+
+    @Test
+    public void shouldClear() {
+        for (int i = 0; i < 100; i++) {
+            map.put(i, Integer.toString(i));
+        }
+
+        map.values().clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.keySet().iterator().hasNext());
+    }
+
+    @Test
+    public void shouldNeverReturnValueOfOtherKey_whenReadConcurrently() throws Exception {
+        final SingleWriterOpenAddressingMap<Integer, Integer> map = new SingleWriterOpenAddressingMap<Integer, Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicInteger failures = new AtomicInteger();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                Random random = new Random();
+                while (!stop.get()) {
+                    int key = random.nextInt(100);
+                    Integer value = map.get(key);
+                    if (value == null || value % 1000 != key) {
+                        failures.incrementAndGet();
+                    }
+                    for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+                        if ((entry.getValue() - entry.getKey()) % 1000 != 0) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        };
+        reader.start();
+
+        Random random = new Random();
+        for (int i = 0; i < 100000; i++) {
+            int key = 100 + random.nextInt(10000);
+            if (random.nextBoolean()) {
+                map.put(key, key + 1000 * random.nextInt(100));
+            } else {
+                map.remove(key);
+            }
+            int stableKey = random.nextInt(100);
+            map.put(stableKey, stableKey + 1000 * (i % 100));
+        }
+        stop.set(true);
+        reader.join();
+
+        assertEquals(0, failures.get());
+    }
+}
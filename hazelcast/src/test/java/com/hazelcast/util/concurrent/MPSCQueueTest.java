@@ -0,0 +1,218 @@
+package com.hazelcast.util.concurrent;
+
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class MPSCQueueTest extends HazelcastTestSupport {
+
+    private MPSCQueue<String> queue;
+
+    @Before
+    public void setup() {
+        IdleStrategy idleStrategy = new BackoffIdleStrategy(10, 10, 1000, MILLISECONDS.toNanos(100));
+        queue = new MPSCQueue<String>(4, idleStrategy);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offer_whenNull() {
+        queue.offer(null);
+    }
+
+    @Test
+    public void poll_whenEmpty() {
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void fifo_acrossChunks() {
+        for (int k = 0; k < 100; k++) {
+            queue.offer("item" + k);
+        }
+
+        assertEquals(100, queue.size());
+        assertEquals("item0", queue.peek());
+
+        for (int k = 0; k < 100; k++) {
+            assertEquals("item" + k, queue.poll());
+        }
+
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void iterator() {
+        for (int k = 0; k < 10; k++) {
+            queue.offer("item" + k);
+        }
+        queue.poll();
+        queue.poll();
+
+        List<String> items = new ArrayList<String>();
+        Iterator<String> it = queue.iterator();
+        while (it.hasNext()) {
+            items.add(it.next());
+        }
+
+        assertEquals(8, items.size());
+        assertEquals("item2", items.get(0));
+        assertEquals("item9", items.get(7));
+    }
+
+    @Test
+    public void drainTo() {
+        for (int k = 0; k < 10; k++) {
+            queue.offer("item" + k);
+        }
+
+        List<String> items = new ArrayList<String>();
+        assertEquals(6, queue.drainTo(items, 6));
+        assertEquals(4, queue.size());
+        assertEquals("item6", queue.poll());
+    }
+
+    @Test
+    public void clear() {
+        for (int k = 0; k < 10; k++) {
+            queue.offer("item" + k);
+        }
+
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        queue.offer("foo");
+        assertEquals("foo", queue.poll());
+    }
+
+    @Test
+    public void poll_withTimeout_whenEmpty() throws InterruptedException {
+        assertNull(queue.poll(10, MILLISECONDS));
+    }
+
+    @Test
+    public void take_whenItemAvailable() throws InterruptedException {
+        queue.offer("foo");
+
+        assertEquals("foo", queue.take());
+    }
+
+    @Test
+    public void take_isWokenUpByProducer() throws Exception {
+        final AtomicReference<String> result = new AtomicReference<String>();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result.set(queue.take());
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+                completed.countDown();
+            }
+        };
+        consumer.start();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(queue.parkCount() > 0);
+            }
+        });
+
+        queue.offer("foo");
+
+        assertOpenEventually(completed);
+        assertNull(failure.get());
+        assertEquals("foo", result.get());
+        assertTrue(queue.wakeupCount() > 0);
+    }
+
+    @Test
+    public void take_whenInterrupted() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.take();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        };
+        consumer.start();
+        consumer.interrupt();
+
+        assertOpenEventually(interrupted);
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        final int producerCount = 4;
+        final int itemsPerProducer = 10000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+
+        for (int producerId = 0; producerId < producerCount; producerId++) {
+            final int id = producerId;
+            new Thread() {
+                @Override
+                public void run() {
+                    await(startLatch);
+                    for (int k = 0; k < itemsPerProducer; k++) {
+                        queue.offer(id + ":" + k);
+                    }
+                }
+            }.start();
+        }
+
+        startLatch.countDown();
+
+        int[] expected = new int[producerCount];
+        for (int k = 0; k < producerCount * itemsPerProducer; k++) {
+            String item = queue.poll(ASSERT_TRUE_EVENTUALLY_TIMEOUT, TimeUnit.SECONDS);
+            assertFalse("no item received", item == null);
+
+            String[] tokens = item.split(":");
+            int producerId = Integer.parseInt(tokens[0]);
+            // the items of a single producer should be received in order
+            assertEquals(expected[producerId], Integer.parseInt(tokens[1]));
+            expected[producerId]++;
+        }
+
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
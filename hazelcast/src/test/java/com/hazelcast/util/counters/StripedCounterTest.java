@@ -0,0 +1,74 @@
+package com.hazelcast.util.counters;
+
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.util.counters.StripedCounter.newStripedCounter;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class StripedCounterTest {
+    private StripedCounter counter;
+
+    @Before
+    public void setup() {
+        counter = newStripedCounter(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newStripedCounter_whenNoStripes() {
+        newStripedCounter(0);
+    }
+
+    @Test
+    public void inc() {
+        counter.inc();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void inc_withAmount() {
+        counter.inc(10);
+        assertEquals(10, counter.get());
+
+        counter.inc(0);
+        assertEquals(10, counter.get());
+
+        counter.inc(-3);
+        assertEquals(7, counter.get());
+    }
+
+    @Test
+    public void inc_concurrently() throws InterruptedException {
+        final int threadCount = 8;
+        final int incrementsPerThread = 10000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int k = 0; k < incrementsPerThread; k++) {
+                        counter.inc();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * incrementsPerThread, counter.get());
+    }
+
+    @Test
+    public void test_toString() {
+        String s = counter.toString();
+        assertEquals("Counter{value=0}", s);
+    }
+}